@@ -43,6 +43,8 @@ public class BenchmarkSuite
                 new CountAggregationBenchmark(localQueryRunner),
                 new DoubleSumAggregationBenchmark(localQueryRunner),
                 new HashAggregationBenchmark(localQueryRunner),
+                new HashAggregationBenchmark(localQueryRunner, "hash_agg_two_keys", ImmutableList.of("custkey", "orderdate")),
+                new HashAggregationBenchmark(localQueryRunner, "hash_agg_three_keys", ImmutableList.of("custkey", "orderdate", "shippriority")),
                 new PredicateFilterBenchmark(localQueryRunner),
                 new RawStreamingBenchmark(localQueryRunner),
                 new Top100Benchmark(localQueryRunner),
@@ -22,26 +22,34 @@ import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.testing.LocalQueryRunner;
 import com.google.common.collect.ImmutableList;
-import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static com.facebook.presto.benchmark.BenchmarkQueryRunner.createLocalQueryRunner;
 import static com.facebook.presto.metadata.FunctionKind.AGGREGATE;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class HashAggregationBenchmark
         extends AbstractSimpleOperatorBenchmark
 {
+    private final List<String> groupByColumns;
     private final InternalAggregationFunction doubleSum;
 
     public HashAggregationBenchmark(LocalQueryRunner localQueryRunner)
     {
-        super(localQueryRunner, "hash_agg", 5, 25);
+        this(localQueryRunner, "hash_agg", ImmutableList.of("orderstatus"));
+    }
+
+    public HashAggregationBenchmark(LocalQueryRunner localQueryRunner, String benchmarkName, List<String> groupByColumns)
+    {
+        super(localQueryRunner, benchmarkName, 5, 25);
 
+        this.groupByColumns = ImmutableList.copyOf(groupByColumns);
         doubleSum = localQueryRunner.getMetadata().getFunctionRegistry().getAggregateFunctionImplementation(
                 new Signature("sum", AGGREGATE, DOUBLE.getTypeSignature(), DOUBLE.getTypeSignature()));
     }
@@ -49,16 +57,17 @@ public class HashAggregationBenchmark
     @Override
     protected List<? extends OperatorFactory> createOperatorFactories()
     {
-        OperatorFactory tableScanOperator = createTableScanOperator(0, new PlanNodeId("test"), "orders", "orderstatus", "totalprice");
-        List<Type> types = ImmutableList.of(tableScanOperator.getTypes().get(0));
+        String[] columns = ImmutableList.<String>builder().addAll(groupByColumns).add("totalprice").build().toArray(new String[0]);
+        OperatorFactory tableScanOperator = createTableScanOperator(0, new PlanNodeId("test"), "orders", columns);
+        List<Type> types = tableScanOperator.getTypes().subList(0, groupByColumns.size());
         HashAggregationOperatorFactory aggregationOperator = new HashAggregationOperatorFactory(
                 1,
                 new PlanNodeId("test"),
                 types,
-                Ints.asList(0),
+                IntStream.range(0, groupByColumns.size()).boxed().collect(toImmutableList()),
                 ImmutableList.of(),
                 Step.SINGLE,
-                ImmutableList.of(doubleSum.bind(ImmutableList.of(1), Optional.empty())),
+                ImmutableList.of(doubleSum.bind(ImmutableList.of(groupByColumns.size()), Optional.empty())),
                 Optional.empty(),
                 Optional.empty(),
                 100_000,
@@ -69,6 +78,9 @@ public class HashAggregationBenchmark
 
     public static void main(String[] args)
     {
-        new HashAggregationBenchmark(createLocalQueryRunner()).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        LocalQueryRunner localQueryRunner = createLocalQueryRunner();
+        new HashAggregationBenchmark(localQueryRunner).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        new HashAggregationBenchmark(localQueryRunner, "hash_agg_two_keys", ImmutableList.of("custkey", "orderdate")).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        new HashAggregationBenchmark(localQueryRunner, "hash_agg_three_keys", ImmutableList.of("custkey", "orderdate", "shippriority")).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
     }
 }
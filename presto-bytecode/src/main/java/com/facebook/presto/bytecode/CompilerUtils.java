@@ -14,6 +14,7 @@
 package com.facebook.presto.bytecode;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Files;
 import com.google.common.reflect.Reflection;
 import io.airlift.log.Logger;
@@ -80,6 +81,25 @@ public final class CompilerUtils
         return clazz.asSubclass(superType);
     }
 
+    /**
+     * Generates the bytecode for a class without defining it. The class can be
+     * defined later, possibly in another process, with
+     * {@link #defineClass(byte[], Class, DynamicClassLoader)}.
+     */
+    public static byte[] generateBytecode(ClassDefinition classDefinition, DynamicClassLoader classLoader)
+    {
+        ClassInfoLoader classInfoLoader = ClassInfoLoader.createClassInfoLoader(ImmutableList.of(classDefinition), classLoader);
+        return generateBytecode(classDefinition, classInfoLoader, classLoader);
+    }
+
+    public static <T> Class<? extends T> defineClass(byte[] bytecode, Class<T> superType, DynamicClassLoader classLoader)
+    {
+        String className = new ClassReader(bytecode).getClassName().replace('/', '.');
+        log.debug("Defining class: %s", className);
+        Class<?> clazz = defineClasses(ImmutableMap.of(className, bytecode), classLoader).get(className);
+        return clazz.asSubclass(superType);
+    }
+
     private static Map<String, Class<?>> defineClasses(List<ClassDefinition> classDefinitions, DynamicClassLoader classLoader)
     {
         ClassInfoLoader classInfoLoader = ClassInfoLoader.createClassInfoLoader(classDefinitions, classLoader);
@@ -95,28 +115,7 @@ public final class CompilerUtils
 
         Map<String, byte[]> bytecodes = new LinkedHashMap<>();
         for (ClassDefinition classDefinition : classDefinitions) {
-            ClassWriter cw = new SmartClassWriter(classInfoLoader);
-            try {
-                classDefinition.visit(ADD_FAKE_LINE_NUMBER ? new AddFakeLineNumberClassVisitor(cw) : cw);
-            }
-            catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
-                Printer printer = new Textifier();
-                StringWriter stringWriter = new StringWriter();
-                TraceClassVisitor tcv = new TraceClassVisitor(null, printer, new PrintWriter(stringWriter));
-                classDefinition.visit(tcv);
-                throw new IllegalArgumentException("An error occurred while processing classDefinition:" + System.lineSeparator() + stringWriter.toString(), e);
-            }
-            try {
-                byte[] bytecode = cw.toByteArray();
-                if (RUN_ASM_VERIFIER) {
-                    ClassReader reader = new ClassReader(bytecode);
-                    CheckClassAdapter.verify(reader, classLoader, true, new PrintWriter(System.out));
-                }
-                bytecodes.put(classDefinition.getType().getJavaClassName(), bytecode);
-            }
-            catch (RuntimeException e) {
-                throw new CompilationException("Error compiling class " + classDefinition.getName(), e);
-            }
+            bytecodes.put(classDefinition.getType().getJavaClassName(), generateBytecode(classDefinition, classInfoLoader, classLoader));
         }
 
         String dumpClassPath = DUMP_CLASS_FILES_TO.get();
@@ -139,6 +138,37 @@ public final class CompilerUtils
                 classReader.accept(new TraceClassVisitor(new PrintWriter(System.err)), ClassReader.EXPAND_FRAMES);
             }
         }
+        return defineClasses(bytecodes, classLoader);
+    }
+
+    private static byte[] generateBytecode(ClassDefinition classDefinition, ClassInfoLoader classInfoLoader, DynamicClassLoader classLoader)
+    {
+        ClassWriter cw = new SmartClassWriter(classInfoLoader);
+        try {
+            classDefinition.visit(ADD_FAKE_LINE_NUMBER ? new AddFakeLineNumberClassVisitor(cw) : cw);
+        }
+        catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            Printer printer = new Textifier();
+            StringWriter stringWriter = new StringWriter();
+            TraceClassVisitor tcv = new TraceClassVisitor(null, printer, new PrintWriter(stringWriter));
+            classDefinition.visit(tcv);
+            throw new IllegalArgumentException("An error occurred while processing classDefinition:" + System.lineSeparator() + stringWriter.toString(), e);
+        }
+        try {
+            byte[] bytecode = cw.toByteArray();
+            if (RUN_ASM_VERIFIER) {
+                ClassReader reader = new ClassReader(bytecode);
+                CheckClassAdapter.verify(reader, classLoader, true, new PrintWriter(System.out));
+            }
+            return bytecode;
+        }
+        catch (RuntimeException e) {
+            throw new CompilationException("Error compiling class " + classDefinition.getName(), e);
+        }
+    }
+
+    private static Map<String, Class<?>> defineClasses(Map<String, byte[]> bytecodes, DynamicClassLoader classLoader)
+    {
         Map<String, Class<?>> classes = classLoader.defineClasses(bytecodes);
         try {
             for (Class<?> clazz : classes.values()) {
@@ -125,6 +125,12 @@ public class ClientOptions
     @Option(name = "--client-request-timeout", title = "client request timeout", description = "Client request timeout (default: 2m)")
     public Duration clientRequestTimeout = new Duration(2, MINUTES);
 
+    @Option(name = "--binary-results", title = "binary results", description = "Transfer query results using the compressed columnar binary encoding")
+    public boolean binaryResults;
+
+    @Option(name = "--direct-results", title = "direct results", description = "Download query results directly from the workers when the server allows it")
+    public boolean directResults;
+
     public enum OutputFormat
     {
         ALIGNED,
@@ -149,10 +155,13 @@ public class ClientOptions
                 Locale.getDefault(),
                 toProperties(sessionProperties),
                 emptyMap(),
+                emptyMap(),
                 null,
                 debug,
                 quiet,
-                clientRequestTimeout);
+                clientRequestTimeout,
+                binaryResults,
+                directResults);
     }
 
     public static URI parseServer(String server)
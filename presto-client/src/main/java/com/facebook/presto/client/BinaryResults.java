@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.spi.type.TypeSignature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+import static com.facebook.presto.client.QueryResults.fixValue;
+import static com.facebook.presto.spi.type.StandardTypes.BIGINT;
+import static com.facebook.presto.spi.type.StandardTypes.BOOLEAN;
+import static com.facebook.presto.spi.type.StandardTypes.CHAR;
+import static com.facebook.presto.spi.type.StandardTypes.DATE;
+import static com.facebook.presto.spi.type.StandardTypes.DECIMAL;
+import static com.facebook.presto.spi.type.StandardTypes.DOUBLE;
+import static com.facebook.presto.spi.type.StandardTypes.INTEGER;
+import static com.facebook.presto.spi.type.StandardTypes.INTERVAL_DAY_TO_SECOND;
+import static com.facebook.presto.spi.type.StandardTypes.INTERVAL_YEAR_TO_MONTH;
+import static com.facebook.presto.spi.type.StandardTypes.JSON;
+import static com.facebook.presto.spi.type.StandardTypes.REAL;
+import static com.facebook.presto.spi.type.StandardTypes.SMALLINT;
+import static com.facebook.presto.spi.type.StandardTypes.TIME;
+import static com.facebook.presto.spi.type.StandardTypes.TIMESTAMP;
+import static com.facebook.presto.spi.type.StandardTypes.TIMESTAMP_WITH_TIME_ZONE;
+import static com.facebook.presto.spi.type.StandardTypes.TIME_WITH_TIME_ZONE;
+import static com.facebook.presto.spi.type.StandardTypes.TINYINT;
+import static com.facebook.presto.spi.type.StandardTypes.VARBINARY;
+import static com.facebook.presto.spi.type.StandardTypes.VARCHAR;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Columnar encoding of result rows, negotiated with the
+ * {@link PrestoHeaders#PRESTO_RESULT_ENCODING} header.
+ * <p>
+ * The payload is deflate compressed and contains a format version, the
+ * position count and the column count, followed by each column in turn:
+ * a {@link ColumnKind} tag, a null bitmap, and the non-null values.
+ * Values are decoded to the same Java objects the JSON encoding produces.
+ */
+public final class BinaryResults
+{
+    public static final String BINARY_RESULT_ENCODING = "binary";
+    public static final int FORMAT_VERSION = 1;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BinaryResults() {}
+
+    public enum ColumnKind
+    {
+        LONG,
+        INT,
+        SHORT,
+        BYTE,
+        DOUBLE,
+        FLOAT,
+        BOOLEAN,
+        // length prefixed UTF-8
+        STRING,
+        // length prefixed raw bytes
+        BINARY,
+        // length prefixed JSON value, for structural and unknown types
+        JSON;
+
+        public byte getTag()
+        {
+            return (byte) ordinal();
+        }
+
+        public static ColumnKind fromTag(byte tag)
+        {
+            checkArgument(tag >= 0 && tag < values().length, "Invalid column kind: %s", tag);
+            return values()[tag];
+        }
+    }
+
+    public static ColumnKind getColumnKind(TypeSignature signature)
+    {
+        switch (signature.getBase()) {
+            case BIGINT:
+                return ColumnKind.LONG;
+            case INTEGER:
+                return ColumnKind.INT;
+            case SMALLINT:
+                return ColumnKind.SHORT;
+            case TINYINT:
+                return ColumnKind.BYTE;
+            case DOUBLE:
+                return ColumnKind.DOUBLE;
+            case REAL:
+                return ColumnKind.FLOAT;
+            case BOOLEAN:
+                return ColumnKind.BOOLEAN;
+            case VARCHAR:
+            case JSON:
+            case TIME:
+            case TIME_WITH_TIME_ZONE:
+            case TIMESTAMP:
+            case TIMESTAMP_WITH_TIME_ZONE:
+            case DATE:
+            case INTERVAL_YEAR_TO_MONTH:
+            case INTERVAL_DAY_TO_SECOND:
+            case DECIMAL:
+            case CHAR:
+                return ColumnKind.STRING;
+            case VARBINARY:
+                return ColumnKind.BINARY;
+            default:
+                return ColumnKind.JSON;
+        }
+    }
+
+    public static List<List<Object>> decode(List<Column> columns, byte[] data)
+    {
+        requireNonNull(columns, "columns is null");
+        requireNonNull(data, "data is null");
+
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int version = input.readByte();
+            checkArgument(version == FORMAT_VERSION, "Unsupported binary result version: %s", version);
+            int positionCount = input.readInt();
+            int columnCount = input.readInt();
+            checkArgument(columnCount == columns.size(), "row/column size mismatch");
+
+            Object[][] values = new Object[positionCount][columnCount];
+            for (int channel = 0; channel < columnCount; channel++) {
+                TypeSignature signature = parseTypeSignature(columns.get(channel).getType());
+                ColumnKind kind = ColumnKind.fromTag(input.readByte());
+                boolean[] nulls = readNulls(input, positionCount);
+                for (int position = 0; position < positionCount; position++) {
+                    if (!nulls[position]) {
+                        values[position][channel] = readValue(input, kind, signature);
+                    }
+                }
+            }
+
+            ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+            for (Object[] row : values) {
+                rows.add(unmodifiableList(Arrays.asList(row))); // allow nulls in list
+            }
+            return rows.build();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Invalid binary result data", e);
+        }
+    }
+
+    private static boolean[] readNulls(DataInputStream input, int positionCount)
+            throws IOException
+    {
+        boolean[] nulls = new boolean[positionCount];
+        int value = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if ((position & 7) == 0) {
+                value = input.readUnsignedByte();
+            }
+            nulls[position] = (value & (1 << (position & 7))) != 0;
+        }
+        return nulls;
+    }
+
+    private static Object readValue(DataInputStream input, ColumnKind kind, TypeSignature signature)
+            throws IOException
+    {
+        switch (kind) {
+            case LONG:
+                return input.readLong();
+            case INT:
+                return input.readInt();
+            case SHORT:
+                return input.readShort();
+            case BYTE:
+                return input.readByte();
+            case DOUBLE:
+                return input.readDouble();
+            case FLOAT:
+                return input.readFloat();
+            case BOOLEAN:
+                return input.readBoolean();
+            case STRING:
+                return new String(readBytes(input), UTF_8);
+            case BINARY:
+                return readBytes(input);
+            case JSON:
+                return fixValue(signature, OBJECT_MAPPER.readValue(readBytes(input), Object.class));
+            default:
+                throw new IllegalArgumentException("Unsupported column kind: " + kind);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input)
+            throws IOException
+    {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+}
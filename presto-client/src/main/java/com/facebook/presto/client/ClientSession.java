@@ -47,6 +47,8 @@ public class ClientSession
     private final boolean debug;
     private final boolean quiet;
     private final Duration clientRequestTimeout;
+    private final boolean binaryResults;
+    private final boolean directResults;
 
     public static ClientSession withCatalogAndSchema(ClientSession session, String catalog, String schema)
     {
@@ -65,7 +67,9 @@ public class ClientSession
                 session.getTransactionId(),
                 session.isDebug(),
                 session.isQuiet(),
-                session.getClientRequestTimeout());
+                session.getClientRequestTimeout(),
+                session.isBinaryResults(),
+                session.isDirectResults());
     }
 
     public static ClientSession withProperties(ClientSession session, Map<String, String> properties)
@@ -85,7 +89,9 @@ public class ClientSession
                 session.getTransactionId(),
                 session.isDebug(),
                 session.isQuiet(),
-                session.getClientRequestTimeout());
+                session.getClientRequestTimeout(),
+                session.isBinaryResults(),
+                session.isDirectResults());
     }
 
     public static ClientSession withRoles(ClientSession session, Map<String, SelectedRole> roles)
@@ -105,7 +111,9 @@ public class ClientSession
                 session.getTransactionId(),
                 session.isDebug(),
                 session.isQuiet(),
-                session.getClientRequestTimeout());
+                session.getClientRequestTimeout(),
+                session.isBinaryResults(),
+                session.isDirectResults());
     }
 
     public static ClientSession withPreparedStatements(ClientSession session, Map<String, String> preparedStatements)
@@ -125,7 +133,9 @@ public class ClientSession
                 session.getTransactionId(),
                 session.isDebug(),
                 session.isQuiet(),
-                session.getClientRequestTimeout());
+                session.getClientRequestTimeout(),
+                session.isBinaryResults(),
+                session.isDirectResults());
     }
 
     public static ClientSession withTransactionId(ClientSession session, String transactionId)
@@ -145,7 +155,9 @@ public class ClientSession
                 transactionId,
                 session.isDebug(),
                 session.isQuiet(),
-                session.getClientRequestTimeout());
+                session.getClientRequestTimeout(),
+                session.isBinaryResults(),
+                session.isDirectResults());
     }
 
     public static ClientSession stripTransactionId(ClientSession session)
@@ -165,7 +177,9 @@ public class ClientSession
                 null,
                 session.isDebug(),
                 session.isQuiet(),
-                session.getClientRequestTimeout());
+                session.getClientRequestTimeout(),
+                session.isBinaryResults(),
+                session.isDirectResults());
     }
 
     public ClientSession(
@@ -221,6 +235,49 @@ public class ClientSession
             boolean debug,
             boolean quiet,
             Duration clientRequestTimeout)
+    {
+        this(server, user, source, clientInfo, catalog, schema, timeZoneId, locale, properties, preparedStatements, roles, transactionId, debug, quiet, clientRequestTimeout, false);
+    }
+
+    public ClientSession(
+            URI server,
+            String user,
+            String source,
+            String clientInfo,
+            String catalog,
+            String schema,
+            String timeZoneId,
+            Locale locale,
+            Map<String, String> properties,
+            Map<String, String> preparedStatements,
+            Map<String, SelectedRole> roles,
+            String transactionId,
+            boolean debug,
+            boolean quiet,
+            Duration clientRequestTimeout,
+            boolean binaryResults)
+    {
+        this(server, user, source, clientInfo, catalog, schema, timeZoneId, locale, properties, preparedStatements, roles, transactionId, debug, quiet, clientRequestTimeout, binaryResults, false);
+    }
+
+    public ClientSession(
+            URI server,
+            String user,
+            String source,
+            String clientInfo,
+            String catalog,
+            String schema,
+            String timeZoneId,
+            Locale locale,
+            Map<String, String> properties,
+            Map<String, String> preparedStatements,
+            Map<String, SelectedRole> roles,
+            String transactionId,
+            boolean debug,
+            boolean quiet,
+            Duration clientRequestTimeout,
+            boolean binaryResults,
+            boolean directResults)
     {
         this.server = requireNonNull(server, "server is null");
         this.user = user;
@@ -237,6 +294,8 @@ public class ClientSession
         this.preparedStatements = ImmutableMap.copyOf(requireNonNull(preparedStatements, "preparedStatements is null"));
         this.roles = ImmutableMap.copyOf(requireNonNull(roles, "roles is null"));
         this.clientRequestTimeout = clientRequestTimeout;
+        this.binaryResults = binaryResults;
+        this.directResults = directResults;
 
         // verify the properties are valid
         CharsetEncoder charsetEncoder = US_ASCII.newEncoder();
@@ -326,6 +385,23 @@ public class ClientSession
         return clientRequestTimeout;
     }
 
+    /**
+     * Request results in the compressed columnar {@link BinaryResults} encoding.
+     */
+    public boolean isBinaryResults()
+    {
+        return binaryResults;
+    }
+
+    /**
+     * Download query results directly from the workers instead of through
+     * the coordinator.
+     */
+    public boolean isDirectResults()
+    {
+        return directResults;
+    }
+
     @Override
     public String toString()
     {
@@ -341,6 +417,8 @@ public class ClientSession
                 .add("transactionId", transactionId)
                 .add("debug", debug)
                 .add("quiet", quiet)
+                .add("binaryResults", binaryResults)
+                .add("directResults", directResults)
                 .toString();
     }
 }
@@ -43,6 +43,9 @@ public final class PrestoHeaders
     public static final String PRESTO_BUFFER_COMPLETE = "X-Presto-Buffer-Complete";
     public static final String PRESTO_PREPARED_STATEMENT_IN_BODY = "X-Presto-Prepared-Statement-In-Body";
     public static final String PRESTO_LOGIN_TOKEN = "X-Presto-Login-Token";
+    public static final String PRESTO_RESULT_ENCODING = "X-Presto-Result-Encoding";
+    public static final String PRESTO_DIRECT_RESULTS = "X-Presto-Direct-Results";
+    public static final String PRESTO_DOWNLOAD_TOKEN = "X-Presto-Download-Token";
 
     private PrestoHeaders() {}
 }
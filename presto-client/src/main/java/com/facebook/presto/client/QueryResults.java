@@ -74,6 +74,9 @@ public class QueryResults
     private final URI nextUri;
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
+    private final byte[] binaryData;
+    private final URI downloadUri;
+    private final String downloadToken;
     private final StatementStats stats;
     private final QueryError error;
     private final String updateType;
@@ -89,6 +92,9 @@ public class QueryResults
             @JsonProperty("nextUri") URI nextUri,
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
+            @JsonProperty("binaryData") byte[] binaryData,
+            @JsonProperty("downloadUri") URI downloadUri,
+            @JsonProperty("downloadToken") String downloadToken,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("updateType") String updateType,
@@ -96,7 +102,7 @@ public class QueryResults
             @JsonProperty("addedPreparedStatements") Map<String, String> addedPreparedStatements,
             @JsonProperty("deallocatedPreparedStatements") Set<String> deallocatedPreparedStatements)
     {
-        this(id, infoUri, partialCancelUri, nextUri, columns, fixData(columns, data), stats, error, updateType, updateCount, addedPreparedStatements, deallocatedPreparedStatements);
+        this(id, infoUri, partialCancelUri, nextUri, columns, decodeData(columns, data, binaryData), null, downloadUri, downloadToken, stats, error, updateType, updateCount, addedPreparedStatements, deallocatedPreparedStatements);
     }
 
     public QueryResults(
@@ -113,12 +119,36 @@ public class QueryResults
             Map<String, String> addedPreparedStatements,
             Set<String> deallocatedPreparedStatements)
     {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, null, null, null, stats, error, updateType, updateCount, addedPreparedStatements, deallocatedPreparedStatements);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            byte[] binaryData,
+            URI downloadUri,
+            String downloadToken,
+            StatementStats stats,
+            QueryError error,
+            String updateType,
+            Long updateCount,
+            Map<String, String> addedPreparedStatements,
+            Set<String> deallocatedPreparedStatements)
+    {
+        checkArgument(data == null || binaryData == null, "data and binaryData are both set");
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
         this.partialCancelUri = partialCancelUri;
         this.nextUri = nextUri;
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
+        this.binaryData = binaryData;
+        this.downloadUri = downloadUri;
+        this.downloadToken = downloadToken;
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.updateType = updateType;
@@ -171,6 +201,39 @@ public class QueryResults
         return data;
     }
 
+    /**
+     * Rows encoded with {@link BinaryResults}. Clients never observe this,
+     * as the rows are decoded into {@link #getData()} on deserialization.
+     */
+    @Nullable
+    @JsonProperty
+    public byte[] getBinaryData()
+    {
+        return binaryData;
+    }
+
+    /**
+     * Location of the output task buffer when the results are downloaded
+     * directly from the workers.
+     */
+    @Nullable
+    @JsonProperty
+    public URI getDownloadUri()
+    {
+        return downloadUri;
+    }
+
+    /**
+     * Token authorizing the download. Each response carries a newly issued
+     * token, which replaces the previous one.
+     */
+    @Nullable
+    @JsonProperty
+    public String getDownloadToken()
+    {
+        return downloadToken;
+    }
+
     @NotNull
     @JsonProperty
     public StatementStats getStats()
@@ -222,7 +285,8 @@ public class QueryResults
                 .add("partialCancelUri", partialCancelUri)
                 .add("nextUri", nextUri)
                 .add("columns", columns)
-                .add("hasData", data != null)
+                .add("hasData", data != null || binaryData != null)
+                .add("downloadUri", downloadUri)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
@@ -232,6 +296,15 @@ public class QueryResults
                 .toString();
     }
 
+    private static Iterable<List<Object>> decodeData(List<Column> columns, List<List<Object>> data, byte[] binaryData)
+    {
+        if (binaryData != null) {
+            checkArgument(data == null, "data and binaryData are both set");
+            return BinaryResults.decode(columns, binaryData);
+        }
+        return fixData(columns, data);
+    }
+
     private static Iterable<List<Object>> fixData(List<Column> columns, List<List<Object>> data)
     {
         if (data == null) {
@@ -256,7 +329,7 @@ public class QueryResults
     /**
      * Force values coming from Jackson to have the expected object type.
      */
-    private static Object fixValue(TypeSignature signature, Object value)
+    static Object fixValue(TypeSignature signature, Object value)
     {
         if (value == null) {
             return null;
@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_DOWNLOAD_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_USER;
+import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Fetches the output of a query directly from the worker running its output
+ * task. The output buffer is drained by a background thread, and decoded
+ * batches are handed to the consumer through a bounded queue, so a slow
+ * consumer applies back pressure to the worker.
+ */
+@ThreadSafe
+class ResultDownloader
+        implements Closeable
+{
+    private static final int MAX_BUFFERED_BATCHES = 16;
+
+    private final OkHttpClient httpClient;
+    private final String user;
+    private final List<Column> columns;
+    private final AtomicReference<String> downloadToken;
+    private final long requestTimeoutNanos;
+
+    private final ExecutorService executor;
+    private final BlockingQueue<List<List<Object>>> batches = new LinkedBlockingQueue<>(MAX_BUFFERED_BATCHES);
+    private final AtomicBoolean downloadFinished = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public ResultDownloader(OkHttpClient httpClient, String user, List<Column> columns, URI location, String downloadToken, long requestTimeoutNanos)
+    {
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.user = requireNonNull(user, "user is null");
+        this.columns = requireNonNull(columns, "columns is null");
+        requireNonNull(location, "location is null");
+        this.downloadToken = new AtomicReference<>(requireNonNull(downloadToken, "downloadToken is null"));
+        this.requestTimeoutNanos = requestTimeoutNanos;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "result-downloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> download(location));
+    }
+
+    /**
+     * Replaces the download token with one issued more recently by the
+     * coordinator, so downloads that run longer than the token expiration
+     * keep being authorized.
+     */
+    public void setDownloadToken(String downloadToken)
+    {
+        this.downloadToken.set(requireNonNull(downloadToken, "downloadToken is null"));
+    }
+
+    /**
+     * Returns the next downloaded batch of rows, waiting up to the specified
+     * time for one to arrive, or {@code null} if none is available.
+     */
+    public List<List<Object>> poll(long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        List<List<Object>> batch = batches.poll(timeout, unit);
+        if (batch == null && failure.get() != null) {
+            throw new RuntimeException("Error downloading results", failure.get());
+        }
+        return batch;
+    }
+
+    /**
+     * Returns true once the output buffer has been fully downloaded and
+     * consumed, or the download failed.
+     */
+    public boolean isFinished()
+    {
+        // the download enqueues its last batch before it is marked as finished
+        return downloadFinished.get() && batches.isEmpty();
+    }
+
+    @Override
+    public void close()
+    {
+        if (!closed.getAndSet(true)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void download(URI location)
+    {
+        try {
+            long token = 0;
+            while (!closed.get()) {
+                HttpUrl url = HttpUrl.get(location).newBuilder()
+                        .addPathSegment(String.valueOf(token))
+                        .build();
+                try (Response response = execute(prepareRequest(url).build())) {
+                    if (response.code() == HTTP_OK) {
+                        batches.put(BinaryResults.decode(columns, response.body().bytes()));
+                    }
+                    else if (response.code() != HTTP_NO_CONTENT) {
+                        throw new ClientException(format("Error downloading results from %s: HTTP %s", url, response.code()));
+                    }
+
+                    token = Long.parseLong(response.header(PRESTO_PAGE_NEXT_TOKEN));
+                    if (Boolean.parseBoolean(response.header(PRESTO_BUFFER_COMPLETE))) {
+                        // release the buffer so the worker task can finish
+                        execute(prepareRequest(HttpUrl.get(location)).delete().build()).close();
+                        return;
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException | IOException e) {
+            if (!closed.get()) {
+                failure.compareAndSet(null, e);
+            }
+        }
+        finally {
+            downloadFinished.set(true);
+        }
+    }
+
+    private Response execute(Request request)
+            throws IOException, InterruptedException
+    {
+        IOException cause = null;
+        long start = System.nanoTime();
+        long attempts = 0;
+
+        do {
+            // back-off on retry
+            if (attempts > 0) {
+                MILLISECONDS.sleep(attempts * 100);
+            }
+            attempts++;
+
+            Response response;
+            try {
+                response = httpClient.newCall(request).execute();
+            }
+            catch (IOException e) {
+                cause = e;
+                continue;
+            }
+
+            if (response.code() != HTTP_UNAVAILABLE) {
+                return response;
+            }
+            response.close();
+        }
+        while (((System.nanoTime() - start) < requestTimeoutNanos) && !closed.get());
+
+        if (cause == null) {
+            throw new ClientException(format("Error downloading results from %s: service unavailable", request.url()));
+        }
+        throw cause;
+    }
+
+    private Request.Builder prepareRequest(HttpUrl url)
+    {
+        return new Request.Builder()
+                .addHeader(PRESTO_USER, user)
+                .addHeader(PRESTO_DOWNLOAD_TOKEN, downloadToken.get())
+                .url(url);
+    }
+}
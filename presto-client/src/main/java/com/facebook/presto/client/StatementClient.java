@@ -42,14 +42,18 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.presto.client.BinaryResults.BINARY_RESULT_ENCODING;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_INFO;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_DIRECT_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_LANGUAGE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT_IN_BODY;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_RESULT_ENCODING;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SCHEMA;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SET_ROLE;
@@ -70,11 +74,15 @@ import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @ThreadSafe
 public class StatementClient
         implements Closeable
 {
+    private static final long DOWNLOAD_POLL_MILLIS = 100;
+    private static final long DOWNLOAD_HEARTBEAT_NANOS = SECONDS.toNanos(1);
+
     private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
     private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
     private static final JsonCodec<QuerySubmission> QUERY_SUBMISSION_CODEC = jsonCodec(QuerySubmission.class);
@@ -88,6 +96,9 @@ public class StatementClient
     private final String query;
     private final ClientSession session;
     private final AtomicReference<QueryResults> currentResults = new AtomicReference<>();
+    private final AtomicReference<QueryResults> coordinatorResults = new AtomicReference<>();
+    private final AtomicReference<ResultDownloader> resultDownloader = new AtomicReference<>();
+    private final AtomicLong lastCoordinatorResponseNanos = new AtomicLong();
     private final Map<String, String> setSessionProperties = new ConcurrentHashMap<>();
     private final Set<String> resetSessionProperties = Sets.newConcurrentHashSet();
     private final Map<String, SelectedRole> setRoles = new ConcurrentHashMap<>();
@@ -165,6 +176,13 @@ public class StatementClient
 
         builder.addHeader(PRESTO_TRANSACTION_ID, session.getTransactionId() == null ? "NONE" : session.getTransactionId());
 
+        if (session.isBinaryResults()) {
+            builder.addHeader(PRESTO_RESULT_ENCODING, BINARY_RESULT_ENCODING);
+        }
+        if (session.isDirectResults()) {
+            builder.addHeader(PRESTO_DIRECT_RESULTS, "true");
+        }
+
         return builder.build();
     }
 
@@ -271,13 +289,53 @@ public class StatementClient
 
     public boolean advance()
     {
-        URI nextUri = current().getNextUri();
+        checkState(isValid(), "current position is not valid (cursor past end)");
+
+        ResultDownloader downloader = resultDownloader.get();
+        if (downloader != null && !isClosed()) {
+            Optional<List<List<Object>>> data = pollDownloadedData(downloader);
+            if (data.isPresent()) {
+                // the coordinator considers the query abandoned unless it is polled, and each
+                // response renews the download token, so keep polling it without waiting
+                URI nextUri = coordinatorResults.get().getNextUri();
+                if (nextUri != null && System.nanoTime() - lastCoordinatorResponseNanos.get() >= DOWNLOAD_HEARTBEAT_NANOS) {
+                    fetchNextResults(HttpUrl.get(nextUri).newBuilder()
+                            .setQueryParameter("maxWait", "0ms")
+                            .build());
+                }
+
+                QueryResults results = coordinatorResults.get();
+                currentResults.set(new QueryResults(
+                        results.getId(),
+                        results.getInfoUri(),
+                        results.getPartialCancelUri(),
+                        results.getNextUri(),
+                        results.getColumns(),
+                        data.get(),
+                        results.getStats(),
+                        results.getError(),
+                        results.getUpdateType(),
+                        results.getUpdateCount(),
+                        results.getAddedPreparedStatements(),
+                        results.getDeallocatedPreparedStatements()));
+                return true;
+            }
+            currentResults.set(coordinatorResults.get());
+        }
+
+        URI nextUri = coordinatorResults.get().getNextUri();
         if (isClosed() || (nextUri == null)) {
             valid.set(false);
             return false;
         }
 
-        Request request = prepareRequest(HttpUrl.get(nextUri)).build();
+        fetchNextResults(HttpUrl.get(nextUri));
+        return true;
+    }
+
+    private void fetchNextResults(HttpUrl url)
+    {
+        Request request = prepareRequest(url).build();
 
         Exception cause = null;
         long start = System.nanoTime();
@@ -312,7 +370,7 @@ public class StatementClient
 
             if ((response.getStatusCode() == HTTP_OK) && response.hasValue()) {
                 processResponse(response.getHeaders(), response.getValue());
-                return true;
+                return;
             }
 
             if (response.getStatusCode() != HTTP_UNAVAILABLE) {
@@ -325,6 +383,41 @@ public class StatementClient
         throw new RuntimeException("Error fetching next", cause);
     }
 
+    private Optional<List<List<Object>>> pollDownloadedData(ResultDownloader downloader)
+    {
+        QueryResults results = coordinatorResults.get();
+        if (results.getError() != null) {
+            downloader.close();
+            return Optional.empty();
+        }
+
+        // once the coordinator is done, the remaining data can only come from the workers
+        boolean coordinatorFinished = results.getNextUri() == null;
+        try {
+            do {
+                List<List<Object>> data = downloader.poll(DOWNLOAD_POLL_MILLIS, MILLISECONDS);
+                if (data != null) {
+                    return Optional.of(data);
+                }
+            }
+            while (coordinatorFinished && !downloader.isFinished() && !isClosed());
+        }
+        catch (InterruptedException e) {
+            try {
+                close();
+            }
+            finally {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("StatementClient thread was interrupted");
+        }
+        catch (RuntimeException e) {
+            gone.set(true);
+            throw e;
+        }
+        return Optional.empty();
+    }
+
     private void processResponse(Headers headers, QueryResults results)
     {
         for (String setSession : headers.values(PRESTO_SET_SESSION)) {
@@ -355,6 +448,18 @@ public class StatementClient
         }
 
         currentResults.set(results);
+        coordinatorResults.set(results);
+        lastCoordinatorResponseNanos.set(System.nanoTime());
+
+        if (results.getDownloadUri() != null) {
+            ResultDownloader downloader = resultDownloader.get();
+            if (downloader == null) {
+                resultDownloader.set(new ResultDownloader(httpClient, user, results.getColumns(), results.getDownloadUri(), results.getDownloadToken(), requestTimeoutNanos));
+            }
+            else {
+                downloader.setDownloadToken(results.getDownloadToken());
+            }
+        }
 
         this.addedPreparedStatements.putAll(results.getAddedPreparedStatements());
         this.deallocatedPreparedStatements.addAll(results.getDeallocatedPreparedStatements());
@@ -389,10 +494,14 @@ public class StatementClient
     public void close()
     {
         if (!closed.getAndSet(true)) {
-            URI uri = currentResults.get().getNextUri();
+            URI uri = coordinatorResults.get().getNextUri();
             if (uri != null) {
                 httpDelete(uri);
             }
+            ResultDownloader downloader = resultDownloader.get();
+            if (downloader != null) {
+                downloader.close();
+            }
         }
     }
 
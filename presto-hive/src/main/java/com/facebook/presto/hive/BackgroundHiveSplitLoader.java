@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.cache.SoftAffinityAddressProvider;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.Table;
@@ -107,9 +108,10 @@ public class BackgroundHiveSplitLoader
     private final NamenodeStats namenodeStats;
     private final DirectoryLister directoryLister;
     private final DataSize maxSplitSize;
-    private final int maxPartitionBatchSize;
+    private final int loaderConcurrency;
     private final DataSize maxInitialSplitSize;
     private final boolean recursiveDirWalkerEnabled;
+    private final SoftAffinityAddressProvider softAffinityAddressProvider;
     private final Executor executor;
     private final ConnectorSession session;
     private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
@@ -143,16 +145,17 @@ public class BackgroundHiveSplitLoader
             NamenodeStats namenodeStats,
             DirectoryLister directoryLister,
             Executor executor,
-            int maxPartitionBatchSize,
+            int loaderConcurrency,
             int maxInitialSplits,
-            boolean recursiveDirWalkerEnabled)
+            boolean recursiveDirWalkerEnabled,
+            SoftAffinityAddressProvider softAffinityAddressProvider)
     {
         this.connectorId = connectorId;
         this.table = table;
         this.bucketHandle = bucketHandle;
         this.buckets = buckets;
         this.maxSplitSize = getMaxSplitSize(session);
-        this.maxPartitionBatchSize = maxPartitionBatchSize;
+        this.loaderConcurrency = loaderConcurrency;
         this.session = session;
         this.hdfsEnvironment = hdfsEnvironment;
         this.namenodeStats = namenodeStats;
@@ -160,6 +163,7 @@ public class BackgroundHiveSplitLoader
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
         this.remainingInitialSplits = new AtomicInteger(maxInitialSplits);
         this.recursiveDirWalkerEnabled = recursiveDirWalkerEnabled;
+        this.softAffinityAddressProvider = softAffinityAddressProvider;
         this.executor = executor;
         this.partitions = new ConcurrentLazyQueue<>(partitions);
     }
@@ -168,7 +172,7 @@ public class BackgroundHiveSplitLoader
     public void start(HiveSplitSource splitSource)
     {
         this.hiveSplitSource = splitSource;
-        for (int i = 0; i < maxPartitionBatchSize; i++) {
+        for (int i = 0; i < loaderConcurrency; i++) {
             ResumableTasks.submit(executor, new HiveSplitLoaderTask());
         }
     }
@@ -248,6 +252,7 @@ public class BackgroundHiveSplitLoader
                     HiveFileIterator fileIterator = new HiveFileIterator(
                             file.getPath(),
                             files.getFileSystem(),
+                            files.getTable(),
                             files.getDirectoryLister(),
                             files.getNamenodeStats(),
                             files.getPartitionName(),
@@ -335,7 +340,7 @@ public class BackgroundHiveSplitLoader
         }
 
         // If only one bucket could match: load that one file
-        HiveFileIterator iterator = new HiveFileIterator(path, fs, directoryLister, namenodeStats, partitionName, inputFormat, schema, partitionKeys, effectivePredicate, partition.getColumnCoercions());
+        HiveFileIterator iterator = new HiveFileIterator(path, fs, table, directoryLister, namenodeStats, partitionName, inputFormat, schema, partitionKeys, effectivePredicate, partition.getColumnCoercions());
         if (!buckets.isEmpty()) {
             int bucketCount = buckets.get(0).getBucketCount();
             List<Set<LocatedFileStatus>> list = getBucketFileSets(iterator, bucketCount);
@@ -628,7 +633,7 @@ public class BackgroundHiveSplitLoader
                             chunkLength,
                             schema,
                             partitionKeys,
-                            addresses,
+                            softAffinityAddressProvider.getAddresses(path, addresses),
                             bucketNumber,
                             forceLocalScheduling && hasRealAddress(addresses),
                             effectivePredicate,
@@ -663,7 +668,7 @@ public class BackgroundHiveSplitLoader
                     length,
                     schema,
                     partitionKeys,
-                    addresses,
+                    softAffinityAddressProvider.getAddresses(path, addresses),
                     bucketNumber,
                     forceLocalScheduling && hasRealAddress(addresses),
                     effectivePredicate,
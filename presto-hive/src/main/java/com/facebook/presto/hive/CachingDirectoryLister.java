@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.spi.SchemaTableName;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches the file listing of partition directories for the configured tables.
+ * A listing is streamed to the caller as it is read from the file system, and is
+ * only cached once it has been fully consumed.
+ */
+public class CachingDirectoryLister
+        implements DirectoryLister
+{
+    private static final String ALL_TABLES = "*";
+
+    private final DirectoryLister delegate;
+    private final Cache<Path, List<LocatedFileStatus>> cache;
+    private final boolean cacheAllTables;
+    private final Set<SchemaTableName> cachedTableNames;
+
+    @Inject
+    public CachingDirectoryLister(HiveClientConfig hiveClientConfig)
+    {
+        this(
+                new HadoopDirectoryLister(),
+                hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
+                hiveClientConfig.getFileStatusCacheMaxSize(),
+                hiveClientConfig.getFileStatusCacheTables());
+    }
+
+    public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, long maxSize, List<String> tables)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((Path path, List<LocatedFileStatus> files) -> files.size())
+                .expireAfterWrite(requireNonNull(expireAfterWrite, "expireAfterWrite is null").toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        requireNonNull(tables, "tables is null");
+        this.cacheAllTables = tables.contains(ALL_TABLES);
+        this.cachedTableNames = tables.stream()
+                .filter(table -> !table.equals(ALL_TABLES))
+                .map(CachingDirectoryLister::parseTableName)
+                .collect(toImmutableSet());
+    }
+
+    private static SchemaTableName parseTableName(String table)
+    {
+        int index = table.indexOf('.');
+        if (index <= 0 || index == table.length() - 1) {
+            throw new IllegalArgumentException("Invalid table name in file status cache tables: " + table);
+        }
+        return new SchemaTableName(table.substring(0, index), table.substring(index + 1));
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+            throws IOException
+    {
+        if (!isCacheEnabled(table)) {
+            return delegate.list(fs, table, path);
+        }
+
+        List<LocatedFileStatus> files = cache.getIfPresent(path);
+        if (files != null) {
+            return simpleRemoteIterator(files.iterator());
+        }
+        return cachingRemoteIterator(path, delegate.list(fs, table, path));
+    }
+
+    private boolean isCacheEnabled(Table table)
+    {
+        return cacheAllTables || cachedTableNames.contains(new SchemaTableName(table.getDatabaseName(), table.getTableName()));
+    }
+
+    private RemoteIterator<LocatedFileStatus> cachingRemoteIterator(Path path, RemoteIterator<LocatedFileStatus> iterator)
+    {
+        return new RemoteIterator<LocatedFileStatus>()
+        {
+            private final ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+            private boolean cached;
+
+            @Override
+            public boolean hasNext()
+                    throws IOException
+            {
+                boolean hasNext = iterator.hasNext();
+                if (!hasNext && !cached) {
+                    cached = true;
+                    cache.put(path, files.build());
+                }
+                return hasNext;
+            }
+
+            @Override
+            public LocatedFileStatus next()
+                    throws IOException
+            {
+                LocatedFileStatus status = iterator.next();
+                files.add(status);
+                return status;
+            }
+        };
+    }
+
+    private static RemoteIterator<LocatedFileStatus> simpleRemoteIterator(Iterator<LocatedFileStatus> iterator)
+    {
+        return new RemoteIterator<LocatedFileStatus>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public LocatedFileStatus next()
+            {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.orc.OrcFileTail;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FileStatus;
+import org.openjdk.jol.info.ClassLayout;
+import org.weakref.jmx.Managed;
+import parquet.column.ColumnDescriptor;
+import parquet.column.statistics.Statistics;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ColumnChunkMetaData;
+import parquet.hadoop.metadata.FileMetaData;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.schema.PrimitiveType;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.sizeOfByteArray;
+import static io.airlift.slice.SizeOf.sizeOfCharArray;
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker-wide cache of parsed file footers. Entries are keyed by the file path,
+ * modification time and length, so a rewritten file never sees a stale footer.
+ * Entries are weighed by the retained heap size of the decoded footer.
+ */
+public class FileFooterCache
+{
+    private static final int PARQUET_METADATA_INSTANCE_SIZE = ClassLayout.parseClass(ParquetMetadata.class).instanceSize();
+    private static final int FILE_METADATA_INSTANCE_SIZE = ClassLayout.parseClass(FileMetaData.class).instanceSize();
+    private static final int BLOCK_METADATA_INSTANCE_SIZE = ClassLayout.parseClass(BlockMetaData.class).instanceSize();
+    private static final int PRIMITIVE_TYPE_INSTANCE_SIZE = ClassLayout.parseClass(PrimitiveType.class).instanceSize();
+    private static final int STRING_INSTANCE_SIZE = ClassLayout.parseClass(String.class).instanceSize();
+
+    // column chunk metadata and statistics have several implementations, so their sizes are looked up by class
+    private static final ConcurrentMap<Class<?>, Integer> INSTANCE_SIZES = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final Cache<FooterKey, CachedFooter> cache;
+
+    @Inject
+    public FileFooterCache(HiveClientConfig config)
+    {
+        this(requireNonNull(config, "config is null").isFileFooterCacheEnabled(), config.getFileFooterCacheMaxSize());
+    }
+
+    public FileFooterCache(boolean enabled, DataSize maxSize)
+    {
+        this.enabled = enabled;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(requireNonNull(maxSize, "maxSize is null").toBytes())
+                .weigher((FooterKey key, CachedFooter footer) -> footer.getWeight())
+                .recordStats()
+                .build();
+    }
+
+    public static FileFooterCache disabledFileFooterCache()
+    {
+        return new FileFooterCache(false, new DataSize(0, DataSize.Unit.BYTE));
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public OrcFileTail getOrcFileTail(FileStatus fileStatus, Callable<OrcFileTail> loader)
+            throws IOException
+    {
+        if (!enabled) {
+            return call(loader);
+        }
+        FooterKey key = new FooterKey(FooterType.ORC, fileStatus);
+        return (OrcFileTail) get(key, () -> {
+            OrcFileTail fileTail = loader.call();
+            return new CachedFooter(fileTail, weight(fileTail.getRetainedSizeInBytes()));
+        });
+    }
+
+    public ParquetMetadata getParquetMetadata(FileStatus fileStatus, Callable<ParquetMetadata> loader)
+            throws IOException
+    {
+        if (!enabled) {
+            return call(loader);
+        }
+        FooterKey key = new FooterKey(FooterType.PARQUET, fileStatus);
+        return (ParquetMetadata) get(key, () -> {
+            ParquetMetadata metadata = loader.call();
+            return new CachedFooter(metadata, weight(getRetainedSizeInBytes(metadata)));
+        });
+    }
+
+    private static int weight(long retainedSizeInBytes)
+    {
+        return toIntExact(min(Integer.MAX_VALUE, retainedSizeInBytes));
+    }
+
+    @VisibleForTesting
+    static long getRetainedSizeInBytes(ParquetMetadata metadata)
+    {
+        FileMetaData fileMetaData = metadata.getFileMetaData();
+        long retainedSizeInBytes = PARQUET_METADATA_INSTANCE_SIZE + FILE_METADATA_INSTANCE_SIZE;
+        retainedSizeInBytes += sizeOf(fileMetaData.getCreatedBy());
+        for (Entry<String, String> entry : fileMetaData.getKeyValueMetaData().entrySet()) {
+            retainedSizeInBytes += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+        }
+        for (ColumnDescriptor column : fileMetaData.getSchema().getColumns()) {
+            retainedSizeInBytes += PRIMITIVE_TYPE_INSTANCE_SIZE + sizeOfObjectArray(column.getPath().length);
+            for (String name : column.getPath()) {
+                retainedSizeInBytes += sizeOf(name);
+            }
+        }
+
+        for (BlockMetaData block : metadata.getBlocks()) {
+            retainedSizeInBytes += BLOCK_METADATA_INSTANCE_SIZE + sizeOf(block.getPath()) + sizeOfObjectArray(block.getColumns().size());
+            for (ColumnChunkMetaData column : block.getColumns()) {
+                // column paths and encoding sets are canonicalized by the reader and shared between chunks
+                retainedSizeInBytes += instanceSize(column);
+                Statistics<?> statistics = column.getStatistics();
+                if (statistics != null) {
+                    retainedSizeInBytes += instanceSize(statistics);
+                    if (!statistics.isEmpty()) {
+                        retainedSizeInBytes += sizeOfByteArray(statistics.getMinBytes().length) + sizeOfByteArray(statistics.getMaxBytes().length);
+                    }
+                }
+            }
+        }
+        return retainedSizeInBytes;
+    }
+
+    private static long sizeOf(String value)
+    {
+        return value == null ? 0 : STRING_INSTANCE_SIZE + sizeOfCharArray(value.length());
+    }
+
+    private static int instanceSize(Object value)
+    {
+        return INSTANCE_SIZES.computeIfAbsent(value.getClass(), type -> ClassLayout.parseClass(type).instanceSize());
+    }
+
+    private Object get(FooterKey key, Callable<CachedFooter> loader)
+            throws IOException
+    {
+        try {
+            return cache.get(key, loader).getValue();
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static <T> T call(Callable<T> loader)
+            throws IOException
+    {
+        try {
+            return loader.call();
+        }
+        catch (Exception e) {
+            Throwables.propagateIfPossible(e, IOException.class);
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    private enum FooterType
+    {
+        ORC,
+        PARQUET,
+    }
+
+    private static final class FooterKey
+    {
+        private final FooterType type;
+        private final String path;
+        private final long modificationTime;
+        private final long length;
+
+        public FooterKey(FooterType type, FileStatus fileStatus)
+        {
+            this.type = requireNonNull(type, "type is null");
+            requireNonNull(fileStatus, "fileStatus is null");
+            this.path = fileStatus.getPath().toString();
+            this.modificationTime = fileStatus.getModificationTime();
+            this.length = fileStatus.getLen();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FooterKey that = (FooterKey) o;
+            return modificationTime == that.modificationTime &&
+                    length == that.length &&
+                    type == that.type &&
+                    Objects.equals(path, that.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(type, path, modificationTime, length);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("type", type)
+                    .add("path", path)
+                    .add("modificationTime", modificationTime)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+
+    private static final class CachedFooter
+    {
+        private final Object value;
+        private final int weight;
+
+        public CachedFooter(Object value, int weight)
+        {
+            this.value = requireNonNull(value, "value is null");
+            this.weight = weight;
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+
+        public int getWeight()
+        {
+            return weight;
+        }
+    }
+}
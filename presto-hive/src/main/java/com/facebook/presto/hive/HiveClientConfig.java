@@ -22,6 +22,8 @@ import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 import org.joda.time.DateTimeZone;
 
@@ -32,6 +34,7 @@ import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 @DefunctConfig({
@@ -115,6 +118,25 @@ public class HiveClientConfig
     private boolean writesToNonManagedTablesEnabled;
     private boolean createNonManagedTableEnabled = true;
 
+    private boolean fileFooterCacheEnabled;
+    private DataSize fileFooterCacheMaxSize = new DataSize(64, MEGABYTE);
+
+    private boolean dataCacheEnabled;
+    private String dataCacheBaseDirectory;
+    private DataSize dataCacheMaxSize = new DataSize(10, GIGABYTE);
+    private DataSize dataCacheChunkSize = new DataSize(1, MEGABYTE);
+
+    private int orcIoThreads;
+    private DataSize orcMaxInFlightReadSize = new DataSize(32, MEGABYTE);
+
+    private int splitLoaderConcurrency = 100;
+    private List<String> fileStatusCacheTables = ImmutableList.of();
+    private Duration fileStatusCacheExpireAfterWrite = new Duration(1, TimeUnit.MINUTES);
+    private long fileStatusCacheMaxSize = 1_000_000;
+    private int metastorePartitionLoadBatchSize = 100;
+    private String metastoreCacheEventLog;
+    private Duration metastoreCacheEventPollInterval = new Duration(10, TimeUnit.SECONDS);
+
     public int getMaxInitialSplits()
     {
         return maxInitialSplits;
@@ -859,4 +881,218 @@ public class HiveClientConfig
         this.emptyBucketedPartitionsEnabled = emptyBucketedPartitionsEnabled;
         return this;
     }
+
+    public boolean isFileFooterCacheEnabled()
+    {
+        return fileFooterCacheEnabled;
+    }
+
+    @Config("hive.file-footer-cache.enabled")
+    @ConfigDescription("Cache parsed ORC and Parquet file footers on each worker")
+    public HiveClientConfig setFileFooterCacheEnabled(boolean fileFooterCacheEnabled)
+    {
+        this.fileFooterCacheEnabled = fileFooterCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFileFooterCacheMaxSize()
+    {
+        return fileFooterCacheMaxSize;
+    }
+
+    @Config("hive.file-footer-cache.max-size")
+    @ConfigDescription("Maximum retained heap size of the decoded file footers kept in the footer cache")
+    public HiveClientConfig setFileFooterCacheMaxSize(DataSize fileFooterCacheMaxSize)
+    {
+        this.fileFooterCacheMaxSize = fileFooterCacheMaxSize;
+        return this;
+    }
+
+    public boolean isDataCacheEnabled()
+    {
+        return dataCacheEnabled;
+    }
+
+    @Config("hive.data-cache.enabled")
+    @ConfigDescription("Cache remote file data on local disk of each worker and schedule splits of the same file on the same worker")
+    public HiveClientConfig setDataCacheEnabled(boolean dataCacheEnabled)
+    {
+        this.dataCacheEnabled = dataCacheEnabled;
+        return this;
+    }
+
+    public String getDataCacheBaseDirectory()
+    {
+        return dataCacheBaseDirectory;
+    }
+
+    @Config("hive.data-cache.base-directory")
+    @ConfigDescription("Local directory for the data cache")
+    public HiveClientConfig setDataCacheBaseDirectory(String dataCacheBaseDirectory)
+    {
+        this.dataCacheBaseDirectory = dataCacheBaseDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getDataCacheMaxSize()
+    {
+        return dataCacheMaxSize;
+    }
+
+    @Config("hive.data-cache.max-size")
+    @ConfigDescription("Maximum size of the data cache on local disk")
+    public HiveClientConfig setDataCacheMaxSize(DataSize dataCacheMaxSize)
+    {
+        this.dataCacheMaxSize = dataCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getDataCacheChunkSize()
+    {
+        return dataCacheChunkSize;
+    }
+
+    @Config("hive.data-cache.chunk-size")
+    @ConfigDescription("Size of the file chunks stored in the data cache")
+    public HiveClientConfig setDataCacheChunkSize(DataSize dataCacheChunkSize)
+    {
+        this.dataCacheChunkSize = dataCacheChunkSize;
+        return this;
+    }
+
+    @Min(0)
+    public int getOrcIoThreads()
+    {
+        return orcIoThreads;
+    }
+
+    @Config("hive.orc.io-threads")
+    @ConfigDescription("Number of threads used to read ORC stripes concurrently and ahead of decoding (0 to read on the query thread)")
+    public HiveClientConfig setOrcIoThreads(int orcIoThreads)
+    {
+        this.orcIoThreads = orcIoThreads;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcMaxInFlightReadSize()
+    {
+        return orcMaxInFlightReadSize;
+    }
+
+    @Config("hive.orc.max-in-flight-read-size")
+    @ConfigDescription("Maximum amount of ORC data read concurrently or ahead of decoding for each file")
+    public HiveClientConfig setOrcMaxInFlightReadSize(DataSize orcMaxInFlightReadSize)
+    {
+        this.orcMaxInFlightReadSize = orcMaxInFlightReadSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getSplitLoaderConcurrency()
+    {
+        return splitLoaderConcurrency;
+    }
+
+    @Config("hive.split-loader-concurrency")
+    @ConfigDescription("Number of partitions listed and split concurrently for each table scan")
+    public HiveClientConfig setSplitLoaderConcurrency(int splitLoaderConcurrency)
+    {
+        this.splitLoaderConcurrency = splitLoaderConcurrency;
+        return this;
+    }
+
+    @NotNull
+    public List<String> getFileStatusCacheTables()
+    {
+        return fileStatusCacheTables;
+    }
+
+    @Config("hive.file-status-cache-tables")
+    @ConfigDescription("Tables whose directory listings are cached, as schema.table names, or * for all tables")
+    public HiveClientConfig setFileStatusCacheTables(String fileStatusCacheTables)
+    {
+        this.fileStatusCacheTables = SPLITTER.splitToList(fileStatusCacheTables);
+        return this;
+    }
+
+    public HiveClientConfig setFileStatusCacheTables(List<String> fileStatusCacheTables)
+    {
+        this.fileStatusCacheTables = ImmutableList.copyOf(fileStatusCacheTables);
+        return this;
+    }
+
+    @NotNull
+    public Duration getFileStatusCacheExpireAfterWrite()
+    {
+        return fileStatusCacheExpireAfterWrite;
+    }
+
+    @Config("hive.file-status-cache-expire-time")
+    @ConfigDescription("How long a cached directory listing is used")
+    public HiveClientConfig setFileStatusCacheExpireAfterWrite(Duration fileStatusCacheExpireAfterWrite)
+    {
+        this.fileStatusCacheExpireAfterWrite = fileStatusCacheExpireAfterWrite;
+        return this;
+    }
+
+    @Min(0)
+    public long getFileStatusCacheMaxSize()
+    {
+        return fileStatusCacheMaxSize;
+    }
+
+    @Config("hive.file-status-cache-size")
+    @ConfigDescription("Maximum number of file statuses kept in the directory listing cache")
+    public HiveClientConfig setFileStatusCacheMaxSize(long fileStatusCacheMaxSize)
+    {
+        this.fileStatusCacheMaxSize = fileStatusCacheMaxSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMetastorePartitionLoadBatchSize()
+    {
+        return metastorePartitionLoadBatchSize;
+    }
+
+    @Config("hive.metastore-partition-load-batch-size")
+    @ConfigDescription("Maximum number of partitions loaded from the metastore in one call; larger requests are loaded in parallel batches")
+    public HiveClientConfig setMetastorePartitionLoadBatchSize(int metastorePartitionLoadBatchSize)
+    {
+        this.metastorePartitionLoadBatchSize = metastorePartitionLoadBatchSize;
+        return this;
+    }
+
+    public String getMetastoreCacheEventLog()
+    {
+        return metastoreCacheEventLog;
+    }
+
+    @Config("hive.metastore-cache-event-log")
+    @ConfigDescription("Local file of metastore change events used to invalidate the metastore cache")
+    public HiveClientConfig setMetastoreCacheEventLog(String metastoreCacheEventLog)
+    {
+        this.metastoreCacheEventLog = metastoreCacheEventLog;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMetastoreCacheEventPollInterval()
+    {
+        return metastoreCacheEventPollInterval;
+    }
+
+    @MinDuration("1ms")
+    @Config("hive.metastore-cache-event-poll-interval")
+    public HiveClientConfig setMetastoreCacheEventPollInterval(Duration metastoreCacheEventPollInterval)
+    {
+        this.metastoreCacheEventPollInterval = metastoreCacheEventPollInterval;
+        return this;
+    }
 }
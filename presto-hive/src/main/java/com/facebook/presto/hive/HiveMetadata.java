@@ -67,6 +67,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
 import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -150,7 +151,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.hash.Hashing.sha256;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -158,6 +161,7 @@ import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.hadoop.hive.metastore.TableType.EXTERNAL_TABLE;
 import static org.apache.hadoop.hive.metastore.TableType.MANAGED_TABLE;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.DDL_TIME;
 
 public class HiveMetadata
         implements ConnectorMetadata
@@ -183,6 +187,7 @@ public class HiveMetadata
     private final boolean bucketWritingEnabled;
     private final boolean writesToNonManagedTablesEnabled;
     private final boolean createNonManagedTableEnabled;
+    private final boolean immutablePartitions;
     private final HiveStorageFormat defaultStorageFormat;
     private final TypeTranslator typeTranslator;
     private final String prestoVersion;
@@ -199,6 +204,7 @@ public class HiveMetadata
             boolean bucketWritingEnabled,
             boolean writesToNonManagedTablesEnabled,
             boolean createNonManagedTableEnabled,
+            boolean immutablePartitions,
             HiveStorageFormat defaultStorageFormat,
             TypeManager typeManager,
             LocationService locationService,
@@ -224,6 +230,7 @@ public class HiveMetadata
         this.bucketWritingEnabled = bucketWritingEnabled;
         this.writesToNonManagedTablesEnabled = writesToNonManagedTablesEnabled;
         this.createNonManagedTableEnabled = createNonManagedTableEnabled;
+        this.immutablePartitions = immutablePartitions;
         this.defaultStorageFormat = requireNonNull(defaultStorageFormat, "defaultStorageFormat is null");
         this.typeTranslator = requireNonNull(typeTranslator, "typeTranslator is null");
         this.prestoVersion = requireNonNull(prestoVersion, "prestoVersion is null");
@@ -331,6 +338,58 @@ public class HiveMetadata
         return Optional.empty();
     }
 
+    @Override
+    public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableLayoutHandle layoutHandle)
+    {
+        // data can only be trusted to be unchanged when Presto is not allowed to append to existing partitions
+        HiveTableLayoutHandle tableLayoutHandle = (HiveTableLayoutHandle) layoutHandle;
+        if (!immutablePartitions || !tableLayoutHandle.getPartitions().isPresent()) {
+            return Optional.empty();
+        }
+
+        List<HivePartition> partitions = tableLayoutHandle.getPartitions().get();
+        Hasher hasher = sha256().newHasher();
+        if (partitions.isEmpty()) {
+            return Optional.of(hasher.hash().toString());
+        }
+
+        SchemaTableName tableName = partitions.get(0).getTableName();
+        Optional<Table> table = metastore.getTable(tableName.getSchemaName(), tableName.getTableName());
+        if (!table.isPresent()) {
+            return Optional.empty();
+        }
+
+        Optional<String> tableVersion = getLastDdlTime(table.get().getParameters());
+        if (!tableVersion.isPresent()) {
+            return Optional.empty();
+        }
+        hasher.putString(tableVersion.get(), UTF_8);
+
+        List<String> partitionNames = partitions.stream()
+                .map(HivePartition::getPartitionId)
+                .filter(partitionId -> !partitionId.equals(HivePartition.UNPARTITIONED_ID))
+                .sorted()
+                .collect(toList());
+        if (!partitionNames.isEmpty()) {
+            Map<String, Optional<Partition>> partitionsByName = metastore.getPartitionsByNames(tableName.getSchemaName(), tableName.getTableName(), partitionNames);
+            for (String partitionName : partitionNames) {
+                Optional<String> partitionVersion = partitionsByName.getOrDefault(partitionName, Optional.empty())
+                        .flatMap(partition -> getLastDdlTime(partition.getParameters()));
+                if (!partitionVersion.isPresent()) {
+                    return Optional.empty();
+                }
+                hasher.putString(partitionName, UTF_8)
+                        .putString(partitionVersion.get(), UTF_8);
+            }
+        }
+        return Optional.of(hasher.hash().toString());
+    }
+
+    private static Optional<String> getLastDdlTime(Map<String, String> parameters)
+    {
+        return Optional.ofNullable(parameters.get(DDL_TIME));
+    }
+
     @Override
     public List<SchemaTableName> listTables(ConnectorSession session, String schemaNameOrNull)
     {
@@ -40,6 +40,7 @@ public class HiveMetadataFactory
     private final boolean skipDeletionForAlter;
     private final boolean writesToNonManagedTablesEnabled;
     private final boolean createNonManagedTableEnabled;
+    private final boolean immutablePartitions;
     private final HiveStorageFormat defaultStorageFormat;
     private final long perTransactionCacheMaximumSize;
     private final ExtendedHiveMetastore metastore;
@@ -82,6 +83,7 @@ public class HiveMetadataFactory
                 hiveClientConfig.isBucketWritingEnabled(),
                 hiveClientConfig.getWritesToNonManagedTablesEnabled(),
                 hiveClientConfig.isCreateNonManagedTableEnabled(),
+                hiveClientConfig.isImmutablePartitions(),
                 hiveClientConfig.getHiveStorageFormat(),
                 hiveClientConfig.getPerTransactionMetastoreCacheMaximumSize(),
                 typeManager,
@@ -106,6 +108,7 @@ public class HiveMetadataFactory
             boolean bucketWritingEnabled,
             boolean writesToNonManagedTablesEnabled,
             boolean createNonManagedTableEnabled,
+            boolean immutablePartitions,
             HiveStorageFormat defaultStorageFormat,
             long perTransactionCacheMaximumSize,
             TypeManager typeManager,
@@ -124,6 +127,7 @@ public class HiveMetadataFactory
         this.bucketWritingEnabled = bucketWritingEnabled;
         this.writesToNonManagedTablesEnabled = writesToNonManagedTablesEnabled;
         this.createNonManagedTableEnabled = createNonManagedTableEnabled;
+        this.immutablePartitions = immutablePartitions;
         this.defaultStorageFormat = requireNonNull(defaultStorageFormat, "defaultStorageFormat is null");
         this.perTransactionCacheMaximumSize = perTransactionCacheMaximumSize;
 
@@ -167,6 +171,7 @@ public class HiveMetadataFactory
                 bucketWritingEnabled,
                 writesToNonManagedTablesEnabled,
                 createNonManagedTableEnabled,
+                immutablePartitions,
                 defaultStorageFormat,
                 typeManager,
                 locationService,
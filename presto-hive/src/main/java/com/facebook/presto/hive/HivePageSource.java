@@ -32,6 +32,7 @@ import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.OptionalDouble;
 import java.util.function.Function;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
@@ -190,6 +191,12 @@ public class HivePageSource
         return delegate.getReadTimeNanos();
     }
 
+    @Override
+    public OptionalDouble getProgress()
+    {
+        return delegate.getProgress();
+    }
+
     @Override
     public boolean isFinished()
     {
@@ -186,6 +186,12 @@ public class HiveSplit
         return !forceLocalScheduling;
     }
 
+    @Override
+    public boolean isIdempotent()
+    {
+        return true;
+    }
+
     @Override
     public Object getInfo()
     {
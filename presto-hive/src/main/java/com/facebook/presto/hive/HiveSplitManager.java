@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.cache.SoftAffinityAddressProvider;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
@@ -81,7 +82,9 @@ public class HiveSplitManager
     private final int minPartitionBatchSize;
     private final int maxPartitionBatchSize;
     private final int maxInitialSplits;
+    private final int splitLoaderConcurrency;
     private final boolean recursiveDfsWalkerEnabled;
+    private final SoftAffinityAddressProvider softAffinityAddressProvider;
 
     @Inject
     public HiveSplitManager(
@@ -92,7 +95,8 @@ public class HiveSplitManager
             HdfsEnvironment hdfsEnvironment,
             DirectoryLister directoryLister,
             @ForHiveClient ExecutorService executorService,
-            CoercionPolicy coercionPolicy)
+            CoercionPolicy coercionPolicy,
+            SoftAffinityAddressProvider softAffinityAddressProvider)
     {
         this(connectorId,
                 metastoreProvider,
@@ -105,8 +109,9 @@ public class HiveSplitManager
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getMaxInitialSplits(),
-                hiveClientConfig.getRecursiveDirWalkerEnabled()
-        );
+                hiveClientConfig.getSplitLoaderConcurrency(),
+                hiveClientConfig.getRecursiveDirWalkerEnabled(),
+                softAffinityAddressProvider);
     }
 
     public HiveSplitManager(
@@ -121,7 +126,9 @@ public class HiveSplitManager
             int minPartitionBatchSize,
             int maxPartitionBatchSize,
             int maxInitialSplits,
-            boolean recursiveDfsWalkerEnabled)
+            int splitLoaderConcurrency,
+            boolean recursiveDfsWalkerEnabled,
+            SoftAffinityAddressProvider softAffinityAddressProvider)
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null").toString();
         this.metastoreProvider = requireNonNull(metastoreProvider, "metastore is null");
@@ -135,7 +142,10 @@ public class HiveSplitManager
         this.minPartitionBatchSize = minPartitionBatchSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
         this.maxInitialSplits = maxInitialSplits;
+        checkArgument(splitLoaderConcurrency >= 1, "splitLoaderConcurrency must be at least 1");
+        this.splitLoaderConcurrency = splitLoaderConcurrency;
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
+        this.softAffinityAddressProvider = requireNonNull(softAffinityAddressProvider, "softAffinityAddressProvider is null");
     }
 
     @Override
@@ -174,9 +184,10 @@ public class HiveSplitManager
                 namenodeStats,
                 directoryLister,
                 executor,
-                maxPartitionBatchSize,
+                splitLoaderConcurrency,
                 maxInitialSplits,
-                recursiveDfsWalkerEnabled);
+                recursiveDfsWalkerEnabled,
+                softAffinityAddressProvider);
 
         HiveSplitSource splitSource = new HiveSplitSource(maxOutstandingSplits, hiveSplitLoader, executor);
         hiveSplitLoader.start(splitSource);
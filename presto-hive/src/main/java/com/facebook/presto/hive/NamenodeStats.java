@@ -25,6 +25,7 @@ public class NamenodeStats
 {
     private final CallStats listLocatedStatus = new CallStats();
     private final CallStats remoteIteratorNext = new CallStats();
+    private final TimeStat directoryListingTime = new TimeStat(TimeUnit.MILLISECONDS);
 
     @Managed
     @Nested
@@ -40,6 +41,16 @@ public class NamenodeStats
         return remoteIteratorNext;
     }
 
+    /**
+     * Time spent listing all files of a partition or directory, excluding time spent waiting for split queue space.
+     */
+    @Managed
+    @Nested
+    public TimeStat getDirectoryListingTime()
+    {
+        return directoryListingTime;
+    }
+
     public static class CallStats
     {
         private final TimeStat time = new TimeStat(TimeUnit.MILLISECONDS);
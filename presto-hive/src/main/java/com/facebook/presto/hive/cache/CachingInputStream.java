@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves positioned reads from the {@link LocalFileDataCache}. The part of a read
+ * that is not cached is fetched with a single remote read, widened to whole chunks,
+ * and the chunks are added to the cache in the background. Sequential reads go
+ * directly to the remote stream.
+ */
+class CachingInputStream
+        extends FSInputStream
+{
+    private final LocalFileDataCache cache;
+    private final String fileId;
+    private final long fileLength;
+    private final FSDataInputStream delegate;
+
+    public CachingInputStream(LocalFileDataCache cache, String fileId, long fileLength, FSDataInputStream delegate)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+        this.fileId = requireNonNull(fileId, "fileId is null");
+        this.fileLength = fileLength;
+        this.delegate = requireNonNull(delegate, "delegate is null");
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position >= fileLength) {
+            return -1;
+        }
+        int readLength = toIntExact(min(length, fileLength - position));
+        readFully(position, buffer, offset, readLength);
+        return readLength;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position < 0 || position + length > fileLength) {
+            throw new EOFException("Read past end of file: position " + position + ", length " + length + ", file length " + fileLength);
+        }
+
+        int chunkSize = cache.getChunkSize();
+
+        // serve the cached chunks at the start of the range
+        while (length > 0) {
+            long chunkIndex = position / chunkSize;
+            long chunkStart = chunkIndex * chunkSize;
+            int offsetInChunk = toIntExact(position - chunkStart);
+            int partLength = min(length, getChunkLength(chunkStart) - offsetInChunk);
+            if (!cache.read(fileId, chunkIndex, getChunkLength(chunkStart), offsetInChunk, buffer, offset, partLength)) {
+                break;
+            }
+            position += partLength;
+            offset += partLength;
+            length -= partLength;
+        }
+
+        // serve the cached chunks at the end of the range
+        while (length > 0) {
+            long end = position + length;
+            long chunkIndex = (end - 1) / chunkSize;
+            long chunkStart = chunkIndex * chunkSize;
+            long partStart = max(position, chunkStart);
+            int partLength = toIntExact(end - partStart);
+            if (!cache.read(fileId, chunkIndex, getChunkLength(chunkStart), toIntExact(partStart - chunkStart), buffer, offset + toIntExact(partStart - position), partLength)) {
+                break;
+            }
+            length -= partLength;
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        // read everything in between with one remote read, so the file system sees a single ranged read
+        long firstChunk = position / chunkSize;
+        long lastChunk = (position + length - 1) / chunkSize;
+        long readStart = firstChunk * chunkSize;
+        long readEnd = min(fileLength, (lastChunk + 1) * chunkSize);
+        byte[] data = new byte[toIntExact(readEnd - readStart)];
+        delegate.readFully(readStart, data);
+        cache.recordRemoteRead(toIntExact(lastChunk - firstChunk + 1), data.length);
+        System.arraycopy(data, toIntExact(position - readStart), buffer, offset, length);
+
+        for (long chunkIndex = firstChunk; chunkIndex <= lastChunk; chunkIndex++) {
+            int chunkOffset = toIntExact(chunkIndex * chunkSize - readStart);
+            cache.writeAsync(fileId, chunkIndex, data, chunkOffset, getChunkLength(chunkIndex * chunkSize));
+        }
+    }
+
+    private int getChunkLength(long chunkStart)
+    {
+        return toIntExact(min(cache.getChunkSize(), fileLength - chunkStart));
+    }
+
+    @Override
+    public void seek(long position)
+            throws IOException
+    {
+        delegate.seek(position);
+    }
+
+    @Override
+    public long getPos()
+            throws IOException
+    {
+        return delegate.getPos();
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPosition)
+            throws IOException
+    {
+        return delegate.seekToNewSource(targetPosition);
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        return delegate.read();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        return delegate.read(buffer, offset, length);
+    }
+
+    @Override
+    public int available()
+            throws IOException
+    {
+        return delegate.available();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+}
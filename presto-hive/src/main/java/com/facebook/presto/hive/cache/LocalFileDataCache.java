@@ -0,0 +1,405 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.DiscardPolicy;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.cache.RemovalCause.REPLACED;
+import static com.google.common.hash.Hashing.sha256;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Worker-local cache of remote file data. Files are cached in fixed-size chunks
+ * stored on local disk and evicted in least recently used order. A file is
+ * identified by its path, modification time and length, so a file that is
+ * rewritten in place is never served from stale chunks.
+ * <p>
+ * The cache directory is set up when the first file is read, so nodes that never
+ * read splits, such as a dedicated coordinator, do not touch it. Chunks are written
+ * by a small background pool; writes that would queue behind too many others are
+ * dropped, as the data has already been returned to the reader.
+ */
+public class LocalFileDataCache
+{
+    private static final Logger log = Logger.get(LocalFileDataCache.class);
+
+    private static final String CHUNK_FILE_SUFFIX = ".chunk";
+    private static final int WRITER_THREADS = 2;
+    private static final int MAX_PENDING_WRITES = 64;
+
+    private final boolean enabled;
+    private final Path baseDirectory;
+    private final int chunkSize;
+    private final Cache<ChunkKey, File> chunks;
+    private final ExecutorService writeExecutor;
+
+    @GuardedBy("this")
+    private boolean initialized;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat bytesReadFromCache = new CounterStat();
+    private final CounterStat bytesReadFromRemote = new CounterStat();
+
+    @Inject
+    public LocalFileDataCache(HiveClientConfig config)
+    {
+        this(
+                requireNonNull(config, "config is null").isDataCacheEnabled(),
+                config.getDataCacheBaseDirectory(),
+                config.getDataCacheMaxSize(),
+                config.getDataCacheChunkSize());
+    }
+
+    public LocalFileDataCache(boolean enabled, String baseDirectory, DataSize maxSize, DataSize chunkSize)
+    {
+        this(enabled, baseDirectory, maxSize, chunkSize, createWriteExecutor());
+    }
+
+    @VisibleForTesting
+    LocalFileDataCache(boolean enabled, String baseDirectory, DataSize maxSize, DataSize chunkSize, ExecutorService writeExecutor)
+    {
+        this.enabled = enabled;
+        this.writeExecutor = requireNonNull(writeExecutor, "writeExecutor is null");
+        this.chunkSize = toIntExact(requireNonNull(chunkSize, "chunkSize is null").toBytes());
+        checkArgument(this.chunkSize > 0, "chunkSize must be positive");
+        this.chunks = CacheBuilder.newBuilder()
+                .maximumWeight(requireNonNull(maxSize, "maxSize is null").toBytes())
+                .weigher((ChunkKey key, File file) -> key.getLength())
+                .removalListener(LocalFileDataCache::deleteChunkFile)
+                .build();
+
+        if (enabled) {
+            checkArgument(baseDirectory != null, "data cache base directory is not set");
+            this.baseDirectory = new File(baseDirectory).toPath();
+        }
+        else {
+            this.baseDirectory = null;
+        }
+    }
+
+    private static ExecutorService createWriteExecutor()
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                WRITER_THREADS,
+                WRITER_THREADS,
+                1,
+                MINUTES,
+                new ArrayBlockingQueue<>(MAX_PENDING_WRITES),
+                daemonThreadsNamed("hive-data-cache-writer-%s"),
+                new DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        writeExecutor.shutdownNow();
+    }
+
+    public static LocalFileDataCache disabledLocalFileDataCache()
+    {
+        return new LocalFileDataCache(false, null, new DataSize(0, DataSize.Unit.BYTE), new DataSize(1, DataSize.Unit.MEGABYTE), newDirectExecutorService());
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Wraps the input stream for the given file so positioned reads are served from the cache.
+     */
+    public FSDataInputStream wrap(FileStatus fileStatus, FSDataInputStream inputStream)
+            throws IOException
+    {
+        if (!enabled) {
+            return inputStream;
+        }
+        initializeBaseDirectory();
+        String fileId = fileId(fileStatus);
+        return new FSDataInputStream(new CachingInputStream(this, fileId, fileStatus.getLen(), inputStream));
+    }
+
+    private synchronized void initializeBaseDirectory()
+            throws IOException
+    {
+        if (initialized) {
+            return;
+        }
+        try {
+            Files.createDirectories(baseDirectory);
+            removeStaleChunkFiles(baseDirectory);
+        }
+        catch (IOException e) {
+            throw new IOException("Cannot initialize data cache directory " + baseDirectory, e);
+        }
+        initialized = true;
+    }
+
+    int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Copies the requested part of a chunk into the buffer.
+     *
+     * @return false if the chunk is not cached
+     */
+    boolean read(String fileId, long chunkIndex, int chunkLength, int offsetInChunk, byte[] buffer, int bufferOffset, int length)
+    {
+        ChunkKey key = new ChunkKey(fileId, chunkIndex, chunkLength);
+        File file = chunks.getIfPresent(key);
+        if (file == null) {
+            return false;
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.seek(offsetInChunk);
+            input.readFully(buffer, bufferOffset, length);
+        }
+        catch (FileNotFoundException e) {
+            // chunk was evicted concurrently
+            chunks.invalidate(key);
+            return false;
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read cached chunk %s", file);
+            chunks.invalidate(key);
+            return false;
+        }
+        hits.update(1);
+        bytesReadFromCache.update(length);
+        return true;
+    }
+
+    /**
+     * Records chunks that were not cached and had to be read from the remote file system.
+     */
+    void recordRemoteRead(int chunkCount, long bytes)
+    {
+        misses.update(chunkCount);
+        bytesReadFromRemote.update(bytes);
+    }
+
+    /**
+     * Stores a chunk read from the remote file system in the background. The data
+     * array must not be modified after this call.
+     */
+    void writeAsync(String fileId, long chunkIndex, byte[] data, int offset, int length)
+    {
+        writeExecutor.execute(() -> write(fileId, chunkIndex, data, offset, length));
+    }
+
+    /**
+     * Stores a chunk read from the remote file system. Failures to write are ignored,
+     * as the data has already been read.
+     */
+    private void write(String fileId, long chunkIndex, byte[] data, int offset, int length)
+    {
+        ChunkKey key = new ChunkKey(fileId, chunkIndex, length);
+        if (chunks.getIfPresent(key) != null) {
+            // another reader cached the chunk in the meantime
+            return;
+        }
+        Path target = baseDirectory.resolve(key.getFileName());
+        Path temporary = baseDirectory.resolve(UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                output.write(data, offset, length);
+            }
+            Files.move(temporary, target, ATOMIC_MOVE, REPLACE_EXISTING);
+            chunks.put(key, target.toFile());
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write cached chunk %s", target);
+            try {
+                Files.deleteIfExists(temporary);
+            }
+            catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        chunks.invalidateAll();
+    }
+
+    @Managed
+    public long getCachedChunks()
+    {
+        return chunks.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        long hitCount = hits.getTotalCount();
+        long total = hitCount + misses.getTotalCount();
+        return total == 0 ? 1.0 : ((double) hitCount) / total;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getBytesReadFromCache()
+    {
+        return bytesReadFromCache;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getBytesReadFromRemote()
+    {
+        return bytesReadFromRemote;
+    }
+
+    private static String fileId(FileStatus fileStatus)
+    {
+        String identity = fileStatus.getPath() + "@" + fileStatus.getModificationTime() + "@" + fileStatus.getLen();
+        return sha256().hashString(identity, UTF_8).toString();
+    }
+
+    private static void deleteChunkFile(RemovalNotification<ChunkKey, File> notification)
+    {
+        // a replaced chunk shares its file with the new entry
+        if (notification.getCause() != REPLACED) {
+            File file = notification.getValue();
+            if (file != null && !file.delete() && file.exists()) {
+                log.warn("Failed to delete cached chunk %s", file);
+            }
+        }
+    }
+
+    private static void removeStaleChunkFiles(Path directory)
+            throws IOException
+    {
+        // the chunk index is kept in memory, so chunks from a previous run cannot be used
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + CHUNK_FILE_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static final class ChunkKey
+    {
+        private final String fileId;
+        private final long chunkIndex;
+        private final int length;
+
+        public ChunkKey(String fileId, long chunkIndex, int length)
+        {
+            this.fileId = requireNonNull(fileId, "fileId is null");
+            this.chunkIndex = chunkIndex;
+            this.length = length;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        public String getFileName()
+        {
+            return fileId + "_" + chunkIndex + CHUNK_FILE_SUFFIX;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ChunkKey that = (ChunkKey) o;
+            return chunkIndex == that.chunkIndex &&
+                    length == that.length &&
+                    Objects.equals(fileId, that.fileId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(fileId, chunkIndex, length);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("fileId", fileId)
+                    .add("chunkIndex", chunkIndex)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+}
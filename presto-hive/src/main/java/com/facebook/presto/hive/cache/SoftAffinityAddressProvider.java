@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashFunction;
+
+import javax.inject.Inject;
+
+import java.util.List;
+
+import static com.google.common.hash.Hashing.murmur3_128;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Assigns a preferred worker to splits of files that have no data locality (for
+ * example files on S3), so repeated scans of a file run on the worker that has
+ * its data in the {@link LocalFileDataCache}. The worker is chosen by rendezvous
+ * hashing of the file path, so adding or removing a worker only moves the files
+ * that were assigned to it. The preference is soft: the scheduler runs the split
+ * elsewhere when the preferred worker is busy.
+ */
+public class SoftAffinityAddressProvider
+{
+    private static final HashFunction HASH_FUNCTION = murmur3_128();
+
+    private final boolean enabled;
+    private final NodeManager nodeManager;
+
+    @Inject
+    public SoftAffinityAddressProvider(HiveClientConfig config, NodeManager nodeManager)
+    {
+        this(requireNonNull(config, "config is null").isDataCacheEnabled(), nodeManager);
+    }
+
+    public SoftAffinityAddressProvider(boolean enabled, NodeManager nodeManager)
+    {
+        this.enabled = enabled;
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+    }
+
+    /**
+     * Returns the addresses to use for a split of the given file. Addresses from
+     * the file system are kept when they name real hosts.
+     */
+    public List<HostAddress> getAddresses(String path, List<HostAddress> addresses)
+    {
+        if (!enabled || hasRealAddress(addresses)) {
+            return addresses;
+        }
+
+        Node preferredNode = null;
+        long maxScore = Long.MIN_VALUE;
+        for (Node node : nodeManager.getWorkerNodes()) {
+            long score = HASH_FUNCTION.newHasher()
+                    .putString(path, UTF_8)
+                    .putString(node.getNodeIdentifier(), UTF_8)
+                    .hash()
+                    .asLong();
+            if (preferredNode == null || score > maxScore) {
+                preferredNode = node;
+                maxScore = score;
+            }
+        }
+        if (preferredNode == null) {
+            return addresses;
+        }
+        return ImmutableList.of(preferredNode.getHostAndPort());
+    }
+
+    private static boolean hasRealAddress(List<HostAddress> addresses)
+    {
+        // Hadoop FileSystem returns "localhost" as a default
+        return addresses.stream().anyMatch(address -> !address.getHostText().equals("localhost"));
+    }
+}
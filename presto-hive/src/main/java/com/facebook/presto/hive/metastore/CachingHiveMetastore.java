@@ -25,6 +25,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.UncheckedExecutionException;
@@ -46,6 +47,7 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -70,6 +72,8 @@ public class CachingHiveMetastore
         implements ExtendedHiveMetastore
 {
     protected final ExtendedHiveMetastore delegate;
+    private final ExecutorService executor;
+    private final int partitionLoadBatchSize;
     private final LoadingCache<String, Optional<Database>> databaseCache;
     private final LoadingCache<String, List<String>> databaseNamesCache;
     private final LoadingCache<HiveTableName, Optional<Table>> tableCache;
@@ -92,17 +96,19 @@ public class CachingHiveMetastore
                 executor,
                 hiveClientConfig.getMetastoreCacheTtl(),
                 hiveClientConfig.getMetastoreRefreshInterval(),
-                hiveClientConfig.getMetastoreCacheMaximumSize());
+                hiveClientConfig.getMetastoreCacheMaximumSize(),
+                hiveClientConfig.getMetastorePartitionLoadBatchSize());
     }
 
-    public CachingHiveMetastore(ExtendedHiveMetastore delegate, ExecutorService executor, Duration cacheTtl, Duration refreshInterval, long maximumSize)
+    public CachingHiveMetastore(ExtendedHiveMetastore delegate, ExecutorService executor, Duration cacheTtl, Duration refreshInterval, long maximumSize, int partitionLoadBatchSize)
     {
         this(
                 delegate,
                 executor,
                 OptionalLong.of(cacheTtl.toMillis()),
                 refreshInterval.toMillis() >= cacheTtl.toMillis() ? OptionalLong.empty() : OptionalLong.of(refreshInterval.toMillis()),
-                maximumSize);
+                maximumSize,
+                partitionLoadBatchSize);
     }
 
     public static CachingHiveMetastore memoizeMetastore(ExtendedHiveMetastore delegate, long maximumSize)
@@ -112,13 +118,16 @@ public class CachingHiveMetastore
                 newDirectExecutorService(),
                 OptionalLong.empty(),
                 OptionalLong.empty(),
-                maximumSize);
+                maximumSize,
+                Integer.MAX_VALUE);
     }
 
-    private CachingHiveMetastore(ExtendedHiveMetastore delegate, ExecutorService executor, OptionalLong expiresAfterWriteMillis, OptionalLong refreshMills, long maximumSize)
+    private CachingHiveMetastore(ExtendedHiveMetastore delegate, ExecutorService executor, OptionalLong expiresAfterWriteMillis, OptionalLong refreshMills, long maximumSize, int partitionLoadBatchSize)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
-        requireNonNull(executor, "executor is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(partitionLoadBatchSize >= 1, "partitionLoadBatchSize must be at least 1");
+        this.partitionLoadBatchSize = partitionLoadBatchSize;
 
         databaseNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(asyncReloading(new CacheLoader<String, List<String>>()
@@ -748,13 +757,47 @@ public class CachingHiveMetastore
         }
 
         ImmutableMap.Builder<HivePartitionName, Optional<Partition>> partitions = ImmutableMap.builder();
-        Map<String, Optional<Partition>> partitionsByNames = delegate.getPartitionsByNames(databaseName, tableName, partitionsToFetch);
-        for (Entry<String, Optional<Partition>> entry : partitionsByNames.entrySet()) {
-            partitions.put(HivePartitionName.partition(hiveTableName, entry.getKey()), entry.getValue());
+        for (Map<String, Optional<Partition>> partitionsByNames : loadPartitionBatches(databaseName, tableName, partitionsToFetch)) {
+            for (Entry<String, Optional<Partition>> entry : partitionsByNames.entrySet()) {
+                partitions.put(HivePartitionName.partition(hiveTableName, entry.getKey()), entry.getValue());
+            }
         }
         return partitions.build();
     }
 
+    private List<Map<String, Optional<Partition>>> loadPartitionBatches(String databaseName, String tableName, List<String> partitionNames)
+            throws Exception
+    {
+        if (partitionNames.size() <= partitionLoadBatchSize) {
+            return ImmutableList.of(delegate.getPartitionsByNames(databaseName, tableName, partitionNames));
+        }
+
+        // large requests are split into batches that are loaded in parallel, so that a single
+        // metastore call does not time out and the latency does not grow with the number of partitions
+        List<Future<Map<String, Optional<Partition>>>> futures = new ArrayList<>();
+        try {
+            for (List<String> batch : Lists.partition(partitionNames, partitionLoadBatchSize)) {
+                futures.add(executor.submit(() -> delegate.getPartitionsByNames(databaseName, tableName, batch)));
+            }
+            ImmutableList.Builder<Map<String, Optional<Partition>>> batches = ImmutableList.builder();
+            for (Future<Map<String, Optional<Partition>>> future : futures) {
+                batches.add(future.get());
+            }
+            return batches.build();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), Exception.class);
+            throw Throwables.propagate(e.getCause());
+        }
+        finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
     @Override
     public void addPartitions(String databaseName, String tableName, List<Partition> partitions)
     {
@@ -856,6 +899,36 @@ public class CachingHiveMetastore
         return delegate.listRoleGrants(principal);
     }
 
+    /**
+     * Invalidates the cached metadata affected by a change made outside of this connector.
+     */
+    public void invalidate(MetastoreEvent event)
+    {
+        String databaseName = event.getDatabaseName();
+        if (!event.getTableName().isPresent()) {
+            invalidateDatabase(databaseName);
+            tableNamesCache.invalidate(databaseName);
+            viewNamesCache.invalidate(databaseName);
+            tableCache.asMap().keySet().stream()
+                    .filter(hiveTableName -> hiveTableName.getDatabaseName().equals(databaseName))
+                    .forEach(hiveTableName -> invalidateTable(databaseName, hiveTableName.getTableName()));
+            return;
+        }
+
+        String tableName = event.getTableName().get();
+        if (!event.getPartitionName().isPresent()) {
+            invalidateTable(databaseName, tableName);
+            return;
+        }
+
+        HiveTableName hiveTableName = HiveTableName.table(databaseName, tableName);
+        partitionCache.invalidate(HivePartitionName.partition(hiveTableName, event.getPartitionName().get()));
+        partitionNamesCache.invalidate(hiveTableName);
+        partitionFilterCache.asMap().keySet().stream()
+                .filter(partitionFilter -> partitionFilter.getHiveTableName().equals(hiveTableName))
+                .forEach(partitionFilterCache::invalidate);
+    }
+
     private void invalidatePartitionCache(String databaseName, String tableName)
     {
         HiveTableName hiveTableName = HiveTableName.table(databaseName, tableName);
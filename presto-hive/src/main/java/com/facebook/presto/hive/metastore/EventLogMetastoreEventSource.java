@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads metastore events from an append-only local file containing one JSON encoded
+ * {@link MetastoreEvent} per line. Only events appended after this source is created
+ * are returned. If the file is truncated, it is read again from the beginning.
+ */
+@ThreadSafe
+public class EventLogMetastoreEventSource
+        implements MetastoreEventSource
+{
+    private static final Logger log = Logger.get(EventLogMetastoreEventSource.class);
+    private static final JsonCodec<MetastoreEvent> EVENT_CODEC = jsonCodec(MetastoreEvent.class);
+    private static final Splitter LINE_SPLITTER = Splitter.on('\n').trimResults().omitEmptyStrings();
+
+    private final File eventLog;
+
+    @GuardedBy("this")
+    private long position;
+
+    public EventLogMetastoreEventSource(File eventLog)
+    {
+        this.eventLog = requireNonNull(eventLog, "eventLog is null");
+        this.position = eventLog.length();
+    }
+
+    @Override
+    public synchronized List<MetastoreEvent> poll()
+            throws IOException
+    {
+        long length = eventLog.length();
+        if (length < position) {
+            // the log was truncated or replaced
+            position = 0;
+        }
+        if (length == position) {
+            return ImmutableList.of();
+        }
+
+        byte[] data = new byte[toIntExact(length - position)];
+        try (RandomAccessFile file = new RandomAccessFile(eventLog, "r")) {
+            file.seek(position);
+            file.readFully(data);
+        }
+
+        // only consume complete lines, the writer may still be appending the last one
+        int end = data.length;
+        while (end > 0 && data[end - 1] != '\n') {
+            end--;
+        }
+        position += end;
+
+        ImmutableList.Builder<MetastoreEvent> events = ImmutableList.builder();
+        for (String line : LINE_SPLITTER.split(new String(data, 0, end, UTF_8))) {
+            try {
+                events.add(EVENT_CODEC.fromJson(line));
+            }
+            catch (IllegalArgumentException e) {
+                log.warn(e, "Ignoring invalid metastore event: %s", line);
+            }
+        }
+        return events.build();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A change to a database, table or partition made outside of this connector.
+ */
+public class MetastoreEvent
+{
+    private final String databaseName;
+    private final Optional<String> tableName;
+    private final Optional<String> partitionName;
+
+    @JsonCreator
+    public MetastoreEvent(
+            @JsonProperty("databaseName") String databaseName,
+            @JsonProperty("tableName") Optional<String> tableName,
+            @JsonProperty("partitionName") Optional<String> partitionName)
+    {
+        this.databaseName = requireNonNull(databaseName, "databaseName is null");
+        this.tableName = requireNonNull(tableName, "tableName is null");
+        this.partitionName = requireNonNull(partitionName, "partitionName is null");
+        checkArgument(tableName.isPresent() || !partitionName.isPresent(), "partitionName is present without tableName");
+    }
+
+    public static MetastoreEvent databaseChanged(String databaseName)
+    {
+        return new MetastoreEvent(databaseName, Optional.empty(), Optional.empty());
+    }
+
+    public static MetastoreEvent tableChanged(String databaseName, String tableName)
+    {
+        return new MetastoreEvent(databaseName, Optional.of(tableName), Optional.empty());
+    }
+
+    public static MetastoreEvent partitionChanged(String databaseName, String tableName, String partitionName)
+    {
+        return new MetastoreEvent(databaseName, Optional.of(tableName), Optional.of(partitionName));
+    }
+
+    @JsonProperty
+    public String getDatabaseName()
+    {
+        return databaseName;
+    }
+
+    @JsonProperty
+    public Optional<String> getTableName()
+    {
+        return tableName;
+    }
+
+    @JsonProperty
+    public Optional<String> getPartitionName()
+    {
+        return partitionName;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MetastoreEvent that = (MetastoreEvent) o;
+        return Objects.equals(databaseName, that.databaseName) &&
+                Objects.equals(tableName, that.tableName) &&
+                Objects.equals(partitionName, that.partitionName);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(databaseName, tableName, partitionName);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("databaseName", databaseName)
+                .add("tableName", tableName.orElse(null))
+                .add("partitionName", partitionName.orElse(null))
+                .omitNullValues()
+                .toString();
+    }
+}
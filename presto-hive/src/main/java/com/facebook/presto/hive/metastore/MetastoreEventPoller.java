@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.hive.HiveConnectorId;
+import com.facebook.presto.spi.NodeManager;
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Periodically polls a {@link MetastoreEventSource} on the coordinator and invalidates
+ * the affected entries of the metastore cache.
+ */
+public class MetastoreEventPoller
+{
+    private static final Logger log = Logger.get(MetastoreEventPoller.class);
+
+    private final Optional<CachingHiveMetastore> metastore;
+    private final Optional<MetastoreEventSource> eventSource;
+    private final Duration pollInterval;
+    private final boolean coordinator;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final CounterStat eventsProcessed = new CounterStat();
+    private final CounterStat pollErrors = new CounterStat();
+
+    @Inject
+    public MetastoreEventPoller(ExtendedHiveMetastore metastore, HiveClientConfig config, NodeManager nodeManager, HiveConnectorId connectorId)
+    {
+        this(
+                metastore instanceof CachingHiveMetastore ? Optional.of((CachingHiveMetastore) metastore) : Optional.empty(),
+                Optional.ofNullable(config.getMetastoreCacheEventLog()).map(path -> new EventLogMetastoreEventSource(new File(path))),
+                config.getMetastoreCacheEventPollInterval(),
+                nodeManager.getCurrentNode().isCoordinator(),
+                connectorId.toString());
+    }
+
+    public MetastoreEventPoller(
+            Optional<CachingHiveMetastore> metastore,
+            Optional<MetastoreEventSource> eventSource,
+            Duration pollInterval,
+            boolean coordinator,
+            String connectorId)
+    {
+        this.metastore = requireNonNull(metastore, "metastore is null");
+        this.eventSource = requireNonNull(eventSource, "eventSource is null");
+        this.pollInterval = requireNonNull(pollInterval, "pollInterval is null");
+        this.coordinator = coordinator;
+        this.executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("hive-metastore-events-" + connectorId));
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if (metastore.isPresent() && eventSource.isPresent() && coordinator && !started.getAndSet(true)) {
+            executor.scheduleWithFixedDelay(this::runPoll, pollInterval.toMillis(), pollInterval.toMillis(), MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEventsProcessed()
+    {
+        return eventsProcessed;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPollErrors()
+    {
+        return pollErrors;
+    }
+
+    private void runPoll()
+    {
+        try {
+            poll();
+        }
+        catch (Throwable t) {
+            log.error(t, "Error polling metastore events");
+            pollErrors.update(1);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void poll()
+            throws IOException
+    {
+        if (!metastore.isPresent() || !eventSource.isPresent()) {
+            return;
+        }
+        List<MetastoreEvent> events = eventSource.get().poll();
+        for (MetastoreEvent event : events) {
+            metastore.get().invalidate(event);
+        }
+        eventsProcessed.update(events.size());
+    }
+}
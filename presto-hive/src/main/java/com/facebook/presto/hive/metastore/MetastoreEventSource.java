@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Source of metastore change notifications used to invalidate the metastore cache.
+ */
+public interface MetastoreEventSource
+{
+    /**
+     * Returns the events that occurred since the previous call.
+     */
+    List<MetastoreEvent> poll()
+            throws IOException;
+}
@@ -21,9 +21,12 @@ import io.airlift.units.DataSize;
 import org.apache.hadoop.fs.FSDataInputStream;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_MISSING_DATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -42,7 +45,22 @@ public class HdfsOrcDataSource
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats)
     {
-        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize);
+        this(id, size, maxMergeDistance, maxReadSize, streamBufferSize, inputStream, stats, Optional.empty(), new DataSize(0, BYTE));
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            Optional<Executor> ioExecutor,
+            DataSize maxInFlightReadSize)
+    {
+        // positioned reads of FSDataInputStream are safe to issue concurrently
+        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, ioExecutor, maxInFlightReadSize);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
     }
@@ -33,6 +33,7 @@ import com.google.common.collect.ImmutableList;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.OptionalDouble;
 
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -121,6 +122,15 @@ public class OrcPageSource
         return orcDataSource.getReadTimeNanos();
     }
 
+    @Override
+    public OptionalDouble getProgress()
+    {
+        if (closed) {
+            return OptionalDouble.of(1.0);
+        }
+        return OptionalDouble.of(recordReader.getProgress());
+    }
+
     @Override
     public boolean isFinished()
     {
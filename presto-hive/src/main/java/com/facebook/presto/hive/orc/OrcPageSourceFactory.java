@@ -13,13 +13,17 @@
  */
 package com.facebook.presto.hive.orc;
 
+import com.facebook.presto.hive.FileFooterCache;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForHiveClient;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePageSourceFactory;
+import com.facebook.presto.hive.cache.LocalFileDataCache;
 import com.facebook.presto.orc.OrcDataSource;
 import com.facebook.presto.orc.OrcDataSourceId;
+import com.facebook.presto.orc.OrcFileTail;
 import com.facebook.presto.orc.OrcPredicate;
 import com.facebook.presto.orc.OrcReader;
 import com.facebook.presto.orc.OrcRecordReader;
@@ -36,9 +40,11 @@ import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
@@ -52,8 +58,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
+import static com.facebook.presto.hive.FileFooterCache.disabledFileFooterCache;
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILE_MISSING_COLUMN_NAMES;
@@ -63,7 +72,10 @@ import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDista
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcStreamBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.isOrcBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveUtil.isDeserializerClass;
+import static com.facebook.presto.hive.cache.LocalFileDataCache.disabledLocalFileDataCache;
+import static com.facebook.presto.orc.OrcReader.wrapWithCacheIfTiny;
 import static com.google.common.base.Strings.nullToEmpty;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -75,19 +87,68 @@ public class OrcPageSourceFactory
     private final boolean useOrcColumnNames;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
+    private final FileFooterCache footerCache;
+    private final LocalFileDataCache dataCache;
+    private final Optional<Executor> ioExecutor;
+    private final DataSize maxInFlightReadSize;
 
     @Inject
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            FileFooterCache footerCache,
+            LocalFileDataCache dataCache,
+            @ForHiveClient ExecutorService executorService)
+    {
+        this(
+                typeManager,
+                requireNonNull(config, "hiveClientConfig is null").isUseOrcColumnNames(),
+                hdfsEnvironment,
+                stats,
+                footerCache,
+                dataCache,
+                createIoExecutor(executorService, config.getOrcIoThreads()),
+                config.getOrcMaxInFlightReadSize());
+    }
+
     public OrcPageSourceFactory(TypeManager typeManager, HiveClientConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
     {
-        this(typeManager, requireNonNull(config, "hiveClientConfig is null").isUseOrcColumnNames(), hdfsEnvironment, stats);
+        this(typeManager, config.isUseOrcColumnNames(), hdfsEnvironment, stats);
     }
 
     public OrcPageSourceFactory(TypeManager typeManager, boolean useOrcColumnNames, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
+    {
+        this(typeManager, useOrcColumnNames, hdfsEnvironment, stats, disabledFileFooterCache(), disabledLocalFileDataCache(), Optional.empty(), new DataSize(0, BYTE));
+    }
+
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            boolean useOrcColumnNames,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            FileFooterCache footerCache,
+            LocalFileDataCache dataCache,
+            Optional<Executor> ioExecutor,
+            DataSize maxInFlightReadSize)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.useOrcColumnNames = useOrcColumnNames;
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.footerCache = requireNonNull(footerCache, "footerCache is null");
+        this.dataCache = requireNonNull(dataCache, "dataCache is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.maxInFlightReadSize = requireNonNull(maxInFlightReadSize, "maxInFlightReadSize is null");
+    }
+
+    private static Optional<Executor> createIoExecutor(ExecutorService executorService, int ioThreads)
+    {
+        if (ioThreads == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoundedExecutor(executorService, ioThreads));
     }
 
     @Override
@@ -123,7 +184,11 @@ public class OrcPageSourceFactory
                 getOrcMaxBufferSize(session),
                 getOrcStreamBufferSize(session),
                 isOrcBloomFiltersEnabled(session),
-                stats));
+                stats,
+                footerCache,
+                dataCache,
+                ioExecutor,
+                maxInFlightReadSize));
     }
 
     public static OrcPageSource createOrcPageSource(
@@ -143,14 +208,28 @@ public class OrcPageSourceFactory
             DataSize maxBufferSize,
             DataSize streamBufferSize,
             boolean orcBloomFiltersEnabled,
-            FileFormatDataSourceStats stats)
+            FileFormatDataSourceStats stats,
+            FileFooterCache footerCache,
+            LocalFileDataCache dataCache,
+            Optional<Executor> ioExecutor,
+            DataSize maxInFlightReadSize)
     {
         OrcDataSource orcDataSource;
+        FileStatus fileStatus;
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
-            long size = fileSystem.getFileStatus(path).getLen();
-            FSDataInputStream inputStream = fileSystem.open(path);
-            orcDataSource = new HdfsOrcDataSource(new OrcDataSourceId(path.toString()), size, maxMergeDistance, maxBufferSize, streamBufferSize, inputStream, stats);
+            fileStatus = fileSystem.getFileStatus(path);
+            FSDataInputStream inputStream = dataCache.wrap(fileStatus, fileSystem.open(path));
+            orcDataSource = new HdfsOrcDataSource(
+                    new OrcDataSourceId(path.toString()),
+                    fileStatus.getLen(),
+                    maxMergeDistance,
+                    maxBufferSize,
+                    streamBufferSize,
+                    inputStream,
+                    stats,
+                    ioExecutor,
+                    maxInFlightReadSize);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -162,7 +241,10 @@ public class OrcPageSourceFactory
 
         AggregatedMemoryContext systemMemoryUsage = new AggregatedMemoryContext();
         try {
-            OrcReader reader = new OrcReader(orcDataSource, metadataReader, maxMergeDistance, maxBufferSize);
+            // read the tail through the data source of the reader, so a tiny file is still read only once
+            OrcDataSource readerDataSource = wrapWithCacheIfTiny(orcDataSource, maxMergeDistance);
+            OrcFileTail fileTail = footerCache.getOrcFileTail(fileStatus, () -> OrcReader.readFileTail(readerDataSource, metadataReader));
+            OrcReader reader = new OrcReader(readerDataSource, metadataReader, maxMergeDistance, maxBufferSize, fileTail);
 
             List<HiveColumnHandle> physicalColumns = getPhysicalHiveColumnHandles(columns, useOrcColumnNames, reader, path);
             ImmutableMap.Builder<Integer, Type> includedColumns = ImmutableMap.builder();
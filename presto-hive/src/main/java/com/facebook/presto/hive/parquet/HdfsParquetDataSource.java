@@ -13,8 +13,10 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.hive.cache.LocalFileDataCache;
 import com.facebook.presto.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
@@ -23,6 +25,7 @@ import java.io.IOException;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
+import static com.facebook.presto.hive.cache.LocalFileDataCache.disabledLocalFileDataCache;
 import static com.google.common.base.Strings.nullToEmpty;
 import static java.lang.String.format;
 
@@ -91,11 +94,16 @@ public class HdfsParquetDataSource
     }
 
     public static HdfsParquetDataSource buildHdfsParquetDataSource(FileSystem fileSystem, Path path, long start, long length)
+    {
+        return buildHdfsParquetDataSource(fileSystem, path, start, length, disabledLocalFileDataCache());
+    }
+
+    public static HdfsParquetDataSource buildHdfsParquetDataSource(FileSystem fileSystem, Path path, long start, long length, LocalFileDataCache dataCache)
     {
         try {
-            long size = fileSystem.getFileStatus(path).getLen();
-            FSDataInputStream inputStream = fileSystem.open(path);
-            return new HdfsParquetDataSource(path, size, inputStream);
+            FileStatus fileStatus = fileSystem.getFileStatus(path);
+            FSDataInputStream inputStream = dataCache.wrap(fileStatus, fileSystem.open(path));
+            return new HdfsParquetDataSource(path, fileStatus.getLen(), inputStream);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
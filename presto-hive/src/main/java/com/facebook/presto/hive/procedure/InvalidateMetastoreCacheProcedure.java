@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.procedure;
+
+import com.facebook.presto.hive.metastore.CachingHiveMetastore;
+import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.procedure.Procedure;
+import com.facebook.presto.spi.procedure.Procedure.Argument;
+import com.google.common.collect.ImmutableList;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import java.lang.invoke.MethodHandle;
+
+import static com.facebook.presto.hive.metastore.MetastoreEvent.databaseChanged;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.tableChanged;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_PROCEDURE_ARGUMENT;
+import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.spi.type.StandardTypes.VARCHAR;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@code system.invalidate_metastore_cache(schema_name, table_name)} drops the cached metadata
+ * of a table, of a schema when the table name is null, or of everything when both are null.
+ */
+public class InvalidateMetastoreCacheProcedure
+        implements Provider<Procedure>
+{
+    private static final MethodHandle INVALIDATE_METASTORE_CACHE;
+
+    static {
+        try {
+            INVALIDATE_METASTORE_CACHE = lookup().findVirtual(
+                    InvalidateMetastoreCacheProcedure.class,
+                    "invalidateMetastoreCache",
+                    methodType(void.class, String.class, String.class));
+        }
+        catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private final ExtendedHiveMetastore metastore;
+
+    @Inject
+    public InvalidateMetastoreCacheProcedure(ExtendedHiveMetastore metastore)
+    {
+        this.metastore = requireNonNull(metastore, "metastore is null");
+    }
+
+    @Override
+    public Procedure get()
+    {
+        return new Procedure(
+                "system",
+                "invalidate_metastore_cache",
+                ImmutableList.of(
+                        new Argument("schema_name", VARCHAR),
+                        new Argument("table_name", VARCHAR)),
+                INVALIDATE_METASTORE_CACHE.bindTo(this));
+    }
+
+    public void invalidateMetastoreCache(String schemaName, String tableName)
+    {
+        if (!(metastore instanceof CachingHiveMetastore)) {
+            throw new PrestoException(NOT_SUPPORTED, "Metastore cache is not enabled");
+        }
+        CachingHiveMetastore cachingMetastore = (CachingHiveMetastore) metastore;
+
+        if (schemaName == null) {
+            if (tableName != null) {
+                throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, "schema_name is required when table_name is specified");
+            }
+            cachingMetastore.flushCache();
+        }
+        else if (tableName == null) {
+            cachingMetastore.invalidate(databaseChanged(schemaName));
+        }
+        else {
+            cachingMetastore.invalidate(tableChanged(schemaName, tableName));
+        }
+    }
+}
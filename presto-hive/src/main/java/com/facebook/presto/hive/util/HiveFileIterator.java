@@ -18,6 +18,7 @@ import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePartitionKey;
 import com.facebook.presto.hive.HiveType;
 import com.facebook.presto.hive.NamenodeStats;
+import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.google.common.collect.AbstractIterator;
@@ -33,6 +34,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILE_NOT_FOUND;
@@ -42,6 +44,7 @@ public class HiveFileIterator
         extends AbstractIterator<LocatedFileStatus>
 {
     private final FileSystem fileSystem;
+    private final Table table;
     private final DirectoryLister directoryLister;
     private final NamenodeStats namenodeStats;
     private final Path path;
@@ -53,10 +56,12 @@ public class HiveFileIterator
     private final Map<Integer, HiveType> columnCoercions;
 
     private RemoteIterator<LocatedFileStatus> remoteIterator;
+    private long listingNanos;
 
     public HiveFileIterator(
             Path path,
             FileSystem fileSystem,
+            Table table,
             DirectoryLister directoryLister,
             NamenodeStats namenodeStats,
             String partitionName,
@@ -73,6 +78,7 @@ public class HiveFileIterator
         this.effectivePredicate = requireNonNull(effectivePredicate, "effectivePredicate is null");
         this.path = requireNonNull(path, "path is null");
         this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
+        this.table = requireNonNull(table, "table is null");
         this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.namenodeStats = requireNonNull(namenodeStats, "namenodeStats is null");
         this.columnCoercions = requireNonNull(columnCoercions, "columnCoercions is null");
@@ -81,6 +87,7 @@ public class HiveFileIterator
     @Override
     protected LocatedFileStatus computeNext()
     {
+        long start = System.nanoTime();
         try {
             if (remoteIterator == null) {
                 remoteIterator = getLocatedFileStatusRemoteIterator(path);
@@ -94,8 +101,11 @@ public class HiveFileIterator
                 if (fileName.startsWith("_") || fileName.startsWith(".")) {
                     continue;
                 }
+                listingNanos += System.nanoTime() - start;
                 return status;
             }
+            listingNanos += System.nanoTime() - start;
+            namenodeStats.getDirectoryListingTime().add(listingNanos, TimeUnit.NANOSECONDS);
             return endOfData();
         }
         catch (FileNotFoundException e) {
@@ -110,7 +120,7 @@ public class HiveFileIterator
             throws IOException
     {
         try (TimeStat.BlockTimer ignored = namenodeStats.getListLocatedStatus().time()) {
-            return directoryLister.list(fileSystem, path);
+            return directoryLister.list(fileSystem, table, path);
         }
         catch (IOException | RuntimeException e) {
             namenodeStats.getListLocatedStatus().recordException(e);
@@ -135,6 +145,11 @@ public class HiveFileIterator
         return fileSystem;
     }
 
+    public Table getTable()
+    {
+        return table;
+    }
+
     public DirectoryLister getDirectoryLister()
     {
         return directoryLister;
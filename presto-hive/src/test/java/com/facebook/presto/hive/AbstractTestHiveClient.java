@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.facebook.presto.GroupByHashPageIndexerFactory;
 import com.facebook.presto.hadoop.HadoopFileStatus;
 import com.facebook.presto.hive.authentication.NoHdfsAuthentication;
+import com.facebook.presto.hive.cache.SoftAffinityAddressProvider;
 import com.facebook.presto.hive.metastore.BridgingHiveMetastore;
 import com.facebook.presto.hive.metastore.CachingHiveMetastore;
 import com.facebook.presto.hive.metastore.Column;
@@ -501,7 +502,8 @@ public abstract class AbstractTestHiveClient
                 executor,
                 Duration.valueOf("1m"),
                 Duration.valueOf("15s"),
-                10000);
+                10000,
+                hiveClientConfig.getMetastorePartitionLoadBatchSize());
 
         setup(databaseName, hiveClientConfig, metastore);
     }
@@ -530,6 +532,7 @@ public abstract class AbstractTestHiveClient
                 true,
                 false,
                 true,
+                false,
                 HiveStorageFormat.RCBINARY,
                 1000,
                 TYPE_MANAGER,
@@ -552,8 +555,9 @@ public abstract class AbstractTestHiveClient
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getMaxInitialSplits(),
-                false
-        );
+                hiveClientConfig.getSplitLoaderConcurrency(),
+                false,
+                new SoftAffinityAddressProvider(false, new TestingNodeManager("fake-environment")));
         pageSinkProvider = new HivePageSinkProvider(
                 getDefaultHiveFileWriterFactories(hiveClientConfig),
                 hdfsEnvironment,
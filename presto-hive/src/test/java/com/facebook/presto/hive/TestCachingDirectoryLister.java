@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.Table;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.hive.HiveStorageFormat.ORC;
+import static com.facebook.presto.hive.metastore.StorageFormat.fromHiveStorageFormat;
+import static org.apache.hadoop.hive.metastore.TableType.MANAGED_TABLE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestCachingDirectoryLister
+{
+    private static final Path PATH = new Path("/test/partition");
+
+    @Test
+    public void testCacheHitAfterFullListing()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(3);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 1000, ImmutableList.of("test_schema.test_table"));
+        Table table = table("test_schema", "test_table");
+
+        assertEquals(drain(lister.list(null, table, PATH)), delegate.getFiles());
+        assertEquals(drain(lister.list(null, table, PATH)), delegate.getFiles());
+        assertEquals(delegate.getListCount(), 1);
+        assertEquals(lister.getHitCount(), 1);
+        assertEquals(lister.getMissCount(), 1);
+
+        lister.flushCache();
+        drain(lister.list(null, table, PATH));
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testPartialListingIsNotCached()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(3);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 1000, ImmutableList.of("*"));
+        Table table = table("test_schema", "test_table");
+
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(null, table, PATH);
+        iterator.next();
+        assertEquals(lister.getSize(), 0);
+
+        drain(lister.list(null, table, PATH));
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getSize(), 1);
+    }
+
+    @Test
+    public void testTableNotInCacheList()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(3);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 1000, ImmutableList.of("test_schema.test_table"));
+        Table table = table("test_schema", "other_table");
+
+        drain(lister.list(null, table, PATH));
+        drain(lister.list(null, table, PATH));
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getSize(), 0);
+    }
+
+    @Test
+    public void testListingLargerThanCacheIsNotRetained()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(10);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(1, TimeUnit.HOURS), 5, ImmutableList.of("*"));
+        Table table = table("test_schema", "test_table");
+
+        assertEquals(drain(lister.list(null, table, PATH)).size(), 10);
+        assertEquals(drain(lister.list(null, table, PATH)).size(), 10);
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidTableName()
+    {
+        new CachingDirectoryLister(new CountingDirectoryLister(0), new Duration(1, TimeUnit.HOURS), 1000, ImmutableList.of("test_table"));
+    }
+
+    private static List<LocatedFileStatus> drain(RemoteIterator<LocatedFileStatus> iterator)
+            throws IOException
+    {
+        ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        while (iterator.hasNext()) {
+            files.add(iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+        return files.build();
+    }
+
+    private static Table table(String schemaName, String tableName)
+    {
+        Table.Builder tableBuilder = Table.builder()
+                .setDatabaseName(schemaName)
+                .setTableName(tableName)
+                .setOwner("test")
+                .setTableType(MANAGED_TABLE.name());
+        tableBuilder.getStorageBuilder()
+                .setStorageFormat(fromHiveStorageFormat(ORC))
+                .setLocation(PATH.getParent().toString());
+        return tableBuilder.build();
+    }
+
+    private static class CountingDirectoryLister
+            implements DirectoryLister
+    {
+        private final List<LocatedFileStatus> files;
+        private int listCount;
+
+        public CountingDirectoryLister(int fileCount)
+        {
+            ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+            for (int i = 0; i < fileCount; i++) {
+                FileStatus status = new FileStatus(100, false, 1, 64 * 1024 * 1024, 1, new Path(PATH, "file" + i));
+                try {
+                    files.add(new LocatedFileStatus(status, null));
+                }
+                catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            this.files = files.build();
+        }
+
+        public List<LocatedFileStatus> getFiles()
+        {
+            return files;
+        }
+
+        public int getListCount()
+        {
+            return listCount;
+        }
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+        {
+            listCount++;
+            Iterator<LocatedFileStatus> iterator = files.iterator();
+            return new RemoteIterator<LocatedFileStatus>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public LocatedFileStatus next()
+                {
+                    return iterator.next();
+                }
+            };
+        }
+    }
+}
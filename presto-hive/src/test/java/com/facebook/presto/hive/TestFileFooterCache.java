@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.orc.OrcFileTail;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
+import com.facebook.presto.orc.metadata.statistics.IntegerStatistics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.OrcType.OrcTypeKind.LONG;
+import static com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion.ORIGINAL;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestFileFooterCache
+{
+    @Test
+    public void testCacheHit()
+            throws Exception
+    {
+        FileFooterCache cache = new FileFooterCache(true, new DataSize(1, MEGABYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        FileStatus fileStatus = fileStatus("/test/file.orc", 100, 1);
+        OrcFileTail first = cache.getOrcFileTail(fileStatus, () -> createFileTail(loads, 1));
+        OrcFileTail second = cache.getOrcFileTail(fileStatus("/test/file.orc", 100, 1), () -> createFileTail(loads, 1));
+
+        assertSame(second, first);
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded()
+            throws Exception
+    {
+        FileFooterCache cache = new FileFooterCache(true, new DataSize(1, MEGABYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrcFileTail(fileStatus("/test/file.orc", 100, 1), () -> createFileTail(loads, 1));
+        cache.getOrcFileTail(fileStatus("/test/file.orc", 100, 2), () -> createFileTail(loads, 1));
+        cache.getOrcFileTail(fileStatus("/test/file.orc", 200, 2), () -> createFileTail(loads, 1));
+
+        assertEquals(loads.get(), 3);
+        assertEquals(cache.getSize(), 3);
+    }
+
+    @Test
+    public void testEvictionByWeight()
+            throws Exception
+    {
+        FileFooterCache cache = new FileFooterCache(true, new DataSize(100, BYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        // a footer larger than the whole cache is never retained
+        FileStatus fileStatus = fileStatus("/test/file.orc", 100, 1);
+        cache.getOrcFileTail(fileStatus, () -> createFileTail(loads, 100));
+        cache.getOrcFileTail(fileStatus, () -> createFileTail(loads, 100));
+
+        assertEquals(loads.get(), 2);
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getEvictionCount(), 2);
+    }
+
+    @Test
+    public void testWeighedByRetainedSize()
+            throws Exception
+    {
+        OrcFileTail narrow = createFileTail(new AtomicInteger(), 1);
+        OrcFileTail wide = createFileTail(new AtomicInteger(), 100);
+        assertTrue(wide.getRetainedSizeInBytes() > 10 * narrow.getRetainedSizeInBytes());
+
+        // room for a few wide footers, but not for ten
+        FileFooterCache cache = new FileFooterCache(true, new DataSize(4 * wide.getRetainedSizeInBytes(), BYTE));
+        AtomicInteger loads = new AtomicInteger();
+        for (int file = 0; file < 10; file++) {
+            cache.getOrcFileTail(fileStatus("/test/file" + file + ".orc", 100, 1), () -> createFileTail(loads, 100));
+        }
+        assertEquals(loads.get(), 10);
+        assertTrue(cache.getSize() <= 4);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        FileFooterCache cache = FileFooterCache.disabledFileFooterCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        FileStatus fileStatus = fileStatus("/test/file.orc", 100, 1);
+        cache.getOrcFileTail(fileStatus, () -> createFileTail(loads, 1));
+        cache.getOrcFileTail(fileStatus, () -> createFileTail(loads, 1));
+
+        assertEquals(loads.get(), 2);
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testLoaderFailureIsNotCached()
+            throws Exception
+    {
+        FileFooterCache cache = new FileFooterCache(true, new DataSize(1, MEGABYTE));
+        FileStatus fileStatus = fileStatus("/test/file.orc", 100, 1);
+
+        try {
+            cache.getOrcFileTail(fileStatus, () -> {
+                throw new IOException("read failed");
+            });
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals(e.getMessage(), "read failed");
+        }
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrcFileTail(fileStatus, () -> createFileTail(loads, 1));
+        assertEquals(loads.get(), 1);
+    }
+
+    private static FileStatus fileStatus(String path, long length, long modificationTime)
+    {
+        return new FileStatus(length, false, 1, 64 * 1024 * 1024, modificationTime, new Path(path));
+    }
+
+    private static OrcFileTail createFileTail(AtomicInteger loads, int columns)
+    {
+        loads.incrementAndGet();
+        ImmutableList.Builder<OrcType> types = ImmutableList.builder();
+        ImmutableList.Builder<ColumnStatistics> statistics = ImmutableList.builder();
+        for (int column = 0; column < columns; column++) {
+            types.add(new OrcType(LONG, ImmutableList.of(), ImmutableList.of(), Optional.empty(), Optional.empty()));
+            statistics.add(new ColumnStatistics(10L, null, new IntegerStatistics(1L, 10L), null, null, null, null, null));
+        }
+        Footer footer = new Footer(0, 10_000, ImmutableList.of(), types.build(), statistics.build(), ImmutableMap.of());
+        // the serialized size is deliberately tiny, entries must be weighed by their decoded size
+        return new OrcFileTail(ORIGINAL, 256 * 1024, UNCOMPRESSED, footer, new Metadata(ImmutableList.of()), 1);
+    }
+}
@@ -90,7 +90,22 @@ public class TestHiveClientConfig
                 .setWritesToNonManagedTablesEnabled(false)
                 .setCreateNonManagedTableEnabled(true)
                 .setMultiFileBucketingEnabled(false)
-                .setEmptyBucketedPartitionsEnabled(false));
+                .setEmptyBucketedPartitionsEnabled(false)
+                .setFileFooterCacheEnabled(false)
+                .setFileFooterCacheMaxSize(new DataSize(64, Unit.MEGABYTE))
+                .setDataCacheEnabled(false)
+                .setDataCacheBaseDirectory(null)
+                .setDataCacheMaxSize(new DataSize(10, Unit.GIGABYTE))
+                .setDataCacheChunkSize(new DataSize(1, Unit.MEGABYTE))
+                .setOrcIoThreads(0)
+                .setOrcMaxInFlightReadSize(new DataSize(32, Unit.MEGABYTE))
+                .setSplitLoaderConcurrency(100)
+                .setFileStatusCacheTables("")
+                .setFileStatusCacheExpireAfterWrite(new Duration(1, TimeUnit.MINUTES))
+                .setFileStatusCacheMaxSize(1_000_000)
+                .setMetastorePartitionLoadBatchSize(100)
+                .setMetastoreCacheEventLog(null)
+                .setMetastoreCacheEventPollInterval(new Duration(10, TimeUnit.SECONDS)));
     }
 
     @Test
@@ -152,6 +167,21 @@ public class TestHiveClientConfig
                 .put("hive.create-non-managed-table-enabled", "false")
                 .put("hive.multi-file-bucketing.enabled", "true")
                 .put("hive.empty-bucketed-partitions.enabled", "true")
+                .put("hive.file-footer-cache.enabled", "true")
+                .put("hive.file-footer-cache.max-size", "16MB")
+                .put("hive.data-cache.enabled", "true")
+                .put("hive.data-cache.base-directory", "/tmp/cache")
+                .put("hive.data-cache.max-size", "100GB")
+                .put("hive.data-cache.chunk-size", "4MB")
+                .put("hive.orc.io-threads", "8")
+                .put("hive.orc.max-in-flight-read-size", "64MB")
+                .put("hive.split-loader-concurrency", "32")
+                .put("hive.file-status-cache-tables", "foo.bar1, foo.bar2")
+                .put("hive.file-status-cache-expire-time", "30m")
+                .put("hive.file-status-cache-size", "1000")
+                .put("hive.metastore-partition-load-batch-size", "500")
+                .put("hive.metastore-cache-event-log", "/tmp/metastore-events.log")
+                .put("hive.metastore-cache-event-poll-interval", "1s")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -209,7 +239,22 @@ public class TestHiveClientConfig
                 .setWritesToNonManagedTablesEnabled(true)
                 .setCreateNonManagedTableEnabled(false)
                 .setMultiFileBucketingEnabled(true)
-                .setEmptyBucketedPartitionsEnabled(true);
+                .setEmptyBucketedPartitionsEnabled(true)
+                .setFileFooterCacheEnabled(true)
+                .setFileFooterCacheMaxSize(new DataSize(16, Unit.MEGABYTE))
+                .setDataCacheEnabled(true)
+                .setDataCacheBaseDirectory("/tmp/cache")
+                .setDataCacheMaxSize(new DataSize(100, Unit.GIGABYTE))
+                .setDataCacheChunkSize(new DataSize(4, Unit.MEGABYTE))
+                .setOrcIoThreads(8)
+                .setOrcMaxInFlightReadSize(new DataSize(64, Unit.MEGABYTE))
+                .setSplitLoaderConcurrency(32)
+                .setFileStatusCacheTables(ImmutableList.of("foo.bar1", "foo.bar2"))
+                .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES))
+                .setFileStatusCacheMaxSize(1000)
+                .setMetastorePartitionLoadBatchSize(500)
+                .setMetastoreCacheEventLog("/tmp/metastore-events.log")
+                .setMetastoreCacheEventPollInterval(new Duration(1, TimeUnit.SECONDS));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static com.facebook.presto.hive.cache.LocalFileDataCache.disabledLocalFileDataCache;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalFileDataCache
+{
+    private static final int CHUNK_SIZE = 4 * 1024;
+
+    private File tempDirectory;
+    private FileSystem fileSystem;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = createTempDir();
+        fileSystem = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+    {
+        deleteRecursively(tempDirectory);
+    }
+
+    @Test
+    public void testReadThroughCache()
+            throws Exception
+    {
+        LocalFileDataCache cache = createCache(new DataSize(1, MEGABYTE));
+        byte[] data = createData(10_000, 1);
+        FileStatus fileStatus = writeFile("data", data);
+
+        // the first read spans two chunks and loads both from the file system
+        assertRead(cache, fileStatus, data, 1_000, 5_000);
+        assertEquals(cache.getMisses().getTotalCount(), 2);
+        assertEquals(cache.getHits().getTotalCount(), 0);
+        assertEquals(cache.getBytesReadFromRemote().getTotalCount(), 2 * CHUNK_SIZE);
+        assertEquals(cache.getCachedChunks(), 2);
+
+        // the second read is served from the cache
+        assertRead(cache, fileStatus, data, 4_500, 3_000);
+        assertEquals(cache.getMisses().getTotalCount(), 2);
+        assertEquals(cache.getHits().getTotalCount(), 1);
+        assertEquals(cache.getBytesReadFromCache().getTotalCount(), 3_000);
+
+        // the last chunk is shorter than the chunk size
+        assertRead(cache, fileStatus, data, 9_000, 1_000);
+        assertEquals(cache.getBytesReadFromRemote().getTotalCount(), 2 * CHUNK_SIZE + (10_000 - 2 * CHUNK_SIZE));
+        assertEquals(cache.getCachedChunks(), 3);
+    }
+
+    @Test
+    public void testMissingRangeIsReadOnce()
+            throws Exception
+    {
+        LocalFileDataCache cache = createCache(new DataSize(1, MEGABYTE));
+        byte[] data = createData(4 * CHUNK_SIZE, 6);
+        FileStatus fileStatus = writeFile("data", data);
+
+        assertRead(cache, fileStatus, data, CHUNK_SIZE, CHUNK_SIZE);
+        assertEquals(cache.getBytesReadFromRemote().getTotalCount(), CHUNK_SIZE);
+
+        // the first and last chunks are missing, so everything between them is read with them
+        assertRead(cache, fileStatus, data, 100, data.length - 200);
+        assertEquals(cache.getMisses().getTotalCount(), 1 + 4);
+        assertEquals(cache.getBytesReadFromRemote().getTotalCount(), CHUNK_SIZE + data.length);
+        assertEquals(cache.getCachedChunks(), 4);
+
+        // a read with cached chunks at both ends only reads the missing middle
+        cache.flushCache();
+        assertRead(cache, fileStatus, data, 0, CHUNK_SIZE);
+        assertRead(cache, fileStatus, data, 3 * CHUNK_SIZE, CHUNK_SIZE);
+        long remoteBytes = cache.getBytesReadFromRemote().getTotalCount();
+        assertRead(cache, fileStatus, data, 10, data.length - 20);
+        assertEquals(cache.getBytesReadFromRemote().getTotalCount(), remoteBytes + 2 * CHUNK_SIZE);
+    }
+
+    @Test
+    public void testDirectoryCreatedOnFirstRead()
+            throws Exception
+    {
+        File directory = new File(tempDirectory, "cache");
+        LocalFileDataCache cache = createCache(new DataSize(1, MEGABYTE));
+        assertFalse(directory.exists());
+
+        byte[] data = createData(100, 7);
+        assertRead(cache, writeFile("data", data), data, 0, data.length);
+        assertTrue(directory.isDirectory());
+    }
+
+    @Test
+    public void testModifiedFileIsNotServedFromCache()
+            throws Exception
+    {
+        LocalFileDataCache cache = createCache(new DataSize(1, MEGABYTE));
+        FileStatus original = writeFile("data", createData(1_000, 1));
+        assertRead(cache, original, createData(1_000, 1), 0, 1_000);
+
+        byte[] data = createData(2_000, 2);
+        FileStatus modified = writeFile("data", data);
+        assertRead(cache, modified, data, 0, 2_000);
+
+        assertEquals(cache.getMisses().getTotalCount(), 2);
+        assertEquals(cache.getHits().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testEviction()
+            throws Exception
+    {
+        // a chunk larger than the whole cache is never retained
+        LocalFileDataCache cache = createCache(new DataSize(CHUNK_SIZE / 2, BYTE));
+        byte[] data = createData(4 * CHUNK_SIZE, 3);
+        FileStatus fileStatus = writeFile("data", data);
+
+        assertRead(cache, fileStatus, data, 0, data.length);
+        assertEquals(cache.getCachedChunks(), 0);
+        assertEquals(listChunkFiles().length, 0);
+    }
+
+    @Test
+    public void testFlushCache()
+            throws Exception
+    {
+        LocalFileDataCache cache = createCache(new DataSize(1, MEGABYTE));
+        byte[] data = createData(4 * CHUNK_SIZE, 4);
+        FileStatus fileStatus = writeFile("data", data);
+
+        assertRead(cache, fileStatus, data, 0, data.length);
+        assertEquals(cache.getCachedChunks(), 4);
+        assertEquals(listChunkFiles().length, 4);
+
+        cache.flushCache();
+        assertEquals(cache.getCachedChunks(), 0);
+        assertEquals(listChunkFiles().length, 0);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        LocalFileDataCache cache = disabledLocalFileDataCache();
+        FileStatus fileStatus = writeFile("data", createData(100, 5));
+        FSDataInputStream inputStream = fileSystem.open(fileStatus.getPath());
+        assertSame(cache.wrap(fileStatus, inputStream), inputStream);
+        inputStream.close();
+    }
+
+    private LocalFileDataCache createCache(DataSize maxSize)
+    {
+        // write chunks on the reading thread, so the tests can check the cache right after a read
+        return new LocalFileDataCache(true, new File(tempDirectory, "cache").getPath(), maxSize, new DataSize(CHUNK_SIZE / 1024, KILOBYTE), newDirectExecutorService());
+    }
+
+    private File[] listChunkFiles()
+    {
+        return new File(tempDirectory, "cache").listFiles((directory, name) -> name.endsWith(".chunk"));
+    }
+
+    private FileStatus writeFile(String name, byte[] data)
+            throws IOException
+    {
+        File file = new File(tempDirectory, name);
+        Files.write(file.toPath(), data);
+        return fileSystem.getFileStatus(new Path(file.toURI()));
+    }
+
+    private void assertRead(LocalFileDataCache cache, FileStatus fileStatus, byte[] data, int position, int length)
+            throws IOException
+    {
+        try (FSDataInputStream inputStream = cache.wrap(fileStatus, fileSystem.open(fileStatus.getPath()))) {
+            byte[] buffer = new byte[length];
+            inputStream.readFully(position, buffer);
+            assertEquals(buffer, Arrays.copyOfRange(data, position, position + length));
+        }
+    }
+
+    private static byte[] createData(int length, int seed)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+}
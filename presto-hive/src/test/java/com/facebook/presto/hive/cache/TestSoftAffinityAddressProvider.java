@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.testing.TestingNodeManager;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestSoftAffinityAddressProvider
+{
+    private static final List<HostAddress> NO_ADDRESSES = ImmutableList.of();
+
+    @Test
+    public void testStableAssignment()
+    {
+        TestingNodeManager nodeManager = new TestingNodeManager(ImmutableList.of(node(1), node(2), node(3)));
+        SoftAffinityAddressProvider provider = new SoftAffinityAddressProvider(true, nodeManager);
+
+        HostAddress address = getOnlyElement(provider.getAddresses("s3://bucket/file1", NO_ADDRESSES));
+        assertEquals(provider.getAddresses("s3://bucket/file1", NO_ADDRESSES), ImmutableList.of(address));
+        assertEquals(provider.getAddresses("s3://bucket/file1", ImmutableList.of(HostAddress.fromString("localhost"))), ImmutableList.of(address));
+    }
+
+    @Test
+    public void testNodeChangesOnlyMoveAffectedFiles()
+    {
+        TestingNodeManager nodeManager = new TestingNodeManager(ImmutableList.of(node(1), node(2), node(3)));
+        SoftAffinityAddressProvider provider = new SoftAffinityAddressProvider(true, nodeManager);
+
+        int files = 100;
+        List<HostAddress> before = assignFiles(provider, files);
+        Node added = node(4);
+        nodeManager.addNode(added);
+        List<HostAddress> after = assignFiles(provider, files);
+
+        int moved = 0;
+        for (int i = 0; i < files; i++) {
+            if (!before.get(i).equals(after.get(i))) {
+                assertEquals(after.get(i), added.getHostAndPort());
+                moved++;
+            }
+        }
+        assertNotEquals(moved, 0);
+        assertNotEquals(moved, files);
+    }
+
+    @Test
+    public void testRealAddressesAreKept()
+    {
+        SoftAffinityAddressProvider provider = new SoftAffinityAddressProvider(true, new TestingNodeManager(ImmutableList.of(node(1), node(2))));
+        List<HostAddress> addresses = ImmutableList.of(HostAddress.fromString("datanode1:50010"));
+        assertSame(provider.getAddresses("hdfs://namenode/file", addresses), addresses);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        SoftAffinityAddressProvider provider = new SoftAffinityAddressProvider(false, new TestingNodeManager(ImmutableList.of(node(1), node(2))));
+        assertSame(provider.getAddresses("s3://bucket/file", NO_ADDRESSES), NO_ADDRESSES);
+    }
+
+    private static List<HostAddress> assignFiles(SoftAffinityAddressProvider provider, int files)
+    {
+        ImmutableList.Builder<HostAddress> addresses = ImmutableList.builder();
+        for (int i = 0; i < files; i++) {
+            addresses.add(getOnlyElement(provider.getAddresses("s3://bucket/file" + i, NO_ADDRESSES)));
+        }
+        return addresses.build();
+    }
+
+    private static Node node(int id)
+    {
+        return new TestingNode("node" + id, URI.create("http://10.0.0." + id + ":8080"));
+    }
+
+    private static class TestingNode
+            implements Node
+    {
+        private final String nodeIdentifier;
+        private final URI httpUri;
+
+        public TestingNode(String nodeIdentifier, URI httpUri)
+        {
+            this.nodeIdentifier = nodeIdentifier;
+            this.httpUri = httpUri;
+        }
+
+        @Override
+        public HostAddress getHostAndPort()
+        {
+            return HostAddress.fromUri(httpUri);
+        }
+
+        @Override
+        public URI getHttpUri()
+        {
+            return httpUri;
+        }
+
+        @Override
+        public String getNodeIdentifier()
+        {
+            return nodeIdentifier;
+        }
+
+        @Override
+        public String getVersion()
+        {
+            return "test";
+        }
+
+        @Override
+        public boolean isCoordinator()
+        {
+            return false;
+        }
+    }
+}
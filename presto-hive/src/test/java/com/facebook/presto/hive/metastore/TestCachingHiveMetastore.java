@@ -15,6 +15,7 @@ package com.facebook.presto.hive.metastore;
 
 import com.facebook.presto.hive.HiveCluster;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.units.Duration;
@@ -37,6 +38,7 @@ import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestCachingHiveMetastore
@@ -58,7 +60,8 @@ public class TestCachingHiveMetastore
                 executor,
                 new Duration(5, TimeUnit.MINUTES),
                 new Duration(1, TimeUnit.MINUTES),
-                1000);
+                1000,
+                100);
         stats = thriftHiveMetastore.getStats();
     }
 
@@ -205,6 +208,79 @@ public class TestCachingHiveMetastore
         assertEquals(mockClient.getAccessCount(), 4);
     }
 
+    @Test
+    public void testGetPartitionsByNamesInBatches()
+            throws Exception
+    {
+        ListeningExecutorService executor = listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-%s")));
+        CachingHiveMetastore batchingMetastore = new CachingHiveMetastore(
+                new BridgingHiveMetastore(new ThriftHiveMetastore(new MockHiveCluster(mockClient))),
+                executor,
+                new Duration(5, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                1000,
+                1);
+        try {
+            Map<String, Optional<Partition>> partitions = batchingMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2));
+            assertEquals(partitions.keySet(), ImmutableSet.of(TEST_PARTITION1, TEST_PARTITION2));
+            assertTrue(partitions.values().stream().allMatch(Optional::isPresent));
+            // one metastore call per batch
+            assertEquals(mockClient.getAccessCount(), 2);
+
+            batchingMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2));
+            assertEquals(mockClient.getAccessCount(), 2);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidateTable()
+            throws Exception
+    {
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionNames(TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        metastore.invalidate(MetastoreEvent.tableChanged(TEST_DATABASE, TEST_TABLE));
+
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionNames(TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 4);
+    }
+
+    @Test
+    public void testInvalidatePartition()
+            throws Exception
+    {
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2));
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        metastore.invalidate(MetastoreEvent.partitionChanged(TEST_DATABASE, TEST_TABLE, TEST_PARTITION1));
+
+        // only the changed partition is reloaded, the table stays cached
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2));
+        assertEquals(mockClient.getAccessCount(), 3);
+    }
+
+    @Test
+    public void testInvalidateDatabase()
+            throws Exception
+    {
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getAllTables(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        metastore.invalidate(MetastoreEvent.databaseChanged(TEST_DATABASE));
+
+        metastore.getTable(TEST_DATABASE, TEST_TABLE);
+        metastore.getAllTables(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 4);
+    }
+
     @Test
     public void testListRoles()
             throws Exception
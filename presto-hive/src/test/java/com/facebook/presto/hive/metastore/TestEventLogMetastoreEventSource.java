@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static com.facebook.presto.hive.metastore.MetastoreEvent.databaseChanged;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.partitionChanged;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.tableChanged;
+import static com.google.common.io.Files.append;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.Files.write;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestEventLogMetastoreEventSource
+{
+    private File tempDir;
+    private File eventLog;
+
+    @BeforeMethod
+    public void setUp()
+            throws Exception
+    {
+        tempDir = createTempDir();
+        eventLog = new File(tempDir, "events.log");
+        write("{\"databaseName\":\"old\"}\n", eventLog, UTF_8);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+    {
+        deleteRecursively(tempDir);
+    }
+
+    @Test
+    public void testPoll()
+            throws Exception
+    {
+        EventLogMetastoreEventSource source = new EventLogMetastoreEventSource(eventLog);
+
+        // events written before the source was created are skipped
+        assertEquals(source.poll(), ImmutableList.of());
+
+        append("{\"databaseName\":\"db\"}\n", eventLog, UTF_8);
+        append("{\"databaseName\":\"db\",\"tableName\":\"t\"}\n", eventLog, UTF_8);
+        append("{\"databaseName\":\"db\",\"tableName\":\"t\",\"partitionName\":\"ds=2017-01-01\"}\n", eventLog, UTF_8);
+        assertEquals(source.poll(), ImmutableList.of(
+                databaseChanged("db"),
+                tableChanged("db", "t"),
+                partitionChanged("db", "t", "ds=2017-01-01")));
+        assertEquals(source.poll(), ImmutableList.of());
+    }
+
+    @Test
+    public void testIncompleteLine()
+            throws Exception
+    {
+        EventLogMetastoreEventSource source = new EventLogMetastoreEventSource(eventLog);
+
+        append("{\"databaseName\":\"db\",", eventLog, UTF_8);
+        assertEquals(source.poll(), ImmutableList.of());
+
+        append("\"tableName\":\"t\"}\n", eventLog, UTF_8);
+        assertEquals(source.poll(), ImmutableList.of(tableChanged("db", "t")));
+    }
+
+    @Test
+    public void testInvalidEventIsSkipped()
+            throws Exception
+    {
+        EventLogMetastoreEventSource source = new EventLogMetastoreEventSource(eventLog);
+
+        append("not json\n", eventLog, UTF_8);
+        append("{\"databaseName\":\"db\"}\n", eventLog, UTF_8);
+        assertEquals(source.poll(), ImmutableList.of(databaseChanged("db")));
+    }
+
+    @Test
+    public void testTruncatedLog()
+            throws Exception
+    {
+        EventLogMetastoreEventSource source = new EventLogMetastoreEventSource(eventLog);
+
+        write("{\"databaseName\":\"x\"}\n", eventLog, UTF_8);
+        assertEquals(source.poll(), ImmutableList.of(databaseChanged("x")));
+    }
+}
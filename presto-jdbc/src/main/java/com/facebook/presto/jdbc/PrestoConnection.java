@@ -70,6 +70,8 @@ public class PrestoConnection
     private final URI jdbcUri;
     private final URI httpUri;
     private final String user;
+    private final boolean binaryResults;
+    private final boolean directResults;
     private final Map<String, String> clientInfo = new ConcurrentHashMap<>();
     private final Map<String, String> sessionProperties = new ConcurrentHashMap<>();
     private final Map<String, SelectedRole> roles = new ConcurrentHashMap<>();
@@ -85,6 +87,8 @@ public class PrestoConnection
         this.schema.set(uri.getSchema());
         this.catalog.set(uri.getCatalog());
         this.user = uri.getUser();
+        this.binaryResults = uri.isBinaryResults();
+        this.directResults = uri.isDirectResults();
 
         this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
 
@@ -621,7 +625,9 @@ public class PrestoConnection
                 transactionId.get(),
                 false,
                 false,
-                new Duration(2, MINUTES));
+                new Duration(2, MINUTES),
+                binaryResults,
+                directResults);
 
         return queryExecutor.startQuery(session, sql);
     }
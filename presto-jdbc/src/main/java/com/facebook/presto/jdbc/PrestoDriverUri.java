@@ -36,6 +36,8 @@ import static com.facebook.presto.client.OkHttpUtil.setupHttpProxy;
 import static com.facebook.presto.client.OkHttpUtil.setupKerberos;
 import static com.facebook.presto.client.OkHttpUtil.setupSocksProxy;
 import static com.facebook.presto.client.OkHttpUtil.setupSsl;
+import static com.facebook.presto.jdbc.ConnectionProperties.BINARY_RESULTS;
+import static com.facebook.presto.jdbc.ConnectionProperties.DIRECT_RESULTS;
 import static com.facebook.presto.jdbc.ConnectionProperties.HTTP_PROXY;
 import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_CONFIG_PATH;
 import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_CREDENTIAL_CACHE_PATH;
@@ -119,6 +121,18 @@ final class PrestoDriverUri
         return USER.getRequiredValue(properties);
     }
 
+    public boolean isBinaryResults()
+            throws SQLException
+    {
+        return BINARY_RESULTS.getRequiredValue(properties);
+    }
+
+    public boolean isDirectResults()
+            throws SQLException
+    {
+        return DIRECT_RESULTS.getRequiredValue(properties);
+    }
+
     public Properties getProperties()
     {
         return properties;
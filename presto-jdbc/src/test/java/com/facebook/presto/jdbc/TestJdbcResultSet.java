@@ -14,6 +14,9 @@
 package com.facebook.presto.jdbc;
 
 import com.facebook.presto.server.testing.TestingPrestoServer;
+import com.facebook.presto.sql.parser.SqlParserOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logging;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -30,6 +33,7 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.Map;
 
 import static com.facebook.presto.jdbc.TestPrestoDriver.closeQuietly;
 import static java.lang.String.format;
@@ -51,7 +55,7 @@ public class TestJdbcResultSet
             throws Exception
     {
         Logging.initialize();
-        server = new TestingPrestoServer();
+        server = new TestingPrestoServer(true, getServerProperties(), null, null, new SqlParserOptions(), ImmutableList.of());
     }
 
     @AfterClass
@@ -245,10 +249,20 @@ public class TestJdbcResultSet
         statement.execute("RESET SESSION hash_partition_count");
     }
 
+    protected Map<String, String> getServerProperties()
+    {
+        return ImmutableMap.of();
+    }
+
+    protected String getConnectionParameters()
+    {
+        return "";
+    }
+
     private Connection createConnection()
             throws SQLException
     {
-        String url = format("jdbc:presto://%s", server.getAddress());
+        String url = format("jdbc:presto://%s%s", server.getAddress(), getConnectionParameters());
         return DriverManager.getConnection(url, "test", null);
     }
 
@@ -25,8 +25,10 @@ import static com.facebook.presto.jdbc.ConnectionProperties.SSL_TRUST_STORE_PASS
 import static com.facebook.presto.jdbc.ConnectionProperties.SSL_TRUST_STORE_PATH;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 public class TestPrestoDriverUri
@@ -82,6 +84,12 @@ public class TestPrestoDriverUri
 
         // kerberos config without service name
         assertInvalid("jdbc:presto://localhost:8080?KerberosCredentialCachePath=/test", "Connection property 'KerberosCredentialCachePath' is not allowed");
+
+        // invalid binary results
+        assertInvalid("jdbc:presto://localhost:8080?binaryResults=abc", "Connection property 'binaryResults' value is invalid: abc");
+
+        // invalid direct results
+        assertInvalid("jdbc:presto://localhost:8080?directResults=abc", "Connection property 'directResults' value is invalid: abc");
     }
 
     @Test(expectedExceptions = SQLException.class, expectedExceptionsMessageRegExp = "Connection property 'user' is required")
@@ -149,6 +157,22 @@ public class TestPrestoDriverUri
         assertNull(properties.getProperty(SSL_TRUST_STORE_PASSWORD.getKey()));
     }
 
+    @Test
+    public void testBinaryResults()
+            throws SQLException
+    {
+        assertFalse(createDriverUri("presto://localhost:8080/blackhole").isBinaryResults());
+        assertTrue(createDriverUri("presto://localhost:8080/blackhole?binaryResults=true").isBinaryResults());
+    }
+
+    @Test
+    public void testDirectResults()
+            throws SQLException
+    {
+        assertFalse(createDriverUri("presto://localhost:8080/blackhole").isDirectResults());
+        assertTrue(createDriverUri("presto://localhost:8080/blackhole?directResults=true").isDirectResults());
+    }
+
     @Test
     public void testUriWithSslEnabledPathOnly()
             throws SQLException
@@ -29,9 +29,11 @@ import io.airlift.units.Duration;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.stream.Stream;
 
 import static com.facebook.presto.spi.session.PropertyMetadata.booleanSessionProperty;
+import static com.facebook.presto.spi.session.PropertyMetadata.doubleSessionProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.integerSessionProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.stringSessionProperty;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
@@ -65,6 +67,11 @@ public final class SystemSessionProperties
     public static final String JOIN_REORDERING_STRATEGY = "join_reordering_strategy";
     public static final String INITIAL_SPLITS_PER_NODE = "initial_splits_per_node";
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
+    public static final String ADAPTIVE_SPLIT_CONCURRENCY = "adaptive_split_concurrency";
+    public static final String MAX_SPLITS_PER_NODE = "max_splits_per_node";
+    public static final String SPECULATIVE_EXECUTION_ENABLED = "speculative_execution_enabled";
+    public static final String SPECULATION_QUANTILE = "speculation_quantile";
+    public static final String SPECULATION_MULTIPLIER = "speculation_multiplier";
     public static final String OPTIMIZE_METADATA_QUERIES = "optimize_metadata_queries";
     public static final String FAST_INEQUALITY_JOINS = "fast_inequality_joins";
     public static final String QUERY_PRIORITY = "query_priority";
@@ -85,6 +92,8 @@ public final class SystemSessionProperties
     public static final String REDISTRIBUTE_SORT = "redistribute_sort";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE = "filter_and_project_min_output_page_size";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT = "filter_and_project_min_output_page_row_count";
+    public static final String RESULT_CACHE_ENABLED = "result_cache_enabled";
+    public static final String STREAMING_PARTIAL_AGGREGATION = "streaming_partial_aggregation";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -242,6 +251,31 @@ public final class SystemSessionProperties
                         false,
                         value -> Duration.valueOf((String) value),
                         Duration::toString),
+                booleanSessionProperty(
+                        ADAPTIVE_SPLIT_CONCURRENCY,
+                        "Experimental: Adjust the number of concurrent splits per node using the CPU and wall time of the splits",
+                        taskManagerConfig.isAdaptiveSplitConcurrency(),
+                        false),
+                integerSessionProperty(
+                        MAX_SPLITS_PER_NODE,
+                        "Experimental: Maximum number of splits each node will run per task when adaptive split concurrency is enabled",
+                        taskManagerConfig.getMaxSplitsPerNode(),
+                        false),
+                booleanSessionProperty(
+                        SPECULATIVE_EXECUTION_ENABLED,
+                        "Experimental: Run a second copy of straggling leaf splits on another node",
+                        queryManagerConfig.isSpeculativeExecutionEnabled(),
+                        false),
+                doubleSessionProperty(
+                        SPECULATION_QUANTILE,
+                        "Experimental: Fraction of the splits of a stage that must finish before stragglers are executed speculatively",
+                        queryManagerConfig.getSpeculationQuantile(),
+                        false),
+                doubleSessionProperty(
+                        SPECULATION_MULTIPLIER,
+                        "Experimental: How many times slower than the median split a split must be to be executed speculatively",
+                        queryManagerConfig.getSpeculationMultiplier(),
+                        false),
                 booleanSessionProperty(
                         OPTIMIZE_METADATA_QUERIES,
                         "Enable optimization for metadata queries",
@@ -387,6 +421,16 @@ public final class SystemSessionProperties
                         FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT,
                         "Experimental: Minimum output page row count for filter and project operators",
                         featuresConfig.getFilterAndProjectMinOutputPageRowCount(),
+                        false),
+                booleanSessionProperty(
+                        RESULT_CACHE_ENABLED,
+                        "Serve deterministic queries over unchanged data from the coordinator result cache",
+                        false,
+                        false),
+                booleanSessionProperty(
+                        STREAMING_PARTIAL_AGGREGATION,
+                        "Use a streaming partial aggregation when each split is sorted on the grouping keys",
+                        featuresConfig.isStreamingPartialAggregation(),
                         false));
     }
 
@@ -507,6 +551,29 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL, Duration.class);
     }
 
+    public static OptionalInt getMaxSplitsPerNode(Session session)
+    {
+        if (!session.getSystemProperty(ADAPTIVE_SPLIT_CONCURRENCY, Boolean.class)) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(session.getSystemProperty(MAX_SPLITS_PER_NODE, Integer.class));
+    }
+
+    public static boolean isSpeculativeExecutionEnabled(Session session)
+    {
+        return session.getSystemProperty(SPECULATIVE_EXECUTION_ENABLED, Boolean.class);
+    }
+
+    public static double getSpeculationQuantile(Session session)
+    {
+        return session.getSystemProperty(SPECULATION_QUANTILE, Double.class);
+    }
+
+    public static double getSpeculationMultiplier(Session session)
+    {
+        return session.getSystemProperty(SPECULATION_MULTIPLIER, Double.class);
+    }
+
     public static Duration getQueryMaxCpuTime(Session session)
     {
         return session.getSystemProperty(QUERY_MAX_CPU_TIME, Duration.class);
@@ -604,4 +671,14 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT, Integer.class);
     }
+
+    public static boolean isResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(RESULT_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isStreamingPartialAggregation(Session session)
+    {
+        return session.getSystemProperty(STREAMING_PARTIAL_AGGREGATION, Boolean.class);
+    }
 }
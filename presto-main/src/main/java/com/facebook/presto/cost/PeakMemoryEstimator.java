@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.metadata.InternalNodeManager;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.function.IntSupplier;
+
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.PARTIAL;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimates the peak memory of a query from the statistics of its plan. Only the operators that keep
+ * their input in memory are considered: the build sides of hash joins and semi joins, and the groups
+ * of grouped aggregations. As the stages of a query run at the same time, they are all assumed to
+ * hold their memory at the same time.
+ */
+@ThreadSafe
+public class PeakMemoryEstimator
+{
+    private final IntSupplier numberOfNodes;
+
+    @Inject
+    public PeakMemoryEstimator(InternalNodeManager nodeManager)
+    {
+        this(() -> nodeManager.getAllNodes().getActiveNodes().size());
+    }
+
+    public PeakMemoryEstimator(IntSupplier numberOfNodes)
+    {
+        this.numberOfNodes = requireNonNull(numberOfNodes, "numberOfNodes is null");
+    }
+
+    /**
+     * Returns the estimated peak memory of the plan in bytes, summed over all nodes.
+     * Unknown value is represented by {@link Double#NaN}
+     */
+    public double estimatePeakMemory(Plan plan)
+    {
+        int nodes = numberOfNodes.getAsInt();
+        double peakMemory = 0;
+        for (PlanNode node : searchFrom(plan.getRoot()).findAll()) {
+            peakMemory += estimateMemory(node, plan, nodes);
+        }
+        return peakMemory;
+    }
+
+    private static double estimateMemory(PlanNode node, Plan plan, int nodes)
+    {
+        if (node instanceof JoinNode) {
+            JoinNode join = (JoinNode) node;
+            boolean replicated = join.getDistributionType().orElse(JoinNode.DistributionType.PARTITIONED) == JoinNode.DistributionType.REPLICATED;
+            return plan.getStats(join.getRight()).getOutputSizeInBytes() * (replicated ? nodes : 1);
+        }
+        if (node instanceof SemiJoinNode) {
+            SemiJoinNode semiJoin = (SemiJoinNode) node;
+            boolean replicated = semiJoin.getDistributionType().orElse(SemiJoinNode.DistributionType.PARTITIONED) == SemiJoinNode.DistributionType.REPLICATED;
+            return plan.getStats(semiJoin.getFilteringSource()).getOutputSizeInBytes() * (replicated ? nodes : 1);
+        }
+        if (node instanceof AggregationNode) {
+            AggregationNode aggregation = (AggregationNode) node;
+            // partial aggregations flush their groups when they run out of memory
+            if (aggregation.getStep() != PARTIAL && !aggregation.getGroupingKeys().isEmpty()) {
+                return plan.getStats(aggregation).getOutputSizeInBytes();
+            }
+        }
+        return 0;
+    }
+}
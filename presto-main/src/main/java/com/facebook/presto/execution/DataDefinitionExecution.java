@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.metadata.Metadata;
@@ -155,6 +156,12 @@ public class DataDefinitionExecution<T extends Statement>
         stateMachine.addQueryInfoStateChangeListener(stateChangeListener);
     }
 
+    @Override
+    public void addMemoryAdmissionStateChangeListener(StateChangeListener<Boolean> stateChangeListener)
+    {
+        stateMachine.addMemoryAdmissionStateChangeListener(stateChangeListener);
+    }
+
     @Override
     public void fail(Throwable cause)
     {
@@ -179,6 +186,12 @@ public class DataDefinitionExecution<T extends Statement>
         stateMachine.recordHeartbeat();
     }
 
+    @Override
+    public void recordSavedParsingTime(Duration parsingTime)
+    {
+        stateMachine.recordSavedParsingTime(parsingTime);
+    }
+
     @Override
     public void pruneInfo()
     {
@@ -207,6 +220,24 @@ public class DataDefinitionExecution<T extends Statement>
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Optional<PlanNodeCostEstimate> getEstimatedCost()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isWaitingForMemoryAdmission()
+    {
+        return stateMachine.isWaitingForMemoryAdmission();
+    }
+
+    @Override
+    public Duration getMemoryAdmissionTime()
+    {
+        return stateMachine.getMemoryAdmissionTime();
+    }
+
     @Override
     public QueryState getState()
     {
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.metadata.Metadata;
@@ -73,6 +74,24 @@ public class FailedQueryExecution
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Optional<PlanNodeCostEstimate> getEstimatedCost()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isWaitingForMemoryAdmission()
+    {
+        return false;
+    }
+
+    @Override
+    public Duration getMemoryAdmissionTime()
+    {
+        return new Duration(0, TimeUnit.SECONDS);
+    }
+
     @Override
     public VersionedMemoryPoolId getMemoryPool()
     {
@@ -128,6 +147,12 @@ public class FailedQueryExecution
         executor.execute(() -> stateChangeListener.stateChanged(queryInfo));
     }
 
+    @Override
+    public void addMemoryAdmissionStateChangeListener(StateChangeListener<Boolean> stateChangeListener)
+    {
+        // no-op
+    }
+
     @Override
     public void fail(Throwable cause)
     {
@@ -152,6 +177,12 @@ public class FailedQueryExecution
         // no-op
     }
 
+    @Override
+    public void recordSavedParsingTime(Duration parsingTime)
+    {
+        // no-op
+    }
+
     @Override
     public void pruneInfo()
     {
@@ -20,6 +20,7 @@ import com.facebook.presto.memory.QueryContext;
 import com.facebook.presto.memory.TraversingQueryContextVisitor;
 import com.facebook.presto.memory.VoidTraversingQueryContextVisitor;
 import com.facebook.presto.operator.OperatorContext;
+import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -33,6 +34,7 @@ import javax.inject.Inject;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -169,6 +171,33 @@ public class MemoryRevokingScheduler
         }
     }
 
+    /**
+     * Requests revoking of all revocable memory held by the given queries, regardless
+     * of the local pool state. Used by the coordinator when the cluster is low on memory.
+     */
+    public void requestQueryMemoryRevoking(Set<QueryId> queryIds)
+    {
+        requireNonNull(queryIds, "queryIds is null");
+        if (queryIds.isEmpty()) {
+            return;
+        }
+        currentTasksSupplier.get().stream()
+                .filter(task -> task.getTaskInfo().getTaskStatus().getState() == TaskState.RUNNING)
+                .filter(task -> queryIds.contains(task.getQueryContext().getQueryId()))
+                .forEach(task -> task.getQueryContext().accept(new VoidTraversingQueryContextVisitor<Void>()
+                {
+                    @Override
+                    public Void visitOperatorContext(OperatorContext operatorContext, Void context)
+                    {
+                        long revokedBytes = operatorContext.requestMemoryRevoking();
+                        if (revokedBytes > 0) {
+                            log.debug("query=%s: requested revoking %s on coordinator request", task.getQueryContext().getQueryId(), revokedBytes);
+                        }
+                        return null;
+                    }
+                }, null));
+    }
+
     private void scheduleRevoking()
     {
         taskManagementExecutor.execute(() -> {
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.spi.QueryId;
@@ -40,6 +41,21 @@ public interface QueryExecution
 
     Plan getQueryPlan();
 
+    /**
+     * Returns the estimated cost of the query plan, once the query has been planned.
+     */
+    Optional<PlanNodeCostEstimate> getEstimatedCost();
+
+    /**
+     * Returns true while the planned query is held until its estimated peak memory is available.
+     */
+    boolean isWaitingForMemoryAdmission();
+
+    /**
+     * Returns the time the query has spent held for memory admission.
+     */
+    Duration getMemoryAdmissionTime();
+
     Duration waitForStateChange(QueryState currentState, Duration maxWait)
             throws InterruptedException;
 
@@ -63,6 +79,8 @@ public interface QueryExecution
 
     void recordHeartbeat();
 
+    void recordSavedParsingTime(Duration parsingTime);
+
     // XXX: This should be removed when the client protocol is improved, so that we don't need to hold onto so much query history
     void pruneInfo();
 
@@ -70,6 +88,8 @@ public interface QueryExecution
 
     void addFinalQueryInfoListener(StateChangeListener<QueryInfo> stateChangeListener);
 
+    void addMemoryAdmissionStateChangeListener(StateChangeListener<Boolean> stateChangeListener);
+
     interface QueryExecutionFactory<T extends QueryExecution>
     {
         T createQueryExecution(QueryId queryId, String query, Session session, Statement statement, List<Expression> parameters);
@@ -68,6 +68,8 @@ public class QueryInfo
     private final Optional<Output> output;
     private final boolean completeInfo;
     private final Optional<String> resourceGroupName;
+    private final Optional<String> resultCacheKey;
+    private final boolean resultCacheHit;
 
     @JsonCreator
     public QueryInfo(
@@ -94,7 +96,9 @@ public class QueryInfo
             @JsonProperty("inputs") Set<Input> inputs,
             @JsonProperty("output") Optional<Output> output,
             @JsonProperty("completeInfo") boolean completeInfo,
-            @JsonProperty("resourceGroupName") Optional<String> resourceGroupName)
+            @JsonProperty("resourceGroupName") Optional<String> resourceGroupName,
+            @JsonProperty("resultCacheKey") Optional<String> resultCacheKey,
+            @JsonProperty("resultCacheHit") boolean resultCacheHit)
     {
         requireNonNull(queryId, "queryId is null");
         requireNonNull(session, "session is null");
@@ -112,6 +116,7 @@ public class QueryInfo
         requireNonNull(inputs, "inputs is null");
         requireNonNull(output, "output is null");
         requireNonNull(resourceGroupName, "resourceGroupName is null");
+        requireNonNull(resultCacheKey, "resultCacheKey is null");
 
         this.queryId = queryId;
         this.session = session;
@@ -138,6 +143,8 @@ public class QueryInfo
         this.output = output;
         this.completeInfo = completeInfo;
         this.resourceGroupName = resourceGroupName;
+        this.resultCacheKey = resultCacheKey;
+        this.resultCacheHit = resultCacheHit;
     }
 
     @JsonProperty
@@ -294,6 +301,24 @@ public class QueryInfo
         return resourceGroupName;
     }
 
+    /**
+     * Key of the query result cache entry this query reads or populates, if the query results are cacheable.
+     */
+    @JsonProperty
+    public Optional<String> getResultCacheKey()
+    {
+        return resultCacheKey;
+    }
+
+    /**
+     * Whether the results are served from the query result cache instead of being computed.
+     */
+    @JsonProperty
+    public boolean isResultCacheHit()
+    {
+        return resultCacheHit;
+    }
+
     @Override
     public String toString()
     {
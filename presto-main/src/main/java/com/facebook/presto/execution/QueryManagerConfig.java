@@ -14,17 +14,23 @@
 package com.facebook.presto.execution;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
 @DefunctConfig({"query.max-pending-splits-per-node",
                 "experimental.big-query-initial-hash-partitions",
                 "experimental.max-concurrent-big-queries",
@@ -42,6 +48,7 @@ public class QueryManagerConfig
     private Duration minQueryExpireAge = new Duration(15, TimeUnit.MINUTES);
     private int maxQueryHistory = 100;
     private int maxQueryLength = 1_000_000;
+    private DataSize statementCacheMaxSize = new DataSize(64, MEGABYTE);
     private Duration clientTimeout = new Duration(5, TimeUnit.MINUTES);
 
     private int queryManagerExecutorPoolSize = 5;
@@ -53,6 +60,9 @@ public class QueryManagerConfig
     private String queryExecutionPolicy = "all-at-once";
     private Duration queryMaxRunTime = new Duration(100, TimeUnit.DAYS);
     private Duration queryMaxCpuTime = new Duration(1_000_000_000, TimeUnit.DAYS);
+    private boolean speculativeExecutionEnabled;
+    private double speculationQuantile = 0.75;
+    private double speculationMultiplier = 1.5;
 
     public String getQueueConfigFile()
     {
@@ -176,6 +186,20 @@ public class QueryManagerConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getStatementCacheMaxSize()
+    {
+        return statementCacheMaxSize;
+    }
+
+    @Config("query.statement-cache.max-size")
+    @ConfigDescription("Maximum estimated size of the parsed statements cached by the coordinator, 0B disables the cache")
+    public QueryManagerConfig setStatementCacheMaxSize(DataSize statementCacheMaxSize)
+    {
+        this.statementCacheMaxSize = statementCacheMaxSize;
+        return this;
+    }
+
     @MinDuration("5s")
     @NotNull
     public Duration getClientTimeout()
@@ -283,4 +307,46 @@ public class QueryManagerConfig
         this.queryExecutionPolicy = queryExecutionPolicy;
         return this;
     }
+
+    public boolean isSpeculativeExecutionEnabled()
+    {
+        return speculativeExecutionEnabled;
+    }
+
+    @Config("query.speculative-execution-enabled")
+    @ConfigDescription("Run a second copy of straggling leaf splits on another node and keep the output of the copy that finishes first")
+    public QueryManagerConfig setSpeculativeExecutionEnabled(boolean speculativeExecutionEnabled)
+    {
+        this.speculativeExecutionEnabled = speculativeExecutionEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getSpeculationQuantile()
+    {
+        return speculationQuantile;
+    }
+
+    @Config("query.speculation-quantile")
+    @ConfigDescription("Fraction of the splits of a stage that must finish before stragglers are executed speculatively")
+    public QueryManagerConfig setSpeculationQuantile(double speculationQuantile)
+    {
+        this.speculationQuantile = speculationQuantile;
+        return this;
+    }
+
+    @DecimalMin("1.0")
+    public double getSpeculationMultiplier()
+    {
+        return speculationMultiplier;
+    }
+
+    @Config("query.speculation-multiplier")
+    @ConfigDescription("How many times slower than the median split a split must be to be executed speculatively")
+    public QueryManagerConfig setSpeculationMultiplier(double speculationMultiplier)
+    {
+        this.speculationMultiplier = speculationMultiplier;
+        return this;
+    }
 }
@@ -38,6 +38,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.joda.time.DateTime;
 
@@ -103,6 +104,8 @@ public class QueryStateMachine
 
     private final AtomicReference<Duration> queuedTime = new AtomicReference<>();
     private final AtomicReference<Duration> analysisTime = new AtomicReference<>();
+    private final AtomicReference<Duration> savedParsingTime = new AtomicReference<>();
+    private final AtomicReference<DataSize> estimatedPeakMemoryReservation = new AtomicReference<>();
     private final AtomicReference<Duration> distributedPlanningTime = new AtomicReference<>();
 
     private final AtomicReference<Long> finishingStartNanos = new AtomicReference<>();
@@ -111,7 +114,11 @@ public class QueryStateMachine
     private final AtomicReference<Long> totalPlanningStartNanos = new AtomicReference<>();
     private final AtomicReference<Duration> totalPlanningTime = new AtomicReference<>();
 
+    private final AtomicReference<Long> memoryAdmissionStartNanos = new AtomicReference<>();
+    private final AtomicReference<Duration> memoryAdmissionTime = new AtomicReference<>();
+
     private final StateMachine<QueryState> queryState;
+    private final StateMachine<Boolean> waitingForMemoryAdmission;
 
     private final Map<String, String> setSessionProperties = new ConcurrentHashMap<>();
     private final Set<String> resetSessionProperties = Sets.newConcurrentHashSet();
@@ -132,6 +139,8 @@ public class QueryStateMachine
 
     private final AtomicReference<Set<Input>> inputs = new AtomicReference<>(ImmutableSet.of());
     private final AtomicReference<Optional<Output>> output = new AtomicReference<>(Optional.empty());
+    private final AtomicReference<Optional<String>> resultCacheKey = new AtomicReference<>(Optional.empty());
+    private final AtomicBoolean resultCacheHit = new AtomicBoolean();
     private final StateMachine<Optional<QueryInfo>> finalQueryInfo;
 
     private final AtomicReference<ResourceGroupId> resourceGroup = new AtomicReference<>();
@@ -150,6 +159,7 @@ public class QueryStateMachine
 
         this.queryState = new StateMachine<>("query " + query, executor, QUEUED, TERMINAL_QUERY_STATES);
         this.finalQueryInfo = new StateMachine<>("finalQueryInfo-" + queryId, executor, Optional.empty());
+        this.waitingForMemoryAdmission = new StateMachine<>("waitingForMemoryAdmission-" + queryId, executor, false);
     }
 
     /**
@@ -393,6 +403,7 @@ public class QueryStateMachine
                 distributedPlanningTime.get(),
                 totalPlanningTime.get(),
                 finishingTime.get(),
+                savedParsingTime.get(),
 
                 totalTasks,
                 runningTasks,
@@ -407,6 +418,7 @@ public class QueryStateMachine
                 cumulativeMemory,
                 succinctBytes(totalMemoryReservation),
                 succinctBytes(peakMemoryReservation),
+                estimatedPeakMemoryReservation.get(),
 
                 isScheduled,
 
@@ -450,7 +462,9 @@ public class QueryStateMachine
                 inputs.get(),
                 output.get(),
                 completeInfo,
-                getResourceGroup().map(ResourceGroupId::toString));
+                getResourceGroup().map(ResourceGroupId::toString),
+                resultCacheKey.get(),
+                resultCacheHit.get());
     }
 
     public VersionedMemoryPoolId getMemoryPool()
@@ -481,6 +495,13 @@ public class QueryStateMachine
         this.output.set(output);
     }
 
+    public void setResultCacheKey(String resultCacheKey, boolean hit)
+    {
+        requireNonNull(resultCacheKey, "resultCacheKey is null");
+        this.resultCacheKey.set(Optional.of(resultCacheKey));
+        this.resultCacheHit.set(hit);
+    }
+
     public Map<String, String> getSetSessionProperties()
     {
         return setSessionProperties;
@@ -731,6 +752,59 @@ public class QueryStateMachine
         analysisTime.compareAndSet(null, nanosSince(analysisStart).convertToMostSuccinctTimeUnit());
     }
 
+    public void recordSavedParsingTime(Duration parsingTime)
+    {
+        requireNonNull(parsingTime, "parsingTime is null");
+        savedParsingTime.compareAndSet(null, parsingTime.convertToMostSuccinctTimeUnit());
+    }
+
+    public void setEstimatedPeakMemoryReservation(DataSize estimatedPeakMemoryReservation)
+    {
+        requireNonNull(estimatedPeakMemoryReservation, "estimatedPeakMemoryReservation is null");
+        this.estimatedPeakMemoryReservation.compareAndSet(null, estimatedPeakMemoryReservation);
+    }
+
+    public void beginMemoryAdmission()
+    {
+        if (memoryAdmissionStartNanos.compareAndSet(null, tickerNanos())) {
+            waitingForMemoryAdmission.set(true);
+        }
+    }
+
+    public void endMemoryAdmission()
+    {
+        Long startNanos = memoryAdmissionStartNanos.get();
+        if (startNanos != null && memoryAdmissionTime.compareAndSet(null, nanosSince(startNanos))) {
+            waitingForMemoryAdmission.set(false);
+        }
+    }
+
+    public boolean isWaitingForMemoryAdmission()
+    {
+        return waitingForMemoryAdmission.get();
+    }
+
+    /**
+     * Returns the time the query has been held waiting for memory admission, including the current wait if it is still held.
+     */
+    public Duration getMemoryAdmissionTime()
+    {
+        Duration admissionTime = memoryAdmissionTime.get();
+        if (admissionTime != null) {
+            return admissionTime;
+        }
+        Long startNanos = memoryAdmissionStartNanos.get();
+        if (startNanos != null) {
+            return nanosSince(startNanos);
+        }
+        return new Duration(0, NANOSECONDS);
+    }
+
+    public void addMemoryAdmissionStateChangeListener(StateChangeListener<Boolean> stateChangeListener)
+    {
+        waitingForMemoryAdmission.addStateChangeListener(stateChangeListener);
+    }
+
     public void recordDistributedPlanningTime(long distributedPlanningStart)
     {
         distributedPlanningTime.compareAndSet(null, nanosSince(distributedPlanningStart).convertToMostSuccinctTimeUnit());
@@ -805,7 +879,9 @@ public class QueryStateMachine
                 queryInfo.getInputs(),
                 queryInfo.getOutput(),
                 queryInfo.isCompleteInfo(),
-                queryInfo.getResourceGroupName());
+                queryInfo.getResourceGroupName(),
+                queryInfo.getResultCacheKey(),
+                queryInfo.isResultCacheHit());
         finalQueryInfo.compareAndSet(finalInfo, Optional.of(prunedQueryInfo));
     }
 
@@ -48,6 +48,7 @@ public class QueryStats
     private final Duration distributedPlanningTime;
     private final Duration totalPlanningTime;
     private final Duration finishingTime;
+    private final Duration savedParsingTime;
 
     private final int totalTasks;
     private final int runningTasks;
@@ -62,6 +63,7 @@ public class QueryStats
     private final double cumulativeMemory;
     private final DataSize totalMemoryReservation;
     private final DataSize peakMemoryReservation;
+    private final DataSize estimatedPeakMemoryReservation;
 
     private final boolean scheduled;
     private final Duration totalScheduledTime;
@@ -97,6 +99,7 @@ public class QueryStats
         this.distributedPlanningTime = null;
         this.totalPlanningTime = null;
         this.finishingTime = null;
+        this.savedParsingTime = null;
         this.totalTasks = 0;
         this.runningTasks = 0;
         this.blockedDrivers = 0;
@@ -108,6 +111,7 @@ public class QueryStats
         this.cumulativeMemory = 0.0;
         this.totalMemoryReservation = null;
         this.peakMemoryReservation = null;
+        this.estimatedPeakMemoryReservation = null;
         this.scheduled = false;
         this.totalScheduledTime = null;
         this.totalCpuTime = null;
@@ -138,6 +142,7 @@ public class QueryStats
             @JsonProperty("distributedPlanningTime") Duration distributedPlanningTime,
             @JsonProperty("totalPlanningTime") Duration totalPlanningTime,
             @JsonProperty("finishingTime") Duration finishingTime,
+            @JsonProperty("savedParsingTime") Duration savedParsingTime,
 
             @JsonProperty("totalTasks") int totalTasks,
             @JsonProperty("runningTasks") int runningTasks,
@@ -152,6 +157,7 @@ public class QueryStats
             @JsonProperty("cumulativeMemory") double cumulativeMemory,
             @JsonProperty("totalMemoryReservation") DataSize totalMemoryReservation,
             @JsonProperty("peakMemoryReservation") DataSize peakMemoryReservation,
+            @JsonProperty("estimatedPeakMemoryReservation") DataSize estimatedPeakMemoryReservation,
 
             @JsonProperty("scheduled") boolean scheduled,
             @JsonProperty("totalScheduledTime") Duration totalScheduledTime,
@@ -185,6 +191,7 @@ public class QueryStats
         this.distributedPlanningTime = distributedPlanningTime;
         this.totalPlanningTime = totalPlanningTime;
         this.finishingTime = finishingTime;
+        this.savedParsingTime = savedParsingTime;
 
         checkArgument(totalTasks >= 0, "totalTasks is negative");
         this.totalTasks = totalTasks;
@@ -207,6 +214,7 @@ public class QueryStats
         this.cumulativeMemory = requireNonNull(cumulativeMemory, "cumulativeMemory is null");
         this.totalMemoryReservation = requireNonNull(totalMemoryReservation, "totalMemoryReservation is null");
         this.peakMemoryReservation = requireNonNull(peakMemoryReservation, "peakMemoryReservation is null");
+        this.estimatedPeakMemoryReservation = estimatedPeakMemoryReservation;
         this.scheduled = scheduled;
         this.totalScheduledTime = requireNonNull(totalScheduledTime, "totalScheduledTime is null");
         this.totalCpuTime = requireNonNull(totalCpuTime, "totalCpuTime is null");
@@ -302,6 +310,15 @@ public class QueryStats
         return finishingTime;
     }
 
+    /**
+     * Coordinator time not spent parsing because the statement was served from the statement cache.
+     */
+    @JsonProperty
+    public Duration getSavedParsingTime()
+    {
+        return savedParsingTime;
+    }
+
     @JsonProperty
     public int getTotalTasks()
     {
@@ -368,6 +385,15 @@ public class QueryStats
         return peakMemoryReservation;
     }
 
+    /**
+     * Peak memory reservation estimated from the plan statistics, or null if the estimate is unknown.
+     */
+    @JsonProperty
+    public DataSize getEstimatedPeakMemoryReservation()
+    {
+        return estimatedPeakMemoryReservation;
+    }
+
     @JsonProperty
     public boolean isScheduled()
     {
@@ -20,6 +20,8 @@ import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Set;
+
 public interface RemoteTask
 {
     TaskId getTaskId();
@@ -36,6 +38,12 @@ public interface RemoteTask
 
     void noMoreSplits(PlanNodeId sourceId);
 
+    /**
+     * Adds the held back output of the committed speculatively executed splits to the
+     * task output, and discards the output of the aborted ones.
+     */
+    void updateSpeculativeSplits(Set<Long> committedSplits, Set<Long> abortedSplits);
+
     void setOutputBuffers(OutputBuffers outputBuffers);
 
     void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener);
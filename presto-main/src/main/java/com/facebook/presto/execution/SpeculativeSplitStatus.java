@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.Duration;
+
+import java.util.OptionalDouble;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Status of one copy of a speculatively executed split whose output is held
+ * back by the worker until the coordinator commits or aborts it.
+ */
+public class SpeculativeSplitStatus
+{
+    private final long speculationId;
+    private final Duration elapsedTime;
+    private final OptionalDouble progress;
+    private final boolean finished;
+    private final boolean stagingFull;
+
+    @JsonCreator
+    public SpeculativeSplitStatus(
+            @JsonProperty("speculationId") long speculationId,
+            @JsonProperty("elapsedTime") Duration elapsedTime,
+            @JsonProperty("progress") OptionalDouble progress,
+            @JsonProperty("finished") boolean finished,
+            @JsonProperty("stagingFull") boolean stagingFull)
+    {
+        this.speculationId = speculationId;
+        this.elapsedTime = requireNonNull(elapsedTime, "elapsedTime is null");
+        this.progress = requireNonNull(progress, "progress is null");
+        this.finished = finished;
+        this.stagingFull = stagingFull;
+    }
+
+    @JsonProperty
+    public long getSpeculationId()
+    {
+        return speculationId;
+    }
+
+    /**
+     * Time since the split started running; zero while it is queued.
+     */
+    @JsonProperty
+    public Duration getElapsedTime()
+    {
+        return elapsedTime;
+    }
+
+    @JsonProperty
+    public OptionalDouble getProgress()
+    {
+        return progress;
+    }
+
+    /**
+     * Returns true if the split produced all of its output and is waiting to be committed.
+     */
+    @JsonProperty
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    /**
+     * Returns true if the split holds back as much output as it may, and is waiting to be committed
+     * so it can continue without speculation.
+     */
+    @JsonProperty
+    public boolean isStagingFull()
+    {
+        return stagingFull;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("speculationId", speculationId)
+                .add("elapsedTime", elapsedTime)
+                .add("progress", progress)
+                .add("finished", finished)
+                .add("stagingFull", stagingFull)
+                .toString();
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.sql.planner.PlanFragment;
+import com.facebook.presto.sql.planner.plan.DeleteNode;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.MetadataDeleteNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.TableFinishNode;
+import com.facebook.presto.sql.planner.plan.TableWriterNode;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
+import io.airlift.log.Logger;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Sets.union;
+import static java.util.Comparator.comparingInt;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Tracks the speculatively executable splits of a leaf stage. Every remotely accessible,
+ * idempotent split is tagged with a speculation id, and the workers hold back its output
+ * until the split is committed here. Once most splits of the stage have finished, a split
+ * that is expected to run much longer than the median split is started again on another
+ * node. The copy that finishes first is committed, and all other copies are aborted. A copy
+ * that reached the staging limit of the worker is committed as well if no other copy was
+ * committed yet, and continues without speculation.
+ */
+@ThreadSafe
+class SpeculativeSplitTracker
+{
+    private static final Logger log = Logger.get(SpeculativeSplitTracker.class);
+
+    // splits shorter than this are never executed speculatively, as starting a copy costs more than it can save
+    private static final long MIN_SPECULATION_RUNTIME_NANOS = new Duration(1, SECONDS).roundTo(NANOSECONDS);
+
+    private final StageId stageId;
+    private final double quantile;
+    private final double multiplier;
+
+    @GuardedBy("this")
+    private final Map<TaskId, RemoteTask> tasks = new LinkedHashMap<>();
+
+    // splits that are not committed yet
+    @GuardedBy("this")
+    private final Map<Long, SpeculativeSplit> splits = new HashMap<>();
+
+    // wall time of the committed copies
+    @GuardedBy("this")
+    private final List<Long> finishedNanos = new ArrayList<>();
+
+    @GuardedBy("this")
+    private long nextSpeculationId;
+
+    @GuardedBy("this")
+    private boolean noMoreSplits;
+
+    @GuardedBy("this")
+    private long medianNanos;
+
+    @GuardedBy("this")
+    private int medianSampleCount;
+
+    public SpeculativeSplitTracker(StageId stageId, double quantile, double multiplier)
+    {
+        this.stageId = requireNonNull(stageId, "stageId is null");
+        checkArgument(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+        checkArgument(multiplier >= 1, "multiplier must be at least 1");
+        this.quantile = quantile;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Returns true if the splits of the fragment can be executed more than once. The output
+     * of a split must be produced by the driver processing the split, and processing a split
+     * must not have side effects.
+     */
+    public static boolean isSpeculationSupported(PlanFragment fragment)
+    {
+        return fragment.getPartitioning().equals(SOURCE_DISTRIBUTION) &&
+                fragment.getPartitionedSources().size() == 1 &&
+                !searchFrom(fragment.getRoot())
+                        .where(node -> node instanceof ExchangeNode ||
+                                node instanceof TableWriterNode ||
+                                node instanceof TableFinishNode ||
+                                node instanceof DeleteNode ||
+                                node instanceof MetadataDeleteNode)
+                        .matches();
+    }
+
+    /**
+     * Tags the splits that can be executed speculatively with a new speculation id.
+     */
+    public synchronized Multimap<PlanNodeId, Split> assignSpeculationIds(Multimap<PlanNodeId, Split> splits)
+    {
+        ImmutableMultimap.Builder<PlanNodeId, Split> result = ImmutableMultimap.builder();
+        for (Entry<PlanNodeId, Split> entry : splits.entries()) {
+            Split split = entry.getValue();
+            if (split.isRemotelyAccessible() && split.isIdempotent()) {
+                split = split.withSpeculationId(nextSpeculationId++);
+            }
+            result.put(entry.getKey(), split);
+        }
+        return result.build();
+    }
+
+    public synchronized void splitsScheduled(RemoteTask task, Multimap<PlanNodeId, Split> splits)
+    {
+        tasks.putIfAbsent(task.getTaskId(), task);
+        for (Entry<PlanNodeId, Split> entry : splits.entries()) {
+            Split split = entry.getValue();
+            if (split.getSpeculationId().isPresent()) {
+                this.splits.put(split.getSpeculationId().getAsLong(), new SpeculativeSplit(entry.getKey(), split, task));
+            }
+        }
+    }
+
+    /**
+     * Records that all splits of the stage have been scheduled.
+     *
+     * @return true if all splits are already committed
+     */
+    public synchronized boolean noMoreSplits()
+    {
+        noMoreSplits = true;
+        return isComplete();
+    }
+
+    /**
+     * Commits the finished splits of the task and starts a copy of its straggling splits.
+     *
+     * @return true if all splits are committed and no more splits will be scheduled
+     */
+    public synchronized boolean updateTaskStatus(TaskStatus taskStatus)
+    {
+        TaskId taskId = taskStatus.getTaskId();
+        SetMultimap<TaskId, Long> committed = HashMultimap.create();
+        SetMultimap<TaskId, Long> aborted = HashMultimap.create();
+
+        for (SpeculativeSplitStatus status : taskStatus.getSpeculativeSplits()) {
+            SpeculativeSplit split = splits.get(status.getSpeculationId());
+            if (split == null || !split.getTaskIds().contains(taskId)) {
+                continue;
+            }
+
+            if (status.isFinished() || status.isStagingFull()) {
+                // the first copy to finish or to reach the staging limit wins
+                splits.remove(status.getSpeculationId());
+                if (status.isFinished()) {
+                    finishedNanos.add(status.getElapsedTime().roundTo(NANOSECONDS));
+                }
+                committed.put(taskId, status.getSpeculationId());
+                for (TaskId copy : split.getTaskIds()) {
+                    if (!copy.equals(taskId)) {
+                        aborted.put(copy, status.getSpeculationId());
+                    }
+                }
+                if (split.getTaskIds().size() > 1) {
+                    log.debug("Committed split %s of stage %s from task %s after %s", status.getSpeculationId(), stageId, taskId, status.getElapsedTime());
+                }
+            }
+            else if (noMoreSplits && split.getTaskIds().size() == 1 && isStraggler(status)) {
+                speculate(status.getSpeculationId(), split, status);
+            }
+        }
+
+        for (TaskId task : union(committed.keySet(), aborted.keySet())) {
+            tasks.get(task).updateSpeculativeSplits(committed.get(task), aborted.get(task));
+        }
+
+        return isComplete();
+    }
+
+    @GuardedBy("this")
+    private boolean isComplete()
+    {
+        return noMoreSplits && splits.isEmpty();
+    }
+
+    @GuardedBy("this")
+    private boolean isStraggler(SpeculativeSplitStatus status)
+    {
+        long elapsedNanos = status.getElapsedTime().roundTo(NANOSECONDS);
+        if (elapsedNanos < MIN_SPECULATION_RUNTIME_NANOS) {
+            return false;
+        }
+
+        int totalSplits = splits.size() + finishedNanos.size();
+        if (finishedNanos.isEmpty() || finishedNanos.size() < quantile * totalSplits) {
+            return false;
+        }
+
+        long medianNanos = getMedianFinishedNanos();
+        OptionalDouble progress = status.getProgress();
+        if (!progress.isPresent() || !(progress.getAsDouble() > 0) || progress.getAsDouble() >= 1) {
+            return elapsedNanos > multiplier * medianNanos;
+        }
+
+        // a new copy is expected to run for the median time, so only start one if
+        // the remaining time of the running copy is longer than that
+        double estimatedNanos = elapsedNanos / progress.getAsDouble();
+        return estimatedNanos > multiplier * medianNanos && estimatedNanos - elapsedNanos > medianNanos;
+    }
+
+    @GuardedBy("this")
+    private long getMedianFinishedNanos()
+    {
+        if (medianSampleCount != finishedNanos.size()) {
+            List<Long> sorted = new ArrayList<>(finishedNanos);
+            Collections.sort(sorted);
+            medianNanos = sorted.get(sorted.size() / 2);
+            medianSampleCount = sorted.size();
+        }
+        return medianNanos;
+    }
+
+    @GuardedBy("this")
+    private void speculate(long speculationId, SpeculativeSplit split, SpeculativeSplitStatus status)
+    {
+        Optional<RemoteTask> target = tasks.values().stream()
+                .filter(task -> !split.getTaskIds().contains(task.getTaskId()))
+                .filter(task -> !split.getNodeIds().contains(task.getNodeId()))
+                .filter(task -> !task.getTaskStatus().getState().isDone())
+                .min(comparingInt(RemoteTask::getQueuedPartitionedSplitCount));
+        if (!target.isPresent()) {
+            return;
+        }
+
+        log.debug("Speculatively executing split %s of stage %s on task %s, as it has run for %s with progress %s",
+                speculationId,
+                stageId,
+                target.get().getTaskId(),
+                status.getElapsedTime(),
+                status.getProgress());
+        split.addCopy(target.get());
+        target.get().addSplits(ImmutableMultimap.of(split.getSourceId(), split.getSplit()));
+    }
+
+    private static class SpeculativeSplit
+    {
+        private final PlanNodeId sourceId;
+        private final Split split;
+        private final List<TaskId> taskIds = new ArrayList<>();
+        private final List<String> nodeIds = new ArrayList<>();
+
+        public SpeculativeSplit(PlanNodeId sourceId, Split split, RemoteTask task)
+        {
+            this.sourceId = requireNonNull(sourceId, "sourceId is null");
+            this.split = requireNonNull(split, "split is null");
+            addCopy(task);
+        }
+
+        public PlanNodeId getSourceId()
+        {
+            return sourceId;
+        }
+
+        public Split getSplit()
+        {
+            return split;
+        }
+
+        public List<TaskId> getTaskIds()
+        {
+            return ImmutableList.copyOf(taskIds);
+        }
+
+        public List<String> getNodeIds()
+        {
+            return ImmutableList.copyOf(nodeIds);
+        }
+
+        public void addCopy(RemoteTask task)
+        {
+            taskIds.add(task.getTaskId());
+            nodeIds.add(task.getNodeId());
+        }
+    }
+}
@@ -26,14 +26,30 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 public class SplitConcurrencyController
 {
     private static final double TARGET_UTILIZATION = 0.5;
+    // below this ratio of CPU to wall time, splits are mostly waiting for I/O
+    private static final double IO_BOUND_CPU_RATIO = 0.5;
+    // above this ratio of CPU to wall time, additional splits only compete for the same threads
+    private static final double CPU_BOUND_CPU_RATIO = 0.9;
 
     private final long adjustmentIntervalNanos;
+    private final int initialConcurrency;
+    private final int maxConcurrency;
     private int targetConcurrency;
     private long threadNanosSinceLastAdjustment;
+    private long cpuNanosSinceLastAdjustment;
+    private boolean waitingForMemorySinceLastAdjustment;
 
     public SplitConcurrencyController(int initialConcurrency, Duration adjustmentInterval)
+    {
+        this(initialConcurrency, Integer.MAX_VALUE, adjustmentInterval);
+    }
+
+    public SplitConcurrencyController(int initialConcurrency, int maxConcurrency, Duration adjustmentInterval)
     {
         checkArgument(initialConcurrency > 0, "initial concurrency must be positive");
+        checkArgument(maxConcurrency >= initialConcurrency, "max concurrency must be at least the initial concurrency");
+        this.initialConcurrency = initialConcurrency;
+        this.maxConcurrency = maxConcurrency;
         this.targetConcurrency = initialConcurrency;
         this.adjustmentIntervalNanos = adjustmentInterval.roundTo(NANOSECONDS);
     }
@@ -52,6 +68,51 @@ public class SplitConcurrencyController
         }
     }
 
+    /**
+     * Adjusts the concurrency using the CPU and wall time of the split quanta in addition
+     * to the output buffer utilization. I/O bound splits ramp up faster, up to the max
+     * concurrency, while CPU bound splits fall back towards the initial concurrency.
+     * Splits blocked waiting for memory, or a full output buffer, reduce the concurrency.
+     */
+    public void update(long wallNanos, long cpuNanos, boolean waitingForMemory, double utilization, int currentConcurrency)
+    {
+        checkArgument(wallNanos >= 0, "wallNanos is negative");
+        checkArgument(cpuNanos >= 0, "cpuNanos is negative");
+        checkArgument(isFinite(utilization), "utilization must be finite");
+        checkArgument(utilization >= 0, "utilization is negative");
+        checkArgument(currentConcurrency >= 0, "currentConcurrency is negative");
+
+        threadNanosSinceLastAdjustment += wallNanos;
+        cpuNanosSinceLastAdjustment += cpuNanos;
+        waitingForMemorySinceLastAdjustment |= waitingForMemory;
+        if (threadNanosSinceLastAdjustment < adjustmentIntervalNanos) {
+            return;
+        }
+
+        double cpuRatio = (double) cpuNanosSinceLastAdjustment / threadNanosSinceLastAdjustment;
+        if (waitingForMemorySinceLastAdjustment || utilization > TARGET_UTILIZATION) {
+            if (targetConcurrency > 1) {
+                targetConcurrency--;
+            }
+        }
+        else if (currentConcurrency >= targetConcurrency) {
+            if (cpuRatio < IO_BOUND_CPU_RATIO) {
+                targetConcurrency = (int) Math.min((long) maxConcurrency, targetConcurrency + Math.max(1, targetConcurrency / 2));
+            }
+            else if (cpuRatio > CPU_BOUND_CPU_RATIO) {
+                if (targetConcurrency > initialConcurrency) {
+                    targetConcurrency--;
+                }
+            }
+            else if (targetConcurrency < maxConcurrency) {
+                targetConcurrency++;
+            }
+        }
+        threadNanosSinceLastAdjustment = 0;
+        cpuNanosSinceLastAdjustment = 0;
+        waitingForMemorySinceLastAdjustment = false;
+    }
+
     public int getTargetConcurrency()
     {
         checkState(targetConcurrency > 0, "Possible deadlock detected. Target concurrency is zero");
@@ -70,7 +131,7 @@ public class SplitConcurrencyController
                 threadNanosSinceLastAdjustment = 0;
                 targetConcurrency--;
             }
-            else if (utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
+            else if (utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency && targetConcurrency < maxConcurrency) {
                 threadNanosSinceLastAdjustment = 0;
                 targetConcurrency++;
             }
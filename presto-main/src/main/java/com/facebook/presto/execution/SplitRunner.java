@@ -13,10 +13,13 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.operator.BlockedReason;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.Duration;
 
 import java.io.Closeable;
+import java.util.Set;
 
 public interface SplitRunner
         extends Closeable
@@ -28,6 +31,14 @@ public interface SplitRunner
 
     String getInfo();
 
+    /**
+     * Reasons the split is blocked, used as feedback when adjusting the split concurrency
+     */
+    default Set<BlockedReason> getBlockedReasons()
+    {
+        return ImmutableSet.of();
+    }
+
     @Override
     void close();
 }
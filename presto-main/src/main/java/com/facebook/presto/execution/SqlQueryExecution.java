@@ -18,12 +18,16 @@ import com.facebook.presto.OutputBuffers.OutputBufferId;
 import com.facebook.presto.Session;
 import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.cost.PeakMemoryEstimator;
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.facebook.presto.execution.resultcache.QueryResultCache;
 import com.facebook.presto.execution.scheduler.ExecutionPolicy;
 import com.facebook.presto.execution.scheduler.NodeScheduler;
 import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
 import com.facebook.presto.execution.scheduler.SqlQueryScheduler;
 import com.facebook.presto.failureDetector.FailureDetector;
+import com.facebook.presto.memory.ClusterMemoryManager;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.TableHandle;
@@ -52,12 +56,14 @@ import com.facebook.presto.sql.planner.StageExecutionPlan;
 import com.facebook.presto.sql.planner.SubPlan;
 import com.facebook.presto.sql.planner.iterative.StatsAndCostCalculators;
 import com.facebook.presto.sql.planner.optimizations.PlanOptimizer;
+import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.tree.Explain;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.Statement;
 import com.facebook.presto.transaction.TransactionManager;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
@@ -75,8 +81,11 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.OutputBuffers.BROADCAST_PARTITION_ID;
 import static com.facebook.presto.OutputBuffers.createInitialEmptyOutputBuffers;
+import static com.facebook.presto.SystemSessionProperties.getQueryMaxMemory;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.units.DataSize.succinctBytes;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -108,10 +117,14 @@ public final class SqlQueryExecution
     private final StatsAndCostCalculators statsAndCostCalculators;
     private final AtomicReference<SqlQueryScheduler> queryScheduler = new AtomicReference<>();
     private final AtomicReference<Plan> queryPlan = new AtomicReference<>();
+    private final AtomicReference<PlanNodeCostEstimate> estimatedCost = new AtomicReference<>();
     private final NodeTaskMap nodeTaskMap;
     private final ExecutionPolicy executionPolicy;
     private final List<Expression> parameters;
     private final SplitSchedulerStats schedulerStats;
+    private final QueryResultCache resultCache;
+    private final ClusterMemoryManager memoryManager;
+    private final PeakMemoryEstimator peakMemoryEstimator;
 
     public SqlQueryExecution(QueryId queryId,
             String query,
@@ -136,7 +149,10 @@ public final class SqlQueryExecution
             QueryExplainer queryExplainer,
             ExecutionPolicy executionPolicy,
             List<Expression> parameters,
-            SplitSchedulerStats schedulerStats)
+            SplitSchedulerStats schedulerStats,
+            QueryResultCache resultCache,
+            ClusterMemoryManager memoryManager,
+            PeakMemoryEstimator peakMemoryEstimator)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryId)) {
             this.statement = requireNonNull(statement, "statement is null");
@@ -156,6 +172,9 @@ public final class SqlQueryExecution
             this.queryExplainer = requireNonNull(queryExplainer, "queryExplainer is null");
             this.parameters = requireNonNull(parameters);
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
+            this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
+            this.peakMemoryEstimator = requireNonNull(peakMemoryEstimator, "peakMemoryEstimator is null");
 
             checkArgument(scheduleSplitBatchSize > 0, "scheduleSplitBatchSize must be greater than 0");
             this.scheduleSplitBatchSize = scheduleSplitBatchSize;
@@ -248,6 +267,58 @@ public final class SqlQueryExecution
 
                 metadata.beginQuery(getSession(), plan.getConnectors());
 
+                // serve the results from the result cache without scheduling any stages
+                // the results are opened now, so they can still be read if the entry is evicted before the client fetches them
+                if (plan.getResultCacheKey().isPresent()) {
+                    String resultCacheKey = plan.getResultCacheKey().get();
+                    boolean hit = resultCache.pin(getQueryId(), resultCacheKey);
+                    stateMachine.setResultCacheKey(resultCacheKey, hit);
+                    if (hit) {
+                        stateMachine.setOutputFieldNames(((OutputNode) plan.getRoot().getFragment().getRoot()).getColumnNames());
+                        if (stateMachine.transitionToStarting()) {
+                            stateMachine.transitionToFinishing();
+                        }
+                        return;
+                    }
+                }
+
+                // hold the query until its estimated peak memory is expected to be available
+                double estimatedPeakMemory = peakMemoryEstimator.estimatePeakMemory(queryPlan.get());
+                if (!Double.isNaN(estimatedPeakMemory)) {
+                    long estimatedPeakMemoryBytes = (long) min(estimatedPeakMemory, getQueryMaxMemory(getSession()).toBytes());
+                    stateMachine.setEstimatedPeakMemoryReservation(succinctBytes(estimatedPeakMemoryBytes));
+                    ListenableFuture<?> admitted = memoryManager.admitQuery(getQueryId(), estimatedPeakMemoryBytes);
+                    stateMachine.addStateChangeListener(state -> {
+                        if (state.isDone()) {
+                            memoryManager.releaseQuery(getQueryId());
+                        }
+                    });
+                    if (!admitted.isDone()) {
+                        // while held, the query does not count against the running limits of its resource groups
+                        stateMachine.beginMemoryAdmission();
+                        admitted.addListener(() -> startScheduling(plan), queryExecutor);
+                        return;
+                    }
+                }
+
+                startScheduling(plan);
+            }
+            catch (Throwable e) {
+                fail(e);
+                Throwables.propagateIfInstanceOf(e, Error.class);
+            }
+        }
+    }
+
+    private void startScheduling(PlanRoot plan)
+    {
+        try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
+            try {
+                stateMachine.endMemoryAdmission();
+                if (stateMachine.isDone()) {
+                    return;
+                }
+
                 // plan distribution of query
                 planDistribution(plan);
 
@@ -285,6 +356,12 @@ public final class SqlQueryExecution
         stateMachine.addQueryInfoStateChangeListener(stateChangeListener);
     }
 
+    @Override
+    public void addMemoryAdmissionStateChangeListener(StateChangeListener<Boolean> stateChangeListener)
+    {
+        stateMachine.addMemoryAdmissionStateChangeListener(stateChangeListener);
+    }
+
     private PlanRoot analyzeQuery()
     {
         try {
@@ -311,6 +388,7 @@ public final class SqlQueryExecution
         LogicalPlanner logicalPlanner = new LogicalPlanner(stateMachine.getSession(), planOptimizers, idAllocator, metadata, sqlParser, statsAndCostCalculators);
         Plan plan = logicalPlanner.plan(analysis);
         queryPlan.set(plan);
+        estimatedCost.set(plan.getCumulativeCost());
 
         // extract inputs
         List<Input> inputs = new InputExtractor(metadata, stateMachine.getSession()).extractInputs(plan.getRoot());
@@ -326,8 +404,13 @@ public final class SqlQueryExecution
         // record analysis time
         stateMachine.recordAnalysisTime(analysisStart);
 
+        Optional<String> resultCacheKey = Optional.empty();
+        if (resultCache.isEnabled(stateMachine.getSession())) {
+            resultCacheKey = resultCache.getCacheKey(stateMachine.getSession(), analysis, plan.getRoot());
+        }
+
         boolean explainAnalyze = analysis.getStatement() instanceof Explain && ((Explain) analysis.getStatement()).isAnalyze();
-        return new PlanRoot(subplan, !explainAnalyze, extractConnectors(analysis));
+        return new PlanRoot(subplan, !explainAnalyze, extractConnectors(analysis), resultCacheKey);
     }
 
     private Set<ConnectorId> extractConnectors(Analysis analysis)
@@ -462,6 +545,12 @@ public final class SqlQueryExecution
         stateMachine.recordHeartbeat();
     }
 
+    @Override
+    public void recordSavedParsingTime(Duration parsingTime)
+    {
+        stateMachine.recordSavedParsingTime(parsingTime);
+    }
+
     @Override
     public void pruneInfo()
     {
@@ -515,6 +604,24 @@ public final class SqlQueryExecution
         return queryPlan.get();
     }
 
+    @Override
+    public Optional<PlanNodeCostEstimate> getEstimatedCost()
+    {
+        return Optional.ofNullable(estimatedCost.get());
+    }
+
+    @Override
+    public boolean isWaitingForMemoryAdmission()
+    {
+        return stateMachine.isWaitingForMemoryAdmission();
+    }
+
+    @Override
+    public Duration getMemoryAdmissionTime()
+    {
+        return stateMachine.getMemoryAdmissionTime();
+    }
+
     private QueryInfo buildQueryInfo(SqlQueryScheduler scheduler)
     {
         Optional<StageInfo> stageInfo = Optional.empty();
@@ -536,12 +643,14 @@ public final class SqlQueryExecution
         private final SubPlan root;
         private final boolean summarizeTaskInfos;
         private final Set<ConnectorId> connectors;
+        private final Optional<String> resultCacheKey;
 
-        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, Set<ConnectorId> connectors)
+        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, Set<ConnectorId> connectors, Optional<String> resultCacheKey)
         {
             this.root = requireNonNull(root, "root is null");
             this.summarizeTaskInfos = summarizeTaskInfos;
             this.connectors = ImmutableSet.copyOf(connectors);
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
         }
 
         public SubPlan getRoot()
@@ -558,6 +667,11 @@ public final class SqlQueryExecution
         {
             return connectors;
         }
+
+        public Optional<String> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
     }
 
     public static class SqlQueryExecutionFactory
@@ -581,6 +695,9 @@ public final class SqlQueryExecution
         private final FailureDetector failureDetector;
         private final NodeTaskMap nodeTaskMap;
         private final Map<String, ExecutionPolicy> executionPolicies;
+        private final QueryResultCache resultCache;
+        private final ClusterMemoryManager memoryManager;
+        private final PeakMemoryEstimator peakMemoryEstimator;
 
         @Inject
         SqlQueryExecutionFactory(QueryManagerConfig config,
@@ -601,7 +718,10 @@ public final class SqlQueryExecution
                 NodeTaskMap nodeTaskMap,
                 QueryExplainer queryExplainer,
                 Map<String, ExecutionPolicy> executionPolicies,
-                SplitSchedulerStats schedulerStats)
+                SplitSchedulerStats schedulerStats,
+                QueryResultCache resultCache,
+                ClusterMemoryManager memoryManager,
+                PeakMemoryEstimator peakMemoryEstimator)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -625,6 +745,9 @@ public final class SqlQueryExecution
             this.executionPolicies = requireNonNull(executionPolicies, "schedulerPolicies is null");
             this.statsAndCostCalculators = requireNonNull(statsAndCostCalculators, "statsAndCostCalculators is null");
             this.planOptimizers = planOptimizers.get();
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
+            this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
+            this.peakMemoryEstimator = requireNonNull(peakMemoryEstimator, "peakMemoryEstimator is null");
         }
 
         @Override
@@ -658,7 +781,10 @@ public final class SqlQueryExecution
                     queryExplainer,
                     executionPolicy,
                     parameters,
-                    schedulerStats);
+                    schedulerStats,
+                    resultCache,
+                    memoryManager,
+                    peakMemoryEstimator);
         }
     }
 }
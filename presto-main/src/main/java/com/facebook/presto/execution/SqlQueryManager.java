@@ -18,6 +18,7 @@ import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.event.query.QueryMonitor;
 import com.facebook.presto.execution.QueryExecution.QueryExecutionFactory;
 import com.facebook.presto.execution.SqlQueryExecution.SqlQueryExecutionFactory;
+import com.facebook.presto.execution.StatementCache.ParsedStatement;
 import com.facebook.presto.execution.resourceGroups.QueryQueueFullException;
 import com.facebook.presto.memory.ClusterMemoryManager;
 import com.facebook.presto.metadata.Metadata;
@@ -97,11 +98,13 @@ import static com.facebook.presto.sql.tree.ExpressionTreeRewriter.rewriteWith;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.concurrent.Threads.threadsNamed;
+import static io.airlift.units.Duration.succinctNanos;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @ThreadSafe
 public class SqlQueryManager
@@ -109,8 +112,6 @@ public class SqlQueryManager
 {
     private static final Logger log = Logger.get(SqlQueryManager.class);
 
-    private final SqlParser sqlParser;
-
     private final ExecutorService queryExecutor;
     private final ThreadPoolExecutorMBean queryExecutorMBean;
     private final QueryQueueManager queueManager;
@@ -143,6 +144,7 @@ public class SqlQueryManager
     private final Map<Class<? extends Statement>, QueryExecutionFactory<?>> executionFactories;
 
     private final SqlQueryManagerStats stats = new SqlQueryManagerStats();
+    private final StatementCache statementCache;
 
     @Inject
     public SqlQueryManager(
@@ -159,8 +161,6 @@ public class SqlQueryManager
             Map<Class<? extends Statement>, QueryExecutionFactory<?>> executionFactories,
             Metadata metadata)
     {
-        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
-
         this.executionFactories = requireNonNull(executionFactories, "executionFactories is null");
 
         this.queryExecutor = newCachedThreadPool(threadsNamed("query-scheduler-%s"));
@@ -186,6 +186,7 @@ public class SqlQueryManager
         this.maxQueryHistory = config.getMaxQueryHistory();
         this.clientTimeout = config.getClientTimeout();
         this.maxQueryLength = config.getMaxQueryLength();
+        this.statementCache = new StatementCache(requireNonNull(sqlParser, "sqlParser is null"), config.getStatementCacheMaxSize());
 
         queryManagementExecutor = Executors.newScheduledThreadPool(config.getQueryManagerExecutorPoolSize(), threadsNamed("query-management-%s"));
         queryManagementExecutorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) queryManagementExecutor);
@@ -361,6 +362,7 @@ public class SqlQueryManager
         Session session = null;
         QueryExecution queryExecution;
         Statement statement;
+        long savedParsingNanos = 0;
         try {
             session = sessionSupplier.createSession(queryId, transactionManager, accessControl, sessionPropertyManager);
             if (query.length() > maxQueryLength) {
@@ -369,8 +371,16 @@ public class SqlQueryManager
                 throw new PrestoException(QUERY_TEXT_TOO_LARGE, format("Query text length (%s) exceeds the maximum length (%s)", queryLength, maxQueryLength));
             }
             ParsingOptions parsingOptions = new ParsingOptions().setParseDecimalLiteralsAsDouble(isParseDecimalLiteralsAsDouble(session));
-            Statement wrappedStatement = sqlParser.createStatement(query, parsingOptions);
-            statement = unwrapExecuteStatement(wrappedStatement, sqlParser, session);
+            ParsedStatement parsedStatement = statementCache.createStatement(query, parsingOptions);
+            Statement wrappedStatement = parsedStatement.getStatement();
+            savedParsingNanos += parsedStatement.getSavedParsingTime().roundTo(NANOSECONDS);
+            statement = wrappedStatement;
+            if (wrappedStatement instanceof Execute) {
+                String sql = session.getPreparedStatementFromExecute((Execute) wrappedStatement);
+                ParsedStatement preparedStatement = statementCache.createStatement(sql, parsingOptions);
+                statement = preparedStatement.getStatement();
+                savedParsingNanos += preparedStatement.getSavedParsingTime().roundTo(NANOSECONDS);
+            }
             List<Expression> parameters = wrappedStatement instanceof Execute ? ((Execute) wrappedStatement).getParameters() : emptyList();
             statement = rewritePreparedInsert(statement, parameters);
             statement = rewriteCatalogQuery(statement, parameters);
@@ -387,6 +397,9 @@ public class SqlQueryManager
                 }
             }
             queryExecution = queryExecutionFactory.createQueryExecution(queryId, query, session, statement, parameters);
+            if (savedParsingNanos > 0) {
+                queryExecution.recordSavedParsingTime(succinctNanos(savedParsingNanos));
+            }
         }
         catch (ParsingException | PrestoException | SemanticException e) {
             // This is intentionally not a method, since after the state change listener is registered
@@ -684,6 +697,13 @@ public class SqlQueryManager
         return stats;
     }
 
+    @Managed(description = "Parsed statement cache")
+    @Nested
+    public StatementCache getStatementCache()
+    {
+        return statementCache;
+    }
+
     @Managed(description = "Query scheduler executor")
     @Nested
     public ThreadPoolExecutorMBean getExecutor()
@@ -719,7 +739,9 @@ public class SqlQueryManager
             }
             Duration queryMaxRunTime = SystemSessionProperties.getQueryMaxRunTime(query.getSession());
             DateTime executionStartTime = query.getQueryInfo().getQueryStats().getCreateTime();
-            if (executionStartTime.plus(queryMaxRunTime.toMillis()).isBeforeNow()) {
+            // the time a query is held for memory admission is not held against it
+            long memoryAdmissionMillis = query.getMemoryAdmissionTime().toMillis();
+            if (executionStartTime.plus(queryMaxRunTime.toMillis() + memoryAdmissionMillis).isBeforeNow()) {
                 query.fail(new PrestoException(EXCEEDED_TIME_LIMIT, "Query exceeded maximum time limit of " + queryMaxRunTime));
             }
         }
@@ -43,6 +43,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -51,6 +52,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.presto.SystemSessionProperties.getSpeculationMultiplier;
+import static com.facebook.presto.SystemSessionProperties.getSpeculationQuantile;
+import static com.facebook.presto.SystemSessionProperties.isSpeculativeExecutionEnabled;
+import static com.facebook.presto.execution.SpeculativeSplitTracker.isSpeculationSupported;
 import static com.facebook.presto.failureDetector.FailureDetector.State.GONE;
 import static com.facebook.presto.operator.ExchangeOperator.REMOTE_CONNECTOR_ID;
 import static com.facebook.presto.spi.StandardErrorCode.REMOTE_HOST_GONE;
@@ -84,6 +89,8 @@ public final class SqlStageExecution
 
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
 
+    private final Optional<SpeculativeSplitTracker> speculativeSplitTracker;
+
     public SqlStageExecution(
             StageId stageId,
             URI location,
@@ -124,6 +131,14 @@ public final class SqlStageExecution
             }
         }
         this.exchangeSources = fragmentToExchangeSource.build();
+
+        Session session = stateMachine.getSession();
+        if (isSpeculativeExecutionEnabled(session) && isSpeculationSupported(stateMachine.getFragment())) {
+            this.speculativeSplitTracker = Optional.of(new SpeculativeSplitTracker(stateMachine.getStageId(), getSpeculationQuantile(session), getSpeculationMultiplier(session)));
+        }
+        else {
+            this.speculativeSplitTracker = Optional.empty();
+        }
     }
 
     public StageId getStageId()
@@ -169,7 +184,18 @@ public final class SqlStageExecution
             stateMachine.transitionToFinished();
         }
 
+        // speculatively executed splits may still be added to the tasks until all splits are committed
+        if (!speculativeSplitTracker.isPresent() || speculativeSplitTracker.get().noMoreSplits()) {
+            completePartitionedSources();
+        }
+    }
+
+    private synchronized void completePartitionedSources()
+    {
         for (PlanNodeId partitionedSource : stateMachine.getFragment().getPartitionedSources()) {
+            if (completeSources.contains(partitionedSource)) {
+                continue;
+            }
             for (RemoteTask task : getAllTasks()) {
                 task.noMoreSplits(partitionedSource);
             }
@@ -297,18 +323,28 @@ public final class SqlStageExecution
 
         checkArgument(stateMachine.getFragment().getPartitionedSources().containsAll(splits.keySet()), "Invalid splits");
 
+        if (speculativeSplitTracker.isPresent()) {
+            splits = speculativeSplitTracker.get().assignSpeculationIds(splits);
+        }
+
         ImmutableSet.Builder<RemoteTask> newTasks = ImmutableSet.builder();
         Collection<RemoteTask> tasks = this.tasks.get(node);
+        RemoteTask task;
         if (tasks == null) {
             // The output buffer depends on the task id starting from 0 and being sequential, since each
             // task is assigned a private buffer based on task id.
             TaskId taskId = new TaskId(stateMachine.getStageId(), nextTaskId.getAndIncrement());
-            newTasks.add(scheduleTask(node, taskId, splits));
+            task = scheduleTask(node, taskId, splits);
+            newTasks.add(task);
         }
         else {
-            RemoteTask task = tasks.iterator().next();
+            task = tasks.iterator().next();
             task.addSplits(splits);
         }
+
+        if (speculativeSplitTracker.isPresent()) {
+            speculativeSplitTracker.get().splitsScheduled(task, splits);
+        }
         return newTasks.build();
     }
 
@@ -392,6 +428,10 @@ public final class SqlStageExecution
                 return;
             }
 
+            if (speculativeSplitTracker.isPresent() && speculativeSplitTracker.get().updateTaskStatus(taskStatus)) {
+                completePartitionedSources();
+            }
+
             TaskState taskState = taskStatus.getState();
             if (taskState == TaskState.FAILED) {
                 RuntimeException failure = taskStatus.getFailures().stream()
@@ -52,6 +52,7 @@ import static com.facebook.presto.util.Failures.toFailures;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static java.util.Objects.requireNonNull;
 
 public class SqlTask
@@ -69,9 +70,13 @@ public class SqlTask
 
     private final AtomicReference<DateTime> lastHeartbeat = new AtomicReference<>(DateTime.now());
     private final AtomicLong nextTaskInfoVersion = new AtomicLong(TaskStatus.STARTING_VERSION);
+    // latest speculative splits version included in a task status
+    private final AtomicLong reportedSpeculativeSplitsVersion = new AtomicLong();
 
     private final AtomicReference<TaskHolder> taskHolderReference = new AtomicReference<>(new TaskHolder());
     private final AtomicBoolean needsPlan = new AtomicBoolean(true);
+    // outlives the task execution, so pages read from the output buffer just before the task finished can still be encoded
+    private final AtomicReference<Session> session = new AtomicReference<>();
 
     public SqlTask(
             TaskId taskId,
@@ -172,6 +177,11 @@ public class SqlTask
         return taskInstanceId;
     }
 
+    public Optional<Session> getSession()
+    {
+        return Optional.ofNullable(session.get());
+    }
+
     public void recordHeartbeat()
     {
         lastHeartbeat.set(DateTime.now());
@@ -203,6 +213,15 @@ public class SqlTask
             failures = toFailures(taskStateMachine.getFailureCauses());
         }
 
+        List<SpeculativeSplitStatus> speculativeSplits = ImmutableList.of();
+        SqlTaskExecution taskExecution = taskHolder.getTaskExecution();
+        if (taskExecution != null && !state.isDone()) {
+            // read the version first, so a split changing after the snapshot wakes the next status request
+            long speculativeSplitsVersion = taskStateMachine.getSpeculativeSplitsVersion();
+            speculativeSplits = taskExecution.getSpeculativeSplitStatuses();
+            reportedSpeculativeSplitsVersion.accumulateAndGet(speculativeSplitsVersion, Math::max);
+        }
+
         TaskStats taskStats = getTaskStats(taskHolder);
         return new TaskStatus(taskStateMachine.getTaskId(),
                 taskInstanceId,
@@ -212,7 +231,8 @@ public class SqlTask
                 failures,
                 taskStats.getQueuedPartitionedDrivers(),
                 taskStats.getRunningPartitionedDrivers(),
-                taskStats.getMemoryReservation());
+                taskStats.getMemoryReservation(),
+                speculativeSplits);
     }
 
     private TaskStats getTaskStats(TaskHolder taskHolder)
@@ -268,7 +288,11 @@ public class SqlTask
         }
 
         ListenableFuture<TaskState> futureTaskState = taskStateMachine.getStateChange(callersCurrentState);
-        return Futures.transform(futureTaskState, input -> getTaskInfo().getTaskStatus());
+        // the coordinator only learns from the task status that a speculatively executed split
+        // waits to be committed, so the split must not wait for the task state to change
+        ListenableFuture<Long> futureSpeculativeSplits = taskStateMachine.getSpeculativeSplitsChange(reportedSpeculativeSplitsVersion.get());
+        ListenableFuture<?> futureChange = whenAnyComplete(ImmutableList.<ListenableFuture<?>>of(futureTaskState, futureSpeculativeSplits));
+        return Futures.transform(futureChange, input -> getTaskInfo().getTaskStatus());
     }
 
     public ListenableFuture<TaskInfo> getTaskInfo(TaskState callersCurrentState)
@@ -308,6 +332,7 @@ public class SqlTask
                     checkState(fragment.isPresent(), "fragment must be present");
                     taskExecution = sqlTaskExecutionFactory.create(session, queryContext, taskStateMachine, outputBuffer, fragment.get(), sources);
                     taskHolderReference.compareAndSet(taskHolder, new TaskHolder(taskExecution));
+                    this.session.set(session);
                     needsPlan.set(false);
                 }
             }
@@ -327,6 +352,14 @@ public class SqlTask
         return getTaskInfo();
     }
 
+    public void updateSpeculativeSplits(Set<Long> committedSplits, Set<Long> abortedSplits)
+    {
+        SqlTaskExecution taskExecution = taskHolderReference.get().getTaskExecution();
+        if (taskExecution != null) {
+            taskExecution.updateSpeculativeSplits(committedSplits, abortedSplits);
+        }
+    }
+
     public ListenableFuture<BufferResult> getTaskResults(OutputBufferId bufferId, long startingSequenceId, DataSize maxSize)
     {
         requireNonNull(bufferId, "bufferId is null");
@@ -19,8 +19,10 @@ import com.facebook.presto.event.query.QueryMonitor;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.buffer.BufferState;
 import com.facebook.presto.execution.buffer.OutputBuffer;
+import com.facebook.presto.execution.buffer.SpeculativeOutputBuffer;
 import com.facebook.presto.execution.executor.TaskExecutor;
 import com.facebook.presto.execution.executor.TaskHandle;
+import com.facebook.presto.operator.BlockedReason;
 import com.facebook.presto.operator.Driver;
 import com.facebook.presto.operator.DriverContext;
 import com.facebook.presto.operator.DriverFactory;
@@ -39,6 +41,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import javax.annotation.Nullable;
@@ -52,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.Set;
@@ -64,10 +68,13 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.SystemSessionProperties.getInitialSplitsPerNode;
+import static com.facebook.presto.SystemSessionProperties.getMaxSplitsPerNode;
 import static com.facebook.presto.SystemSessionProperties.getSplitConcurrencyAdjustmentInterval;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -77,6 +84,7 @@ public class SqlTaskExecution
     private final TaskStateMachine taskStateMachine;
     private final TaskContext taskContext;
     private final OutputBuffer outputBuffer;
+    private final DataSize maxSpeculativeStagedSize;
 
     private final TaskHandle taskHandle;
     private final TaskExecutor taskExecutor;
@@ -107,6 +115,11 @@ public class SqlTaskExecution
 
     private final List<DriverSplitRunnerFactory> unpartitionedDriverFactories;
 
+    // runners of the speculatively executed splits that are not yet committed or aborted
+    private final ConcurrentMap<Long, DriverSplitRunner> speculativeSplits = new ConcurrentHashMap<>();
+
+    private final Set<Long> abortedSpeculativeSplits = newConcurrentHashSet();
+
     public static SqlTaskExecution createSqlTaskExecution(
             TaskStateMachine taskStateMachine,
             TaskContext taskContext,
@@ -116,12 +129,14 @@ public class SqlTaskExecution
             LocalExecutionPlanner planner,
             TaskExecutor taskExecutor,
             Executor notificationExecutor,
-            QueryMonitor queryMonitor)
+            QueryMonitor queryMonitor,
+            DataSize maxSpeculativeStagedSize)
     {
         SqlTaskExecution task = new SqlTaskExecution(
                 taskStateMachine,
                 taskContext,
                 outputBuffer,
+                maxSpeculativeStagedSize,
                 fragment,
                 planner,
                 taskExecutor,
@@ -140,6 +155,7 @@ public class SqlTaskExecution
             TaskStateMachine taskStateMachine,
             TaskContext taskContext,
             OutputBuffer outputBuffer,
+            DataSize maxSpeculativeStagedSize,
             PlanFragment fragment,
             LocalExecutionPlanner planner,
             TaskExecutor taskExecutor,
@@ -150,6 +166,7 @@ public class SqlTaskExecution
         this.taskId = taskStateMachine.getTaskId();
         this.taskContext = requireNonNull(taskContext, "taskContext is null");
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
+        this.maxSpeculativeStagedSize = requireNonNull(maxSpeculativeStagedSize, "maxSpeculativeStagedSize is null");
 
         this.taskExecutor = requireNonNull(taskExecutor, "driverExecutor is null");
         this.notificationExecutor = requireNonNull(notificationExecutor, "notificationExecutor is null");
@@ -194,7 +211,12 @@ public class SqlTaskExecution
 
             // don't register the task if it is already completed (most likely failed during planning above)
             if (!taskStateMachine.getState().isDone()) {
-                taskHandle = taskExecutor.addTask(taskId, outputBuffer::getUtilization, getInitialSplitsPerNode(taskContext.getSession()), getSplitConcurrencyAdjustmentInterval(taskContext.getSession()));
+                taskHandle = taskExecutor.addTask(
+                        taskId,
+                        outputBuffer::getUtilization,
+                        getInitialSplitsPerNode(taskContext.getSession()),
+                        getSplitConcurrencyAdjustmentInterval(taskContext.getSession()),
+                        getMaxSplitsPerNode(taskContext.getSession()));
                 taskStateMachine.addStateChangeListener(new RemoveTaskHandleWhenDone(taskExecutor, taskHandle));
                 taskStateMachine.addStateChangeListener(state -> {
                     if (state.isDone()) {
@@ -420,6 +442,39 @@ public class SqlTaskExecution
         }
     }
 
+    public List<SpeculativeSplitStatus> getSpeculativeSplitStatuses()
+    {
+        return speculativeSplits.values().stream()
+                .map(DriverSplitRunner::getSpeculativeSplitStatus)
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Adds the held back output of the committed speculatively executed splits to the
+     * output buffer, and discards the output of the aborted ones.
+     */
+    public void updateSpeculativeSplits(Set<Long> committedSplits, Set<Long> abortedSplits)
+    {
+        requireNonNull(committedSplits, "committedSplits is null");
+        requireNonNull(abortedSplits, "abortedSplits is null");
+
+        try (SetThreadName ignored = new SetThreadName("Task-%s", taskId)) {
+            for (long speculationId : abortedSplits) {
+                abortedSpeculativeSplits.add(speculationId);
+                DriverSplitRunner runner = speculativeSplits.remove(speculationId);
+                if (runner != null) {
+                    runner.getSpeculativeOutputBuffer().abortSplit();
+                }
+            }
+            for (long speculationId : committedSplits) {
+                DriverSplitRunner runner = speculativeSplits.remove(speculationId);
+                if (runner != null) {
+                    runner.getSpeculativeOutputBuffer().commit();
+                }
+            }
+        }
+    }
+
     public synchronized Set<PlanNodeId> getNoMoreSplits()
     {
         ImmutableSet.Builder<PlanNodeId> noMoreSplits = ImmutableSet.builder();
@@ -508,7 +563,23 @@ public class SqlTaskExecution
             // create driver context immediately so the driver existence is recorded in the stats
             // the number of drivers is used to balance work across nodes
             DriverContext driverContext = pipelineContext.addDriverContext(partitioned);
-            return new DriverSplitRunner(this, driverContext, partitionedSplit);
+            if (partitionedSplit == null || !partitionedSplit.getSplit().getSpeculationId().isPresent()) {
+                return new DriverSplitRunner(this, driverContext, partitionedSplit);
+            }
+
+            // hold back the output of a speculatively executed split until the coordinator commits it
+            long speculationId = partitionedSplit.getSplit().getSpeculationId().getAsLong();
+            checkState(driverFactory.isOutputDriver(), "Speculatively executed split %s is not processed by an output driver", speculationId);
+            SpeculativeOutputBuffer speculativeOutputBuffer = new SpeculativeOutputBuffer(speculationId, outputBuffer, maxSpeculativeStagedSize, taskStateMachine::speculativeSplitAwaitingDecision);
+            if (abortedSpeculativeSplits.contains(speculationId)) {
+                speculativeOutputBuffer.abortSplit();
+            }
+            driverContext.setSpeculativeOutputBuffer(speculativeOutputBuffer);
+            DriverSplitRunner runner = new DriverSplitRunner(this, driverContext, partitionedSplit);
+            if (!speculativeOutputBuffer.isAborted()) {
+                speculativeSplits.put(speculationId, runner);
+            }
+            return runner;
         }
 
         private Driver createDriver(DriverContext driverContext, @Nullable ScheduledSplit partitionedSplit)
@@ -629,6 +700,32 @@ public class SqlTaskExecution
             return (partitionedSplit == null) ? "" : partitionedSplit.getSplit().getInfo().toString();
         }
 
+        public SpeculativeOutputBuffer getSpeculativeOutputBuffer()
+        {
+            return driverContext.getSpeculativeOutputBuffer().orElseThrow(() -> new IllegalStateException("Split is not executed speculatively"));
+        }
+
+        public SpeculativeSplitStatus getSpeculativeSplitStatus()
+        {
+            SpeculativeOutputBuffer speculativeOutputBuffer = getSpeculativeOutputBuffer();
+            Driver driver;
+            synchronized (this) {
+                driver = this.driver;
+            }
+            return new SpeculativeSplitStatus(
+                    speculativeOutputBuffer.getSpeculationId(),
+                    driverContext.getElapsedSinceStart(),
+                    driver == null ? OptionalDouble.empty() : driver.getProgress(),
+                    speculativeOutputBuffer.isAwaitingDecision() && !speculativeOutputBuffer.isStagingFull(),
+                    speculativeOutputBuffer.isStagingFull());
+        }
+
+        @Override
+        public Set<BlockedReason> getBlockedReasons()
+        {
+            return getDriverContext().getBlockedReasons();
+        }
+
         @Override
         public void close()
         {
@@ -23,6 +23,7 @@ import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner;
 import com.facebook.presto.sql.planner.PlanFragment;
+import io.airlift.units.DataSize;
 
 import java.util.List;
 import java.util.concurrent.Executor;
@@ -42,6 +43,7 @@ public class SqlTaskExecutionFactory
     private final QueryMonitor queryMonitor;
     private final boolean verboseStats;
     private final boolean cpuTimerEnabled;
+    private final DataSize maxSpeculativeStagedSize;
 
     public SqlTaskExecutionFactory(
             Executor taskNotificationExecutor,
@@ -57,6 +59,8 @@ public class SqlTaskExecutionFactory
         requireNonNull(config, "config is null");
         this.verboseStats = config.isVerboseStats();
         this.cpuTimerEnabled = config.isTaskCpuTimerEnabled();
+        // a speculatively executed split may hold back as much output as the output buffer holds
+        this.maxSpeculativeStagedSize = config.getSinkMaxBufferSize();
     }
 
     public SqlTaskExecution create(Session session, QueryContext queryContext, TaskStateMachine taskStateMachine, OutputBuffer outputBuffer, PlanFragment fragment, List<TaskSource> sources)
@@ -77,7 +81,8 @@ public class SqlTaskExecutionFactory
                 planner,
                 taskExecutor,
                 taskNotificationExecutor,
-                queryMonitor);
+                queryMonitor,
+                maxSpeculativeStagedSize);
     }
 
     private boolean getVerboseStats(Session session)
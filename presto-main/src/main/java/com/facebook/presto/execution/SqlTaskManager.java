@@ -56,6 +56,7 @@ import javax.inject.Inject;
 import java.io.Closeable;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -181,7 +182,9 @@ public class SqlTaskManager
         coordinatorId = assignments.getCoordinatorId();
 
         for (MemoryPoolAssignment assignment : assignments.getAssignments()) {
-            queryContexts.getUnchecked(assignment.getQueryId()).setMemoryPool(localMemoryManager.getPool(assignment.getPoolId()));
+            QueryContext queryContext = queryContexts.getUnchecked(assignment.getQueryId());
+            queryContext.setMemoryPool(localMemoryManager.getPool(assignment.getPoolId()));
+            queryContext.setPaused(assignments.getPausedQueries().contains(assignment.getQueryId()));
         }
     }
 
@@ -300,6 +303,14 @@ public class SqlTaskManager
         return sqlTask.getTaskInstanceId();
     }
 
+    @Override
+    public Optional<Session> getTaskSession(TaskId taskId)
+    {
+        requireNonNull(taskId, "taskId is null");
+
+        return tasks.getUnchecked(taskId).getSession();
+    }
+
     @Override
     public ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, TaskState currentState)
     {
@@ -330,6 +341,16 @@ public class SqlTaskManager
         return sqlTask.updateTask(session, fragment, sources, outputBuffers);
     }
 
+    @Override
+    public void updateSpeculativeSplits(TaskId taskId, Set<Long> committedSplits, Set<Long> abortedSplits)
+    {
+        requireNonNull(taskId, "taskId is null");
+        requireNonNull(committedSplits, "committedSplits is null");
+        requireNonNull(abortedSplits, "abortedSplits is null");
+
+        tasks.getUnchecked(taskId).updateSpeculativeSplits(committedSplits, abortedSplits);
+    }
+
     @Override
     public ListenableFuture<BufferResult> getTaskResults(TaskId taskId, OutputBufferId bufferId, long startingSequenceId, DataSize maxSize)
     {
@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.sql.gen.CacheStatsMBean;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.primitives.Ints.saturatedCast;
+import static io.airlift.units.Duration.succinctNanos;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Caches parsed statements by their exact text and parsing options, so that clients
+ * repeatedly executing the same prepared statement shapes skip the parser.
+ * <p>
+ * Statement trees are immutable and independent of metadata and transactions, so cached
+ * entries are safe to share between concurrent queries and never need to be invalidated.
+ * <p>
+ * This is only a parse cache. Analysis and planning still run for each query:
+ * <ul>
+ * <li>the analysis resolves names and checks access for the identity of the session</li>
+ * <li>plans hold table layouts bound to the transaction of the query, and the layouts embed
+ * state read at planning time, such as the partitions of a Hive table</li>
+ * <li>connectors expose no catalog or table version that could detect a stale plan</li>
+ * </ul>
+ */
+@ThreadSafe
+public class StatementCache
+{
+    // the text is held as UTF-16, and the statement tree is assumed to take a few times more than the text
+    private static final long ESTIMATED_BYTES_PER_CHARACTER = 2 + 8;
+    private static final long ESTIMATED_ENTRY_OVERHEAD_BYTES = 256;
+
+    private final SqlParser sqlParser;
+    private final boolean enabled;
+    private final Cache<CacheKey, CachedStatement> cache;
+    private final CacheStatsMBean cacheStats;
+    private final TimeStat savedParsingTime = new TimeStat(MILLISECONDS);
+
+    public StatementCache(SqlParser sqlParser, DataSize maxSize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+        this.enabled = maxSize.toBytes() > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((CacheKey key, CachedStatement statement) -> estimateSizeInBytes(key.getSql()))
+                .recordStats()
+                .build();
+        this.cacheStats = new CacheStatsMBean(cache::stats);
+    }
+
+    public ParsedStatement createStatement(String sql, ParsingOptions parsingOptions)
+    {
+        requireNonNull(sql, "sql is null");
+        requireNonNull(parsingOptions, "parsingOptions is null");
+
+        if (!enabled) {
+            return new ParsedStatement(sqlParser.createStatement(sql, parsingOptions), new Duration(0, MILLISECONDS));
+        }
+
+        CacheKey key = new CacheKey(sql, parsingOptions.isParseDecimalLiteralsAsDouble());
+        CachedStatement cached = cache.getIfPresent(key);
+        if (cached != null) {
+            savedParsingTime.add(cached.getParsingNanos(), NANOSECONDS);
+            return new ParsedStatement(cached.getStatement(), succinctNanos(cached.getParsingNanos()));
+        }
+
+        long start = System.nanoTime();
+        Statement statement = sqlParser.createStatement(sql, parsingOptions);
+        cache.put(key, new CachedStatement(statement, System.nanoTime() - start));
+        return new ParsedStatement(statement, new Duration(0, MILLISECONDS));
+    }
+
+    @VisibleForTesting
+    static int estimateSizeInBytes(String sql)
+    {
+        return saturatedCast(ESTIMATED_ENTRY_OVERHEAD_BYTES + ESTIMATED_BYTES_PER_CHARACTER * sql.length());
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getSavedParsingTime()
+    {
+        return savedParsingTime;
+    }
+
+    public static class ParsedStatement
+    {
+        private final Statement statement;
+        private final Duration savedParsingTime;
+
+        public ParsedStatement(Statement statement, Duration savedParsingTime)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.savedParsingTime = requireNonNull(savedParsingTime, "savedParsingTime is null");
+        }
+
+        public Statement getStatement()
+        {
+            return statement;
+        }
+
+        /**
+         * Parsing time avoided by serving the statement from the cache, zero on a miss.
+         */
+        public Duration getSavedParsingTime()
+        {
+            return savedParsingTime;
+        }
+    }
+
+    private static final class CachedStatement
+    {
+        private final Statement statement;
+        private final long parsingNanos;
+
+        private CachedStatement(Statement statement, long parsingNanos)
+        {
+            this.statement = statement;
+            this.parsingNanos = parsingNanos;
+        }
+
+        public Statement getStatement()
+        {
+            return statement;
+        }
+
+        public long getParsingNanos()
+        {
+            return parsingNanos;
+        }
+    }
+
+    private static final class CacheKey
+    {
+        private final String sql;
+        private final boolean parseDecimalLiteralsAsDouble;
+
+        private CacheKey(String sql, boolean parseDecimalLiteralsAsDouble)
+        {
+            this.sql = sql;
+            this.parseDecimalLiteralsAsDouble = parseDecimalLiteralsAsDouble;
+        }
+
+        public String getSql()
+        {
+            return sql;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return parseDecimalLiteralsAsDouble == other.parseDecimalLiteralsAsDouble &&
+                    sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, parseDecimalLiteralsAsDouble);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("sql", sql)
+                    .add("parseDecimalLiteralsAsDouble", parseDecimalLiteralsAsDouble)
+                    .toString();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import io.airlift.units.DataSize;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TaskManager
 {
@@ -77,6 +78,13 @@ public interface TaskManager
      */
     ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, TaskState currentState);
 
+    /**
+     * Gets the session of a task.  The session is available once the task
+     * has been planned, and remains available after the task reaches a final
+     * state, so results read from its output buffers can still be encoded.
+     */
+    Optional<Session> getTaskSession(TaskId taskId);
+
     void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments);
 
     /**
@@ -85,6 +93,12 @@ public interface TaskManager
      */
     TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers);
 
+    /**
+     * Commits or aborts the held back output of speculatively executed splits
+     * of a task.  Unknown splits are ignored.
+     */
+    void updateSpeculativeSplits(TaskId taskId, Set<Long> committedSplits, Set<Long> abortedSplits);
+
     /**
      * Cancels a task.  If the task does not already exist, is is created and then
      * canceled.
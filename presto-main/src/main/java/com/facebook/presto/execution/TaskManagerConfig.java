@@ -46,6 +46,8 @@ public class TaskManagerConfig
     private int maxWorkerThreads = Runtime.getRuntime().availableProcessors() * 2;
     private Integer minDrivers;
     private Integer initialSplitsPerNode;
+    private boolean adaptiveSplitConcurrency;
+    private Integer maxSplitsPerNode;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
@@ -188,6 +190,36 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isAdaptiveSplitConcurrency()
+    {
+        return adaptiveSplitConcurrency;
+    }
+
+    @Config("task.adaptive-split-concurrency-enabled")
+    @ConfigDescription("Adjust the number of concurrent splits per task using the CPU and wall time of the splits")
+    public TaskManagerConfig setAdaptiveSplitConcurrency(boolean adaptiveSplitConcurrency)
+    {
+        this.adaptiveSplitConcurrency = adaptiveSplitConcurrency;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxSplitsPerNode()
+    {
+        if (maxSplitsPerNode == null) {
+            return maxWorkerThreads * 4;
+        }
+        return maxSplitsPerNode;
+    }
+
+    @Config("task.max-splits-per-node")
+    @ConfigDescription("Maximum number of splits each node will run per task when adaptive split concurrency is enabled")
+    public TaskManagerConfig setMaxSplitsPerNode(int maxSplitsPerNode)
+    {
+        this.maxSplitsPerNode = maxSplitsPerNode;
+        return this;
+    }
+
     @MinDuration("1ms")
     public Duration getSplitConcurrencyAdjustmentInterval()
     {
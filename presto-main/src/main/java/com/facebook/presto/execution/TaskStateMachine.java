@@ -40,11 +40,14 @@ public class TaskStateMachine
     private final TaskId taskId;
     private final StateMachine<TaskState> taskState;
     private final LinkedBlockingQueue<Throwable> failureCauses = new LinkedBlockingQueue<>();
+    // incremented whenever a speculatively executed split starts waiting for the coordinator to commit it
+    private final StateMachine<Long> speculativeSplitsVersion;
 
     public TaskStateMachine(TaskId taskId, Executor executor)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         taskState = new StateMachine<>("task " + taskId, executor, TaskState.RUNNING, TERMINAL_TASK_STATES);
+        speculativeSplitsVersion = new StateMachine<>("task " + taskId + " speculative splits", executor, 0L);
         taskState.addStateChangeListener(new StateChangeListener<TaskState>()
         {
             @Override
@@ -83,6 +86,30 @@ public class TaskStateMachine
         return future;
     }
 
+    public long getSpeculativeSplitsVersion()
+    {
+        return speculativeSplitsVersion.get();
+    }
+
+    /**
+     * Gets a future that completes when a speculatively executed split starts
+     * waiting for a decision after the specified version.
+     */
+    public ListenableFuture<Long> getSpeculativeSplitsChange(long currentVersion)
+    {
+        return speculativeSplitsVersion.getStateChange(currentVersion);
+    }
+
+    public void speculativeSplitAwaitingDecision()
+    {
+        while (true) {
+            long version = speculativeSplitsVersion.get();
+            if (speculativeSplitsVersion.compareAndSet(version, version + 1)) {
+                return;
+            }
+        }
+    }
+
     public LinkedBlockingQueue<Throwable> getFailureCauses()
     {
         return failureCauses;
@@ -59,6 +59,21 @@ public class TaskStatus
 
     private final List<ExecutionFailureInfo> failures;
 
+    private final List<SpeculativeSplitStatus> speculativeSplits;
+
+    public TaskStatus(TaskId taskId,
+            String taskInstanceId,
+            long version,
+            TaskState state,
+            URI self,
+            List<ExecutionFailureInfo> failures,
+            int queuedPartitionedDrivers,
+            int runningPartitionedDrivers,
+            DataSize memoryReservation)
+    {
+        this(taskId, taskInstanceId, version, state, self, failures, queuedPartitionedDrivers, runningPartitionedDrivers, memoryReservation, ImmutableList.of());
+    }
+
     @JsonCreator
     public TaskStatus(@JsonProperty("taskId") TaskId taskId,
             @JsonProperty("taskInstanceId") String taskInstanceId,
@@ -68,7 +83,8 @@ public class TaskStatus
             @JsonProperty("failures") List<ExecutionFailureInfo> failures,
             @JsonProperty("queuedPartitionedDrivers") int queuedPartitionedDrivers,
             @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
-            @JsonProperty("memoryReservation") DataSize memoryReservation)
+            @JsonProperty("memoryReservation") DataSize memoryReservation,
+            @JsonProperty("speculativeSplits") List<SpeculativeSplitStatus> speculativeSplits)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
@@ -86,6 +102,7 @@ public class TaskStatus
 
         this.memoryReservation = requireNonNull(memoryReservation, "memoryReservation is null");
         this.failures = ImmutableList.copyOf(requireNonNull(failures, "failures is null"));
+        this.speculativeSplits = ImmutableList.copyOf(requireNonNull(speculativeSplits, "speculativeSplits is null"));
     }
 
     @JsonProperty
@@ -142,6 +159,16 @@ public class TaskStatus
         return memoryReservation;
     }
 
+    /**
+     * Gets the status of the speculatively executed splits that are running or
+     * waiting to be committed.
+     */
+    @JsonProperty
+    public List<SpeculativeSplitStatus> getSpeculativeSplits()
+    {
+        return speculativeSplits;
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,311 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.OutputBuffers;
+import com.facebook.presto.OutputBuffers.OutputBufferId;
+import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds back the pages produced by one copy of a speculatively executed split.
+ * The pages are added to the task output buffer when the coordinator commits this
+ * copy, and are discarded when it commits another copy of the same split instead.
+ * Only the page producing methods may be called by the drivers of the split.
+ * <p>
+ * Once the held back pages exceed the staging limit, the split blocks until the
+ * coordinator decides. If this copy is committed, the held back pages are added to
+ * the task output buffer and the rest of the split is processed without speculation.
+ */
+@ThreadSafe
+public class SpeculativeOutputBuffer
+        implements OutputBuffer
+{
+    private enum SplitState
+    {
+        RUNNING,
+        STAGING_FULL,
+        FINISHED,
+        COMMITTED,
+        ABORTED
+    }
+
+    private final long speculationId;
+    private final OutputBuffer delegate;
+    private final long maxStagedBytes;
+    private final Runnable awaitingDecisionListener;
+    private final SettableFuture<?> decided = SettableFuture.create();
+
+    @GuardedBy("this")
+    private final List<StagedPages> stagedPages = new ArrayList<>();
+
+    @GuardedBy("this")
+    private long stagedBytes;
+
+    @GuardedBy("this")
+    private SplitState state = SplitState.RUNNING;
+
+    public SpeculativeOutputBuffer(long speculationId, OutputBuffer delegate, DataSize maxStagedSize, Runnable awaitingDecisionListener)
+    {
+        this.speculationId = speculationId;
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.maxStagedBytes = requireNonNull(maxStagedSize, "maxStagedSize is null").toBytes();
+        this.awaitingDecisionListener = requireNonNull(awaitingDecisionListener, "awaitingDecisionListener is null");
+    }
+
+    public long getSpeculationId()
+    {
+        return speculationId;
+    }
+
+    /**
+     * Gets the size of the pages held back until this copy of the split is committed.
+     */
+    public synchronized long getStagedBytes()
+    {
+        return stagedBytes;
+    }
+
+    /**
+     * Returns true once the split produced all of its pages or reached the staging limit, until a decision is made.
+     */
+    public synchronized boolean isAwaitingDecision()
+    {
+        return state == SplitState.FINISHED || state == SplitState.STAGING_FULL;
+    }
+
+    /**
+     * Returns true if the split has not produced all of its pages, but waits for a decision as it reached the staging limit.
+     */
+    public synchronized boolean isStagingFull()
+    {
+        return state == SplitState.STAGING_FULL;
+    }
+
+    public synchronized boolean isAborted()
+    {
+        return state == SplitState.ABORTED;
+    }
+
+    /**
+     * Records that the split produced all of its pages.
+     *
+     * @return a future that completes when this copy is either committed or aborted
+     */
+    public ListenableFuture<?> splitFinished()
+    {
+        synchronized (this) {
+            if (state != SplitState.RUNNING) {
+                return decided;
+            }
+            state = SplitState.FINISHED;
+        }
+        awaitingDecisionListener.run();
+        return decided;
+    }
+
+    /**
+     * Adds the staged pages to the task output buffer. The decision future completes
+     * once the task output buffer is no longer full, so a committed split does not
+     * produce more pages than the output buffer limit allows.
+     */
+    public void commit()
+    {
+        List<ListenableFuture<?>> flushed = new ArrayList<>();
+        synchronized (this) {
+            if (state == SplitState.COMMITTED || state == SplitState.ABORTED) {
+                return;
+            }
+            checkState(state == SplitState.FINISHED || state == SplitState.STAGING_FULL, "Split %s can not be committed before it awaits a decision", speculationId);
+            for (StagedPages pages : stagedPages) {
+                if (pages.getPartition().isPresent()) {
+                    flushed.add(delegate.enqueue(pages.getPartition().getAsInt(), pages.getPages()));
+                }
+                else {
+                    flushed.add(delegate.enqueue(pages.getPages()));
+                }
+            }
+            stagedPages.clear();
+            stagedBytes = 0;
+            state = SplitState.COMMITTED;
+        }
+        allAsList(flushed).addListener(() -> decided.set(null), directExecutor());
+    }
+
+    /**
+     * Discards the staged pages and any pages produced from now on.
+     */
+    public void abortSplit()
+    {
+        synchronized (this) {
+            if (state == SplitState.COMMITTED || state == SplitState.ABORTED) {
+                return;
+            }
+            stagedPages.clear();
+            stagedBytes = 0;
+            state = SplitState.ABORTED;
+        }
+        decided.set(null);
+    }
+
+    @Override
+    public ListenableFuture<?> enqueue(List<SerializedPage> pages)
+    {
+        return stage(OptionalInt.empty(), pages);
+    }
+
+    @Override
+    public ListenableFuture<?> enqueue(int partition, List<SerializedPage> pages)
+    {
+        return stage(OptionalInt.of(partition), pages);
+    }
+
+    private ListenableFuture<?> stage(OptionalInt partition, List<SerializedPage> pages)
+    {
+        requireNonNull(pages, "pages is null");
+        synchronized (this) {
+            if (state == SplitState.ABORTED) {
+                return immediateFuture(null);
+            }
+            if (state == SplitState.COMMITTED) {
+                // the split is no longer executed speculatively
+                if (partition.isPresent()) {
+                    return delegate.enqueue(partition.getAsInt(), pages);
+                }
+                return delegate.enqueue(pages);
+            }
+            checkState(state == SplitState.RUNNING, "Split %s already awaits a decision", speculationId);
+
+            stagedPages.add(new StagedPages(partition, pages));
+            for (SerializedPage page : pages) {
+                stagedBytes += page.getRetainedSizeInBytes();
+            }
+            if (stagedBytes < maxStagedBytes) {
+                return immediateFuture(null);
+            }
+            state = SplitState.STAGING_FULL;
+        }
+        awaitingDecisionListener.run();
+        return decided;
+    }
+
+    @Override
+    public OutputBufferInfo getInfo()
+    {
+        return delegate.getInfo();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public double getUtilization()
+    {
+        return delegate.getUtilization();
+    }
+
+    @Override
+    public void addStateChangeListener(StateChangeListener<BufferState> stateChangeListener)
+    {
+        delegate.addStateChangeListener(stateChangeListener);
+    }
+
+    @Override
+    public void setOutputBuffers(OutputBuffers newOutputBuffers)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long token, DataSize maxSize)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void abort(OutputBufferId bufferId)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNoMorePages()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void destroy()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void fail()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("speculationId", speculationId)
+                .add("state", state)
+                .add("stagedBytes", stagedBytes)
+                .toString();
+    }
+
+    private static class StagedPages
+    {
+        private final OptionalInt partition;
+        private final List<SerializedPage> pages;
+
+        public StagedPages(OptionalInt partition, List<SerializedPage> pages)
+        {
+            this.partition = requireNonNull(partition, "partition is null");
+            this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+        }
+
+        public OptionalInt getPartition()
+        {
+            return partition;
+        }
+
+        public List<SerializedPage> getPages()
+        {
+            return pages;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static com.facebook.presto.operator.BlockedReason.WAITING_FOR_MEMORY;
 import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -166,7 +167,9 @@ class PrioritizedSplitRunner
             long quantaScheduledNanos = elapsed.getWall().roundTo(NANOSECONDS);
             scheduledNanos.addAndGet(quantaScheduledNanos);
 
-            long taskScheduledTimeNanos = taskHandle.addThreadUsageNanos(quantaScheduledNanos);
+            long quantaCpuNanos = elapsed.getCpu().roundTo(NANOSECONDS);
+            boolean waitingForMemory = blocked != NOT_BLOCKED && split.getBlockedReasons().contains(WAITING_FOR_MEMORY);
+            long taskScheduledTimeNanos = taskHandle.addThreadUsageNanos(quantaScheduledNanos, quantaCpuNanos, waitingForMemory);
             taskScheduledNanos.set(taskScheduledTimeNanos);
 
             priorityLevel.set(calculatePriorityLevel(taskScheduledTimeNanos));
@@ -182,7 +185,6 @@ class PrioritizedSplitRunner
                 blockedQuantaWallTime.add(elapsed.getWall());
             }
 
-            long quantaCpuNanos = elapsed.getCpu().roundTo(NANOSECONDS);
             cpuTimeNanos.addAndGet(quantaCpuNanos);
 
             globalCpuTimeMicros.update(quantaCpuNanos / 1000);
@@ -25,6 +25,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.DoubleSupplier;
@@ -50,19 +51,38 @@ public class TaskHandle
     private boolean destroyed;
     @GuardedBy("this")
     private final SplitConcurrencyController concurrencyController;
+    private final boolean adaptiveSplitConcurrency;
 
     private final AtomicInteger nextSplitId = new AtomicInteger();
 
     public TaskHandle(TaskId taskId, DoubleSupplier utilizationSupplier, int initialSplitConcurrency, Duration splitConcurrencyAdjustFrequency)
+    {
+        this(taskId, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, OptionalInt.empty());
+    }
+
+    /**
+     * @param maxSplitConcurrency when present, the leaf split concurrency also adapts to the CPU
+     * and wall time of the splits, up to this limit
+     */
+    public TaskHandle(TaskId taskId, DoubleSupplier utilizationSupplier, int initialSplitConcurrency, Duration splitConcurrencyAdjustFrequency, OptionalInt maxSplitConcurrency)
     {
         this.taskId = taskId;
         this.utilizationSupplier = utilizationSupplier;
-        this.concurrencyController = new SplitConcurrencyController(initialSplitConcurrency, splitConcurrencyAdjustFrequency);
+        this.adaptiveSplitConcurrency = maxSplitConcurrency.isPresent();
+        this.concurrencyController = new SplitConcurrencyController(
+                initialSplitConcurrency,
+                Math.max(initialSplitConcurrency, maxSplitConcurrency.orElse(Integer.MAX_VALUE)),
+                splitConcurrencyAdjustFrequency);
     }
 
-    public synchronized long addThreadUsageNanos(long durationNanos)
+    public synchronized long addThreadUsageNanos(long durationNanos, long cpuNanos, boolean waitingForMemory)
     {
-        concurrencyController.update(durationNanos, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
+        if (adaptiveSplitConcurrency) {
+            concurrencyController.update(durationNanos, cpuNanos, waitingForMemory, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
+        }
+        else {
+            concurrencyController.update(durationNanos, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
+        }
         taskThreadUsageNanos += durationNanos;
         return taskThreadUsageNanos;
     }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.execution.resourceGroups;
 
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.execution.QueryExecution;
 import com.facebook.presto.execution.QueryState;
 import com.facebook.presto.spi.PrestoException;
@@ -48,14 +49,18 @@ import static com.facebook.presto.spi.resourceGroups.ResourceGroupState.FULL;
 import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.FAIR;
 import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.QUERY_PRIORITY;
 import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.WEIGHTED;
+import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.WEIGHTED_FAIR;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.lang.Double.isFinite;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
  * Resource groups form a tree, and all access to a group is guarded by the root of the tree.
@@ -69,6 +74,11 @@ public class InternalResourceGroup
 {
     public static final int DEFAULT_WEIGHT = 1;
 
+    // Resource usage window used by the weighted fair scheduling policy
+    private static final Duration USAGE_WINDOW = new Duration(5, MINUTES);
+    // Weight of the most recent query when calibrating plan cost estimates against the actual CPU time
+    private static final double CPU_COST_CALIBRATION_WEIGHT = 0.1;
+
     private final InternalResourceGroup root;
     private final Optional<InternalResourceGroup> parent;
     private final ResourceGroupId id;
@@ -102,15 +112,34 @@ public class InternalResourceGroup
     private int descendantRunningQueries;
     @GuardedBy("root")
     private int descendantQueuedQueries;
+    @GuardedBy("root")
+    private int descendantHeldQueries;
     // Memory usage is cached because it changes very rapidly while queries are running, and would be expensive to track continuously
     @GuardedBy("root")
     private long cachedMemoryUsageBytes;
+    // Cumulative CPU time of this group, including its running queries, as of the last stats refresh
+    @GuardedBy("root")
+    private long cachedCumulativeCpuMillis;
+    // CPU time the running queries are still expected to use, based on the cost estimates of their plans
+    @GuardedBy("root")
+    private long cachedPredictedCpuMillis;
+    @GuardedBy("root")
+    private long finishedQueriesCpuMillis;
+    @GuardedBy("root")
+    private final ResourceUsageWindow usageWindow = new ResourceUsageWindow(USAGE_WINDOW, System.nanoTime());
+    // Actual CPU milliseconds per unit of estimated plan CPU cost. Only maintained by the root group.
+    @GuardedBy("root")
+    private double cpuMillisPerCostUnit = Double.NaN;
     @GuardedBy("root")
     private int schedulingWeight = DEFAULT_WEIGHT;
     @GuardedBy("root")
     private UpdateablePriorityQueue<QueryExecution> queuedQueries = new FifoQueue<>();
     @GuardedBy("root")
     private final Set<QueryExecution> runningQueries = new HashSet<>();
+    // Started queries held until their estimated peak memory is available. They do not count against the running
+    // limits, so they cannot keep the group from starting other queries, but they do count against the queued limit.
+    @GuardedBy("root")
+    private final Set<QueryExecution> heldQueries = new HashSet<>();
     @GuardedBy("root")
     private SchedulingPolicy schedulingPolicy = FAIR;
     @GuardedBy("root")
@@ -139,7 +168,7 @@ public class InternalResourceGroup
     public ResourceGroupInfo getInfo()
     {
         synchronized (root) {
-            checkState(!subGroups.isEmpty() || (descendantRunningQueries == 0 && descendantQueuedQueries == 0), "Leaf resource group has descendant queries.");
+            checkState(!subGroups.isEmpty() || (descendantRunningQueries == 0 && descendantQueuedQueries == 0 && descendantHeldQueries == 0), "Leaf resource group has descendant queries.");
 
             List<ResourceGroupInfo> infos = subGroups.values().stream()
                     .map(InternalResourceGroup::getInfo)
@@ -192,6 +221,14 @@ public class InternalResourceGroup
         }
     }
 
+    @Managed
+    public int getQueriesWaitingForMemoryAdmission()
+    {
+        synchronized (root) {
+            return heldQueries.size() + descendantHeldQueries;
+        }
+    }
+
     @Managed
     public int getWaitingQueuedQueries()
     {
@@ -390,6 +427,11 @@ public class InternalResourceGroup
                     queue = new StochasticPriorityQueue<>();
                     queryQueue = new StochasticPriorityQueue<>();
                     break;
+                case WEIGHTED_FAIR:
+                    // Sub groups are selected by their resource usage, see pollLeastUsedSubGroup()
+                    queue = new FifoQueue<>();
+                    queryQueue = new FifoQueue<>();
+                    break;
                 case QUERY_PRIORITY:
                     // Sub groups must use query priority to ensure ordering
                     for (InternalResourceGroup group : subGroups.values()) {
@@ -468,7 +510,7 @@ public class InternalResourceGroup
     {
         requireNonNull(name, "name is null");
         synchronized (root) {
-            checkArgument(runningQueries.isEmpty() && queuedQueries.isEmpty(), "Cannot add sub group to %s while queries are running", id);
+            checkArgument(runningQueries.isEmpty() && queuedQueries.isEmpty() && heldQueries.isEmpty(), "Cannot add sub group to %s while queries are running", id);
             if (subGroups.containsKey(name)) {
                 return subGroups.get(name);
             }
@@ -514,6 +556,7 @@ public class InternalResourceGroup
                     queryFinished(query);
                 }
             });
+            query.addMemoryAdmissionStateChangeListener(waiting -> updateMemoryAdmission(query));
             if (query.getState().isDone()) {
                 queryFinished(query);
             }
@@ -568,10 +611,42 @@ public class InternalResourceGroup
         }
     }
 
+    // Listeners may be notified out of order, so the query's current admission state is used rather than the notified one
+    private void updateMemoryAdmission(QueryExecution query)
+    {
+        synchronized (root) {
+            if (query.getState().isDone()) {
+                return;
+            }
+            if (query.isWaitingForMemoryAdmission() && runningQueries.remove(query)) {
+                heldQueries.add(query);
+                InternalResourceGroup group = this;
+                while (group.parent.isPresent()) {
+                    group.parent.get().descendantRunningQueries--;
+                    group.parent.get().descendantHeldQueries++;
+                    group = group.parent.get();
+                }
+                updateEligiblility();
+            }
+            else if (!query.isWaitingForMemoryAdmission() && heldQueries.remove(query)) {
+                // An admitted query runs even if the group has started other queries up to its limit in the meantime
+                runningQueries.add(query);
+                InternalResourceGroup group = this;
+                while (group.parent.isPresent()) {
+                    group.parent.get().descendantHeldQueries--;
+                    group.parent.get().descendantRunningQueries++;
+                    group.parent.get().dirtySubGroups.add(group);
+                    group = group.parent.get();
+                }
+                updateEligiblility();
+            }
+        }
+    }
+
     private void queryFinished(QueryExecution query)
     {
         synchronized (root) {
-            if (!runningQueries.contains(query) && !queuedQueries.contains(query)) {
+            if (!runningQueries.contains(query) && !queuedQueries.contains(query) && !heldQueries.contains(query)) {
                 // Query has already been cleaned up
                 return;
             }
@@ -588,14 +663,27 @@ public class InternalResourceGroup
                     group = group.parent.orElse(null);
                 }
             }
+            if (query.getState() == QueryState.FINISHED) {
+                calibrateCpuCost(query);
+            }
             if (runningQueries.contains(query)) {
                 runningQueries.remove(query);
+                finishedQueriesCpuMillis += query.getTotalCpuTime().toMillis();
                 InternalResourceGroup group = this;
                 while (group.parent.isPresent()) {
                     group.parent.get().descendantRunningQueries--;
                     group = group.parent.get();
                 }
             }
+            else if (heldQueries.contains(query)) {
+                heldQueries.remove(query);
+                finishedQueriesCpuMillis += query.getTotalCpuTime().toMillis();
+                InternalResourceGroup group = this;
+                while (group.parent.isPresent()) {
+                    group.parent.get().descendantHeldQueries--;
+                    group = group.parent.get();
+                }
+            }
             else {
                 queuedQueries.remove(query);
                 InternalResourceGroup group = this;
@@ -615,8 +703,13 @@ public class InternalResourceGroup
         synchronized (root) {
             if (subGroups.isEmpty()) {
                 cachedMemoryUsageBytes = 0;
+                cachedCumulativeCpuMillis = finishedQueriesCpuMillis;
+                cachedPredictedCpuMillis = 0;
                 for (QueryExecution query : runningQueries) {
                     cachedMemoryUsageBytes += query.getTotalMemoryReservation();
+                    long cpuMillis = query.getTotalCpuTime().toMillis();
+                    cachedCumulativeCpuMillis += cpuMillis;
+                    cachedPredictedCpuMillis += max(0, getPredictedCpuMillis(query) - cpuMillis);
                 }
             }
             else {
@@ -624,8 +717,12 @@ public class InternalResourceGroup
                     InternalResourceGroup subGroup = iterator.next();
                     long oldMemoryUsageBytes = subGroup.cachedMemoryUsageBytes;
                     cachedMemoryUsageBytes -= oldMemoryUsageBytes;
+                    cachedCumulativeCpuMillis -= subGroup.cachedCumulativeCpuMillis;
+                    cachedPredictedCpuMillis -= subGroup.cachedPredictedCpuMillis;
                     subGroup.internalRefreshStats();
                     cachedMemoryUsageBytes += subGroup.cachedMemoryUsageBytes;
+                    cachedCumulativeCpuMillis += subGroup.cachedCumulativeCpuMillis;
+                    cachedPredictedCpuMillis += subGroup.cachedPredictedCpuMillis;
                     if (!subGroup.isDirty()) {
                         iterator.remove();
                     }
@@ -634,6 +731,38 @@ public class InternalResourceGroup
                     }
                 }
             }
+            usageWindow.record(System.nanoTime(), cachedCumulativeCpuMillis, cachedMemoryUsageBytes);
+        }
+    }
+
+    private long getPredictedCpuMillis(QueryExecution query)
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock");
+        synchronized (root) {
+            Optional<PlanNodeCostEstimate> cost = query.getEstimatedCost();
+            if (Double.isNaN(root.cpuMillisPerCostUnit) || !cost.isPresent() || !isFinite(cost.get().getCpuCost())) {
+                return 0;
+            }
+            return (long) (cost.get().getCpuCost() * root.cpuMillisPerCostUnit);
+        }
+    }
+
+    // The CPU cost of a plan is not measured in time, so the conversion is learned from the queries that finished
+    private void calibrateCpuCost(QueryExecution query)
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock");
+        synchronized (root) {
+            Optional<PlanNodeCostEstimate> cost = query.getEstimatedCost();
+            if (!cost.isPresent() || !isFinite(cost.get().getCpuCost()) || cost.get().getCpuCost() <= 0) {
+                return;
+            }
+            double cpuMillisPerCostUnit = query.getTotalCpuTime().getValue(MILLISECONDS) / cost.get().getCpuCost();
+            if (Double.isNaN(root.cpuMillisPerCostUnit)) {
+                root.cpuMillisPerCostUnit = cpuMillisPerCostUnit;
+            }
+            else {
+                root.cpuMillisPerCostUnit += (cpuMillisPerCostUnit - root.cpuMillisPerCostUnit) * CPU_COST_CALIBRATION_WEIGHT;
+            }
         }
     }
 
@@ -675,7 +804,13 @@ public class InternalResourceGroup
             }
 
             // Remove even if the sub group still has queued queries, so that it goes to the back of the queue
-            InternalResourceGroup subGroup = eligibleSubGroups.poll();
+            InternalResourceGroup subGroup;
+            if (schedulingPolicy == WEIGHTED_FAIR) {
+                subGroup = pollLeastUsedSubGroup();
+            }
+            else {
+                subGroup = eligibleSubGroups.poll();
+            }
             if (subGroup == null) {
                 return false;
             }
@@ -690,6 +825,38 @@ public class InternalResourceGroup
         }
     }
 
+    // Selects the eligible sub group with the lowest share of the CPU time and memory used by this group
+    // over the usage window, relative to its scheduling weight. Ties go to the sub group that waited longest.
+    private InternalResourceGroup pollLeastUsedSubGroup()
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock");
+        synchronized (root) {
+            long nowNanos = System.nanoTime();
+            long totalCpuMillis = usageWindow.getCpuMillis(nowNanos) + cachedPredictedCpuMillis;
+            long totalMemoryBytes = usageWindow.getAverageMemoryBytes(nowNanos);
+            InternalResourceGroup selected = null;
+            double selectedShare = Double.POSITIVE_INFINITY;
+            for (InternalResourceGroup group : eligibleSubGroups) {
+                double share = 0;
+                if (totalCpuMillis > 0) {
+                    share += (group.usageWindow.getCpuMillis(nowNanos) + group.cachedPredictedCpuMillis) / (double) totalCpuMillis;
+                }
+                if (totalMemoryBytes > 0) {
+                    share += group.usageWindow.getAverageMemoryBytes(nowNanos) / (double) totalMemoryBytes;
+                }
+                share /= group.schedulingWeight;
+                if (share < selectedShare) {
+                    selected = group;
+                    selectedShare = share;
+                }
+            }
+            if (selected != null) {
+                eligibleSubGroups.remove(selected);
+            }
+            return selected;
+        }
+    }
+
     protected void enforceTimeLimits()
     {
         checkState(Thread.holdsLock(root), "Must hold lock to enforce time limits");
@@ -757,7 +924,7 @@ public class InternalResourceGroup
     {
         checkState(Thread.holdsLock(root), "Must hold lock");
         synchronized (root) {
-            return descendantQueuedQueries + queuedQueries.size() < maxQueuedQueries;
+            return descendantQueuedQueries + queuedQueries.size() + descendantHeldQueries + heldQueries.size() < maxQueuedQueries;
         }
     }
 
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.resourceGroups;
+
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Resource consumption of a resource group over a sliding window, computed from periodic
+ * samples of its cumulative CPU time and its current memory usage.
+ */
+@NotThreadSafe
+final class ResourceUsageWindow
+{
+    // Samples are kept at least this far apart, to bound the number of samples in the window
+    private static final long SAMPLE_INTERVAL_NANOS = SECONDS.toNanos(1);
+
+    private final long windowNanos;
+    // The first sample is at or before the start of the window, unless the window is not full yet
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private long currentCpuMillis;
+
+    public ResourceUsageWindow(Duration window, long nowNanos)
+    {
+        requireNonNull(window, "window is null");
+        this.windowNanos = window.roundTo(NANOSECONDS);
+        checkArgument(windowNanos > 0, "window must be positive");
+        samples.add(new Sample(nowNanos, 0, 0));
+    }
+
+    public void record(long nowNanos, long cumulativeCpuMillis, long memoryBytes)
+    {
+        currentCpuMillis = cumulativeCpuMillis;
+        if (nowNanos - samples.getLast().getNanos() >= SAMPLE_INTERVAL_NANOS) {
+            samples.add(new Sample(nowNanos, cumulativeCpuMillis, memoryBytes));
+        }
+        else {
+            // keep the memory usage of the latest sample up to date
+            Sample last = samples.removeLast();
+            samples.add(new Sample(last.getNanos(), last.getCpuMillis(), memoryBytes));
+        }
+        evict(nowNanos);
+    }
+
+    /**
+     * Returns the CPU time used within the window.
+     */
+    public long getCpuMillis(long nowNanos)
+    {
+        evict(nowNanos);
+        return max(0, currentCpuMillis - samples.getFirst().getCpuMillis());
+    }
+
+    /**
+     * Returns the time weighted average memory usage within the window.
+     */
+    public long getAverageMemoryBytes(long nowNanos)
+    {
+        evict(nowNanos);
+        long windowStart = nowNanos - windowNanos;
+        double weightedBytes = 0;
+        long totalNanos = 0;
+        Iterator<Sample> iterator = samples.iterator();
+        Sample sample = iterator.next();
+        while (sample != null) {
+            Sample next = iterator.hasNext() ? iterator.next() : null;
+            long start = max(sample.getNanos(), windowStart);
+            long end = next == null ? nowNanos : next.getNanos();
+            if (end > start) {
+                weightedBytes += (double) sample.getMemoryBytes() * (end - start);
+                totalNanos += end - start;
+            }
+            sample = next;
+        }
+        if (totalNanos == 0) {
+            return samples.getLast().getMemoryBytes();
+        }
+        return (long) (weightedBytes / totalNanos);
+    }
+
+    private void evict(long nowNanos)
+    {
+        long windowStart = nowNanos - windowNanos;
+        while (samples.size() > 1) {
+            Iterator<Sample> iterator = samples.iterator();
+            iterator.next();
+            if (iterator.next().getNanos() > windowStart) {
+                return;
+            }
+            samples.removeFirst();
+        }
+    }
+
+    private static final class Sample
+    {
+        private final long nanos;
+        private final long cpuMillis;
+        private final long memoryBytes;
+
+        private Sample(long nanos, long cpuMillis, long memoryBytes)
+        {
+            this.nanos = nanos;
+            this.cpuMillis = cpuMillis;
+            this.memoryBytes = memoryBytes;
+        }
+
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        public long getCpuMillis()
+        {
+            return cpuMillis;
+        }
+
+        public long getMemoryBytes()
+        {
+            return memoryBytes;
+        }
+    }
+}
@@ -0,0 +1,546 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.resultcache;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.PagesSerdeFactory;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.analyzer.Analysis;
+import com.facebook.presto.sql.gen.CacheStatsMBean;
+import com.facebook.presto.sql.planner.DeterminismEvaluator;
+import com.facebook.presto.sql.planner.plan.IndexSourceNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.SampleNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.CurrentTime;
+import com.facebook.presto.sql.tree.DefaultExpressionTraversalVisitor;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.QualifiedName;
+import com.facebook.presto.sql.tree.Query;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.AbstractCache.StatsCounter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.SystemSessionProperties.isResultCacheEnabled;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readPages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writePages;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.sql.SqlFormatter.formatSql;
+import static com.facebook.presto.sql.planner.ExpressionExtractor.extractExpressions;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stores the results of deterministic queries on the local disk of the coordinator, so that
+ * repeated queries over data that did not change are answered without scheduling any stages.
+ * <p>
+ * A result is keyed by the statement text, the definitions of the views it reads, the session
+ * properties and the data versions reported by the connectors for every scanned table layout.
+ * Queries reading a table whose connector does not report a data version are never cached.
+ */
+@ThreadSafe
+public class QueryResultCache
+{
+    private static final Logger log = Logger.get(QueryResultCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".result-cache";
+
+    // functions that are deterministic within a query, but return a different value for every query
+    private static final Set<QualifiedName> QUERY_TIME_FUNCTIONS = ImmutableSet.of(
+            QualifiedName.of("now"),
+            QualifiedName.of("current_date"),
+            QualifiedName.of("current_time"),
+            QualifiedName.of("current_timestamp"),
+            QualifiedName.of("localtime"),
+            QualifiedName.of("localtimestamp"));
+
+    private final Optional<Path> directory;
+    private final long maxSizeInBytes;
+    private final long maxEntrySizeInBytes;
+    private final Duration ttl;
+    private final String serverVersion;
+    private final Metadata metadata;
+    private final PagesSerde serde;
+    private final AtomicLong sizeInBytes = new AtomicLong();
+    private final AtomicLong storedResults = new AtomicLong();
+    private final Map<QueryId, CachedResult> pinnedResults = new ConcurrentHashMap<>();
+    private final StatsCounter stats = new SimpleStatsCounter();
+
+    @Inject
+    public QueryResultCache(QueryResultCacheConfig config, Metadata metadata, BlockEncodingSerde blockEncodingSerde, NodeVersion nodeVersion)
+    {
+        this(
+                Optional.ofNullable(config.getDirectory()).map(Paths::get),
+                config.getMaxSize(),
+                config.getMaxEntrySize(),
+                config.getTtl(),
+                nodeVersion.getVersion(),
+                metadata,
+                blockEncodingSerde);
+    }
+
+    public QueryResultCache(
+            Optional<Path> directory,
+            DataSize maxSize,
+            DataSize maxEntrySize,
+            Duration ttl,
+            String serverVersion,
+            Metadata metadata,
+            BlockEncodingSerde blockEncodingSerde)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.maxSizeInBytes = requireNonNull(maxSize, "maxSize is null").toBytes();
+        this.maxEntrySizeInBytes = Math.min(requireNonNull(maxEntrySize, "maxEntrySize is null").toBytes(), maxSizeInBytes);
+        this.ttl = requireNonNull(ttl, "ttl is null");
+        this.serverVersion = requireNonNull(serverVersion, "serverVersion is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.serde = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), false).createPagesSerde();
+
+        if (directory.isPresent()) {
+            try {
+                Files.createDirectories(directory.get());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Failed to create query result cache directory " + directory.get(), e);
+            }
+            evictIfNecessary();
+        }
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getStats()
+    {
+        return new CacheStatsMBean(stats::snapshot);
+    }
+
+    @Managed
+    public long getSizeInBytes()
+    {
+        return sizeInBytes.get();
+    }
+
+    @Managed
+    public long getStoredResults()
+    {
+        return storedResults.get();
+    }
+
+    public boolean isEnabled(Session session)
+    {
+        return directory.isPresent() && isResultCacheEnabled(session);
+    }
+
+    public long getMaxEntrySizeInBytes()
+    {
+        return maxEntrySizeInBytes;
+    }
+
+    /**
+     * Returns the key of the results of the analyzed and planned query, or empty if
+     * executing the query again could produce different results.
+     */
+    public Optional<String> getCacheKey(Session session, Analysis analysis, PlanNode root)
+    {
+        if (!(analysis.getStatement() instanceof Query) || analysis.getUpdateType() != null || !isDeterministic(root)) {
+            return Optional.empty();
+        }
+
+        Hasher hasher = sha256().newHasher().putInt(FORMAT_VERSION);
+        putString(hasher, serverVersion);
+        putString(hasher, formatSql(analysis.getStatement(), Optional.of(analysis.getParameters())));
+        // view definitions can change without changing the data of the tables they read
+        analysis.getNamedQueries().stream()
+                .map(namedQuery -> formatSql(namedQuery, Optional.of(analysis.getParameters())))
+                .sorted()
+                .forEach(namedQuery -> putString(hasher, namedQuery));
+
+        putString(hasher, session.getCatalog().orElse(""));
+        putString(hasher, session.getSchema().orElse(""));
+        putString(hasher, session.getTimeZoneKey().getId());
+        putString(hasher, session.getLocale().toLanguageTag());
+        putProperties(hasher, session.getSystemProperties());
+        session.getConnectorProperties().entrySet().stream()
+                .sorted(Comparator.comparing(entry -> entry.getKey().toString()))
+                .forEach(entry -> {
+                    putString(hasher, entry.getKey().toString());
+                    putProperties(hasher, entry.getValue());
+                });
+
+        List<TableScanNode> tableScans = searchFrom(root)
+                .where(TableScanNode.class::isInstance)
+                .findAll();
+        for (TableScanNode tableScan : tableScans) {
+            if (!tableScan.getLayout().isPresent()) {
+                return Optional.empty();
+            }
+            Optional<String> version = metadata.getDataVersion(session, tableScan.getLayout().get());
+            if (!version.isPresent()) {
+                return Optional.empty();
+            }
+            putString(hasher, tableScan.getTable().toString());
+            putString(hasher, version.get());
+        }
+
+        return Optional.of(hasher.hash().toString());
+    }
+
+    /**
+     * Opens the cached results for the key and holds them for the query until they are taken
+     * with {@link #takePinnedResult}. The open results remain readable even if the entry is
+     * evicted or expires in the meantime. Returns false if no results are cached for the key.
+     */
+    public boolean pin(QueryId queryId, String key)
+    {
+        requireNonNull(queryId, "queryId is null");
+        Optional<CachedResult> result = get(key);
+        if (!result.isPresent()) {
+            return false;
+        }
+        closeQuietly(pinnedResults.put(queryId, result.get()));
+        return true;
+    }
+
+    /**
+     * Returns the results pinned for the query. The caller must close the returned result.
+     */
+    public Optional<CachedResult> takePinnedResult(QueryId queryId)
+    {
+        return Optional.ofNullable(pinnedResults.remove(queryId));
+    }
+
+    /**
+     * Closes the results pinned for the query, if they were never taken.
+     */
+    public void releasePinnedResult(QueryId queryId)
+    {
+        closeQuietly(pinnedResults.remove(queryId));
+    }
+
+    /**
+     * Opens the cached results for the key, and records the lookup in the cache statistics.
+     * The caller must close the returned result.
+     */
+    public Optional<CachedResult> get(String key)
+    {
+        if (!directory.isPresent()) {
+            return Optional.empty();
+        }
+
+        Path file = getFile(key);
+        SliceInput input = null;
+        try {
+            input = new InputStreamSliceInput(Files.newInputStream(file));
+            if (input.readInt() != FORMAT_VERSION || isExpired(input.readLong())) {
+                input.close();
+                deleteEntry(file);
+                stats.recordMisses(1);
+                return Optional.empty();
+            }
+            // eviction removes the least recently used entries first, so mark the entry as used
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            int typeCount = input.readInt();
+            ImmutableList.Builder<Type> types = ImmutableList.builder();
+            for (int i = 0; i < typeCount; i++) {
+                types.add(metadata.getType(parseTypeSignature(input.readSlice(input.readInt()).toStringUtf8())));
+            }
+            stats.recordHits(1);
+            return Optional.of(new CachedResult(types.build(), readPages(serde, input), input));
+        }
+        catch (NoSuchFileException e) {
+            stats.recordMisses(1);
+            return Optional.empty();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to read cached query result %s", file);
+            closeQuietly(input);
+            stats.recordMisses(1);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the results for the key, unless they are larger than the maximum entry size.
+     */
+    public void put(String key, List<Type> types, List<Page> pages)
+    {
+        if (!directory.isPresent()) {
+            return;
+        }
+
+        long retainedSize = pages.stream()
+                .mapToLong(Page::getSizeInBytes)
+                .sum();
+        if (retainedSize > maxEntrySizeInBytes) {
+            return;
+        }
+
+        Path file = getFile(key);
+        try {
+            // write to a temporary file first, so readers never see a partial entry
+            Path temporary = Files.createTempFile(directory.get(), "tmp", ".tmp");
+            try (SliceOutput output = new OutputStreamSliceOutput(Files.newOutputStream(temporary))) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(System.currentTimeMillis());
+                output.writeInt(types.size());
+                for (Type type : types) {
+                    byte[] signature = type.getTypeSignature().toString().getBytes(UTF_8);
+                    output.writeInt(signature.length);
+                    output.writeBytes(signature);
+                }
+                writePages(serde, output, pages.iterator());
+            }
+            long size = Files.size(temporary);
+            // an entry stored for the same key by another query is replaced, and no longer takes space
+            long replacedSize = getSize(file);
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            storedResults.incrementAndGet();
+
+            if (sizeInBytes.addAndGet(size - replacedSize) > maxSizeInBytes) {
+                evictIfNecessary();
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            // the cache is an optimization, so a failed write does not fail the query
+            log.warn(e, "Failed to write cached query result %s", file);
+        }
+    }
+
+    private Path getFile(String key)
+    {
+        return directory.get().resolve(key + FILE_SUFFIX);
+    }
+
+    private boolean isExpired(long createTimeMillis)
+    {
+        return System.currentTimeMillis() - createTimeMillis > ttl.toMillis();
+    }
+
+    private synchronized void evictIfNecessary()
+    {
+        List<Path> files = listEntries();
+        long totalSize = files.stream()
+                .mapToLong(QueryResultCache::getSize)
+                .sum();
+
+        // evict the least recently used entries, leaving some headroom so eviction does not run on every write
+        long targetSize = maxSizeInBytes - maxSizeInBytes / 10;
+        if (totalSize > maxSizeInBytes) {
+            Iterator<Path> oldestFirst = files.stream()
+                    .sorted(Comparator.comparing(QueryResultCache::getLastModifiedTime))
+                    .iterator();
+            while (totalSize > targetSize && oldestFirst.hasNext()) {
+                Path file = oldestFirst.next();
+                totalSize -= getSize(file);
+                deleteQuietly(file);
+            }
+        }
+        sizeInBytes.set(totalSize);
+    }
+
+    private void deleteEntry(Path file)
+    {
+        long size = getSize(file);
+        try {
+            if (Files.deleteIfExists(file)) {
+                sizeInBytes.addAndGet(-size);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached query result %s", file);
+        }
+    }
+
+    private List<Path> listEntries()
+    {
+        try (Stream<Path> files = Files.list(directory.get())) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .collect(toImmutableList());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isDeterministic(PlanNode root)
+    {
+        boolean sampled = searchFrom(root)
+                .where(node -> node instanceof SampleNode || node instanceof IndexSourceNode)
+                .matches();
+        if (sampled) {
+            return false;
+        }
+        return extractExpressions(root).stream()
+                .allMatch(expression -> DeterminismEvaluator.isDeterministic(expression) && !dependsOnQueryTime(expression));
+    }
+
+    private static boolean dependsOnQueryTime(Expression expression)
+    {
+        AtomicBoolean dependsOnQueryTime = new AtomicBoolean();
+        new DefaultExpressionTraversalVisitor<Void, AtomicBoolean>()
+        {
+            @Override
+            protected Void visitCurrentTime(CurrentTime node, AtomicBoolean context)
+            {
+                context.set(true);
+                return null;
+            }
+
+            @Override
+            protected Void visitFunctionCall(FunctionCall node, AtomicBoolean context)
+            {
+                if (QUERY_TIME_FUNCTIONS.contains(node.getName())) {
+                    context.set(true);
+                }
+                return super.visitFunctionCall(node, context);
+            }
+        }.process(expression, dependsOnQueryTime);
+        return dependsOnQueryTime.get();
+    }
+
+    private static void putString(Hasher hasher, String value)
+    {
+        hasher.putInt(value.length()).putString(value, UTF_8);
+    }
+
+    private static void putProperties(Hasher hasher, Map<String, String> properties)
+    {
+        new TreeMap<>(properties).forEach((name, value) -> {
+            putString(hasher, name);
+            putString(hasher, value);
+        });
+    }
+
+    private static long getSize(Path file)
+    {
+        try {
+            return Files.size(file);
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long getLastModifiedTime(Path file)
+    {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached query result %s", file);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable)
+    {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to close cached query result");
+        }
+    }
+
+    public static class CachedResult
+            implements Closeable
+    {
+        private final List<Type> types;
+        private final Iterator<Page> pages;
+        private final Closeable input;
+
+        private CachedResult(List<Type> types, Iterator<Page> pages, Closeable input)
+        {
+            this.types = requireNonNull(types, "types is null");
+            this.pages = requireNonNull(pages, "pages is null");
+            this.input = requireNonNull(input, "input is null");
+        }
+
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        public Iterator<Page> getPages()
+        {
+            return pages;
+        }
+
+        @Override
+        public void close()
+        {
+            closeQuietly(input);
+        }
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution.scheduler;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 
@@ -35,6 +36,7 @@ public class NodeSchedulerConfig
     private int maxSplitsPerNode = 100;
     private int maxPendingSplitsPerTask = 10;
     private String networkTopology = NetworkTopologyType.LEGACY;
+    private boolean optimizedLocalScheduling;
 
     @NotNull
     public String getNetworkTopology()
@@ -98,4 +100,17 @@ public class NodeSchedulerConfig
         this.maxSplitsPerNode = maxSplitsPerNode;
         return this;
     }
+
+    public boolean isOptimizedLocalScheduling()
+    {
+        return optimizedLocalScheduling;
+    }
+
+    @Config("node-scheduler.optimized-local-scheduling")
+    @ConfigDescription("Prefer the nodes named in the addresses of remotely accessible splits, when they have capacity")
+    public NodeSchedulerConfig setOptimizedLocalScheduling(boolean optimizedLocalScheduling)
+    {
+        this.optimizedLocalScheduling = optimizedLocalScheduling;
+        return this;
+    }
 }
@@ -17,6 +17,7 @@ import com.facebook.presto.execution.NodeTaskMap;
 import com.facebook.presto.execution.RemoteTask;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.sql.planner.NodePartitionMap;
@@ -40,6 +41,7 @@ import static com.facebook.presto.execution.scheduler.NodeScheduler.selectExactN
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public class SimpleNodeSelector
@@ -54,6 +56,7 @@ public class SimpleNodeSelector
     private final int minCandidates;
     private final int maxSplitsPerNode;
     private final int maxPendingSplitsPerTask;
+    private final boolean optimizedLocalScheduling;
 
     public SimpleNodeSelector(
             InternalNodeManager nodeManager,
@@ -62,7 +65,8 @@ public class SimpleNodeSelector
             Supplier<NodeMap> nodeMap,
             int minCandidates,
             int maxSplitsPerNode,
-            int maxPendingSplitsPerTask)
+            int maxPendingSplitsPerTask,
+            boolean optimizedLocalScheduling)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
@@ -71,6 +75,7 @@ public class SimpleNodeSelector
         this.minCandidates = minCandidates;
         this.maxSplitsPerNode = maxSplitsPerNode;
         this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.optimizedLocalScheduling = optimizedLocalScheduling;
     }
 
     @Override
@@ -115,6 +120,12 @@ public class SimpleNodeSelector
             if (!split.isRemotelyAccessible()) {
                 candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator);
             }
+            else if (optimizedLocalScheduling && !split.getAddresses().isEmpty()) {
+                candidateNodes = selectPreferredNodes(nodeMap, split.getAddresses(), assignmentStats);
+                if (candidateNodes.isEmpty()) {
+                    candidateNodes = selectNodes(minCandidates, randomCandidates);
+                }
+            }
             else {
                 candidateNodes = selectNodes(minCandidates, randomCandidates);
             }
@@ -168,6 +179,18 @@ public class SimpleNodeSelector
         return new SplitPlacementResult(blocked, assignment);
     }
 
+    /**
+     * Returns the nodes named by the split addresses that can still accept splits. A remotely accessible
+     * split names its preferred nodes (for example the nodes caching its data), but can run anywhere.
+     */
+    private List<Node> selectPreferredNodes(NodeMap nodeMap, List<HostAddress> addresses, NodeAssignmentStats assignmentStats)
+    {
+        return selectExactNodes(nodeMap, addresses, includeCoordinator).stream()
+                .filter(node -> includeCoordinator || !nodeMap.getCoordinatorNodeIds().contains(node.getNodeIdentifier()))
+                .filter(node -> assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode)
+                .collect(toImmutableList());
+    }
+
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, NodePartitionMap partitioning)
     {
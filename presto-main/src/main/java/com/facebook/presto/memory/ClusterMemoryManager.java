@@ -30,6 +30,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.http.client.HttpClient;
 import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
@@ -49,6 +50,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -59,6 +61,7 @@ import static com.facebook.presto.ExceededMemoryLimitException.exceededGlobalLim
 import static com.facebook.presto.SystemSessionProperties.RESOURCE_OVERCOMMIT;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxCpuTime;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxMemory;
+import static com.facebook.presto.SystemSessionProperties.getQueryPriority;
 import static com.facebook.presto.SystemSessionProperties.resourceOvercommit;
 import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
 import static com.facebook.presto.memory.LocalMemoryManager.RESERVED_POOL;
@@ -68,6 +71,7 @@ import static com.facebook.presto.spi.StandardErrorCode.CLUSTER_OUT_OF_MEMORY;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Sets.difference;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.airlift.units.Duration.nanosSince;
 import static java.lang.String.format;
@@ -89,11 +93,18 @@ public class ClusterMemoryManager
     private final boolean enabled;
     private final boolean killOnOutOfMemory;
     private final Duration killOnOutOfMemoryDelay;
+    private final LowMemoryKiller lowMemoryKiller;
+    private final boolean revokeOnLowMemory;
+    private final boolean pauseOnLowMemory;
+    private final boolean memoryAdmission;
+    private final MemoryAdmissionQueue admissionQueue = new MemoryAdmissionQueue();
     private final String coordinatorId;
     private final AtomicLong memoryPoolAssignmentsVersion = new AtomicLong();
     private final AtomicLong clusterMemoryUsageBytes = new AtomicLong();
     private final AtomicLong clusterMemoryBytes = new AtomicLong();
     private final AtomicLong queriesKilledDueToOutOfMemory = new AtomicLong();
+    private final AtomicLong queriesRevokedDueToLowMemory = new AtomicLong();
+    private final AtomicLong queriesPausedDueToOutOfMemory = new AtomicLong();
     private final Map<String, RemoteNodeMemory> nodes = new HashMap<>();
 
     @GuardedBy("this")
@@ -108,6 +119,12 @@ public class ClusterMemoryManager
     @GuardedBy("this")
     private QueryId lastKilledQuery;
 
+    @GuardedBy("this")
+    private Set<QueryId> revokeQueries = ImmutableSet.of();
+
+    @GuardedBy("this")
+    private Set<QueryId> pausedQueries = ImmutableSet.of();
+
     @Inject
     public ClusterMemoryManager(
             @ForMemoryManager HttpClient httpClient,
@@ -119,7 +136,8 @@ public class ClusterMemoryManager
             QueryIdGenerator queryIdGenerator,
             ServerConfig serverConfig,
             MemoryManagerConfig config,
-            QueryManagerConfig queryManagerConfig)
+            QueryManagerConfig queryManagerConfig,
+            LowMemoryKiller lowMemoryKiller)
     {
         requireNonNull(config, "config is null");
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
@@ -134,6 +152,10 @@ public class ClusterMemoryManager
         this.enabled = serverConfig.isCoordinator();
         this.killOnOutOfMemoryDelay = config.getKillOnOutOfMemoryDelay();
         this.killOnOutOfMemory = config.isKillOnOutOfMemory();
+        this.lowMemoryKiller = requireNonNull(lowMemoryKiller, "lowMemoryKiller is null");
+        this.revokeOnLowMemory = config.isRevokeOnLowMemory();
+        this.pauseOnLowMemory = config.isPauseOnLowMemory();
+        this.memoryAdmission = config.isMemoryAdmission();
     }
 
     @Override
@@ -142,6 +164,24 @@ public class ClusterMemoryManager
         changeListeners.computeIfAbsent(poolId, id -> new ArrayList<>()).add(listener);
     }
 
+    /**
+     * Returns a future that completes when the estimated peak memory of the query is expected to be
+     * available in the general pool. The query must be released with {@link #releaseQuery(QueryId)}
+     * when it finishes.
+     */
+    public ListenableFuture<?> admitQuery(QueryId queryId, long estimatedPeakMemoryBytes)
+    {
+        if (!enabled || !memoryAdmission) {
+            return immediateFuture(null);
+        }
+        return admissionQueue.admit(queryId, estimatedPeakMemoryBytes);
+    }
+
+    public void releaseQuery(QueryId queryId)
+    {
+        admissionQueue.release(queryId);
+    }
+
     public synchronized void process(Iterable<QueryExecution> queries)
     {
         if (!enabled) {
@@ -174,6 +214,13 @@ public class ClusterMemoryManager
         }
         clusterMemoryUsageBytes.set(totalBytes);
 
+        List<QueryMemoryInfo> queryMemoryInfos = getQueryMemoryInfos(queries);
+
+        // Low memory arbitration escalates in stages: queries that can spill are asked to revoke their memory,
+        // then lower priority queries are paused, and only if the cluster stays out of memory is a query killed
+        updateRevokeQueries(queryMemoryInfos);
+        updatePausedQueries(queryMemoryInfos, outOfMemory);
+
         if (killOnOutOfMemory) {
             boolean shouldKillQuery = nanosSince(lastTimeNotOutOfMemory).compareTo(killOnOutOfMemoryDelay) > 0 && outOfMemory;
             boolean lastKilledQueryIsGone = (lastKilledQuery == null);
@@ -186,21 +233,21 @@ public class ClusterMemoryManager
             }
 
             if (shouldKillQuery && lastKilledQueryIsGone && !queryKilled) {
-                // Kill the biggest query in the general pool
-                QueryExecution biggestQuery = null;
-                long maxMemory = -1;
-                for (QueryExecution query : queries) {
-                    long bytesUsed = query.getTotalMemoryReservation();
-                    if (bytesUsed > maxMemory && query.getMemoryPool().getId().equals(GENERAL_POOL)) {
-                        biggestQuery = query;
-                        maxMemory = bytesUsed;
+                Optional<QueryId> chosenQuery = lowMemoryKiller.chooseQueryToKill(getKillCandidates(queryMemoryInfos));
+                if (chosenQuery.isPresent()) {
+                    for (QueryExecution query : queries) {
+                        if (query.getQueryId().equals(chosenQuery.get())) {
+                            log.info("Low memory: killing query %s chosen by %s, which is using %s of memory after %s of CPU time",
+                                    query.getQueryId(),
+                                    lowMemoryKiller.getClass().getSimpleName(),
+                                    succinctBytes(query.getTotalMemoryReservation()),
+                                    query.getTotalCpuTime());
+                            query.fail(new PrestoException(CLUSTER_OUT_OF_MEMORY, "The cluster is out of memory, and your query was killed. Please try again in a few minutes."));
+                            queriesKilledDueToOutOfMemory.incrementAndGet();
+                            lastKilledQuery = query.getQueryId();
+                        }
                     }
                 }
-                if (biggestQuery != null) {
-                    biggestQuery.fail(new PrestoException(CLUSTER_OUT_OF_MEMORY, "The cluster is out of memory, and your query was killed. Please try again in a few minutes."));
-                    queriesKilledDueToOutOfMemory.incrementAndGet();
-                    lastKilledQuery = biggestQuery.getQueryId();
-                }
             }
         }
 
@@ -212,6 +259,11 @@ public class ClusterMemoryManager
 
         updatePools(countByPool);
 
+        ClusterMemoryPool generalPool = pools.get(GENERAL_POOL);
+        if (memoryAdmission && generalPool != null) {
+            admissionQueue.update(generalPool.getTotalDistributedBytes(), generalPool.getReservedDistributedBytes(), generalPool.getQueryMemoryReservations());
+        }
+
         updateNodes(updateAssignments(queries));
 
         // check if CPU usage is over limit
@@ -225,6 +277,114 @@ public class ClusterMemoryManager
         }
     }
 
+    private synchronized List<QueryMemoryInfo> getQueryMemoryInfos(Iterable<QueryExecution> queries)
+    {
+        ClusterMemoryPool generalPool = pools.get(GENERAL_POOL);
+        Map<QueryId, Long> revocableReservations = generalPool == null ? ImmutableMap.of() : generalPool.getQueryMemoryRevocableReservations();
+        ImmutableList.Builder<QueryMemoryInfo> infos = ImmutableList.builder();
+        for (QueryExecution query : queries) {
+            MemoryPoolId poolId = query.getMemoryPool().getId();
+            long revocableBytes = poolId.equals(GENERAL_POOL) ? revocableReservations.getOrDefault(query.getQueryId(), 0L) : 0;
+            // The priority is the query_priority session property, which the QUERY_PRIORITY resource group scheduling
+            // policy also orders by. Resource group scheduling weights are only relative shares between sibling groups,
+            // so they do not give an order across the whole cluster to pause or kill by.
+            infos.add(new QueryMemoryInfo(
+                    query.getQueryId(),
+                    poolId,
+                    query.getTotalMemoryReservation(),
+                    revocableBytes,
+                    query.getTotalCpuTime(),
+                    getQueryPriority(query.getSession())));
+        }
+        return infos.build();
+    }
+
+    /**
+     * Returns the queries the low memory killer may choose from: the general pool queries with memory reserved
+     * that have the lowest priority. While queries are paused these are among the paused queries, so the queries
+     * left running to relieve the pressure are never killed first, and the killer policy only breaks ties.
+     */
+    @VisibleForTesting
+    static List<QueryMemoryInfo> getKillCandidates(List<QueryMemoryInfo> queryMemoryInfos)
+    {
+        List<QueryMemoryInfo> killableQueries = queryMemoryInfos.stream()
+                .filter(query -> query.getMemoryPoolId().equals(GENERAL_POOL))
+                .filter(query -> query.getMemoryReservation() > 0)
+                .collect(toImmutableList());
+        OptionalInt minPriority = killableQueries.stream()
+                .mapToInt(QueryMemoryInfo::getPriority)
+                .min();
+        if (!minPriority.isPresent()) {
+            return ImmutableList.of();
+        }
+        return killableQueries.stream()
+                .filter(query -> query.getPriority() == minPriority.getAsInt())
+                .collect(toImmutableList());
+    }
+
+    private synchronized void updateRevokeQueries(List<QueryMemoryInfo> queryMemoryInfos)
+    {
+        ClusterMemoryPool generalPool = pools.get(GENERAL_POOL);
+        if (!revokeOnLowMemory || generalPool == null || generalPool.getBlockedNodes() == 0) {
+            revokeQueries = ImmutableSet.of();
+            return;
+        }
+
+        // A query blocked on one node stalls everywhere, so revoke its memory on all the nodes, not just the blocked ones
+        Set<QueryId> queriesToRevoke = queryMemoryInfos.stream()
+                .filter(query -> query.getRevocableMemoryReservation() > 0)
+                .map(QueryMemoryInfo::getQueryId)
+                .collect(toImmutableSet());
+        Set<QueryId> newQueries = difference(queriesToRevoke, revokeQueries);
+        if (!newQueries.isEmpty()) {
+            log.info("Low memory: general pool is blocked on %s nodes, requesting memory revoking for queries %s", generalPool.getBlockedNodes(), newQueries);
+            queriesRevokedDueToLowMemory.addAndGet(newQueries.size());
+        }
+        revokeQueries = queriesToRevoke;
+    }
+
+    private synchronized void updatePausedQueries(List<QueryMemoryInfo> queryMemoryInfos, boolean outOfMemory)
+    {
+        if (!pauseOnLowMemory || !outOfMemory) {
+            if (!pausedQueries.isEmpty()) {
+                log.info("Low memory: cluster is no longer out of memory, resuming queries %s", pausedQueries);
+            }
+            pausedQueries = ImmutableSet.of();
+            return;
+        }
+
+        // Only queries in the general pool are paused, so that the query in the reserved pool and the
+        // highest priority queries in the general pool can finish and release their memory
+        int maxPriority = queryMemoryInfos.stream()
+                .filter(query -> query.getMemoryPoolId().equals(GENERAL_POOL))
+                .mapToInt(QueryMemoryInfo::getPriority)
+                .max()
+                .orElse(Integer.MIN_VALUE);
+        Set<QueryId> queriesToPause = queryMemoryInfos.stream()
+                .filter(query -> query.getMemoryPoolId().equals(GENERAL_POOL))
+                .filter(query -> query.getPriority() < maxPriority)
+                .map(QueryMemoryInfo::getQueryId)
+                .collect(toImmutableSet());
+        Set<QueryId> newQueries = difference(queriesToPause, pausedQueries);
+        if (!newQueries.isEmpty()) {
+            log.info("Low memory: cluster is out of memory, pausing queries %s with priority below %s", newQueries, maxPriority);
+            queriesPausedDueToOutOfMemory.addAndGet(newQueries.size());
+        }
+        pausedQueries = queriesToPause;
+    }
+
+    @VisibleForTesting
+    synchronized Set<QueryId> getRevokeQueries()
+    {
+        return revokeQueries;
+    }
+
+    @VisibleForTesting
+    synchronized Set<QueryId> getPausedQueries()
+    {
+        return pausedQueries;
+    }
+
     @VisibleForTesting
     synchronized Map<MemoryPoolId, ClusterMemoryPool> getPools()
     {
@@ -271,7 +431,7 @@ public class ClusterMemoryManager
         for (QueryExecution queryExecution : queries) {
             assignments.add(new MemoryPoolAssignment(queryExecution.getQueryId(), queryExecution.getMemoryPool().getId()));
         }
-        return new MemoryPoolAssignmentsRequest(coordinatorId, version, assignments.build());
+        return new MemoryPoolAssignmentsRequest(coordinatorId, version, assignments.build(), revokeQueries, pausedQueries);
     }
 
     private boolean allAssignmentsHavePropagated(Iterable<QueryExecution> queries)
@@ -418,4 +578,22 @@ public class ClusterMemoryManager
     {
         return queriesKilledDueToOutOfMemory.get();
     }
+
+    @Managed
+    public long getQueriesRevokedDueToLowMemory()
+    {
+        return queriesRevokedDueToLowMemory.get();
+    }
+
+    @Managed
+    public long getQueriesPausedDueToOutOfMemory()
+    {
+        return queriesPausedDueToOutOfMemory.get();
+    }
+
+    @Managed
+    public int getQueriesWaitingForMemory()
+    {
+        return admissionQueue.getQueuedQueries();
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Kills the query in the general pool that loses the least work per byte of
+ * memory freed, i.e. with the lowest ratio of CPU time spent to memory reserved.
+ * The cluster memory manager only offers the lowest priority queries, so this
+ * breaks ties within that priority. Equal costs go to the largest reservation.
+ */
+public class LeastWorkLostLowMemoryKiller
+        implements LowMemoryKiller
+{
+    @Override
+    public Optional<QueryId> chooseQueryToKill(List<QueryMemoryInfo> runningQueries)
+    {
+        QueryId cheapestQuery = null;
+        double minCost = Double.MAX_VALUE;
+        long maxMemory = -1;
+        for (QueryMemoryInfo query : runningQueries) {
+            long bytesUsed = query.getMemoryReservation();
+            if (bytesUsed <= 0 || !query.getMemoryPoolId().equals(GENERAL_POOL)) {
+                continue;
+            }
+            double cost = query.getCpuTime().getValue(MILLISECONDS) / bytesUsed;
+            if (cost < minCost || (cost == minCost && bytesUsed > maxMemory)) {
+                cheapestQuery = query.getQueryId();
+                minCost = cost;
+                maxMemory = bytesUsed;
+            }
+        }
+        return Optional.ofNullable(cheapestQuery);
+    }
+}
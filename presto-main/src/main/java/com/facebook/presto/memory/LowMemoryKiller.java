@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Chooses the query to kill once the cluster stays out of memory after
+ * revoking and pausing did not free enough memory. The queries offered are
+ * the lowest priority ones in the general pool.
+ */
+public interface LowMemoryKiller
+{
+    Optional<QueryId> chooseQueryToKill(List<QueryMemoryInfo> runningQueries);
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds queries until their estimated peak memory is expected to be available in the general pool.
+ * The memory expected to be available is the unreserved memory of the pool, less the part of the
+ * estimated peak memory the admitted queries have not reserved yet. Queries are admitted in arrival
+ * order, so a large query is not starved by smaller queries that arrive after it. Queries with a
+ * negligible estimate, such as plain scans and metadata queries, are admitted right away.
+ */
+@ThreadSafe
+public class MemoryAdmissionQueue
+{
+    private static final long DEFAULT_NEGLIGIBLE_BYTES = new DataSize(1, MEGABYTE).toBytes();
+
+    private final long negligibleBytes;
+
+    @GuardedBy("this")
+    private final Map<QueryId, PendingQuery> pendingQueries = new LinkedHashMap<>();
+    @GuardedBy("this")
+    private final Map<QueryId, Long> admittedQueries = new HashMap<>();
+    // Negative until the first update, in which case queries are admitted right away
+    @GuardedBy("this")
+    private long poolBytes = -1;
+    @GuardedBy("this")
+    private long reservedBytes;
+    @GuardedBy("this")
+    private Map<QueryId, Long> queryReservations = new HashMap<>();
+
+    public MemoryAdmissionQueue()
+    {
+        this(DEFAULT_NEGLIGIBLE_BYTES);
+    }
+
+    @VisibleForTesting
+    MemoryAdmissionQueue(long negligibleBytes)
+    {
+        checkArgument(negligibleBytes >= 0, "negligibleBytes is negative");
+        this.negligibleBytes = negligibleBytes;
+    }
+
+    /**
+     * Returns a future that completes when the query is admitted. Every query passed to
+     * this method must be released with {@link #release(QueryId)} when it finishes.
+     */
+    public ListenableFuture<?> admit(QueryId queryId, long estimatedPeakMemoryBytes)
+    {
+        requireNonNull(queryId, "queryId is null");
+        checkArgument(estimatedPeakMemoryBytes >= 0, "estimatedPeakMemoryBytes is negative");
+        SettableFuture<?> future = SettableFuture.create();
+        List<SettableFuture<?>> admitted;
+        synchronized (this) {
+            checkArgument(!pendingQueries.containsKey(queryId) && !admittedQueries.containsKey(queryId), "Query %s is already queued", queryId);
+            pendingQueries.put(queryId, new PendingQuery(estimatedPeakMemoryBytes, future));
+            admitted = admitPendingQueries();
+        }
+        // complete the futures outside of the lock, as they may run listeners
+        admitted.forEach(admittedFuture -> admittedFuture.set(null));
+        return future;
+    }
+
+    public void release(QueryId queryId)
+    {
+        requireNonNull(queryId, "queryId is null");
+        List<SettableFuture<?>> admitted;
+        synchronized (this) {
+            boolean wasPending = pendingQueries.remove(queryId) != null;
+            boolean wasAdmitted = admittedQueries.remove(queryId) != null;
+            if (!wasPending && !wasAdmitted) {
+                return;
+            }
+            admitted = admitPendingQueries();
+        }
+        admitted.forEach(future -> future.set(null));
+    }
+
+    /**
+     * Updates the view of the general pool, and admits the queries that fit in it now.
+     */
+    public void update(long poolBytes, long reservedBytes, Map<QueryId, Long> queryReservations)
+    {
+        requireNonNull(queryReservations, "queryReservations is null");
+        List<SettableFuture<?>> admitted;
+        synchronized (this) {
+            this.poolBytes = poolBytes;
+            this.reservedBytes = reservedBytes;
+            this.queryReservations = new HashMap<>(queryReservations);
+            admitted = admitPendingQueries();
+        }
+        admitted.forEach(future -> future.set(null));
+    }
+
+    public synchronized int getQueuedQueries()
+    {
+        return pendingQueries.size();
+    }
+
+    public synchronized int getAdmittedQueries()
+    {
+        return admittedQueries.size();
+    }
+
+    @GuardedBy("this")
+    private List<SettableFuture<?>> admitPendingQueries()
+    {
+        long availableBytes = poolBytes - reservedBytes;
+        for (Entry<QueryId, Long> entry : admittedQueries.entrySet()) {
+            availableBytes -= max(0, entry.getValue() - queryReservations.getOrDefault(entry.getKey(), 0L));
+        }
+
+        List<SettableFuture<?>> admitted = new ArrayList<>();
+        boolean blocked = false;
+        for (Iterator<Entry<QueryId, PendingQuery>> iterator = pendingQueries.entrySet().iterator(); iterator.hasNext(); ) {
+            Entry<QueryId, PendingQuery> entry = iterator.next();
+            long bytes = entry.getValue().getEstimatedPeakMemoryBytes();
+            // queries with a negligible estimate neither wait for memory nor for the queries ahead of them
+            if (bytes > negligibleBytes) {
+                if (blocked) {
+                    continue;
+                }
+                // a query larger than the pool is admitted once nothing else is admitted, rather than never
+                if (poolBytes >= 0 && bytes > availableBytes && !admittedQueries.isEmpty()) {
+                    blocked = true;
+                    continue;
+                }
+            }
+            iterator.remove();
+            availableBytes -= bytes;
+            admittedQueries.put(entry.getKey(), bytes);
+            admitted.add(entry.getValue().getFuture());
+        }
+        return admitted;
+    }
+
+    private static final class PendingQuery
+    {
+        private final long estimatedPeakMemoryBytes;
+        private final SettableFuture<?> future;
+
+        private PendingQuery(long estimatedPeakMemoryBytes, SettableFuture<?> future)
+        {
+            this.estimatedPeakMemoryBytes = estimatedPeakMemoryBytes;
+            this.future = requireNonNull(future, "future is null");
+        }
+
+        public long getEstimatedPeakMemoryBytes()
+        {
+            return estimatedPeakMemoryBytes;
+        }
+
+        public SettableFuture<?> getFuture()
+        {
+            return future;
+        }
+    }
+}
@@ -31,6 +31,16 @@ public class MemoryManagerConfig
     private DataSize maxQueryMemory = new DataSize(20, GIGABYTE);
     private boolean killOnOutOfMemory;
     private Duration killOnOutOfMemoryDelay = new Duration(5, MINUTES);
+    private LowMemoryKillerPolicy lowMemoryKillerPolicy = LowMemoryKillerPolicy.TOTAL_RESERVATION;
+    private boolean revokeOnLowMemory = true;
+    private boolean pauseOnLowMemory = true;
+    private boolean memoryAdmission;
+
+    public enum LowMemoryKillerPolicy
+    {
+        TOTAL_RESERVATION,
+        LEAST_WORK_LOST,
+    }
 
     public boolean isKillOnOutOfMemory()
     {
@@ -60,6 +70,59 @@ public class MemoryManagerConfig
         return this;
     }
 
+    @NotNull
+    public LowMemoryKillerPolicy getLowMemoryKillerPolicy()
+    {
+        return lowMemoryKillerPolicy;
+    }
+
+    @Config("query.low-memory-killer.policy")
+    @ConfigDescription("Policy used to choose the query to kill when the cluster is out of memory")
+    public MemoryManagerConfig setLowMemoryKillerPolicy(LowMemoryKillerPolicy lowMemoryKillerPolicy)
+    {
+        this.lowMemoryKillerPolicy = lowMemoryKillerPolicy;
+        return this;
+    }
+
+    public boolean isRevokeOnLowMemory()
+    {
+        return revokeOnLowMemory;
+    }
+
+    @Config("query.low-memory.revoking-enabled")
+    @ConfigDescription("Ask queries holding revocable memory to spill when the general pool is blocked")
+    public MemoryManagerConfig setRevokeOnLowMemory(boolean revokeOnLowMemory)
+    {
+        this.revokeOnLowMemory = revokeOnLowMemory;
+        return this;
+    }
+
+    public boolean isPauseOnLowMemory()
+    {
+        return pauseOnLowMemory;
+    }
+
+    @Config("query.low-memory.pausing-enabled")
+    @ConfigDescription("Pause lower priority queries when the cluster is out of memory")
+    public MemoryManagerConfig setPauseOnLowMemory(boolean pauseOnLowMemory)
+    {
+        this.pauseOnLowMemory = pauseOnLowMemory;
+        return this;
+    }
+
+    public boolean isMemoryAdmission()
+    {
+        return memoryAdmission;
+    }
+
+    @Config("query.memory-admission.enabled")
+    @ConfigDescription("Hold planned queries until their estimated peak memory is expected to be available in the general pool")
+    public MemoryManagerConfig setMemoryAdmission(boolean memoryAdmission)
+    {
+        this.memoryAdmission = memoryAdmission;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxQueryMemory()
     {
@@ -13,11 +13,14 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.spi.QueryId;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -27,13 +30,27 @@ public class MemoryPoolAssignmentsRequest
     private final String coordinatorId;
     private final long version;
     private final List<MemoryPoolAssignment> assignments;
+    private final Set<QueryId> revokeQueries;
+    private final Set<QueryId> pausedQueries;
+
+    public MemoryPoolAssignmentsRequest(String coordinatorId, long version, List<MemoryPoolAssignment> assignments)
+    {
+        this(coordinatorId, version, assignments, ImmutableSet.of(), ImmutableSet.of());
+    }
 
     @JsonCreator
-    public MemoryPoolAssignmentsRequest(@JsonProperty("coordinatorId") String coordinatorId, @JsonProperty("version") long version, @JsonProperty("assignments") List<MemoryPoolAssignment> assignments)
+    public MemoryPoolAssignmentsRequest(
+            @JsonProperty("coordinatorId") String coordinatorId,
+            @JsonProperty("version") long version,
+            @JsonProperty("assignments") List<MemoryPoolAssignment> assignments,
+            @JsonProperty("revokeQueries") Set<QueryId> revokeQueries,
+            @JsonProperty("pausedQueries") Set<QueryId> pausedQueries)
     {
         this.coordinatorId = requireNonNull(coordinatorId, "coordinatorId is null");
         this.version = version;
         this.assignments = ImmutableList.copyOf(requireNonNull(assignments, "assignments is null"));
+        this.revokeQueries = ImmutableSet.copyOf(requireNonNull(revokeQueries, "revokeQueries is null"));
+        this.pausedQueries = ImmutableSet.copyOf(requireNonNull(pausedQueries, "pausedQueries is null"));
     }
 
     @JsonProperty
@@ -54,12 +71,32 @@ public class MemoryPoolAssignmentsRequest
         return assignments;
     }
 
+    /**
+     * Queries whose revocable memory should be revoked (spilled) on every node
+     */
+    @JsonProperty
+    public Set<QueryId> getRevokeQueries()
+    {
+        return revokeQueries;
+    }
+
+    /**
+     * Queries that should not be allowed to reserve more memory until they are no longer listed
+     */
+    @JsonProperty
+    public Set<QueryId> getPausedQueries()
+    {
+        return pausedQueries;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("version", version)
                 .add("assignments", assignments)
+                .add("revokeQueries", revokeQueries)
+                .add("pausedQueries", pausedQueries)
                 .toString();
     }
 }
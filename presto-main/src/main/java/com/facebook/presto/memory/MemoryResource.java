@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.execution.MemoryRevokingScheduler;
 import com.facebook.presto.execution.TaskManager;
 
 import javax.inject.Inject;
@@ -32,12 +33,14 @@ public class MemoryResource
 {
     private final LocalMemoryManager memoryManager;
     private final TaskManager taskManager;
+    private final MemoryRevokingScheduler memoryRevokingScheduler;
 
     @Inject
-    public MemoryResource(LocalMemoryManager memoryManager, TaskManager taskManager)
+    public MemoryResource(LocalMemoryManager memoryManager, TaskManager taskManager, MemoryRevokingScheduler memoryRevokingScheduler)
     {
         this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
         this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.memoryRevokingScheduler = requireNonNull(memoryRevokingScheduler, "memoryRevokingScheduler is null");
     }
 
     @POST
@@ -46,6 +49,7 @@ public class MemoryResource
     public MemoryInfo getMemoryInfo(MemoryPoolAssignmentsRequest request)
     {
         taskManager.updateMemoryPoolAssignments(request);
+        memoryRevokingScheduler.requestQueryMemoryRevoking(request.getRevokeQueries());
         return memoryManager.getInfo();
     }
 }
@@ -21,6 +21,7 @@ import com.facebook.presto.spiller.SpillSpaceTracker;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -70,6 +71,10 @@ public class QueryContext
     @GuardedBy("this")
     private long spillUsed;
 
+    // not done while the coordinator has paused this query to relieve memory pressure
+    @GuardedBy("this")
+    private SettableFuture<?> resumed = SettableFuture.create();
+
     public QueryContext(QueryId queryId, DataSize maxMemory, MemoryPool memoryPool, MemoryPool systemMemoryPool, Executor executor, DataSize maxSpill, SpillSpaceTracker spillSpaceTracker)
     {
         this.queryId = requireNonNull(queryId, "queryId is null");
@@ -79,6 +84,7 @@ public class QueryContext
         this.executor = requireNonNull(executor, "executor is null");
         this.maxSpill = requireNonNull(maxSpill, "maxSpill is null").toBytes();
         this.spillSpaceTracker = requireNonNull(spillSpaceTracker, "spillSpaceTracker is null");
+        this.resumed.set(null);
     }
 
     // TODO: This method should be removed, and the correct limit set in the constructor. However, due to the way QueryContext is constructed the memory limit is not known in advance
@@ -102,6 +108,9 @@ public class QueryContext
         if (reserved < GUARANTEED_MEMORY) {
             return NOT_BLOCKED;
         }
+        if (!resumed.isDone()) {
+            return resumed;
+        }
         return future;
     }
 
@@ -207,6 +216,33 @@ public class QueryContext
         });
     }
 
+    public QueryId getQueryId()
+    {
+        return queryId;
+    }
+
+    /**
+     * While paused, reservations still succeed, but the reserving operators are
+     * blocked until the query is resumed, so the query stops growing.
+     */
+    public synchronized void setPaused(boolean paused)
+    {
+        if (paused == isPaused()) {
+            return;
+        }
+        if (paused) {
+            resumed = SettableFuture.create();
+            return;
+        }
+        // operators blocked by the pause are listening on this future
+        resumed.set(null);
+    }
+
+    public synchronized boolean isPaused()
+    {
+        return !resumed.isDone();
+    }
+
     public synchronized MemoryPool getMemoryPool()
     {
         return memoryPool;
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolId;
+import io.airlift.units.Duration;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coordinator view of a running query, as seen by the low memory arbitration
+ */
+public class QueryMemoryInfo
+{
+    private final QueryId queryId;
+    private final MemoryPoolId memoryPoolId;
+    private final long memoryReservation;
+    private final long revocableMemoryReservation;
+    private final Duration cpuTime;
+    private final int priority;
+
+    public QueryMemoryInfo(QueryId queryId, MemoryPoolId memoryPoolId, long memoryReservation, long revocableMemoryReservation, Duration cpuTime, int priority)
+    {
+        this.queryId = requireNonNull(queryId, "queryId is null");
+        this.memoryPoolId = requireNonNull(memoryPoolId, "memoryPoolId is null");
+        this.memoryReservation = memoryReservation;
+        this.revocableMemoryReservation = revocableMemoryReservation;
+        this.cpuTime = requireNonNull(cpuTime, "cpuTime is null");
+        this.priority = priority;
+    }
+
+    public QueryId getQueryId()
+    {
+        return queryId;
+    }
+
+    public MemoryPoolId getMemoryPoolId()
+    {
+        return memoryPoolId;
+    }
+
+    public long getMemoryReservation()
+    {
+        return memoryReservation;
+    }
+
+    public long getRevocableMemoryReservation()
+    {
+        return revocableMemoryReservation;
+    }
+
+    public Duration getCpuTime()
+    {
+        return cpuTime;
+    }
+
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("queryId", queryId)
+                .add("memoryPoolId", memoryPoolId)
+                .add("memoryReservation", memoryReservation)
+                .add("revocableMemoryReservation", revocableMemoryReservation)
+                .add("cpuTime", cpuTime)
+                .add("priority", priority)
+                .toString();
+    }
+}
@@ -72,6 +72,12 @@ public interface Metadata
 
     Optional<Object> getInfo(Session session, TableLayoutHandle handle);
 
+    /**
+     * Returns the version of the data read through the specified table layout, or empty if the connector
+     * cannot tell whether the data changed.
+     */
+    Optional<String> getDataVersion(Session session, TableLayoutHandle handle);
+
     /**
      * Return the metadata for the specified table handle.
      *
@@ -339,6 +339,14 @@ public class MetadataManager
         return metadata.getInfo(tableLayout.getHandle());
     }
 
+    @Override
+    public Optional<String> getDataVersion(Session session, TableLayoutHandle handle)
+    {
+        ConnectorId connectorId = handle.getConnectorId();
+        ConnectorMetadata metadata = getMetadata(session, connectorId);
+        return metadata.getDataVersion(session.toConnectorSession(connectorId), handle.getConnectorHandle());
+    }
+
     @Override
     public TableMetadata getTableMetadata(Session session, TableHandle tableHandle)
     {
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.OptionalLong;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -30,16 +31,24 @@ public final class Split
     private final ConnectorId connectorId;
     private final ConnectorTransactionHandle transactionHandle;
     private final ConnectorSplit connectorSplit;
+    private final OptionalLong speculationId;
+
+    public Split(ConnectorId connectorId, ConnectorTransactionHandle transactionHandle, ConnectorSplit connectorSplit)
+    {
+        this(connectorId, transactionHandle, connectorSplit, OptionalLong.empty());
+    }
 
     @JsonCreator
     public Split(
             @JsonProperty("connectorId") ConnectorId connectorId,
             @JsonProperty("transactionHandle") ConnectorTransactionHandle transactionHandle,
-            @JsonProperty("connectorSplit") ConnectorSplit connectorSplit)
+            @JsonProperty("connectorSplit") ConnectorSplit connectorSplit,
+            @JsonProperty("speculationId") OptionalLong speculationId)
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null");
         this.transactionHandle = requireNonNull(transactionHandle, "transactionHandle is null");
         this.connectorSplit = requireNonNull(connectorSplit, "connectorSplit is null");
+        this.speculationId = requireNonNull(speculationId, "speculationId is null");
     }
 
     @JsonProperty
@@ -60,6 +69,25 @@ public final class Split
         return connectorSplit;
     }
 
+    /**
+     * Identifies the split across all of its copies when it is executed speculatively.
+     */
+    @JsonProperty
+    public OptionalLong getSpeculationId()
+    {
+        return speculationId;
+    }
+
+    public Split withSpeculationId(long speculationId)
+    {
+        return new Split(connectorId, transactionHandle, connectorSplit, OptionalLong.of(speculationId));
+    }
+
+    public boolean isIdempotent()
+    {
+        return connectorSplit.isIdempotent();
+    }
+
     public Object getInfo()
     {
         return connectorSplit.getInfo();
@@ -82,6 +110,7 @@ public final class Split
                 .add("connectorId", connectorId)
                 .add("transactionHandle", transactionHandle)
                 .add("connectorSplit", connectorSplit)
+                .add("speculationId", speculationId)
                 .toString();
     }
 }
@@ -64,6 +64,11 @@ public class TableLayout
         return layout.getLocalProperties();
     }
 
+    public List<LocalProperty<ColumnHandle>> getSplitLocalProperties()
+    {
+        return layout.getSplitLocalProperties();
+    }
+
     public TableLayoutHandle getHandle()
     {
         return handle;
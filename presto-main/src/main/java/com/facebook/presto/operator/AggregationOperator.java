@@ -201,13 +201,13 @@ public class AggregationOperator
         return types.build();
     }
 
-    private static class Aggregator
+    static class Aggregator
     {
         private final Accumulator aggregation;
         private final Step step;
         private final int intermediateChannel;
 
-        private Aggregator(AccumulatorFactory accumulatorFactory, Step step)
+        Aggregator(AccumulatorFactory accumulatorFactory, Step step)
         {
             if (step.isInputRaw()) {
                 intermediateChannel = -1;
@@ -39,6 +39,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -129,6 +130,14 @@ public class Driver
         return sourceOperator.map(SourceOperator::getSourceId);
     }
 
+    /**
+     * Gets the progress of the split processed by the source operator of this driver.
+     */
+    public OptionalDouble getProgress()
+    {
+        return sourceOperator.map(SourceOperator::getProgress).orElse(OptionalDouble.empty());
+    }
+
     @Override
     public void close()
     {
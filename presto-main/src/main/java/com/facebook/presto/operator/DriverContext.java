@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.buffer.SpeculativeOutputBuffer;
 import com.facebook.presto.memory.QueryContextVisitor;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
@@ -28,13 +29,17 @@ import org.joda.time.DateTime;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.presto.operator.BlockedReason.WAITING_FOR_MEMORY;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.getFirst;
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.transform;
@@ -86,6 +91,7 @@ public class DriverContext
     private final List<OperatorContext> operatorContexts = new CopyOnWriteArrayList<>();
     private final boolean partitioned;
     private final AtomicLong spilledBytes = new AtomicLong();
+    private final AtomicReference<SpeculativeOutputBuffer> speculativeOutputBuffer = new AtomicReference<>();
 
     public DriverContext(PipelineContext pipelineContext, Executor executor, boolean partitioned)
     {
@@ -117,6 +123,33 @@ public class DriverContext
         return ImmutableList.copyOf(operatorContexts);
     }
 
+    /**
+     * Gets the buffer holding back the output of this driver when it processes
+     * a speculatively executed split.
+     */
+    public Optional<SpeculativeOutputBuffer> getSpeculativeOutputBuffer()
+    {
+        return Optional.ofNullable(speculativeOutputBuffer.get());
+    }
+
+    public void setSpeculativeOutputBuffer(SpeculativeOutputBuffer speculativeOutputBuffer)
+    {
+        requireNonNull(speculativeOutputBuffer, "speculativeOutputBuffer is null");
+        checkState(this.speculativeOutputBuffer.compareAndSet(null, speculativeOutputBuffer), "speculativeOutputBuffer is already set");
+    }
+
+    /**
+     * Gets the time since this driver started processing, or zero if it has not started yet.
+     */
+    public Duration getElapsedSinceStart()
+    {
+        long startNanos = this.startNanos.get();
+        if (startNanos == 0) {
+            return new Duration(0, NANOSECONDS);
+        }
+        return new Duration(System.nanoTime() - startNanos, NANOSECONDS);
+    }
+
     public PipelineContext getPipelineContext()
     {
         return pipelineContext;
@@ -291,6 +324,19 @@ public class DriverContext
         operatorContexts.forEach(OperatorContext::moreMemoryAvailable);
     }
 
+    /**
+     * Same as the blocked reasons in the driver stats, without building the operator stats
+     */
+    public Set<BlockedReason> getBlockedReasons()
+    {
+        for (OperatorContext operatorContext : operatorContexts) {
+            if (!operatorContext.isWaitingForMemory().isDone()) {
+                return ImmutableSet.of(WAITING_FOR_MEMORY);
+            }
+        }
+        return ImmutableSet.of();
+    }
+
     public boolean isVerboseStats()
     {
         return pipelineContext.isVerboseStats();
@@ -0,0 +1,464 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.array.ByteBigArray;
+import com.facebook.presto.array.IntBigArray;
+import com.facebook.presto.array.LongBigArray;
+import com.facebook.presto.operator.scalar.CombineHashFunction;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.AbstractLongType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
+import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for several BIGINT, INTEGER or DATE channels. The key of each group is
+ * packed into consecutive slots of a long array, and the channels of a page are copied
+ * into flat arrays one column at a time, so the per row loops neither go through the
+ * block interfaces nor compare keys with a generic hash strategy.
+ */
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+
+    // the null channels of a group are recorded as the bits of a byte
+    private static final int MAX_CHANNEL_COUNT = Byte.SIZE;
+
+    private final List<Type> types;
+    private final List<Type> hashTypes;
+    private final int[] hashChannels;
+    private final int channelCount;
+    private final Optional<Integer> inputHashChannel;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from hash positions to groupIds
+    private IntBigArray groupIds;
+
+    // reverse index from the groupId back to the key, channelCount values per group
+    private final LongBigArray valuesByGroupId;
+    private final ByteBigArray nullsByGroupId;
+    private final LongBigArray rawHashByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // keys of the current page, one array per channel
+    private long[][] pageValues;
+    private byte[] pageNulls;
+    private long[] pageRawHashes;
+    private final long[] rowValues;
+
+    public FixedWidthGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, Optional<Integer> inputHashChannel, int expectedSize)
+    {
+        checkArgument(isSupported(hashTypes), "Unsupported hash types: %s", hashTypes);
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.hashTypes = ImmutableList.copyOf(hashTypes);
+        this.hashChannels = hashChannels.clone();
+        this.channelCount = hashChannels.length;
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        this.types = inputHashChannel.isPresent() ? ImmutableList.<Type>builder().addAll(hashTypes).add(BIGINT).build() : this.hashTypes;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIds = new IntBigArray(-1);
+        groupIds.ensureCapacity(hashCapacity);
+
+        valuesByGroupId = new LongBigArray();
+        valuesByGroupId.ensureCapacity((long) hashCapacity * channelCount);
+        nullsByGroupId = new ByteBigArray();
+        nullsByGroupId.ensureCapacity(hashCapacity);
+        rawHashByGroupId = new LongBigArray();
+        rawHashByGroupId.ensureCapacity(hashCapacity);
+
+        pageValues = new long[channelCount][0];
+        pageNulls = new byte[0];
+        pageRawHashes = new long[0];
+        rowValues = new long[channelCount];
+    }
+
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        if (hashTypes.size() < 2 || hashTypes.size() > MAX_CHANNEL_COUNT) {
+            return false;
+        }
+        return hashTypes.stream().allMatch(type -> type.equals(BIGINT) || type.equals(INTEGER) || type.equals(DATE));
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                groupIds.sizeOf() +
+                valuesByGroupId.sizeOf() +
+                nullsByGroupId.sizeOf() +
+                rawHashByGroupId.sizeOf() +
+                sizeOf(pageValues[0]) * channelCount +
+                sizeOf(pageNulls) +
+                sizeOf(pageRawHashes);
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        byte nulls = nullsByGroupId.get(groupId);
+        long valuesOffset = (long) groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channel);
+            if (isNull(nulls, channel)) {
+                blockBuilder.appendNull();
+            }
+            else {
+                hashTypes.get(channel).writeLong(blockBuilder, valuesByGroupId.get(valuesOffset + channel));
+            }
+        }
+
+        if (inputHashChannel.isPresent()) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + channelCount), rawHashByGroupId.get(groupId));
+        }
+    }
+
+    @Override
+    public void addPage(Page page)
+    {
+        int positionCount = loadPage(page);
+        for (int position = 0; position < positionCount; position++) {
+            putIfAbsent(position);
+        }
+    }
+
+    @Override
+    public GroupByIdBlock getGroupIds(Page page)
+    {
+        int positionCount = loadPage(page);
+
+        // we know the exact size required for the block
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, putIfAbsent(position));
+        }
+        return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        byte nulls = readPosition(position, page, hashChannels, rowValues);
+        long rawHash = hashRow(rowValues, nulls);
+
+        long hashPosition = getHashPosition(rawHash, mask);
+        while (true) {
+            int groupId = groupIds.get(hashPosition);
+            if (groupId == -1) {
+                return false;
+            }
+            if (rawHashByGroupId.get(groupId) == rawHash && nullsByGroupId.get(groupId) == nulls && groupEquals(groupId, rowValues)) {
+                return true;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+    }
+
+    @Override
+    public int putIfAbsent(int position, Page page)
+    {
+        // callers look up a single position, so only that row is copied into the page arrays
+        ensurePageCapacity(1);
+        byte nulls = readPosition(position, page, hashChannels, rowValues);
+        for (int channel = 0; channel < channelCount; channel++) {
+            pageValues[channel][0] = rowValues[channel];
+        }
+        pageNulls[0] = nulls;
+        if (inputHashChannel.isPresent()) {
+            pageRawHashes[0] = BIGINT.getLong(page.getBlock(inputHashChannel.get()), position);
+        }
+        else {
+            pageRawHashes[0] = hashRow(rowValues, nulls);
+        }
+        return putIfAbsent(0);
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashByGroupId.get(groupId);
+    }
+
+    private void ensurePageCapacity(int positionCount)
+    {
+        if (pageNulls.length < positionCount) {
+            for (int channel = 0; channel < channelCount; channel++) {
+                pageValues[channel] = new long[positionCount];
+            }
+            pageNulls = new byte[positionCount];
+            pageRawHashes = new long[positionCount];
+        }
+    }
+
+    private byte readPosition(int position, Page page, int[] channels, long[] values)
+    {
+        byte nulls = 0;
+        for (int channel = 0; channel < channelCount; channel++) {
+            Block block = page.getBlock(channels[channel]);
+            if (block.isNull(position)) {
+                values[channel] = 0;
+                nulls |= 1 << channel;
+            }
+            else {
+                values[channel] = hashTypes.get(channel).getLong(block, position);
+            }
+        }
+        return nulls;
+    }
+
+    private long hashRow(long[] values, byte nulls)
+    {
+        long rawHash = INITIAL_HASH_VALUE;
+        for (int channel = 0; channel < channelCount; channel++) {
+            rawHash = CombineHashFunction.getHash(rawHash, isNull(nulls, channel) ? NULL_HASH_CODE : AbstractLongType.hash(values[channel]));
+        }
+        return rawHash;
+    }
+
+    private int loadPage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        ensurePageCapacity(positionCount);
+
+        byte[] nulls = pageNulls;
+        for (int position = 0; position < positionCount; position++) {
+            nulls[position] = 0;
+        }
+
+        long[] rawHashes = pageRawHashes;
+        if (!inputHashChannel.isPresent()) {
+            for (int position = 0; position < positionCount; position++) {
+                rawHashes[position] = INITIAL_HASH_VALUE;
+            }
+        }
+
+        for (int channel = 0; channel < channelCount; channel++) {
+            Type type = hashTypes.get(channel);
+            Block block = page.getBlock(hashChannels[channel]);
+            long[] values = pageValues[channel];
+            byte nullBit = (byte) (1 << channel);
+            for (int position = 0; position < positionCount; position++) {
+                if (block.isNull(position)) {
+                    values[position] = 0;
+                    nulls[position] |= nullBit;
+                }
+                else {
+                    values[position] = type.getLong(block, position);
+                }
+            }
+
+            if (!inputHashChannel.isPresent()) {
+                for (int position = 0; position < positionCount; position++) {
+                    long hash = (nulls[position] & nullBit) != 0 ? NULL_HASH_CODE : AbstractLongType.hash(values[position]);
+                    rawHashes[position] = CombineHashFunction.getHash(rawHashes[position], hash);
+                }
+            }
+        }
+
+        if (inputHashChannel.isPresent()) {
+            Block hashBlock = page.getBlock(inputHashChannel.get());
+            for (int position = 0; position < positionCount; position++) {
+                rawHashes[position] = BIGINT.getLong(hashBlock, position);
+            }
+        }
+        return positionCount;
+    }
+
+    private int putIfAbsent(int position)
+    {
+        long rawHash = pageRawHashes[position];
+        byte nulls = pageNulls[position];
+        long hashPosition = getHashPosition(rawHash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIds.get(hashPosition);
+            if (groupId == -1) {
+                break;
+            }
+
+            if (rawHashByGroupId.get(groupId) == rawHash && nullsByGroupId.get(groupId) == nulls && groupEqualsPosition(groupId, position)) {
+                return groupId;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, position, rawHash, nulls);
+    }
+
+    private boolean groupEqualsPosition(int groupId, int position)
+    {
+        long valuesOffset = (long) groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            if (valuesByGroupId.get(valuesOffset + channel) != pageValues[channel][position]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean groupEquals(int groupId, long[] values)
+    {
+        long valuesOffset = (long) groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            if (valuesByGroupId.get(valuesOffset + channel) != values[channel]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(long hashPosition, int position, long rawHash, byte nulls)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        long valuesOffset = (long) groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            valuesByGroupId.set(valuesOffset + channel, pageValues[channel][position]);
+        }
+        nullsByGroupId.set(groupId, nulls);
+        rawHashByGroupId.set(groupId, rawHash);
+        groupIds.set(hashPosition, groupId);
+
+        // increase capacity, if necessary
+        if (nextGroupId >= maxFill) {
+            rehash();
+        }
+        return groupId;
+    }
+
+    private void rehash()
+    {
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = (int) newCapacityLong;
+
+        int newMask = newCapacity - 1;
+        IntBigArray newGroupIds = new IntBigArray(-1);
+        newGroupIds.ensureCapacity(newCapacity);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            // find an empty slot for the address
+            long hashPosition = getHashPosition(rawHashByGroupId.get(groupId), newMask);
+            while (newGroupIds.get(hashPosition) != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            newGroupIds.set(hashPosition, groupId);
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        groupIds = newGroupIds;
+
+        valuesByGroupId.ensureCapacity((long) maxFill * channelCount);
+        nullsByGroupId.ensureCapacity(maxFill);
+        rawHashByGroupId.ensureCapacity(maxFill);
+    }
+
+    private static boolean isNull(byte nulls, int channel)
+    {
+        return (nulls & (1 << channel)) != 0;
+    }
+
+    private static long getHashPosition(long rawHash, int mask)
+    {
+        return murmurHash3(rawHash) & mask;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+}
@@ -17,6 +17,7 @@ import com.facebook.presto.execution.buffer.OutputBuffer;
 import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.execution.buffer.SpeculativeOutputBuffer;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
@@ -198,6 +199,7 @@ public class PartitionedOutputOperator
     private final OperatorContext operatorContext;
     private final Function<Page, Page> pagePreprocessor;
     private final PagePartitioner partitionFunction;
+    private final Optional<SpeculativeOutputBuffer> speculativeOutputBuffer;
     private ListenableFuture<?> blocked = NOT_BLOCKED;
     private boolean finished;
 
@@ -216,13 +218,16 @@ public class PartitionedOutputOperator
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
+        requireNonNull(outputBuffer, "outputBuffer is null");
+        // output of a speculatively executed split is held back until the coordinator commits it
+        this.speculativeOutputBuffer = operatorContext.getDriverContext().getSpeculativeOutputBuffer();
         this.partitionFunction = new PagePartitioner(
                 partitionFunction,
                 partitionChannels,
                 partitionConstants,
                 replicatesAnyRow,
                 nullChannel,
-                outputBuffer,
+                speculativeOutputBuffer.isPresent() ? speculativeOutputBuffer.get() : outputBuffer,
                 serdeFactory,
                 sourceTypes,
                 maxMemory);
@@ -254,13 +259,26 @@ public class PartitionedOutputOperator
     @Override
     public void finish()
     {
+        if (finished) {
+            return;
+        }
         finished = true;
         blocked = partitionFunction.flush(true);
+        if (speculativeOutputBuffer.isPresent()) {
+            updateSpeculativeMemoryReservation();
+            blocked = speculativeOutputBuffer.get().splitFinished();
+        }
     }
 
     @Override
     public boolean isFinished()
     {
+        if (speculativeOutputBuffer.isPresent()) {
+            updateSpeculativeMemoryReservation();
+            if (speculativeOutputBuffer.get().isAborted()) {
+                return true;
+            }
+        }
         return finished && isBlocked().isDone();
     }
 
@@ -291,10 +309,18 @@ public class PartitionedOutputOperator
 
         page = pagePreprocessor.apply(page);
         blocked = partitionFunction.partitionPage(page);
+        if (speculativeOutputBuffer.isPresent()) {
+            updateSpeculativeMemoryReservation();
+        }
 
         operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
     }
 
+    private void updateSpeculativeMemoryReservation()
+    {
+        operatorContext.setMemoryReservation(speculativeOutputBuffer.get().getStagedBytes());
+    }
+
     @Override
     public Page getOutput()
     {
@@ -40,6 +40,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
@@ -74,6 +75,7 @@ public class ScanFilterAndProjectOperator
 
     private long completedBytes;
     private long readTimeNanos;
+    private volatile OptionalDouble progress = OptionalDouble.empty();
 
     protected ScanFilterAndProjectOperator(
             OperatorContext operatorContext,
@@ -151,6 +153,12 @@ public class ScanFilterAndProjectOperator
         blocked.set(null);
     }
 
+    @Override
+    public OptionalDouble getProgress()
+    {
+        return progress;
+    }
+
     @Override
     public final List<Type> getTypes()
     {
@@ -282,6 +290,7 @@ public class ScanFilterAndProjectOperator
                 operatorContext.recordGeneratedInput(endCompletedBytes - completedBytes, page.getPositionCount(), endReadTimeNanos - readTimeNanos);
                 completedBytes = endCompletedBytes;
                 readTimeNanos = endReadTimeNanos;
+                progress = pageSource.getProgress();
 
                 PageProcessorOutput output = pageProcessor.process(operatorContext.getSession().toConnectorSession(), page);
                 mergingOutput.addInput(output);
@@ -18,6 +18,7 @@ import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.function.Supplier;
 
 public interface SourceOperator
@@ -28,4 +29,13 @@ public interface SourceOperator
     Supplier<Optional<UpdatablePageSource>> addSplit(Split split);
 
     void noMoreSplits();
+
+    /**
+     * Gets the fraction of the split processed so far, as reported by the connector.
+     * This method may be called from any thread.
+     */
+    default OptionalDouble getProgress()
+    {
+        return OptionalDouble.empty();
+    }
 }
@@ -0,0 +1,314 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.LocalMemoryContext;
+import com.facebook.presto.operator.AggregationOperator.Aggregator;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Aggregates input that arrives grouped on the grouping keys, i.e. where all rows of
+ * a group are adjacent. Only the accumulators of the current group are kept in memory,
+ * and a group is emitted as soon as the keys change. A group that is split across
+ * several runs of input is emitted once per run, so this is only correct as a partial
+ * aggregation, or when the input is grouped as a whole.
+ */
+public class StreamingAggregationOperator
+        implements Operator
+{
+    public static class StreamingAggregationOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final List<Type> groupByTypes;
+        private final List<Integer> groupByChannels;
+        private final Optional<Integer> hashChannel;
+        private final Step step;
+        private final List<AccumulatorFactory> accumulatorFactories;
+        private final List<Type> types;
+        private boolean closed;
+
+        public StreamingAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                Optional<Integer> hashChannel,
+                Step step,
+                List<AccumulatorFactory> accumulatorFactories)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.groupByTypes = ImmutableList.copyOf(requireNonNull(groupByTypes, "groupByTypes is null"));
+            this.groupByChannels = ImmutableList.copyOf(requireNonNull(groupByChannels, "groupByChannels is null"));
+            this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+            this.step = requireNonNull(step, "step is null");
+            this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+            this.types = toTypes(this.groupByTypes, hashChannel, step, this.accumulatorFactories);
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, StreamingAggregationOperator.class.getSimpleName());
+            return new StreamingAggregationOperator(operatorContext, groupByTypes, groupByChannels, hashChannel, step, accumulatorFactories);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new StreamingAggregationOperatorFactory(operatorId, planNodeId, groupByTypes, groupByChannels, hashChannel, step, accumulatorFactories);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final LocalMemoryContext systemMemoryContext;
+    private final List<Type> groupByTypes;
+    private final int[] groupByChannels;
+    private final Optional<Integer> hashChannel;
+    private final Step step;
+    private final List<AccumulatorFactory> accumulatorFactories;
+    private final List<Type> types;
+    private final PageBuilder pageBuilder;
+    private final Deque<Page> outputPages = new ArrayDeque<>();
+
+    private List<Aggregator> aggregates;
+    // single position blocks holding the keys (and hash) of the current group, or null before the first row
+    private Block[] currentGroup;
+    private boolean finishing;
+
+    public StreamingAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            Step step,
+            List<AccumulatorFactory> accumulatorFactories)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.systemMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
+        this.groupByTypes = ImmutableList.copyOf(requireNonNull(groupByTypes, "groupByTypes is null"));
+        this.groupByChannels = requireNonNull(groupByChannels, "groupByChannels is null").stream().mapToInt(Integer::intValue).toArray();
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.step = requireNonNull(step, "step is null");
+        this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+        this.types = toTypes(this.groupByTypes, hashChannel, step, this.accumulatorFactories);
+        this.pageBuilder = new PageBuilder(types);
+        this.aggregates = createAggregates();
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+
+        if (currentGroup != null) {
+            evaluateCurrentGroup();
+        }
+        if (!pageBuilder.isEmpty()) {
+            outputPages.add(pageBuilder.build());
+            pageBuilder.reset();
+        }
+        systemMemoryContext.setBytes(0);
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && outputPages.isEmpty();
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && outputPages.isEmpty();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkState(needsInput(), "Operator is already finishing");
+        requireNonNull(page, "page is null");
+
+        int positionCount = page.getPositionCount();
+        int start = 0;
+        while (start < positionCount) {
+            if (currentGroup != null && !isCurrentGroup(page, start)) {
+                evaluateCurrentGroup();
+            }
+            if (currentGroup == null) {
+                currentGroup = extractGroup(page, start);
+            }
+
+            int end = findGroupEnd(page, start);
+            Page region = (start == 0 && end == positionCount) ? page : page.getRegion(start, end - start);
+            for (Aggregator aggregate : aggregates) {
+                aggregate.processPage(region);
+            }
+            start = end;
+        }
+
+        long memorySize = pageBuilder.getRetainedSizeInBytes();
+        for (Aggregator aggregate : aggregates) {
+            memorySize += aggregate.getEstimatedSize();
+        }
+        systemMemoryContext.setBytes(memorySize);
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return outputPages.poll();
+    }
+
+    private List<Aggregator> createAggregates()
+    {
+        ImmutableList.Builder<Aggregator> builder = ImmutableList.builder();
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            builder.add(new Aggregator(accumulatorFactory, step));
+        }
+        return builder.build();
+    }
+
+    private Block[] extractGroup(Page page, int position)
+    {
+        Block[] group = new Block[types.size() - accumulatorFactories.size()];
+        for (int i = 0; i < groupByChannels.length; i++) {
+            group[i] = page.getBlock(groupByChannels[i]).getSingleValueBlock(position);
+        }
+        if (hashChannel.isPresent()) {
+            group[groupByChannels.length] = page.getBlock(hashChannel.get()).getSingleValueBlock(position);
+        }
+        return group;
+    }
+
+    private boolean isCurrentGroup(Page page, int position)
+    {
+        for (int i = 0; i < groupByChannels.length; i++) {
+            if (!valuesEqual(groupByTypes.get(i), currentGroup[i], 0, page.getBlock(groupByChannels[i]), position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int findGroupEnd(Page page, int start)
+    {
+        int end = start + 1;
+        while (end < page.getPositionCount() && isSameGroup(page, start, end)) {
+            end++;
+        }
+        return end;
+    }
+
+    private boolean isSameGroup(Page page, int left, int right)
+    {
+        for (int i = 0; i < groupByChannels.length; i++) {
+            Block block = page.getBlock(groupByChannels[i]);
+            if (!valuesEqual(groupByTypes.get(i), block, left, block, right)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void evaluateCurrentGroup()
+    {
+        pageBuilder.declarePosition();
+        int channel = 0;
+        for (; channel < currentGroup.length; channel++) {
+            types.get(channel).appendTo(currentGroup[channel], 0, pageBuilder.getBlockBuilder(channel));
+        }
+        for (Aggregator aggregate : aggregates) {
+            aggregate.evaluate(pageBuilder.getBlockBuilder(channel));
+            channel++;
+        }
+
+        currentGroup = null;
+        aggregates = createAggregates();
+
+        if (pageBuilder.isFull()) {
+            outputPages.add(pageBuilder.build());
+            pageBuilder.reset();
+        }
+    }
+
+    private static boolean valuesEqual(Type type, Block left, int leftPosition, Block right, int rightPosition)
+    {
+        boolean leftNull = left.isNull(leftPosition);
+        boolean rightNull = right.isNull(rightPosition);
+        if (leftNull || rightNull) {
+            return leftNull && rightNull;
+        }
+        return type.equalTo(left, leftPosition, right, rightPosition);
+    }
+
+    private static List<Type> toTypes(List<Type> groupByTypes, Optional<Integer> hashChannel, Step step, List<AccumulatorFactory> accumulatorFactories)
+    {
+        ImmutableList.Builder<Type> types = ImmutableList.builder();
+        types.addAll(groupByTypes);
+        if (hashChannel.isPresent()) {
+            types.add(BIGINT);
+        }
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            types.add(new Aggregator(accumulatorFactory, step).getType());
+        }
+        return types.build();
+    }
+}
@@ -33,6 +33,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
@@ -114,6 +115,7 @@ public class TableScanOperator
 
     private long completedBytes;
     private long readTimeNanos;
+    private volatile OptionalDouble progress = OptionalDouble.empty();
 
     public TableScanOperator(
             OperatorContext operatorContext,
@@ -182,6 +184,12 @@ public class TableScanOperator
         blocked.set(null);
     }
 
+    @Override
+    public OptionalDouble getProgress()
+    {
+        return progress;
+    }
+
     @Override
     public List<Type> getTypes()
     {
@@ -270,6 +278,7 @@ public class TableScanOperator
             operatorContext.recordGeneratedInput(endCompletedBytes - completedBytes, page.getPositionCount(), endReadTimeNanos - readTimeNanos);
             completedBytes = endCompletedBytes;
             readTimeNanos = endReadTimeNanos;
+            progress = source.getProgress();
         }
 
         // updating system memory usage should happen after page is loaded.
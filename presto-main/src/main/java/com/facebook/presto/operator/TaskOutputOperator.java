@@ -17,6 +17,7 @@ import com.facebook.presto.execution.buffer.OutputBuffer;
 import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.execution.buffer.SpeculativeOutputBuffer;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -24,6 +25,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
@@ -99,13 +101,17 @@ public class TaskOutputOperator
     private final OutputBuffer outputBuffer;
     private final Function<Page, Page> pagePreprocessor;
     private final PagesSerde serde;
+    private final Optional<SpeculativeOutputBuffer> speculativeOutputBuffer;
     private ListenableFuture<?> blocked = NOT_BLOCKED;
     private boolean finished;
 
     public TaskOutputOperator(OperatorContext operatorContext, OutputBuffer outputBuffer, Function<Page, Page> pagePreprocessor, PagesSerdeFactory serdeFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
-        this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
+        requireNonNull(outputBuffer, "outputBuffer is null");
+        // output of a speculatively executed split is held back until the coordinator commits it
+        this.speculativeOutputBuffer = operatorContext.getDriverContext().getSpeculativeOutputBuffer();
+        this.outputBuffer = speculativeOutputBuffer.isPresent() ? speculativeOutputBuffer.get() : outputBuffer;
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
         this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
     }
@@ -125,7 +131,13 @@ public class TaskOutputOperator
     @Override
     public void finish()
     {
+        if (finished) {
+            return;
+        }
         finished = true;
+        if (speculativeOutputBuffer.isPresent()) {
+            blocked = speculativeOutputBuffer.get().splitFinished();
+        }
     }
 
     @Override
@@ -134,6 +146,12 @@ public class TaskOutputOperator
         if (blocked != NOT_BLOCKED && blocked.isDone()) {
             blocked = NOT_BLOCKED;
         }
+        if (speculativeOutputBuffer.isPresent()) {
+            operatorContext.setMemoryReservation(speculativeOutputBuffer.get().getStagedBytes());
+            if (speculativeOutputBuffer.get().isAborted()) {
+                return true;
+            }
+        }
 
         return finished && blocked == NOT_BLOCKED;
     }
@@ -175,6 +193,9 @@ public class TaskOutputOperator
         if (!future.isDone()) {
             this.blocked = future;
         }
+        if (speculativeOutputBuffer.isPresent()) {
+            operatorContext.setMemoryReservation(speculativeOutputBuffer.get().getStagedBytes());
+        }
         operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
     }
 
@@ -29,14 +29,23 @@ public class DictionaryAwarePageFilter
         implements PageFilter
 {
     private final PageFilter filter;
+    private final DictionaryResultCache.Scope cache;
+    private final int expression;
 
     private Block lastInputDictionary;
     private Optional<boolean[]> lastOutputDictionary;
     private long lastDictionaryUsageCount;
 
     public DictionaryAwarePageFilter(PageFilter filter)
+    {
+        this(filter, DictionaryResultCache.disabled().newScope(), 0);
+    }
+
+    public DictionaryAwarePageFilter(PageFilter filter, DictionaryResultCache.Scope cache, int expression)
     {
         this.filter = requireNonNull(filter, "filter is null");
+        this.cache = requireNonNull(cache, "cache is null");
+        this.expression = expression;
 
         verify(filter.isDeterministic(), "filter must be deterministic");
         verify(filter.getInputChannels().size() == 1, "filter must have only one input");
@@ -100,10 +109,19 @@ public class DictionaryAwarePageFilter
         lastDictionaryUsageCount = 0;
         lastInputDictionary = dictionary;
 
-        if (shouldProcessDictionary) {
+        // another driver may already have processed this dictionary
+        boolean[] cachedPositions = cache.getSelectedDictionaryPositions(expression, dictionary);
+        if (cachedPositions != null) {
+            lastOutputDictionary = Optional.of(cachedPositions);
+        }
+        else if (shouldProcessDictionary) {
             try {
                 SelectedPositions selectedDictionaryPositions = filter.filter(session, new Page(dictionary));
-                lastOutputDictionary = Optional.of(toPositionsMask(selectedDictionaryPositions, dictionary.getPositionCount()));
+                boolean[] positionsMask = toPositionsMask(selectedDictionaryPositions, dictionary.getPositionCount());
+                if (dictionary.getPositionCount() > 1) {
+                    cache.putSelectedDictionaryPositions(expression, dictionary, positionsMask);
+                }
+                lastOutputDictionary = Optional.of(positionsMask);
             }
             catch (Exception ignored) {
                 // Processing of dictionary failed, but we ignore the exception here
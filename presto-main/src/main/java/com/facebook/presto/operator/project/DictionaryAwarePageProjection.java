@@ -33,15 +33,24 @@ public class DictionaryAwarePageProjection
 {
     private final PageProjection projection;
     private final Function<DictionaryBlock, DictionaryId> sourceIdFunction;
+    private final DictionaryResultCache.Scope cache;
+    private final int expression;
 
     private Block lastInputDictionary;
     private Optional<Block> lastOutputDictionary;
     private long lastDictionaryUsageCount;
 
     public DictionaryAwarePageProjection(PageProjection projection, Function<DictionaryBlock, DictionaryId> sourceIdFunction)
+    {
+        this(projection, sourceIdFunction, DictionaryResultCache.disabled().newScope(), 0);
+    }
+
+    public DictionaryAwarePageProjection(PageProjection projection, Function<DictionaryBlock, DictionaryId> sourceIdFunction, DictionaryResultCache.Scope cache, int expression)
     {
         this.projection = requireNonNull(projection, "projection is null");
         this.sourceIdFunction = sourceIdFunction;
+        this.cache = requireNonNull(cache, "cache is null");
+        this.expression = expression;
         verify(projection.isDeterministic(), "projection must be deterministic");
         verify(projection.getInputChannels().size() == 1, "projection must have only one input");
     }
@@ -112,9 +121,18 @@ public class DictionaryAwarePageProjection
         lastDictionaryUsageCount = 0;
         lastInputDictionary = dictionary;
 
-        if (shouldProcessDictionary) {
+        // another driver may already have processed this dictionary
+        Block cachedDictionary = cache.getProjectedDictionary(expression, dictionary);
+        if (cachedDictionary != null) {
+            lastOutputDictionary = Optional.of(cachedDictionary);
+        }
+        else if (shouldProcessDictionary) {
             try {
-                lastOutputDictionary = Optional.of(projection.project(session, new Page(dictionary), SelectedPositions.positionsRange(0, dictionary.getPositionCount())));
+                Block projectedDictionary = projection.project(session, new Page(dictionary), SelectedPositions.positionsRange(0, dictionary.getPositionCount()));
+                if (dictionary.getPositionCount() > 1) {
+                    cache.putProjectedDictionary(expression, dictionary, projectedDictionary);
+                }
+                lastOutputDictionary = Optional.of(projectedDictionary);
             }
             catch (Exception ignored) {
                 // Processing of dictionary failed, but we ignore the exception here
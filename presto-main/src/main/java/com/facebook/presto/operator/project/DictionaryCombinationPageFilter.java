@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+
+import java.util.Optional;
+
+import static com.facebook.presto.operator.project.PageFilter.positionsArrayToSelectedPositions;
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a filter over several dictionary or run length encoded inputs once per
+ * distinct combination of dictionary ids.
+ */
+public class DictionaryCombinationPageFilter
+        implements PageFilter
+{
+    // pages to skip after the inputs did not repeat enough combinations
+    private static final int RETRY_INTERVAL = 16;
+
+    private final PageFilter filter;
+    private int pagesUntilRetry;
+    private boolean[] selectedPositions = new boolean[0];
+
+    public DictionaryCombinationPageFilter(PageFilter filter)
+    {
+        this.filter = requireNonNull(filter, "filter is null");
+        verify(filter.isDeterministic(), "filter must be deterministic");
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return filter.isDeterministic();
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return filter.getInputChannels();
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        if (pagesUntilRetry > 0) {
+            pagesUntilRetry--;
+            return filter.filter(session, page);
+        }
+
+        // only worth it if each combination is used by at least two positions
+        int positionCount = page.getPositionCount();
+        Optional<DictionaryCombinations> combinations = DictionaryCombinations.create(page, SelectedPositions.positionsRange(0, positionCount), Math.max(1, positionCount / 2));
+        if (!combinations.isPresent()) {
+            pagesUntilRetry = RETRY_INTERVAL;
+            return filter.filter(session, page);
+        }
+
+        int[] combinationPositions = combinations.get().getCombinationPositions();
+        SelectedPositions selectedCombinations = filter.filter(session, Page.mask(page, combinationPositions));
+        boolean[] selectedCombinationMask = new boolean[combinationPositions.length];
+        int offset = selectedCombinations.getOffset();
+        for (int i = offset; i < offset + selectedCombinations.size(); i++) {
+            selectedCombinationMask[selectedCombinations.isList() ? selectedCombinations.getPositions()[i] : i] = true;
+        }
+
+        if (selectedPositions.length < positionCount) {
+            selectedPositions = new boolean[positionCount];
+        }
+        int[] combinationIds = combinations.get().getCombinationIds();
+        for (int position = 0; position < positionCount; position++) {
+            selectedPositions[position] = selectedCombinationMask[combinationIds[position]];
+        }
+        return positionsArrayToSelectedPositions(selectedPositions, positionCount);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+
+import java.util.Optional;
+
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a projection over several dictionary or run length encoded inputs once per
+ * distinct combination of dictionary ids, and produces a dictionary over the results.
+ */
+public class DictionaryCombinationPageProjection
+        implements PageProjection
+{
+    // pages to skip after the inputs did not repeat enough combinations
+    private static final int RETRY_INTERVAL = 16;
+
+    private final PageProjection projection;
+    private int pagesUntilRetry;
+
+    public DictionaryCombinationPageProjection(PageProjection projection)
+    {
+        this.projection = requireNonNull(projection, "projection is null");
+        verify(projection.isDeterministic(), "projection must be deterministic");
+    }
+
+    @Override
+    public Type getType()
+    {
+        return projection.getType();
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return projection.isDeterministic();
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return projection.getInputChannels();
+    }
+
+    @Override
+    public Block project(ConnectorSession session, Page page, SelectedPositions selectedPositions)
+    {
+        if (pagesUntilRetry > 0) {
+            pagesUntilRetry--;
+            return projection.project(session, page, selectedPositions);
+        }
+
+        // only worth it if each combination is used by at least two positions
+        Optional<DictionaryCombinations> combinations = DictionaryCombinations.create(page, selectedPositions, Math.max(1, selectedPositions.size() / 2));
+        if (!combinations.isPresent()) {
+            pagesUntilRetry = RETRY_INTERVAL;
+            return projection.project(session, page, selectedPositions);
+        }
+
+        int[] combinationPositions = combinations.get().getCombinationPositions();
+        Block values = projection.project(session, page, SelectedPositions.positionsList(combinationPositions, 0, combinationPositions.length));
+        if (combinationPositions.length == 1) {
+            return new RunLengthEncodedBlock(values, selectedPositions.size());
+        }
+        return new DictionaryBlock(selectedPositions.size(), values, combinations.get().getCombinationIds());
+    }
+}
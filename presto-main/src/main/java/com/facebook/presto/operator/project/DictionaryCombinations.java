@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * Distinct combinations of dictionary ids of a page where every block is a dictionary or
+ * run length encoded, so an expression over the page only needs to be evaluated once per
+ * combination instead of once per position.
+ */
+final class DictionaryCombinations
+{
+    // combination keys below this bound are mapped with an array instead of a hash table
+    private static final int MAX_ARRAY_COMBINATIONS = 64 * 1024;
+
+    private final int[] combinationIds;
+    private final int[] combinationPositions;
+
+    private DictionaryCombinations(int[] combinationIds, int[] combinationPositions)
+    {
+        this.combinationIds = combinationIds;
+        this.combinationPositions = combinationPositions;
+    }
+
+    /**
+     * Returns the combination of each selected position, or empty if a block is neither a
+     * dictionary nor run length encoded, or there are more than {@code maxCombinations}
+     * distinct combinations.
+     */
+    public static Optional<DictionaryCombinations> create(Page page, SelectedPositions selectedPositions, int maxCombinations)
+    {
+        int channelCount = page.getChannelCount();
+        DictionaryBlock[] dictionaries = new DictionaryBlock[channelCount];
+        long[] multipliers = new long[channelCount];
+        long combinationCount = 1;
+        for (int channel = 0; channel < channelCount; channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock) {
+                block = ((LazyBlock) block).getBlock();
+            }
+            if (block instanceof RunLengthEncodedBlock) {
+                continue;
+            }
+            if (!(block instanceof DictionaryBlock)) {
+                return Optional.empty();
+            }
+            dictionaries[channel] = (DictionaryBlock) block;
+            multipliers[channel] = combinationCount;
+            int dictionarySize = dictionaries[channel].getDictionary().getPositionCount();
+            if (combinationCount > Long.MAX_VALUE / Math.max(dictionarySize, 1)) {
+                return Optional.empty();
+            }
+            combinationCount *= dictionarySize;
+        }
+
+        int size = selectedPositions.size();
+        int[] combinationIds = new int[size];
+        int[] combinationPositions = new int[Math.min(size, maxCombinations)];
+        int distinctCount = 0;
+
+        int[] combinationsArray = null;
+        Long2IntOpenHashMap combinationsMap = null;
+        if (combinationCount <= MAX_ARRAY_COMBINATIONS) {
+            combinationsArray = new int[toIntExact(combinationCount)];
+            Arrays.fill(combinationsArray, -1);
+        }
+        else {
+            combinationsMap = new Long2IntOpenHashMap();
+            combinationsMap.defaultReturnValue(-1);
+        }
+
+        int[] positions = selectedPositions.isList() ? selectedPositions.getPositions() : null;
+        int offset = selectedPositions.getOffset();
+        for (int i = 0; i < size; i++) {
+            int position = positions == null ? offset + i : positions[offset + i];
+            long key = 0;
+            for (int channel = 0; channel < channelCount; channel++) {
+                if (dictionaries[channel] != null) {
+                    key += dictionaries[channel].getId(position) * multipliers[channel];
+                }
+            }
+
+            int combination = combinationsArray != null ? combinationsArray[(int) key] : combinationsMap.get(key);
+            if (combination < 0) {
+                if (distinctCount == maxCombinations) {
+                    return Optional.empty();
+                }
+                combination = distinctCount;
+                combinationPositions[distinctCount] = position;
+                distinctCount++;
+                if (combinationsArray != null) {
+                    combinationsArray[(int) key] = combination;
+                }
+                else {
+                    combinationsMap.put(key, combination);
+                }
+            }
+            combinationIds[i] = combination;
+        }
+        return Optional.of(new DictionaryCombinations(combinationIds, Arrays.copyOf(combinationPositions, distinctCount)));
+    }
+
+    /**
+     * Combination of each of the selected positions.
+     */
+    public int[] getCombinationIds()
+    {
+        return combinationIds;
+    }
+
+    /**
+     * A position of the page for each combination, in increasing order.
+     */
+    public int[] getCombinationPositions()
+    {
+        return combinationPositions;
+    }
+
+    public int getCombinationCount()
+    {
+        return combinationPositions.length;
+    }
+}
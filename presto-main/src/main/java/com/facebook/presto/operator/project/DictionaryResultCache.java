@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.block.Block;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Results of deterministic filters and projections over a dictionary, shared by all drivers
+ * that evaluate the same expression over the same dictionary, for example when a page is
+ * broadcast to several drivers or a connector hands out the same dictionary for many pages.
+ * <p>
+ * Entries are keyed on the dictionary instance rather than on its {@link com.facebook.presto.spi.block.DictionaryId},
+ * since dictionary blocks with different dictionaries can share an id. Dictionaries are only
+ * weakly referenced, so the cache never keeps input data alive.
+ */
+@ThreadSafe
+public class DictionaryResultCache
+{
+    private static final DictionaryResultCache DISABLED = new DictionaryResultCache(new DataSize(0, BYTE));
+
+    @Nullable
+    private final Cache<CacheKey, Object> cache;
+
+    public DictionaryResultCache(DataSize maxSize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        if (maxSize.toBytes() == 0) {
+            cache = null;
+        }
+        else {
+            cache = CacheBuilder.newBuilder()
+                    .maximumWeight(maxSize.toBytes())
+                    .weigher((CacheKey key, Object value) -> toIntExact(Math.min(Integer.MAX_VALUE, getSizeInBytes(value))))
+                    .recordStats()
+                    .build();
+        }
+    }
+
+    public static DictionaryResultCache disabled()
+    {
+        return DISABLED;
+    }
+
+    /**
+     * Returns a scope for the expressions of one compiled page processor. Results are shared
+     * between all page processors created with the same scope.
+     */
+    public Scope newScope()
+    {
+        return new Scope();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache == null ? 0 : cache.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache == null ? 0 : cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getRequestCount()
+    {
+        return cache == null ? 0 : cache.stats().requestCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache == null ? 0 : cache.stats().evictionCount();
+    }
+
+    private static long getSizeInBytes(Object value)
+    {
+        if (value instanceof Block) {
+            return ((Block) value).getRetainedSizeInBytes();
+        }
+        return ((boolean[]) value).length;
+    }
+
+    public class Scope
+    {
+        private Scope() {}
+
+        @Nullable
+        public Block getProjectedDictionary(int expression, Block dictionary)
+        {
+            return (Block) get(expression, dictionary);
+        }
+
+        public void putProjectedDictionary(int expression, Block dictionary, Block projectedDictionary)
+        {
+            put(expression, dictionary, projectedDictionary);
+        }
+
+        @Nullable
+        public boolean[] getSelectedDictionaryPositions(int expression, Block dictionary)
+        {
+            return (boolean[]) get(expression, dictionary);
+        }
+
+        public void putSelectedDictionaryPositions(int expression, Block dictionary, boolean[] selectedDictionaryPositions)
+        {
+            put(expression, dictionary, selectedDictionaryPositions);
+        }
+
+        @Nullable
+        private Object get(int expression, Block dictionary)
+        {
+            if (cache == null) {
+                return null;
+            }
+            return cache.getIfPresent(new CacheKey(this, expression, dictionary));
+        }
+
+        private void put(int expression, Block dictionary, Object result)
+        {
+            if (cache != null) {
+                cache.put(new CacheKey(this, expression, dictionary), result);
+            }
+        }
+    }
+
+    private static final class CacheKey
+    {
+        private final Scope scope;
+        private final int expression;
+        private final WeakReference<Block> dictionary;
+        private final int hashCode;
+
+        public CacheKey(Scope scope, int expression, Block dictionary)
+        {
+            this.scope = scope;
+            this.expression = expression;
+            this.dictionary = new WeakReference<>(dictionary);
+            this.hashCode = Objects.hash(System.identityHashCode(scope), expression, System.identityHashCode(dictionary));
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            Block dictionary = this.dictionary.get();
+            return scope == other.scope &&
+                    expression == other.expression &&
+                    dictionary != null &&
+                    dictionary == other.dictionary.get();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+}
@@ -21,9 +21,11 @@ import com.facebook.presto.spi.block.DictionaryId;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,8 +35,8 @@ import java.util.function.Function;
 import static com.facebook.presto.operator.project.PageProcessorOutput.EMPTY_PAGE_PROCESSOR_OUTPUT;
 import static com.facebook.presto.operator.project.SelectedPositions.positionsRange;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterators.singletonIterator;
 import static java.util.Objects.requireNonNull;
 
@@ -46,39 +48,87 @@ public class PageProcessor
     static final int MIN_PAGE_SIZE_IN_BYTES = 1024 * 1024;
 
     private final DictionarySourceIdFunction dictionarySourceIdFunction = new DictionarySourceIdFunction();
+    private final int subexpressionChannel;
+    private final List<PageProjection> filterSubexpressions;
     private final Optional<PageFilter> filter;
+    private final List<PageProjection> projectionSubexpressions;
     private final List<PageProjection> projections;
 
     private int projectBatchSize = MAX_BATCH_SIZE;
 
     public PageProcessor(Optional<PageFilter> filter, List<? extends PageProjection> projections)
     {
+        this(0, ImmutableList.of(), filter, ImmutableList.of(), projections, DictionaryResultCache.disabled().newScope());
+    }
+
+    /**
+     * The subexpressions are appended to the input page as additional channels, starting at
+     * {@code subexpressionChannel}, so the filter and projections can reference their results.
+     * The filter subexpressions are evaluated for all positions before the filter, and the
+     * projection subexpressions are evaluated for the selected positions of each batch.
+     */
+    public PageProcessor(
+            int subexpressionChannel,
+            List<? extends PageProjection> filterSubexpressions,
+            Optional<PageFilter> filter,
+            List<? extends PageProjection> projectionSubexpressions,
+            List<? extends PageProjection> projections,
+            DictionaryResultCache.Scope dictionaryResultCache)
+    {
+        checkArgument(subexpressionChannel >= 0, "subexpressionChannel is negative");
+        requireNonNull(filterSubexpressions, "filterSubexpressions is null");
+        requireNonNull(projectionSubexpressions, "projectionSubexpressions is null");
+        requireNonNull(projections, "projections is null");
+        requireNonNull(dictionaryResultCache, "dictionaryResultCache is null");
+
+        // the expressions are numbered in the same order by every processor sharing the cache
+        this.subexpressionChannel = subexpressionChannel;
+        this.filterSubexpressions = wrapDictionaryAware(filterSubexpressions, 0, dictionaryResultCache);
+        this.projectionSubexpressions = wrapDictionaryAware(projectionSubexpressions, filterSubexpressions.size(), dictionaryResultCache);
+        this.projections = wrapDictionaryAware(projections, filterSubexpressions.size() + projectionSubexpressions.size(), dictionaryResultCache);
+        int filterExpression = filterSubexpressions.size() + projectionSubexpressions.size() + projections.size();
         this.filter = requireNonNull(filter, "filter is null")
                 .map(pageFilter -> {
-                    if (pageFilter.getInputChannels().size() == 1 && pageFilter.isDeterministic()) {
-                        return new DictionaryAwarePageFilter(pageFilter);
+                    if (!pageFilter.isDeterministic()) {
+                        return pageFilter;
+                    }
+                    if (pageFilter.getInputChannels().size() == 1) {
+                        return new DictionaryAwarePageFilter(pageFilter, dictionaryResultCache, filterExpression);
+                    }
+                    if (pageFilter.getInputChannels().size() > 1) {
+                        return new DictionaryCombinationPageFilter(pageFilter);
                     }
                     return pageFilter;
                 });
-        this.projections = requireNonNull(projections, "projections is null").stream()
-                .map(projection -> {
-                    if (projection.getInputChannels().size() == 1 && projection.isDeterministic()) {
-                        return new DictionaryAwarePageProjection(projection, dictionarySourceIdFunction);
-                    }
-                    return projection;
-                })
-                .collect(toImmutableList());
     }
 
-    public PageProcessorOutput process(ConnectorSession session, Page page)
+    private List<PageProjection> wrapDictionaryAware(List<? extends PageProjection> projections, int firstExpression, DictionaryResultCache.Scope dictionaryResultCache)
+    {
+        ImmutableList.Builder<PageProjection> wrappedProjections = ImmutableList.builder();
+        for (int i = 0; i < projections.size(); i++) {
+            PageProjection projection = projections.get(i);
+            if (projection.isDeterministic() && projection.getInputChannels().size() == 1) {
+                projection = new DictionaryAwarePageProjection(projection, dictionarySourceIdFunction, dictionaryResultCache, firstExpression + i);
+            }
+            else if (projection.isDeterministic() && projection.getInputChannels().size() > 1) {
+                projection = new DictionaryCombinationPageProjection(projection);
+            }
+            wrappedProjections.add(projection);
+        }
+        return wrappedProjections.build();
+    }
+
+    public PageProcessorOutput process(ConnectorSession session, Page inputPage)
     {
         // limit the scope of the dictionary ids to just one page
         dictionarySourceIdFunction.reset();
 
-        if (page.getPositionCount() == 0) {
+        if (inputPage.getPositionCount() == 0) {
             return EMPTY_PAGE_PROCESSOR_OUTPUT;
         }
 
+        Page page = filterSubexpressions.isEmpty() && projectionSubexpressions.isEmpty() ? inputPage : appendFilterSubexpressions(session, inputPage);
+
         if (filter.isPresent()) {
             SelectedPositions selectedPositions = filter.get().filter(session, filter.get().getInputChannels().getInputChannels(page));
             if (selectedPositions.isEmpty()) {
@@ -99,6 +149,17 @@ public class PageProcessor
         return new PageProcessorOutput(pages::getRetainedSizeInBytes, pages);
     }
 
+    private Page appendFilterSubexpressions(ConnectorSession session, Page page)
+    {
+        Block[] blocks = new Block[subexpressionChannel + filterSubexpressions.size()];
+        System.arraycopy(page.getBlocks(), 0, blocks, 0, subexpressionChannel);
+        for (int i = 0; i < filterSubexpressions.size(); i++) {
+            PageProjection subexpression = filterSubexpressions.get(i);
+            blocks[subexpressionChannel + i] = subexpression.project(session, subexpression.getInputChannels().getInputChannels(page), positionsRange(0, page.getPositionCount()));
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
     @VisibleForTesting
     public List<PageProjection> getProjections()
     {
@@ -204,6 +265,7 @@ public class PageProcessor
 
             int pageSize = 0;
             SelectedPositions positionsBatch = selectedPositions.subRange(0, batchSize);
+            Page inputPage = appendProjectionSubexpressions(positionsBatch);
             for (int i = 0; i < projections.size(); i++) {
                 if (positionsBatch.size() > 1 && pageSize > MAX_PAGE_SIZE_IN_BYTES) {
                     return Optional.empty();
@@ -215,7 +277,7 @@ public class PageProcessor
                     blocks[i] = previouslyComputedResults[i].getRegion(0, batchSize);
                 }
                 else {
-                    previouslyComputedResults[i] = projection.project(session, projection.getInputChannels().getInputChannels(page), positionsBatch);
+                    previouslyComputedResults[i] = projection.project(session, projection.getInputChannels().getInputChannels(inputPage), positionsBatch);
                     blocks[i] = previouslyComputedResults[i];
                 }
 
@@ -223,6 +285,32 @@ public class PageProcessor
             }
             return Optional.of(new Page(positionsBatch.size(), blocks));
         }
+
+        private Page appendProjectionSubexpressions(SelectedPositions positionsBatch)
+        {
+            if (projectionSubexpressions.isEmpty()) {
+                return page;
+            }
+
+            // the results only cover the batch, so map them back to the positions of the page
+            int positionCount = page.getPositionCount();
+            int[] ids = null;
+            if (positionsBatch.isList() || positionsBatch.size() != positionCount) {
+                ids = new int[positionCount];
+                for (int i = 0; i < positionsBatch.size(); i++) {
+                    int position = positionsBatch.isList() ? positionsBatch.getPositions()[positionsBatch.getOffset() + i] : positionsBatch.getOffset() + i;
+                    ids[position] = i;
+                }
+            }
+
+            Block[] blocks = Arrays.copyOf(page.getBlocks(), page.getChannelCount() + projectionSubexpressions.size());
+            for (int i = 0; i < projectionSubexpressions.size(); i++) {
+                PageProjection subexpression = projectionSubexpressions.get(i);
+                Block block = subexpression.project(session, subexpression.getInputChannels().getInputChannels(page), positionsBatch);
+                blocks[page.getChannelCount() + i] = ids == null ? block : new DictionaryBlock(positionCount, block, ids);
+            }
+            return new Page(positionCount, blocks);
+        }
     }
 
     @NotThreadSafe
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An expression that is evaluated for a batch of positions at a time. The results are
+ * stored in primitive arrays owned by the expression, with the nulls tracked separately,
+ * so every operator is a tight loop over the arrays of its arguments.
+ * <p>
+ * Instances are not thread safe and the results are only valid until the next evaluation.
+ */
+public abstract class VectorExpression
+{
+    private final Type type;
+
+    // only the array matching the java type of the expression is used
+    long[] longValues = new long[0];
+    double[] doubleValues = new double[0];
+    boolean[] booleanValues = new boolean[0];
+
+    // invariant: when mayHaveNull is false, no element of nulls is set
+    boolean[] nulls = new boolean[0];
+    boolean mayHaveNull;
+
+    protected VectorExpression(Type type)
+    {
+        this.type = requireNonNull(type, "type is null");
+    }
+
+    public final Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * Evaluates the expression for the selected positions of the page. The result for
+     * the n-th selected position is stored at index n of the result arrays.
+     */
+    public abstract void evaluate(Page page, SelectedPositions positions);
+
+    final void ensureCapacity(int size)
+    {
+        if (nulls.length >= size) {
+            return;
+        }
+        nulls = new boolean[size];
+        mayHaveNull = false;
+
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            longValues = new long[size];
+        }
+        else if (javaType == double.class) {
+            doubleValues = new double[size];
+        }
+        else {
+            booleanValues = new boolean[size];
+        }
+    }
+
+    final void setNoNulls()
+    {
+        if (mayHaveNull) {
+            Arrays.fill(nulls, false);
+            mayHaveNull = false;
+        }
+    }
+
+    /**
+     * Must be called after the nulls of a batch were written position by position.
+     */
+    final void finishNulls(boolean hasNull)
+    {
+        if (!hasNull && mayHaveNull) {
+            // clear stale nulls of a previous, larger batch
+            Arrays.fill(nulls, false);
+        }
+        mayHaveNull = hasNull;
+    }
+
+    final void mergeNulls(int size, VectorExpression first, VectorExpression second)
+    {
+        if (!first.mayHaveNull && !second.mayHaveNull) {
+            setNoNulls();
+            return;
+        }
+        boolean[] firstNulls = first.nulls;
+        boolean[] secondNulls = second.nulls;
+        boolean hasNull = false;
+        for (int i = 0; i < size; i++) {
+            boolean isNull = firstNulls[i] | secondNulls[i];
+            nulls[i] = isNull;
+            hasNull |= isNull;
+        }
+        finishNulls(hasNull);
+    }
+}
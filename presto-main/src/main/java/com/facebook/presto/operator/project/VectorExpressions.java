@@ -0,0 +1,969 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.ByteArrayBlock;
+import com.facebook.presto.spi.block.IntArrayBlock;
+import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.block.LongArrayBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.function.OperatorType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.relational.ConstantExpression;
+import com.facebook.presto.sql.relational.InputReferenceExpression;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.type.BigintOperators;
+import com.facebook.presto.type.IntegerOperators;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.facebook.presto.metadata.FunctionRegistry.mangleOperatorName;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.sql.relational.Signatures.IS_NULL;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Double.longBitsToDouble;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Translates simple expressions over fixed width types into {@link VectorExpression}s.
+ * Comparisons, {@code BETWEEN}, arithmetic, widening casts and the logical operators are
+ * supported. All other expressions are evaluated a position at a time by the generated code.
+ */
+public final class VectorExpressions
+{
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, INTEGER, DATE, DOUBLE, BOOLEAN);
+    private static final Set<OperatorType> COMPARISON_OPERATORS = ImmutableSet.of(
+            OperatorType.EQUAL,
+            OperatorType.NOT_EQUAL,
+            OperatorType.LESS_THAN,
+            OperatorType.LESS_THAN_OR_EQUAL,
+            OperatorType.GREATER_THAN,
+            OperatorType.GREATER_THAN_OR_EQUAL);
+    private static final Set<OperatorType> ARITHMETIC_OPERATORS = ImmutableSet.of(
+            OperatorType.ADD,
+            OperatorType.SUBTRACT,
+            OperatorType.MULTIPLY,
+            OperatorType.DIVIDE);
+
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    private static final String NOT = "not";
+
+    private static final Map<String, OperatorType> OPERATORS;
+
+    static {
+        ImmutableMap.Builder<String, OperatorType> operators = ImmutableMap.builder();
+        for (OperatorType operator : OperatorType.values()) {
+            operators.put(mangleOperatorName(operator), operator);
+        }
+        OPERATORS = operators.build();
+    }
+
+    private VectorExpressions() {}
+
+    public static boolean isVectorizable(RowExpression expression)
+    {
+        return isVectorizable(expression, false);
+    }
+
+    /**
+     * @param conditional whether the generated code may skip the expression for some positions, because it is
+     * an argument of a logical operator decided by another argument, or follows an argument that may be null
+     */
+    private static boolean isVectorizable(RowExpression expression, boolean conditional)
+    {
+        if (!SUPPORTED_TYPES.contains(expression.getType())) {
+            return false;
+        }
+        if (expression instanceof InputReferenceExpression) {
+            return true;
+        }
+        if (expression instanceof ConstantExpression) {
+            return ((ConstantExpression) expression).getValue() != null;
+        }
+        if (!(expression instanceof CallExpression)) {
+            return false;
+        }
+
+        CallExpression call = (CallExpression) expression;
+        List<RowExpression> arguments = call.getArguments();
+        String name = call.getSignature().getName();
+        if (name.equals(AND) || name.equals(OR)) {
+            return arguments.size() == 2 && arguments.stream().allMatch(argument -> isVectorizable(argument, true));
+        }
+        if (name.equals(NOT) || name.equals(IS_NULL)) {
+            return arguments.size() == 1 && isVectorizable(arguments.get(0), conditional);
+        }
+
+        OperatorType operator = OPERATORS.get(name);
+        if (operator == null) {
+            return false;
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            if (!isVectorizable(arguments.get(i), conditional || isConditionalArgument(arguments, i))) {
+                return false;
+            }
+        }
+        Type argumentType = arguments.get(0).getType();
+        if (COMPARISON_OPERATORS.contains(operator) || operator == OperatorType.BETWEEN) {
+            return !argumentType.equals(BOOLEAN) && arguments.stream().allMatch(argument -> argument.getType().equals(argumentType));
+        }
+        if (ARITHMETIC_OPERATORS.contains(operator)) {
+            if (!arguments.stream().allMatch(argument -> argument.getType().equals(call.getType()))) {
+                return false;
+            }
+            if (call.getType().equals(DOUBLE)) {
+                return true;
+            }
+            // integral arithmetic fails on overflow or division by zero, which must not happen for positions the generated code would skip
+            return (call.getType().equals(BIGINT) || call.getType().equals(INTEGER)) && operator != OperatorType.DIVIDE && !conditional;
+        }
+        if (operator == OperatorType.CAST) {
+            return (argumentType.equals(INTEGER) && call.getType().equals(BIGINT)) ||
+                    ((argumentType.equals(INTEGER) || argumentType.equals(BIGINT)) && call.getType().equals(DOUBLE));
+        }
+        return false;
+    }
+
+    // the generated code stops evaluating the arguments of a call at the first null, so an argument is only
+    // evaluated for every position when all the arguments before it are non-null constants
+    private static boolean isConditionalArgument(List<RowExpression> arguments, int argument)
+    {
+        for (int i = 0; i < argument; i++) {
+            RowExpression previous = arguments.get(i);
+            if (!(previous instanceof ConstantExpression) || ((ConstantExpression) previous).getValue() == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static VectorExpression createVectorExpression(RowExpression expression)
+    {
+        checkArgument(isVectorizable(expression), "expression can not be vectorized: %s", expression);
+        return create(expression);
+    }
+
+    private static VectorExpression create(RowExpression expression)
+    {
+        Type type = expression.getType();
+        if (expression instanceof InputReferenceExpression) {
+            int channel = ((InputReferenceExpression) expression).getField();
+            if (type.getJavaType() == long.class) {
+                return new LongInput(type, channel);
+            }
+            if (type.getJavaType() == double.class) {
+                return new DoubleInput(type, channel);
+            }
+            return new BooleanInput(type, channel);
+        }
+        if (expression instanceof ConstantExpression) {
+            return new Constant(type, ((ConstantExpression) expression).getValue());
+        }
+
+        CallExpression call = (CallExpression) expression;
+        List<RowExpression> arguments = call.getArguments();
+        String name = call.getSignature().getName();
+        switch (name) {
+            case AND:
+                return new And(create(arguments.get(0)), create(arguments.get(1)));
+            case OR:
+                return new Or(create(arguments.get(0)), create(arguments.get(1)));
+            case NOT:
+                return new Not(create(arguments.get(0)));
+            case IS_NULL:
+                return new IsNull(create(arguments.get(0)));
+        }
+
+        OperatorType operator = OPERATORS.get(name);
+        boolean doubleArguments = arguments.get(0).getType().equals(DOUBLE);
+        if (COMPARISON_OPERATORS.contains(operator)) {
+            VectorExpression left = create(arguments.get(0));
+            VectorExpression right = create(arguments.get(1));
+            return doubleArguments ? new DoubleComparison(operator, left, right) : new LongComparison(operator, left, right);
+        }
+        if (operator == OperatorType.BETWEEN) {
+            VectorExpression value = create(arguments.get(0));
+            VectorExpression min = create(arguments.get(1));
+            VectorExpression max = create(arguments.get(2));
+            return doubleArguments ? new DoubleBetween(value, min, max) : new LongBetween(value, min, max);
+        }
+        if (ARITHMETIC_OPERATORS.contains(operator)) {
+            VectorExpression left = create(arguments.get(0));
+            VectorExpression right = create(arguments.get(1));
+            return doubleArguments ? new DoubleArithmetic(operator, left, right) : new LongArithmetic(type, operator, left, right);
+        }
+        if (type.equals(DOUBLE)) {
+            return new CastToDouble(create(arguments.get(0)));
+        }
+        // integer is represented as a long, so the cast to bigint does not change the values
+        return new Rename(type, create(arguments.get(0)));
+    }
+
+    // a lazy block has to be loaded anyway, and its loaded block may be an array block that can be copied in bulk
+    private static Block getInputBlock(Page page, int channel)
+    {
+        Block block = page.getBlock(channel);
+        if (block instanceof LazyBlock) {
+            return ((LazyBlock) block).getBlock();
+        }
+        return block;
+    }
+
+    private static final class LongInput
+            extends VectorExpression
+    {
+        private final int channel;
+        private int[] intValues = new int[0];
+
+        private LongInput(Type type, int channel)
+        {
+            super(type);
+            this.channel = channel;
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            Type type = getType();
+            Block block = getInputBlock(page, channel);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            if (block instanceof RunLengthEncodedBlock) {
+                Block value = ((RunLengthEncodedBlock) block).getValue();
+                if (value.isNull(0)) {
+                    Arrays.fill(nulls, 0, size, true);
+                    finishNulls(size > 0);
+                }
+                else {
+                    Arrays.fill(longValues, 0, size, type.getLong(value, 0));
+                    setNoNulls();
+                }
+                return;
+            }
+
+            int offset = positions.getOffset();
+            int[] selected = positions.isList() ? positions.getPositions() : null;
+            if (block instanceof LongArrayBlock && type.equals(BIGINT)) {
+                finishNulls(((LongArrayBlock) block).getLongs(selected, offset, size, longValues, nulls));
+                return;
+            }
+            if (block instanceof IntArrayBlock && (type.equals(INTEGER) || type.equals(DATE))) {
+                if (intValues.length < size) {
+                    intValues = new int[size];
+                }
+                boolean hasNull = ((IntArrayBlock) block).getInts(selected, offset, size, intValues, nulls);
+                for (int i = 0; i < size; i++) {
+                    longValues[i] = intValues[i];
+                }
+                finishNulls(hasNull);
+                return;
+            }
+
+            boolean hasNull = false;
+            for (int i = 0; i < size; i++) {
+                int position = selected == null ? offset + i : selected[offset + i];
+                boolean isNull = block.isNull(position);
+                nulls[i] = isNull;
+                hasNull |= isNull;
+                longValues[i] = isNull ? 0 : type.getLong(block, position);
+            }
+            finishNulls(hasNull);
+        }
+    }
+
+    private static final class DoubleInput
+            extends VectorExpression
+    {
+        private final int channel;
+        private long[] bits = new long[0];
+
+        private DoubleInput(Type type, int channel)
+        {
+            super(type);
+            this.channel = channel;
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            Type type = getType();
+            Block block = getInputBlock(page, channel);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            if (block instanceof RunLengthEncodedBlock) {
+                Block value = ((RunLengthEncodedBlock) block).getValue();
+                if (value.isNull(0)) {
+                    Arrays.fill(nulls, 0, size, true);
+                    finishNulls(size > 0);
+                }
+                else {
+                    Arrays.fill(doubleValues, 0, size, type.getDouble(value, 0));
+                    setNoNulls();
+                }
+                return;
+            }
+
+            int offset = positions.getOffset();
+            int[] selected = positions.isList() ? positions.getPositions() : null;
+            if (block instanceof LongArrayBlock) {
+                // doubles are stored as their raw long bits
+                if (bits.length < size) {
+                    bits = new long[size];
+                }
+                boolean hasNull = ((LongArrayBlock) block).getLongs(selected, offset, size, bits, nulls);
+                for (int i = 0; i < size; i++) {
+                    doubleValues[i] = longBitsToDouble(bits[i]);
+                }
+                finishNulls(hasNull);
+                return;
+            }
+
+            boolean hasNull = false;
+            for (int i = 0; i < size; i++) {
+                int position = selected == null ? offset + i : selected[offset + i];
+                boolean isNull = block.isNull(position);
+                nulls[i] = isNull;
+                hasNull |= isNull;
+                doubleValues[i] = isNull ? 0 : type.getDouble(block, position);
+            }
+            finishNulls(hasNull);
+        }
+    }
+
+    private static final class BooleanInput
+            extends VectorExpression
+    {
+        private final int channel;
+        private byte[] bytes = new byte[0];
+
+        private BooleanInput(Type type, int channel)
+        {
+            super(type);
+            this.channel = channel;
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            Type type = getType();
+            Block block = getInputBlock(page, channel);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            if (block instanceof RunLengthEncodedBlock) {
+                Block value = ((RunLengthEncodedBlock) block).getValue();
+                if (value.isNull(0)) {
+                    Arrays.fill(nulls, 0, size, true);
+                    finishNulls(size > 0);
+                }
+                else {
+                    Arrays.fill(booleanValues, 0, size, type.getBoolean(value, 0));
+                    setNoNulls();
+                }
+                return;
+            }
+
+            int offset = positions.getOffset();
+            int[] selected = positions.isList() ? positions.getPositions() : null;
+            if (block instanceof ByteArrayBlock) {
+                if (bytes.length < size) {
+                    bytes = new byte[size];
+                }
+                boolean hasNull = ((ByteArrayBlock) block).getBytes(selected, offset, size, bytes, nulls);
+                for (int i = 0; i < size; i++) {
+                    booleanValues[i] = bytes[i] != 0;
+                }
+                finishNulls(hasNull);
+                return;
+            }
+
+            boolean hasNull = false;
+            for (int i = 0; i < size; i++) {
+                int position = selected == null ? offset + i : selected[offset + i];
+                boolean isNull = block.isNull(position);
+                nulls[i] = isNull;
+                hasNull |= isNull;
+                booleanValues[i] = !isNull && type.getBoolean(block, position);
+            }
+            finishNulls(hasNull);
+        }
+    }
+
+    private static final class Constant
+            extends VectorExpression
+    {
+        private final Object value;
+        private int filled;
+
+        private Constant(Type type, Object value)
+        {
+            super(type);
+            this.value = requireNonNull(value, "value is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            int size = positions.size();
+            if (size <= filled) {
+                return;
+            }
+            ensureCapacity(size);
+            Class<?> javaType = getType().getJavaType();
+            if (javaType == long.class) {
+                Arrays.fill(longValues, (long) value);
+            }
+            else if (javaType == double.class) {
+                Arrays.fill(doubleValues, (double) value);
+            }
+            else {
+                Arrays.fill(booleanValues, (boolean) value);
+            }
+            filled = nulls.length;
+        }
+    }
+
+    private static final class And
+            extends VectorExpression
+    {
+        private final VectorExpression left;
+        private final VectorExpression right;
+
+        private And(VectorExpression left, VectorExpression right)
+        {
+            super(BOOLEAN);
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            left.evaluate(page, positions);
+            right.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            boolean[] leftValues = left.booleanValues;
+            boolean[] rightValues = right.booleanValues;
+            if (!left.mayHaveNull && !right.mayHaveNull) {
+                for (int i = 0; i < size; i++) {
+                    booleanValues[i] = leftValues[i] & rightValues[i];
+                }
+                setNoNulls();
+                return;
+            }
+
+            // false if either argument is false, otherwise null if either argument is null
+            boolean[] leftNulls = left.nulls;
+            boolean[] rightNulls = right.nulls;
+            boolean hasNull = false;
+            for (int i = 0; i < size; i++) {
+                boolean leftFalse = !leftNulls[i] & !leftValues[i];
+                boolean rightFalse = !rightNulls[i] & !rightValues[i];
+                boolean isNull = !leftFalse & !rightFalse & (leftNulls[i] | rightNulls[i]);
+                nulls[i] = isNull;
+                hasNull |= isNull;
+                booleanValues[i] = !isNull & !leftFalse & !rightFalse;
+            }
+            finishNulls(hasNull);
+        }
+    }
+
+    private static final class Or
+            extends VectorExpression
+    {
+        private final VectorExpression left;
+        private final VectorExpression right;
+
+        private Or(VectorExpression left, VectorExpression right)
+        {
+            super(BOOLEAN);
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            left.evaluate(page, positions);
+            right.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            boolean[] leftValues = left.booleanValues;
+            boolean[] rightValues = right.booleanValues;
+            if (!left.mayHaveNull && !right.mayHaveNull) {
+                for (int i = 0; i < size; i++) {
+                    booleanValues[i] = leftValues[i] | rightValues[i];
+                }
+                setNoNulls();
+                return;
+            }
+
+            // true if either argument is true, otherwise null if either argument is null
+            boolean[] leftNulls = left.nulls;
+            boolean[] rightNulls = right.nulls;
+            boolean hasNull = false;
+            for (int i = 0; i < size; i++) {
+                boolean leftTrue = !leftNulls[i] & leftValues[i];
+                boolean rightTrue = !rightNulls[i] & rightValues[i];
+                boolean isNull = !leftTrue & !rightTrue & (leftNulls[i] | rightNulls[i]);
+                nulls[i] = isNull;
+                hasNull |= isNull;
+                booleanValues[i] = leftTrue | rightTrue;
+            }
+            finishNulls(hasNull);
+        }
+    }
+
+    private static final class Not
+            extends VectorExpression
+    {
+        private final VectorExpression argument;
+
+        private Not(VectorExpression argument)
+        {
+            super(BOOLEAN);
+            this.argument = requireNonNull(argument, "argument is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            argument.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            boolean[] values = argument.booleanValues;
+            for (int i = 0; i < size; i++) {
+                booleanValues[i] = !values[i];
+            }
+            if (argument.mayHaveNull) {
+                System.arraycopy(argument.nulls, 0, nulls, 0, size);
+                finishNulls(true);
+            }
+            else {
+                setNoNulls();
+            }
+        }
+    }
+
+    private static final class IsNull
+            extends VectorExpression
+    {
+        private final VectorExpression argument;
+
+        private IsNull(VectorExpression argument)
+        {
+            super(BOOLEAN);
+            this.argument = requireNonNull(argument, "argument is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            argument.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            if (argument.mayHaveNull) {
+                System.arraycopy(argument.nulls, 0, booleanValues, 0, size);
+            }
+            else {
+                Arrays.fill(booleanValues, 0, size, false);
+            }
+            setNoNulls();
+        }
+    }
+
+    private static final class LongComparison
+            extends VectorExpression
+    {
+        private final OperatorType operator;
+        private final VectorExpression left;
+        private final VectorExpression right;
+
+        private LongComparison(OperatorType operator, VectorExpression left, VectorExpression right)
+        {
+            super(BOOLEAN);
+            this.operator = requireNonNull(operator, "operator is null");
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            left.evaluate(page, positions);
+            right.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+            mergeNulls(size, left, right);
+
+            long[] leftValues = left.longValues;
+            long[] rightValues = right.longValues;
+            boolean[] result = booleanValues;
+            switch (operator) {
+                case EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] == rightValues[i];
+                    }
+                    break;
+                case NOT_EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] != rightValues[i];
+                    }
+                    break;
+                case LESS_THAN:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] < rightValues[i];
+                    }
+                    break;
+                case LESS_THAN_OR_EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] <= rightValues[i];
+                    }
+                    break;
+                case GREATER_THAN:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] > rightValues[i];
+                    }
+                    break;
+                case GREATER_THAN_OR_EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] >= rightValues[i];
+                    }
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported comparison: " + operator);
+            }
+        }
+    }
+
+    private static final class DoubleComparison
+            extends VectorExpression
+    {
+        private final OperatorType operator;
+        private final VectorExpression left;
+        private final VectorExpression right;
+
+        private DoubleComparison(OperatorType operator, VectorExpression left, VectorExpression right)
+        {
+            super(BOOLEAN);
+            this.operator = requireNonNull(operator, "operator is null");
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            left.evaluate(page, positions);
+            right.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+            mergeNulls(size, left, right);
+
+            double[] leftValues = left.doubleValues;
+            double[] rightValues = right.doubleValues;
+            boolean[] result = booleanValues;
+            switch (operator) {
+                case EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] == rightValues[i];
+                    }
+                    break;
+                case NOT_EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] != rightValues[i];
+                    }
+                    break;
+                case LESS_THAN:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] < rightValues[i];
+                    }
+                    break;
+                case LESS_THAN_OR_EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] <= rightValues[i];
+                    }
+                    break;
+                case GREATER_THAN:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] > rightValues[i];
+                    }
+                    break;
+                case GREATER_THAN_OR_EQUAL:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] >= rightValues[i];
+                    }
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported comparison: " + operator);
+            }
+        }
+    }
+
+    private static final class LongBetween
+            extends VectorExpression
+    {
+        private final VectorExpression value;
+        private final VectorExpression min;
+        private final VectorExpression max;
+
+        private LongBetween(VectorExpression value, VectorExpression min, VectorExpression max)
+        {
+            super(BOOLEAN);
+            this.value = requireNonNull(value, "value is null");
+            this.min = requireNonNull(min, "min is null");
+            this.max = requireNonNull(max, "max is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            value.evaluate(page, positions);
+            min.evaluate(page, positions);
+            max.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+            mergeNulls(size, value, min);
+            mergeNulls(size, this, max);
+
+            long[] values = value.longValues;
+            long[] minValues = min.longValues;
+            long[] maxValues = max.longValues;
+            for (int i = 0; i < size; i++) {
+                booleanValues[i] = minValues[i] <= values[i] & values[i] <= maxValues[i];
+            }
+        }
+    }
+
+    private static final class DoubleBetween
+            extends VectorExpression
+    {
+        private final VectorExpression value;
+        private final VectorExpression min;
+        private final VectorExpression max;
+
+        private DoubleBetween(VectorExpression value, VectorExpression min, VectorExpression max)
+        {
+            super(BOOLEAN);
+            this.value = requireNonNull(value, "value is null");
+            this.min = requireNonNull(min, "min is null");
+            this.max = requireNonNull(max, "max is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            value.evaluate(page, positions);
+            min.evaluate(page, positions);
+            max.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+            mergeNulls(size, value, min);
+            mergeNulls(size, this, max);
+
+            double[] values = value.doubleValues;
+            double[] minValues = min.doubleValues;
+            double[] maxValues = max.doubleValues;
+            for (int i = 0; i < size; i++) {
+                booleanValues[i] = minValues[i] <= values[i] & values[i] <= maxValues[i];
+            }
+        }
+    }
+
+    private static final class LongArithmetic
+            extends VectorExpression
+    {
+        private final OperatorType operator;
+        private final boolean integer;
+        private final VectorExpression left;
+        private final VectorExpression right;
+
+        private LongArithmetic(Type type, OperatorType operator, VectorExpression left, VectorExpression right)
+        {
+            super(type);
+            this.operator = requireNonNull(operator, "operator is null");
+            this.integer = type.equals(INTEGER);
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            left.evaluate(page, positions);
+            right.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+            mergeNulls(size, left, right);
+
+            // the operators fail on overflow, so null positions are skipped
+            long[] leftValues = left.longValues;
+            long[] rightValues = right.longValues;
+            long[] result = longValues;
+            switch (operator) {
+                case ADD:
+                    for (int i = 0; i < size; i++) {
+                        if (!nulls[i]) {
+                            result[i] = integer ? IntegerOperators.add(leftValues[i], rightValues[i]) : BigintOperators.add(leftValues[i], rightValues[i]);
+                        }
+                    }
+                    break;
+                case SUBTRACT:
+                    for (int i = 0; i < size; i++) {
+                        if (!nulls[i]) {
+                            result[i] = integer ? IntegerOperators.subtract(leftValues[i], rightValues[i]) : BigintOperators.subtract(leftValues[i], rightValues[i]);
+                        }
+                    }
+                    break;
+                case MULTIPLY:
+                    for (int i = 0; i < size; i++) {
+                        if (!nulls[i]) {
+                            result[i] = integer ? IntegerOperators.multiply(leftValues[i], rightValues[i]) : BigintOperators.multiply(leftValues[i], rightValues[i]);
+                        }
+                    }
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported arithmetic: " + operator);
+            }
+        }
+    }
+
+    private static final class DoubleArithmetic
+            extends VectorExpression
+    {
+        private final OperatorType operator;
+        private final VectorExpression left;
+        private final VectorExpression right;
+
+        private DoubleArithmetic(OperatorType operator, VectorExpression left, VectorExpression right)
+        {
+            super(DOUBLE);
+            this.operator = requireNonNull(operator, "operator is null");
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            left.evaluate(page, positions);
+            right.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+            mergeNulls(size, left, right);
+
+            double[] leftValues = left.doubleValues;
+            double[] rightValues = right.doubleValues;
+            double[] result = doubleValues;
+            switch (operator) {
+                case ADD:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] + rightValues[i];
+                    }
+                    break;
+                case SUBTRACT:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] - rightValues[i];
+                    }
+                    break;
+                case MULTIPLY:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] * rightValues[i];
+                    }
+                    break;
+                case DIVIDE:
+                    for (int i = 0; i < size; i++) {
+                        result[i] = leftValues[i] / rightValues[i];
+                    }
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported arithmetic: " + operator);
+            }
+        }
+    }
+
+    private static final class CastToDouble
+            extends VectorExpression
+    {
+        private final VectorExpression argument;
+
+        private CastToDouble(VectorExpression argument)
+        {
+            super(DOUBLE);
+            this.argument = requireNonNull(argument, "argument is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            argument.evaluate(page, positions);
+            int size = positions.size();
+            ensureCapacity(size);
+
+            long[] values = argument.longValues;
+            for (int i = 0; i < size; i++) {
+                doubleValues[i] = values[i];
+            }
+            if (argument.mayHaveNull) {
+                System.arraycopy(argument.nulls, 0, nulls, 0, size);
+                finishNulls(true);
+            }
+            else {
+                setNoNulls();
+            }
+        }
+    }
+
+    private static final class Rename
+            extends VectorExpression
+    {
+        private final VectorExpression argument;
+
+        private Rename(Type type, VectorExpression argument)
+        {
+            super(type);
+            this.argument = requireNonNull(argument, "argument is null");
+        }
+
+        @Override
+        public void evaluate(Page page, SelectedPositions positions)
+        {
+            // share the results of the argument instead of copying them
+            argument.evaluate(page, positions);
+            longValues = argument.longValues;
+            nulls = argument.nulls;
+            mayHaveNull = argument.mayHaveNull;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.sql.relational.RowExpression;
+
+import static com.facebook.presto.operator.project.PageFilter.positionsArrayToSelectedPositions;
+import static com.facebook.presto.operator.project.VectorExpressions.createVectorExpression;
+import static java.util.Objects.requireNonNull;
+
+public class VectorizedPageFilter
+        implements PageFilter
+{
+    private final VectorExpression filter;
+    private final InputChannels inputChannels;
+    private boolean[] selectedPositions = new boolean[0];
+
+    public VectorizedPageFilter(RowExpression filter, InputChannels inputChannels)
+    {
+        this.filter = createVectorExpression(requireNonNull(filter, "filter is null"));
+        this.inputChannels = requireNonNull(inputChannels, "inputChannels is null");
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        int positionCount = page.getPositionCount();
+        filter.evaluate(page, SelectedPositions.positionsRange(0, positionCount));
+        if (!filter.mayHaveNull) {
+            return positionsArrayToSelectedPositions(filter.booleanValues, positionCount);
+        }
+
+        if (selectedPositions.length < positionCount) {
+            selectedPositions = new boolean[positionCount];
+        }
+        boolean[] values = filter.booleanValues;
+        boolean[] nulls = filter.nulls;
+        for (int i = 0; i < positionCount; i++) {
+            selectedPositions[i] = values[i] & !nulls[i];
+        }
+        return positionsArrayToSelectedPositions(selectedPositions, positionCount);
+    }
+}
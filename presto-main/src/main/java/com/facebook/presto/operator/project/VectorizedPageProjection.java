@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.ByteArrayBlock;
+import com.facebook.presto.spi.block.IntArrayBlock;
+import com.facebook.presto.spi.block.LongArrayBlock;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.relational.RowExpression;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.operator.project.VectorExpressions.createVectorExpression;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static java.util.Objects.requireNonNull;
+
+public class VectorizedPageProjection
+        implements PageProjection
+{
+    private final VectorExpression projection;
+    private final InputChannels inputChannels;
+
+    public VectorizedPageProjection(RowExpression projection, InputChannels inputChannels)
+    {
+        this.projection = createVectorExpression(requireNonNull(projection, "projection is null"));
+        this.inputChannels = requireNonNull(inputChannels, "inputChannels is null");
+    }
+
+    @Override
+    public Type getType()
+    {
+        return projection.getType();
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public Block project(ConnectorSession session, Page page, SelectedPositions selectedPositions)
+    {
+        projection.evaluate(page, selectedPositions);
+
+        // the results are copied since the arrays are reused by the next evaluation
+        int size = selectedPositions.size();
+        boolean[] nulls = projection.mayHaveNull ? Arrays.copyOf(projection.nulls, size) : new boolean[size];
+        Type type = projection.getType();
+        if (type.equals(DOUBLE)) {
+            long[] values = new long[size];
+            double[] doubleValues = projection.doubleValues;
+            for (int i = 0; i < size; i++) {
+                values[i] = Double.doubleToLongBits(doubleValues[i]);
+            }
+            return new LongArrayBlock(size, nulls, values);
+        }
+        if (type.getJavaType() == boolean.class) {
+            byte[] values = new byte[size];
+            boolean[] booleanValues = projection.booleanValues;
+            for (int i = 0; i < size; i++) {
+                values[i] = (byte) (booleanValues[i] ? 1 : 0);
+            }
+            return new ByteArrayBlock(size, nulls, values);
+        }
+        if (((FixedWidthType) type).getFixedSize() == Integer.BYTES) {
+            long[] longValues = projection.longValues;
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (int) longValues[i];
+            }
+            return new IntArrayBlock(size, nulls, values);
+        }
+        return new LongArrayBlock(size, nulls, Arrays.copyOf(projection.longValues, size));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.client.BinaryResults;
+import com.facebook.presto.client.BinaryResults.ColumnKind;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.slice.Slice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static com.facebook.presto.client.BinaryResults.FORMAT_VERSION;
+import static com.facebook.presto.client.BinaryResults.getColumnKind;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.zip.Deflater.BEST_SPEED;
+
+/**
+ * Writes result pages in the columnar format decoded by {@link BinaryResults}.
+ */
+public final class BinaryResultsEncoder
+{
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperProvider().get();
+
+    private BinaryResultsEncoder() {}
+
+    public static byte[] encode(ConnectorSession session, List<Type> types, List<Page> pages)
+    {
+        int positionCount = 0;
+        long sizeInBytes = 0;
+        for (Page page : pages) {
+            checkArgument(page.getChannelCount() == types.size(), "page/type size mismatch");
+            positionCount += page.getPositionCount();
+            sizeInBytes += page.getSizeInBytes();
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream((int) Math.min(sizeInBytes / 2, Integer.MAX_VALUE - 8));
+        Deflater deflater = new Deflater(BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(output, deflater))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(positionCount);
+            out.writeInt(types.size());
+            for (int channel = 0; channel < types.size(); channel++) {
+                Type type = types.get(channel);
+                ColumnKind kind = getColumnKind(type.getTypeSignature());
+                out.writeByte(kind.getTag());
+                writeNulls(out, pages, channel, positionCount);
+                for (Page page : pages) {
+                    Block block = page.getBlock(channel);
+                    for (int position = 0; position < block.getPositionCount(); position++) {
+                        if (!block.isNull(position)) {
+                            writeValue(out, session, type, kind, block, position);
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            deflater.end();
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeNulls(DataOutputStream out, List<Page> pages, int channel, int positionCount)
+            throws IOException
+    {
+        int value = 0;
+        int index = 0;
+        for (Page page : pages) {
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                if (block.isNull(position)) {
+                    value |= 1 << (index & 7);
+                }
+                index++;
+                if ((index & 7) == 0) {
+                    out.writeByte(value);
+                    value = 0;
+                }
+            }
+        }
+        if ((positionCount & 7) != 0) {
+            out.writeByte(value);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, ConnectorSession session, Type type, ColumnKind kind, Block block, int position)
+            throws IOException
+    {
+        switch (kind) {
+            case LONG:
+                out.writeLong(type.getLong(block, position));
+                return;
+            case INT:
+            case FLOAT:
+                // REAL values are stored as float bits in the low 32 bits of a long
+                out.writeInt((int) type.getLong(block, position));
+                return;
+            case SHORT:
+                out.writeShort((short) type.getLong(block, position));
+                return;
+            case BYTE:
+                out.writeByte((byte) type.getLong(block, position));
+                return;
+            case DOUBLE:
+                out.writeDouble(type.getDouble(block, position));
+                return;
+            case BOOLEAN:
+                out.writeBoolean(type.getBoolean(block, position));
+                return;
+            case STRING:
+                if (type instanceof VarcharType) {
+                    writeSlice(out, type.getSlice(block, position));
+                }
+                else {
+                    writeBytes(out, type.getObjectValue(session, block, position).toString().getBytes(UTF_8));
+                }
+                return;
+            case BINARY:
+                writeSlice(out, type.getSlice(block, position));
+                return;
+            case JSON:
+                writeBytes(out, OBJECT_MAPPER.writeValueAsBytes(type.getObjectValue(session, block, position)));
+                return;
+            default:
+                throw new IllegalArgumentException("Unsupported column kind: " + kind);
+        }
+    }
+
+    private static void writeSlice(DataOutputStream out, Slice slice)
+            throws IOException
+    {
+        out.writeInt(slice.length());
+        slice.getBytes(0, out, slice.length());
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes)
+            throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -15,6 +15,7 @@ package com.facebook.presto.server;
 
 import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.client.QuerySubmission;
+import com.facebook.presto.cost.PeakMemoryEstimator;
 import com.facebook.presto.execution.AddColumnTask;
 import com.facebook.presto.execution.CallTask;
 import com.facebook.presto.execution.CommitTask;
@@ -57,12 +58,18 @@ import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.resourceGroups.InternalResourceGroupManager;
 import com.facebook.presto.execution.resourceGroups.LegacyResourceGroupConfigurationManagerFactory;
 import com.facebook.presto.execution.resourceGroups.ResourceGroupManager;
+import com.facebook.presto.execution.resultcache.QueryResultCache;
+import com.facebook.presto.execution.resultcache.QueryResultCacheConfig;
 import com.facebook.presto.execution.scheduler.AllAtOnceExecutionPolicy;
 import com.facebook.presto.execution.scheduler.ExecutionPolicy;
 import com.facebook.presto.execution.scheduler.PhasedExecutionPolicy;
 import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
 import com.facebook.presto.memory.ClusterMemoryManager;
 import com.facebook.presto.memory.ForMemoryManager;
+import com.facebook.presto.memory.LeastWorkLostLowMemoryKiller;
+import com.facebook.presto.memory.LowMemoryKiller;
+import com.facebook.presto.memory.MemoryManagerConfig;
+import com.facebook.presto.memory.TotalReservationLowMemoryKiller;
 import com.facebook.presto.operator.ForScheduler;
 import com.facebook.presto.security.LoginTokenStore;
 import com.facebook.presto.server.remotetask.RemoteTaskStats;
@@ -132,8 +139,12 @@ import java.util.concurrent.ExecutorService;
 import static com.facebook.presto.execution.DataDefinitionExecution.DataDefinitionExecutionFactory;
 import static com.facebook.presto.execution.QueryExecution.QueryExecutionFactory;
 import static com.facebook.presto.execution.SqlQueryExecution.SqlQueryExecutionFactory;
+import static com.facebook.presto.memory.MemoryManagerConfig.LowMemoryKillerPolicy.LEAST_WORK_LOST;
+import static com.facebook.presto.memory.MemoryManagerConfig.LowMemoryKillerPolicy.TOTAL_RESERVATION;
 import static com.google.inject.multibindings.MapBinder.newMapBinder;
 import static io.airlift.concurrent.Threads.threadsNamed;
+import static io.airlift.configuration.ConditionalModule.installModuleIf;
+import static io.airlift.configuration.ConfigBinder.configBinder;
 import static io.airlift.discovery.client.DiscoveryBinder.discoveryBinder;
 import static io.airlift.http.client.HttpClientBinder.httpClientBinder;
 import static io.airlift.http.server.HttpServerBinder.httpServerBinder;
@@ -185,6 +196,11 @@ public class CoordinatorModule
         }
         newExporter(binder).export(QueryManager.class).withGeneratedName();
 
+        // query result cache
+        configBinder(binder).bindConfig(QueryResultCacheConfig.class);
+        binder.bind(QueryResultCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryResultCache.class).withGeneratedName();
+
         // login token resource
         binder.bind(LoginTokenStore.class).in(Scopes.SINGLETON);
         jaxrsBinder(binder).bind(LoginTokenResource.class);
@@ -199,6 +215,15 @@ public class CoordinatorModule
                     config.setRequestTimeout(new Duration(10, SECONDS));
                 });
         newExporter(binder).export(ClusterMemoryManager.class).withGeneratedName();
+        binder.bind(PeakMemoryEstimator.class).in(Scopes.SINGLETON);
+        install(installModuleIf(
+                MemoryManagerConfig.class,
+                config -> TOTAL_RESERVATION == config.getLowMemoryKillerPolicy(),
+                moduleBinder -> moduleBinder.bind(LowMemoryKiller.class).to(TotalReservationLowMemoryKiller.class).in(Scopes.SINGLETON)));
+        install(installModuleIf(
+                MemoryManagerConfig.class,
+                config -> LEAST_WORK_LOST == config.getLowMemoryKillerPolicy(),
+                moduleBinder -> moduleBinder.bind(LowMemoryKiller.class).to(LeastWorkLostLowMemoryKiller.class).in(Scopes.SINGLETON)));
 
         // cluster statistics
         jaxrsBinder(binder).bind(ClusterStatsResource.class);
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.configuration.ConfigSecuritySensitive;
+import io.airlift.units.Duration;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.NotNull;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+public class ResultDownloadConfig
+{
+    private boolean enabled;
+    private String sharedSecret;
+    private Duration tokenExpiration = new Duration(1, HOURS);
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("result-download.enabled")
+    @ConfigDescription("Allow clients to fetch query results directly from the workers")
+    public ResultDownloadConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public String getSharedSecret()
+    {
+        return sharedSecret;
+    }
+
+    @Config("result-download.shared-secret")
+    @ConfigSecuritySensitive
+    @ConfigDescription("Secret used to sign result download tokens; must be the same on all nodes")
+    public ResultDownloadConfig setSharedSecret(String sharedSecret)
+    {
+        this.sharedSecret = sharedSecret;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getTokenExpiration()
+    {
+        return tokenExpiration;
+    }
+
+    @Config("result-download.token-expiration")
+    @ConfigDescription("How long a result download token is accepted by the workers")
+    public ResultDownloadConfig setTokenExpiration(Duration tokenExpiration)
+    {
+        this.tokenExpiration = tokenExpiration;
+        return this;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.OutputBuffers.OutputBufferId;
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.TaskManager;
+import com.facebook.presto.execution.buffer.BufferResult;
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.PagesSerdeFactory;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.concurrent.BoundedExecutor;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_DOWNLOAD_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.MoreFutures.addTimeout;
+import static io.airlift.http.server.AsyncResponseHandler.bindAsyncResponse;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Serves the output of a query directly to the client, bypassing the
+ * coordinator. Pages are read from the output buffer of an output stage task
+ * and encoded with {@link BinaryResultsEncoder}. Requests must carry a
+ * {@link ResultDownloadToken} issued by the coordinator.
+ */
+@Path("/v1/download")
+public class ResultDownloadResource
+{
+    private static final Duration MAX_WAIT_TIME = new Duration(1, SECONDS);
+    private static final Duration ADDITIONAL_WAIT_TIME = new Duration(5, SECONDS);
+    private static final DataSize DEFAULT_MAX_SIZE = new DataSize(8, MEGABYTE);
+
+    private final TaskManager taskManager;
+    private final ResultDownloadTokens tokens;
+    private final TypeManager typeManager;
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Executor responseExecutor;
+    private final ScheduledExecutorService timeoutExecutor;
+
+    @Inject
+    public ResultDownloadResource(
+            TaskManager taskManager,
+            ResultDownloadTokens tokens,
+            TypeManager typeManager,
+            BlockEncodingSerde blockEncodingSerde,
+            @ForAsyncHttp BoundedExecutor responseExecutor,
+            @ForAsyncHttp ScheduledExecutorService timeoutExecutor)
+    {
+        this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.tokens = requireNonNull(tokens, "tokens is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
+        this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+    }
+
+    @GET
+    @Path("{taskId}/{bufferId}/{token}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public void getResults(
+            @PathParam("taskId") TaskId taskId,
+            @PathParam("bufferId") OutputBufferId bufferId,
+            @PathParam("token") long token,
+            @HeaderParam(PRESTO_DOWNLOAD_TOKEN) String downloadToken,
+            @HeaderParam(PRESTO_MAX_SIZE) DataSize maxSize,
+            @Suspended AsyncResponse asyncResponse)
+    {
+        requireNonNull(taskId, "taskId is null");
+        requireNonNull(bufferId, "bufferId is null");
+
+        ResultDownloadToken grant = verifyToken(taskId, downloadToken);
+        List<Type> types = grant.getTypes().stream()
+                .map(type -> typeManager.getType(parseTypeSignature(type)))
+                .collect(toImmutableList());
+
+        ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, bufferId, token, maxSize == null ? DEFAULT_MAX_SIZE : maxSize);
+        bufferResultFuture = addTimeout(
+                bufferResultFuture,
+                () -> BufferResult.emptyResults(taskManager.getTaskInstanceId(taskId), token, false),
+                MAX_WAIT_TIME,
+                timeoutExecutor);
+
+        ListenableFuture<Response> responseFuture = Futures.transform(bufferResultFuture, result -> {
+            List<SerializedPage> serializedPages = result.getSerializedPages();
+
+            byte[] entity = null;
+            Status status = Status.NO_CONTENT;
+            if (!serializedPages.isEmpty()) {
+                Session session = taskManager.getTaskSession(taskId)
+                        .orElseThrow(() -> new WebApplicationException(Status.GONE));
+                entity = BinaryResultsEncoder.encode(session.toConnectorSession(), types, deserialize(serializedPages));
+                status = Status.OK;
+            }
+
+            return Response.status(status)
+                    .entity(entity)
+                    .header(PRESTO_TASK_INSTANCE_ID, result.getTaskInstanceId())
+                    .header(PRESTO_PAGE_TOKEN, result.getToken())
+                    .header(PRESTO_PAGE_NEXT_TOKEN, result.getNextToken())
+                    .header(PRESTO_BUFFER_COMPLETE, result.isBufferComplete())
+                    .build();
+        }, responseExecutor);
+
+        Duration timeout = new Duration(MAX_WAIT_TIME.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
+        bindAsyncResponse(asyncResponse, responseFuture, responseExecutor)
+                .withTimeout(timeout,
+                        Response.status(Status.NO_CONTENT)
+                                .header(PRESTO_TASK_INSTANCE_ID, taskManager.getTaskInstanceId(taskId))
+                                .header(PRESTO_PAGE_TOKEN, token)
+                                .header(PRESTO_PAGE_NEXT_TOKEN, token)
+                                .header(PRESTO_BUFFER_COMPLETE, false)
+                                .build());
+    }
+
+    @DELETE
+    @Path("{taskId}/{bufferId}")
+    public Response abortResults(
+            @PathParam("taskId") TaskId taskId,
+            @PathParam("bufferId") OutputBufferId bufferId,
+            @HeaderParam(PRESTO_DOWNLOAD_TOKEN) String downloadToken)
+    {
+        requireNonNull(taskId, "taskId is null");
+        requireNonNull(bufferId, "bufferId is null");
+
+        verifyToken(taskId, downloadToken);
+        taskManager.abortTaskResults(taskId, bufferId);
+        return Response.noContent().build();
+    }
+
+    private ResultDownloadToken verifyToken(TaskId taskId, String downloadToken)
+    {
+        ResultDownloadToken grant = tokens.verifyToken(downloadToken)
+                .orElseThrow(() -> new WebApplicationException(Status.FORBIDDEN));
+        if (!grant.getStageId().equals(taskId.getStageId())) {
+            throw new WebApplicationException(Status.FORBIDDEN);
+        }
+        return grant;
+    }
+
+    private List<Page> deserialize(List<SerializedPage> serializedPages)
+    {
+        // the decompressor also reads uncompressed pages, so this works for either exchange compression setting
+        PagesSerde serde = new PagesSerdeFactory(blockEncodingSerde, true).createPagesSerde();
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (SerializedPage serializedPage : serializedPages) {
+            pages.add(serde.deserialize(serializedPage));
+        }
+        return pages.build();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.execution.StageId;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Signed grant allowing a client to read the output of a query directly
+ * from the output tasks on the workers.
+ */
+public class ResultDownloadToken
+{
+    private final StageId stageId;
+    private final List<String> types;
+    private final long expirationMillis;
+
+    @JsonCreator
+    public ResultDownloadToken(
+            @JsonProperty("stageId") StageId stageId,
+            @JsonProperty("types") List<String> types,
+            @JsonProperty("expirationMillis") long expirationMillis)
+    {
+        this.stageId = requireNonNull(stageId, "stageId is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.expirationMillis = expirationMillis;
+    }
+
+    /**
+     * The output stage of the query. Only tasks of this stage can be read.
+     */
+    @JsonProperty
+    public StageId getStageId()
+    {
+        return stageId;
+    }
+
+    /**
+     * Signatures of the output types, used by the workers to encode the
+     * output pages.
+     */
+    @JsonProperty
+    public List<String> getTypes()
+    {
+        return types;
+    }
+
+    @JsonProperty
+    public long getExpirationMillis()
+    {
+        return expirationMillis;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("stageId", stageId)
+                .add("types", types)
+                .add("expirationMillis", expirationMillis)
+                .toString();
+    }
+}
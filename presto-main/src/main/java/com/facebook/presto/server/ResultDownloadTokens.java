@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.execution.StageId;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.json.JsonCodec;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.inject.Inject;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates and verifies {@link ResultDownloadToken}s. Tokens are signed with
+ * a secret shared by all nodes, so the workers can verify them without
+ * contacting the coordinator. The coordinator issues a new token with each
+ * response to the client, so the expiration only bounds how long a client
+ * can keep downloading after it stops polling the coordinator.
+ */
+public class ResultDownloadTokens
+{
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final JsonCodec<ResultDownloadToken> TOKEN_CODEC = jsonCodec(ResultDownloadToken.class);
+
+    private final boolean enabled;
+    private final Optional<SecretKeySpec> key;
+    private final long tokenExpirationMillis;
+
+    @Inject
+    public ResultDownloadTokens(ResultDownloadConfig config)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isEnabled();
+        checkArgument(!enabled || config.getSharedSecret() != null, "result-download.shared-secret must be set when result download is enabled");
+        this.key = Optional.ofNullable(config.getSharedSecret())
+                .map(secret -> new SecretKeySpec(secret.getBytes(UTF_8), ALGORITHM));
+        this.tokenExpirationMillis = config.getTokenExpiration().toMillis();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public String createToken(StageId outputStageId, List<Type> types)
+    {
+        checkState(enabled, "result download is not enabled");
+        ResultDownloadToken token = new ResultDownloadToken(
+                outputStageId,
+                types.stream()
+                        .map(type -> type.getTypeSignature().toString())
+                        .collect(toImmutableList()),
+                System.currentTimeMillis() + tokenExpirationMillis);
+        byte[] payload = TOKEN_CODEC.toJsonBytes(token);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+    }
+
+    /**
+     * Returns the token if it has a valid signature and has not expired.
+     */
+    public Optional<ResultDownloadToken> verifyToken(String token)
+    {
+        if (!enabled || token == null) {
+            return Optional.empty();
+        }
+
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return Optional.empty();
+        }
+
+        ResultDownloadToken downloadToken;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(token.substring(0, separator));
+            byte[] signature = decoder.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return Optional.empty();
+            }
+            downloadToken = TOKEN_CODEC.fromJson(payload);
+        }
+        catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        if (downloadToken.getExpirationMillis() < System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(downloadToken);
+    }
+
+    private byte[] sign(byte[] payload)
+    {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key.get());
+            return mac.doFinal(payload);
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign result download token", e);
+        }
+    }
+}
@@ -133,6 +133,7 @@ import com.facebook.presto.sql.Serialization.ExpressionDeserializer;
 import com.facebook.presto.sql.Serialization.ExpressionSerializer;
 import com.facebook.presto.sql.Serialization.FunctionCallDeserializer;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.gen.CompiledClassCache;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler;
@@ -334,6 +335,11 @@ public class ServerMainModule
         binder.bind(SqlTaskManager.class).in(Scopes.SINGLETON);
         binder.bind(TaskManager.class).to(Key.get(SqlTaskManager.class));
 
+        // direct result download
+        configBinder(binder).bindConfig(ResultDownloadConfig.class);
+        binder.bind(ResultDownloadTokens.class).in(Scopes.SINGLETON);
+        jaxrsBinder(binder).bind(ResultDownloadResource.class);
+
         // memory revoking scheduler
         binder.bind(MemoryRevokingScheduler.class).in(Scopes.SINGLETON);
 
@@ -357,6 +363,8 @@ public class ServerMainModule
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CompilerConfig.class);
+        binder.bind(CompiledClassCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(CompiledClassCache.class).withGeneratedName();
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
         configBinder(binder).bindConfig(TaskManagerConfig.class);
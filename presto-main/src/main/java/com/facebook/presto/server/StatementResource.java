@@ -27,6 +27,7 @@ import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.QueryManager;
 import com.facebook.presto.execution.QueryState;
 import com.facebook.presto.execution.QueryStats;
+import com.facebook.presto.execution.StageId;
 import com.facebook.presto.execution.StageInfo;
 import com.facebook.presto.execution.StageState;
 import com.facebook.presto.execution.TaskInfo;
@@ -34,12 +35,15 @@ import com.facebook.presto.execution.buffer.OutputBufferInfo;
 import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.execution.resultcache.QueryResultCache;
+import com.facebook.presto.execution.resultcache.QueryResultCache.CachedResult;
 import com.facebook.presto.metadata.SessionPropertyManager;
 import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.operator.ExchangeClientSupplier;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ErrorCode;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
@@ -98,11 +102,14 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.client.BinaryResults.BINARY_RESULT_ENCODING;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_DIRECT_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT_IN_BODY;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_RESULT_ENCODING;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SET_ROLE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SET_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_STARTED_TRANSACTION_ID;
@@ -110,6 +117,7 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -132,6 +140,8 @@ public class StatementResource
     private final SessionPropertyManager sessionPropertyManager;
     private final ExchangeClientSupplier exchangeClientSupplier;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final ResultDownloadTokens resultDownloadTokens;
+    private final QueryResultCache resultCache;
 
     private final ConcurrentMap<QueryId, Query> queries = new ConcurrentHashMap<>();
     private final ScheduledExecutorService queryPurger = newSingleThreadScheduledExecutor(threadsNamed("query-purger"));
@@ -143,12 +153,16 @@ public class StatementResource
             SessionPropertyManager sessionPropertyManager,
             ExchangeClientSupplier exchangeClientSupplier,
             BlockEncodingSerde blockEncodingSerde,
+            ResultDownloadTokens resultDownloadTokens,
+            QueryResultCache resultCache,
             JsonCodec<QuerySubmission> querySubmissionCodec)
     {
         this.queryManager = requireNonNull(queryManager, "queryManager is null");
         this.sessionPropertyManager = requireNonNull(sessionPropertyManager, "sessionPropertyManager is null");
         this.exchangeClientSupplier = requireNonNull(exchangeClientSupplier, "exchangeClientSupplier is null");
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.resultDownloadTokens = requireNonNull(resultDownloadTokens, "resultDownloadTokens is null");
+        this.resultCache = requireNonNull(resultCache, "resultCache is null");
         this.querySubmissionCodec = requireNonNull(querySubmissionCodec, "querySubmissionCodec is null");
 
         queryPurger.scheduleWithFixedDelay(new PurgeQueriesRunnable(queries, queryManager), 200, 200, MILLISECONDS);
@@ -187,7 +201,10 @@ public class StatementResource
                 queryManager,
                 sessionPropertyManager,
                 exchangeClient,
-                blockEncodingSerde);
+                blockEncodingSerde,
+                isBinaryResultsRequested(servletRequest),
+                isDirectResultsRequested(servletRequest) ? Optional.of(resultDownloadTokens) : Optional.empty(),
+                resultCache);
         queries.put(query.getQueryId(), query);
 
         return getQueryResults(query, Optional.empty(), uriInfo, new Duration(1, MILLISECONDS), servletRequest);
@@ -208,6 +225,16 @@ public class StatementResource
         }
     }
 
+    private static boolean isBinaryResultsRequested(HttpServletRequest servletRequest)
+    {
+        return BINARY_RESULT_ENCODING.equalsIgnoreCase(servletRequest.getHeader(PRESTO_RESULT_ENCODING));
+    }
+
+    private boolean isDirectResultsRequested(HttpServletRequest servletRequest)
+    {
+        return resultDownloadTokens.isEnabled() && Boolean.parseBoolean(servletRequest.getHeader(PRESTO_DIRECT_RESULTS));
+    }
+
     @GET
     @Path("{queryId}/{token}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -310,6 +337,9 @@ public class StatementResource
         private final QueryId queryId;
         private final ExchangeClient exchangeClient;
         private final PagesSerde serde;
+        private final boolean binaryResults;
+        private final Optional<ResultDownloadTokens> resultDownloadTokens;
+        private final QueryResultCache resultCache;
 
         private final AtomicLong resultId = new AtomicLong();
         private final Session session;
@@ -323,6 +353,15 @@ public class StatementResource
         @GuardedBy("this")
         private List<Column> columns;
 
+        @GuardedBy("this")
+        private List<Type> types;
+
+        @GuardedBy("this")
+        private StageId downloadStageId;
+
+        @GuardedBy("this")
+        private URI downloadUri;
+
         @GuardedBy("this")
         private Map<String, String> setSessionProperties;
 
@@ -347,13 +386,25 @@ public class StatementResource
         @GuardedBy("this")
         private Long updateCount;
 
+        @GuardedBy("this")
+        private CachedResult cachedResult;
+
+        @GuardedBy("this")
+        private List<Page> resultCachePages;
+
+        @GuardedBy("this")
+        private long resultCachePagesSize;
+
         public Query(
                 SessionSupplier sessionSupplier,
                 String query,
                 QueryManager queryManager,
                 SessionPropertyManager sessionPropertyManager,
                 ExchangeClient exchangeClient,
-                BlockEncodingSerde blockEncodingSerde)
+                BlockEncodingSerde blockEncodingSerde,
+                boolean binaryResults,
+                Optional<ResultDownloadTokens> resultDownloadTokens,
+                QueryResultCache resultCache)
         {
             requireNonNull(sessionSupplier, "sessionFactory is null");
             requireNonNull(query, "query is null");
@@ -368,6 +419,9 @@ public class StatementResource
             this.exchangeClient = exchangeClient;
             requireNonNull(blockEncodingSerde, "serde is null");
             this.serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
+            this.binaryResults = binaryResults;
+            this.resultDownloadTokens = requireNonNull(resultDownloadTokens, "resultDownloadTokens is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
         }
 
         public void cancel()
@@ -378,7 +432,15 @@ public class StatementResource
 
         public void dispose()
         {
+            // closing the exchange client first wakes up any request waiting for results
             exchangeClient.close();
+            synchronized (this) {
+                if (cachedResult != null) {
+                    cachedResult.close();
+                }
+                resultCache.releasePinnedResult(queryId);
+                resultCachePages = null;
+            }
         }
 
         public QueryId getQueryId()
@@ -449,7 +511,7 @@ public class StatementResource
         public synchronized QueryResults getNextResults(UriInfo uriInfo, Duration maxWaitTime)
                 throws InterruptedException
         {
-            Iterable<List<Object>> data = getData(maxWaitTime);
+            List<Page> pages = getPages(maxWaitTime);
 
             // get the query info before returning
             // force update if query manager is closed
@@ -462,6 +524,18 @@ public class StatementResource
                 queryInfo = queryManager.getQueryInfo(queryId);
             }
 
+            // the update count is read from the rows, so only queries use the binary encoding
+            Iterable<List<Object>> data = null;
+            byte[] binaryData = null;
+            if (pages != null) {
+                if (binaryResults && queryInfo.getUpdateType() == null) {
+                    binaryData = BinaryResultsEncoder.encode(session.toConnectorSession(), types, pages);
+                }
+                else {
+                    data = toRows(pages);
+                }
+            }
+
             // TODO: figure out a better way to do this
             // grab the update count for non-queries
             if ((data != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
@@ -480,7 +554,7 @@ public class StatementResource
                 if (queryInfo.getState() != QueryState.FINISHED) {
                     exchangeClient.close();
                 }
-                else if (!queryInfo.getOutputStage().isPresent()) {
+                else if (!queryInfo.getOutputStage().isPresent() && !queryInfo.isResultCacheHit()) {
                     // For simple executions (e.g. drop table), there will never be an output stage,
                     // so close the exchange as soon as the query is done.
                     exchangeClient.close();
@@ -491,6 +565,12 @@ public class StatementResource
                 }
             }
 
+            // all results have been read, so store them for the next execution of the query
+            if (resultCachePages != null && queryInfo.getState() == QueryState.FINISHED && exchangeClient.isClosed()) {
+                resultCache.put(queryInfo.getResultCacheKey().get(), types, resultCachePages);
+                resultCachePages = null;
+            }
+
             // only return a next if the query is not done or there is more data to send (due to buffering)
             URI nextResultsUri = null;
             if ((!queryInfo.isFinalQueryInfo()) || (!exchangeClient.isClosed())) {
@@ -512,6 +592,12 @@ public class StatementResource
             startedTransactionId = queryInfo.getStartedTransactionId();
             clearTransactionId = queryInfo.isClearTransactionId();
 
+            // issue a new token with every response, so downloads that outlive the token expiration keep working
+            String downloadToken = null;
+            if (downloadUri != null) {
+                downloadToken = resultDownloadTokens.get().createToken(downloadStageId, types);
+            }
+
             // first time through, self is null
             QueryResults queryResults = new QueryResults(
                     queryId.toString(),
@@ -520,6 +606,9 @@ public class StatementResource
                     nextResultsUri,
                     columns,
                     data,
+                    binaryData,
+                    downloadUri,
+                    downloadToken,
                     toStatementStats(queryInfo),
                     toQueryError(queryInfo),
                     queryInfo.getUpdateType(),
@@ -538,7 +627,7 @@ public class StatementResource
             return queryResults;
         }
 
-        private synchronized Iterable<List<Object>> getData(Duration maxWait)
+        private synchronized List<Page> getPages(Duration maxWait)
                 throws InterruptedException
         {
             // wait for query to start
@@ -549,6 +638,10 @@ public class StatementResource
                 queryInfo = queryManager.getQueryInfo(queryId);
             }
 
+            if (isQueryStarted(queryInfo) && queryInfo.isResultCacheHit()) {
+                return getCachedPages(queryInfo);
+            }
+
             StageInfo outputStage = queryInfo.getOutputStage().orElse(null);
             // if query did not finish starting or does not have output, just return
             if (!isQueryStarted(queryInfo) || outputStage == null) {
@@ -559,11 +652,24 @@ public class StatementResource
                 columns = createColumnsList(queryInfo);
             }
 
-            List<Type> types = outputStage.getTypes();
+            if (types == null) {
+                types = outputStage.getTypes();
+
+                // results downloaded directly by the client never pass through the coordinator
+                if (queryInfo.getResultCacheKey().isPresent() && !resultDownloadTokens.isPresent()) {
+                    resultCachePages = new ArrayList<>();
+                }
+            }
+
+            // the update count is read from the rows, so only queries are downloaded directly
+            if (resultDownloadTokens.isPresent() && queryInfo.getUpdateType() == null) {
+                updateDownloadUri(outputStage);
+                return null;
+            }
 
             updateExchangeClient(outputStage);
 
-            ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
             // wait up to max wait for data to arrive; then try to return at least DESIRED_RESULT_BYTES
             long bytes = 0;
             while (bytes < DESIRED_RESULT_BYTES) {
@@ -574,7 +680,8 @@ public class StatementResource
 
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getSizeInBytes();
-                pages.add(new RowIterable(session.toConnectorSession(), types, page));
+                pages.add(page);
+                retainForResultCache(page);
 
                 // only wait on first call
                 maxWait = new Duration(0, MILLISECONDS);
@@ -584,7 +691,60 @@ public class StatementResource
                 return null;
             }
 
-            return Iterables.concat(pages.build());
+            return pages.build();
+        }
+
+        private synchronized List<Page> getCachedPages(QueryInfo queryInfo)
+        {
+            if (cachedResult == null) {
+                // the results were pinned when the query was planned, so they are only missing if the query was disposed
+                cachedResult = resultCache.takePinnedResult(queryId)
+                        .orElseThrow(() -> new PrestoException(GENERIC_INTERNAL_ERROR, "Cached result of query " + queryId + " was released"));
+                types = cachedResult.getTypes();
+                columns = createColumnsList(queryInfo.getFieldNames(), types);
+            }
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            Iterator<Page> cachedPages = cachedResult.getPages();
+            long bytes = 0;
+            while (bytes < DESIRED_RESULT_BYTES && cachedPages.hasNext()) {
+                Page page = cachedPages.next();
+                bytes += page.getSizeInBytes();
+                pages.add(page);
+            }
+
+            // there is no output stage, so the exchange client only signals that all results were sent
+            if (!cachedPages.hasNext()) {
+                cachedResult.close();
+                exchangeClient.close();
+            }
+
+            if (bytes == 0) {
+                return null;
+            }
+            return pages.build();
+        }
+
+        private synchronized void retainForResultCache(Page page)
+        {
+            if (resultCachePages == null) {
+                return;
+            }
+            resultCachePagesSize += page.getSizeInBytes();
+            if (resultCachePagesSize > resultCache.getMaxEntrySizeInBytes()) {
+                // too large to be cached, so stop retaining the pages
+                resultCachePages = null;
+                return;
+            }
+            resultCachePages.add(page);
+        }
+
+        private synchronized Iterable<List<Object>> toRows(List<Page> pages)
+        {
+            ConnectorSession connectorSession = session.toConnectorSession();
+            return Iterables.concat(pages.stream()
+                    .map(page -> new RowIterable(connectorSession, types, page))
+                    .collect(toImmutableList()));
         }
 
         private static boolean isQueryStarted(QueryInfo queryInfo)
@@ -614,6 +774,31 @@ public class StatementResource
             }
         }
 
+        private synchronized void updateDownloadUri(StageInfo outputStage)
+        {
+            if (downloadStageId == null) {
+                downloadStageId = outputStage.getStageId();
+                // the client reads the output buffer, so the coordinator only tracks completion
+                exchangeClient.close();
+            }
+
+            // the output stage is always planned with a single task, so there is only one buffer to download
+            if (downloadUri == null && !outputStage.getState().isDone()) {
+                for (TaskInfo taskInfo : outputStage.getTasks()) {
+                    if (taskInfo.getOutputBuffers().getState().canAddBuffers()) {
+                        // output buffer are still being created
+                        continue;
+                    }
+                    OutputBufferId bufferId = new OutputBufferId(0);
+                    downloadUri = uriBuilderFrom(taskInfo.getTaskStatus().getSelf())
+                            .replacePath("/v1/download")
+                            .appendPath(taskInfo.getTaskStatus().getTaskId().toString())
+                            .appendPath(bufferId.toString())
+                            .build();
+                }
+            }
+        }
+
         private static boolean allOutputBuffersCreated(StageInfo outputStage)
         {
             StageState stageState = outputStage.getState();
@@ -643,9 +828,11 @@ public class StatementResource
             StageInfo outputStage = queryInfo.getOutputStage()
                     .orElseThrow(() -> new IllegalArgumentException("outputStage not present"));
 
-            List<String> names = queryInfo.getFieldNames();
-            List<Type> types = outputStage.getTypes();
+            return createColumnsList(queryInfo.getFieldNames(), outputStage.getTypes());
+        }
 
+        private static List<Column> createColumnsList(List<String> names, List<Type> types)
+        {
             checkArgument(names.size() == types.size(), "names and types size mismatch");
 
             ImmutableList.Builder<Column> list = ImmutableList.builder();
@@ -131,6 +131,10 @@ public class TaskResource
                 taskUpdateRequest.getSources(),
                 taskUpdateRequest.getOutputIds());
 
+        if (!taskUpdateRequest.getCommittedSplits().isEmpty() || !taskUpdateRequest.getAbortedSplits().isEmpty()) {
+            taskManager.updateSpeculativeSplits(taskId, taskUpdateRequest.getCommittedSplits(), taskUpdateRequest.getAbortedSplits());
+        }
+
         if (shouldSummarize(uriInfo)) {
             taskInfo = taskInfo.summarize();
         }
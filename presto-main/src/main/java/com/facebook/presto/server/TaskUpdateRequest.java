@@ -20,9 +20,11 @@ import com.facebook.presto.sql.planner.PlanFragment;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -33,23 +35,40 @@ public class TaskUpdateRequest
     private final Optional<PlanFragment> fragment;
     private final List<TaskSource> sources;
     private final OutputBuffers outputIds;
+    private final Set<Long> committedSplits;
+    private final Set<Long> abortedSplits;
+
+    public TaskUpdateRequest(
+            SessionRepresentation session,
+            Optional<PlanFragment> fragment,
+            List<TaskSource> sources,
+            OutputBuffers outputIds)
+    {
+        this(session, fragment, sources, outputIds, ImmutableSet.of(), ImmutableSet.of());
+    }
 
     @JsonCreator
     public TaskUpdateRequest(
             @JsonProperty("session") SessionRepresentation session,
             @JsonProperty("fragment") Optional<PlanFragment> fragment,
             @JsonProperty("sources") List<TaskSource> sources,
-            @JsonProperty("outputIds") OutputBuffers outputIds)
+            @JsonProperty("outputIds") OutputBuffers outputIds,
+            @JsonProperty("committedSplits") Set<Long> committedSplits,
+            @JsonProperty("abortedSplits") Set<Long> abortedSplits)
     {
         requireNonNull(session, "session is null");
         requireNonNull(fragment, "fragment is null");
         requireNonNull(sources, "sources is null");
         requireNonNull(outputIds, "outputIds is null");
+        requireNonNull(committedSplits, "committedSplits is null");
+        requireNonNull(abortedSplits, "abortedSplits is null");
 
         this.session = session;
         this.fragment = fragment;
         this.sources = ImmutableList.copyOf(sources);
         this.outputIds = outputIds;
+        this.committedSplits = ImmutableSet.copyOf(committedSplits);
+        this.abortedSplits = ImmutableSet.copyOf(abortedSplits);
     }
 
     @JsonProperty
@@ -76,6 +95,24 @@ public class TaskUpdateRequest
         return outputIds;
     }
 
+    /**
+     * Speculatively executed splits whose output should be added to the output buffer.
+     */
+    @JsonProperty
+    public Set<Long> getCommittedSplits()
+    {
+        return committedSplits;
+    }
+
+    /**
+     * Speculatively executed splits whose output should be discarded.
+     */
+    @JsonProperty
+    public Set<Long> getAbortedSplits()
+    {
+        return abortedSplits;
+    }
+
     @Override
     public String toString()
     {
@@ -84,6 +121,8 @@ public class TaskUpdateRequest
                 .add("fragment", fragment)
                 .add("sources", sources)
                 .add("outputIds", outputIds)
+                .add("committedSplits", committedSplits)
+                .add("abortedSplits", abortedSplits)
                 .toString();
     }
 }
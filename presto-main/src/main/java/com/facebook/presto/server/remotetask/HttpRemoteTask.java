@@ -35,6 +35,7 @@ import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.net.HttpHeaders;
@@ -124,6 +125,10 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private final Set<PlanNodeId> noMoreSplits = new HashSet<>();
     @GuardedBy("this")
+    private final Set<Long> pendingCommittedSplits = new HashSet<>();
+    @GuardedBy("this")
+    private final Set<Long> pendingAbortedSplits = new HashSet<>();
+    @GuardedBy("this")
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
     private final FutureStateChange<?> whenSplitQueueHasSpace = new FutureStateChange<>();
     @GuardedBy("this")
@@ -339,6 +344,19 @@ public final class HttpRemoteTask
         }
     }
 
+    @Override
+    public synchronized void updateSpeculativeSplits(Set<Long> committedSplits, Set<Long> abortedSplits)
+    {
+        if (getTaskStatus().getState().isDone()) {
+            return;
+        }
+
+        pendingCommittedSplits.addAll(committedSplits);
+        pendingAbortedSplits.addAll(abortedSplits);
+        needsUpdate.set(true);
+        scheduleUpdate();
+    }
+
     @Override
     public synchronized void setOutputBuffers(OutputBuffers newOutputBuffers)
     {
@@ -414,10 +432,14 @@ public final class HttpRemoteTask
         }
     }
 
-    private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources)
+    private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources, Set<Long> committedSplits, Set<Long> abortedSplits)
     {
         updateTaskInfo(newValue);
 
+        // remove acknowledged speculative split decisions
+        pendingCommittedSplits.removeAll(committedSplits);
+        pendingAbortedSplits.removeAll(abortedSplits);
+
         // remove acknowledged splits, which frees memory
         for (TaskSource source : sources) {
             PlanNodeId planNodeId = source.getPlanNodeId();
@@ -481,10 +503,14 @@ public final class HttpRemoteTask
         if (sendPlan.get()) {
             fragment = Optional.of(planFragment);
         }
+        Set<Long> committedSplits = ImmutableSet.copyOf(pendingCommittedSplits);
+        Set<Long> abortedSplits = ImmutableSet.copyOf(pendingAbortedSplits);
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(session.toSessionRepresentation(),
                 fragment,
                 sources,
-                outputBuffers.get());
+                outputBuffers.get(),
+                committedSplits,
+                abortedSplits);
 
         HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus);
         Request request = preparePost()
@@ -503,7 +529,7 @@ public final class HttpRemoteTask
         // and does so without grabbing the instance lock.
         needsUpdate.set(false);
 
-        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources), request.getUri(), stats), executor);
+        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources, committedSplits, abortedSplits), request.getUri(), stats), executor);
     }
 
     private synchronized List<TaskSource> getSources()
@@ -552,6 +578,8 @@ public final class HttpRemoteTask
         // clear pending splits to free memory
         pendingSplits.clear();
         pendingSourceSplitCount = 0;
+        pendingCommittedSplits.clear();
+        pendingAbortedSplits.clear();
         partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
         splitQueueHasSpace = true;
         whenSplitQueueHasSpace.complete(null, executor);
@@ -712,10 +740,14 @@ public final class HttpRemoteTask
             implements SimpleHttpResponseCallback<TaskInfo>
     {
         private final List<TaskSource> sources;
+        private final Set<Long> committedSplits;
+        private final Set<Long> abortedSplits;
 
-        private UpdateResponseHandler(List<TaskSource> sources)
+        private UpdateResponseHandler(List<TaskSource> sources, Set<Long> committedSplits, Set<Long> abortedSplits)
         {
             this.sources = ImmutableList.copyOf(requireNonNull(sources, "sources is null"));
+            this.committedSplits = ImmutableSet.copyOf(requireNonNull(committedSplits, "committedSplits is null"));
+            this.abortedSplits = ImmutableSet.copyOf(requireNonNull(abortedSplits, "abortedSplits is null"));
         }
 
         @Override
@@ -730,7 +762,7 @@ public final class HttpRemoteTask
                         currentRequestStartNanos = HttpRemoteTask.this.currentRequestStartNanos;
                     }
                     updateStats(currentRequestStartNanos);
-                    processTaskUpdate(value, sources);
+                    processTaskUpdate(value, sources, committedSplits, abortedSplits);
                     updateErrorTracker.requestSucceeded();
                 }
                 finally {
@@ -517,6 +517,11 @@ public class Analysis
         return namedQueries.get(NodeRef.of(table));
     }
 
+    public List<Query> getNamedQueries()
+    {
+        return ImmutableList.copyOf(namedQueries.values());
+    }
+
     public void registerNamedQuery(Table tableReference, Query query)
     {
         requireNonNull(tableReference, "tableReference is null");
@@ -92,6 +92,7 @@ public class FeaturesConfig
 
     private DataSize filterAndProjectMinOutputPageSize = new DataSize(25, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
+    private boolean streamingPartialAggregation = true;
 
     public enum JoinReorderingStrategy
     {
@@ -622,4 +623,17 @@ public class FeaturesConfig
         this.filterAndProjectMinOutputPageRowCount = filterAndProjectMinOutputPageRowCount;
         return this;
     }
+
+    public boolean isStreamingPartialAggregation()
+    {
+        return streamingPartialAggregation;
+    }
+
+    @Config("optimizer.streaming-partial-aggregation")
+    @ConfigDescription("Use a streaming partial aggregation when each split is sorted on the grouping keys")
+    public FeaturesConfig setStreamingPartialAggregation(boolean streamingPartialAggregation)
+    {
+        this.streamingPartialAggregation = streamingPartialAggregation;
+        return this;
+    }
 }
@@ -13,33 +13,43 @@
  */
 package com.facebook.presto.sql.gen;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import org.weakref.jmx.Managed;
 
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
 public class CacheStatsMBean
 {
-    private LoadingCache loadingCache;
+    private final Supplier<CacheStats> stats;
 
     public CacheStatsMBean(LoadingCache loadingCache)
     {
-        this.loadingCache = loadingCache;
+        this(loadingCache::stats);
+    }
+
+    public CacheStatsMBean(Supplier<CacheStats> stats)
+    {
+        this.stats = requireNonNull(stats, "stats is null");
     }
 
     @Managed
     public Double getHitRate()
     {
-        return loadingCache.stats().hitRate();
+        return stats.get().hitRate();
     }
 
     @Managed
     public Double getMissRate()
     {
-        return loadingCache.stats().missRate();
+        return stats.get().missRate();
     }
 
     @Managed
     public long getRequestCount()
     {
-        return loadingCache.stats().requestCount();
+        return stats.get().requestCount();
     }
 }
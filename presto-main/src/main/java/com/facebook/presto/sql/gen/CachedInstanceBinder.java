@@ -19,7 +19,7 @@ import com.facebook.presto.bytecode.FieldDefinition;
 import com.facebook.presto.bytecode.Variable;
 
 import java.lang.invoke.MethodHandle;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static com.facebook.presto.bytecode.Access.FINAL;
@@ -32,7 +32,8 @@ public final class CachedInstanceBinder
 {
     private final ClassDefinition classDefinition;
     private final CallSiteBinder callSiteBinder;
-    private final Map<FieldDefinition, MethodHandle> initializers = new HashMap<>();
+    // iteration order determines the generated bytecode, which must be stable across restarts for the compiled class cache
+    private final Map<FieldDefinition, MethodHandle> initializers = new LinkedHashMap<>();
     private int nextId;
 
     public CachedInstanceBinder(ClassDefinition classDefinition, CallSiteBinder callSiteBinder)
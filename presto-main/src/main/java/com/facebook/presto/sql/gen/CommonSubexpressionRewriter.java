@@ -0,0 +1,489 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.relational.ConstantExpression;
+import com.facebook.presto.sql.relational.DeterminismEvaluator;
+import com.facebook.presto.sql.relational.InputReferenceExpression;
+import com.facebook.presto.sql.relational.LambdaDefinitionExpression;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.sql.relational.RowExpressionVisitor;
+import com.facebook.presto.sql.relational.VariableReferenceExpression;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.metadata.FunctionRegistry.mangleOperatorName;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.BIND;
+import static com.facebook.presto.sql.relational.Signatures.COALESCE;
+import static com.facebook.presto.sql.relational.Signatures.DEREFERENCE;
+import static com.facebook.presto.sql.relational.Signatures.IF;
+import static com.facebook.presto.sql.relational.Signatures.IN;
+import static com.facebook.presto.sql.relational.Signatures.IS_NULL;
+import static com.facebook.presto.sql.relational.Signatures.NULL_IF;
+import static com.facebook.presto.sql.relational.Signatures.ROW_CONSTRUCTOR;
+import static com.facebook.presto.sql.relational.Signatures.SWITCH;
+import static com.facebook.presto.sql.relational.Signatures.TRY;
+import static com.facebook.presto.sql.relational.Signatures.TRY_CAST;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparingInt;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Extracts function calls that are shared by the filter and projections of a page processor,
+ * so they are evaluated once per position instead of once per occurrence. The rewritten
+ * expressions reference the results as additional input channels, starting right after the
+ * last channel referenced by the original expressions.
+ * <p>
+ * Subexpressions are only extracted where the original expressions evaluate them for every
+ * position anyway, so a function that fails for some input never fails for positions that
+ * would not have been evaluated. A subexpression that the filter always evaluates is computed
+ * for all positions before the filter; one that a projection always evaluates is computed for
+ * the selected positions before the projections.
+ */
+public final class CommonSubexpressionRewriter
+{
+    private static final String OPERATOR_PREFIX = mangleOperatorName("");
+
+    // special forms and functions that are cheaper to evaluate again than to materialize
+    private static final Set<String> CHEAP_FUNCTIONS = ImmutableSet.of(IF, NULL_IF, SWITCH, "WHEN", IS_NULL, COALESCE, IN, TRY, TRY_CAST, DEREFERENCE, ROW_CONSTRUCTOR, BIND, "AND", "OR", "not");
+
+    // special forms that only evaluate their first argument for every position
+    private static final Set<String> CONDITIONAL_FORMS = ImmutableSet.of(IF, NULL_IF, SWITCH, COALESCE, IN, "AND", "OR");
+
+    private CommonSubexpressionRewriter() {}
+
+    public static Result rewriteCommonSubexpressions(Optional<RowExpression> filter, List<? extends RowExpression> projections, DeterminismEvaluator determinismEvaluator)
+    {
+        requireNonNull(filter, "filter is null");
+        requireNonNull(projections, "projections is null");
+        requireNonNull(determinismEvaluator, "determinismEvaluator is null");
+
+        int subexpressionChannel = 0;
+        for (RowExpression expression : concat(filter, projections)) {
+            subexpressionChannel = Math.max(subexpressionChannel, expression.accept(new MaxFieldVisitor(), null) + 1);
+        }
+
+        Optional<RowExpression> rewrittenFilter = filter;
+        List<RowExpression> rewrittenProjections = ImmutableList.copyOf(projections);
+        List<RowExpression> filterReferences = new ArrayList<>();
+        List<RowExpression> projectionReferences = new ArrayList<>();
+        Map<Integer, RowExpression> subexpressionsByChannel = new HashMap<>();
+
+        // extract the largest shared subexpression first, so extracted subexpressions never reference each other
+        while (true) {
+            Map<RowExpression, Occurrences> occurrences = new HashMap<>();
+            rewrittenFilter.ifPresent(expression -> expression.accept(new OccurrenceCollector(occurrences, determinismEvaluator, true), true));
+            for (RowExpression projection : rewrittenProjections) {
+                projection.accept(new OccurrenceCollector(occurrences, determinismEvaluator, false), true);
+            }
+
+            Optional<Map.Entry<RowExpression, Occurrences>> candidate = occurrences.entrySet().stream()
+                    .filter(entry -> entry.getValue().isFilterSubexpression() || entry.getValue().isProjectionSubexpression())
+                    .max(comparingInt(entry -> entry.getValue().getSize()));
+            if (!candidate.isPresent()) {
+                break;
+            }
+
+            RowExpression subexpression = candidate.get().getKey();
+            int channel = subexpressionChannel + subexpressionsByChannel.size();
+            subexpressionsByChannel.put(channel, subexpression);
+            RowExpression reference = field(channel, subexpression.getType());
+
+            if (candidate.get().getValue().isFilterSubexpression()) {
+                filterReferences.add(reference);
+                rewrittenFilter = rewrittenFilter.map(expression -> replace(expression, subexpression, reference));
+            }
+            else {
+                projectionReferences.add(reference);
+            }
+            rewrittenProjections = rewrittenProjections.stream()
+                    .map(expression -> replace(expression, subexpression, reference))
+                    .collect(toImmutableList());
+        }
+
+        // filter subexpressions are placed before the projection subexpressions
+        Map<Integer, Integer> channels = new HashMap<>();
+        ImmutableList.Builder<RowExpression> subexpressions = ImmutableList.builder();
+        for (RowExpression reference : concat(filterReferences, projectionReferences)) {
+            int channel = ((InputReferenceExpression) reference).getField();
+            channels.put(channel, subexpressionChannel + channels.size());
+            subexpressions.add(subexpressionsByChannel.get(channel));
+        }
+        List<RowExpression> orderedSubexpressions = subexpressions.build();
+
+        return new Result(
+                subexpressionChannel,
+                orderedSubexpressions.subList(0, filterReferences.size()),
+                rewrittenFilter.map(expression -> expression.accept(new ChannelRenamer(channels), null)),
+                orderedSubexpressions.subList(filterReferences.size(), orderedSubexpressions.size()),
+                rewrittenProjections.stream()
+                        .map(expression -> expression.accept(new ChannelRenamer(channels), null))
+                        .collect(toImmutableList()));
+    }
+
+    private static List<RowExpression> concat(Optional<RowExpression> first, List<? extends RowExpression> second)
+    {
+        ImmutableList.Builder<RowExpression> expressions = ImmutableList.builder();
+        first.ifPresent(expressions::add);
+        return expressions.addAll(second).build();
+    }
+
+    private static List<RowExpression> concat(List<RowExpression> first, List<RowExpression> second)
+    {
+        return ImmutableList.<RowExpression>builder()
+                .addAll(first)
+                .addAll(second)
+                .build();
+    }
+
+    private static RowExpression replace(RowExpression expression, RowExpression subexpression, RowExpression reference)
+    {
+        if (expression.equals(subexpression)) {
+            return reference;
+        }
+        if (!(expression instanceof CallExpression)) {
+            return expression;
+        }
+        CallExpression call = (CallExpression) expression;
+        return new CallExpression(
+                call.getSignature(),
+                call.getType(),
+                call.getArguments().stream()
+                        .map(argument -> replace(argument, subexpression, reference))
+                        .collect(toImmutableList()));
+    }
+
+    private static boolean isConditionalArgument(CallExpression call, int argument)
+    {
+        String name = call.getSignature().getName();
+        if (name.equals(TRY) || name.equals(BIND)) {
+            return true;
+        }
+        if (argument == 0) {
+            return false;
+        }
+        if (CONDITIONAL_FORMS.contains(name)) {
+            return true;
+        }
+        if (name.equals(IS_NULL) || name.equals(DEREFERENCE) || name.equals(ROW_CONSTRUCTOR)) {
+            return false;
+        }
+
+        // the generated code stops evaluating the arguments of a function at the first null
+        for (int i = 0; i < argument; i++) {
+            RowExpression previous = call.getArguments().get(i);
+            if (!(previous instanceof ConstantExpression) || ((ConstantExpression) previous).getValue() == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Occurrences
+    {
+        private final int size;
+        private int filterCount;
+        private int projectionCount;
+        private boolean unconditionalInFilter;
+        private boolean unconditionalInProjection;
+
+        public Occurrences(int size)
+        {
+            this.size = size;
+        }
+
+        public int getSize()
+        {
+            return size;
+        }
+
+        public void add(boolean filter, boolean unconditional)
+        {
+            if (filter) {
+                filterCount++;
+                unconditionalInFilter |= unconditional;
+            }
+            else {
+                projectionCount++;
+                unconditionalInProjection |= unconditional;
+            }
+        }
+
+        public boolean isFilterSubexpression()
+        {
+            return unconditionalInFilter && filterCount + projectionCount > 1;
+        }
+
+        public boolean isProjectionSubexpression()
+        {
+            return unconditionalInProjection && projectionCount > 1;
+        }
+    }
+
+    /**
+     * Records the candidate subexpressions of an expression, and returns the size of the expression.
+     * The context is whether the expression is evaluated for every position.
+     */
+    private static class OccurrenceCollector
+            implements RowExpressionVisitor<Integer, Boolean>
+    {
+        private final Map<RowExpression, Occurrences> occurrences;
+        private final DeterminismEvaluator determinismEvaluator;
+        private final boolean filter;
+
+        public OccurrenceCollector(Map<RowExpression, Occurrences> occurrences, DeterminismEvaluator determinismEvaluator, boolean filter)
+        {
+            this.occurrences = occurrences;
+            this.determinismEvaluator = determinismEvaluator;
+            this.filter = filter;
+        }
+
+        @Override
+        public Integer visitInputReference(InputReferenceExpression reference, Boolean unconditional)
+        {
+            return 1;
+        }
+
+        @Override
+        public Integer visitCall(CallExpression call, Boolean unconditional)
+        {
+            int size = 1;
+            List<RowExpression> arguments = call.getArguments();
+            for (int i = 0; i < arguments.size(); i++) {
+                size += arguments.get(i).accept(this, unconditional && !isConditionalArgument(call, i));
+            }
+
+            if (isCandidate(call)) {
+                int callSize = size;
+                occurrences.computeIfAbsent(call, key -> new Occurrences(callSize))
+                        .add(filter, unconditional);
+            }
+            return size;
+        }
+
+        @Override
+        public Integer visitConstant(ConstantExpression literal, Boolean unconditional)
+        {
+            return 1;
+        }
+
+        @Override
+        public Integer visitLambda(LambdaDefinitionExpression lambda, Boolean unconditional)
+        {
+            // lambda bodies are evaluated per element, and may reference the lambda arguments
+            return 1;
+        }
+
+        @Override
+        public Integer visitVariableReference(VariableReferenceExpression reference, Boolean unconditional)
+        {
+            return 1;
+        }
+
+        private boolean isCandidate(CallExpression call)
+        {
+            CandidateVisitor visitor = new CandidateVisitor();
+            return call.accept(visitor, null) && visitor.hasInput && visitor.hasExpensiveFunction && determinismEvaluator.isDeterministic(call);
+        }
+    }
+
+    private static class CandidateVisitor
+            implements RowExpressionVisitor<Boolean, Void>
+    {
+        private boolean hasInput;
+        private boolean hasExpensiveFunction;
+
+        @Override
+        public Boolean visitInputReference(InputReferenceExpression reference, Void context)
+        {
+            hasInput = true;
+            return true;
+        }
+
+        @Override
+        public Boolean visitCall(CallExpression call, Void context)
+        {
+            String name = call.getSignature().getName();
+            if (!name.startsWith(OPERATOR_PREFIX) && !CHEAP_FUNCTIONS.contains(name)) {
+                hasExpensiveFunction = true;
+            }
+            return call.getArguments().stream().allMatch(argument -> argument.accept(this, context));
+        }
+
+        @Override
+        public Boolean visitConstant(ConstantExpression literal, Void context)
+        {
+            return true;
+        }
+
+        @Override
+        public Boolean visitLambda(LambdaDefinitionExpression lambda, Void context)
+        {
+            return false;
+        }
+
+        @Override
+        public Boolean visitVariableReference(VariableReferenceExpression reference, Void context)
+        {
+            return false;
+        }
+    }
+
+    private static class MaxFieldVisitor
+            implements RowExpressionVisitor<Integer, Void>
+    {
+        @Override
+        public Integer visitInputReference(InputReferenceExpression reference, Void context)
+        {
+            return reference.getField();
+        }
+
+        @Override
+        public Integer visitCall(CallExpression call, Void context)
+        {
+            return call.getArguments().stream()
+                    .mapToInt(argument -> argument.accept(this, context))
+                    .max()
+                    .orElse(-1);
+        }
+
+        @Override
+        public Integer visitConstant(ConstantExpression literal, Void context)
+        {
+            return -1;
+        }
+
+        @Override
+        public Integer visitLambda(LambdaDefinitionExpression lambda, Void context)
+        {
+            return lambda.getBody().accept(this, context);
+        }
+
+        @Override
+        public Integer visitVariableReference(VariableReferenceExpression reference, Void context)
+        {
+            return -1;
+        }
+    }
+
+    private static class ChannelRenamer
+            implements RowExpressionVisitor<RowExpression, Void>
+    {
+        private final Map<Integer, Integer> channels;
+
+        public ChannelRenamer(Map<Integer, Integer> channels)
+        {
+            this.channels = channels;
+        }
+
+        @Override
+        public RowExpression visitInputReference(InputReferenceExpression reference, Void context)
+        {
+            Integer channel = channels.get(reference.getField());
+            if (channel == null) {
+                return reference;
+            }
+            return field(channel, reference.getType());
+        }
+
+        @Override
+        public RowExpression visitCall(CallExpression call, Void context)
+        {
+            return new CallExpression(
+                    call.getSignature(),
+                    call.getType(),
+                    call.getArguments().stream()
+                            .map(argument -> argument.accept(this, context))
+                            .collect(toImmutableList()));
+        }
+
+        @Override
+        public RowExpression visitConstant(ConstantExpression literal, Void context)
+        {
+            return literal;
+        }
+
+        @Override
+        public RowExpression visitLambda(LambdaDefinitionExpression lambda, Void context)
+        {
+            return lambda;
+        }
+
+        @Override
+        public RowExpression visitVariableReference(VariableReferenceExpression reference, Void context)
+        {
+            return reference;
+        }
+    }
+
+    public static class Result
+    {
+        private final int subexpressionChannel;
+        private final List<RowExpression> filterSubexpressions;
+        private final Optional<RowExpression> filter;
+        private final List<RowExpression> projectionSubexpressions;
+        private final List<RowExpression> projections;
+
+        public Result(
+                int subexpressionChannel,
+                List<RowExpression> filterSubexpressions,
+                Optional<RowExpression> filter,
+                List<RowExpression> projectionSubexpressions,
+                List<RowExpression> projections)
+        {
+            this.subexpressionChannel = subexpressionChannel;
+            this.filterSubexpressions = ImmutableList.copyOf(requireNonNull(filterSubexpressions, "filterSubexpressions is null"));
+            this.filter = requireNonNull(filter, "filter is null");
+            this.projectionSubexpressions = ImmutableList.copyOf(requireNonNull(projectionSubexpressions, "projectionSubexpressions is null"));
+            this.projections = ImmutableList.copyOf(requireNonNull(projections, "projections is null"));
+        }
+
+        /**
+         * Channel of the first subexpression. The filter subexpressions come first, followed by the projection subexpressions.
+         */
+        public int getSubexpressionChannel()
+        {
+            return subexpressionChannel;
+        }
+
+        public List<RowExpression> getFilterSubexpressions()
+        {
+            return filterSubexpressions;
+        }
+
+        public Optional<RowExpression> getFilter()
+        {
+            return filter;
+        }
+
+        public List<RowExpression> getProjectionSubexpressions()
+        {
+            return projectionSubexpressions;
+        }
+
+        public List<RowExpression> getProjections()
+        {
+            return projections;
+        }
+    }
+}
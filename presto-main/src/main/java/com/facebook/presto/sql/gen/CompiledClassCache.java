@@ -0,0 +1,355 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.bytecode.ClassDefinition;
+import com.facebook.presto.bytecode.CompilerUtils;
+import com.facebook.presto.bytecode.DynamicClassLoader;
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.CompilerConfig;
+import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.relational.ConstantExpression;
+import com.facebook.presto.sql.relational.InputReferenceExpression;
+import com.facebook.presto.sql.relational.LambdaDefinitionExpression;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.sql.relational.RowExpressionVisitor;
+import com.facebook.presto.sql.relational.VariableReferenceExpression;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.AbstractCache.StatsCounter;
+import com.google.common.io.BaseEncoding;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Stores the bytecode of generated classes on local disk, so the classes do
+ * not need to be generated again after a restart. Entries are keyed by a
+ * canonical description of what the class computes and by the server version.
+ * <p>
+ * Generators still build the class definition and call site bindings for
+ * every class, because the bindings hold live objects. Only the bytecode
+ * generation is skipped on a hit, which requires generators to be
+ * deterministic. As a safeguard, an entry is only used when the bindings of
+ * the new definition have the same types as those of the cached class.
+ */
+public class CompiledClassCache
+{
+    private static final Logger log = Logger.get(CompiledClassCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".class-cache";
+
+    private final Optional<Path> directory;
+    private final String serverVersion;
+    private final int maxEntries;
+    private final AtomicInteger entries = new AtomicInteger();
+    private final StatsCounter stats = new SimpleStatsCounter();
+
+    public static CompiledClassCache disabled()
+    {
+        return new CompiledClassCache(Optional.empty(), "", 1);
+    }
+
+    @Inject
+    public CompiledClassCache(CompilerConfig config, NodeVersion nodeVersion)
+    {
+        this(
+                config.isClassCacheEnabled() ? Optional.of(Paths.get(requireNonNull(config.getClassCacheDirectory(), "compiler.class-cache.directory is not set"))) : Optional.empty(),
+                nodeVersion.getVersion(),
+                config.getClassCacheMaxEntries());
+    }
+
+    public CompiledClassCache(Optional<Path> directory, String serverVersion, int maxEntries)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.serverVersion = requireNonNull(serverVersion, "serverVersion is null");
+        checkArgument(maxEntries > 0, "maxEntries must be positive");
+        this.maxEntries = maxEntries;
+
+        if (directory.isPresent()) {
+            try {
+                Files.createDirectories(directory.get());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Failed to create compiled class cache directory " + directory.get(), e);
+            }
+            entries.set(listEntries().size());
+            evictIfNecessary();
+        }
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getStats()
+    {
+        return new CacheStatsMBean(stats::snapshot);
+    }
+
+    @Managed
+    public long getEntryCount()
+    {
+        return entries.get();
+    }
+
+    /**
+     * Defines the class, using the cached bytecode for the key if present.
+     * Classes without a key are always generated.
+     */
+    public <T> Class<? extends T> defineClass(
+            Optional<String> key,
+            ClassDefinition classDefinition,
+            Class<T> superType,
+            Map<Long, MethodHandle> callSiteBindings,
+            ClassLoader parentClassLoader)
+    {
+        if (!directory.isPresent() || !key.isPresent()) {
+            return CompilerUtils.defineClass(classDefinition, superType, callSiteBindings, parentClassLoader);
+        }
+
+        Path file = directory.get().resolve(sha256().hashString(serverVersion + "\n" + superType.getName() + "\n" + key.get(), UTF_8) + FILE_SUFFIX);
+        String bindingTypes = getBindingTypes(callSiteBindings);
+
+        Optional<byte[]> cachedBytecode = read(file, bindingTypes);
+        if (cachedBytecode.isPresent()) {
+            try {
+                Class<? extends T> clazz = CompilerUtils.defineClass(cachedBytecode.get(), superType, new DynamicClassLoader(parentClassLoader, callSiteBindings));
+                stats.recordHits(1);
+                return clazz;
+            }
+            catch (RuntimeException | LinkageError e) {
+                log.warn(e, "Failed to load cached class %s, generating it again", file);
+            }
+        }
+        stats.recordMisses(1);
+
+        DynamicClassLoader classLoader = new DynamicClassLoader(parentClassLoader, callSiteBindings);
+        byte[] bytecode = CompilerUtils.generateBytecode(classDefinition, classLoader);
+        Class<? extends T> clazz = CompilerUtils.defineClass(bytecode, superType, classLoader);
+        write(file, bindingTypes, bytecode);
+        return clazz;
+    }
+
+    /**
+     * Returns a description of the expression that determines the bytecode
+     * generated for it, or empty if the expression contains constants
+     * that cannot be described.
+     */
+    public static Optional<String> canonicalize(RowExpression expression)
+    {
+        return expression.accept(new CanonicalizingVisitor(), null);
+    }
+
+    public static Optional<String> canonicalize(List<? extends RowExpression> expressions)
+    {
+        StringBuilder builder = new StringBuilder("[");
+        for (RowExpression expression : expressions) {
+            Optional<String> canonical = canonicalize(expression);
+            if (!canonical.isPresent()) {
+                return Optional.empty();
+            }
+            builder.append(canonical.get()).append(';');
+        }
+        return Optional.of(builder.append(']').toString());
+    }
+
+    public static String canonicalizeTypes(List<? extends Type> types)
+    {
+        return types.stream()
+                .map(type -> type.getTypeSignature().toString())
+                .collect(joining(",", "[", "]"));
+    }
+
+    private static String getBindingTypes(Map<Long, MethodHandle> callSiteBindings)
+    {
+        return new TreeMap<>(callSiteBindings).entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue().type())
+                .collect(joining(";"));
+    }
+
+    private static Optional<byte[]> read(Path file, String bindingTypes)
+    {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (input.readInt() != FORMAT_VERSION || !input.readUTF().equals(bindingTypes)) {
+                return Optional.empty();
+            }
+            byte[] bytecode = new byte[input.readInt()];
+            input.readFully(bytecode);
+            return Optional.of(bytecode);
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read cached class %s", file);
+            return Optional.empty();
+        }
+    }
+
+    private void write(Path file, String bindingTypes, byte[] bytecode)
+    {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(bytecode.length + bindingTypes.length() + 16);
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(bindingTypes);
+                output.writeInt(bytecode.length);
+                output.write(bytecode);
+            }
+
+            boolean exists = Files.exists(file);
+            // write to a temporary file first, so other nodes sharing the directory never see a partial entry
+            Path temporary = Files.createTempFile(file.getParent(), "tmp", ".tmp");
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+
+            if (!exists && entries.incrementAndGet() > maxEntries) {
+                evictIfNecessary();
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            // the cache is an optimization, so a failed write does not fail the query
+            log.warn(e, "Failed to write cached class %s", file);
+        }
+    }
+
+    private synchronized void evictIfNecessary()
+    {
+        List<Path> files = listEntries();
+        int excess = files.size() - maxEntries;
+        if (excess <= 0) {
+            entries.set(files.size());
+            return;
+        }
+
+        // evict the least recently written entries, leaving some headroom so eviction does not run on every write
+        int toEvict = excess + maxEntries / 10;
+        files.stream()
+                .sorted(Comparator.comparing(CompiledClassCache::getLastModifiedTime))
+                .limit(toEvict)
+                .forEach(CompiledClassCache::deleteQuietly);
+        entries.set(listEntries().size());
+    }
+
+    private List<Path> listEntries()
+    {
+        try (Stream<Path> files = Files.list(directory.get())) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .collect(toImmutableList());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long getLastModifiedTime(Path file)
+    {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached class %s", file);
+        }
+    }
+
+    private static class CanonicalizingVisitor
+            implements RowExpressionVisitor<Optional<String>, Void>
+    {
+        @Override
+        public Optional<String> visitCall(CallExpression call, Void context)
+        {
+            Optional<String> arguments = canonicalize(call.getArguments());
+            return arguments.map(value -> "call(" + call.getSignature().getKind() + ":" + call.getSignature() + ":" + call.getType().getTypeSignature() + value + ")");
+        }
+
+        @Override
+        public Optional<String> visitInputReference(InputReferenceExpression reference, Void context)
+        {
+            return Optional.of("input(" + reference.getField() + ":" + reference.getType().getTypeSignature() + ")");
+        }
+
+        @Override
+        public Optional<String> visitConstant(ConstantExpression literal, Void context)
+        {
+            Object value = literal.getValue();
+            String type = literal.getType().getTypeSignature().toString();
+            if (value == null) {
+                return Optional.of("null(" + type + ")");
+            }
+            if (value instanceof Boolean || value instanceof Number || value instanceof String) {
+                return Optional.of("constant(" + type + ":" + value.getClass().getSimpleName() + ":" + value + ")");
+            }
+            if (value instanceof Slice) {
+                return Optional.of("constant(" + type + ":" + BaseEncoding.base16().encode(((Slice) value).getBytes()) + ")");
+            }
+            // other values, such as blocks, have no stable description
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> visitLambda(LambdaDefinitionExpression lambda, Void context)
+        {
+            return lambda.getBody().accept(this, context)
+                    .map(body -> "lambda(" + lambda.getArguments() + ":" + canonicalizeTypes(lambda.getArgumentTypes()) + ":" + body + ")");
+        }
+
+        @Override
+        public Optional<String> visitVariableReference(VariableReferenceExpression reference, Void context)
+        {
+            return Optional.of("variable(" + reference.getName() + ":" + reference.getType().getTypeSignature() + ")");
+        }
+    }
+}
@@ -17,10 +17,13 @@ import com.facebook.presto.bytecode.ClassDefinition;
 import com.facebook.presto.bytecode.CompilationException;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.CursorProcessor;
+import com.facebook.presto.operator.project.DictionaryResultCache;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.sql.planner.CompilerConfig;
+import com.facebook.presto.sql.relational.DeterminismEvaluator;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
@@ -40,19 +43,25 @@ import java.util.function.Supplier;
 import static com.facebook.presto.bytecode.Access.FINAL;
 import static com.facebook.presto.bytecode.Access.PUBLIC;
 import static com.facebook.presto.bytecode.Access.a;
-import static com.facebook.presto.bytecode.CompilerUtils.defineClass;
 import static com.facebook.presto.bytecode.CompilerUtils.makeClassName;
 import static com.facebook.presto.bytecode.ParameterizedType.type;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
+import static com.facebook.presto.sql.gen.CommonSubexpressionRewriter.rewriteCommonSubexpressions;
+import static com.facebook.presto.sql.gen.CompiledClassCache.canonicalize;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
 
 public class ExpressionCompiler
 {
     private final Metadata metadata;
+    private final CompiledClassCache classCache;
+    private final boolean vectorizedEvaluationEnabled;
+    private final boolean commonSubexpressionEliminationEnabled;
+    private final DictionaryResultCache dictionaryResultCache;
 
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors = CacheBuilder.newBuilder().recordStats().maximumSize(1000).build(
             new CacheLoader<CacheKey, Class<? extends CursorProcessor>>()
@@ -65,10 +74,19 @@ public class ExpressionCompiler
                 }
             });
 
-    @Inject
     public ExpressionCompiler(Metadata metadata)
+    {
+        this(metadata, CompiledClassCache.disabled(), new CompilerConfig());
+    }
+
+    @Inject
+    public ExpressionCompiler(Metadata metadata, CompiledClassCache classCache, CompilerConfig config)
     {
         this.metadata = metadata;
+        this.classCache = requireNonNull(classCache, "classCache is null");
+        this.vectorizedEvaluationEnabled = requireNonNull(config, "config is null").isVectorizedEvaluationEnabled();
+        this.commonSubexpressionEliminationEnabled = config.isCommonSubexpressionEliminationEnabled();
+        this.dictionaryResultCache = new DictionaryResultCache(config.getDictionaryResultCacheMaxSize());
     }
 
     @Managed
@@ -84,6 +102,13 @@ public class ExpressionCompiler
         return new CacheStatsMBean(cursorProcessors);
     }
 
+    @Managed
+    @Nested
+    public DictionaryResultCache getDictionaryResultCache()
+    {
+        return dictionaryResultCache;
+    }
+
     public Supplier<CursorProcessor> compileCursorProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections, Object uniqueKey)
     {
         Class<? extends CursorProcessor> cursorProcessor = cursorProcessors.getUnchecked(new CacheKey(filter, projections, uniqueKey));
@@ -99,22 +124,60 @@ public class ExpressionCompiler
 
     public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections)
     {
-        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata);
+        if (!commonSubexpressionEliminationEnabled) {
+            return compilePageProcessor(0, ImmutableList.of(), filter, ImmutableList.of(), projections);
+        }
+
+        CommonSubexpressionRewriter.Result result = rewriteCommonSubexpressions(filter, projections, new DeterminismEvaluator(metadata.getFunctionRegistry()));
+        return compilePageProcessor(
+                result.getSubexpressionChannel(),
+                result.getFilterSubexpressions(),
+                result.getFilter(),
+                result.getProjectionSubexpressions(),
+                result.getProjections());
+    }
+
+    private Supplier<PageProcessor> compilePageProcessor(
+            int subexpressionChannel,
+            List<RowExpression> filterSubexpressions,
+            Optional<RowExpression> filter,
+            List<RowExpression> projectionSubexpressions,
+            List<? extends RowExpression> projections)
+    {
+        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata, classCache, vectorizedEvaluationEnabled);
+        List<Supplier<PageProjection>> filterSubexpressionSuppliers = compileProjections(pageFunctionCompiler, filterSubexpressions);
         Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(pageFunctionCompiler::compileFilter);
-        List<Supplier<PageProjection>> pageProjectionSuppliers = projections.stream()
-                .map(pageFunctionCompiler::compileProjection)
-                .collect(toImmutableList());
+        List<Supplier<PageProjection>> projectionSubexpressionSuppliers = compileProjections(pageFunctionCompiler, projectionSubexpressions);
+        List<Supplier<PageProjection>> pageProjectionSuppliers = compileProjections(pageFunctionCompiler, projections);
+        DictionaryResultCache.Scope dictionaryResultCacheScope = dictionaryResultCache.newScope();
 
         return () -> {
             Optional<PageFilter> filterFunction = filterFunctionSupplier.map(Supplier::get);
-            List<PageProjection> pageProjections = pageProjectionSuppliers.stream()
-                    .map(Supplier::get)
-                    .collect(toImmutableList());
-            return new PageProcessor(filterFunction, pageProjections);
+            return new PageProcessor(
+                    subexpressionChannel,
+                    getAll(filterSubexpressionSuppliers),
+                    filterFunction,
+                    getAll(projectionSubexpressionSuppliers),
+                    getAll(pageProjectionSuppliers),
+                    dictionaryResultCacheScope);
         };
     }
 
-    private <T> Class<? extends T> compile(Optional<RowExpression> filter, List<RowExpression> projections, BodyCompiler bodyCompiler, Class<? extends T> superType)
+    private static List<Supplier<PageProjection>> compileProjections(PageFunctionCompiler pageFunctionCompiler, List<? extends RowExpression> projections)
+    {
+        return projections.stream()
+                .map(pageFunctionCompiler::compileProjection)
+                .collect(toImmutableList());
+    }
+
+    private static List<PageProjection> getAll(List<Supplier<PageProjection>> suppliers)
+    {
+        return suppliers.stream()
+                .map(Supplier::get)
+                .collect(toImmutableList());
+    }
+
+    private <T> Class<? extends T> compile(Optional<RowExpression> filter, List<RowExpression> projections, BodyCompiler bodyCompiler, Class<T> superType)
     {
         // create filter and project page iterator class
         try {
@@ -129,7 +192,7 @@ public class ExpressionCompiler
             RowExpression filter,
             List<RowExpression> projections,
             BodyCompiler bodyCompiler,
-            Class<? extends T> superType)
+            Class<T> superType)
     {
         ClassDefinition classDefinition = new ClassDefinition(
                 a(PUBLIC, FINAL),
@@ -151,7 +214,8 @@ public class ExpressionCompiler
                         .add("projections", projections)
                         .toString());
 
-        return defineClass(classDefinition, superType, callSiteBinder.getBindings(), getClass().getClassLoader());
+        Optional<String> key = canonicalize(filter).flatMap(canonicalFilter -> canonicalize(projections).map(canonicalProjections -> canonicalFilter + canonicalProjections));
+        return classCache.defineClass(key, classDefinition, superType, callSiteBinder.getBindings(), getClass().getClassLoader());
     }
 
     private static void generateToString(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, String string)
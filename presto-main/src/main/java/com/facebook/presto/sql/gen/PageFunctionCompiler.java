@@ -32,6 +32,8 @@ import com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.SelectedPositions;
+import com.facebook.presto.operator.project.VectorizedPageFilter;
+import com.facebook.presto.operator.project.VectorizedPageProjection;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
@@ -40,6 +42,7 @@ import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.LambdaBytecodeGenerator.CompiledLambda;
+import com.facebook.presto.sql.planner.CompilerConfig;
 import com.facebook.presto.sql.relational.CallExpression;
 import com.facebook.presto.sql.relational.ConstantExpression;
 import com.facebook.presto.sql.relational.DeterminismEvaluator;
@@ -67,7 +70,6 @@ import static com.facebook.presto.bytecode.Access.FINAL;
 import static com.facebook.presto.bytecode.Access.PRIVATE;
 import static com.facebook.presto.bytecode.Access.PUBLIC;
 import static com.facebook.presto.bytecode.Access.a;
-import static com.facebook.presto.bytecode.CompilerUtils.defineClass;
 import static com.facebook.presto.bytecode.CompilerUtils.makeClassName;
 import static com.facebook.presto.bytecode.Parameter.arg;
 import static com.facebook.presto.bytecode.ParameterizedType.type;
@@ -82,9 +84,11 @@ import static com.facebook.presto.bytecode.expression.BytecodeExpressions.newArr
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.newInstance;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.not;
 import static com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
+import static com.facebook.presto.operator.project.VectorExpressions.isVectorizable;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
 import static com.facebook.presto.sql.gen.BytecodeUtils.generateWrite;
 import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
+import static com.facebook.presto.sql.gen.CompiledClassCache.canonicalize;
 import static com.facebook.presto.sql.gen.LambdaAndTryExpressionExtractor.extractLambdaAndTryExpressions;
 import static com.facebook.presto.sql.gen.TryCodeGenerator.defineTryMethod;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -96,12 +100,31 @@ public class PageFunctionCompiler
 {
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
+    private final CompiledClassCache classCache;
+    private final boolean vectorizedEvaluationEnabled;
 
-    @Inject
     public PageFunctionCompiler(Metadata metadata)
+    {
+        this(metadata, CompiledClassCache.disabled());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, CompiledClassCache classCache)
+    {
+        this(metadata, classCache, false);
+    }
+
+    @Inject
+    public PageFunctionCompiler(Metadata metadata, CompiledClassCache classCache, CompilerConfig config)
+    {
+        this(metadata, classCache, requireNonNull(config, "config is null").isVectorizedEvaluationEnabled());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, CompiledClassCache classCache, boolean vectorizedEvaluationEnabled)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new DeterminismEvaluator(metadata.getFunctionRegistry());
+        this.classCache = requireNonNull(classCache, "classCache is null");
+        this.vectorizedEvaluationEnabled = vectorizedEvaluationEnabled;
     }
 
     public Supplier<PageProjection> compileProjection(RowExpression projection)
@@ -122,12 +145,16 @@ public class PageFunctionCompiler
 
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(projection);
 
+        if (vectorizedEvaluationEnabled && isVectorizable(result.getRewrittenExpression())) {
+            return () -> new VectorizedPageProjection(result.getRewrittenExpression(), result.getInputChannels());
+        }
+
         CallSiteBinder callSiteBinder = new CallSiteBinder();
         ClassDefinition classDefinition = defineProjectionClass(result.getRewrittenExpression(), result.getInputChannels(), callSiteBinder);
 
         Class<? extends PageProjection> projectionClass;
         try {
-            projectionClass = defineClass(classDefinition, PageProjection.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            projectionClass = classCache.defineClass(canonicalize(result.getRewrittenExpression()), classDefinition, PageProjection.class, callSiteBinder.getBindings(), getClass().getClassLoader());
         }
         catch (Exception e) {
             throw new PrestoException(COMPILER_ERROR, e);
@@ -304,12 +331,16 @@ public class PageFunctionCompiler
 
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(filter);
 
+        if (vectorizedEvaluationEnabled && isVectorizable(result.getRewrittenExpression())) {
+            return () -> new VectorizedPageFilter(result.getRewrittenExpression(), result.getInputChannels());
+        }
+
         CallSiteBinder callSiteBinder = new CallSiteBinder();
         ClassDefinition classDefinition = defineFilterClass(result.getRewrittenExpression(), result.getInputChannels(), callSiteBinder);
 
         Class<? extends PageFilter> functionClass;
         try {
-            functionClass = defineClass(classDefinition, PageFilter.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            functionClass = classCache.defineClass(canonicalize(result.getRewrittenExpression()), classDefinition, PageFilter.class, callSiteBinder.getBindings(), getClass().getClassLoader());
         }
         catch (Exception e) {
             throw new PrestoException(COMPILER_ERROR, filter.toString(), e.getCause());
@@ -15,10 +15,23 @@ package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.spi.function.Description;
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class CompilerConfig
 {
     private boolean interpreterEnabled;
+    private boolean classCacheEnabled;
+    private String classCacheDirectory;
+    private int classCacheMaxEntries = 10_000;
+    private boolean vectorizedEvaluationEnabled;
+    private boolean commonSubexpressionEliminationEnabled = true;
+    private DataSize dictionaryResultCacheMaxSize = new DataSize(32, MEGABYTE);
 
     public boolean isInterpreterEnabled()
     {
@@ -32,4 +45,84 @@ public class CompilerConfig
         this.interpreterEnabled = interpreterEnabled;
         return this;
     }
+
+    public boolean isClassCacheEnabled()
+    {
+        return classCacheEnabled;
+    }
+
+    @Config("compiler.class-cache.enabled")
+    @ConfigDescription("Store generated classes on local disk so they survive restarts")
+    public CompilerConfig setClassCacheEnabled(boolean classCacheEnabled)
+    {
+        this.classCacheEnabled = classCacheEnabled;
+        return this;
+    }
+
+    public String getClassCacheDirectory()
+    {
+        return classCacheDirectory;
+    }
+
+    @Config("compiler.class-cache.directory")
+    @ConfigDescription("Local directory for the compiled class cache")
+    public CompilerConfig setClassCacheDirectory(String classCacheDirectory)
+    {
+        this.classCacheDirectory = classCacheDirectory;
+        return this;
+    }
+
+    @Min(1)
+    public int getClassCacheMaxEntries()
+    {
+        return classCacheMaxEntries;
+    }
+
+    @Config("compiler.class-cache.max-entries")
+    @ConfigDescription("Maximum number of generated classes kept in the compiled class cache")
+    public CompilerConfig setClassCacheMaxEntries(int classCacheMaxEntries)
+    {
+        this.classCacheMaxEntries = classCacheMaxEntries;
+        return this;
+    }
+
+    public boolean isVectorizedEvaluationEnabled()
+    {
+        return vectorizedEvaluationEnabled;
+    }
+
+    @Config("compiler.vectorized-evaluation-enabled")
+    @ConfigDescription("Evaluate simple filters and projections over fixed width types a batch of positions at a time")
+    public CompilerConfig setVectorizedEvaluationEnabled(boolean vectorizedEvaluationEnabled)
+    {
+        this.vectorizedEvaluationEnabled = vectorizedEvaluationEnabled;
+        return this;
+    }
+
+    public boolean isCommonSubexpressionEliminationEnabled()
+    {
+        return commonSubexpressionEliminationEnabled;
+    }
+
+    @Config("compiler.common-subexpression-elimination-enabled")
+    @ConfigDescription("Evaluate function calls shared by the filter and projections once per position")
+    public CompilerConfig setCommonSubexpressionEliminationEnabled(boolean commonSubexpressionEliminationEnabled)
+    {
+        this.commonSubexpressionEliminationEnabled = commonSubexpressionEliminationEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getDictionaryResultCacheMaxSize()
+    {
+        return dictionaryResultCacheMaxSize;
+    }
+
+    @Config("compiler.dictionary-result-cache.max-size")
+    @ConfigDescription("Maximum size of filter and projection results over dictionaries shared between drivers, or zero to disable")
+    public CompilerConfig setDictionaryResultCacheMaxSize(DataSize dictionaryResultCacheMaxSize)
+    {
+        this.dictionaryResultCacheMaxSize = dictionaryResultCacheMaxSize;
+        return this;
+    }
 }
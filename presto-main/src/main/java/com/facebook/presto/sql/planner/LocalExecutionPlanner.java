@@ -58,6 +58,7 @@ import com.facebook.presto.operator.ScanFilterAndProjectOperator;
 import com.facebook.presto.operator.SetBuilderOperator.SetBuilderOperatorFactory;
 import com.facebook.presto.operator.SetBuilderOperator.SetSupplier;
 import com.facebook.presto.operator.SourceOperatorFactory;
+import com.facebook.presto.operator.StreamingAggregationOperator.StreamingAggregationOperatorFactory;
 import com.facebook.presto.operator.TableScanOperator.TableScanOperatorFactory;
 import com.facebook.presto.operator.TaskOutputOperator.TaskOutputFactory;
 import com.facebook.presto.operator.TopNOperator.TopNOperatorFactory;
@@ -89,6 +90,7 @@ import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.WindowFunctionSupplier;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorIndex;
+import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.PrestoException;
@@ -156,6 +158,7 @@ import com.facebook.presto.sql.relational.SqlToRowExpressionTranslator;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.NodeRef;
+import com.facebook.presto.sql.tree.SymbolReference;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -176,6 +179,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -195,6 +199,7 @@ import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.SystemSessionProperties.isStreamingPartialAggregation;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static com.facebook.presto.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
@@ -213,6 +218,7 @@ import static com.facebook.presto.sql.planner.SystemPartitioningHandle.COORDINAT
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_BROADCAST_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.PARTIAL;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.LOCAL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
@@ -1008,6 +1014,14 @@ public class LocalExecutionPlanner
                 return planGlobalAggregation(context.getNextOperatorId(), node, source);
             }
 
+            if (node.getStep() == PARTIAL &&
+                    node.getGroupingSets().size() == 1 &&
+                    !node.getGroupIdSymbol().isPresent() &&
+                    isStreamingPartialAggregation(context.getSession()) &&
+                    isGroupedPerSplit(context.getSession(), node.getSource(), node.getGroupingKeys())) {
+                return planStreamingAggregation(node, source, context.getNextOperatorId());
+            }
+
             boolean spillEnabled = isSpillEnabled(context.getSession());
             DataSize unspillMemoryLimit = getAggregationOperatorUnspillMemoryLimit(context.getSession());
 
@@ -2151,6 +2165,102 @@ public class LocalExecutionPlanner
 
             return new PhysicalOperation(operatorFactory, mappings, source);
         }
+
+        private PhysicalOperation planStreamingAggregation(AggregationNode node, PhysicalOperation source, int operatorId)
+        {
+            List<Symbol> groupBySymbols = node.getGroupingKeys();
+
+            List<Symbol> aggregationOutputSymbols = new ArrayList<>();
+            List<AccumulatorFactory> accumulatorFactories = new ArrayList<>();
+            for (Map.Entry<Symbol, Aggregation> entry : node.getAggregations().entrySet()) {
+                Aggregation aggregation = entry.getValue();
+                accumulatorFactories.add(buildAccumulatorFactory(
+                        source,
+                        aggregation.getSignature(),
+                        aggregation.getCall(),
+                        aggregation.getMask()));
+                aggregationOutputSymbols.add(entry.getKey());
+            }
+
+            // same layout as the hash aggregation: group by keys, hash, aggregations
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            int channel = 0;
+            for (Symbol symbol : groupBySymbols) {
+                outputMappings.put(symbol, channel);
+                channel++;
+            }
+            if (node.getHashSymbol().isPresent()) {
+                outputMappings.put(node.getHashSymbol().get(), channel++);
+            }
+            for (Symbol symbol : aggregationOutputSymbols) {
+                outputMappings.put(symbol, channel);
+                channel++;
+            }
+
+            List<Integer> groupByChannels = getChannelsForSymbols(groupBySymbols, source.getLayout());
+            List<Type> groupByTypes = groupByChannels.stream()
+                    .map(entry -> source.getTypes().get(entry))
+                    .collect(toImmutableList());
+
+            OperatorFactory operatorFactory = new StreamingAggregationOperatorFactory(
+                    operatorId,
+                    node.getId(),
+                    groupByTypes,
+                    groupByChannels,
+                    node.getHashSymbol().map(channelGetter(source)),
+                    node.getStep(),
+                    accumulatorFactories);
+
+            return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
+        }
+
+        /**
+         * Checks whether the source is a scan, possibly under filters and identity projections of
+         * the keys, whose splits each produce their rows grouped on the given keys. The drivers of the
+         * pipeline read one split after the other, so all rows of a group within a split are adjacent.
+         */
+        private boolean isGroupedPerSplit(Session session, PlanNode source, List<Symbol> groupingKeys)
+        {
+            Set<Symbol> keys = ImmutableSet.copyOf(groupingKeys);
+            PlanNode node = source;
+            while (node instanceof FilterNode || node instanceof ProjectNode) {
+                if (node instanceof ProjectNode) {
+                    Assignments assignments = ((ProjectNode) node).getAssignments();
+                    ImmutableSet.Builder<Symbol> sourceKeys = ImmutableSet.builder();
+                    for (Symbol key : keys) {
+                        Expression expression = assignments.get(key);
+                        if (!(expression instanceof SymbolReference)) {
+                            return false;
+                        }
+                        sourceKeys.add(Symbol.from(expression));
+                    }
+                    keys = sourceKeys.build();
+                }
+                node = node.getSources().get(0);
+            }
+
+            if (!(node instanceof TableScanNode) || !((TableScanNode) node).getLayout().isPresent()) {
+                return false;
+            }
+            TableScanNode tableScan = (TableScanNode) node;
+
+            Set<ColumnHandle> keyColumns = keys.stream()
+                    .map(tableScan.getAssignments()::get)
+                    .collect(toImmutableSet());
+
+            // the keys must be exactly the columns of a prefix of the per split properties
+            Set<ColumnHandle> prefixColumns = new HashSet<>();
+            for (LocalProperty<ColumnHandle> property : metadata.getLayout(session, tableScan.getLayout().get()).getSplitLocalProperties()) {
+                prefixColumns.addAll(property.getColumns());
+                if (!keyColumns.containsAll(prefixColumns)) {
+                    return false;
+                }
+                if (prefixColumns.equals(keyColumns)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
     private static List<Type> getTypes(List<Expression> expressions, Map<NodeRef<Expression>, Type> expressionTypes)
@@ -14,6 +14,7 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.cost.PlanNodeStatsEstimate;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.iterative.Lookup;
@@ -58,6 +59,16 @@ public class Plan
         return types;
     }
 
+    public PlanNodeCostEstimate getCumulativeCost()
+    {
+        return lookup.getCumulativeCost(root, session, types);
+    }
+
+    public PlanNodeStatsEstimate getStats(PlanNode node)
+    {
+        return lookup.getStats(node, session, types);
+    }
+
     @VisibleForTesting
     public Map<PlanNodeId, PlanNodeStatsEstimate> getPlanNodeStats()
     {
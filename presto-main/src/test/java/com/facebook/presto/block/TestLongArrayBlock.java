@@ -15,6 +15,7 @@ package com.facebook.presto.block;
 
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.LongArrayBlock;
 import com.facebook.presto.spi.block.LongArrayBlockBuilder;
 import com.facebook.presto.spi.block.VariableWidthBlockBuilder;
 import com.google.common.primitives.Ints;
@@ -23,6 +24,7 @@ import org.testng.annotations.Test;
 
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestLongArrayBlock
@@ -45,6 +47,28 @@ public class TestLongArrayBlock
         assertBlockFilteredPositions(expectedValues, blockBuilder.build(), Ints.asList(0, 2, 4, 6, 7, 9, 10, 16));
     }
 
+    @Test
+    public void testGetLongs()
+    {
+        LongArrayBlockBuilder blockBuilder = new LongArrayBlockBuilder(new BlockBuilderStatus(), 5);
+        blockBuilder.writeLong(1).closeEntry();
+        blockBuilder.appendNull();
+        blockBuilder.writeLong(3).closeEntry();
+        blockBuilder.writeLong(4).closeEntry();
+        blockBuilder.writeLong(5).closeEntry();
+        LongArrayBlock block = (LongArrayBlock) blockBuilder.build().getRegion(1, 4);
+
+        long[] values = new long[3];
+        boolean[] nulls = new boolean[3];
+        assertTrue(block.getLongs(null, 0, 3, values, nulls));
+        assertEquals(values, new long[] {0, 3, 4});
+        assertEquals(nulls, new boolean[] {true, false, false});
+
+        assertFalse(block.getLongs(new int[] {-1, 3, 1}, 1, 2, values, nulls));
+        assertEquals(values, new long[] {5, 3, 4});
+        assertEquals(nulls, new boolean[] {false, false, false});
+    }
+
     @Test
     public void testLazyBlockBuilderInitialization()
             throws Exception
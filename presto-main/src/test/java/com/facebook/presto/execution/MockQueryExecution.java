@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeCostEstimate;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.spi.QueryId;
@@ -43,6 +44,7 @@ public class MockQueryExecution
         implements QueryExecution
 {
     private final List<StateChangeListener<QueryState>> listeners = new ArrayList<>();
+    private final List<StateChangeListener<Boolean>> memoryAdmissionListeners = new ArrayList<>();
     private final long memoryUsage;
     private final Duration cpuUsage;
     private final Session session;
@@ -50,6 +52,8 @@ public class MockQueryExecution
     private QueryState state = QUEUED;
     private Throwable failureCause;
     private Optional<ResourceGroupId> resourceGroupId;
+    private Optional<PlanNodeCostEstimate> estimatedCost = Optional.empty();
+    private boolean waitingForMemoryAdmission;
 
     public MockQueryExecution(long memoryUsage)
     {
@@ -111,7 +115,9 @@ public class MockQueryExecution
                 ImmutableSet.of(),
                 Optional.empty(),
                 state.isDone(),
-                Optional.empty());
+                Optional.empty(),
+                Optional.empty(),
+                false);
     }
 
     @Override
@@ -126,6 +132,37 @@ public class MockQueryExecution
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Optional<PlanNodeCostEstimate> getEstimatedCost()
+    {
+        return estimatedCost;
+    }
+
+    public void setEstimatedCost(PlanNodeCostEstimate estimatedCost)
+    {
+        this.estimatedCost = Optional.of(estimatedCost);
+    }
+
+    @Override
+    public boolean isWaitingForMemoryAdmission()
+    {
+        return waitingForMemoryAdmission;
+    }
+
+    public void setWaitingForMemoryAdmission(boolean waitingForMemoryAdmission)
+    {
+        this.waitingForMemoryAdmission = waitingForMemoryAdmission;
+        for (StateChangeListener<Boolean> listener : memoryAdmissionListeners) {
+            listener.stateChanged(waitingForMemoryAdmission);
+        }
+    }
+
+    @Override
+    public Duration getMemoryAdmissionTime()
+    {
+        return new Duration(0, MILLISECONDS);
+    }
+
     public Throwable getFailureCause()
     {
         return failureCause;
@@ -213,6 +250,11 @@ public class MockQueryExecution
     {
     }
 
+    @Override
+    public void recordSavedParsingTime(Duration parsingTime)
+    {
+    }
+
     @Override
     public void pruneInfo()
     {
@@ -230,6 +272,12 @@ public class MockQueryExecution
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void addMemoryAdmissionStateChangeListener(StateChangeListener<Boolean> stateChangeListener)
+    {
+        memoryAdmissionListeners.add(stateChangeListener);
+    }
+
     private void fireStateChange()
     {
         for (StateChangeListener<QueryState> listener : listeners) {
@@ -150,6 +150,12 @@ public class MockRemoteTaskFactory
         @GuardedBy("this")
         private final Multimap<PlanNodeId, Split> splits = HashMultimap.create();
 
+        @GuardedBy("this")
+        private final Set<Long> committedSplits = new HashSet<>();
+
+        @GuardedBy("this")
+        private final Set<Long> abortedSplits = new HashSet<>();
+
         @GuardedBy("this")
         private int runningDrivers = 0;
 
@@ -312,6 +318,23 @@ public class MockRemoteTaskFactory
             }
         }
 
+        @Override
+        public synchronized void updateSpeculativeSplits(Set<Long> committedSplits, Set<Long> abortedSplits)
+        {
+            this.committedSplits.addAll(committedSplits);
+            this.abortedSplits.addAll(abortedSplits);
+        }
+
+        public synchronized Set<Long> getCommittedSplits()
+        {
+            return ImmutableSet.copyOf(committedSplits);
+        }
+
+        public synchronized Set<Long> getAbortedSplits()
+        {
+            return ImmutableSet.copyOf(abortedSplits);
+        }
+
         @Override
         public void setOutputBuffers(OutputBuffers outputBuffers)
         {
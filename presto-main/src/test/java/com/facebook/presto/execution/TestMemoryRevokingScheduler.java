@@ -239,6 +239,33 @@ public class TestMemoryRevokingScheduler
         assertMemoryRevokingRequestedFor(operatorContext);
     }
 
+    @Test
+    public void testRequestQueryMemoryRevoking()
+            throws Exception
+    {
+        SqlTask sqlTask1 = newSqlTask(new QueryId("query1"));
+        OperatorContext operatorContext1 = createContexts(sqlTask1);
+
+        SqlTask sqlTask2 = newSqlTask(new QueryId("query2"));
+        OperatorContext operatorContext2 = createContexts(sqlTask2);
+
+        List<SqlTask> tasks = ImmutableList.of(sqlTask1, sqlTask2);
+        MemoryRevokingScheduler scheduler = new MemoryRevokingScheduler(singletonList(memoryPool), () -> tasks, executor, 1.0, 1.0);
+        allOperatorContexts = ImmutableSet.of(operatorContext1, operatorContext2);
+
+        operatorContext1.setRevocableMemoryReservation(2);
+        operatorContext2.setRevocableMemoryReservation(3);
+        requestMemoryRevoking(scheduler);
+        // the pool is not full, so nothing is revoked on its own
+        assertMemoryRevokingNotRequested();
+
+        scheduler.requestQueryMemoryRevoking(ImmutableSet.of());
+        assertMemoryRevokingNotRequested();
+
+        scheduler.requestQueryMemoryRevoking(ImmutableSet.of(new QueryId("query1")));
+        assertMemoryRevokingRequestedFor(operatorContext1);
+    }
+
     private OperatorContext createContexts(SqlTask sqlTask)
     {
         TaskContext taskContext = sqlTask.getQueryContext().addTaskContext(new TaskStateMachine(new TaskId("q", 1, 1), executor), session, false, false);
@@ -278,6 +305,11 @@ public class TestMemoryRevokingScheduler
     }
 
     private SqlTask newSqlTask()
+    {
+        return newSqlTask(new QueryId("query"));
+    }
+
+    private SqlTask newSqlTask(QueryId queryId)
     {
         TaskId taskId = new TaskId("query", 0, idGeneator.incrementAndGet());
         URI location = URI.create("fake://task/" + taskId);
@@ -285,7 +317,7 @@ public class TestMemoryRevokingScheduler
         return new SqlTask(
                 taskId,
                 location,
-                new QueryContext(new QueryId("query"), new DataSize(1, MEGABYTE), memoryPool, new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE)), executor, new DataSize(1, GIGABYTE), spillSpaceTracker),
+                new QueryContext(queryId, new DataSize(1, MEGABYTE), memoryPool, new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE)), executor, new DataSize(1, GIGABYTE), spillSpaceTracker),
                 sqlTaskExecutionFactory,
                 executor,
                 Functions.<SqlTask>identity(),
@@ -271,6 +271,37 @@ public class TestNodeScheduler
         assertEquals(assignments.size(), 1);
     }
 
+    @Test
+    public void testOptimizedLocalScheduling()
+            throws Exception
+    {
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setOptimizedLocalScheduling(true);
+        NodeSelector selector = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSchedulerConfig, nodeTaskMap).createNodeSelector(CONNECTOR_ID);
+
+        // remotely accessible splits prefer the node named in their addresses
+        HostAddress preferredAddress = HostAddress.fromString("127.0.0.1:12");
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            splits.add(new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestSplitRemote(preferredAddress)));
+        }
+        Multimap<Node, Split> assignments = selector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+        assertEquals(assignments.size(), 5);
+        assertEquals(Iterables.getOnlyElement(assignments.keySet()).getHostAndPort(), preferredAddress);
+
+        // once the preferred node is full, splits go to other nodes
+        splits.clear();
+        for (int i = 0; i < 25; i++) {
+            splits.add(new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestSplitRemote(preferredAddress)));
+        }
+        assignments = selector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+        assertEquals(assignments.size(), 25);
+        assertEquals(assignments.keySet().size(), 3);
+    }
+
     @Test
     public void testBasicAssignment()
             throws Exception
@@ -15,6 +15,7 @@ package com.facebook.presto.execution;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
@@ -30,6 +31,7 @@ public class TestQueryManagerConfig
                 .setMinQueryExpireAge(new Duration(15, TimeUnit.MINUTES))
                 .setMaxQueryHistory(100)
                 .setMaxQueryLength(1_000_000)
+                .setStatementCacheMaxSize(new DataSize(64, DataSize.Unit.MEGABYTE))
                 .setClientTimeout(new Duration(5, TimeUnit.MINUTES))
                 .setScheduleSplitBatchSize(1000)
                 .setMinScheduleSplitBatchSize(100)
@@ -44,6 +46,9 @@ public class TestQueryManagerConfig
                 .setQueryExecutionPolicy("all-at-once")
                 .setQueryMaxRunTime(new Duration(100, TimeUnit.DAYS))
                 .setQueryMaxCpuTime(new Duration(1_000_000_000, TimeUnit.DAYS))
+                .setSpeculativeExecutionEnabled(false)
+                .setSpeculationQuantile(0.75)
+                .setSpeculationMultiplier(1.5)
         );
     }
 
@@ -55,6 +60,7 @@ public class TestQueryManagerConfig
                 .put("query.min-expire-age", "30s")
                 .put("query.max-history", "10")
                 .put("query.max-length", "10000")
+                .put("query.statement-cache.max-size", "16MB")
                 .put("query.schedule-split-batch-size", "99")
                 .put("query.min-schedule-split-batch-size", "9")
                 .put("query.max-concurrent-queries", "10")
@@ -68,12 +74,16 @@ public class TestQueryManagerConfig
                 .put("query.execution-policy", "phased")
                 .put("query.max-run-time", "2h")
                 .put("query.max-cpu-time", "2d")
+                .put("query.speculative-execution-enabled", "true")
+                .put("query.speculation-quantile", "0.5")
+                .put("query.speculation-multiplier", "3.0")
                 .build();
 
         QueryManagerConfig expected = new QueryManagerConfig()
                 .setMinQueryExpireAge(new Duration(30, TimeUnit.SECONDS))
                 .setMaxQueryHistory(10)
                 .setMaxQueryLength(10000)
+                .setStatementCacheMaxSize(new DataSize(16, DataSize.Unit.MEGABYTE))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setScheduleSplitBatchSize(99)
                 .setMinScheduleSplitBatchSize(9)
@@ -87,7 +97,10 @@ public class TestQueryManagerConfig
                 .setRemoteTaskMaxCallbackThreads(10)
                 .setQueryExecutionPolicy("phased")
                 .setQueryMaxRunTime(new Duration(2, TimeUnit.HOURS))
-                .setQueryMaxCpuTime(new Duration(2, TimeUnit.DAYS));
+                .setQueryMaxCpuTime(new Duration(2, TimeUnit.DAYS))
+                .setSpeculativeExecutionEnabled(true)
+                .setSpeculationQuantile(0.5)
+                .setSpeculationMultiplier(3.0);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -40,6 +40,7 @@ public class TestQueryStats
 
             new Duration(100, NANOSECONDS),
             new Duration(200, NANOSECONDS),
+            new Duration(300, NANOSECONDS),
 
             9,
             10,
@@ -54,6 +55,7 @@ public class TestQueryStats
             17.0,
             new DataSize(18, BYTE),
             new DataSize(19, BYTE),
+            new DataSize(32, BYTE),
 
             true,
             new Duration(20, NANOSECONDS),
@@ -100,6 +102,7 @@ public class TestQueryStats
 
         assertEquals(actual.getTotalPlanningTime(), new Duration(100, NANOSECONDS));
         assertEquals(actual.getFinishingTime(), new Duration(200, NANOSECONDS));
+        assertEquals(actual.getSavedParsingTime(), new Duration(300, NANOSECONDS));
 
         assertEquals(actual.getTotalTasks(), 9);
         assertEquals(actual.getRunningTasks(), 10);
@@ -114,6 +117,7 @@ public class TestQueryStats
         assertEquals(actual.getCumulativeMemory(), 17.0);
         assertEquals(actual.getTotalMemoryReservation(), new DataSize(18, BYTE));
         assertEquals(actual.getPeakMemoryReservation(), new DataSize(19, BYTE));
+        assertEquals(actual.getEstimatedPeakMemoryReservation(), new DataSize(32, BYTE));
 
         assertEquals(actual.getTotalScheduledTime(), new Duration(20, NANOSECONDS));
         assertEquals(actual.getTotalCpuTime(), new Duration(21, NANOSECONDS));
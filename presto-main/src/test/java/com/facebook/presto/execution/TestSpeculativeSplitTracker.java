@@ -0,0 +1,269 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.execution.MockRemoteTaskFactory.MockRemoteTask;
+import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.testing.TestingTransactionHandle;
+import com.facebook.presto.util.FinalizerService;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.execution.TaskState.RUNNING;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSpeculativeSplitTracker
+{
+    private static final PlanNodeId SOURCE_ID = new PlanNodeId("sourceId");
+    private static final ConnectorId CONNECTOR_ID = new ConnectorId("test");
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+    private final FinalizerService finalizerService = new FinalizerService();
+
+    @BeforeClass
+    public void setUp()
+    {
+        finalizerService.start();
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        finalizerService.destroy();
+    }
+
+    @Test
+    public void testSpeculativeExecution()
+            throws Exception
+    {
+        StageId stageId = new StageId("query", 0);
+        SpeculativeSplitTracker tracker = new SpeculativeSplitTracker(stageId, 0.5, 1.5);
+        MockRemoteTask first = createTask(new TaskId(stageId, 0), "node1");
+        MockRemoteTask second = createTask(new TaskId(stageId, 1), "node2");
+
+        Multimap<PlanNodeId, Split> splits = tracker.assignSpeculationIds(ImmutableMultimap.<PlanNodeId, Split>builder()
+                .put(SOURCE_ID, createSplit(true))
+                .put(SOURCE_ID, createSplit(true))
+                .put(SOURCE_ID, createSplit(true))
+                .put(SOURCE_ID, createSplit(true))
+                .put(SOURCE_ID, createSplit(false))
+                .build());
+        assertEquals(splits.values().stream().filter(split -> split.getSpeculationId().isPresent()).count(), 4);
+        first.addSplits(splits);
+        tracker.splitsScheduled(first, splits);
+        // the second task has no splits yet, but can receive copies
+        tracker.splitsScheduled(second, ImmutableMultimap.of());
+        assertFalse(tracker.noMoreSplits());
+
+        // three splits finish quickly, while the last one is a straggler
+        assertFalse(tracker.updateTaskStatus(createTaskStatus(first.getTaskId(),
+                finished(0, 2),
+                finished(1, 2),
+                finished(2, 3),
+                running(3, 10, OptionalDouble.of(0.2)))));
+        assertEquals(first.getCommittedSplits(), ImmutableSet.of(0L, 1L, 2L));
+        assertEquals(second.getPartitionedSplitCount(), 1);
+
+        // the straggler is only copied once
+        assertFalse(tracker.updateTaskStatus(createTaskStatus(first.getTaskId(), running(3, 20, OptionalDouble.of(0.3)))));
+        assertEquals(second.getPartitionedSplitCount(), 1);
+
+        // the copy finishes first, so the original is aborted
+        assertTrue(tracker.updateTaskStatus(createTaskStatus(second.getTaskId(), finished(3, 3))));
+        assertEquals(second.getCommittedSplits(), ImmutableSet.of(3L));
+        assertEquals(first.getAbortedSplits(), ImmutableSet.of(3L));
+
+        // a late report of the aborted copy is ignored
+        assertTrue(tracker.updateTaskStatus(createTaskStatus(first.getTaskId(), finished(3, 25))));
+        assertEquals(first.getCommittedSplits(), ImmutableSet.of(0L, 1L, 2L));
+    }
+
+    @Test
+    public void testStagingFull()
+            throws Exception
+    {
+        StageId stageId = new StageId("query", 0);
+        SpeculativeSplitTracker tracker = new SpeculativeSplitTracker(stageId, 0.5, 1.5);
+        MockRemoteTask first = createTask(new TaskId(stageId, 0), "node1");
+        MockRemoteTask second = createTask(new TaskId(stageId, 1), "node2");
+
+        Multimap<PlanNodeId, Split> splits = tracker.assignSpeculationIds(ImmutableMultimap.of(
+                SOURCE_ID, createSplit(true),
+                SOURCE_ID, createSplit(true),
+                SOURCE_ID, createSplit(true)));
+        first.addSplits(splits);
+        tracker.splitsScheduled(first, splits);
+        tracker.splitsScheduled(second, ImmutableMultimap.of());
+        assertFalse(tracker.noMoreSplits());
+
+        tracker.updateTaskStatus(createTaskStatus(first.getTaskId(),
+                finished(0, 2),
+                finished(1, 2),
+                running(2, 10, OptionalDouble.of(0.1))));
+        assertEquals(second.getPartitionedSplitCount(), 0);
+        assertFalse(tracker.noMoreSplits());
+        tracker.updateTaskStatus(createTaskStatus(first.getTaskId(), running(2, 10, OptionalDouble.of(0.1))));
+        assertEquals(second.getPartitionedSplitCount(), 1);
+
+        // the copy reaches the staging limit first, so it is committed and continues without speculation
+        assertTrue(tracker.updateTaskStatus(createTaskStatus(second.getTaskId(), stagingFull(2, 1))));
+        assertEquals(second.getCommittedSplits(), ImmutableSet.of(2L));
+        assertEquals(first.getAbortedSplits(), ImmutableSet.of(2L));
+
+        // the original reaching the staging limit later is ignored
+        assertTrue(tracker.updateTaskStatus(createTaskStatus(first.getTaskId(), stagingFull(2, 12))));
+        assertEquals(first.getCommittedSplits(), ImmutableSet.of(0L, 1L));
+    }
+
+    @Test
+    public void testNoSpeculationBeforeQuantile()
+            throws Exception
+    {
+        StageId stageId = new StageId("query", 0);
+        SpeculativeSplitTracker tracker = new SpeculativeSplitTracker(stageId, 0.75, 1.5);
+        MockRemoteTask first = createTask(new TaskId(stageId, 0), "node1");
+        MockRemoteTask second = createTask(new TaskId(stageId, 1), "node2");
+
+        Multimap<PlanNodeId, Split> splits = tracker.assignSpeculationIds(ImmutableMultimap.of(
+                SOURCE_ID, createSplit(true),
+                SOURCE_ID, createSplit(true),
+                SOURCE_ID, createSplit(true),
+                SOURCE_ID, createSplit(true)));
+        first.addSplits(splits);
+        tracker.splitsScheduled(first, splits);
+        tracker.splitsScheduled(second, ImmutableMultimap.of());
+        tracker.noMoreSplits();
+
+        // only half of the splits finished
+        tracker.updateTaskStatus(createTaskStatus(first.getTaskId(),
+                finished(0, 2),
+                finished(1, 2),
+                running(2, 60, OptionalDouble.empty()),
+                running(3, 60, OptionalDouble.empty())));
+        assertEquals(second.getPartitionedSplitCount(), 0);
+
+        // a split that is almost done is not copied
+        tracker.updateTaskStatus(createTaskStatus(first.getTaskId(),
+                finished(2, 2),
+                running(3, 60, OptionalDouble.of(0.99))));
+        assertEquals(second.getPartitionedSplitCount(), 0);
+
+        // but a slow split without progress information is
+        tracker.updateTaskStatus(createTaskStatus(first.getTaskId(), running(3, 60, OptionalDouble.empty())));
+        assertEquals(second.getPartitionedSplitCount(), 1);
+    }
+
+    private MockRemoteTask createTask(TaskId taskId, String nodeId)
+    {
+        Node node = new PrestoNode(nodeId, URI.create("http://" + nodeId), NodeVersion.UNKNOWN, false);
+        NodeTaskMap nodeTaskMap = new NodeTaskMap(finalizerService);
+        return new MockRemoteTaskFactory(executor).createTableScanTask(taskId, node, ImmutableList.of(), nodeTaskMap.createPartitionedSplitCountTracker(node, taskId));
+    }
+
+    private static Split createSplit(boolean idempotent)
+    {
+        return new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestingSpeculativeSplit(idempotent));
+    }
+
+    private static SpeculativeSplitStatus finished(long speculationId, int elapsedSeconds)
+    {
+        return new SpeculativeSplitStatus(speculationId, new Duration(elapsedSeconds, SECONDS), OptionalDouble.of(1.0), true, false);
+    }
+
+    private static SpeculativeSplitStatus stagingFull(long speculationId, int elapsedSeconds)
+    {
+        return new SpeculativeSplitStatus(speculationId, new Duration(elapsedSeconds, SECONDS), OptionalDouble.of(0.5), false, true);
+    }
+
+    private static SpeculativeSplitStatus running(long speculationId, int elapsedSeconds, OptionalDouble progress)
+    {
+        return new SpeculativeSplitStatus(speculationId, new Duration(elapsedSeconds, SECONDS), progress, false, false);
+    }
+
+    private static TaskStatus createTaskStatus(TaskId taskId, SpeculativeSplitStatus... speculativeSplits)
+    {
+        return new TaskStatus(
+                taskId,
+                "task-instance-id",
+                TaskStatus.STARTING_VERSION,
+                RUNNING,
+                URI.create("fake://task/" + taskId),
+                ImmutableList.of(),
+                0,
+                0,
+                new DataSize(0, BYTE),
+                ImmutableList.copyOf(speculativeSplits));
+    }
+
+    private static class TestingSpeculativeSplit
+            implements ConnectorSplit
+    {
+        private final boolean idempotent;
+
+        public TestingSpeculativeSplit(boolean idempotent)
+        {
+            this.idempotent = idempotent;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+
+        @Override
+        public boolean isIdempotent()
+        {
+            return idempotent;
+        }
+    }
+}
@@ -43,6 +43,55 @@ public class TestSplitConcurrencyController
         }
     }
 
+    @Test
+    public void testIoBoundRampup()
+    {
+        SplitConcurrencyController controller = new SplitConcurrencyController(2, 10, new Duration(1, SECONDS));
+        // splits spending most of their time waiting for I/O ramp up faster, up to the max concurrency
+        int[] expected = {3, 4, 6, 9, 10, 10};
+        for (int target : expected) {
+            controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(200), false, 0, controller.getTargetConcurrency());
+            assertEquals(controller.getTargetConcurrency(), target);
+        }
+    }
+
+    @Test
+    public void testCpuBoundFallsBackToInitialConcurrency()
+    {
+        SplitConcurrencyController controller = new SplitConcurrencyController(2, 10, new Duration(1, SECONDS));
+        controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(200), false, 0, 2);
+        controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(200), false, 0, 3);
+        assertEquals(controller.getTargetConcurrency(), 4);
+
+        for (int i = 0; i < 5; i++) {
+            controller.update(SECONDS.toNanos(2), SECONDS.toNanos(2), false, 0, controller.getTargetConcurrency());
+        }
+        assertEquals(controller.getTargetConcurrency(), 2);
+
+        // moderately CPU bound splits still ramp up slowly
+        controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(1400), false, 0, 2);
+        assertEquals(controller.getTargetConcurrency(), 3);
+    }
+
+    @Test
+    public void testRampdownOnBlockedOrFullBuffer()
+    {
+        SplitConcurrencyController controller = new SplitConcurrencyController(4, 10, new Duration(1, SECONDS));
+        controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(200), true, 0, 4);
+        assertEquals(controller.getTargetConcurrency(), 3);
+
+        controller.update(SECONDS.toNanos(2), MILLISECONDS.toNanos(200), false, 1, 3);
+        assertEquals(controller.getTargetConcurrency(), 2);
+
+        // nothing changes before the adjustment interval elapsed
+        controller.update(MILLISECONDS.toNanos(500), 0, true, 1, 2);
+        assertEquals(controller.getTargetConcurrency(), 2);
+        controller.update(MILLISECONDS.toNanos(500), 0, false, 0, 2);
+        assertEquals(controller.getTargetConcurrency(), 1);
+        controller.update(SECONDS.toNanos(2), 0, true, 1, 1);
+        assertEquals(controller.getTargetConcurrency(), 1);
+    }
+
     @Test
     public void testRapidAdjustForQuickSplits()
     {
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.execution.StatementCache.ParsedStatement;
+import com.facebook.presto.sql.parser.ParsingException;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.google.common.base.Strings;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestStatementCache
+{
+    private static final String SQL = "SELECT * FROM orders WHERE orderkey = ? AND totalprice > 1.5";
+
+    @Test
+    public void testCacheHit()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(1, MEGABYTE));
+
+        ParsedStatement first = cache.createStatement(SQL, new ParsingOptions());
+        assertEquals(first.getSavedParsingTime(), new Duration(0, MILLISECONDS));
+
+        ParsedStatement second = cache.createStatement(SQL, new ParsingOptions());
+        assertSame(second.getStatement(), first.getStatement());
+        assertTrue(second.getSavedParsingTime().toMillis() >= 0);
+        assertEquals(cache.getSize(), 1);
+        assertEquals(cache.getCacheStats().getRequestCount(), 2);
+    }
+
+    @Test
+    public void testParsingOptionsArePartOfKey()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(1, MEGABYTE));
+
+        ParsedStatement decimal = cache.createStatement(SQL, new ParsingOptions());
+        ParsedStatement asDouble = cache.createStatement(SQL, new ParsingOptions().setParseDecimalLiteralsAsDouble(true));
+        assertNotSame(asDouble.getStatement(), decimal.getStatement());
+        assertEquals(cache.getSize(), 2);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(0, BYTE));
+
+        ParsedStatement first = cache.createStatement(SQL, new ParsingOptions());
+        ParsedStatement second = cache.createStatement(SQL, new ParsingOptions());
+        assertNotSame(second.getStatement(), first.getStatement());
+        assertEquals(second.getStatement(), first.getStatement());
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testEviction()
+    {
+        long entrySize = StatementCache.estimateSizeInBytes("SELECT 0");
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(2 * entrySize, BYTE));
+        for (int i = 0; i < 10; i++) {
+            cache.createStatement("SELECT " + i, new ParsingOptions());
+        }
+        assertTrue(cache.getSize() <= 2);
+    }
+
+    @Test
+    public void testLargeStatementNotRetained()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(1, MEGABYTE));
+        String sql = "SELECT '" + Strings.repeat("x", 200_000) + "'";
+        assertTrue(StatementCache.estimateSizeInBytes(sql) > new DataSize(1, MEGABYTE).toBytes());
+
+        cache.createStatement(sql, new ParsingOptions());
+        assertEquals(cache.getSize(), 0);
+        cache.createStatement(SQL, new ParsingOptions());
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test(expectedExceptions = ParsingException.class)
+    public void testParsingErrorNotCached()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(1, MEGABYTE));
+        try {
+            cache.createStatement("SELECT FROM", new ParsingOptions());
+        }
+        finally {
+            assertEquals(cache.getSize(), 0);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.OutputBuffers.OutputBufferId;
+import com.facebook.presto.block.BlockAssertions;
+import com.facebook.presto.execution.StateMachine;
+import com.facebook.presto.spi.Page;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.OutputBuffers.BufferType.PARTITIONED;
+import static com.facebook.presto.OutputBuffers.createInitialEmptyOutputBuffers;
+import static com.facebook.presto.execution.buffer.BufferState.OPEN;
+import static com.facebook.presto.execution.buffer.BufferState.TERMINAL_BUFFER_STATES;
+import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSpeculativeOutputBuffer
+{
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+
+    private static final OutputBufferId FIRST = new OutputBufferId(0);
+    private static final OutputBufferId SECOND = new OutputBufferId(1);
+
+    private ScheduledExecutorService stateNotificationExecutor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        stateNotificationExecutor = newScheduledThreadPool(5, daemonThreadsNamed("test-%s"));
+    }
+
+    @AfterClass
+    public void tearDown()
+            throws Exception
+    {
+        if (stateNotificationExecutor != null) {
+            stateNotificationExecutor.shutdownNow();
+            stateNotificationExecutor = null;
+        }
+    }
+
+    @Test
+    public void testCommit()
+            throws Exception
+    {
+        PartitionedOutputBuffer outputBuffer = createPartitionedBuffer();
+        AtomicInteger awaitingDecision = new AtomicInteger();
+        SpeculativeOutputBuffer buffer = new SpeculativeOutputBuffer(7, outputBuffer, new DataSize(1, MEGABYTE), awaitingDecision::incrementAndGet);
+
+        assertTrue(buffer.enqueue(0, createPages(2)).isDone());
+        assertTrue(buffer.enqueue(1, createPages(1)).isDone());
+        assertTrue(buffer.getStagedBytes() > 0);
+
+        // pages are held back until the split is committed
+        assertBufferedPages(outputBuffer, FIRST, 0);
+        assertBufferedPages(outputBuffer, SECOND, 0);
+
+        ListenableFuture<?> decided = buffer.splitFinished();
+        assertFalse(decided.isDone());
+        assertTrue(buffer.isAwaitingDecision());
+        assertFalse(buffer.isStagingFull());
+        assertEquals(awaitingDecision.get(), 1);
+
+        buffer.commit();
+        assertTrue(decided.isDone());
+        assertFalse(buffer.isAwaitingDecision());
+        assertEquals(buffer.getStagedBytes(), 0);
+        assertBufferedPages(outputBuffer, FIRST, 2);
+        assertBufferedPages(outputBuffer, SECOND, 1);
+
+        // a later abort does not discard committed pages
+        buffer.abortSplit();
+        assertFalse(buffer.isAborted());
+        assertBufferedPages(outputBuffer, FIRST, 2);
+    }
+
+    @Test
+    public void testAbort()
+            throws Exception
+    {
+        PartitionedOutputBuffer outputBuffer = createPartitionedBuffer();
+        AtomicInteger awaitingDecision = new AtomicInteger();
+        SpeculativeOutputBuffer buffer = new SpeculativeOutputBuffer(7, outputBuffer, new DataSize(1, MEGABYTE), awaitingDecision::incrementAndGet);
+
+        assertTrue(buffer.enqueue(0, createPages(2)).isDone());
+        buffer.abortSplit();
+        assertTrue(buffer.isAborted());
+        assertEquals(buffer.getStagedBytes(), 0);
+
+        // pages produced after the abort are discarded
+        assertTrue(buffer.enqueue(1, createPages(1)).isDone());
+        assertEquals(buffer.getStagedBytes(), 0);
+        assertTrue(buffer.splitFinished().isDone());
+        assertEquals(awaitingDecision.get(), 0);
+
+        buffer.commit();
+        assertBufferedPages(outputBuffer, FIRST, 0);
+        assertBufferedPages(outputBuffer, SECOND, 0);
+    }
+
+    @Test
+    public void testStagingFull()
+            throws Exception
+    {
+        PartitionedOutputBuffer outputBuffer = createPartitionedBuffer();
+        AtomicInteger awaitingDecision = new AtomicInteger();
+        SpeculativeOutputBuffer buffer = new SpeculativeOutputBuffer(7, outputBuffer, new DataSize(1, BYTE), awaitingDecision::incrementAndGet);
+
+        // the split blocks once it holds back more than the limit
+        ListenableFuture<?> decided = buffer.enqueue(0, createPages(2));
+        assertFalse(decided.isDone());
+        assertTrue(buffer.isAwaitingDecision());
+        assertTrue(buffer.isStagingFull());
+        assertEquals(awaitingDecision.get(), 1);
+        assertBufferedPages(outputBuffer, FIRST, 0);
+
+        buffer.commit();
+        assertTrue(decided.isDone());
+        assertFalse(buffer.isAwaitingDecision());
+        assertEquals(buffer.getStagedBytes(), 0);
+        assertBufferedPages(outputBuffer, FIRST, 2);
+
+        // the committed split continues without speculation
+        assertTrue(buffer.enqueue(1, createPages(1)).isDone());
+        assertEquals(buffer.getStagedBytes(), 0);
+        assertBufferedPages(outputBuffer, SECOND, 1);
+        assertTrue(buffer.splitFinished().isDone());
+        assertEquals(awaitingDecision.get(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCommitRunningSplit()
+            throws Exception
+    {
+        SpeculativeOutputBuffer buffer = new SpeculativeOutputBuffer(7, createPartitionedBuffer(), new DataSize(1, MEGABYTE), () -> { });
+        buffer.enqueue(0, createPages(1));
+        buffer.commit();
+    }
+
+    private PartitionedOutputBuffer createPartitionedBuffer()
+    {
+        return new PartitionedOutputBuffer(
+                "task-instance-id",
+                new StateMachine<>("bufferState", stateNotificationExecutor, OPEN, TERMINAL_BUFFER_STATES),
+                createInitialEmptyOutputBuffers(PARTITIONED)
+                        .withBuffer(FIRST, 0)
+                        .withBuffer(SECOND, 1)
+                        .withNoMoreBufferIds(),
+                new DataSize(1, MEGABYTE),
+                ignored -> { },
+                stateNotificationExecutor);
+    }
+
+    private static List<SerializedPage> createPages(int count)
+    {
+        ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            pages.add(PAGES_SERDE.serialize(new Page(BlockAssertions.createLongsBlock(i))));
+        }
+        return pages.build();
+    }
+
+    private static void assertBufferedPages(PartitionedOutputBuffer buffer, OutputBufferId bufferId, int bufferedPages)
+    {
+        for (BufferInfo bufferInfo : buffer.getInfo().getBuffers()) {
+            if (bufferInfo.getBufferId().equals(bufferId)) {
+                assertEquals(bufferInfo.getBufferedPages(), bufferedPages);
+                return;
+            }
+        }
+        throw new AssertionError("No buffer " + bufferId);
+    }
+}
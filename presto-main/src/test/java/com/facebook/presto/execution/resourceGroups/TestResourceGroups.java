@@ -31,11 +31,13 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import static com.facebook.presto.cost.PlanNodeCostEstimate.cpuCost;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.QUEUED;
 import static com.facebook.presto.execution.QueryState.RUNNING;
 import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.QUERY_PRIORITY;
 import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.WEIGHTED;
+import static com.facebook.presto.spi.resourceGroups.SchedulingPolicy.WEIGHTED_FAIR;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertLessThan;
@@ -218,6 +220,52 @@ public class TestResourceGroups
         assertEquals(query3.getState(), RUNNING);
     }
 
+    @Test(timeOut = 10_000)
+    public void testQueriesWaitingForMemoryAdmission()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> { }, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setMaxQueuedQueries(2);
+        root.setMaxRunningQueries(1);
+        InternalResourceGroup subgroup = root.getOrCreateSubGroup("subgroup");
+        subgroup.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        subgroup.setMaxQueuedQueries(2);
+        subgroup.setMaxRunningQueries(1);
+
+        MockQueryExecution query1 = new MockQueryExecution(0);
+        subgroup.run(query1);
+        assertEquals(query1.getState(), RUNNING);
+        MockQueryExecution query2 = new MockQueryExecution(0);
+        subgroup.run(query2);
+        assertEquals(query2.getState(), QUEUED);
+
+        // a query held for memory admission gives up its running slot
+        query1.setWaitingForMemoryAdmission(true);
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+        assertEquals(root.getRunningQueries(), 1);
+        assertEquals(root.getQueriesWaitingForMemoryAdmission(), 1);
+
+        // but it still counts against the queued limit
+        MockQueryExecution query3 = new MockQueryExecution(0);
+        subgroup.run(query3);
+        assertEquals(query3.getState(), QUEUED);
+        MockQueryExecution query4 = new MockQueryExecution(0);
+        subgroup.run(query4);
+        assertEquals(query4.getState(), FAILED);
+
+        // once admitted it runs again, so nothing else starts until the group is below its limit
+        query1.setWaitingForMemoryAdmission(false);
+        assertEquals(root.getRunningQueries(), 2);
+        assertEquals(root.getQueriesWaitingForMemoryAdmission(), 0);
+        query2.complete();
+        root.processQueuedQueries();
+        assertEquals(query3.getState(), QUEUED);
+        query1.complete();
+        root.processQueuedQueries();
+        assertEquals(query3.getState(), RUNNING);
+    }
+
     @Test(timeOut = 10_000)
     public void testSoftCpuLimit()
     {
@@ -380,6 +428,120 @@ public class TestResourceGroups
         assertGreaterThan(group2Ran, lowerBound);
     }
 
+    @Test(timeOut = 10_000)
+    public void testWeightedFairScheduling()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> { }, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setMaxQueuedQueries(4);
+        root.setMaxRunningQueries(1);
+        root.setSchedulingPolicy(WEIGHTED_FAIR);
+        InternalResourceGroup group1 = root.getOrCreateSubGroup("1");
+        group1.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group1.setMaxQueuedQueries(2);
+        group1.setMaxRunningQueries(2);
+        InternalResourceGroup group2 = root.getOrCreateSubGroup("2");
+        group2.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group2.setMaxQueuedQueries(2);
+        group2.setMaxRunningQueries(2);
+
+        MockQueryExecution heavy = new MockQueryExecution(0, "heavy", 1, new Duration(100, SECONDS));
+        group1.run(heavy);
+        assertEquals(heavy.getState(), RUNNING);
+        root.processQueuedQueries();
+
+        MockQueryExecution query1 = new MockQueryExecution(0, "query1", 1);
+        group1.run(query1);
+        MockQueryExecution query2 = new MockQueryExecution(0, "query2", 1);
+        group2.run(query2);
+        assertEquals(query1.getState(), QUEUED);
+        assertEquals(query2.getState(), QUEUED);
+
+        // group1 has used all the CPU time, so group2 goes first even though its query was queued later
+        root.setMaxRunningQueries(2);
+        root.processQueuedQueries();
+        assertEquals(query1.getState(), QUEUED);
+        assertEquals(query2.getState(), RUNNING);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testWeightedFairSchedulingWeights()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> { }, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setMaxQueuedQueries(4);
+        root.setMaxRunningQueries(2);
+        root.setSchedulingPolicy(WEIGHTED_FAIR);
+        InternalResourceGroup group1 = root.getOrCreateSubGroup("1");
+        group1.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group1.setMaxQueuedQueries(2);
+        group1.setMaxRunningQueries(2);
+        group1.setSchedulingWeight(10);
+        InternalResourceGroup group2 = root.getOrCreateSubGroup("2");
+        group2.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group2.setMaxQueuedQueries(2);
+        group2.setMaxRunningQueries(2);
+
+        group1.run(new MockQueryExecution(0, "heavy1", 1, new Duration(100, SECONDS)));
+        group2.run(new MockQueryExecution(0, "heavy2", 1, new Duration(20, SECONDS)));
+        root.processQueuedQueries();
+
+        MockQueryExecution query2 = new MockQueryExecution(0, "query2", 1);
+        group2.run(query2);
+        MockQueryExecution query1 = new MockQueryExecution(0, "query1", 1);
+        group1.run(query1);
+
+        // group1 used five times the CPU time of group2, but it has ten times the weight
+        root.setMaxRunningQueries(3);
+        root.processQueuedQueries();
+        assertEquals(query1.getState(), RUNNING);
+        assertEquals(query2.getState(), QUEUED);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testWeightedFairSchedulingPredictedCost()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> { }, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setMaxQueuedQueries(4);
+        root.setMaxRunningQueries(2);
+        root.setSchedulingPolicy(WEIGHTED_FAIR);
+        InternalResourceGroup group1 = root.getOrCreateSubGroup("1");
+        group1.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group1.setMaxQueuedQueries(2);
+        group1.setMaxRunningQueries(2);
+        InternalResourceGroup group2 = root.getOrCreateSubGroup("2");
+        group2.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group2.setMaxQueuedQueries(2);
+        group2.setMaxRunningQueries(2);
+
+        // both groups finish a query using 10 seconds of CPU time, which calibrates the plan costs to 10ms per unit
+        MockQueryExecution finished1 = new MockQueryExecution(0, "finished1", 1, new Duration(10, SECONDS));
+        finished1.setEstimatedCost(cpuCost(1000));
+        group1.run(finished1);
+        MockQueryExecution finished2 = new MockQueryExecution(0, "finished2", 1, new Duration(10, SECONDS));
+        group2.run(finished2);
+        finished1.complete();
+        finished2.complete();
+
+        // group1 starts a query that is expected to use another 10 seconds, while the query of group2 already used 1 second
+        MockQueryExecution expensive = new MockQueryExecution(0, "expensive", 1);
+        expensive.setEstimatedCost(cpuCost(1000));
+        group1.run(expensive);
+        group2.run(new MockQueryExecution(0, "cheap", 1, new Duration(1, SECONDS)));
+        root.processQueuedQueries();
+
+        MockQueryExecution query1 = new MockQueryExecution(0, "query1", 1);
+        group1.run(query1);
+        MockQueryExecution query2 = new MockQueryExecution(0, "query2", 1);
+        group2.run(query2);
+
+        root.setMaxRunningQueries(3);
+        root.processQueuedQueries();
+        assertEquals(query1.getState(), QUEUED);
+        assertEquals(query2.getState(), RUNNING);
+    }
+
     @Test
     public void testGetInfo()
     {
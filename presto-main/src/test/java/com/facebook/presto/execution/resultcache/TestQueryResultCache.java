@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.resultcache;
+
+import com.facebook.presto.execution.resultcache.QueryResultCache.CachedResult;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestQueryResultCache
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+
+    private final MetadataManager metadata = createTestMetadataManager();
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("result-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new Duration(1, DAYS));
+        List<Page> pages = ImmutableList.of(createSequencePage(TYPES, 100, 0, 0), createSequencePage(TYPES, 10, 100, 100));
+
+        assertFalse(isCached(cache, "key"));
+        cache.put("key", TYPES, pages);
+        assertTrue(isCached(cache, "key"));
+        assertFalse(isCached(cache, "other"));
+        assertEquals(cache.getStats().getHitCount(), 1);
+        assertEquals(cache.getStats().getMissCount(), 2);
+        assertEquals(cache.getStoredResults(), 1);
+        assertTrue(cache.getSizeInBytes() > 0);
+
+        try (CachedResult result = cache.get("key").get()) {
+            assertEquals(result.getTypes(), TYPES);
+            List<Page> actual = ImmutableList.copyOf(result.getPages());
+            assertEquals(actual.size(), pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                assertPageEquals(TYPES, actual.get(i), pages.get(i));
+            }
+        }
+
+        // a new cache serves the results stored before a restart
+        QueryResultCache restarted = createCache(new DataSize(1, MEGABYTE), new Duration(1, DAYS));
+        assertTrue(isCached(restarted, "key"));
+        assertEquals(restarted.getSizeInBytes(), cache.getSizeInBytes());
+    }
+
+    @Test
+    public void testReplaceEntry()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new Duration(1, DAYS));
+        cache.put("key", TYPES, ImmutableList.of(createSequencePage(TYPES, 100, 0, 0)));
+        long size = cache.getSizeInBytes();
+
+        // the replaced entry is no longer accounted for
+        cache.put("key", TYPES, ImmutableList.of(createSequencePage(TYPES, 100, 0, 0)));
+        assertEquals(cache.getSizeInBytes(), size);
+        cache.put("key", TYPES, ImmutableList.of(createSequencePage(TYPES, 10, 0, 0)));
+        assertTrue(cache.getSizeInBytes() < size);
+    }
+
+    @Test
+    public void testExpiration()
+            throws InterruptedException
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new Duration(1, MILLISECONDS));
+        cache.put("key", TYPES, ImmutableList.of(createSequencePage(TYPES, 10, 0, 0)));
+        assertTrue(cache.getSizeInBytes() > 0);
+        MILLISECONDS.sleep(10);
+        assertFalse(isCached(cache, "key"));
+        assertFalse(cache.get("key").isPresent());
+        assertEquals(cache.getSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testPinnedResultOutlivesEntry()
+            throws Exception
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new Duration(1, DAYS));
+        List<Page> pages = ImmutableList.of(createSequencePage(TYPES, 100, 0, 0));
+        cache.put("key", TYPES, pages);
+
+        QueryId queryId = new QueryId("query");
+        assertFalse(cache.pin(queryId, "other"));
+        assertFalse(cache.takePinnedResult(queryId).isPresent());
+        assertTrue(cache.pin(queryId, "key"));
+
+        // the entry is evicted after the hit was decided
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(toImmutableList())) {
+                Files.delete(file);
+            }
+        }
+        assertFalse(isCached(cache, "key"));
+
+        try (CachedResult result = cache.takePinnedResult(queryId).get()) {
+            List<Page> actual = ImmutableList.copyOf(result.getPages());
+            assertEquals(actual.size(), 1);
+            assertPageEquals(TYPES, actual.get(0), pages.get(0));
+        }
+        assertFalse(cache.takePinnedResult(queryId).isPresent());
+    }
+
+    @Test
+    public void testReleasePinnedResult()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new Duration(1, DAYS));
+        cache.put("key", TYPES, ImmutableList.of(createSequencePage(TYPES, 10, 0, 0)));
+
+        QueryId queryId = new QueryId("query");
+        assertTrue(cache.pin(queryId, "key"));
+        cache.releasePinnedResult(queryId);
+        assertFalse(cache.takePinnedResult(queryId).isPresent());
+    }
+
+    @Test
+    public void testEntryTooLarge()
+    {
+        QueryResultCache cache = createCache(new DataSize(1, MEGABYTE), new Duration(1, DAYS));
+        List<Page> pages = IntStream.range(0, 20)
+                .mapToObj(i -> createSequencePage(TYPES, 10_000, 0, 0))
+                .collect(toImmutableList());
+        cache.put("key", TYPES, pages);
+        assertFalse(isCached(cache, "key"));
+        assertEquals(cache.getSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testEviction()
+    {
+        DataSize maxSize = new DataSize(256, KILOBYTE);
+        QueryResultCache cache = createCache(maxSize, new Duration(1, DAYS));
+        for (int i = 0; i < 10; i++) {
+            cache.put("key" + i, TYPES, ImmutableList.of(createSequencePage(TYPES, 2_000, 0, 0)));
+        }
+        assertTrue(cache.getSizeInBytes() <= maxSize.toBytes());
+        long cached = IntStream.range(0, 10)
+                .filter(i -> isCached(cache, "key" + i))
+                .count();
+        assertTrue(cached > 0 && cached < 10);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        QueryResultCache cache = new QueryResultCache(Optional.empty(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new Duration(1, DAYS), "test", metadata, metadata.getBlockEncodingSerde());
+        cache.put("key", TYPES, ImmutableList.of(createSequencePage(TYPES, 10, 0, 0)));
+        assertFalse(isCached(cache, "key"));
+        assertFalse(cache.get("key").isPresent());
+    }
+
+    private static boolean isCached(QueryResultCache cache, String key)
+    {
+        Optional<CachedResult> result = cache.get(key);
+        result.ifPresent(CachedResult::close);
+        return result.isPresent();
+    }
+
+    private QueryResultCache createCache(DataSize maxSize, Duration ttl)
+    {
+        return new QueryResultCache(Optional.of(directory), maxSize, new DataSize(1, MEGABYTE), ttl, "test", metadata, metadata.getBlockEncodingSerde());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolId;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.memory.ClusterMemoryManager.getKillCandidates;
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
+import static com.facebook.presto.memory.LocalMemoryManager.RESERVED_POOL;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestLowMemoryKillers
+{
+    @Test
+    public void testTotalReservationKiller()
+    {
+        LowMemoryKiller killer = new TotalReservationLowMemoryKiller();
+        assertEquals(killer.chooseQueryToKill(ImmutableList.of()), Optional.empty());
+
+        List<QueryMemoryInfo> queries = ImmutableList.of(
+                query("small", GENERAL_POOL, 100, 1),
+                query("large", GENERAL_POOL, 1000, 100),
+                query("reserved", RESERVED_POOL, 5000, 1));
+        assertEquals(killer.chooseQueryToKill(queries), Optional.of(new QueryId("large")));
+    }
+
+    @Test
+    public void testLeastWorkLostKiller()
+    {
+        LowMemoryKiller killer = new LeastWorkLostLowMemoryKiller();
+        assertEquals(killer.chooseQueryToKill(ImmutableList.of()), Optional.empty());
+
+        // "young" has spent the least CPU time per byte it would free
+        List<QueryMemoryInfo> queries = ImmutableList.of(
+                query("small", GENERAL_POOL, 100, 1),
+                query("large", GENERAL_POOL, 1000, 100),
+                query("young", GENERAL_POOL, 500, 1),
+                query("reserved", RESERVED_POOL, 5000, 0),
+                query("empty", GENERAL_POOL, 0, 0));
+        assertEquals(killer.chooseQueryToKill(queries), Optional.of(new QueryId("young")));
+
+        // ties go to the largest reservation
+        queries = ImmutableList.of(
+                query("small", GENERAL_POOL, 100, 1),
+                query("large", GENERAL_POOL, 1000, 10));
+        assertEquals(killer.chooseQueryToKill(queries), Optional.of(new QueryId("large")));
+    }
+
+    @Test
+    public void testKillLowestPriorityFirst()
+    {
+        assertEquals(getKillCandidates(ImmutableList.of()), ImmutableList.of());
+
+        QueryMemoryInfo low = query("low", GENERAL_POOL, 1000, 100, 1);
+        QueryMemoryInfo lowYoung = query("lowYoung", GENERAL_POOL, 100, 1, 1);
+        List<QueryMemoryInfo> queries = ImmutableList.of(
+                query("high", GENERAL_POOL, 500, 1, 5),
+                low,
+                lowYoung,
+                query("lowEmpty", GENERAL_POOL, 0, 0, 0),
+                query("reserved", RESERVED_POOL, 5000, 0, 0));
+        List<QueryMemoryInfo> candidates = getKillCandidates(queries);
+        assertEquals(candidates, ImmutableList.of(low, lowYoung));
+
+        // "high" would lose the least work, but a lower priority query is killed first
+        assertEquals(new LeastWorkLostLowMemoryKiller().chooseQueryToKill(candidates), Optional.of(new QueryId("lowYoung")));
+        assertEquals(new TotalReservationLowMemoryKiller().chooseQueryToKill(candidates), Optional.of(new QueryId("low")));
+    }
+
+    private static QueryMemoryInfo query(String queryId, MemoryPoolId poolId, long memoryReservation, long cpuSeconds)
+    {
+        return query(queryId, poolId, memoryReservation, cpuSeconds, 0);
+    }
+
+    private static QueryMemoryInfo query(String queryId, MemoryPoolId poolId, long memoryReservation, long cpuSeconds, int priority)
+    {
+        return new QueryMemoryInfo(new QueryId(queryId), poolId, memoryReservation, 0, new Duration(cpuSeconds, SECONDS), priority);
+    }
+}
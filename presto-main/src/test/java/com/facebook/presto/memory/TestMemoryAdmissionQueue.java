@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestMemoryAdmissionQueue
+{
+    private static final QueryId QUERY_1 = new QueryId("query_1");
+    private static final QueryId QUERY_2 = new QueryId("query_2");
+    private static final QueryId QUERY_3 = new QueryId("query_3");
+    private static final QueryId QUERY_4 = new QueryId("query_4");
+    private static final QueryId QUERY_5 = new QueryId("query_5");
+
+    @Test
+    public void testAdmitBeforeFirstUpdate()
+    {
+        MemoryAdmissionQueue queue = new MemoryAdmissionQueue(0);
+        assertTrue(queue.admit(QUERY_1, 1000).isDone());
+        assertTrue(queue.admit(QUERY_2, 1000).isDone());
+        assertEquals(queue.getAdmittedQueries(), 2);
+    }
+
+    @Test
+    public void testQueueUntilMemoryIsAvailable()
+    {
+        MemoryAdmissionQueue queue = new MemoryAdmissionQueue(0);
+        queue.update(100, 0, ImmutableMap.of());
+
+        ListenableFuture<?> first = queue.admit(QUERY_1, 60);
+        ListenableFuture<?> second = queue.admit(QUERY_2, 60);
+        ListenableFuture<?> third = queue.admit(QUERY_3, 10);
+        assertTrue(first.isDone());
+        // admission is first in, first out, so the small query waits behind the large one
+        assertFalse(second.isDone());
+        assertFalse(third.isDone());
+        assertEquals(queue.getQueuedQueries(), 2);
+
+        queue.release(QUERY_1);
+        assertTrue(second.isDone());
+        assertTrue(third.isDone());
+        assertEquals(queue.getQueuedQueries(), 0);
+    }
+
+    @Test
+    public void testUpdateAccountsForActualReservations()
+    {
+        MemoryAdmissionQueue queue = new MemoryAdmissionQueue(0);
+        queue.update(100, 0, ImmutableMap.of());
+
+        assertTrue(queue.admit(QUERY_1, 80).isDone());
+        ListenableFuture<?> second = queue.admit(QUERY_2, 50);
+        assertFalse(second.isDone());
+
+        // the rest of the first query's prediction is still held back from the pool
+        queue.update(100, 40, ImmutableMap.of(QUERY_1, 40L));
+        assertFalse(second.isDone());
+
+        queue.update(200, 80, ImmutableMap.of(QUERY_1, 80L));
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    public void testQueryLargerThanPool()
+    {
+        MemoryAdmissionQueue queue = new MemoryAdmissionQueue(0);
+        queue.update(100, 0, ImmutableMap.of());
+
+        assertTrue(queue.admit(QUERY_1, 10).isDone());
+        ListenableFuture<?> large = queue.admit(QUERY_2, 1000);
+        assertFalse(large.isDone());
+
+        queue.release(QUERY_1);
+        assertTrue(large.isDone());
+    }
+
+    @Test
+    public void testNegligibleEstimateSkipsQueue()
+    {
+        MemoryAdmissionQueue queue = new MemoryAdmissionQueue(5);
+        queue.update(100, 0, ImmutableMap.of());
+
+        assertTrue(queue.admit(QUERY_1, 80).isDone());
+        ListenableFuture<?> large = queue.admit(QUERY_2, 50);
+        assertFalse(large.isDone());
+
+        // neither the pending large query nor the lack of memory hold back a negligible estimate
+        assertTrue(queue.admit(QUERY_3, 0).isDone());
+        assertTrue(queue.admit(QUERY_4, 5).isDone());
+        queue.update(100, 120, ImmutableMap.of(QUERY_1, 120L));
+        assertTrue(queue.admit(QUERY_5, 0).isDone());
+        assertEquals(queue.getQueuedQueries(), 1);
+
+        queue.release(QUERY_1);
+        queue.update(100, 0, ImmutableMap.of());
+        assertTrue(large.isDone());
+    }
+
+    @Test
+    public void testReleasePendingQuery()
+    {
+        MemoryAdmissionQueue queue = new MemoryAdmissionQueue(0);
+        queue.update(100, 0, ImmutableMap.of());
+
+        assertTrue(queue.admit(QUERY_1, 50).isDone());
+        ListenableFuture<?> second = queue.admit(QUERY_2, 100);
+        ListenableFuture<?> third = queue.admit(QUERY_3, 50);
+        assertFalse(third.isDone());
+
+        queue.release(QUERY_2);
+        assertTrue(third.isDone());
+        assertFalse(second.isDone());
+        assertEquals(queue.getQueuedQueries(), 0);
+    }
+}
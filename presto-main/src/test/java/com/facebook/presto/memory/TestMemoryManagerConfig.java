@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.memory.MemoryManagerConfig.LowMemoryKillerPolicy;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
@@ -35,6 +36,10 @@ public class TestMemoryManagerConfig
         assertRecordedDefaults(ConfigAssertions.recordDefaults(MemoryManagerConfig.class)
                 .setKillOnOutOfMemory(false)
                 .setKillOnOutOfMemoryDelay(new Duration(5, MINUTES))
+                .setLowMemoryKillerPolicy(LowMemoryKillerPolicy.TOTAL_RESERVATION)
+                .setRevokeOnLowMemory(true)
+                .setPauseOnLowMemory(true)
+                .setMemoryAdmission(false)
                 .setMaxQueryMemory(new DataSize(20, GIGABYTE)));
     }
 
@@ -44,12 +49,20 @@ public class TestMemoryManagerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("query.low-memory-killer.enabled", "true")
                 .put("query.low-memory-killer.delay", "20s")
+                .put("query.low-memory-killer.policy", "LEAST_WORK_LOST")
+                .put("query.low-memory.revoking-enabled", "false")
+                .put("query.low-memory.pausing-enabled", "false")
+                .put("query.memory-admission.enabled", "true")
                 .put("query.max-memory", "2GB")
                 .build();
 
         MemoryManagerConfig expected = new MemoryManagerConfig()
                 .setKillOnOutOfMemory(true)
                 .setKillOnOutOfMemoryDelay(new Duration(20, SECONDS))
+                .setLowMemoryKillerPolicy(LowMemoryKillerPolicy.LEAST_WORK_LOST)
+                .setRevokeOnLowMemory(false)
+                .setPauseOnLowMemory(false)
+                .setMemoryAdmission(true)
                 .setMaxQueryMemory(new DataSize(2, GIGABYTE));
 
         assertFullMapping(properties, expected);
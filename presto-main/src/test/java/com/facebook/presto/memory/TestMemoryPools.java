@@ -48,6 +48,7 @@ import java.util.function.Function;
 import static com.facebook.presto.testing.LocalQueryRunner.queryRunnerWithInitialTransaction;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -139,6 +140,36 @@ public class TestMemoryPools
         assertDriversProgress(waitingForUserMemory());
     }
 
+    @Test
+    public void testPausedQueryBlocksOnReservation()
+    {
+        DataSize oneGigabyte = new DataSize(1, GIGABYTE);
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), oneGigabyte);
+        QueryContext queryContext = new QueryContext(
+                new QueryId("paused"),
+                oneGigabyte,
+                pool,
+                new MemoryPool(new MemoryPoolId("system"), oneGigabyte),
+                directExecutor(),
+                oneGigabyte,
+                new SpillSpaceTracker(oneGigabyte));
+
+        queryContext.setPaused(true);
+        assertTrue(queryContext.isPaused());
+        // trivial reservations are never blocked
+        assertTrue(queryContext.reserveMemory(ONE_BYTE.toBytes()).isDone());
+
+        ListenableFuture<?> future = queryContext.reserveMemory(TEN_MEGABYTES.toBytes());
+        assertFalse(future.isDone());
+        // the reservation itself succeeds, only the query is blocked
+        assertEquals(pool.getReservedBytes(), TEN_MEGABYTES.toBytes() + 1);
+
+        queryContext.setPaused(false);
+        assertFalse(queryContext.isPaused());
+        assertTrue(future.isDone());
+        assertTrue(queryContext.reserveMemory(ONE_BYTE.toBytes()).isDone());
+    }
+
     @Test
     public void testBlockingOnRevocableMemoryFreeUser()
             throws Exception
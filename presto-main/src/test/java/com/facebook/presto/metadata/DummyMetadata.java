@@ -121,6 +121,12 @@ public class DummyMetadata implements Metadata
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Optional<String> getDataVersion(Session session, TableLayoutHandle handle)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public TableMetadata getTableMetadata(Session session, TableHandle tableHandle)
     {
@@ -18,6 +18,7 @@ import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.TestingSession;
 import com.facebook.presto.type.TypeUtils;
@@ -28,13 +29,18 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createTypedLongsBlock;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
+import static io.airlift.testing.Assertions.assertInstanceOf;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -233,4 +239,80 @@ public class TestGroupByHash
             assertTrue(groupByHash.contains(i, new Page(valuesBlock, hashBlock), CONTAINS_CHANNELS));
         }
     }
+
+    @Test
+    public void testFixedWidthMultipleColumns()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER);
+        Block bigintBlock = createLongsBlock(1L, 1L, 2L, null, null, 1L, 2L);
+        Block integerBlock = createIntsBlock(10, 20, 10, 10, null, 10, 10);
+        Block hashBlock = getHashBlock(types, bigintBlock, integerBlock);
+        Page page = new Page(bigintBlock, integerBlock, hashBlock);
+
+        GroupByHash groupByHash = createGroupByHash(TEST_SESSION, types, new int[] { 0, 1 }, Optional.of(2), 4, JOIN_COMPILER);
+        assertInstanceOf(groupByHash, FixedWidthGroupByHash.class);
+        assertEquals(groupByHash.getTypes(), ImmutableList.of(BIGINT, INTEGER, BIGINT));
+
+        GroupByIdBlock groupIds = groupByHash.getGroupIds(page);
+        assertEquals(groupIds.getGroupCount(), 5);
+        long[] expectedGroupIds = {0, 1, 2, 3, 4, 0, 2};
+        for (int position = 0; position < expectedGroupIds.length; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            assertEquals(groupByHash.getRawHash(groupId), BIGINT.getLong(hashBlock, groupId));
+        }
+        Page outputPage = pageBuilder.build();
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(0), bigintBlock.getRegion(0, 5));
+        BlockAssertions.assertBlockEquals(INTEGER, outputPage.getBlock(1), integerBlock.getRegion(0, 5));
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(2), hashBlock.getRegion(0, 5));
+
+        assertTrue(groupByHash.contains(4, page, new int[] { 0, 1 }));
+        assertEquals(groupByHash.putIfAbsent(3, page), 3);
+        assertEquals(groupByHash.getGroupCount(), 5);
+
+        Block testBigintBlock = createLongsBlock(2L);
+        Block testIntegerBlock = createIntsBlock(20);
+        Page testPage = new Page(testBigintBlock, testIntegerBlock, getHashBlock(types, testBigintBlock, testIntegerBlock));
+        assertFalse(groupByHash.contains(0, testPage, new int[] { 0, 1 }));
+        assertEquals(groupByHash.putIfAbsent(0, testPage), 5);
+        assertTrue(groupByHash.contains(0, testPage, new int[] { 0, 1 }));
+    }
+
+    @Test
+    public void testFixedWidthMatchesMultiChannel()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT, DATE, INTEGER);
+        int[] hashChannels = { 0, 1, 2 };
+        GroupByHash fixedWidthGroupByHash = new FixedWidthGroupByHash(types, hashChannels, Optional.empty(), 10);
+        GroupByHash multiChannelGroupByHash = new MultiChannelGroupByHash(types, hashChannels, Optional.empty(), 10, false, JOIN_COMPILER);
+
+        for (int start = 0; start < 1000; start += 100) {
+            List<Long> bigints = new ArrayList<>();
+            List<Long> dates = new ArrayList<>();
+            List<Integer> integers = new ArrayList<>();
+            for (int value = start; value < start + 200; value++) {
+                bigints.add(value % 7 == 0 ? null : (long) value % 37);
+                dates.add((long) value % 11);
+                integers.add(value % 5 == 0 ? null : value % 3);
+            }
+            Page page = new Page(createLongsBlock(bigints), createTypedLongsBlock(DATE, dates), createIntsBlock(integers));
+
+            GroupByIdBlock fixedWidthGroupIds = fixedWidthGroupByHash.getGroupIds(page);
+            GroupByIdBlock multiChannelGroupIds = multiChannelGroupByHash.getGroupIds(page);
+            assertEquals(fixedWidthGroupIds.getGroupCount(), multiChannelGroupIds.getGroupCount());
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                assertEquals(fixedWidthGroupIds.getGroupId(position), multiChannelGroupIds.getGroupId(position));
+            }
+        }
+        for (int groupId = 0; groupId < fixedWidthGroupByHash.getGroupCount(); groupId++) {
+            assertEquals(fixedWidthGroupByHash.getRawHash(groupId), multiChannelGroupByHash.getRawHash(groupId));
+        }
+    }
 }
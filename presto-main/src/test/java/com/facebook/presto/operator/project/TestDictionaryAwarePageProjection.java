@@ -24,6 +24,7 @@ import com.facebook.presto.spi.block.LongArrayBlock;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.testng.annotations.Test;
 
@@ -34,7 +35,10 @@ import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static io.airlift.testing.Assertions.assertInstanceOf;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 public class TestDictionaryAwarePageProjection
 {
@@ -110,6 +114,26 @@ public class TestDictionaryAwarePageProjection
         testProjectList(effectiveBlock, LongArrayBlock.class, projection);
     }
 
+    @Test
+    public void testDictionaryResultCache()
+            throws Exception
+    {
+        DictionaryResultCache.Scope cache = new DictionaryResultCache(new DataSize(1, MEGABYTE)).newScope();
+        DictionaryBlock block = createDictionaryBlock(10, 100);
+
+        // projections sharing a scope reuse the projected dictionary
+        DictionaryBlock first = (DictionaryBlock) createProjection(cache, 0).project(null, new Page(block), SelectedPositions.positionsRange(0, 100));
+        DictionaryBlock second = (DictionaryBlock) createProjection(cache, 0).project(null, new Page(block.getRegion(10, 50)), SelectedPositions.positionsRange(0, 50));
+        assertSame(second.getDictionary(), first.getDictionary());
+        assertBlockEquals(BIGINT, second, block.getRegion(10, 50));
+
+        // other expressions and dictionaries are processed again
+        DictionaryBlock otherExpression = (DictionaryBlock) createProjection(cache, 1).project(null, new Page(block), SelectedPositions.positionsRange(0, 100));
+        assertNotSame(otherExpression.getDictionary(), first.getDictionary());
+        DictionaryBlock otherDictionary = (DictionaryBlock) createProjection(cache, 0).project(null, new Page(createDictionaryBlock(10, 100)), SelectedPositions.positionsRange(0, 100));
+        assertNotSame(otherDictionary.getDictionary(), first.getDictionary());
+    }
+
     private static DictionaryBlock createDictionaryBlock(int dictionarySize, int blockSize)
     {
         Block dictionary = createLongSequenceBlock(0, dictionarySize);
@@ -162,6 +186,15 @@ public class TestDictionaryAwarePageProjection
                 block -> randomDictionaryId());
     }
 
+    private static DictionaryAwarePageProjection createProjection(DictionaryResultCache.Scope cache, int expression)
+    {
+        return new DictionaryAwarePageProjection(
+                new TestPageProjection(),
+                block -> randomDictionaryId(),
+                cache,
+                expression);
+    }
+
     private static LazyBlock lazyWrapper(Block block)
     {
         return new LazyBlock(block.getPositionCount(), lazyBlock -> lazyBlock.setBlock(block));
@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.testing.Assertions.assertInstanceOf;
+import static org.testng.Assert.assertEquals;
+
+public class TestDictionaryCombinationPageProjection
+{
+    @Test
+    public void testDictionaryInputs()
+            throws Exception
+    {
+        CountingSumProjection sum = new CountingSumProjection();
+        DictionaryCombinationPageProjection projection = new DictionaryCombinationPageProjection(sum);
+
+        Block left = new DictionaryBlock(8, createLongSequenceBlock(0, 2), new int[] {0, 1, 0, 1, 0, 1, 0, 1});
+        Block right = new DictionaryBlock(8, createLongSequenceBlock(10, 12), new int[] {0, 0, 0, 0, 1, 1, 1, 1});
+        Block result = projection.project(null, new Page(left, right), SelectedPositions.positionsRange(0, 8));
+
+        assertInstanceOf(result, DictionaryBlock.class);
+        assertBlockEquals(BIGINT, result, createLongsBlock(10, 11, 10, 11, 11, 12, 11, 12));
+        assertEquals(sum.getEvaluatedPositions(), 4);
+
+        result = projection.project(null, new Page(left, right), SelectedPositions.positionsList(new int[] {1, 3, 5, 7}, 0, 4));
+        assertBlockEquals(BIGINT, result, createLongsBlock(11, 11, 12, 12));
+        assertEquals(sum.getEvaluatedPositions(), 6);
+    }
+
+    @Test
+    public void testRunLengthEncodedInputs()
+            throws Exception
+    {
+        CountingSumProjection sum = new CountingSumProjection();
+        DictionaryCombinationPageProjection projection = new DictionaryCombinationPageProjection(sum);
+
+        Block left = new RunLengthEncodedBlock(createLongsBlock(3), 10);
+        Block right = new RunLengthEncodedBlock(createLongsBlock(4), 10);
+        Block result = projection.project(null, new Page(left, right), SelectedPositions.positionsRange(0, 10));
+
+        assertInstanceOf(result, RunLengthEncodedBlock.class);
+        assertEquals(result.getPositionCount(), 10);
+        assertEquals(BIGINT.getLong(result, 0), 7);
+        assertEquals(sum.getEvaluatedPositions(), 1);
+    }
+
+    @Test
+    public void testFlatInput()
+            throws Exception
+    {
+        CountingSumProjection sum = new CountingSumProjection();
+        DictionaryCombinationPageProjection projection = new DictionaryCombinationPageProjection(sum);
+
+        Block left = new DictionaryBlock(4, createLongSequenceBlock(0, 2), new int[] {0, 1, 0, 1});
+        Block right = createLongSequenceBlock(10, 14);
+        Block result = projection.project(null, new Page(left, right), SelectedPositions.positionsRange(0, 4));
+
+        assertBlockEquals(BIGINT, result, createLongsBlock(10, 12, 12, 14));
+        assertEquals(sum.getEvaluatedPositions(), 4);
+    }
+
+    @Test
+    public void testFewRepeatedCombinations()
+            throws Exception
+    {
+        CountingSumProjection sum = new CountingSumProjection();
+        DictionaryCombinationPageProjection projection = new DictionaryCombinationPageProjection(sum);
+
+        // every position has its own combination, so the projection is evaluated directly
+        Block left = new DictionaryBlock(4, createLongSequenceBlock(0, 4), new int[] {0, 1, 2, 3});
+        Block right = new DictionaryBlock(4, createLongSequenceBlock(10, 14), new int[] {0, 1, 2, 3});
+        Block result = projection.project(null, new Page(left, right), SelectedPositions.positionsRange(0, 4));
+
+        assertBlockEquals(BIGINT, result, createLongsBlock(10, 12, 14, 16));
+        assertEquals(sum.getEvaluatedPositions(), 4);
+    }
+
+    @Test
+    public void testFilter()
+            throws Exception
+    {
+        CountingEqualsFilter equals = new CountingEqualsFilter();
+        DictionaryCombinationPageFilter filter = new DictionaryCombinationPageFilter(equals);
+
+        Block left = new DictionaryBlock(8, createLongSequenceBlock(0, 2), new int[] {0, 1, 0, 1, 0, 1, 0, 1});
+        Block right = new DictionaryBlock(8, createLongSequenceBlock(0, 2), new int[] {0, 0, 0, 0, 1, 1, 1, 1});
+        SelectedPositions selectedPositions = filter.filter(null, new Page(left, right));
+
+        assertEquals(selectedPositions.size(), 4);
+        assertEquals(selectedPositions.isList(), true);
+        assertEquals(selectedPositions.getPositions(), new int[] {0, 2, 5, 7});
+        assertEquals(equals.getEvaluatedPositions(), 4);
+    }
+
+    private static class CountingSumProjection
+            implements PageProjection
+    {
+        private int evaluatedPositions;
+
+        @Override
+        public Type getType()
+        {
+            return BIGINT;
+        }
+
+        @Override
+        public boolean isDeterministic()
+        {
+            return true;
+        }
+
+        @Override
+        public InputChannels getInputChannels()
+        {
+            return new InputChannels(0, 1);
+        }
+
+        @Override
+        public Block project(ConnectorSession session, Page page, SelectedPositions selectedPositions)
+        {
+            Block left = page.getBlock(0);
+            Block right = page.getBlock(1);
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), selectedPositions.size());
+            for (int i = 0; i < selectedPositions.size(); i++) {
+                int position = selectedPositions.isList() ? selectedPositions.getPositions()[selectedPositions.getOffset() + i] : selectedPositions.getOffset() + i;
+                BIGINT.writeLong(blockBuilder, BIGINT.getLong(left, position) + BIGINT.getLong(right, position));
+            }
+            evaluatedPositions += selectedPositions.size();
+            return blockBuilder.build();
+        }
+
+        public int getEvaluatedPositions()
+        {
+            return evaluatedPositions;
+        }
+    }
+
+    private static class CountingEqualsFilter
+            implements PageFilter
+    {
+        private int evaluatedPositions;
+
+        @Override
+        public boolean isDeterministic()
+        {
+            return true;
+        }
+
+        @Override
+        public InputChannels getInputChannels()
+        {
+            return new InputChannels(0, 1);
+        }
+
+        @Override
+        public SelectedPositions filter(ConnectorSession session, Page page)
+        {
+            boolean[] selected = new boolean[page.getPositionCount()];
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                selected[position] = BIGINT.getLong(page.getBlock(0), position) == BIGINT.getLong(page.getBlock(1), position);
+            }
+            evaluatedPositions += page.getPositionCount();
+            return PageFilter.positionsArrayToSelectedPositions(selected, page.getPositionCount());
+        }
+
+        public int getEvaluatedPositions()
+        {
+            return evaluatedPositions;
+        }
+    }
+}
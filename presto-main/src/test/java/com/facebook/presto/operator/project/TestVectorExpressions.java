@@ -0,0 +1,289 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.gen.CompiledClassCache;
+import com.facebook.presto.sql.gen.PageFunctionCompiler;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.sql.tree.ArithmeticBinaryExpression;
+import com.facebook.presto.sql.tree.ComparisonExpressionType;
+import com.facebook.presto.sql.tree.LogicalBinaryExpression;
+import org.testng.annotations.Test;
+
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createBooleansBlock;
+import static com.facebook.presto.block.BlockAssertions.createDoublesBlock;
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.operator.project.VectorExpressions.isVectorizable;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.constantNull;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.arithmeticExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.betweenSignature;
+import static com.facebook.presto.sql.relational.Signatures.castSignature;
+import static com.facebook.presto.sql.relational.Signatures.comparisonExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.isNullSignature;
+import static com.facebook.presto.sql.relational.Signatures.logicalExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.notSignature;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestVectorExpressions
+{
+    private static final PageFunctionCompiler COMPILER = new PageFunctionCompiler(MetadataManager.createTestMetadataManager(), CompiledClassCache.disabled(), false);
+    private static final PageFunctionCompiler VECTORIZED_COMPILER = new PageFunctionCompiler(MetadataManager.createTestMetadataManager(), CompiledClassCache.disabled(), true);
+
+    // bigint, bigint, integer, double
+    private static final Page PAGE = new Page(
+            createLongsBlock(1L, null, 3L, 15L, null, -7L, 20L, 0L, 11L, 5L),
+            createLongsBlock(10L, 2L, null, 15L, null, 8L, -20L, 0L, 12L, 50L),
+            createIntsBlock(3, 3, null, 7, 1, null, 3, 0, 9, 3),
+            createDoublesBlock(0.5, 1.5, 2.5, null, Double.NaN, -1.0, 2.0, null, 0.0, 1.0));
+
+    private static final RowExpression A = field(0, BIGINT);
+    private static final RowExpression B = field(1, BIGINT);
+    private static final RowExpression C = field(2, INTEGER);
+    private static final RowExpression D = field(3, DOUBLE);
+
+    @Test
+    public void testFilter()
+    {
+        assertFilter(compare(ComparisonExpressionType.GREATER_THAN, A, constant(2L, BIGINT)));
+        assertFilter(compare(ComparisonExpressionType.EQUAL, A, B));
+        assertFilter(compare(ComparisonExpressionType.LESS_THAN_OR_EQUAL, D, constant(1.5, DOUBLE)));
+        assertFilter(and(compare(ComparisonExpressionType.NOT_EQUAL, C, constant(3L, INTEGER)), isNull(B)));
+        assertFilter(or(compare(ComparisonExpressionType.LESS_THAN, A, B), not(isNull(D))));
+        assertFilter(not(between(D, constant(0.0, DOUBLE), constant(2.0, DOUBLE))));
+        assertFilter(or(between(A, constant(0L, BIGINT), B), compare(ComparisonExpressionType.GREATER_THAN_OR_EQUAL, cast(BIGINT, C), A)));
+        assertFilter(compare(ComparisonExpressionType.GREATER_THAN, arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, A, B), constant(100L, BIGINT)));
+        assertFilter(and(field(4, BOOLEAN), compare(ComparisonExpressionType.GREATER_THAN, D, cast(DOUBLE, A))));
+    }
+
+    @Test
+    public void testProjection()
+    {
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.ADD, A, B));
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.SUBTRACT, cast(BIGINT, C), A));
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, C, constant(2L, INTEGER)));
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.DIVIDE, D, cast(DOUBLE, B)));
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.ADD, D, cast(DOUBLE, C)));
+        assertProjection(compare(ComparisonExpressionType.LESS_THAN, A, B));
+        assertProjection(or(isNull(A), compare(ComparisonExpressionType.EQUAL, D, constant(1.0, DOUBLE))));
+    }
+
+    @Test
+    public void testRunLengthEncodedInput()
+    {
+        Page page = new Page(
+                new RunLengthEncodedBlock(createLongsBlock(5L), 10),
+                new RunLengthEncodedBlock(createLongsBlock((Long) null), 10),
+                PAGE.getBlock(2),
+                PAGE.getBlock(3));
+        assertFilter(compare(ComparisonExpressionType.GREATER_THAN, A, cast(BIGINT, C)), page);
+        assertFilter(or(compare(ComparisonExpressionType.GREATER_THAN, B, A), compare(ComparisonExpressionType.GREATER_THAN, D, constant(1.0, DOUBLE))), page);
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.ADD, A, B), page);
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.SUBTRACT, A, cast(BIGINT, C)), page);
+    }
+
+    @Test
+    public void testIsVectorizable()
+    {
+        assertTrue(isVectorizable(compare(ComparisonExpressionType.GREATER_THAN, A, constant(2L, BIGINT))));
+        assertTrue(isVectorizable(and(isNull(A), compare(ComparisonExpressionType.GREATER_THAN, arithmetic(ArithmeticBinaryExpression.Type.ADD, D, D), D))));
+
+        // variable width types and null constants are evaluated row by row
+        assertFalse(isVectorizable(isNull(field(0, VARCHAR))));
+        assertFalse(isVectorizable(compare(ComparisonExpressionType.GREATER_THAN, A, constantNull(BIGINT))));
+
+        // integral arithmetic can fail, so it must not be evaluated for rows the generated code skips
+        assertFalse(isVectorizable(and(isNull(A), compare(ComparisonExpressionType.GREATER_THAN, arithmetic(ArithmeticBinaryExpression.Type.ADD, A, B), A))));
+        assertFalse(isVectorizable(arithmetic(ArithmeticBinaryExpression.Type.ADD, A, arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, B, B))));
+        assertFalse(isVectorizable(compare(ComparisonExpressionType.GREATER_THAN, A, arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, B, B))));
+        assertTrue(isVectorizable(arithmetic(ArithmeticBinaryExpression.Type.ADD, arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, B, B), A)));
+        assertTrue(isVectorizable(arithmetic(ArithmeticBinaryExpression.Type.ADD, constant(1L, BIGINT), arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, B, B))));
+        assertFalse(isVectorizable(arithmetic(ArithmeticBinaryExpression.Type.DIVIDE, A, B)));
+        assertFalse(isVectorizable(compare(ComparisonExpressionType.IS_DISTINCT_FROM, A, B)));
+
+        // only widening casts
+        assertFalse(isVectorizable(cast(INTEGER, A)));
+    }
+
+    @Test
+    public void testOverflow()
+    {
+        Page page = new Page(createLongsBlock(Long.MAX_VALUE, null), createLongsBlock(1L, 1L));
+        RowExpression add = arithmetic(ArithmeticBinaryExpression.Type.ADD, A, B);
+        PageProjection projection = VECTORIZED_COMPILER.compileProjection(add).get();
+        assertTrue(projection instanceof VectorizedPageProjection);
+        try {
+            projection.project(SESSION, projection.getInputChannels().getInputChannels(page), SelectedPositions.positionsRange(0, 2));
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            // expected
+        }
+
+        // the overflowing position is not selected
+        Block block = projection.project(SESSION, projection.getInputChannels().getInputChannels(page), SelectedPositions.positionsRange(1, 1));
+        assertEquals(block.getPositionCount(), 1);
+        assertTrue(block.isNull(0));
+    }
+
+    @Test
+    public void testOverflowBehindNullArgument()
+    {
+        // the generated code does not evaluate b * b when a is null, so the overflow must not surface
+        Page page = new Page(createLongsBlock(null, 1L), createLongsBlock(Long.MAX_VALUE, 2L));
+        RowExpression add = arithmetic(ArithmeticBinaryExpression.Type.ADD, A, arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, B, B));
+        PageProjection projection = VECTORIZED_COMPILER.compileProjection(add).get();
+        assertFalse(projection instanceof VectorizedPageProjection);
+
+        Block block = projection.project(SESSION, projection.getInputChannels().getInputChannels(page), SelectedPositions.positionsRange(0, 2));
+        assertTrue(block.isNull(0));
+        assertEquals(BIGINT.getLong(block, 1), 5L);
+
+        RowExpression filter = compare(ComparisonExpressionType.GREATER_THAN, A, arithmetic(ArithmeticBinaryExpression.Type.MULTIPLY, B, B));
+        PageFilter pageFilter = VECTORIZED_COMPILER.compileFilter(filter).get();
+        assertFalse(pageFilter instanceof VectorizedPageFilter);
+        assertEquals(pageFilter.filter(SESSION, pageFilter.getInputChannels().getInputChannels(page)).size(), 0);
+    }
+
+    @Test
+    public void testDictionaryInput()
+    {
+        // blocks other than array blocks are read a position at a time
+        int[] ids = {9, 0, 3, 3, 5};
+        Page page = new Page(
+                new DictionaryBlock(ids.length, PAGE.getBlock(0), ids),
+                new DictionaryBlock(ids.length, PAGE.getBlock(1), ids),
+                new DictionaryBlock(ids.length, PAGE.getBlock(2), ids),
+                new DictionaryBlock(ids.length, PAGE.getBlock(3), ids));
+        assertFilter(compare(ComparisonExpressionType.GREATER_THAN, A, cast(BIGINT, C)), page);
+        assertProjection(arithmetic(ArithmeticBinaryExpression.Type.ADD, D, cast(DOUBLE, B)), page);
+    }
+
+    private static void assertFilter(RowExpression filter)
+    {
+        assertFilter(filter, new Page(PAGE.getBlock(0), PAGE.getBlock(1), PAGE.getBlock(2), PAGE.getBlock(3), createBooleansBlock(true, null, true, false, true, true, null, true, false, true)));
+    }
+
+    private static void assertFilter(RowExpression filter, Page page)
+    {
+        PageFilter expected = COMPILER.compileFilter(filter).get();
+        PageFilter actual = VECTORIZED_COMPILER.compileFilter(filter).get();
+        assertTrue(actual instanceof VectorizedPageFilter);
+
+        // evaluate twice to verify state does not leak between pages
+        for (int i = 0; i < 2; i++) {
+            SelectedPositions expectedPositions = expected.filter(SESSION, expected.getInputChannels().getInputChannels(page));
+            SelectedPositions actualPositions = actual.filter(SESSION, actual.getInputChannels().getInputChannels(page));
+            assertEquals(toArray(actualPositions), toArray(expectedPositions));
+        }
+    }
+
+    private static void assertProjection(RowExpression projection)
+    {
+        assertProjection(projection, PAGE);
+    }
+
+    private static void assertProjection(RowExpression projection, Page page)
+    {
+        PageProjection expected = COMPILER.compileProjection(projection).get();
+        PageProjection actual = VECTORIZED_COMPILER.compileProjection(projection).get();
+        assertTrue(actual instanceof VectorizedPageProjection);
+        assertEquals(actual.getType(), expected.getType());
+
+        Page expectedInput = expected.getInputChannels().getInputChannels(page);
+        Page actualInput = actual.getInputChannels().getInputChannels(page);
+        int positionCount = page.getPositionCount();
+        SelectedPositions[] selections = {
+                SelectedPositions.positionsRange(0, positionCount),
+                SelectedPositions.positionsRange(3, 4),
+                SelectedPositions.positionsList(new int[] {0, 1, 4, 5, 9}, 1, 3),
+                SelectedPositions.positionsRange(0, 0)
+        };
+        for (SelectedPositions positions : selections) {
+            assertBlockEquals(projection.getType(), actual.project(SESSION, actualInput, positions), expected.project(SESSION, expectedInput, positions));
+        }
+    }
+
+    private static int[] toArray(SelectedPositions positions)
+    {
+        if (positions.isList()) {
+            return IntStream.range(positions.getOffset(), positions.getOffset() + positions.size())
+                    .map(index -> positions.getPositions()[index])
+                    .toArray();
+        }
+        return IntStream.range(positions.getOffset(), positions.getOffset() + positions.size()).toArray();
+    }
+
+    private static RowExpression compare(ComparisonExpressionType type, RowExpression left, RowExpression right)
+    {
+        return call(comparisonExpressionSignature(type, left.getType(), right.getType()), BOOLEAN, left, right);
+    }
+
+    private static RowExpression arithmetic(ArithmeticBinaryExpression.Type type, RowExpression left, RowExpression right)
+    {
+        return call(arithmeticExpressionSignature(type, left.getType(), left.getType(), right.getType()), left.getType(), left, right);
+    }
+
+    private static RowExpression between(RowExpression value, RowExpression min, RowExpression max)
+    {
+        return call(betweenSignature(value.getType(), min.getType(), max.getType()), BOOLEAN, value, min, max);
+    }
+
+    private static RowExpression cast(Type type, RowExpression value)
+    {
+        return call(castSignature(type, value.getType()), type, value);
+    }
+
+    private static RowExpression and(RowExpression left, RowExpression right)
+    {
+        return call(logicalExpressionSignature(LogicalBinaryExpression.Type.AND), BOOLEAN, left, right);
+    }
+
+    private static RowExpression or(RowExpression left, RowExpression right)
+    {
+        return call(logicalExpressionSignature(LogicalBinaryExpression.Type.OR), BOOLEAN, left, right);
+    }
+
+    private static RowExpression not(RowExpression value)
+    {
+        return call(notSignature(), BOOLEAN, value);
+    }
+
+    private static RowExpression isNull(RowExpression value)
+    {
+        return call(isNullSignature(value.getType()), BOOLEAN, value);
+    }
+}
@@ -61,6 +61,7 @@ public class TestBasicQueryInfo
                                 Duration.valueOf("10m"),
                                 Duration.valueOf("11m"),
                                 Duration.valueOf("12m"),
+                                Duration.valueOf("1m"),
                                 13,
                                 14,
                                 15,
@@ -72,6 +73,7 @@ public class TestBasicQueryInfo
                                 20.0,
                                 DataSize.valueOf("21GB"),
                                 DataSize.valueOf("22GB"),
+                                DataSize.valueOf("20GB"),
                                 true,
                                 Duration.valueOf("23m"),
                                 Duration.valueOf("24m"),
@@ -101,7 +103,9 @@ public class TestBasicQueryInfo
                         ImmutableSet.of(),
                         Optional.empty(),
                         false,
-                        Optional.empty()));
+                        Optional.empty(),
+                        Optional.empty(),
+                        false));
 
         assertEquals(basicInfo.getQueryId().getId(), "0");
         assertEquals(basicInfo.getState(), RUNNING);
@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.client.ClientTypeSignature;
+import com.facebook.presto.client.Column;
+import com.facebook.presto.client.QueryResults;
+import com.facebook.presto.client.StatementStats;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.SqlDecimal;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.json.JsonCodec;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.CharType.createCharType;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DecimalType.createDecimalType;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static com.facebook.presto.util.StructuralTestUtil.mapType;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestBinaryResultsEncoder
+{
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+
+    private static final List<Type> TYPES = ImmutableList.of(
+            BIGINT,
+            INTEGER,
+            SMALLINT,
+            TINYINT,
+            DOUBLE,
+            REAL,
+            BOOLEAN,
+            VARCHAR,
+            createCharType(5),
+            VARBINARY,
+            DATE,
+            createDecimalType(10, 2),
+            new ArrayType(BIGINT),
+            mapType(VARCHAR, DOUBLE));
+
+    @Test
+    public void testRoundTrip()
+    {
+        RowPagesBuilder pagesBuilder = rowPagesBuilder(TYPES)
+                .row(1L, 2L, 3L, 4L, 1.5, 2.5f, true, "hello", "abc", "bytes".getBytes(UTF_8), 17000L, new SqlDecimal(BigInteger.valueOf(12345), 10, 2), ImmutableList.of(1L, 2L), ImmutableMap.of("key", 0.5))
+                .row(null, null, null, null, null, null, null, null, null, null, null, null, null, null)
+                .pageBreak()
+                .row(-1L, -2L, -3L, -4L, Double.NaN, Float.NEGATIVE_INFINITY, false, "", "x", new byte[0], 0L, new SqlDecimal(BigInteger.ZERO, 10, 2), ImmutableList.of(), ImmutableMap.of())
+                .pageBreak();
+        // null bitmaps that do not end on a byte boundary
+        for (long i = 0; i < 17; i++) {
+            pagesBuilder.row(i, i % 3 == 0 ? null : i, i, i, (double) i, (float) i, i % 2 == 0, "value" + i, null, null, i, null, ImmutableList.of(i), null);
+        }
+        List<Page> pages = pagesBuilder.build();
+
+        QueryResults jsonResults = QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(createQueryResults(toRows(pages), null)));
+        QueryResults binaryResults = QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(createQueryResults(null, BinaryResultsEncoder.encode(SESSION, TYPES, pages))));
+
+        assertNull(binaryResults.getBinaryData());
+        assertRowsEqual(ImmutableList.copyOf(binaryResults.getData()), ImmutableList.copyOf(jsonResults.getData()));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(createQueryResults(null, BinaryResultsEncoder.encode(SESSION, TYPES, ImmutableList.of()))));
+        assertEquals(ImmutableList.copyOf(results.getData()), ImmutableList.of());
+    }
+
+    private static QueryResults createQueryResults(Iterable<List<Object>> data, byte[] binaryData)
+    {
+        ImmutableList.Builder<Column> columns = ImmutableList.builder();
+        for (int i = 0; i < TYPES.size(); i++) {
+            Type type = TYPES.get(i);
+            columns.add(new Column("_col" + i, type.getTypeSignature().toString(), new ClientTypeSignature(type.getTypeSignature())));
+        }
+        return new QueryResults(
+                "query",
+                URI.create("http://localhost/query.html?query"),
+                null,
+                null,
+                columns.build(),
+                data,
+                binaryData,
+                null,
+                null,
+                new StatementStats("FINISHED", false, true, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, null, null),
+                null,
+                null,
+                null,
+                ImmutableMap.of(),
+                ImmutableSet.of());
+    }
+
+    private static List<List<Object>> toRows(List<Page> pages)
+    {
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (Page page : pages) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                List<Object> row = new ArrayList<>();
+                for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                    Block block = page.getBlock(channel);
+                    row.add(TYPES.get(channel).getObjectValue(SESSION, block, position));
+                }
+                rows.add(Collections.unmodifiableList(row));
+            }
+        }
+        return rows.build();
+    }
+
+    private static void assertRowsEqual(List<List<Object>> actual, List<List<Object>> expected)
+    {
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            List<Object> actualRow = actual.get(i);
+            List<Object> expectedRow = expected.get(i);
+            assertEquals(actualRow.size(), expectedRow.size());
+            for (int channel = 0; channel < actualRow.size(); channel++) {
+                Object actualValue = actualRow.get(channel);
+                Object expectedValue = expectedRow.get(channel);
+                if (expectedValue instanceof byte[]) {
+                    assertEquals((byte[]) actualValue, (byte[]) expectedValue);
+                }
+                else {
+                    assertEquals(actualValue, expectedValue, "row " + i + ", channel " + channel);
+                }
+            }
+        }
+    }
+}
@@ -220,6 +220,7 @@ public class TestQueryStateInfo
                         Duration.valueOf("10m"),
                         Duration.valueOf("11m"),
                         Duration.valueOf("12m"),
+                        Duration.valueOf("1m"),
                         13,
                         14,
                         15,
@@ -231,6 +232,7 @@ public class TestQueryStateInfo
                         20.0,
                         DataSize.valueOf("21GB"),
                         DataSize.valueOf("22GB"),
+                        DataSize.valueOf("20GB"),
                         true,
                         Duration.valueOf("23m"),
                         Duration.valueOf("24m"),
@@ -260,6 +262,8 @@ public class TestQueryStateInfo
                 ImmutableSet.of(),
                 Optional.empty(),
                 false,
-                Optional.empty());
+                Optional.empty(),
+                Optional.empty(),
+                false);
     }
 }
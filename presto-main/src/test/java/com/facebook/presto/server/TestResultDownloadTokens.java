@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.execution.StageId;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestResultDownloadTokens
+{
+    private static final StageId STAGE_ID = new StageId("query", 0);
+
+    @Test
+    public void testRoundTrip()
+    {
+        ResultDownloadTokens tokens = createTokens("secret", new Duration(1, HOURS));
+        String token = tokens.createToken(STAGE_ID, ImmutableList.of(BIGINT, VARCHAR));
+
+        Optional<ResultDownloadToken> verified = tokens.verifyToken(token);
+        assertTrue(verified.isPresent());
+        assertEquals(verified.get().getStageId(), STAGE_ID);
+        assertEquals(verified.get().getTypes(), ImmutableList.of("bigint", "varchar"));
+    }
+
+    @Test
+    public void testTamperedToken()
+    {
+        ResultDownloadTokens tokens = createTokens("secret", new Duration(1, HOURS));
+        String token = tokens.createToken(STAGE_ID, ImmutableList.of(BIGINT));
+        String otherToken = tokens.createToken(new StageId("other", 0), ImmutableList.of(BIGINT));
+
+        String payload = otherToken.substring(0, otherToken.indexOf('.'));
+        String signature = token.substring(token.indexOf('.') + 1);
+        assertFalse(tokens.verifyToken(payload + "." + signature).isPresent());
+        assertFalse(tokens.verifyToken(payload).isPresent());
+        assertFalse(tokens.verifyToken("not a token").isPresent());
+        assertFalse(tokens.verifyToken(null).isPresent());
+    }
+
+    @Test
+    public void testWrongSecret()
+    {
+        String token = createTokens("secret", new Duration(1, HOURS)).createToken(STAGE_ID, ImmutableList.of(BIGINT));
+        assertFalse(createTokens("other", new Duration(1, HOURS)).verifyToken(token).isPresent());
+    }
+
+    @Test
+    public void testExpiredToken()
+            throws Exception
+    {
+        ResultDownloadTokens tokens = createTokens("secret", new Duration(1, SECONDS));
+        String token = tokens.createToken(STAGE_ID, ImmutableList.of(BIGINT));
+        assertTrue(tokens.verifyToken(token).isPresent());
+
+        SECONDS.sleep(2);
+        assertFalse(tokens.verifyToken(token).isPresent());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        String token = createTokens("secret", new Duration(1, HOURS)).createToken(STAGE_ID, ImmutableList.of(BIGINT));
+
+        ResultDownloadTokens disabled = new ResultDownloadTokens(new ResultDownloadConfig().setSharedSecret("secret"));
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.verifyToken(token).isPresent());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMissingSecret()
+    {
+        new ResultDownloadTokens(new ResultDownloadConfig().setEnabled(true));
+    }
+
+    private static ResultDownloadTokens createTokens(String secret, Duration expiration)
+    {
+        return new ResultDownloadTokens(new ResultDownloadConfig()
+                .setEnabled(true)
+                .setSharedSecret(secret)
+                .setTokenExpiration(expiration));
+    }
+}
@@ -81,7 +81,8 @@ public class TestFeaturesConfig
                 .setDistributedSortEnabled(false)
                 .setRedistributeSort(true)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(25, KILOBYTE))
-                .setFilterAndProjectMinOutputPageRowCount(256));
+                .setFilterAndProjectMinOutputPageRowCount(256)
+                .setStreamingPartialAggregation(true));
     }
 
     @Test
@@ -129,6 +130,7 @@ public class TestFeaturesConfig
                 .put("experimental.redistribute-sort", "false")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
+                .put("optimizer.streaming-partial-aggregation", "false")
                 .build();
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("cpu-cost-weight", "0.4")
@@ -172,6 +174,7 @@ public class TestFeaturesConfig
                 .put("experimental.redistribute-sort", "false")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
+                .put("optimizer.streaming-partial-aggregation", "false")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -215,7 +218,8 @@ public class TestFeaturesConfig
                 .setDistributedSortEnabled(true)
                 .setRedistributeSort(false)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(1, MEGABYTE))
-                .setFilterAndProjectMinOutputPageRowCount(2048);
+                .setFilterAndProjectMinOutputPageRowCount(2048)
+                .setStreamingPartialAggregation(false);
 
         assertFullMapping(properties, expected);
         assertDeprecatedEquivalence(FeaturesConfig.class, properties, propertiesLegacy);
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.project.PageProcessor;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.CompilerConfig;
+import com.facebook.presto.sql.relational.DeterminismEvaluator;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.sql.tree.ArithmeticBinaryExpression;
+import com.facebook.presto.sql.tree.ComparisonExpressionType;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.metadata.FunctionKind.SCALAR;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.sql.gen.CommonSubexpressionRewriter.rewriteCommonSubexpressions;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.arithmeticExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.comparisonExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.ifSignature;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static com.google.common.collect.Iterators.getOnlyElement;
+import static org.testng.Assert.assertEquals;
+
+public class TestCommonSubexpressionRewriter
+{
+    private static final MetadataManager METADATA = createTestMetadataManager();
+    private static final DeterminismEvaluator DETERMINISM_EVALUATOR = new DeterminismEvaluator(METADATA.getFunctionRegistry());
+
+    private static final RowExpression A = field(0, BIGINT);
+    private static final RowExpression B = field(1, BIGINT);
+
+    @Test
+    public void testFilterSubexpression()
+    {
+        RowExpression filter = greaterThan(abs(A), constant(1L, BIGINT));
+        List<RowExpression> projections = ImmutableList.of(add(abs(A), B), abs(A));
+
+        CommonSubexpressionRewriter.Result result = rewriteCommonSubexpressions(Optional.of(filter), projections, DETERMINISM_EVALUATOR);
+        assertEquals(result.getSubexpressionChannel(), 2);
+        assertEquals(result.getFilterSubexpressions(), ImmutableList.of(abs(A)));
+        assertEquals(result.getFilter(), Optional.of(greaterThan(field(2, BIGINT), constant(1L, BIGINT))));
+        assertEquals(result.getProjectionSubexpressions(), ImmutableList.of());
+        assertEquals(result.getProjections(), ImmutableList.of(add(field(2, BIGINT), B), field(2, BIGINT)));
+    }
+
+    @Test
+    public void testProjectionSubexpression()
+    {
+        RowExpression filter = greaterThan(B, constant(1L, BIGINT));
+        List<RowExpression> projections = ImmutableList.of(add(abs(A), B), add(abs(A), constant(1L, BIGINT)), abs(B));
+
+        CommonSubexpressionRewriter.Result result = rewriteCommonSubexpressions(Optional.of(filter), projections, DETERMINISM_EVALUATOR);
+        assertEquals(result.getFilterSubexpressions(), ImmutableList.of());
+        assertEquals(result.getFilter(), Optional.of(filter));
+        assertEquals(result.getProjectionSubexpressions(), ImmutableList.of(abs(A)));
+        assertEquals(result.getProjections(), ImmutableList.of(add(field(2, BIGINT), B), add(field(2, BIGINT), constant(1L, BIGINT)), abs(B)));
+    }
+
+    @Test
+    public void testLargestSubexpressionFirst()
+    {
+        List<RowExpression> projections = ImmutableList.of(abs(abs(A)), add(abs(abs(A)), B), add(abs(A), B), abs(A));
+
+        CommonSubexpressionRewriter.Result result = rewriteCommonSubexpressions(Optional.empty(), projections, DETERMINISM_EVALUATOR);
+        assertEquals(result.getProjectionSubexpressions(), ImmutableList.of(abs(abs(A)), abs(A)));
+        assertEquals(result.getProjections(), ImmutableList.of(field(2, BIGINT), add(field(2, BIGINT), B), add(field(3, BIGINT), B), field(3, BIGINT)));
+    }
+
+    @Test
+    public void testNotExtracted()
+    {
+        // operators are cheaper to evaluate again than to materialize
+        assertUnchanged(Optional.empty(), ImmutableList.of(add(A, B), add(add(A, B), B)));
+
+        // a single occurrence
+        assertUnchanged(Optional.of(greaterThan(abs(A), B)), ImmutableList.of(abs(B)));
+
+        // only evaluated for some positions
+        RowExpression condition = greaterThan(B, constant(0L, BIGINT));
+        assertUnchanged(Optional.empty(), ImmutableList.of(ifThenElse(condition, abs(A), B), ifThenElse(condition, B, abs(A))));
+        assertUnchanged(Optional.empty(), ImmutableList.of(add(B, abs(A)), greaterThan(B, abs(A))));
+
+        // the filter may not evaluate the subexpression for all positions
+        assertUnchanged(Optional.of(ifThenElse(condition, greaterThan(abs(A), B), constant(false, BOOLEAN))), ImmutableList.of(abs(A)));
+    }
+
+    @Test
+    public void testPageProcessor()
+    {
+        Optional<RowExpression> filter = Optional.of(greaterThan(abs(A), constant(2L, BIGINT)));
+        List<RowExpression> projections = ImmutableList.of(add(abs(A), B), abs(A), add(abs(B), constant(1L, BIGINT)), abs(B), B);
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT, BIGINT, BIGINT, BIGINT);
+        Page page = new Page(createLongsBlock(-5L, 1L, null, 3L, -2L, 7L), createLongsBlock(1L, null, 3L, -4L, 5L, 6L));
+
+        PageProcessor expected = new ExpressionCompiler(METADATA, CompiledClassCache.disabled(), new CompilerConfig().setCommonSubexpressionEliminationEnabled(false))
+                .compilePageProcessor(filter, projections)
+                .get();
+        PageProcessor actual = new ExpressionCompiler(METADATA, CompiledClassCache.disabled(), new CompilerConfig().setCommonSubexpressionEliminationEnabled(true))
+                .compilePageProcessor(filter, projections)
+                .get();
+        assertPageEquals(types, getOnlyElement(actual.process(SESSION, page)), getOnlyElement(expected.process(SESSION, page)));
+
+        // without a filter, the projection subexpressions cover the whole page
+        actual = new ExpressionCompiler(METADATA).compilePageProcessor(Optional.empty(), projections).get();
+        expected = new ExpressionCompiler(METADATA, CompiledClassCache.disabled(), new CompilerConfig().setCommonSubexpressionEliminationEnabled(false))
+                .compilePageProcessor(Optional.empty(), projections)
+                .get();
+        assertPageEquals(types, getOnlyElement(actual.process(SESSION, page)), getOnlyElement(expected.process(SESSION, page)));
+    }
+
+    private static void assertUnchanged(Optional<RowExpression> filter, List<RowExpression> projections)
+    {
+        CommonSubexpressionRewriter.Result result = rewriteCommonSubexpressions(filter, projections, DETERMINISM_EVALUATOR);
+        assertEquals(result.getFilterSubexpressions(), ImmutableList.of());
+        assertEquals(result.getProjectionSubexpressions(), ImmutableList.of());
+        assertEquals(result.getFilter(), filter);
+        assertEquals(result.getProjections(), projections);
+    }
+
+    private static RowExpression abs(RowExpression value)
+    {
+        return call(new Signature("abs", SCALAR, BIGINT.getTypeSignature(), BIGINT.getTypeSignature()), BIGINT, value);
+    }
+
+    private static RowExpression add(RowExpression left, RowExpression right)
+    {
+        return call(arithmeticExpressionSignature(ArithmeticBinaryExpression.Type.ADD, BIGINT, BIGINT, BIGINT), BIGINT, left, right);
+    }
+
+    private static RowExpression greaterThan(RowExpression left, RowExpression right)
+    {
+        return call(comparisonExpressionSignature(ComparisonExpressionType.GREATER_THAN, BIGINT, BIGINT), BOOLEAN, left, right);
+    }
+
+    private static RowExpression ifThenElse(RowExpression condition, RowExpression trueValue, RowExpression falseValue)
+    {
+        return call(ifSignature(trueValue.getType()), trueValue.getType(), condition, trueValue, falseValue);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.project.PageProjection;
+import com.facebook.presto.operator.project.SelectedPositions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.type.ArrayType;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.function.OperatorType.ADD;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestCompiledClassCache
+{
+    private final MetadataManager metadata = createTestMetadataManager();
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("compiled-classes");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReloadAfterRestart()
+    {
+        CompiledClassCache cache = new CompiledClassCache(Optional.of(directory), "test", 100);
+        assertProjection(new PageFunctionCompiler(metadata, cache), add(10L), 10, 11, 12);
+        assertEquals(cache.getStats().getRequestCount(), 1);
+        assertEquals(cache.getStats().getHitRate(), 0.0);
+        assertEquals(cache.getEntryCount(), 1);
+
+        // a new cache instance over the same directory behaves like a restarted server
+        CompiledClassCache restarted = new CompiledClassCache(Optional.of(directory), "test", 100);
+        assertEquals(restarted.getEntryCount(), 1);
+        assertProjection(new PageFunctionCompiler(metadata, restarted), add(10L), 10, 11, 12);
+        assertEquals(restarted.getStats().getRequestCount(), 1);
+        assertEquals(restarted.getStats().getHitRate(), 1.0);
+
+        // a different constant generates different bytecode
+        assertProjection(new PageFunctionCompiler(metadata, restarted), add(20L), 20, 21, 22);
+        assertEquals(restarted.getStats().getRequestCount(), 2);
+        assertEquals(restarted.getStats().getHitRate(), 0.5);
+        assertEquals(restarted.getEntryCount(), 2);
+    }
+
+    @Test
+    public void testServerVersionChange()
+    {
+        CompiledClassCache cache = new CompiledClassCache(Optional.of(directory), "test", 100);
+        assertProjection(new PageFunctionCompiler(metadata, cache), add(10L), 10, 11, 12);
+
+        CompiledClassCache upgraded = new CompiledClassCache(Optional.of(directory), "upgraded", 100);
+        assertProjection(new PageFunctionCompiler(metadata, upgraded), add(10L), 10, 11, 12);
+        assertEquals(upgraded.getStats().getHitRate(), 0.0);
+    }
+
+    @Test
+    public void testEviction()
+    {
+        CompiledClassCache cache = new CompiledClassCache(Optional.of(directory), "test", 2);
+        for (long value = 0; value < 5; value++) {
+            assertProjection(new PageFunctionCompiler(metadata, cache), add(value), value, value + 1, value + 2);
+        }
+        assertTrue(cache.getEntryCount() <= 2);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        CompiledClassCache cache = CompiledClassCache.disabled();
+        assertProjection(new PageFunctionCompiler(metadata, cache), add(10L), 10, 11, 12);
+        assertEquals(cache.getStats().getRequestCount(), 0);
+    }
+
+    @Test
+    public void testCanonicalize()
+    {
+        assertEquals(CompiledClassCache.canonicalize(add(10L)), CompiledClassCache.canonicalize(add(10L)));
+        assertNotEquals(CompiledClassCache.canonicalize(add(10L)), CompiledClassCache.canonicalize(add(11L)));
+        assertNotEquals(CompiledClassCache.canonicalize(constant(10L, BIGINT)), CompiledClassCache.canonicalize(constant(10L, INTEGER)));
+        assertNotEquals(CompiledClassCache.canonicalize(field(0, BIGINT)), CompiledClassCache.canonicalize(field(1, BIGINT)));
+        assertTrue(CompiledClassCache.canonicalize(constant(utf8Slice("abc"), VARCHAR)).isPresent());
+
+        // values without a stable description cannot be cached
+        Block block = BIGINT.createFixedSizeBlockBuilder(0).build();
+        assertFalse(CompiledClassCache.canonicalize(constant(block, new ArrayType(BIGINT))).isPresent());
+    }
+
+    private static RowExpression add(long value)
+    {
+        return call(
+                Signature.internalOperator(ADD, BIGINT.getTypeSignature(), ImmutableList.of(BIGINT.getTypeSignature(), BIGINT.getTypeSignature())),
+                BIGINT,
+                field(0, BIGINT),
+                constant(value, BIGINT));
+    }
+
+    private static void assertProjection(PageFunctionCompiler compiler, RowExpression projection, long... expected)
+    {
+        PageProjection pageProjection = compiler.compileProjection(projection).get();
+
+        BlockBuilder builder = BIGINT.createFixedSizeBlockBuilder(expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            BIGINT.writeLong(builder, i);
+        }
+        Page page = new Page(builder.build());
+
+        Block result = pageProjection.project(SESSION, page, SelectedPositions.positionsRange(0, page.getPositionCount()));
+        assertEquals(result.getPositionCount(), expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(BIGINT.getLong(result, i), expected[i]);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestCompilerConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(CompilerConfig.class)
+                .setInterpreterEnabled(false)
+                .setClassCacheEnabled(false)
+                .setClassCacheDirectory(null)
+                .setClassCacheMaxEntries(10_000)
+                .setVectorizedEvaluationEnabled(false)
+                .setCommonSubexpressionEliminationEnabled(true)
+                .setDictionaryResultCacheMaxSize(new DataSize(32, MEGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("compiler.interpreter-enabled", "true")
+                .put("compiler.class-cache.enabled", "true")
+                .put("compiler.class-cache.directory", "/tmp/presto-classes")
+                .put("compiler.class-cache.max-entries", "500")
+                .put("compiler.vectorized-evaluation-enabled", "true")
+                .put("compiler.common-subexpression-elimination-enabled", "false")
+                .put("compiler.dictionary-result-cache.max-size", "1GB")
+                .build();
+
+        CompilerConfig expected = new CompilerConfig()
+                .setInterpreterEnabled(true)
+                .setClassCacheEnabled(true)
+                .setClassCacheDirectory("/tmp/presto-classes")
+                .setClassCacheMaxEntries(500)
+                .setVectorizedEvaluationEnabled(true)
+                .setCommonSubexpressionEliminationEnabled(false)
+                .setDictionaryResultCacheMaxSize(new DataSize(1, GIGABYTE));
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.XxHash64;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.Integer.highestOneBit;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Re-encodes blocks for long term storage. Columns with few distinct values are stored
+ * as a run length encoded or dictionary block, other columns are copied into a compact
+ * block so they don't retain the buffers of the pages they were written with.
+ */
+public final class BlockCompressor
+{
+    private BlockCompressor() {}
+
+    public static Block compress(Type type, Block block)
+    {
+        if (block instanceof RunLengthEncodedBlock) {
+            return block;
+        }
+        if (block instanceof DictionaryBlock) {
+            return ((DictionaryBlock) block).compact();
+        }
+
+        int positionCount = block.getPositionCount();
+        Block compacted = block.copyRegion(0, positionCount);
+        if (positionCount < 2 || !type.isComparable()) {
+            return compacted;
+        }
+
+        // a dictionary only pays off when at most half of the values are distinct
+        int maxDistinctCount = positionCount / 2;
+        int[] dictionaryPositions = new int[maxDistinctCount];
+        int distinctCount = 0;
+        int nullId = -1;
+
+        int[] ids = new int[positionCount];
+        int[] hashTable = new int[highestOneBit(maxDistinctCount) * 4];
+        int mask = hashTable.length - 1;
+        Arrays.fill(hashTable, -1);
+
+        for (int position = 0; position < positionCount; position++) {
+            if (compacted.isNull(position)) {
+                if (nullId < 0) {
+                    if (distinctCount == maxDistinctCount) {
+                        return compacted;
+                    }
+                    nullId = distinctCount;
+                    dictionaryPositions[distinctCount++] = position;
+                }
+                ids[position] = nullId;
+                continue;
+            }
+
+            int slot = (int) XxHash64.hash(type.hash(compacted, position)) & mask;
+            while (hashTable[slot] != -1 && !type.equalTo(compacted, dictionaryPositions[hashTable[slot]], compacted, position)) {
+                slot = (slot + 1) & mask;
+            }
+            if (hashTable[slot] == -1) {
+                if (distinctCount == maxDistinctCount) {
+                    return compacted;
+                }
+                hashTable[slot] = distinctCount;
+                dictionaryPositions[distinctCount++] = position;
+            }
+            ids[position] = hashTable[slot];
+        }
+
+        Block encoded;
+        if (distinctCount == 1) {
+            encoded = new RunLengthEncodedBlock(compacted.copyRegion(0, 1), positionCount);
+        }
+        else {
+            List<Integer> positions = Arrays.stream(dictionaryPositions, 0, distinctCount)
+                    .boxed()
+                    .collect(toList());
+            encoded = new DictionaryBlock(positionCount, compacted.copyPositions(positions), ids);
+        }
+
+        if (encoded.getRetainedSizeInBytes() < compacted.getRetainedSizeInBytes()) {
+            return encoded;
+        }
+        return compacted;
+    }
+}
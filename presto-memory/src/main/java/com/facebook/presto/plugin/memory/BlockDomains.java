@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
+import static java.lang.Float.intBitsToFloat;
+
+/**
+ * Summarizes the values of a block as a domain, used to skip pages that cannot match a predicate.
+ */
+public final class BlockDomains
+{
+    private BlockDomains() {}
+
+    public static Domain getDomain(Type type, Block block)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (!type.isOrderable() || (javaType != boolean.class && javaType != long.class && javaType != double.class && javaType != Slice.class)) {
+            return Domain.all(type);
+        }
+
+        boolean hasNull = false;
+        int minPosition = -1;
+        int maxPosition = -1;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                hasNull = true;
+                continue;
+            }
+            if (isNaN(type, block, position)) {
+                return Domain.all(type);
+            }
+            if (minPosition < 0 || type.compareTo(block, position, block, minPosition) < 0) {
+                minPosition = position;
+            }
+            if (maxPosition < 0 || type.compareTo(block, position, block, maxPosition) > 0) {
+                maxPosition = position;
+            }
+        }
+
+        if (minPosition < 0) {
+            return hasNull ? Domain.onlyNull(type) : Domain.none(type);
+        }
+        Range range = Range.range(type, getValue(type, block, minPosition), true, getValue(type, block, maxPosition), true);
+        return Domain.create(ValueSet.ofRanges(range), hasNull);
+    }
+
+    private static boolean isNaN(Type type, Block block, int position)
+    {
+        if (type.equals(DOUBLE)) {
+            return Double.isNaN(type.getDouble(block, position));
+        }
+        if (type.equals(REAL)) {
+            return Float.isNaN(intBitsToFloat((int) type.getLong(block, position)));
+        }
+        return false;
+    }
+
+    private static Object getValue(Type type, Block block, int position)
+    {
+        Object value = readNativeValue(type, block, position);
+        if (value instanceof Slice) {
+            // do not retain the buffer of the block
+            return Slices.copyOf((Slice) value);
+        }
+        return value;
+    }
+}
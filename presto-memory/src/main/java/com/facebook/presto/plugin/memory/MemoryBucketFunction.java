@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.spi.BucketFunction;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.XxHash64;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Assigns rows to partitions of a hash partitioned table. Used both by the engine
+ * to route rows to writers and by the page sink to split pages by partition.
+ */
+public class MemoryBucketFunction
+        implements BucketFunction
+{
+    private final int bucketCount;
+    private final List<Type> types;
+
+    public MemoryBucketFunction(int bucketCount, List<Type> types)
+    {
+        checkArgument(bucketCount > 0, "bucketCount must be at least one");
+        this.bucketCount = bucketCount;
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+    }
+
+    @SuppressWarnings("NumericCastThatLosesPrecision")
+    @Override
+    public int getBucket(Page page, int position)
+    {
+        long hash = 0;
+        for (int i = 0; i < page.getChannelCount(); i++) {
+            Block block = page.getBlock(i);
+            long value = block.isNull(position) ? 0 : XxHash64.hash(types.get(i).hash(block, position));
+            hash = (hash * 31) + value;
+        }
+        int value = (int) (hash & Integer.MAX_VALUE);
+        return value % bucketCount;
+    }
+}
@@ -22,6 +22,7 @@ public class MemoryConfig
 {
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = new DataSize(128, DataSize.Unit.MEGABYTE);
+    private boolean compressionEnabled = true;
 
     @NotNull
     public int getSplitsPerNode()
@@ -48,4 +49,16 @@ public class MemoryConfig
         this.maxDataPerNode = maxDataPerNode;
         return this;
     }
+
+    public boolean isCompressionEnabled()
+    {
+        return compressionEnabled;
+    }
+
+    @Config("memory.compression-enabled")
+    public MemoryConfig setCompressionEnabled(boolean compressionEnabled)
+    {
+        this.compressionEnabled = compressionEnabled;
+        return this;
+    }
 }
@@ -17,6 +17,7 @@ import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorNewTableLayout;
+import com.facebook.presto.spi.ConnectorNodePartitioning;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
@@ -47,11 +48,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.PARTITIONED_BY_PROPERTY;
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.PARTITION_COUNT_PROPERTY;
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.getPartitionCount;
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.getPartitionedBy;
 import static com.facebook.presto.spi.StandardErrorCode.ALREADY_EXISTS;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_TABLE_PROPERTY;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
@@ -166,7 +174,9 @@ public class MemoryMetadata
                 oldTableHandle.getSchemaName(),
                 newTableName.getTableName(),
                 oldTableHandle.getTableId(),
-                oldTableHandle.getColumnHandles());
+                oldTableHandle.getColumnHandles(),
+                oldTableHandle.getPartitionColumns(),
+                oldTableHandle.getPartitioning());
         tableIds.remove(oldTableHandle.toSchemaTableName());
         tableIds.put(newTableName, oldTableHandle.getTableId());
         tables.remove(oldTableHandle.getTableId());
@@ -176,10 +186,51 @@ public class MemoryMetadata
     @Override
     public synchronized void createTable(ConnectorSession session, ConnectorTableMetadata tableMetadata)
     {
-        ConnectorOutputTableHandle outputTableHandle = beginCreateTable(session, tableMetadata, Optional.empty());
+        Optional<ConnectorNewTableLayout> layout = getNewTableLayout(session, tableMetadata);
+        ConnectorOutputTableHandle outputTableHandle = beginCreateTable(session, tableMetadata, layout);
         finishCreateTable(session, outputTableHandle, ImmutableList.of());
     }
 
+    @Override
+    public synchronized Optional<ConnectorNewTableLayout> getNewTableLayout(ConnectorSession session, ConnectorTableMetadata tableMetadata)
+    {
+        List<String> partitionColumns = getPartitionedBy(tableMetadata.getProperties());
+        OptionalInt partitionCount = getPartitionCount(tableMetadata.getProperties());
+        if (partitionColumns.isEmpty()) {
+            if (partitionCount.isPresent()) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Table property %s requires %s to be set", PARTITION_COUNT_PROPERTY, PARTITIONED_BY_PROPERTY));
+            }
+            return Optional.empty();
+        }
+
+        Map<String, ColumnMetadata> columns = tableMetadata.getColumns().stream()
+                .collect(toMap(ColumnMetadata::getName, Function.identity()));
+        for (String partitionColumn : partitionColumns) {
+            ColumnMetadata column = columns.get(partitionColumn);
+            if (column == null) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Partition column [%s] does not exist", partitionColumn));
+            }
+            if (!column.getType().isComparable()) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Partition column [%s] has type %s, which is not comparable", partitionColumn, column.getType()));
+            }
+        }
+        if (partitionCount.isPresent() && partitionCount.getAsInt() <= 0) {
+            throw new PrestoException(INVALID_TABLE_PROPERTY, format("Table property %s must be greater than zero", PARTITION_COUNT_PROPERTY));
+        }
+
+        // assign partitions to the sorted workers round robin, so tables created with the same
+        // partition count on the same workers are partitioned identically and can be joined colocated
+        List<String> nodeIds = nodeManager.getRequiredWorkerNodes().stream()
+                .map(Node::getNodeIdentifier)
+                .sorted()
+                .collect(toList());
+        List<String> partitionToNode = IntStream.range(0, partitionCount.orElse(nodeIds.size()))
+                .mapToObj(partition -> nodeIds.get(partition % nodeIds.size()))
+                .collect(toList());
+
+        return Optional.of(new ConnectorNewTableLayout(new MemoryPartitioningHandle(partitionToNode), partitionColumns));
+    }
+
     @Override
     public synchronized MemoryOutputTableHandle beginCreateTable(ConnectorSession session, ConnectorTableMetadata tableMetadata, Optional<ConnectorNewTableLayout> layout)
     {
@@ -189,10 +240,16 @@ public class MemoryMetadata
         checkState(!nodes.isEmpty(), "No Memory nodes available");
 
         tableIds.put(tableMetadata.getTable(), nextId);
+        Optional<MemoryPartitioningHandle> partitioning = layout
+                .map(ConnectorNewTableLayout::getPartitioning)
+                .map(MemoryPartitioningHandle.class::cast);
+        checkArgument(partitioning.isPresent() == !getPartitionedBy(tableMetadata.getProperties()).isEmpty(), "Table layout does not match the table properties");
+
         MemoryTableHandle table = new MemoryTableHandle(
                 connectorId,
                 nextId,
-                tableMetadata);
+                tableMetadata,
+                partitioning);
         tables.put(table.getTableId(), table);
         tableDataFragments.put(table.getTableId(), new HashMap<>());
 
@@ -269,18 +326,24 @@ public class MemoryMetadata
         List<MemoryDataFragment> expectedFragments = ImmutableList.copyOf(
                 tableDataFragments.get(memoryTableHandle.getTableId()).values());
 
-        MemoryTableLayoutHandle layoutHandle = new MemoryTableLayoutHandle(memoryTableHandle, expectedFragments);
+        // the constraint is only used to skip pages, so it is not enforced
+        TupleDomain<MemoryColumnHandle> effectivePredicate = constraint.getSummary().transform(MemoryColumnHandle.class::cast);
+        MemoryTableLayoutHandle layoutHandle = new MemoryTableLayoutHandle(memoryTableHandle, expectedFragments, effectivePredicate);
         return ImmutableList.of(new ConnectorTableLayoutResult(getTableLayout(session, layoutHandle), constraint.getSummary()));
     }
 
     @Override
     public synchronized ConnectorTableLayout getTableLayout(ConnectorSession session, ConnectorTableLayoutHandle handle)
     {
+        MemoryTableHandle table = ((MemoryTableLayoutHandle) handle).getTable();
+        Optional<ConnectorNodePartitioning> nodePartitioning = table.getPartitioning()
+                .map(partitioning -> new ConnectorNodePartitioning(partitioning, ImmutableList.copyOf(table.getPartitionColumnHandles())));
+
         return new ConnectorTableLayout(
                 handle,
                 Optional.empty(),
                 TupleDomain.all(),
-                Optional.empty(),
+                nodePartitioning,
                 Optional.empty(),
                 Optional.empty(),
                 ImmutableList.of());
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.spi.BucketFunction;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.connector.ConnectorNodePartitioningProvider;
+import com.facebook.presto.spi.connector.ConnectorPartitioningHandle;
+import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableMap;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static java.util.Objects.requireNonNull;
+
+public class MemoryNodePartitioningProvider
+        implements ConnectorNodePartitioningProvider
+{
+    private final NodeManager nodeManager;
+
+    @Inject
+    public MemoryNodePartitioningProvider(NodeManager nodeManager)
+    {
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+    }
+
+    @Override
+    public Map<Integer, Node> getBucketToNode(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorPartitioningHandle partitioningHandle)
+    {
+        MemoryPartitioningHandle handle = (MemoryPartitioningHandle) partitioningHandle;
+
+        Map<String, Node> nodesById = uniqueIndex(nodeManager.getWorkerNodes(), Node::getNodeIdentifier);
+
+        ImmutableMap.Builder<Integer, Node> bucketToNode = ImmutableMap.builder();
+        List<String> partitionToNode = handle.getPartitionToNode();
+        for (int partition = 0; partition < partitionToNode.size(); partition++) {
+            Node node = nodesById.get(partitionToNode.get(partition));
+            if (node == null) {
+                // data of a partition exists only in the memory of its node
+                throw new PrestoException(MISSING_DATA, "Node for partition is offline: " + partitionToNode.get(partition));
+            }
+            bucketToNode.put(partition, node);
+        }
+        return bucketToNode.build();
+    }
+
+    @Override
+    public ToIntFunction<ConnectorSplit> getSplitBucketFunction(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorPartitioningHandle partitioningHandle)
+    {
+        return split -> ((MemorySplit) split).getPartition().getAsInt();
+    }
+
+    @Override
+    public BucketFunction getBucketFunction(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorPartitioningHandle partitioningHandle, List<Type> partitionChannelTypes, int bucketCount)
+    {
+        return new MemoryBucketFunction(bucketCount, partitionChannelTypes);
+    }
+}
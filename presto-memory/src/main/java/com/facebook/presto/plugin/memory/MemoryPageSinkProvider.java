@@ -20,20 +20,29 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.connector.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
 
 public class MemoryPageSinkProvider
         implements ConnectorPageSinkProvider
@@ -63,8 +72,8 @@ public class MemoryPageSinkProvider
         checkState(memoryOutputTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryOutputTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        pagesStore.initialize(tableId, tableHandle.getColumnTypes());
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableHandle);
     }
 
     @Override
@@ -76,8 +85,8 @@ public class MemoryPageSinkProvider
         checkState(memoryInsertTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryInsertTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        pagesStore.initialize(tableId, tableHandle.getColumnTypes());
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableHandle);
     }
 
     private static class MemoryPageSink
@@ -86,19 +95,27 @@ public class MemoryPageSinkProvider
         private final MemoryPagesStore pagesStore;
         private final HostAddress currentHostAddress;
         private final long tableId;
+        private final Optional<PartitionFunction> partitionFunction;
         private long addedRows;
 
-        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, long tableId)
+        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, MemoryTableHandle tableHandle)
         {
             this.pagesStore = requireNonNull(pagesStore, "pagesStore is null");
             this.currentHostAddress = requireNonNull(currentHostAddress, "currentHostAddress is null");
-            this.tableId = tableId;
+            this.tableId = tableHandle.getTableId();
+            this.partitionFunction = tableHandle.getPartitioning()
+                    .map(partitioning -> new PartitionFunction(tableHandle.getPartitionColumnHandles(), partitioning.getPartitionCount()));
         }
 
         @Override
         public CompletableFuture<?> appendPage(Page page)
         {
-            pagesStore.add(tableId, page);
+            if (partitionFunction.isPresent()) {
+                partitionFunction.get().partitionPage(page).forEach((partition, partitionPage) -> pagesStore.add(tableId, partition, partitionPage));
+            }
+            else {
+                pagesStore.add(tableId, 0, page);
+            }
             addedRows += page.getPositionCount();
             return NOT_BLOCKED;
         }
@@ -114,4 +131,52 @@ public class MemoryPageSinkProvider
         {
         }
     }
+
+    private static class PartitionFunction
+    {
+        private final int[] partitionChannels;
+        private final MemoryBucketFunction bucketFunction;
+
+        public PartitionFunction(List<MemoryColumnHandle> partitionColumns, int partitionCount)
+        {
+            this.partitionChannels = partitionColumns.stream()
+                    .mapToInt(MemoryColumnHandle::getColumnIndex)
+                    .toArray();
+            this.bucketFunction = new MemoryBucketFunction(
+                    partitionCount,
+                    partitionColumns.stream()
+                            .map(MemoryColumnHandle::getColumnType)
+                            .collect(toList()));
+        }
+
+        public Map<Integer, Page> partitionPage(Page page)
+        {
+            Block[] partitionBlocks = new Block[partitionChannels.length];
+            for (int i = 0; i < partitionChannels.length; i++) {
+                partitionBlocks[i] = page.getBlock(partitionChannels[i]);
+            }
+            Page partitionColumnsPage = new Page(page.getPositionCount(), partitionBlocks);
+
+            Map<Integer, List<Integer>> partitionPositions = new HashMap<>();
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                int partition = bucketFunction.getBucket(partitionColumnsPage, position);
+                partitionPositions.computeIfAbsent(partition, ignored -> new ArrayList<>()).add(position);
+            }
+
+            if (partitionPositions.size() == 1) {
+                return ImmutableMap.of(getOnlyElement(partitionPositions.keySet()), page);
+            }
+
+            ImmutableMap.Builder<Integer, Page> pages = ImmutableMap.builder();
+            for (Map.Entry<Integer, List<Integer>> entry : partitionPositions.entrySet()) {
+                List<Integer> positions = entry.getValue();
+                Block[] blocks = new Block[page.getChannelCount()];
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    blocks[channel] = page.getBlock(channel).copyPositions(positions);
+                }
+                pages.put(entry.getKey(), new Page(positions.size(), blocks));
+            }
+            return pages.build();
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
 
 import javax.inject.Inject;
 
@@ -52,15 +53,19 @@ public final class MemoryPageSourceProvider
         int partNumber = memorySplit.getPartNumber();
         int totalParts = memorySplit.getTotalPartsPerWorker();
         long expectedRows = memorySplit.getExpectedRows();
+        int partition = memorySplit.getPartition().orElse(0);
+        TupleDomain<Integer> predicate = memorySplit.getEffectivePredicate().transform(MemoryColumnHandle::getColumnIndex);
 
         List<Integer> columnIndexes = columns.stream()
                 .map(MemoryColumnHandle.class::cast)
                 .map(MemoryColumnHandle::getColumnIndex).collect(toList());
         List<Page> pages = pagesStore.getPages(
                 tableId,
+                partition,
                 partNumber,
                 totalParts,
                 columnIndexes,
+                predicate,
                 expectedRows);
 
         return new FixedPageSource(pages);
@@ -16,6 +16,9 @@ package com.facebook.presto.plugin.memory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -29,81 +32,125 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MEMORY_LIMIT_EXCEEDED;
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final boolean compressionEnabled;
 
-    @GuardedBy("this")
+    // scans only take the read lock, so they run concurrently with each other
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @GuardedBy("lock")
     private long currentBytes = 0;
 
+    @GuardedBy("lock")
     private final Map<Long, TableData> tables = new HashMap<>();
 
     @Inject
     public MemoryPagesStore(MemoryConfig config)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.compressionEnabled = config.isCompressionEnabled();
     }
 
-    public synchronized void initialize(long tableId)
+    public void initialize(long tableId, List<Type> columnTypes)
     {
-        if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new TableData());
+        lock.writeLock().lock();
+        try {
+            if (!tables.containsKey(tableId)) {
+                tables.put(tableId, new TableData(columnTypes));
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
         }
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public void add(Long tableId, int partition, Page page)
     {
-        if (!contains(tableId)) {
-            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
-        }
+        TableData tableData = getTableData(tableId);
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
-        if (maxBytes < newSize) {
-            throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
-        }
-        currentBytes = newSize;
+        // encode outside of the lock, as it is the expensive part of an insert
+        StoredPage storedPage = StoredPage.create(tableData.getColumnTypes(), page, compressionEnabled);
+
+        lock.writeLock().lock();
+        try {
+            if (tables.get(tableId) != tableData) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
+
+            long newSize = currentBytes + storedPage.getRetainedSizeInBytes();
+            if (maxBytes < newSize) {
+                throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+            }
+            currentBytes = newSize;
 
-        TableData tableData = tables.get(tableId);
-        tableData.add(page);
+            tableData.add(partition, storedPage);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized List<Page> getPages(
+    public List<Page> getPages(
             Long tableId,
+            int partition,
             int partNumber,
             int totalParts,
             List<Integer> columnIndexes,
+            TupleDomain<Integer> predicate,
             long expectedRows)
     {
-        if (!contains(tableId)) {
-            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
-        }
-        TableData tableData = tables.get(tableId);
-        if (tableData.getRows() < expectedRows) {
-            throw new PrestoException(MISSING_DATA,
-                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, tableData.getRows()));
-        }
+        lock.readLock().lock();
+        try {
+            if (!tables.containsKey(tableId)) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
+            TableData tableData = tables.get(tableId);
+            if (tableData.getRows() < expectedRows) {
+                throw new PrestoException(MISSING_DATA,
+                        format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, tableData.getRows()));
+            }
 
-        ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
+            ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
 
-        for (int i = partNumber; i < tableData.getPages().size(); i += totalParts) {
-            partitionedPages.add(getColumns(tableData.getPages().get(i), columnIndexes));
-        }
+            List<StoredPage> pages = tableData.getPages(partition);
+            for (int i = partNumber; i < pages.size(); i += totalParts) {
+                StoredPage page = pages.get(i);
+                if (page.mayMatch(predicate)) {
+                    partitionedPages.add(getColumns(page.getPage(), columnIndexes));
+                }
+            }
 
-        return partitionedPages.build();
+            return partitionedPages.build();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized boolean contains(Long tableId)
+    public boolean contains(Long tableId)
     {
-        return tables.containsKey(tableId);
+        lock.readLock().lock();
+        try {
+            return tables.containsKey(tableId);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized void cleanUp(Set<Long> activeTableIds)
+    public void cleanUp(Set<Long> activeTableIds)
     {
         // We have to remember that there might be some race conditions when there are two tables created at once.
         // That can lead to a situation when MemoryPagesStore already knows about a newer second table on some worker
@@ -119,16 +166,35 @@ public class MemoryPagesStore
         }
         long latestTableId  = Collections.max(activeTableIds);
 
-        for (Iterator<Map.Entry<Long, TableData>> tableDataIterator = tables.entrySet().iterator(); tableDataIterator.hasNext(); ) {
-            Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
-            Long tableId = tablePagesEntry.getKey();
-            if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
-                    currentBytes -= removedPage.getRetainedSizeInBytes();
+        lock.writeLock().lock();
+        try {
+            for (Iterator<Map.Entry<Long, TableData>> tableDataIterator = tables.entrySet().iterator(); tableDataIterator.hasNext(); ) {
+                Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
+                Long tableId = tablePagesEntry.getKey();
+                if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
+                    currentBytes -= tablePagesEntry.getValue().getRetainedSizeInBytes();
+                    tableDataIterator.remove();
                 }
-                tableDataIterator.remove();
             }
         }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TableData getTableData(Long tableId)
+    {
+        lock.readLock().lock();
+        try {
+            TableData tableData = tables.get(tableId);
+            if (tableData == null) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
+            return tableData;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
     private static Page getColumns(Page page, List<Integer> columnIndexes)
@@ -145,23 +211,93 @@ public class MemoryPagesStore
 
     private static final class TableData
     {
-        private List<Page> pages = new ArrayList<>();
+        private final List<Type> columnTypes;
+        private final Map<Integer, List<StoredPage>> partitions = new HashMap<>();
         private long rows;
+        private long retainedSizeInBytes;
 
-        public void add(Page page)
+        public TableData(List<Type> columnTypes)
         {
-            pages.add(page);
-            rows += page.getPositionCount();
+            this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
         }
 
-        private List<Page> getPages()
+        public void add(int partition, StoredPage page)
         {
-            return pages;
+            partitions.computeIfAbsent(partition, ignored -> new ArrayList<>()).add(page);
+            rows += page.getPage().getPositionCount();
+            retainedSizeInBytes += page.getRetainedSizeInBytes();
+        }
+
+        private List<Type> getColumnTypes()
+        {
+            return columnTypes;
+        }
+
+        private List<StoredPage> getPages(int partition)
+        {
+            return partitions.getOrDefault(partition, ImmutableList.of());
         }
 
         private long getRows()
         {
             return rows;
         }
+
+        private long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+    }
+
+    private static final class StoredPage
+    {
+        private final Page page;
+        private final List<Domain> columnDomains;
+
+        public static StoredPage create(List<Type> columnTypes, Page page, boolean compress)
+        {
+            checkArgument(page.getChannelCount() == columnTypes.size(), "Expected %s columns, but page has %s", columnTypes.size(), page.getChannelCount());
+
+            Block[] blocks = new Block[page.getChannelCount()];
+            ImmutableList.Builder<Domain> columnDomains = ImmutableList.builder();
+            for (int channel = 0; channel < blocks.length; channel++) {
+                Type type = columnTypes.get(channel);
+                Block block = page.getBlock(channel);
+                block.assureLoaded();
+                blocks[channel] = compress ? BlockCompressor.compress(type, block) : block.copyRegion(0, block.getPositionCount());
+                columnDomains.add(BlockDomains.getDomain(type, block));
+            }
+            return new StoredPage(new Page(page.getPositionCount(), blocks), columnDomains.build());
+        }
+
+        private StoredPage(Page page, List<Domain> columnDomains)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.columnDomains = requireNonNull(columnDomains, "columnDomains is null");
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return page.getRetainedSizeInBytes();
+        }
+
+        public boolean mayMatch(TupleDomain<Integer> predicate)
+        {
+            if (predicate.isNone()) {
+                return false;
+            }
+            for (Map.Entry<Integer, Domain> entry : predicate.getDomains().get().entrySet()) {
+                Domain pageDomain = columnDomains.get(entry.getKey());
+                if (!pageDomain.overlaps(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
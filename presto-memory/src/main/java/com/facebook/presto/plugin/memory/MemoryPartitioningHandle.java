@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.spi.connector.ConnectorPartitioningHandle;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hash partitioning of a table, with the identifier of the node that stores each partition.
+ * Tables created on the same set of workers with the same partition count get equal handles,
+ * which allows colocated joins between them.
+ */
+public class MemoryPartitioningHandle
+        implements ConnectorPartitioningHandle
+{
+    private final List<String> partitionToNode;
+
+    @JsonCreator
+    public MemoryPartitioningHandle(@JsonProperty("partitionToNode") List<String> partitionToNode)
+    {
+        requireNonNull(partitionToNode, "partitionToNode is null");
+        checkArgument(!partitionToNode.isEmpty(), "partitionToNode is empty");
+        this.partitionToNode = ImmutableList.copyOf(partitionToNode);
+    }
+
+    @JsonProperty
+    public List<String> getPartitionToNode()
+    {
+        return partitionToNode;
+    }
+
+    public int getPartitionCount()
+    {
+        return partitionToNode.size();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        MemoryPartitioningHandle other = (MemoryPartitioningHandle) obj;
+        return Objects.equals(this.partitionToNode, other.partitionToNode);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(partitionToNode);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("partitionCount", partitionToNode.size())
+                .toString();
+    }
+}
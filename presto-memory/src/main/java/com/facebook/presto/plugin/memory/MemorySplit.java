@@ -15,12 +15,14 @@ package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalInt;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
@@ -34,6 +36,8 @@ public class MemorySplit
     private final int partNumber; // part of the pages on one worker that this splits is responsible
     private final HostAddress address;
     private final long expectedRows;
+    private final OptionalInt partition; // hash partition of the table that this split reads
+    private final TupleDomain<MemoryColumnHandle> effectivePredicate;
 
     @JsonCreator
     public MemorySplit(
@@ -41,7 +45,9 @@ public class MemorySplit
             @JsonProperty("partNumber") int partNumber,
             @JsonProperty("totalPartsPerWorker") int totalPartsPerWorker,
             @JsonProperty("address") HostAddress address,
-            @JsonProperty("expectedRows") long expectedRows)
+            @JsonProperty("expectedRows") long expectedRows,
+            @JsonProperty("partition") OptionalInt partition,
+            @JsonProperty("effectivePredicate") TupleDomain<MemoryColumnHandle> effectivePredicate)
     {
         checkState(partNumber >= 0, "partNumber must be >= 0");
         checkState(totalPartsPerWorker >= 1, "totalPartsPerWorker must be >= 1");
@@ -52,6 +58,8 @@ public class MemorySplit
         this.totalPartsPerWorker = totalPartsPerWorker;
         this.address = requireNonNull(address, "address is null");
         this.expectedRows = expectedRows;
+        this.partition = requireNonNull(partition, "partition is null");
+        this.effectivePredicate = requireNonNull(effectivePredicate, "effectivePredicate is null");
     }
 
     @JsonProperty
@@ -102,6 +110,18 @@ public class MemorySplit
         return expectedRows;
     }
 
+    @JsonProperty
+    public OptionalInt getPartition()
+    {
+        return partition;
+    }
+
+    @JsonProperty
+    public TupleDomain<MemoryColumnHandle> getEffectivePredicate()
+    {
+        return effectivePredicate;
+    }
+
     @Override
     public boolean equals(Object obj)
     {
@@ -114,13 +134,14 @@ public class MemorySplit
         MemorySplit other = (MemorySplit) obj;
         return Objects.equals(this.tableHandle, other.tableHandle) &&
                 Objects.equals(this.totalPartsPerWorker, other.totalPartsPerWorker) &&
-                Objects.equals(this.partNumber, other.partNumber);
+                Objects.equals(this.partNumber, other.partNumber) &&
+                Objects.equals(this.partition, other.partition);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(tableHandle, totalPartsPerWorker, partNumber);
+        return Objects.hash(tableHandle, totalPartsPerWorker, partNumber, partition);
     }
 
     @Override
@@ -130,6 +151,7 @@ public class MemorySplit
                 .add("tableHandle", tableHandle)
                 .add("partNumber", partNumber)
                 .add("totalPartsPerWorker", totalPartsPerWorker)
+                .add("partition", partition)
                 .toString();
     }
 }
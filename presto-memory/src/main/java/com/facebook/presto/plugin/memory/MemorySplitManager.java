@@ -19,6 +19,10 @@ import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
 import com.facebook.presto.spi.FixedSplitSource;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.connector.ConnectorSplitManager;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.google.common.collect.ImmutableList;
@@ -26,15 +30,25 @@ import com.google.common.collect.ImmutableList;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toMap;
 
 public final class MemorySplitManager
         implements ConnectorSplitManager
 {
+    private final NodeManager nodeManager;
     private final int splitsPerNode;
 
     @Inject
-    public MemorySplitManager(MemoryConfig config)
+    public MemorySplitManager(NodeManager nodeManager, MemoryConfig config)
     {
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.splitsPerNode = config.getSplitsPerNode();
     }
 
@@ -42,8 +56,15 @@ public final class MemorySplitManager
     public ConnectorSplitSource getSplits(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorTableLayoutHandle layoutHandle, List<ColumnHandle> columns)
     {
         MemoryTableLayoutHandle layout = (MemoryTableLayoutHandle) layoutHandle;
+        if (layout.getConstraint().isNone()) {
+            return new FixedSplitSource(ImmutableList.of());
+        }
 
         List<MemoryDataFragment> dataFragments = layout.getDataFragments();
+        Optional<MemoryPartitioningHandle> partitioning = layout.getTable().getPartitioning();
+        if (partitioning.isPresent()) {
+            return new FixedSplitSource(getPartitionSplits(layout, partitioning.get(), dataFragments));
+        }
 
         ImmutableList.Builder<ConnectorSplit> splits = ImmutableList.builder();
         for (MemoryDataFragment dataFragment : dataFragments) {
@@ -54,9 +75,42 @@ public final class MemorySplitManager
                                 i,
                                 splitsPerNode,
                                 dataFragment.getHostAddress(),
-                                dataFragment.getRows()));
+                                dataFragment.getRows(),
+                                OptionalInt.empty(),
+                                layout.getConstraint()));
             }
         }
         return new FixedSplitSource(splits.build());
     }
+
+    private List<ConnectorSplit> getPartitionSplits(MemoryTableLayoutHandle layout, MemoryPartitioningHandle partitioning, List<MemoryDataFragment> dataFragments)
+    {
+        Map<String, HostAddress> hostsByNode = nodeManager.getWorkerNodes().stream()
+                .collect(toMap(Node::getNodeIdentifier, Node::getHostAndPort));
+        Map<HostAddress, MemoryDataFragment> fragmentsByHost = uniqueIndex(dataFragments, MemoryDataFragment::getHostAddress);
+
+        ImmutableList.Builder<ConnectorSplit> splits = ImmutableList.builder();
+        List<String> partitionToNode = partitioning.getPartitionToNode();
+        for (int partition = 0; partition < partitionToNode.size(); partition++) {
+            HostAddress address = hostsByNode.get(partitionToNode.get(partition));
+            if (address == null) {
+                throw new PrestoException(MISSING_DATA, "Node for partition is offline: " + partitionToNode.get(partition));
+            }
+            MemoryDataFragment dataFragment = fragmentsByHost.get(address);
+            if (dataFragment == null) {
+                // nothing was written to the node of this partition
+                continue;
+            }
+            splits.add(
+                    new MemorySplit(
+                            layout.getTable(),
+                            0,
+                            1,
+                            address,
+                            dataFragment.getRows(),
+                            OptionalInt.of(partition),
+                            layout.getConstraint()));
+        }
+        return splits.build();
+    }
 }
@@ -16,13 +16,22 @@ package com.facebook.presto.plugin.memory;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.type.Type;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.PARTITIONED_BY_PROPERTY;
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.PARTITION_COUNT_PROPERTY;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Maps.uniqueIndex;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -34,17 +43,32 @@ public final class MemoryTableHandle
     private final String tableName;
     private final Long tableId;
     private final List<MemoryColumnHandle> columnHandles;
+    private final List<String> partitionColumns;
+    private final Optional<MemoryPartitioningHandle> partitioning;
 
     public MemoryTableHandle(
             String connectorId,
             Long tableId,
-            ConnectorTableMetadata tableMetadata)
+            ConnectorTableMetadata tableMetadata,
+            Optional<MemoryPartitioningHandle> partitioning)
     {
         this(connectorId,
                 tableMetadata.getTable().getSchemaName(),
                 tableMetadata.getTable().getTableName(),
                 tableId,
-                MemoryColumnHandle.extractColumnHandles(tableMetadata.getColumns()));
+                MemoryColumnHandle.extractColumnHandles(tableMetadata.getColumns()),
+                MemoryTableProperties.getPartitionedBy(tableMetadata.getProperties()),
+                partitioning);
+    }
+
+    public MemoryTableHandle(
+            String connectorId,
+            String schemaName,
+            String tableName,
+            Long tableId,
+            List<MemoryColumnHandle> columnHandles)
+    {
+        this(connectorId, schemaName, tableName, tableId, columnHandles, ImmutableList.of(), Optional.empty());
     }
 
     @JsonCreator
@@ -53,13 +77,18 @@ public final class MemoryTableHandle
             @JsonProperty("schemaName") String schemaName,
             @JsonProperty("tableName") String tableName,
             @JsonProperty("tableId") Long tableId,
-            @JsonProperty("columnHandles") List<MemoryColumnHandle> columnHandles)
+            @JsonProperty("columnHandles") List<MemoryColumnHandle> columnHandles,
+            @JsonProperty("partitionColumns") List<String> partitionColumns,
+            @JsonProperty("partitioning") Optional<MemoryPartitioningHandle> partitioning)
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null");
         this.schemaName = requireNonNull(schemaName, "schemaName is null");
         this.tableName = requireNonNull(tableName, "tableName is null");
         this.tableId = requireNonNull(tableId, "tableId is null");
         this.columnHandles = requireNonNull(columnHandles, "columnHandles is null");
+        this.partitionColumns = ImmutableList.copyOf(requireNonNull(partitionColumns, "partitionColumns is null"));
+        this.partitioning = requireNonNull(partitioning, "partitioning is null");
+        checkArgument(partitionColumns.isEmpty() == !partitioning.isPresent(), "partitionColumns and partitioning must be set together");
     }
 
     @JsonProperty
@@ -92,11 +121,44 @@ public final class MemoryTableHandle
         return columnHandles;
     }
 
+    @JsonProperty
+    public List<String> getPartitionColumns()
+    {
+        return partitionColumns;
+    }
+
+    @JsonProperty
+    public Optional<MemoryPartitioningHandle> getPartitioning()
+    {
+        return partitioning;
+    }
+
+    public List<MemoryColumnHandle> getPartitionColumnHandles()
+    {
+        Map<String, MemoryColumnHandle> columnsByName = uniqueIndex(columnHandles, MemoryColumnHandle::getName);
+        return partitionColumns.stream()
+                .map(columnsByName::get)
+                .collect(toList());
+    }
+
+    public List<Type> getColumnTypes()
+    {
+        return columnHandles.stream()
+                .map(MemoryColumnHandle::getColumnType)
+                .collect(toList());
+    }
+
     public ConnectorTableMetadata toTableMetadata()
     {
+        ImmutableMap.Builder<String, Object> properties = ImmutableMap.builder();
+        if (partitioning.isPresent()) {
+            properties.put(PARTITIONED_BY_PROPERTY, partitionColumns);
+            properties.put(PARTITION_COUNT_PROPERTY, partitioning.get().getPartitionCount());
+        }
         return new ConnectorTableMetadata(
                 toSchemaTableName(),
-                columnHandles.stream().map(MemoryColumnHandle::toColumnMetadata).collect(toList()));
+                columnHandles.stream().map(MemoryColumnHandle::toColumnMetadata).collect(toList()),
+                properties.build());
     }
 
     public SchemaTableName toSchemaTableName()
@@ -133,6 +195,7 @@ public final class MemoryTableHandle
                 .add("tableName", tableName)
                 .add("tableId", tableId)
                 .add("columnHandles", columnHandles)
+                .add("partitionColumns", partitionColumns)
                 .toString();
     }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -26,14 +27,17 @@ public class MemoryTableLayoutHandle
 {
     private final MemoryTableHandle table;
     private final List<MemoryDataFragment> dataFragments;
+    private final TupleDomain<MemoryColumnHandle> constraint;
 
     @JsonCreator
     public MemoryTableLayoutHandle(
             @JsonProperty("table") MemoryTableHandle table,
-            @JsonProperty("dataFragments") List<MemoryDataFragment> dataFragments)
+            @JsonProperty("dataFragments") List<MemoryDataFragment> dataFragments,
+            @JsonProperty("constraint") TupleDomain<MemoryColumnHandle> constraint)
     {
         this.table = requireNonNull(table, "table is null");
         this.dataFragments = requireNonNull(dataFragments, "dataFragments is null");
+        this.constraint = requireNonNull(constraint, "constraint is null");
     }
 
     @JsonProperty
@@ -48,6 +52,12 @@ public class MemoryTableLayoutHandle
         return dataFragments;
     }
 
+    @JsonProperty
+    public TupleDomain<MemoryColumnHandle> getConstraint()
+    {
+        return constraint;
+    }
+
     public String getConnectorId()
     {
         return table.getConnectorId();
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.spi.session.PropertyMetadata;
+import com.facebook.presto.spi.type.TypeManager;
+import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableList;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.spi.session.PropertyMetadata.integerSessionProperty;
+import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
+import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
+import static java.util.Locale.ENGLISH;
+import static java.util.stream.Collectors.toList;
+
+public class MemoryTableProperties
+{
+    public static final String PARTITIONED_BY_PROPERTY = "partitioned_by";
+    public static final String PARTITION_COUNT_PROPERTY = "partition_count";
+
+    private final List<PropertyMetadata<?>> tableProperties;
+
+    @Inject
+    public MemoryTableProperties(TypeManager typeManager)
+    {
+        tableProperties = ImmutableList.<PropertyMetadata<?>>builder()
+                .add(new PropertyMetadata<>(
+                        PARTITIONED_BY_PROPERTY,
+                        "Table columns on which to hash partition the table",
+                        typeManager.getParameterizedType(ARRAY, ImmutableList.of(TypeSignatureParameter.of(createUnboundedVarcharType().getTypeSignature()))),
+                        List.class,
+                        ImmutableList.of(),
+                        false,
+                        value -> ImmutableList.copyOf(stringList(value).stream()
+                                .map(name -> name.toLowerCase(ENGLISH))
+                                .collect(toList())),
+                        value -> value))
+                .add(integerSessionProperty(
+                        PARTITION_COUNT_PROPERTY,
+                        "Number of hash partitions, each read by a single split (defaults to the number of workers)",
+                        null,
+                        false))
+                .build();
+    }
+
+    public List<PropertyMetadata<?>> getTableProperties()
+    {
+        return tableProperties;
+    }
+
+    public static List<String> getPartitionedBy(Map<String, Object> tableProperties)
+    {
+        return stringList(tableProperties.get(PARTITIONED_BY_PROPERTY));
+    }
+
+    public static OptionalInt getPartitionCount(Map<String, Object> tableProperties)
+    {
+        Integer value = (Integer) tableProperties.get(PARTITION_COUNT_PROPERTY);
+        return (value != null) ? OptionalInt.of(value) : OptionalInt.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stringList(Object value)
+    {
+        return (value == null) ? ImmutableList.of() : ((List<String>) value);
+    }
+}
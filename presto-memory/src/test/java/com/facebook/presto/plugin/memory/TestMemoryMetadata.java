@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.plugin.memory;
 
+import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ConnectorNodePartitioning;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableLayout;
@@ -29,10 +31,17 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.PARTITIONED_BY_PROPERTY;
+import static com.facebook.presto.plugin.memory.MemoryTableProperties.PARTITION_COUNT_PROPERTY;
 import static com.facebook.presto.spi.StandardErrorCode.ALREADY_EXISTS;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_TABLE_PROPERTY;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
@@ -170,6 +179,64 @@ public class TestMemoryMetadata
         assertEquals(metadata.listTables(SESSION, "default"), ImmutableList.of());
     }
 
+    @Test
+    public void testPartitionedTable()
+    {
+        assertNoTables();
+
+        List<ColumnMetadata> columns = ImmutableList.of(new ColumnMetadata("a", BIGINT), new ColumnMetadata("b", VARCHAR));
+        Map<String, Object> properties = ImmutableMap.of(PARTITIONED_BY_PROPERTY, ImmutableList.of("b"), PARTITION_COUNT_PROPERTY, 3);
+
+        SchemaTableName firstTableName = new SchemaTableName("default", "first_table");
+        metadata.createTable(SESSION, new ConnectorTableMetadata(firstTableName, columns, properties));
+        SchemaTableName secondTableName = new SchemaTableName("default", "second_table");
+        metadata.createTable(SESSION, new ConnectorTableMetadata(secondTableName, columns, properties));
+
+        ConnectorTableHandle firstTable = metadata.getTableHandle(SESSION, firstTableName);
+        assertEquals(metadata.getTableMetadata(SESSION, firstTable).getProperties(), properties);
+
+        ConnectorNodePartitioning firstPartitioning = getNodePartitioning(firstTable);
+        assertEquals(firstPartitioning.getPartitioningColumns(), ImmutableList.of(new MemoryColumnHandle("b", VARCHAR, 1)));
+        assertEquals(((MemoryPartitioningHandle) firstPartitioning.getPartitioningHandle()).getPartitionToNode(), ImmutableList.of("local", "local", "local"));
+
+        // tables with the same partition count on the same workers can be joined colocated
+        ConnectorNodePartitioning secondPartitioning = getNodePartitioning(metadata.getTableHandle(SESSION, secondTableName));
+        assertEquals(secondPartitioning.getPartitioningHandle(), firstPartitioning.getPartitioningHandle());
+    }
+
+    @Test
+    public void testInvalidPartitionColumn()
+    {
+        SchemaTableName tableName = new SchemaTableName("default", "test");
+        List<ColumnMetadata> columns = ImmutableList.of(new ColumnMetadata("a", BIGINT));
+
+        try {
+            metadata.createTable(SESSION, new ConnectorTableMetadata(tableName, columns, ImmutableMap.of(PARTITIONED_BY_PROPERTY, ImmutableList.of("missing"))));
+            fail("Should fail because the partition column does not exist");
+        }
+        catch (PrestoException ex) {
+            assertEquals(ex.getErrorCode(), INVALID_TABLE_PROPERTY.toErrorCode());
+            assertEquals(ex.getMessage(), "Partition column [missing] does not exist");
+        }
+
+        try {
+            metadata.createTable(SESSION, new ConnectorTableMetadata(tableName, columns, ImmutableMap.of(PARTITION_COUNT_PROPERTY, 3)));
+            fail("Should fail because the partition columns are not set");
+        }
+        catch (PrestoException ex) {
+            assertEquals(ex.getErrorCode(), INVALID_TABLE_PROPERTY.toErrorCode());
+        }
+        assertNoTables();
+    }
+
+    private ConnectorNodePartitioning getNodePartitioning(ConnectorTableHandle tableHandle)
+    {
+        List<ConnectorTableLayoutResult> tableLayouts = metadata.getTableLayouts(SESSION, tableHandle, Constraint.alwaysTrue(), Optional.empty());
+        Optional<ConnectorNodePartitioning> nodePartitioning = getOnlyElement(tableLayouts).getTableLayout().getNodePartitioning();
+        assertTrue(nodePartitioning.isPresent(), "Expected the layout to be partitioned");
+        return nodePartitioning.get();
+    }
+
     private void assertNoTables()
     {
         assertEquals(metadata.listTables(SESSION, null), ImmutableList.of(), "No table was expected");
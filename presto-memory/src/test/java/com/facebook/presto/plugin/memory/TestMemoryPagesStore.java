@@ -21,15 +21,24 @@ import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
+import java.util.stream.LongStream;
+
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -54,7 +63,7 @@ public class TestMemoryPagesStore
     public void testCreateEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0), ImmutableList.of());
+        assertEquals(pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), 0), ImmutableList.of());
     }
 
     @Test
@@ -62,28 +71,28 @@ public class TestMemoryPagesStore
     {
         createTable(0L, 0L);
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), POSITIONS_PER_PAGE).size(), 1);
     }
 
     @Test
     public void testInsertPageWithoutCreate()
     {
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), POSITIONS_PER_PAGE).size(), 1);
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testReadFromUnknownTable()
     {
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0);
+        pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), 0);
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testTryToReadFromEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0), ImmutableList.of());
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 42);
+        assertEquals(pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), 0), ImmutableList.of());
+        pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), 42);
     }
 
     @Test
@@ -118,6 +127,63 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testCompression()
+    {
+        createTable(0L, 0L);
+        insertToTable(0L, createPage(LongStream.range(0, 1000).map(i -> 42).toArray()), 0L);
+        insertToTable(0L, createPage(LongStream.range(0, 1000).map(i -> i % 3).toArray()), 0L);
+        insertToTable(0L, createPage(LongStream.range(0, 1000).toArray()), 0L);
+
+        List<Page> pages = pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), 3000);
+        assertEquals(pages.size(), 3);
+        assertTrue(pages.get(0).getBlock(0) instanceof RunLengthEncodedBlock);
+        assertTrue(pages.get(1).getBlock(0) instanceof DictionaryBlock);
+        assertEquals(((DictionaryBlock) pages.get(1).getBlock(0)).getDictionary().getPositionCount(), 3);
+        assertFalse(pages.get(2).getBlock(0) instanceof DictionaryBlock);
+
+        for (int position = 0; position < 1000; position++) {
+            assertEquals(BIGINT.getLong(pages.get(0).getBlock(0), position), 42L);
+            assertEquals(BIGINT.getLong(pages.get(1).getBlock(0), position), position % 3);
+            assertEquals(BIGINT.getLong(pages.get(2).getBlock(0), position), position);
+        }
+    }
+
+    @Test
+    public void testPagePruning()
+    {
+        createTable(0L, 0L);
+        insertToTable(0L, createPage(1L, 2L, 3L), 0L);
+        insertToTable(0L, createPage(10L, 20L, 30L), 0L);
+
+        assertEquals(getPositionCounts(TupleDomain.all()), ImmutableList.of(3, 3));
+        assertEquals(getPositionCounts(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 2L)))), ImmutableList.of(3));
+        assertEquals(getPositionCounts(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 20L)))), ImmutableList.of(3));
+        assertEquals(getPositionCounts(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 5L)))), ImmutableList.of());
+        assertEquals(getPositionCounts(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.onlyNull(BIGINT)))), ImmutableList.of());
+        assertEquals(getPositionCounts(TupleDomain.none()), ImmutableList.of());
+    }
+
+    @Test
+    public void testPartitions()
+    {
+        createTable(0L, 0L);
+        pagesStore.add(0L, 0, createPage(1L, 2L));
+        pagesStore.add(0L, 1, createPage(3L));
+        pagesStore.add(0L, 1, createPage(4L, 5L));
+
+        assertEquals(pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), TupleDomain.all(), 5).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 1, 0, 1, ImmutableList.of(0), TupleDomain.all(), 5).size(), 2);
+        assertEquals(pagesStore.getPages(0L, 2, 0, 1, ImmutableList.of(0), TupleDomain.all(), 5).size(), 0);
+    }
+
+    private List<Integer> getPositionCounts(TupleDomain<Integer> predicate)
+    {
+        return pagesStore.getPages(0L, 0, 0, 1, ImmutableList.of(0), predicate, 0).stream()
+                .map(Page::getPositionCount)
+                .collect(toList());
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -150,7 +216,7 @@ public class TestMemoryPagesStore
                         "schema",
                         format("table_%d", tableId),
                         tableId,
-                        ImmutableList.of()),
+                        ImmutableList.of(new MemoryColumnHandle("a", BIGINT, 0))),
                 ImmutableSet.copyOf(activeTableIds));
     }
 
@@ -162,7 +228,7 @@ public class TestMemoryPagesStore
                         "schema",
                         format("table_%d", tableId),
                         tableId,
-                        ImmutableList.of()),
+                        ImmutableList.of(new MemoryColumnHandle("a", BIGINT, 0))),
                 ImmutableSet.copyOf(activeTableIds));
     }
 
@@ -173,11 +239,22 @@ public class TestMemoryPagesStore
         return new Page(0, blockBuilder.build());
     }
 
+    private static Page createPage(long... values)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(values.length);
+        for (long value : values) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        return new Page(values.length, blockBuilder.build());
+    }
+
     private static Page createOneMegaBytePage()
     {
         BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(POSITIONS_PER_PAGE);
+        // distinct values, so the page is not made smaller by dictionary encoding
+        long value = 0;
         while (blockBuilder.getRetainedSizeInBytes() < 1024 * 1024) {
-            BIGINT.writeLong(blockBuilder, 42L);
+            BIGINT.writeLong(blockBuilder, value++);
         }
         return new Page(0, blockBuilder.build());
     }
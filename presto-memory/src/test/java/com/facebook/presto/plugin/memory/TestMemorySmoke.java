@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.plugin.memory;
 
+import com.facebook.presto.Session;
 import com.facebook.presto.metadata.QualifiedObjectName;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.MaterializedRow;
@@ -134,6 +135,37 @@ public class TestMemorySmoke
         assertQueryResult(format("SELECT count(*) FROM %s.schema2.nation", CATALOG), 12L);
     }
 
+    @Test
+    public void testPartitionedTable()
+    {
+        queryRunner.execute("CREATE TABLE orders_partitioned WITH (partitioned_by = ARRAY['orderkey'], partition_count = 7) AS SELECT * FROM tpch.tiny.orders");
+        queryRunner.execute("CREATE TABLE lineitem_partitioned WITH (partitioned_by = ARRAY['orderkey'], partition_count = 7) AS SELECT * FROM tpch.tiny.lineitem");
+
+        assertQuery("SELECT count(*) FROM orders_partitioned", "SELECT count(*) FROM tpch.tiny.orders");
+        assertQuery("SELECT * FROM orders_partitioned WHERE orderkey = 7", "SELECT * FROM tpch.tiny.orders WHERE orderkey = 7");
+
+        Session colocated = Session.builder(queryRunner.getDefaultSession())
+                .setSystemProperty("colocated_join", "true")
+                .build();
+        String joinQuery = "SELECT count(*), sum(l.quantity) FROM %s o JOIN %s l ON o.orderkey = l.orderkey WHERE o.orderstatus = 'F'";
+        assertEquals(
+                queryRunner.execute(colocated, format(joinQuery, "orders_partitioned", "lineitem_partitioned")),
+                queryRunner.execute(format(joinQuery, "tpch.tiny.orders", "tpch.tiny.lineitem")));
+
+        queryRunner.execute("INSERT INTO orders_partitioned SELECT * FROM tpch.tiny.orders WHERE orderkey < 100");
+        assertQuery("SELECT count(*) FROM orders_partitioned WHERE orderkey < 100", "SELECT 2 * count(*) FROM tpch.tiny.orders WHERE orderkey < 100");
+    }
+
+    @Test
+    public void testSelectWithPredicate()
+    {
+        queryRunner.execute("CREATE TABLE test_predicate AS SELECT * FROM tpch.tiny.lineitem");
+
+        assertQuery("SELECT count(*) FROM test_predicate WHERE orderkey BETWEEN 100 AND 200", "SELECT count(*) FROM tpch.tiny.lineitem WHERE orderkey BETWEEN 100 AND 200");
+        assertQuery("SELECT count(*) FROM test_predicate WHERE shipmode = 'AIR'", "SELECT count(*) FROM tpch.tiny.lineitem WHERE shipmode = 'AIR'");
+        assertQueryResult("SELECT count(*) FROM test_predicate WHERE orderkey < 0", 0L);
+    }
+
     private List<QualifiedObjectName> listMemoryTables()
     {
         return queryRunner.listTables(queryRunner.getDefaultSession(), "memory", "default");
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.ChunkedSliceInput;
 import io.airlift.slice.ChunkedSliceInput.BufferReference;
@@ -23,14 +24,28 @@ import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.orc.OrcDataSourceUtils.getDiskRangeSlice;
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.propagateIfPossible;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -42,10 +57,32 @@ public abstract class AbstractOrcDataSource
     private final DataSize maxMergeDistance;
     private final DataSize maxBufferSize;
     private final DataSize streamBufferSize;
+    private final Optional<Executor> ioExecutor;
+    private final long maxInFlightBytes;
     private long readTimeNanos;
     private long readBytes;
 
+    // ranges being read in the background; only accessed by the reading thread
+    private final List<PrefetchedRange> prefetchedRanges = new ArrayList<>();
+
     public AbstractOrcDataSource(OrcDataSourceId id, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize)
+    {
+        this(id, size, maxMergeDistance, maxBufferSize, streamBufferSize, Optional.empty(), new DataSize(0, BYTE));
+    }
+
+    /**
+     * @param ioExecutor executor used to read merged disk ranges concurrently and to read ahead;
+     * when present, {@link #readInternal} must be safe to call from multiple threads
+     * @param maxInFlightSize maximum number of bytes read concurrently or ahead by this data source
+     */
+    public AbstractOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize,
+            DataSize streamBufferSize,
+            Optional<Executor> ioExecutor,
+            DataSize maxInFlightSize)
     {
         this.id = requireNonNull(id, "id is null");
 
@@ -55,6 +92,8 @@ public abstract class AbstractOrcDataSource
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
         this.streamBufferSize = requireNonNull(streamBufferSize, "streamBufferSize is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.maxInFlightBytes = requireNonNull(maxInFlightSize, "maxInFlightSize is null").toBytes();
     }
 
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
@@ -95,6 +134,14 @@ public abstract class AbstractOrcDataSource
     public final void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException
     {
+        if (!prefetchedRanges.isEmpty()) {
+            Entry<DiskRange, byte[]> prefetched = getPrefetchedBuffer(new DiskRange(position, bufferLength));
+            if (prefetched != null) {
+                System.arraycopy(prefetched.getValue(), toIntExact(position - prefetched.getKey().getOffset()), buffer, bufferOffset, bufferLength);
+                return;
+            }
+        }
+
         long start = System.nanoTime();
 
         readInternal(position, buffer, bufferOffset, bufferLength);
@@ -103,6 +150,70 @@ public abstract class AbstractOrcDataSource
         readBytes += bufferLength;
     }
 
+    @Override
+    public final boolean isPrefetchSupported()
+    {
+        return ioExecutor.isPresent();
+    }
+
+    @Override
+    public final long prefetch(Collection<DiskRange> diskRanges)
+    {
+        requireNonNull(diskRanges, "diskRanges is null");
+
+        if (!ioExecutor.isPresent() || diskRanges.isEmpty()) {
+            return 0;
+        }
+
+        // large ranges are loaded lazily in chunks, and only the chunks that are used are read
+        long maxReadSizeBytes = maxBufferSize.toBytes();
+        List<DiskRange> smallRanges = new ArrayList<>();
+        for (DiskRange diskRange : diskRanges) {
+            if (diskRange.getLength() <= maxReadSizeBytes) {
+                smallRanges.add(diskRange);
+            }
+        }
+        if (smallRanges.isEmpty()) {
+            return 0;
+        }
+
+        long inFlightBytes = 0;
+        for (PrefetchedRange prefetched : prefetchedRanges) {
+            inFlightBytes += prefetched.getDiskRange().getLength();
+        }
+
+        long prefetchedBytes = 0;
+        for (DiskRange range : mergeAdjacentDiskRanges(smallRanges, maxMergeDistance, maxBufferSize)) {
+            if (inFlightBytes + prefetchedBytes + range.getLength() > maxInFlightBytes) {
+                break;
+            }
+            prefetchedRanges.add(new PrefetchedRange(range, readAsync(range)));
+            prefetchedBytes += range.getLength();
+        }
+        return prefetchedBytes;
+    }
+
+    @Override
+    public final boolean isPrefetchDone()
+    {
+        for (PrefetchedRange prefetched : prefetchedRanges) {
+            if (!prefetched.getBuffer().isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public final void releasePrefetchedRanges()
+    {
+        // reads that already started run to completion, but their buffers are dropped
+        for (PrefetchedRange prefetched : prefetchedRanges) {
+            prefetched.getBuffer().cancel(true);
+        }
+        prefetchedRanges.clear();
+    }
+
     @Override
     public final <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
             throws IOException
@@ -147,15 +258,31 @@ public abstract class AbstractOrcDataSource
             return ImmutableMap.of();
         }
 
-        Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
+        // use ranges that were read ahead, which may have been merged differently than this read
+        Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
+        List<DiskRange> missingRanges = new ArrayList<>();
+        for (DiskRange diskRange : diskRanges.values()) {
+            Entry<DiskRange, byte[]> prefetched = prefetchedRanges.isEmpty() ? null : getPrefetchedBuffer(diskRange);
+            if (prefetched != null) {
+                buffers.put(prefetched.getKey(), prefetched.getValue());
+            }
+            else {
+                missingRanges.add(diskRange);
+            }
+        }
+        List<DiskRange> rangesToRead = mergeAdjacentDiskRanges(missingRanges, maxMergeDistance, maxBufferSize);
 
         // read ranges
-        Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
-        for (DiskRange mergedRange : mergedRanges) {
-            // read full range in one request
-            byte[] buffer = new byte[mergedRange.getLength()];
-            readFully(mergedRange.getOffset(), buffer);
-            buffers.put(mergedRange, buffer);
+        if (ioExecutor.isPresent() && rangesToRead.size() > 1) {
+            buffers.putAll(readConcurrently(rangesToRead));
+        }
+        else {
+            for (DiskRange mergedRange : rangesToRead) {
+                // read full range in one request
+                byte[] buffer = new byte[mergedRange.getLength()];
+                readFully(mergedRange.getOffset(), buffer);
+                buffers.put(mergedRange, buffer);
+            }
         }
 
         ImmutableMap.Builder<K, FixedLengthSliceInput> slices = ImmutableMap.builder();
@@ -180,12 +307,148 @@ public abstract class AbstractOrcDataSource
         return slices.build();
     }
 
+    private Map<DiskRange, byte[]> readConcurrently(List<DiskRange> diskRanges)
+            throws IOException
+    {
+        long start = System.nanoTime();
+
+        Map<DiskRange, CompletableFuture<byte[]>> reads = new LinkedHashMap<>();
+        Deque<DiskRange> inFlightRanges = new ArrayDeque<>();
+        long inFlightBytes = 0;
+        try {
+            for (DiskRange diskRange : diskRanges) {
+                // wait for the oldest reads to finish to stay within the in-flight limit
+                while (!inFlightRanges.isEmpty() && inFlightBytes + diskRange.getLength() > maxInFlightBytes) {
+                    DiskRange finished = inFlightRanges.removeFirst();
+                    getReadResult(reads.get(finished));
+                    inFlightBytes -= finished.getLength();
+                }
+                reads.put(diskRange, readAsync(diskRange));
+                inFlightRanges.addLast(diskRange);
+                inFlightBytes += diskRange.getLength();
+            }
+
+            Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
+            long bytes = 0;
+            for (Entry<DiskRange, CompletableFuture<byte[]>> entry : reads.entrySet()) {
+                buffers.put(entry.getKey(), getReadResult(entry.getValue()));
+                bytes += entry.getKey().getLength();
+            }
+
+            readTimeNanos += System.nanoTime() - start;
+            readBytes += bytes;
+            return buffers;
+        }
+        catch (IOException | RuntimeException e) {
+            reads.values().forEach(read -> read.cancel(true));
+            throw e;
+        }
+    }
+
+    private CompletableFuture<byte[]> readAsync(DiskRange diskRange)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            byte[] buffer = new byte[diskRange.getLength()];
+            try {
+                readInternal(diskRange.getOffset(), buffer, 0, buffer.length);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer;
+        }, ioExecutor.get());
+    }
+
+    /**
+     * Returns the read ahead buffer containing the disk range, waiting for the read to finish.
+     * A failed read ahead is discarded so the range is read again by the caller.
+     */
+    private Entry<DiskRange, byte[]> getPrefetchedBuffer(DiskRange diskRange)
+    {
+        Iterator<PrefetchedRange> iterator = prefetchedRanges.iterator();
+        while (iterator.hasNext()) {
+            PrefetchedRange prefetched = iterator.next();
+            if (!prefetched.getDiskRange().contains(diskRange)) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            byte[] buffer;
+            try {
+                buffer = getReadResult(prefetched.getBuffer());
+            }
+            catch (IOException | RuntimeException e) {
+                iterator.remove();
+                return null;
+            }
+            readTimeNanos += System.nanoTime() - start;
+            if (prefetched.markConsumed()) {
+                readBytes += buffer.length;
+            }
+            return new SimpleImmutableEntry<>(prefetched.getDiskRange(), buffer);
+        }
+        return null;
+    }
+
+    private static byte[] getReadResult(CompletableFuture<byte[]> read)
+            throws IOException
+    {
+        try {
+            return read.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading ORC data");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            propagateIfPossible(cause, IOException.class);
+            throw Throwables.propagate(cause);
+        }
+    }
+
     @Override
     public final String toString()
     {
         return id.toString();
     }
 
+    private static class PrefetchedRange
+    {
+        private final DiskRange diskRange;
+        private final CompletableFuture<byte[]> buffer;
+        private boolean consumed;
+
+        public PrefetchedRange(DiskRange diskRange, CompletableFuture<byte[]> buffer)
+        {
+            this.diskRange = requireNonNull(diskRange, "diskRange is null");
+            this.buffer = requireNonNull(buffer, "buffer is null");
+        }
+
+        public DiskRange getDiskRange()
+        {
+            return diskRange;
+        }
+
+        public CompletableFuture<byte[]> getBuffer()
+        {
+            return buffer;
+        }
+
+        /**
+         * @return true the first time the range is used
+         */
+        public boolean markConsumed()
+        {
+            boolean first = !consumed;
+            consumed = true;
+            return first;
+        }
+    }
+
     private class HdfsSliceLoader
             implements SliceLoader<SliceBufferReference>
     {
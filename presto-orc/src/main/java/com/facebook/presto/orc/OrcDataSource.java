@@ -17,6 +17,7 @@ import io.airlift.slice.FixedLengthSliceInput;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Map;
 
 public interface OrcDataSource
@@ -39,6 +40,41 @@ public interface OrcDataSource
     <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
             throws IOException;
 
+    /**
+     * Returns true if this data source can read disk ranges ahead in the background.
+     */
+    default boolean isPrefetchSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Starts reading the disk ranges in the background so later reads of these
+     * ranges do not wait for I/O. The ranges are added to those read ahead by
+     * earlier calls, until {@link #releasePrefetchedRanges()} is called.
+     *
+     * @return the number of bytes read ahead by this call
+     */
+    default long prefetch(Collection<DiskRange> diskRanges)
+    {
+        return 0;
+    }
+
+    /**
+     * Returns true if no read ahead is still waiting for I/O.
+     */
+    default boolean isPrefetchDone()
+    {
+        return true;
+    }
+
+    /**
+     * Cancels the reads ahead that have not finished and releases all read ahead buffers.
+     */
+    default void releasePrefetchedRanges()
+    {
+    }
+
     @Override
     default void close()
             throws IOException
@@ -15,6 +15,7 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.memory.AbstractAggregatedMemoryContext;
 import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.ExceptionWrappingMetadataReader;
 import com.facebook.presto.orc.metadata.Footer;
 import com.facebook.presto.orc.metadata.Metadata;
@@ -60,18 +61,46 @@ public class OrcReader
     private final int bufferSize;
     private final Footer footer;
     private final Metadata metadata;
-    private Optional<OrcDecompressor> decompressor = Optional.empty();
+    private final Optional<OrcDecompressor> decompressor;
 
-    // This is based on the Apache Hive ORC code
     public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize)
             throws IOException
     {
-        orcDataSource = wrapWithCacheIfTiny(requireNonNull(orcDataSource, "orcDataSource is null"), maxMergeDistance);
+        this(wrapWithCacheIfTiny(requireNonNull(orcDataSource, "orcDataSource is null"), maxMergeDistance), metadataReader, maxMergeDistance, maxReadSize, Optional.empty());
+    }
+
+    /**
+     * Creates a reader using a previously read file tail, for example one served from a footer cache.
+     * The caller is responsible for ensuring the tail belongs to the same version of the file.
+     */
+    public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize, OrcFileTail fileTail)
+            throws IOException
+    {
+        this(wrapWithCacheIfTiny(requireNonNull(orcDataSource, "orcDataSource is null"), maxMergeDistance), metadataReader, maxMergeDistance, maxReadSize, Optional.of(fileTail));
+    }
+
+    private OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize, Optional<OrcFileTail> fileTail)
+            throws IOException
+    {
         this.orcDataSource = orcDataSource;
         this.metadataReader = new ExceptionWrappingMetadataReader(orcDataSource.getId(), requireNonNull(metadataReader, "metadataReader is null"));
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxReadSize = requireNonNull(maxReadSize, "maxReadSize is null");
 
+        OrcFileTail tail = requireNonNull(fileTail, "fileTail is null").isPresent() ? fileTail.get() : readFileTail(orcDataSource, metadataReader);
+        this.bufferSize = tail.getBufferSize();
+        this.decompressor = createOrcDecompressor(orcDataSource.getId(), tail.getCompression(), bufferSize);
+        this.hiveWriterVersion = tail.getHiveWriterVersion();
+        this.footer = tail.getFooter();
+        this.metadata = tail.getMetadata();
+    }
+
+    // This is based on the Apache Hive ORC code
+    public static OrcFileTail readFileTail(OrcDataSource orcDataSource, MetadataReader delegateMetadataReader)
+            throws IOException
+    {
+        MetadataReader metadataReader = new ExceptionWrappingMetadataReader(orcDataSource.getId(), requireNonNull(delegateMetadataReader, "metadataReader is null"));
+
         //
         // Read the file tail:
         //
@@ -104,26 +133,12 @@ public class OrcReader
         // verify this is a supported version
         checkOrcVersion(orcDataSource, postScript.getVersion());
 
-        this.bufferSize = toIntExact(postScript.getCompressionBlockSize());
+        int bufferSize = toIntExact(postScript.getCompressionBlockSize());
 
         // check compression codec is supported
-        switch (postScript.getCompression()) {
-            case UNCOMPRESSED:
-                break;
-            case ZLIB:
-                decompressor = Optional.of(new OrcZlibDecompressor(orcDataSource.getId(), bufferSize));
-                break;
-            case SNAPPY:
-                decompressor = Optional.of(new OrcSnappyDecompressor(orcDataSource.getId(), bufferSize));
-                break;
-            case ZSTD:
-                decompressor = Optional.of(new OrcZstdDecompressor(orcDataSource.getId(), bufferSize));
-                break;
-            default:
-                throw new UnsupportedOperationException("Unsupported compression type: " + postScript.getCompression());
-        }
+        Optional<OrcDecompressor> decompressor = createOrcDecompressor(orcDataSource.getId(), postScript.getCompression(), bufferSize);
 
-        this.hiveWriterVersion = postScript.getHiveWriterVersion();
+        HiveWriterVersion hiveWriterVersion = postScript.getHiveWriterVersion();
 
         int footerSize = toIntExact(postScript.getFooterLength());
         int metadataSize = toIntExact(postScript.getMetadataLength());
@@ -148,15 +163,35 @@ public class OrcReader
         }
 
         // read metadata
+        Metadata metadata;
         Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
         try (InputStream metadataInputStream = new OrcInputStream(orcDataSource.getId(), metadataSlice.getInput(), decompressor, new AggregatedMemoryContext())) {
-            this.metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
+            metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
         }
 
         // read footer
+        Footer footer;
         Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
         try (InputStream footerInputStream = new OrcInputStream(orcDataSource.getId(), footerSlice.getInput(), decompressor, new AggregatedMemoryContext())) {
-            this.footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
+            footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
+        }
+
+        return new OrcFileTail(hiveWriterVersion, bufferSize, postScript.getCompression(), footer, metadata, completeFooterSize);
+    }
+
+    private static Optional<OrcDecompressor> createOrcDecompressor(OrcDataSourceId orcDataSourceId, CompressionKind compression, int bufferSize)
+    {
+        switch (compression) {
+            case UNCOMPRESSED:
+                return Optional.empty();
+            case ZLIB:
+                return Optional.of(new OrcZlibDecompressor(orcDataSourceId, bufferSize));
+            case SNAPPY:
+                return Optional.of(new OrcSnappyDecompressor(orcDataSourceId, bufferSize));
+            case ZSTD:
+                return Optional.of(new OrcZstdDecompressor(orcDataSourceId, bufferSize));
+            default:
+                throw new UnsupportedOperationException("Unsupported compression type: " + compression);
         }
     }
 
@@ -217,7 +252,11 @@ public class OrcReader
                 systemMemoryUsage);
     }
 
-    private static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
+    /**
+     * Wraps a data source of a file no larger than {@code maxCacheSize} so the whole file is read once.
+     * Callers reading the file tail themselves should read it through the wrapped data source.
+     */
+    public static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
     {
         if (dataSource instanceof CachingOrcDataSource) {
             return dataSource;
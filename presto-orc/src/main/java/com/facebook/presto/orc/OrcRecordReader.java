@@ -15,6 +15,7 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.memory.AbstractAggregatedMemoryContext;
 import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.orc.memory.LocalMemoryContext;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
@@ -76,6 +77,7 @@ public class OrcRecordReader
     private final StripeReader stripeReader;
     private int currentStripe = -1;
     private AggregatedMemoryContext currentStripeSystemMemoryContext;
+    private final LocalMemoryContext prefetchSystemMemoryContext;
 
     private final long fileRowCount;
     private final List<Long> stripeFilePositions;
@@ -183,6 +185,7 @@ public class OrcRecordReader
 
         this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null").newAggregatedMemoryContext();
         this.currentStripeSystemMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+        this.prefetchSystemMemoryContext = this.systemMemoryUsage.newLocalMemoryContext();
 
         stripeReader = new StripeReader(
                 orcDataSource,
@@ -283,6 +286,8 @@ public class OrcRecordReader
     public void close()
             throws IOException
     {
+        stripeReader.releasePrefetch();
+        prefetchSystemMemoryContext.setBytes(0);
         orcDataSource.close();
     }
 
@@ -298,6 +303,10 @@ public class OrcRecordReader
         filePosition += currentBatchSize;
         currentPosition += currentBatchSize;
 
+        // move the read ahead of the next stripe forward, without waiting for I/O
+        stripeReader.advancePrefetch();
+        prefetchSystemMemoryContext.setBytes(stripeReader.getPrefetchedBytes());
+
         // if next row is within the current group return
         if (nextRowInGroup >= currentGroupRowCount) {
             // attempt to advance to next row group
@@ -398,6 +407,15 @@ public class OrcRecordReader
 
             rowGroups = stripe.getRowGroups().iterator();
         }
+
+        // read the next stripe in the background while this one is decoded
+        if (currentStripe + 1 < stripes.size()) {
+            stripeReader.startPrefetch(stripes.get(currentStripe + 1));
+        }
+        else {
+            stripeReader.releasePrefetch();
+        }
+        prefetchSystemMemoryContext.setBytes(stripeReader.getPrefetchedBytes());
     }
 
     private static StreamReader[] createStreamReaders(
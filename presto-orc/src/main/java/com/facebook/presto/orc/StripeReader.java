@@ -79,6 +79,12 @@ public class StripeReader
     private final OrcPredicate predicate;
     private final MetadataReader metadataReader;
 
+    // read ahead of the next stripe; only accessed by the reading thread
+    private PrefetchStep prefetchStep = PrefetchStep.NONE;
+    private StripeInformation prefetchStripe;
+    private StripeFooter prefetchStripeFooter;
+    private long prefetchedBytes;
+
     public StripeReader(OrcDataSource orcDataSource,
             Optional<OrcDecompressor> decompressor,
             List<OrcType> types,
@@ -101,26 +107,22 @@ public class StripeReader
     public Stripe readStripe(StripeInformation stripe, AggregatedMemoryContext systemMemoryUsage)
             throws IOException
     {
-        // read the stripe footer
-        StripeFooter stripeFooter = readStripeFooter(stripe, systemMemoryUsage);
+        // read the stripe footer, unless it was read ahead
+        StripeFooter stripeFooter;
+        if (stripe == prefetchStripe && prefetchStripeFooter != null) {
+            stripeFooter = prefetchStripeFooter;
+        }
+        else {
+            stripeFooter = readStripeFooter(stripe, systemMemoryUsage);
+        }
         List<ColumnEncoding> columnEncodings = stripeFooter.getColumnEncodings();
 
         // get streams for selected columns
-        Map<StreamId, Stream> streams = new HashMap<>();
-        boolean hasRowGroupDictionary = false;
-        for (Stream stream : stripeFooter.getStreams()) {
-            if (includedOrcColumns.contains(stream.getColumn())) {
-                streams.put(new StreamId(stream), stream);
-
-                ColumnEncodingKind columnEncoding = columnEncodings.get(stream.getColumn()).getColumnEncodingKind();
-                if (columnEncoding == DICTIONARY && stream.getStreamKind() == StreamKind.IN_DICTIONARY) {
-                    hasRowGroupDictionary = true;
-                }
-            }
-        }
+        Map<StreamId, Stream> streams = getIncludedStreams(stripeFooter);
 
         // handle stripes with more than one row group or a dictionary
-        if ((stripe.getNumberOfRows() > rowsInRowGroup) || hasRowGroupDictionary) {
+        boolean hasRowGroupDictionary = hasRowGroupDictionary(streams, columnEncodings);
+        if (isRowGroupIndexUsed(stripe, hasRowGroupDictionary)) {
             // determine ranges of the stripe to read
             Map<StreamId, DiskRange> diskRanges = getDiskRanges(stripeFooter.getStreams());
             diskRanges = Maps.filterKeys(diskRanges, Predicates.in(streams.keySet()));
@@ -201,6 +203,96 @@ public class StripeReader
         return new Stripe(stripe.getNumberOfRows(), columnEncodings, ImmutableList.of(rowGroup), dictionaryStreamSources);
     }
 
+    /**
+     * Starts reading the stripe in the background, beginning with its footer. The read
+     * ahead moves on to the rest of the stripe in {@link #advancePrefetch()}, so the
+     * calling thread never waits for it. Buffers read ahead for an earlier stripe are
+     * released.
+     */
+    public void startPrefetch(StripeInformation stripe)
+    {
+        releasePrefetch();
+        if (!orcDataSource.isPrefetchSupported()) {
+            return;
+        }
+
+        prefetchStripe = stripe;
+        prefetchStep = PrefetchStep.FOOTER;
+        long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
+        prefetchedBytes += orcDataSource.prefetch(ImmutableList.of(new DiskRange(offset, toIntExact(stripe.getFooterLength()))));
+    }
+
+    /**
+     * Moves the read ahead started by {@link #startPrefetch} to its next step once the
+     * reads of the current step have finished. After the footer, the index streams of the
+     * selected columns are read. After the index, the data streams are read, but only if
+     * the predicate selects at least one row group of the stripe. Stripes that are read as
+     * a single row group skip the index step.
+     */
+    public void advancePrefetch()
+            throws IOException
+    {
+        if ((prefetchStep != PrefetchStep.FOOTER && prefetchStep != PrefetchStep.INDEX) || !orcDataSource.isPrefetchDone()) {
+            return;
+        }
+
+        // the reads of the current step are done, so this does not wait for I/O
+        AggregatedMemoryContext systemMemoryUsage = new AggregatedMemoryContext();
+        if (prefetchStep == PrefetchStep.FOOTER) {
+            prefetchStripeFooter = readStripeFooter(prefetchStripe, systemMemoryUsage);
+            Map<StreamId, Stream> streams = getIncludedStreams(prefetchStripeFooter);
+            Map<StreamId, DiskRange> diskRanges = Maps.filterKeys(getDiskRanges(prefetchStripeFooter.getStreams()), Predicates.in(streams.keySet()));
+            if (isRowGroupIndexUsed(prefetchStripe, hasRowGroupDictionary(streams, prefetchStripeFooter.getColumnEncodings()))) {
+                prefetchStep = PrefetchStep.INDEX;
+                prefetchedBytes += orcDataSource.prefetch(toFileRanges(prefetchStripe, Maps.filterKeys(diskRanges, StripeReader::isRowGroupIndexStream)));
+            }
+            else {
+                prefetchStep = PrefetchStep.DONE;
+                prefetchedBytes += orcDataSource.prefetch(toFileRanges(prefetchStripe, Maps.filterKeys(diskRanges, streamId -> streamId.getStreamKind() != ROW_INDEX)));
+            }
+            return;
+        }
+
+        prefetchStep = PrefetchStep.DONE;
+        Map<StreamId, Stream> streams = getIncludedStreams(prefetchStripeFooter);
+        Map<StreamId, DiskRange> diskRanges = Maps.filterKeys(getDiskRanges(prefetchStripeFooter.getStreams()), Predicates.in(streams.keySet()));
+        Map<StreamId, OrcInputStream> indexData = readDiskRanges(prefetchStripe.getOffset(), Maps.filterKeys(diskRanges, StripeReader::isRowGroupIndexStream), systemMemoryUsage);
+        Map<Integer, List<HiveBloomFilter>> bloomFilterIndexes = readBloomFilterIndexes(streams, indexData);
+        Map<Integer, List<RowGroupIndex>> columnIndexes = readColumnIndexes(streams, indexData, bloomFilterIndexes);
+        if (!selectRowGroups(prefetchStripe, columnIndexes).isEmpty()) {
+            prefetchedBytes += orcDataSource.prefetch(toFileRanges(prefetchStripe, Maps.filterKeys(diskRanges, streamId -> !isRowGroupIndexStream(streamId))));
+        }
+    }
+
+    /**
+     * Returns the number of bytes currently read ahead.
+     */
+    public long getPrefetchedBytes()
+    {
+        return prefetchedBytes;
+    }
+
+    /**
+     * Cancels the read ahead and releases its buffers.
+     */
+    public void releasePrefetch()
+    {
+        orcDataSource.releasePrefetchedRanges();
+        prefetchStep = PrefetchStep.NONE;
+        prefetchStripe = null;
+        prefetchStripeFooter = null;
+        prefetchedBytes = 0;
+    }
+
+    private static List<DiskRange> toFileRanges(StripeInformation stripe, Map<StreamId, DiskRange> diskRanges)
+    {
+        ImmutableList.Builder<DiskRange> fileRanges = ImmutableList.builder();
+        for (DiskRange diskRange : diskRanges.values()) {
+            fileRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+        }
+        return fileRanges.build();
+    }
+
     public Map<StreamId, OrcInputStream> readDiskRanges(long stripeOffset, Map<StreamId, DiskRange> diskRanges, AbstractAggregatedMemoryContext systemMemoryUsage)
             throws IOException
     {
@@ -407,6 +499,38 @@ public class StripeReader
         return statistics.build();
     }
 
+    private Map<StreamId, Stream> getIncludedStreams(StripeFooter stripeFooter)
+    {
+        Map<StreamId, Stream> streams = new HashMap<>();
+        for (Stream stream : stripeFooter.getStreams()) {
+            if (includedOrcColumns.contains(stream.getColumn())) {
+                streams.put(new StreamId(stream), stream);
+            }
+        }
+        return streams;
+    }
+
+    private static boolean hasRowGroupDictionary(Map<StreamId, Stream> streams, List<ColumnEncoding> columnEncodings)
+    {
+        for (Stream stream : streams.values()) {
+            ColumnEncodingKind columnEncoding = columnEncodings.get(stream.getColumn()).getColumnEncodingKind();
+            if (columnEncoding == DICTIONARY && stream.getStreamKind() == StreamKind.IN_DICTIONARY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRowGroupIndexUsed(StripeInformation stripe, boolean hasRowGroupDictionary)
+    {
+        return (stripe.getNumberOfRows() > rowsInRowGroup) || hasRowGroupDictionary;
+    }
+
+    private static boolean isRowGroupIndexStream(StreamId streamId)
+    {
+        return streamId.getStreamKind() == ROW_INDEX || streamId.getStreamKind() == BLOOM_FILTER;
+    }
+
     private static boolean isIndexStream(Stream stream)
     {
         return stream.getStreamKind() == ROW_INDEX || stream.getStreamKind() == DICTIONARY_COUNT || stream.getStreamKind() == BLOOM_FILTER;
@@ -458,4 +582,12 @@ public class StripeReader
     {
         return ((dividend + divisor) - 1) / divisor;
     }
+
+    private enum PrefetchStep
+    {
+        NONE,
+        FOOTER,
+        INDEX,
+        DONE,
+    }
 }
@@ -14,16 +14,23 @@
 package com.facebook.presto.orc.metadata;
 
 import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOfCharArray;
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 import static java.util.Objects.requireNonNull;
 
 public class OrcType
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OrcType.class).instanceSize();
+    private static final int INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(Integer.class).instanceSize();
+    private static final int STRING_INSTANCE_SIZE = ClassLayout.parseClass(String.class).instanceSize();
+
     public enum OrcTypeKind
     {
         BOOLEAN,
@@ -108,6 +115,18 @@ public class OrcType
         return scale;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = INSTANCE_SIZE + sizeOfObjectArray(fieldTypeIndexes.size()) + fieldTypeIndexes.size() * INTEGER_INSTANCE_SIZE;
+        if (fieldNames != null) {
+            retainedSizeInBytes += sizeOfObjectArray(fieldNames.size());
+            for (String fieldName : fieldNames) {
+                retainedSizeInBytes += STRING_INSTANCE_SIZE + sizeOfCharArray(fieldName.length());
+            }
+        }
+        return retainedSizeInBytes;
+    }
+
     @Override
     public String toString()
     {
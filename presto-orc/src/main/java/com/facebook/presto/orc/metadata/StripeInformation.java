@@ -13,10 +13,14 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 
 public class StripeInformation
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StripeInformation.class).instanceSize();
+
     private final int numberOfRows;
     private final long offset;
     private final long indexLength;
@@ -62,6 +66,11 @@ public class StripeInformation
         return indexLength + dataLength + footerLength;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE;
+    }
+
     @Override
     public String toString()
     {
@@ -13,8 +13,12 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 public class BooleanStatistics
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BooleanStatistics.class).instanceSize();
+
     private final long trueValueCount;
 
     public BooleanStatistics(long trueValueCount)
@@ -26,4 +30,9 @@ public class BooleanStatistics
     {
         return trueValueCount;
     }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE;
+    }
 }
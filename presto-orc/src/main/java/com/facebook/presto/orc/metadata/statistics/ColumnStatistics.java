@@ -13,8 +13,13 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 public class ColumnStatistics
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ColumnStatistics.class).instanceSize();
+    private static final int LONG_INSTANCE_SIZE = ClassLayout.parseClass(Long.class).instanceSize();
+
     private final Long numberOfValues;
     private final BooleanStatistics booleanStatistics;
     private final IntegerStatistics integerStatistics;
@@ -101,4 +106,34 @@ public class ColumnStatistics
                 decimalStatistics,
                 bloomFilter);
     }
+
+    public long getRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = INSTANCE_SIZE;
+        if (numberOfValues != null) {
+            retainedSizeInBytes += LONG_INSTANCE_SIZE;
+        }
+        if (booleanStatistics != null) {
+            retainedSizeInBytes += booleanStatistics.getRetainedSizeInBytes();
+        }
+        if (integerStatistics != null) {
+            retainedSizeInBytes += integerStatistics.getRetainedSizeInBytes();
+        }
+        if (doubleStatistics != null) {
+            retainedSizeInBytes += doubleStatistics.getRetainedSizeInBytes();
+        }
+        if (stringStatistics != null) {
+            retainedSizeInBytes += stringStatistics.getRetainedSizeInBytes();
+        }
+        if (dateStatistics != null) {
+            retainedSizeInBytes += dateStatistics.getRetainedSizeInBytes();
+        }
+        if (decimalStatistics != null) {
+            retainedSizeInBytes += decimalStatistics.getRetainedSizeInBytes();
+        }
+        if (bloomFilter != null) {
+            retainedSizeInBytes += bloomFilter.getRetainedSizeInBytes();
+        }
+        return retainedSizeInBytes;
+    }
 }
@@ -13,13 +13,21 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.math.BigDecimal;
+import java.math.BigInteger;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.sizeOfIntArray;
 
 public class DecimalStatistics
         implements RangeStatistics<BigDecimal>
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DecimalStatistics.class).instanceSize();
+    private static final int BIG_DECIMAL_INSTANCE_SIZE = ClassLayout.parseClass(BigDecimal.class).instanceSize();
+    private static final int BIG_INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(BigInteger.class).instanceSize();
+
     private final BigDecimal minimum;
     private final BigDecimal maximum;
 
@@ -41,6 +49,20 @@ public class DecimalStatistics
         return maximum;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(minimum) + sizeOf(maximum);
+    }
+
+    private static long sizeOf(BigDecimal value)
+    {
+        if (value == null) {
+            return 0;
+        }
+        // the magnitude of the unscaled value is stored as an int array
+        return BIG_DECIMAL_INSTANCE_SIZE + BIG_INTEGER_INSTANCE_SIZE + sizeOfIntArray(value.unscaledValue().bitLength() / Integer.SIZE + 1);
+    }
+
     @Override
     public String toString()
     {
@@ -13,11 +13,16 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 
 public class DoubleStatistics
         implements RangeStatistics<Double>
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DoubleStatistics.class).instanceSize();
+    private static final int BOXED_SIZE = ClassLayout.parseClass(Double.class).instanceSize();
+
     private final Double minimum;
     private final Double maximum;
 
@@ -39,6 +44,11 @@ public class DoubleStatistics
         return maximum;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + (minimum == null ? 0 : BOXED_SIZE) + (maximum == null ? 0 : BOXED_SIZE);
+    }
+
     @Override
     public String toString()
     {
@@ -15,11 +15,17 @@ package com.facebook.presto.orc.metadata.statistics;
 
 import com.google.common.primitives.Longs;
 import org.apache.hive.common.util.BloomFilter;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 
+import static io.airlift.slice.SizeOf.sizeOf;
+
 public class HiveBloomFilter extends BloomFilter
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(HiveBloomFilter.class).instanceSize();
+    private static final int BIT_SET_INSTANCE_SIZE = ClassLayout.parseClass(BitSet.class).instanceSize();
+
     // constructor that allows deserialization of a long list into the actual hive bloom filter
     public HiveBloomFilter(List<Long> bits, int numBits, int numHashFunctions)
     {
@@ -34,4 +40,9 @@ public class HiveBloomFilter extends BloomFilter
         this.numBits = bloomFilter.getBitSize();
         this.numHashFunctions = bloomFilter.getNumHashFunctions();
     }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + BIT_SET_INSTANCE_SIZE + sizeOf(getBitSet());
+    }
 }
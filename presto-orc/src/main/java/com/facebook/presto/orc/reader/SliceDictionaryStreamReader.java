@@ -24,6 +24,7 @@ import com.facebook.presto.orc.stream.LongInputStream;
 import com.facebook.presto.orc.stream.RowGroupDictionaryLengthInputStream;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.DictionaryId;
 import com.facebook.presto.spi.block.SliceArrayBlock;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
@@ -44,6 +45,7 @@ import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_GROUP_DICTIONARY;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_GROUP_DICTIONARY_LENGTH;
 import static com.facebook.presto.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.spi.type.Chars.isCharType;
 import static com.facebook.presto.spi.type.Chars.truncateToLengthAndTrimSpaces;
 import static com.facebook.presto.spi.type.Varchars.isVarcharType;
@@ -73,6 +75,11 @@ public class SliceDictionaryStreamReader
     private Slice[] stripeDictionary = new Slice[1];
 
     private SliceArrayBlock dictionaryBlock = new SliceArrayBlock(stripeDictionary.length, stripeDictionary, true);
+    // identifies the current dictionary block, so downstream operators can cache per-dictionary work across batches
+    private DictionaryId dictionaryId = randomDictionaryId();
+
+    private long dictionaryLoadCount;
+    private long dictionaryReuseCount;
 
     @Nonnull
     private InputStreamSource<LongInputStream> stripeDictionaryLengthStreamSource = missingStreamSource(LongInputStream.class);
@@ -184,8 +191,8 @@ public class SliceDictionaryStreamReader
             }
         }
 
-        // copy ids into a private array for this block since data vector is reused
-        Block block = new DictionaryBlock(nextBatchSize, dictionaryBlock, dataVector);
+        // all blocks sharing the same dictionary report the same dictionary id
+        Block block = new DictionaryBlock(nextBatchSize, dictionaryBlock, dataVector, dictionaryId);
 
         readOffset = 0;
         nextBatchSize = 0;
@@ -198,9 +205,31 @@ public class SliceDictionaryStreamReader
         // the engine currently uses identity equality to test if dictionaries are the same
         if (dictionaryBlock.getValues() != dictionary) {
             dictionaryBlock = new SliceArrayBlock(dictionary.length, dictionary, true);
+            dictionaryId = randomDictionaryId();
+            dictionaryLoadCount++;
+        }
+        else {
+            dictionaryReuseCount++;
         }
     }
 
+    /**
+     * Number of times a new dictionary block was created (once per stripe, plus once
+     * for each row group that has its own row group dictionary).
+     */
+    public long getDictionaryLoadCount()
+    {
+        return dictionaryLoadCount;
+    }
+
+    /**
+     * Number of row groups that reused the dictionary block (and dictionary id) of the previous row group.
+     */
+    public long getDictionaryReuseCount()
+    {
+        return dictionaryReuseCount;
+    }
+
     private void openRowGroup(Type type)
             throws IOException
     {
@@ -228,9 +257,8 @@ public class SliceDictionaryStreamReader
 
         // read row group dictionary
         RowGroupDictionaryLengthInputStream dictionaryLengthStream = rowGroupDictionaryLengthStreamSource.openStream();
-        if (dictionaryLengthStream != null) {
-            int rowGroupDictionarySize = dictionaryLengthStream.getEntryCount();
-
+        int rowGroupDictionarySize = dictionaryLengthStream == null ? 0 : dictionaryLengthStream.getEntryCount();
+        if (rowGroupDictionarySize > 0) {
             // We must always create a new dictionary array because the previous dictionary may still be referenced
             // The first elements of the dictionary are from the stripe dictionary, then the row group dictionary elements, and then a null
             rowGroupDictionary = Arrays.copyOf(stripeDictionary, stripeDictionarySize + rowGroupDictionarySize + 1);
@@ -249,7 +277,8 @@ public class SliceDictionaryStreamReader
             readDictionary(dictionaryDataStream, rowGroupDictionarySize, rowGroupDictionaryLength, stripeDictionarySize, rowGroupDictionary, type);
         }
         else {
-            // there is no row group dictionary so use the stripe dictionary
+            // there is no row group dictionary (or it is empty) so use the stripe dictionary
+            // without copying, which keeps the dictionary id stable across row groups of the stripe
             setDictionaryBlockData(stripeDictionary);
         }
 
@@ -84,6 +84,16 @@ public class SliceStreamReader
         currentReader.startRowGroup(dataStreamSources);
     }
 
+    public long getDictionaryLoadCount()
+    {
+        return dictionaryReader.getDictionaryLoadCount();
+    }
+
+    public long getDictionaryReuseCount()
+    {
+        return dictionaryReader.getDictionaryReuseCount();
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,232 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.lang.Math.toIntExact;
+import static java.util.Arrays.copyOfRange;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestAbstractOrcDataSource
+{
+    private static final byte[] DATA = createData(64 * 1024);
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newFixedThreadPool(4);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentReads()
+            throws Exception
+    {
+        // merge distance of zero keeps the ranges separate
+        TestingByteArrayOrcDataSource dataSource = new TestingByteArrayOrcDataSource(Optional.of(executor), new DataSize(8, KILOBYTE));
+        Map<String, DiskRange> diskRanges = ImmutableMap.of(
+                "a", new DiskRange(0, 1000),
+                "b", new DiskRange(10_000, 3000),
+                "c", new DiskRange(20_000, 5000),
+                "d", new DiskRange(40_000, 2000));
+
+        assertRanges(dataSource.readFully(diskRanges), diskRanges);
+        assertEquals(dataSource.getReadCount(), 4);
+        assertEquals(dataSource.getReadBytes(), 11_000);
+        assertTrue(dataSource.getMaxConcurrentReads() <= 4);
+    }
+
+    @Test
+    public void testPrefetch()
+            throws Exception
+    {
+        TestingByteArrayOrcDataSource dataSource = new TestingByteArrayOrcDataSource(Optional.of(executor), new DataSize(8, KILOBYTE));
+        assertTrue(dataSource.isPrefetchSupported());
+
+        // the last range does not fit in the in-flight limit
+        long prefetchedBytes = dataSource.prefetch(ImmutableList.of(new DiskRange(0, 2000), new DiskRange(10_000, 4000), new DiskRange(30_000, 4000)));
+        assertEquals(prefetchedBytes, 6000);
+
+        Map<String, DiskRange> diskRanges = ImmutableMap.of(
+                "a", new DiskRange(100, 500),
+                "b", new DiskRange(10_000, 4000));
+        assertRanges(dataSource.readFully(diskRanges), diskRanges);
+
+        byte[] buffer = new byte[1000];
+        dataSource.readFully(1000, buffer);
+        assertEquals(buffer, copyOfRange(DATA, 1000, 2000));
+
+        // only the read ahead requests went to storage, and each is counted once
+        assertEquals(dataSource.getReadCount(), 2);
+        assertEquals(dataSource.getReadBytes(), 6000);
+
+        // ranges not read ahead are read on demand
+        dataSource.readFully(30_000, buffer);
+        assertEquals(buffer, copyOfRange(DATA, 30_000, 31_000));
+        assertEquals(dataSource.getReadCount(), 3);
+
+        // released ranges are read again
+        dataSource.releasePrefetchedRanges();
+        dataSource.readFully(0, buffer);
+        assertEquals(dataSource.getReadCount(), 4);
+    }
+
+    @Test
+    public void testPrefetchAccumulates()
+            throws Exception
+    {
+        TestingByteArrayOrcDataSource dataSource = new TestingByteArrayOrcDataSource(Optional.of(executor), new DataSize(8, KILOBYTE));
+
+        // ranges read lazily in chunks are not read ahead
+        assertEquals(dataSource.prefetch(ImmutableList.of(new DiskRange(0, 9000))), 0);
+
+        // later calls add to the earlier ranges, within the same in-flight limit
+        assertEquals(dataSource.prefetch(ImmutableList.of(new DiskRange(0, 1000))), 1000);
+        assertEquals(dataSource.prefetch(ImmutableList.of(new DiskRange(10_000, 4000), new DiskRange(20_000, 4000))), 4000);
+        while (!dataSource.isPrefetchDone()) {
+            Thread.sleep(1);
+        }
+
+        // each stream is served from the range read ahead for it
+        Map<String, DiskRange> diskRanges = ImmutableMap.of(
+                "a", new DiskRange(0, 1000),
+                "b", new DiskRange(10_000, 4000));
+        assertRanges(dataSource.readFully(diskRanges), diskRanges);
+        assertEquals(dataSource.getReadCount(), 2);
+    }
+
+    @Test
+    public void testFailedPrefetchIsRetried()
+            throws Exception
+    {
+        TestingByteArrayOrcDataSource dataSource = new TestingByteArrayOrcDataSource(Optional.of(executor), new DataSize(8, KILOBYTE));
+        dataSource.failNextRead();
+        dataSource.prefetch(ImmutableList.of(new DiskRange(0, 1000)));
+
+        byte[] buffer = new byte[1000];
+        dataSource.readFully(0, buffer);
+        assertEquals(buffer, copyOfRange(DATA, 0, 1000));
+        assertEquals(dataSource.getReadCount(), 2);
+    }
+
+    @Test
+    public void testWithoutExecutor()
+            throws Exception
+    {
+        TestingByteArrayOrcDataSource dataSource = new TestingByteArrayOrcDataSource(Optional.empty(), new DataSize(0, BYTE));
+        assertFalse(dataSource.isPrefetchSupported());
+        assertEquals(dataSource.prefetch(ImmutableList.of(new DiskRange(0, 1000))), 0);
+
+        Map<String, DiskRange> diskRanges = ImmutableMap.of(
+                "a", new DiskRange(0, 1000),
+                "b", new DiskRange(10_000, 3000));
+        assertRanges(dataSource.readFully(diskRanges), diskRanges);
+        assertEquals(dataSource.getReadCount(), 2);
+        assertEquals(dataSource.getMaxConcurrentReads(), 1);
+    }
+
+    private static void assertRanges(Map<String, FixedLengthSliceInput> slices, Map<String, DiskRange> diskRanges)
+    {
+        assertEquals(slices.keySet(), diskRanges.keySet());
+        for (Map.Entry<String, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            FixedLengthSliceInput input = slices.get(entry.getKey());
+            assertEquals(input.readSlice(diskRange.getLength()), Slices.wrappedBuffer(copyOfRange(DATA, toIntExact(diskRange.getOffset()), toIntExact(diskRange.getEnd()))));
+        }
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 7);
+        }
+        return data;
+    }
+
+    private static class TestingByteArrayOrcDataSource
+            extends AbstractOrcDataSource
+    {
+        private final AtomicInteger readCount = new AtomicInteger();
+        private final AtomicInteger concurrentReads = new AtomicInteger();
+        private final AtomicInteger maxConcurrentReads = new AtomicInteger();
+        private final AtomicBoolean failNextRead = new AtomicBoolean();
+
+        public TestingByteArrayOrcDataSource(Optional<Executor> ioExecutor, DataSize maxInFlightSize)
+        {
+            super(new OrcDataSourceId("test"), DATA.length, new DataSize(0, BYTE), new DataSize(8, KILOBYTE), new DataSize(8, KILOBYTE), ioExecutor, maxInFlightSize);
+        }
+
+        public int getReadCount()
+        {
+            return readCount.get();
+        }
+
+        public int getMaxConcurrentReads()
+        {
+            return maxConcurrentReads.get();
+        }
+
+        public void failNextRead()
+        {
+            failNextRead.set(true);
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            readCount.incrementAndGet();
+            int reads = concurrentReads.incrementAndGet();
+            maxConcurrentReads.accumulateAndGet(reads, Math::max);
+            try {
+                if (failNextRead.getAndSet(false)) {
+                    throw new IOException("read failed");
+                }
+                System.arraycopy(DATA, toIntExact(position), buffer, bufferOffset, bufferLength);
+            }
+            finally {
+                concurrentReads.decrementAndGet();
+            }
+        }
+    }
+}
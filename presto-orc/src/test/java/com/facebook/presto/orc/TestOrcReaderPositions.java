@@ -16,7 +16,10 @@ package com.facebook.presto.orc;
 import com.facebook.presto.orc.metadata.Footer;
 import com.facebook.presto.orc.metadata.OrcMetadataReader;
 import com.facebook.presto.orc.metadata.statistics.IntegerStatistics;
+import com.facebook.presto.orc.reader.SliceStreamReader;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.DictionaryId;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import io.airlift.slice.Slice;
@@ -48,9 +51,11 @@ import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
 import static com.facebook.presto.orc.OrcTester.createOrcRecordWriter;
 import static com.facebook.presto.orc.OrcTester.createSettableStructObjectInspector;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.hadoop.hive.ql.io.orc.CompressionKind.SNAPPY;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestOrcReaderPositions
 {
@@ -171,6 +176,46 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testStripeDictionaryIdStableAcrossRowGroups()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            // create single stripe file with multiple row groups and a small dictionary
+            int rowCount = 42_000;
+            createLowCardinalityStringFile(tempFile.getFile(), rowCount);
+
+            try (OrcRecordReader reader = createCustomOrcRecordReader(tempFile, new OrcMetadataReader(), OrcPredicate.TRUE, VARCHAR)) {
+                DictionaryId dictionaryId = null;
+                long position = 0;
+                while (true) {
+                    int batchSize = reader.nextBatch();
+                    if (batchSize == -1) {
+                        break;
+                    }
+
+                    Block block = reader.readBlock(VARCHAR, 0);
+                    assertTrue(block instanceof DictionaryBlock);
+                    DictionaryId blockDictionaryId = ((DictionaryBlock) block).getDictionarySourceId();
+                    if (dictionaryId == null) {
+                        dictionaryId = blockDictionaryId;
+                    }
+                    assertEquals(blockDictionaryId, dictionaryId);
+
+                    for (int i = 0; i < batchSize; i++) {
+                        assertEquals(VARCHAR.getSlice(block, i).toStringUtf8(), lowCardinalityValue(position + i));
+                    }
+                    position += batchSize;
+                }
+                assertEquals(position, rowCount);
+
+                SliceStreamReader streamReader = (SliceStreamReader) reader.getStreamReader(0);
+                assertEquals(streamReader.getDictionaryLoadCount(), 1);
+                assertEquals(streamReader.getDictionaryReuseCount(), 4);
+            }
+        }
+    }
+
     @Test
     public void testReadUserMetadata()
             throws Exception
@@ -248,6 +293,30 @@ public class TestOrcReaderPositions
         ((Writer) field.get(writer)).writeIntermediateFooter();
     }
 
+    private static void createLowCardinalityStringFile(File file, int count)
+            throws IOException, ReflectiveOperationException, SerDeException
+    {
+        FileSinkOperator.RecordWriter writer = createOrcRecordWriter(file, ORC_12, OrcTester.Compression.NONE, VARCHAR);
+
+        @SuppressWarnings("deprecation") Serializer serde = new OrcSerde();
+        SettableStructObjectInspector objectInspector = createSettableStructObjectInspector("test", VARCHAR);
+        Object row = objectInspector.create();
+        StructField field = objectInspector.getAllStructFieldRefs().get(0);
+
+        for (int i = 0; i < count; i++) {
+            objectInspector.setStructFieldData(row, field, lowCardinalityValue(i));
+            Writable record = serde.serialize(row, objectInspector);
+            writer.write(record);
+        }
+
+        writer.close(false);
+    }
+
+    private static String lowCardinalityValue(long position)
+    {
+        return "value_" + (position % 7);
+    }
+
     private static void createSequentialFile(File file, int count)
             throws IOException, ReflectiveOperationException, SerDeException
     {
@@ -41,6 +41,7 @@ public class RaptorInsertTableHandle
     private final OptionalInt bucketCount;
     private final List<RaptorColumnHandle> bucketColumnHandles;
     private final Optional<RaptorColumnHandle> temporalColumnHandle;
+    private final List<RaptorColumnHandle> bloomFilterColumnHandles;
 
     @JsonCreator
     public RaptorInsertTableHandle(
@@ -54,7 +55,8 @@ public class RaptorInsertTableHandle
             @JsonProperty("sortOrders") List<SortOrder> sortOrders,
             @JsonProperty("bucketCount") OptionalInt bucketCount,
             @JsonProperty("bucketColumnHandles") List<RaptorColumnHandle> bucketColumnHandles,
-            @JsonProperty("temporalColumnHandle") Optional<RaptorColumnHandle> temporalColumnHandle)
+            @JsonProperty("temporalColumnHandle") Optional<RaptorColumnHandle> temporalColumnHandle,
+            @JsonProperty("bloomFilterColumnHandles") List<RaptorColumnHandle> bloomFilterColumnHandles)
     {
         checkArgument(tableId > 0, "tableId must be greater than zero");
 
@@ -70,6 +72,7 @@ public class RaptorInsertTableHandle
         this.bucketCount = requireNonNull(bucketCount, "bucketCount is null");
         this.bucketColumnHandles = ImmutableList.copyOf(requireNonNull(bucketColumnHandles, "bucketColumnHandles is null"));
         this.temporalColumnHandle = requireNonNull(temporalColumnHandle, "temporalColumnHandle is null");
+        this.bloomFilterColumnHandles = ImmutableList.copyOf(requireNonNull(bloomFilterColumnHandles, "bloomFilterColumnHandles is null"));
     }
 
     @JsonProperty
@@ -138,6 +141,12 @@ public class RaptorInsertTableHandle
         return temporalColumnHandle;
     }
 
+    @JsonProperty
+    public List<RaptorColumnHandle> getBloomFilterColumnHandles()
+    {
+        return bloomFilterColumnHandles;
+    }
+
     @Override
     public String toString()
     {
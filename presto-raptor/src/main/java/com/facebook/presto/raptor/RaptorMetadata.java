@@ -16,12 +16,14 @@ package com.facebook.presto.raptor;
 import com.facebook.presto.raptor.metadata.ColumnInfo;
 import com.facebook.presto.raptor.metadata.Distribution;
 import com.facebook.presto.raptor.metadata.MetadataDao;
+import com.facebook.presto.raptor.metadata.ShardDeleteDelta;
 import com.facebook.presto.raptor.metadata.ShardDelta;
 import com.facebook.presto.raptor.metadata.ShardInfo;
 import com.facebook.presto.raptor.metadata.ShardManager;
 import com.facebook.presto.raptor.metadata.Table;
 import com.facebook.presto.raptor.metadata.TableColumn;
 import com.facebook.presto.raptor.metadata.ViewResult;
+import com.facebook.presto.raptor.storage.ShardBloomFilter;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnIdentity;
 import com.facebook.presto.spi.ColumnMetadata;
@@ -37,9 +39,11 @@ import com.facebook.presto.spi.ConnectorTableLayoutResult;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.ConnectorViewDefinition;
 import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.SortingProperty;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.facebook.presto.spi.ViewNotFoundException;
 import com.facebook.presto.spi.connector.ConnectorMetadata;
@@ -85,12 +89,14 @@ import static com.facebook.presto.raptor.RaptorColumnHandle.shardUuidColumnHandl
 import static com.facebook.presto.raptor.RaptorErrorCode.RAPTOR_ERROR;
 import static com.facebook.presto.raptor.RaptorSessionProperties.getExternalBatchId;
 import static com.facebook.presto.raptor.RaptorSessionProperties.getOneSplitPerBucketThreshold;
+import static com.facebook.presto.raptor.RaptorTableProperties.BLOOM_FILTER_COLUMNS_PROPERTY;
 import static com.facebook.presto.raptor.RaptorTableProperties.BUCKETED_ON_PROPERTY;
 import static com.facebook.presto.raptor.RaptorTableProperties.BUCKET_COUNT_PROPERTY;
 import static com.facebook.presto.raptor.RaptorTableProperties.DISTRIBUTION_NAME_PROPERTY;
 import static com.facebook.presto.raptor.RaptorTableProperties.ORDERING_PROPERTY;
 import static com.facebook.presto.raptor.RaptorTableProperties.ORGANIZED_PROPERTY;
 import static com.facebook.presto.raptor.RaptorTableProperties.TEMPORAL_COLUMN_PROPERTY;
+import static com.facebook.presto.raptor.RaptorTableProperties.getBloomFilterColumns;
 import static com.facebook.presto.raptor.RaptorTableProperties.getBucketColumns;
 import static com.facebook.presto.raptor.RaptorTableProperties.getBucketCount;
 import static com.facebook.presto.raptor.RaptorTableProperties.getDistributionName;
@@ -217,6 +223,15 @@ public class RaptorMetadata
             properties.put(ORDERING_PROPERTY, ImmutableList.copyOf(ordering.values()));
         }
 
+        Set<Long> bloomFilterColumnIds = dao.getBloomFilterColumnIds(handle.getTableId());
+        List<String> bloomFilterColumns = tableColumns.stream()
+                .filter(column -> bloomFilterColumnIds.contains(column.getColumnId()))
+                .map(TableColumn::getColumnName)
+                .collect(toList());
+        if (!bloomFilterColumns.isEmpty()) {
+            properties.put(BLOOM_FILTER_COLUMNS_PROPERTY, bloomFilterColumns);
+        }
+
         handle.getBucketCount().ifPresent(bucketCount -> properties.put(BUCKET_COUNT_PROPERTY, bucketCount));
         handle.getDistributionName().ifPresent(distributionName -> properties.put(DISTRIBUTION_NAME_PROPERTY, distributionName));
         // Only display organization property if set
@@ -300,7 +315,15 @@ public class RaptorMetadata
     private ConnectorTableLayout getTableLayout(ConnectorSession session, RaptorTableHandle handle, TupleDomain<ColumnHandle> constraint)
     {
         if (!handle.getDistributionId().isPresent()) {
-            return new ConnectorTableLayout(new RaptorTableLayoutHandle(handle, constraint, Optional.empty()));
+            return new ConnectorTableLayout(
+                    new RaptorTableLayoutHandle(handle, constraint, Optional.empty()),
+                    Optional.empty(),
+                    TupleDomain.all(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    ImmutableList.of(),
+                    getShardSortProperties(handle.getTableId()));
         }
 
         List<RaptorColumnHandle> bucketColumnHandles = getBucketColumnHandles(handle.getTableId());
@@ -309,6 +332,7 @@ public class RaptorMetadata
 
         boolean oneSplitPerBucket = handle.getBucketCount().getAsInt() >= getOneSplitPerBucketThreshold(session);
 
+        // a split per bucket reads several shards in sequence, so it is not sorted as a whole
         return new ConnectorTableLayout(
                 new RaptorTableLayoutHandle(handle, constraint, Optional.of(partitioning)),
                 Optional.empty(),
@@ -318,7 +342,19 @@ public class RaptorMetadata
                         ImmutableList.copyOf(bucketColumnHandles))),
                 oneSplitPerBucket ? Optional.of(ImmutableSet.copyOf(bucketColumnHandles)) : Optional.empty(),
                 Optional.empty(),
-                ImmutableList.of());
+                ImmutableList.of(),
+                oneSplitPerBucket ? ImmutableList.of() : getShardSortProperties(handle.getTableId()));
+    }
+
+    /**
+     * Every shard of a table with an ordering is written and compacted in sort order,
+     * so splits that read a single shard are sorted on the ordering columns.
+     */
+    private List<LocalProperty<ColumnHandle>> getShardSortProperties(long tableId)
+    {
+        return getSortColumnHandles(tableId).stream()
+                .map(column -> new SortingProperty<ColumnHandle>(column, ASC_NULLS_FIRST))
+                .collect(toList());
     }
 
     @Override
@@ -495,6 +531,7 @@ public class RaptorMetadata
 
         List<RaptorColumnHandle> sortColumnHandles = getSortColumnHandles(getSortColumns(tableMetadata.getProperties()), columnHandleMap);
         Optional<RaptorColumnHandle> temporalColumnHandle = getTemporalColumnHandle(getTemporalColumn(tableMetadata.getProperties()), columnHandleMap);
+        List<RaptorColumnHandle> bloomFilterColumnHandles = getBloomFilterColumnHandles(getBloomFilterColumns(tableMetadata.getProperties()), columnHandleMap);
 
         if (temporalColumnHandle.isPresent()) {
             RaptorColumnHandle column = temporalColumnHandle.get();
@@ -533,7 +570,8 @@ public class RaptorMetadata
                 distribution.map(info -> OptionalLong.of(info.getDistributionId())).orElse(OptionalLong.empty()),
                 distribution.map(info -> OptionalInt.of(info.getBucketCount())).orElse(OptionalInt.empty()),
                 organized,
-                distribution.map(DistributionInfo::getBucketColumns).orElse(ImmutableList.of()));
+                distribution.map(DistributionInfo::getBucketColumns).orElse(ImmutableList.of()),
+                bloomFilterColumnHandles);
     }
 
     private DistributionInfo getDistributionInfo(long distributionId, Map<String, RaptorColumnHandle> columnHandleMap, Map<String, Object> properties)
@@ -571,6 +609,22 @@ public class RaptorMetadata
         return columnHandles.build();
     }
 
+    private static List<RaptorColumnHandle> getBloomFilterColumnHandles(List<String> bloomFilterColumns, Map<String, RaptorColumnHandle> columnHandleMap)
+    {
+        ImmutableList.Builder<RaptorColumnHandle> columnHandles = ImmutableList.builder();
+        for (String column : ImmutableSet.copyOf(bloomFilterColumns)) {
+            RaptorColumnHandle handle = columnHandleMap.get(column);
+            if (handle == null) {
+                throw new PrestoException(NOT_FOUND, "Bloom filter column does not exist: " + column);
+            }
+            if (!ShardBloomFilter.isSupportedType(handle.getColumnType())) {
+                throw new PrestoException(NOT_SUPPORTED, "Bloom filter column must be of type bigint, date, timestamp or varchar: " + column);
+            }
+            columnHandles.add(handle);
+        }
+        return columnHandles.build();
+    }
+
     private static List<RaptorColumnHandle> getBucketColumnHandles(List<String> bucketColumns, Map<String, RaptorColumnHandle> columnHandleMap)
     {
         ImmutableList.Builder<RaptorColumnHandle> columnHandles = ImmutableList.builder();
@@ -613,6 +667,9 @@ public class RaptorMetadata
                 if (table.getTemporalColumnHandle().isPresent() && table.getTemporalColumnHandle().get().equals(column)) {
                     dao.updateTemporalColumnId(tableId, columnId);
                 }
+                if (table.getBloomFilterColumnHandles().contains(column)) {
+                    dao.insertBloomFilterColumn(tableId, columnId);
+                }
             }
 
             return tableId;
@@ -659,6 +716,11 @@ public class RaptorMetadata
                         .filter(columnHandle -> columnHandle.getColumnId() == temporalColumnId)
                         .collect(toList())));
 
+        Set<Long> bloomFilterColumnIds = dao.getBloomFilterColumnIds(tableId);
+        List<RaptorColumnHandle> bloomFilterColumnHandles = columnHandles.build().stream()
+                .filter(columnHandle -> bloomFilterColumnIds.contains(columnHandle.getColumnId()))
+                .collect(toList());
+
         return new RaptorInsertTableHandle(connectorId,
                 transactionId,
                 tableId,
@@ -669,7 +731,8 @@ public class RaptorMetadata
                 nCopies(sortColumnHandles.size(), ASC_NULLS_FIRST),
                 handle.getBucketCount(),
                 bucketColumnHandles,
-                temporalColumnHandle);
+                temporalColumnHandle,
+                bloomFilterColumnHandles);
     }
 
     private List<RaptorColumnHandle> getSortColumnHandles(long tableId)
@@ -746,20 +809,24 @@ public class RaptorMetadata
 
         ImmutableSet.Builder<UUID> oldShardUuidsBuilder = ImmutableSet.builder();
         ImmutableList.Builder<ShardInfo> newShardsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<ShardDeleteDelta> deleteDeltasBuilder = ImmutableList.builder();
 
         fragments.stream()
                 .map(fragment -> SHARD_DELTA_CODEC.fromJson(fragment.getBytes()))
                 .forEach(delta -> {
                     oldShardUuidsBuilder.addAll(delta.getOldShardUuids());
                     newShardsBuilder.addAll(delta.getNewShards());
+                    deleteDeltasBuilder.addAll(delta.getDeleteDeltas());
                 });
 
         Set<UUID> oldShardUuids = oldShardUuidsBuilder.build();
         List<ShardInfo> newShards = newShardsBuilder.build();
+        List<ShardDeleteDelta> deleteDeltas = deleteDeltasBuilder.build();
         OptionalLong updateTime = OptionalLong.of(session.getStartTime());
 
-        log.info("Finishing delete for tableId %s (removed: %s, rewritten: %s)", tableId, oldShardUuids.size() - newShards.size(), newShards.size());
-        shardManager.replaceShardUuids(transactionId, tableId, columns, oldShardUuids, newShards, updateTime);
+        // shards are only removed or rewritten when they had no delete bitmap
+        log.info("Finishing delete for tableId %s (removed: %s, rewritten: %s, bitmaps: %s)", tableId, oldShardUuids.size() - newShards.size(), newShards.size(), deleteDeltas.size());
+        shardManager.replaceShardUuids(transactionId, tableId, columns, oldShardUuids, ImmutableMap.of(), newShards, deleteDeltas, updateTime);
 
         clearRollback();
     }
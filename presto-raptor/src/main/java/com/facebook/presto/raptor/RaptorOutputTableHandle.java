@@ -45,6 +45,7 @@ public class RaptorOutputTableHandle
     private final OptionalInt bucketCount;
     private final List<RaptorColumnHandle> bucketColumnHandles;
     private final boolean organized;
+    private final List<RaptorColumnHandle> bloomFilterColumnHandles;
 
     @JsonCreator
     public RaptorOutputTableHandle(
@@ -60,7 +61,8 @@ public class RaptorOutputTableHandle
             @JsonProperty("distributionId") OptionalLong distributionId,
             @JsonProperty("bucketCount") OptionalInt bucketCount,
             @JsonProperty("organized") boolean organized,
-            @JsonProperty("bucketColumnHandles") List<RaptorColumnHandle> bucketColumnHandles)
+            @JsonProperty("bucketColumnHandles") List<RaptorColumnHandle> bucketColumnHandles,
+            @JsonProperty("bloomFilterColumnHandles") List<RaptorColumnHandle> bloomFilterColumnHandles)
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null");
         this.transactionId = transactionId;
@@ -75,6 +77,7 @@ public class RaptorOutputTableHandle
         this.bucketCount = requireNonNull(bucketCount, "bucketCount is null");
         this.bucketColumnHandles = ImmutableList.copyOf(requireNonNull(bucketColumnHandles, "bucketColumnHandles is null"));
         this.organized = organized;
+        this.bloomFilterColumnHandles = ImmutableList.copyOf(requireNonNull(bloomFilterColumnHandles, "bloomFilterColumnHandles is null"));
     }
 
     @JsonProperty
@@ -155,6 +158,12 @@ public class RaptorOutputTableHandle
         return organized;
     }
 
+    @JsonProperty
+    public List<RaptorColumnHandle> getBloomFilterColumnHandles()
+    {
+        return bloomFilterColumnHandles;
+    }
+
     @Override
     public String toString()
     {
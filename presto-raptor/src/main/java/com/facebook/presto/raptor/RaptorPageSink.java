@@ -26,6 +26,7 @@ import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.json.JsonCodec;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
@@ -38,6 +39,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static com.facebook.presto.spi.type.DateType.DATE;
@@ -67,6 +69,7 @@ public class RaptorPageSink
     private final long maxBufferBytes;
     private final OptionalInt temporalColumnIndex;
     private final Optional<Type> temporalColumnType;
+    private final Set<Long> bloomFilterColumnIds;
 
     private final PageWriter pageWriter;
 
@@ -81,6 +84,7 @@ public class RaptorPageSink
             OptionalInt bucketCount,
             List<Long> bucketColumnIds,
             Optional<RaptorColumnHandle> temporalColumnHandle,
+            Set<Long> bloomFilterColumnIds,
             DataSize maxBufferSize)
     {
         this.transactionId = transactionId;
@@ -107,6 +111,8 @@ public class RaptorPageSink
             temporalColumnType = Optional.empty();
         }
 
+        this.bloomFilterColumnIds = ImmutableSet.copyOf(requireNonNull(bloomFilterColumnIds, "bloomFilterColumnIds is null"));
+
         this.pageWriter = (bucketCount.isPresent() || temporalColumnIndex.isPresent()) ? new PartitionedPageWriter() : new SimplePageWriter();
     }
 
@@ -161,7 +167,7 @@ public class RaptorPageSink
     {
         return new PageBuffer(
                 maxBufferBytes,
-                storageManager.createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, true),
+                storageManager.createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, bloomFilterColumnIds, true),
                 columnTypes,
                 sortFields,
                 sortOrders,
@@ -22,6 +22,7 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PageSorter;
 import com.facebook.presto.spi.connector.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 
 import javax.inject.Inject;
@@ -61,6 +62,7 @@ public class RaptorPageSinkProvider
                 handle.getBucketCount(),
                 toColumnIds(handle.getBucketColumnHandles()),
                 handle.getTemporalColumnHandle(),
+                ImmutableSet.copyOf(toColumnIds(handle.getBloomFilterColumnHandles())),
                 maxBufferSize);
     }
 
@@ -79,6 +81,7 @@ public class RaptorPageSinkProvider
                 handle.getBucketCount(),
                 toColumnIds(handle.getBucketColumnHandles()),
                 handle.getTemporalColumnHandle(),
+                ImmutableSet.copyOf(toColumnIds(handle.getBloomFilterColumnHandles())),
                 maxBufferSize);
     }
 
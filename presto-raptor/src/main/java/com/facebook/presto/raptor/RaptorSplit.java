@@ -13,15 +13,18 @@
  */
 package com.facebook.presto.raptor;
 
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
@@ -35,6 +38,7 @@ public class RaptorSplit
 {
     private final String connectorId;
     private final Set<UUID> shardUuids;
+    private final Map<UUID, DeleteBitmap> deleteBitmaps;
     private final OptionalInt bucketNumber;
     private final List<HostAddress> addresses;
     private final TupleDomain<RaptorColumnHandle> effectivePredicate;
@@ -44,37 +48,41 @@ public class RaptorSplit
     public RaptorSplit(
             @JsonProperty("connectorId") String connectorId,
             @JsonProperty("shardUuids") Set<UUID> shardUuids,
+            @JsonProperty("deleteBitmaps") Map<UUID, DeleteBitmap> deleteBitmaps,
             @JsonProperty("bucketNumber") OptionalInt bucketNumber,
             @JsonProperty("effectivePredicate") TupleDomain<RaptorColumnHandle> effectivePredicate,
             @JsonProperty("transactionId") OptionalLong transactionId)
     {
-        this(connectorId, shardUuids, bucketNumber, ImmutableList.of(), effectivePredicate, transactionId);
+        this(connectorId, shardUuids, deleteBitmaps, bucketNumber, ImmutableList.of(), effectivePredicate, transactionId);
     }
 
     public RaptorSplit(
             String connectorId,
             UUID shardUuid,
+            Map<UUID, DeleteBitmap> deleteBitmaps,
             List<HostAddress> addresses,
             TupleDomain<RaptorColumnHandle> effectivePredicate,
             OptionalLong transactionId)
     {
-        this(connectorId, ImmutableSet.of(shardUuid), OptionalInt.empty(), addresses, effectivePredicate, transactionId);
+        this(connectorId, ImmutableSet.of(shardUuid), deleteBitmaps, OptionalInt.empty(), addresses, effectivePredicate, transactionId);
     }
 
     public RaptorSplit(
             String connectorId,
             Set<UUID> shardUuids,
+            Map<UUID, DeleteBitmap> deleteBitmaps,
             int bucketNumber,
             HostAddress address,
             TupleDomain<RaptorColumnHandle> effectivePredicate,
             OptionalLong transactionId)
     {
-        this(connectorId, shardUuids, OptionalInt.of(bucketNumber), ImmutableList.of(address), effectivePredicate, transactionId);
+        this(connectorId, shardUuids, deleteBitmaps, OptionalInt.of(bucketNumber), ImmutableList.of(address), effectivePredicate, transactionId);
     }
 
     private RaptorSplit(
             String connectorId,
             Set<UUID> shardUuids,
+            Map<UUID, DeleteBitmap> deleteBitmaps,
             OptionalInt bucketNumber,
             List<HostAddress> addresses,
             TupleDomain<RaptorColumnHandle> effectivePredicate,
@@ -82,6 +90,7 @@ public class RaptorSplit
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null");
         this.shardUuids = ImmutableSet.copyOf(requireNonNull(shardUuids, "shardUuid is null"));
+        this.deleteBitmaps = ImmutableMap.copyOf(requireNonNull(deleteBitmaps, "deleteBitmaps is null"));
         this.bucketNumber = requireNonNull(bucketNumber, "bucketNumber is null");
         this.addresses = ImmutableList.copyOf(requireNonNull(addresses, "addresses is null"));
         this.effectivePredicate = requireNonNull(effectivePredicate, "effectivePredicate is null");
@@ -112,6 +121,15 @@ public class RaptorSplit
         return shardUuids;
     }
 
+    /**
+     * Deleted rows of the shards that have any, as of the time the split was created.
+     */
+    @JsonProperty
+    public Map<UUID, DeleteBitmap> getDeleteBitmaps()
+    {
+        return deleteBitmaps;
+    }
+
     @JsonProperty
     public OptionalInt getBucketNumber()
     {
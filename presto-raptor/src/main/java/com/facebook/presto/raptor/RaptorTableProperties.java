@@ -39,6 +39,7 @@ public class RaptorTableProperties
     public static final String BUCKETED_ON_PROPERTY = "bucketed_on";
     public static final String DISTRIBUTION_NAME_PROPERTY = "distribution_name";
     public static final String ORGANIZED_PROPERTY = "organized";
+    public static final String BLOOM_FILTER_COLUMNS_PROPERTY = "bloom_filter_columns";
 
     private final List<PropertyMetadata<?>> tableProperties;
 
@@ -70,6 +71,10 @@ public class RaptorTableProperties
                         "Keep the table organized using the sort order",
                         null,
                         false))
+                .add(stringListSessionProperty(
+                        typeManager,
+                        BLOOM_FILTER_COLUMNS_PROPERTY,
+                        "Table columns with a bloom filter for each shard"))
                 .build();
     }
 
@@ -110,6 +115,11 @@ public class RaptorTableProperties
         return (value == null) ? false : value;
     }
 
+    public static List<String> getBloomFilterColumns(Map<String, Object> tableProperties)
+    {
+        return stringList(tableProperties.get(BLOOM_FILTER_COLUMNS_PROPERTY));
+    }
+
     public static PropertyMetadata<String> lowerCaseStringSessionProperty(String name, String description)
     {
         return new PropertyMetadata<>(
@@ -25,16 +25,24 @@ public class ColumnStats
     private final long columnId;
     private final Object min;
     private final Object max;
+    private final byte[] bloomFilter;
+
+    public ColumnStats(long columnId, @Nullable Object min, @Nullable Object max)
+    {
+        this(columnId, min, max, null);
+    }
 
     @JsonCreator
     public ColumnStats(
             @JsonProperty("columnId") long columnId,
             @JsonProperty("min") @Nullable Object min,
-            @JsonProperty("max") @Nullable Object max)
+            @JsonProperty("max") @Nullable Object max,
+            @JsonProperty("bloomFilter") @Nullable byte[] bloomFilter)
     {
         this.columnId = columnId;
         this.min = min;
         this.max = max;
+        this.bloomFilter = bloomFilter;
     }
 
     @JsonProperty
@@ -57,6 +65,21 @@ public class ColumnStats
         return max;
     }
 
+    /**
+     * Serialized {@link com.facebook.presto.raptor.storage.ShardBloomFilter} of the column values, if one was built.
+     */
+    @Nullable
+    @JsonProperty
+    public byte[] getBloomFilter()
+    {
+        return bloomFilter;
+    }
+
+    public ColumnStats withBloomFilter(@Nullable byte[] bloomFilter)
+    {
+        return new ColumnStats(columnId, min, max, bloomFilter);
+    }
+
     @Override
     public String toString()
     {
@@ -64,6 +87,7 @@ public class ColumnStats
                 .add("columnId", columnId)
                 .add("min", min)
                 .add("max", max)
+                .add("bloomFilterSize", (bloomFilter == null) ? null : bloomFilter.length)
                 .omitNullValues()
                 .toString();
     }
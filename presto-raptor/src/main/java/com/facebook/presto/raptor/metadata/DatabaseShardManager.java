@@ -73,6 +73,7 @@ import static com.facebook.presto.raptor.util.ArrayUtil.intArrayToBytes;
 import static com.facebook.presto.raptor.util.DatabaseUtil.bindOptionalInt;
 import static com.facebook.presto.raptor.util.DatabaseUtil.isSyntaxOrAccessError;
 import static com.facebook.presto.raptor.util.DatabaseUtil.metadataError;
+import static com.facebook.presto.raptor.util.DatabaseUtil.onDemandDao;
 import static com.facebook.presto.raptor.util.DatabaseUtil.runIgnoringConstraintViolation;
 import static com.facebook.presto.raptor.util.DatabaseUtil.runTransaction;
 import static com.facebook.presto.raptor.util.UuidUtil.uuidFromBytes;
@@ -168,6 +169,7 @@ public class DatabaseShardManager
     @Override
     public void createTable(long tableId, List<ColumnInfo> columns, boolean bucketed, OptionalLong temporalColumnId)
     {
+        Set<Long> bloomFilterColumnIds = onDemandDao(dbi, MetadataDao.class).getBloomFilterColumnIds(tableId);
         StringJoiner tableColumns = new StringJoiner(",\n  ", "  ", ",\n").setEmptyValue("");
 
         for (ColumnInfo column : columns) {
@@ -176,6 +178,9 @@ public class DatabaseShardManager
                 tableColumns.add(minColumn(column.getColumnId()) + " " + columnType);
                 tableColumns.add(maxColumn(column.getColumnId()) + " " + columnType);
             }
+            if (bloomFilterColumnIds.contains(column.getColumnId())) {
+                tableColumns.add(bloomFilterColumn(column.getColumnId()) + " mediumblob");
+            }
         }
 
         StringJoiner coveringIndexColumns = new StringJoiner(", ");
@@ -239,11 +244,13 @@ public class DatabaseShardManager
             ShardDao shardDao = shardDaoSupplier.attach(handle);
             shardDao.insertDeletedShards(tableId);
             shardDao.dropShardNodes(tableId);
+            shardDao.dropShardDeletes(tableId);
             shardDao.dropShards(tableId);
 
             handle.attach(ShardOrganizerDao.class).dropOrganizerJobs(tableId);
 
             MetadataDao dao = handle.attach(MetadataDao.class);
+            dao.dropBloomFilterColumns(tableId);
             dao.dropColumns(tableId);
             dao.dropTable(tableId);
             return null;
@@ -313,7 +320,15 @@ public class DatabaseShardManager
     }
 
     @Override
-    public void replaceShardUuids(long transactionId, long tableId, List<ColumnInfo> columns, Set<UUID> oldShardUuids, Collection<ShardInfo> newShards, OptionalLong updateTime)
+    public void replaceShardUuids(
+            long transactionId,
+            long tableId,
+            List<ColumnInfo> columns,
+            Set<UUID> oldShardUuids,
+            Map<UUID, Long> oldShardDeletedRowCounts,
+            Collection<ShardInfo> newShards,
+            Collection<ShardDeleteDelta> deleteDeltas,
+            OptionalLong updateTime)
     {
         Map<String, Integer> nodeIds = toNodeIdMap(newShards);
 
@@ -334,15 +349,17 @@ public class DatabaseShardManager
             }
 
             for (List<UUID> uuids : partition(oldShardUuids, 1000)) {
-                ShardStats stats = deleteShardsAndIndex(tableId, ImmutableSet.copyOf(uuids), handle);
+                ShardStats stats = deleteShardsAndIndex(tableId, ImmutableSet.copyOf(uuids), oldShardDeletedRowCounts, handle);
                 rowCount -= stats.getRowCount();
                 compressedSize -= stats.getCompressedSize();
                 uncompressedSize -= stats.getUncompressedSize();
             }
 
+            rowCount -= updateShardDeletes(tableId, deleteDeltas, handle);
+
             long shardCount = newShards.size() - oldShardUuids.size();
 
-            if (!oldShardUuids.isEmpty() || !newShards.isEmpty()) {
+            if (!oldShardUuids.isEmpty() || !newShards.isEmpty() || !deleteDeltas.isEmpty()) {
                 MetadataDao metadata = handle.attach(MetadataDao.class);
                 metadata.updateTableStats(tableId, shardCount, rowCount, compressedSize, uncompressedSize);
                 updateTime.ifPresent(time -> metadata.updateTableVersion(tableId, time));
@@ -391,7 +408,7 @@ public class DatabaseShardManager
         return true;
     }
 
-    private ShardStats deleteShardsAndIndex(long tableId, Set<UUID> shardUuids, Handle handle)
+    private ShardStats deleteShardsAndIndex(long tableId, Set<UUID> shardUuids, Map<UUID, Long> expectedDeletedRowCounts, Handle handle)
             throws SQLException
     {
         String args = Joiner.on(",").join(nCopies(shardUuids.size(), "?"));
@@ -402,16 +419,24 @@ public class DatabaseShardManager
         long uncompressedSize = 0;
 
         String selectShards = format("" +
-                "SELECT shard_id, row_count, compressed_size, uncompressed_size\n" +
-                "FROM shards\n" +
-                "WHERE shard_uuid IN (%s)", args);
+                "SELECT s.shard_id, s.shard_uuid, s.row_count, s.compressed_size, s.uncompressed_size, d.deleted_row_count\n" +
+                "FROM shards s\n" +
+                "LEFT JOIN shard_deletes d ON (s.shard_id = d.shard_id)\n" +
+                "WHERE s.shard_uuid IN (%s)", args);
 
         try (PreparedStatement statement = handle.getConnection().prepareStatement(selectShards)) {
             bindUuids(statement, shardUuids);
             try (ResultSet rs = statement.executeQuery()) {
                 while (rs.next()) {
+                    // the shard was read with a different set of deleted rows
+                    long deletedRowCount = rs.getLong("deleted_row_count");
+                    UUID shardUuid = uuidFromBytes(rs.getBytes("shard_uuid"));
+                    if (deletedRowCount != expectedDeletedRowCounts.getOrDefault(shardUuid, 0L)) {
+                        throw transactionConflict();
+                    }
+
                     shardIdSet.add(rs.getLong("shard_id"));
-                    rowCount += rs.getLong("row_count");
+                    rowCount += rs.getLong("row_count") - deletedRowCount;
                     compressedSize += rs.getLong("compressed_size");
                     uncompressedSize += rs.getLong("uncompressed_size");
                 }
@@ -428,12 +453,15 @@ public class DatabaseShardManager
 
         String where = " WHERE shard_id IN (" + args + ")";
         String deleteFromShardNodes = "DELETE FROM shard_nodes " + where;
+        String deleteFromShardDeletes = "DELETE FROM shard_deletes " + where;
         String deleteFromShards = "DELETE FROM shards " + where;
         String deleteFromShardIndex = "DELETE FROM " + shardIndexTable(tableId) + where;
 
-        try (PreparedStatement statement = handle.getConnection().prepareStatement(deleteFromShardNodes)) {
-            bindLongs(statement, shardIds);
-            statement.executeUpdate();
+        for (String sql : asList(deleteFromShardNodes, deleteFromShardDeletes)) {
+            try (PreparedStatement statement = handle.getConnection().prepareStatement(sql)) {
+                bindLongs(statement, shardIds);
+                statement.executeUpdate();
+            }
         }
 
         for (String sql : asList(deleteFromShards, deleteFromShardIndex)) {
@@ -448,6 +476,56 @@ public class DatabaseShardManager
         return new ShardStats(rowCount, compressedSize, uncompressedSize);
     }
 
+    /**
+     * Replace the delete bitmaps of kept shards.
+     *
+     * @return the number of newly deleted rows
+     */
+    private static long updateShardDeletes(long tableId, Collection<ShardDeleteDelta> deleteDeltas, Handle handle)
+            throws SQLException
+    {
+        String selectShard = "" +
+                "SELECT s.shard_id, d.deleted_row_count\n" +
+                "FROM shards s\n" +
+                "LEFT JOIN shard_deletes d ON (s.shard_id = d.shard_id)\n" +
+                "WHERE s.shard_uuid = ?\n" +
+                "  AND s.table_id = ?";
+        String deleteBitmap = "DELETE FROM shard_deletes WHERE shard_id = ?";
+        String insertBitmap = "INSERT INTO shard_deletes (shard_id, deleted_row_count, delete_bitmap) VALUES (?, ?, ?)";
+
+        Connection connection = handle.getConnection();
+        long deletedRows = 0;
+        for (ShardDeleteDelta delta : deleteDeltas) {
+            long shardId;
+            try (PreparedStatement statement = connection.prepareStatement(selectShard)) {
+                statement.setBytes(1, uuidToBytes(delta.getShardUuid()));
+                statement.setLong(2, tableId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    // the shard was replaced or received other deletes since it was read
+                    if (!rs.next() || rs.getLong("deleted_row_count") != delta.getPreviousDeletedRowCount()) {
+                        throw transactionConflict();
+                    }
+                    shardId = rs.getLong("shard_id");
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(deleteBitmap)) {
+                statement.setLong(1, shardId);
+                statement.executeUpdate();
+            }
+
+            long deletedRowCount = delta.getDeleteBitmap().getDeletedRowCount();
+            try (PreparedStatement statement = connection.prepareStatement(insertBitmap)) {
+                statement.setLong(1, shardId);
+                statement.setLong(2, deletedRowCount);
+                statement.setBytes(3, delta.getDeleteBitmap().toByteArray());
+                statement.executeUpdate();
+            }
+            deletedRows += deletedRowCount - delta.getPreviousDeletedRowCount();
+        }
+        return deletedRows;
+    }
+
     private static void bindUuids(PreparedStatement statement, Iterable<UUID> uuids)
             throws SQLException
     {
@@ -657,6 +735,12 @@ public class DatabaseShardManager
         return dao.getBucketNodes(distibutionId);
     }
 
+    @Override
+    public Set<DistributionBucket> getNodeBuckets(String nodeIdentifier)
+    {
+        return dao.getNodeBuckets(nodeIdentifier);
+    }
+
     @Override
     public Set<UUID> getExistingShardUuids(long tableId, Set<UUID> shardUuids)
     {
@@ -682,6 +766,60 @@ public class DatabaseShardManager
         }
     }
 
+    @Override
+    public Map<UUID, DeleteBitmap> getShardDeleteBitmaps(Set<UUID> shardUuids)
+    {
+        ImmutableMap.Builder<UUID, DeleteBitmap> bitmaps = ImmutableMap.builder();
+        try (Handle handle = dbi.open()) {
+            for (List<UUID> uuids : partition(shardUuids, 1000)) {
+                String args = Joiner.on(",").join(nCopies(uuids.size(), "?"));
+                String selectBitmaps = format("" +
+                        "SELECT s.shard_uuid, d.delete_bitmap\n" +
+                        "FROM shards s\n" +
+                        "JOIN shard_deletes d ON (s.shard_id = d.shard_id)\n" +
+                        "WHERE s.shard_uuid IN (%s)", args);
+
+                try (PreparedStatement statement = handle.getConnection().prepareStatement(selectBitmaps)) {
+                    bindUuids(statement, uuids);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            bitmaps.put(uuidFromBytes(rs.getBytes("shard_uuid")), DeleteBitmap.fromByteArray(rs.getBytes("delete_bitmap")));
+                        }
+                    }
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw metadataError(e);
+        }
+        return bitmaps.build();
+    }
+
+    @Override
+    public Map<UUID, Long> getShardDeletedRowCounts(long tableId)
+    {
+        String selectCounts = "" +
+                "SELECT s.shard_uuid, d.deleted_row_count\n" +
+                "FROM shards s\n" +
+                "JOIN shard_deletes d ON (s.shard_id = d.shard_id)\n" +
+                "WHERE s.table_id = ?";
+
+        ImmutableMap.Builder<UUID, Long> counts = ImmutableMap.builder();
+        try (Handle handle = dbi.open();
+                PreparedStatement statement = handle.getConnection().prepareStatement(selectCounts)) {
+            statement.setLong(1, tableId);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(uuidFromBytes(rs.getBytes("shard_uuid")), rs.getLong("deleted_row_count"));
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw metadataError(e);
+        }
+        return counts.build();
+    }
+
     private List<BucketNode> getBuckets(long distributionId)
     {
         return dao.getBucketNodes(distributionId);
@@ -864,6 +1002,12 @@ public class DatabaseShardManager
         return format("c%s_max", columnId);
     }
 
+    public static String bloomFilterColumn(long columnId)
+    {
+        checkArgument(columnId >= 0, "invalid columnId %s", columnId);
+        return format("c%s_bloom", columnId);
+    }
+
     private static String sqlColumnType(Type type)
     {
         JDBCType jdbcType = jdbcType(type);
@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Row positions of a shard that were deleted without rewriting the shard file.
+ * <p>
+ * The bitmap is stored in the database and shipped with every split of the shard, so it is
+ * serialized as runs of deleted positions, or as a plain bitmap when that is smaller. A
+ * leading byte identifies the format.
+ */
+public final class DeleteBitmap
+{
+    private static final byte BITMAP_FORMAT = 0;
+    private static final byte RUNS_FORMAT = 1;
+
+    private final BitSet deletedRows;
+
+    public DeleteBitmap(BitSet deletedRows)
+    {
+        this.deletedRows = (BitSet) requireNonNull(deletedRows, "deletedRows is null").clone();
+    }
+
+    @JsonCreator
+    public static DeleteBitmap fromByteArray(byte[] bytes)
+    {
+        checkArgument(bytes.length > 0, "bytes is empty");
+        if (bytes[0] == BITMAP_FORMAT) {
+            return new DeleteBitmap(BitSet.valueOf(ByteBuffer.wrap(bytes, 1, bytes.length - 1)));
+        }
+        checkArgument(bytes[0] == RUNS_FORMAT, "Invalid delete bitmap format: %s", bytes[0]);
+
+        // pairs of the gap since the previous run and the length of the run
+        SliceInput input = Slices.wrappedBuffer(bytes, 1, bytes.length - 1).getInput();
+        BitSet deletedRows = new BitSet();
+        int position = 0;
+        while (input.isReadable()) {
+            position += readVarInt(input);
+            int length = readVarInt(input);
+            deletedRows.set(position, position + length);
+            position += length;
+        }
+        return new DeleteBitmap(deletedRows);
+    }
+
+    @JsonValue
+    public byte[] toByteArray()
+    {
+        DynamicSliceOutput runs = new DynamicSliceOutput(16);
+        runs.writeByte(RUNS_FORMAT);
+        int previousEnd = 0;
+        int bitmapSize = 1 + (deletedRows.length() + 7) / 8;
+        for (int start = deletedRows.nextSetBit(0); start >= 0; start = deletedRows.nextSetBit(previousEnd)) {
+            int end = deletedRows.nextClearBit(start);
+            writeVarInt(runs, start - previousEnd);
+            writeVarInt(runs, end - start);
+            previousEnd = end;
+            if (runs.size() > bitmapSize) {
+                break;
+            }
+        }
+        if (runs.size() <= bitmapSize) {
+            return runs.slice().getBytes();
+        }
+
+        byte[] bitmap = deletedRows.toByteArray();
+        byte[] bytes = new byte[bitmap.length + 1];
+        bytes[0] = BITMAP_FORMAT;
+        System.arraycopy(bitmap, 0, bytes, 1, bitmap.length);
+        return bytes;
+    }
+
+    public boolean isDeleted(int position)
+    {
+        return deletedRows.get(position);
+    }
+
+    /**
+     * Returns the first deleted position in the range, or -1 if none is deleted.
+     */
+    public int nextDeleted(int fromPosition, int toPosition)
+    {
+        int position = deletedRows.nextSetBit(fromPosition);
+        return (position >= 0 && position < toPosition) ? position : -1;
+    }
+
+    public long getDeletedRowCount()
+    {
+        return deletedRows.cardinality();
+    }
+
+    public DeleteBitmap union(BitSet rows)
+    {
+        BitSet union = (BitSet) deletedRows.clone();
+        union.or(rows);
+        return new DeleteBitmap(union);
+    }
+
+    public BitSet toBitSet()
+    {
+        return (BitSet) deletedRows.clone();
+    }
+
+    private static void writeVarInt(SliceOutput output, int value)
+    {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(SliceInput input)
+    {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            checkArgument(input.isReadable(), "Truncated delete bitmap");
+            byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        DeleteBitmap other = (DeleteBitmap) obj;
+        return deletedRows.equals(other.deletedRows);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return deletedRows.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("deletedRowCount", getDeletedRowCount())
+                .toString();
+    }
+}
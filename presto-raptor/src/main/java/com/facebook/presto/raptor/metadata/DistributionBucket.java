@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import org.skife.jdbi.v2.StatementContext;
+import org.skife.jdbi.v2.tweak.ResultSetMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class DistributionBucket
+{
+    private final long distributionId;
+    private final int bucketNumber;
+
+    public DistributionBucket(long distributionId, int bucketNumber)
+    {
+        checkArgument(bucketNumber >= 0, "bucket number must be positive");
+        this.distributionId = distributionId;
+        this.bucketNumber = bucketNumber;
+    }
+
+    public long getDistributionId()
+    {
+        return distributionId;
+    }
+
+    public int getBucketNumber()
+    {
+        return bucketNumber;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if ((o == null) || (getClass() != o.getClass())) {
+            return false;
+        }
+        DistributionBucket that = (DistributionBucket) o;
+        return (distributionId == that.distributionId) &&
+                (bucketNumber == that.bucketNumber);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(distributionId, bucketNumber);
+    }
+
+    @Override
+    public String toString()
+    {
+        return distributionId + ":" + bucketNumber;
+    }
+
+    public static class Mapper
+            implements ResultSetMapper<DistributionBucket>
+    {
+        @Override
+        public DistributionBucket map(int index, ResultSet rs, StatementContext context)
+                throws SQLException
+        {
+            return new DistributionBucket(
+                    rs.getLong("distribution_id"),
+                    rs.getInt("bucket_number"));
+        }
+    }
+}
@@ -16,12 +16,14 @@ package com.facebook.presto.raptor.metadata;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.util.BooleanMapper;
 
 import java.sql.Connection;
 import java.sql.JDBCType;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
@@ -30,6 +32,7 @@ import java.util.StringJoiner;
 import java.util.UUID;
 
 import static com.facebook.presto.raptor.RaptorColumnHandle.isHiddenColumn;
+import static com.facebook.presto.raptor.metadata.DatabaseShardManager.bloomFilterColumn;
 import static com.facebook.presto.raptor.metadata.DatabaseShardManager.maxColumn;
 import static com.facebook.presto.raptor.metadata.DatabaseShardManager.minColumn;
 import static com.facebook.presto.raptor.metadata.DatabaseShardManager.shardIndexTable;
@@ -47,20 +50,24 @@ class IndexInserter
     private final List<ColumnInfo> columns;
     private final Map<Long, Integer> indexes;
     private final Map<Long, JDBCType> types;
+    private final Map<Long, Integer> bloomFilterIndexes;
     private final PreparedStatement statement;
 
     public IndexInserter(Connection connection, long tableId, List<ColumnInfo> columns)
             throws SQLException
     {
-        this.bucketed = DBI.open(connection)
+        Handle handle = DBI.open(connection);
+        this.bucketed = handle
                 .createQuery("SELECT distribution_id IS NOT NULL FROM tables WHERE table_id = ?")
                 .bind(0, tableId)
                 .map(BooleanMapper.FIRST)
                 .first();
+        Set<Long> bloomFilterColumnIds = handle.attach(MetadataDao.class).getBloomFilterColumnIds(tableId);
 
         ImmutableList.Builder<ColumnInfo> columnBuilder = ImmutableList.builder();
         ImmutableMap.Builder<Long, Integer> indexBuilder = ImmutableMap.builder();
         ImmutableMap.Builder<Long, JDBCType> typeBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<Long, Integer> bloomFilterIndexBuilder = ImmutableMap.builder();
         StringJoiner nameJoiner = new StringJoiner(", ");
         StringJoiner valueJoiner = new StringJoiner(", ");
         int index = 1;
@@ -96,11 +103,19 @@ class IndexInserter
             index += 2;
 
             typeBuilder.put(columnId, jdbcType);
+
+            if (bloomFilterColumnIds.contains(columnId)) {
+                nameJoiner.add(bloomFilterColumn(columnId));
+                valueJoiner.add("?");
+                bloomFilterIndexBuilder.put(columnId, index);
+                index++;
+            }
         }
 
         this.columns = columnBuilder.build();
         this.indexes = indexBuilder.build();
         this.types = typeBuilder.build();
+        this.bloomFilterIndexes = bloomFilterIndexBuilder.build();
 
         String sql = "" +
                 "INSERT INTO " + shardIndexTable(tableId) + "\n" +
@@ -138,12 +153,20 @@ class IndexInserter
             statement.setNull(index, type);
             statement.setNull(index + 1, type);
         }
+        for (int index : bloomFilterIndexes.values()) {
+            statement.setNull(index, Types.BLOB);
+        }
 
         for (ColumnStats column : stats) {
             int index = indexes.get(column.getColumnId());
             JDBCType type = types.get(column.getColumnId());
             bindValue(statement, type, convert(column.getMin()), index);
             bindValue(statement, type, convert(column.getMax()), index + 1);
+
+            Integer bloomFilterIndex = bloomFilterIndexes.get(column.getColumnId());
+            if ((bloomFilterIndex != null) && (column.getBloomFilter() != null)) {
+                statement.setBytes(bloomFilterIndex, column.getBloomFilter());
+            }
         }
 
         statement.addBatch();
@@ -191,6 +191,20 @@ public interface MetadataDao
     @SqlUpdate("DELETE FROM columns WHERE table_id = :tableId")
     int dropColumns(@Bind("tableId") long tableId);
 
+    @SqlUpdate("INSERT INTO bloom_filter_columns (table_id, column_id)\n" +
+            "VALUES (:tableId, :columnId)")
+    void insertBloomFilterColumn(
+            @Bind("tableId") long tableId,
+            @Bind("columnId") long columnId);
+
+    @SqlQuery("SELECT column_id\n" +
+            "FROM bloom_filter_columns\n" +
+            "WHERE table_id = :tableId")
+    Set<Long> getBloomFilterColumnIds(@Bind("tableId") long tableId);
+
+    @SqlUpdate("DELETE FROM bloom_filter_columns WHERE table_id = :tableId")
+    int dropBloomFilterColumns(@Bind("tableId") long tableId);
+
     @SqlUpdate("DELETE FROM views\n" +
             "WHERE schema_name = :schemaName\n" +
             "  AND table_name = :tableName")
@@ -66,6 +66,14 @@ public interface SchemaDao
             ")")
     void createTableColumns();
 
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS bloom_filter_columns (\n" +
+            "  table_id BIGINT NOT NULL,\n" +
+            "  column_id BIGINT NOT NULL,\n" +
+            "  PRIMARY KEY (table_id, column_id),\n" +
+            "  FOREIGN KEY (table_id) REFERENCES tables (table_id)\n" +
+            ")")
+    void createTableBloomFilterColumns();
+
     @SqlUpdate("CREATE TABLE IF NOT EXISTS views (\n" +
             "  schema_name VARCHAR(255) NOT NULL,\n" +
             "  table_name VARCHAR(255) NOT NULL,\n" +
@@ -108,6 +116,14 @@ public interface SchemaDao
             ")")
     void createTableShardNodes();
 
+    @SqlUpdate("CREATE TABLE IF NOT EXISTS shard_deletes (\n" +
+            "  shard_id BIGINT PRIMARY KEY,\n" +
+            "  deleted_row_count BIGINT NOT NULL,\n" +
+            "  delete_bitmap MEDIUMBLOB NOT NULL,\n" +
+            "  FOREIGN KEY (shard_id) REFERENCES shards (shard_id)\n" +
+            ")")
+    void createTableShardDeletes();
+
     @SqlUpdate("CREATE TABLE IF NOT EXISTS external_batches (\n" +
             "  external_batch_id VARCHAR(255) PRIMARY KEY,\n" +
             "  successful BOOLEAN NOT NULL\n" +
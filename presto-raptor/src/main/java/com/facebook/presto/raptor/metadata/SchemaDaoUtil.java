@@ -48,10 +48,12 @@ public final class SchemaDaoUtil
         dao.createTableDistributions();
         dao.createTableTables();
         dao.createTableColumns();
+        dao.createTableBloomFilterColumns();
         dao.createTableViews();
         dao.createTableNodes();
         dao.createTableShards();
         dao.createTableShardNodes();
+        dao.createTableShardDeletes();
         dao.createTableExternalBatches();
         dao.createTableTransactions();
         dao.createTableCreatedShards();
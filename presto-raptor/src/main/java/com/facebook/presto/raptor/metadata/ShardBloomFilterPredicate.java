@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.storage.ShardBloomFilter;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.Ranges;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableMap;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.facebook.presto.raptor.metadata.DatabaseShardManager.bloomFilterColumn;
+import static com.facebook.presto.raptor.storage.ShardBloomFilter.valueHash;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Prunes shards using the per-shard bloom filters for columns that
+ * are constrained to a small set of values.
+ */
+class ShardBloomFilterPredicate
+{
+    private static final int MAX_VALUES = 32;
+
+    private final Map<Long, long[]> valueHashes;
+
+    private ShardBloomFilterPredicate(Map<Long, long[]> valueHashes)
+    {
+        this.valueHashes = ImmutableMap.copyOf(requireNonNull(valueHashes, "valueHashes is null"));
+    }
+
+    public boolean isEmpty()
+    {
+        return valueHashes.isEmpty();
+    }
+
+    /**
+     * Additional columns to select from the shard index table, including a leading separator.
+     */
+    public String getColumns()
+    {
+        StringBuilder columns = new StringBuilder();
+        for (long columnId : valueHashes.keySet()) {
+            columns.append(", ").append(bloomFilterColumn(columnId));
+        }
+        return columns.toString();
+    }
+
+    public boolean mightMatch(ResultSet resultSet)
+            throws SQLException
+    {
+        for (Entry<Long, long[]> entry : valueHashes.entrySet()) {
+            byte[] serialized = resultSet.getBytes(bloomFilterColumn(entry.getKey()));
+            if (serialized == null) {
+                continue;
+            }
+            ShardBloomFilter filter = ShardBloomFilter.deserialize(serialized);
+            boolean found = false;
+            for (long hash : entry.getValue()) {
+                if (filter.mightContain(hash)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columnIds", valueHashes.keySet())
+                .toString();
+    }
+
+    public static ShardBloomFilterPredicate matchAll()
+    {
+        return new ShardBloomFilterPredicate(ImmutableMap.of());
+    }
+
+    public static ShardBloomFilterPredicate create(TupleDomain<RaptorColumnHandle> tupleDomain, Set<Long> bloomFilterColumnIds)
+    {
+        ImmutableMap.Builder<Long, long[]> valueHashes = ImmutableMap.builder();
+        if (bloomFilterColumnIds.isEmpty() || !tupleDomain.getDomains().isPresent()) {
+            return new ShardBloomFilterPredicate(valueHashes.build());
+        }
+
+        for (Entry<RaptorColumnHandle, Domain> entry : tupleDomain.getDomains().get().entrySet()) {
+            RaptorColumnHandle handle = entry.getKey();
+            Domain domain = entry.getValue();
+            if (!bloomFilterColumnIds.contains(handle.getColumnId()) || domain.isNullAllowed() || !domain.getType().isOrderable()) {
+                continue;
+            }
+
+            Ranges ranges = domain.getValues().getRanges();
+            if (ranges.getRangeCount() == 0 || ranges.getRangeCount() > MAX_VALUES) {
+                continue;
+            }
+
+            Type type = handle.getColumnType();
+            long[] hashes = new long[ranges.getRangeCount()];
+            int index = 0;
+            for (Range range : ranges.getOrderedRanges()) {
+                if (!range.isSingleValue()) {
+                    hashes = null;
+                    break;
+                }
+                hashes[index] = valueHash(type, range.getSingleValue());
+                index++;
+            }
+            if (hashes != null) {
+                valueHashes.put(handle.getColumnId(), hashes);
+            }
+        }
+        return new ShardBloomFilterPredicate(valueHashes.build());
+    }
+}
@@ -118,6 +118,12 @@ public interface ShardDao
             "  WHERE table_id = :tableId)")
     void dropShardNodes(@Bind("tableId") long tableId);
 
+    @SqlUpdate("DELETE FROM shard_deletes WHERE shard_id IN (\n" +
+            "  SELECT shard_id\n" +
+            "  FROM shards\n" +
+            "  WHERE table_id = :tableId)")
+    void dropShardDeletes(@Bind("tableId") long tableId);
+
     @SqlUpdate("DELETE FROM shards WHERE table_id = :tableId")
     void dropShards(@Bind("tableId") long tableId);
 
@@ -204,6 +210,13 @@ public interface ShardDao
     @Mapper(BucketNode.Mapper.class)
     List<BucketNode> getBucketNodes(@Bind("distributionId") long distributionId);
 
+    @SqlQuery("SELECT b.distribution_id, b.bucket_number\n" +
+            "FROM buckets b\n" +
+            "JOIN nodes n ON (b.node_id = n.node_id)\n" +
+            "WHERE n.node_identifier = :nodeIdentifier")
+    @Mapper(DistributionBucket.Mapper.class)
+    Set<DistributionBucket> getNodeBuckets(@Bind("nodeIdentifier") String nodeIdentifier);
+
     @SqlQuery("SELECT distribution_id, distribution_name, column_types, bucket_count\n" +
             "FROM distributions\n" +
             "WHERE distribution_id IN (SELECT distribution_id FROM tables)")
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * New delete bitmap for a shard that is kept. The previous deleted row count
+ * is the version of the bitmap the delete was based on, and is used to detect
+ * conflicting deletes or compactions.
+ */
+public class ShardDeleteDelta
+{
+    private final UUID shardUuid;
+    private final long previousDeletedRowCount;
+    private final DeleteBitmap deleteBitmap;
+
+    @JsonCreator
+    public ShardDeleteDelta(
+            @JsonProperty("shardUuid") UUID shardUuid,
+            @JsonProperty("previousDeletedRowCount") long previousDeletedRowCount,
+            @JsonProperty("deleteBitmap") DeleteBitmap deleteBitmap)
+    {
+        this.shardUuid = requireNonNull(shardUuid, "shardUuid is null");
+        this.deleteBitmap = requireNonNull(deleteBitmap, "deleteBitmap is null");
+
+        checkArgument(previousDeletedRowCount >= 0, "previousDeletedRowCount is negative");
+        checkArgument(previousDeletedRowCount <= deleteBitmap.getDeletedRowCount(), "deleteBitmap has fewer rows than previousDeletedRowCount");
+        this.previousDeletedRowCount = previousDeletedRowCount;
+    }
+
+    @JsonProperty
+    public UUID getShardUuid()
+    {
+        return shardUuid;
+    }
+
+    @JsonProperty
+    public long getPreviousDeletedRowCount()
+    {
+        return previousDeletedRowCount;
+    }
+
+    @JsonProperty
+    public DeleteBitmap getDeleteBitmap()
+    {
+        return deleteBitmap;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("shardUuid", shardUuid)
+                .add("previousDeletedRowCount", previousDeletedRowCount)
+                .add("deletedRowCount", deleteBitmap.getDeletedRowCount())
+                .toString();
+    }
+}
@@ -26,13 +26,16 @@ public class ShardDelta
 {
     private final List<UUID> oldShardUuids;
     private final List<ShardInfo> newShards;
+    private final List<ShardDeleteDelta> deleteDeltas;
 
     public ShardDelta(
             @JsonProperty("oldShardUuids") List<UUID> oldShardUuids,
-            @JsonProperty("newShards") List<ShardInfo> newShards)
+            @JsonProperty("newShards") List<ShardInfo> newShards,
+            @JsonProperty("deleteDeltas") List<ShardDeleteDelta> deleteDeltas)
     {
         this.oldShardUuids = ImmutableList.copyOf(requireNonNull(oldShardUuids, "oldShardUuids is null"));
         this.newShards = ImmutableList.copyOf(requireNonNull(newShards, "newShards is null"));
+        this.deleteDeltas = ImmutableList.copyOf(requireNonNull(deleteDeltas, "deleteDeltas is null"));
     }
 
     @JsonProperty
@@ -47,12 +50,19 @@ public class ShardDelta
         return newShards;
     }
 
+    @JsonProperty
+    public List<ShardDeleteDelta> getDeleteDeltas()
+    {
+        return deleteDeltas;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("oldShardUuids", oldShardUuids)
                 .add("newShards", newShards)
+                .add("deleteDeltas", deleteDeltas)
                 .toString();
     }
 }
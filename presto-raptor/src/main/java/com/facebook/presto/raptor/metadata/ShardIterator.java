@@ -16,6 +16,7 @@ package com.facebook.presto.raptor.metadata;
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.log.Logger;
@@ -51,11 +52,17 @@ final class ShardIterator
         implements ResultIterator<BucketShards>
 {
     private static final Logger log = Logger.get(ShardIterator.class);
+
+    // every candidate shard ships and deserializes its bloom filters, which costs more than the
+    // splits they can prune for scans of many shards, so bloom filters are only used for few shards
+    private static final int MAX_BLOOM_FILTER_SHARDS = 1_000;
+
     private final Map<Integer, String> nodeMap = new HashMap<>();
 
     private final boolean merged;
     private final Map<Integer, String> bucketToNode;
     private final ShardDao dao;
+    private final ShardBloomFilterPredicate bloomFilterPredicate;
     private final Connection connection;
     private final PreparedStatement statement;
     private final ResultSet resultSet;
@@ -67,25 +74,46 @@ final class ShardIterator
             Optional<Map<Integer, String>> bucketToNode,
             TupleDomain<RaptorColumnHandle> effectivePredicate,
             IDBI dbi)
+    {
+        this(tableId, merged, bucketToNode, effectivePredicate, dbi, MAX_BLOOM_FILTER_SHARDS);
+    }
+
+    @VisibleForTesting
+    ShardIterator(
+            long tableId,
+            boolean merged,
+            Optional<Map<Integer, String>> bucketToNode,
+            TupleDomain<RaptorColumnHandle> effectivePredicate,
+            IDBI dbi,
+            int maxBloomFilterShards)
     {
         this.merged = merged;
         this.bucketToNode = bucketToNode.orElse(null);
         ShardPredicate predicate = ShardPredicate.create(effectivePredicate, bucketToNode.isPresent());
 
-        String sql;
-        if (bucketToNode.isPresent()) {
-            sql = "SELECT shard_uuid, bucket_number FROM %s WHERE %s ORDER BY bucket_number";
-        }
-        else {
-            sql = "SELECT shard_uuid, node_ids FROM %s WHERE %s";
-        }
-        sql = format(sql, shardIndexTable(tableId), predicate.getPredicate());
+        Set<Long> bloomFilterColumnIds = effectivePredicate.isAll() ? ImmutableSet.of() : onDemandDao(dbi, MetadataDao.class).getBloomFilterColumnIds(tableId);
+        ShardBloomFilterPredicate bloomFilterPredicate = ShardBloomFilterPredicate.create(effectivePredicate, bloomFilterColumnIds);
 
         dao = onDemandDao(dbi, ShardDao.class);
         fetchNodes();
 
         try {
             connection = dbi.open().getConnection();
+            if (!bloomFilterPredicate.isEmpty() && hasMoreShards(connection, tableId, predicate, maxBloomFilterShards)) {
+                bloomFilterPredicate = ShardBloomFilterPredicate.matchAll();
+            }
+            this.bloomFilterPredicate = bloomFilterPredicate;
+
+            // the delete bitmaps of the shards are sent with the splits
+            String sql;
+            if (bucketToNode.isPresent()) {
+                sql = "SELECT x.shard_uuid, x.bucket_number, d.delete_bitmap%s FROM %s x LEFT JOIN shard_deletes d ON (x.shard_id = d.shard_id) WHERE %s ORDER BY x.bucket_number";
+            }
+            else {
+                sql = "SELECT x.shard_uuid, x.node_ids, d.delete_bitmap%s FROM %s x LEFT JOIN shard_deletes d ON (x.shard_id = d.shard_id) WHERE %s";
+            }
+            sql = format(sql, bloomFilterPredicate.getColumns(), shardIndexTable(tableId), predicate.getPredicate());
+
             statement = connection.prepareStatement(sql);
             enableStreamingResults(statement);
             predicate.bind(statement);
@@ -133,9 +161,12 @@ final class ShardIterator
     private BucketShards compute()
             throws SQLException
     {
-        if (!resultSet.next()) {
-            return endOfData();
+        do {
+            if (!resultSet.next()) {
+                return endOfData();
+            }
         }
+        while (!bloomFilterPredicate.mightMatch(resultSet));
 
         UUID shardUuid = uuidFromBytes(resultSet.getBytes("shard_uuid"));
         Set<String> nodeIdentifiers;
@@ -151,7 +182,7 @@ final class ShardIterator
             nodeIdentifiers = getNodeIdentifiers(nodeIds, shardUuid);
         }
 
-        ShardNodes shard = new ShardNodes(shardUuid, nodeIdentifiers);
+        ShardNodes shard = new ShardNodes(shardUuid, nodeIdentifiers, getDeleteBitmap(resultSet));
         return new BucketShards(bucketNumber, ImmutableSet.of(shard));
     }
 
@@ -161,29 +192,57 @@ final class ShardIterator
     private BucketShards computeMerged()
             throws SQLException
     {
-        if (resultSet.isAfterLast()) {
-            return endOfData();
-        }
-        if (first) {
-            first = false;
-            if (!resultSet.next()) {
+        while (true) {
+            if (resultSet.isAfterLast()) {
                 return endOfData();
             }
-        }
+            if (first) {
+                first = false;
+                if (!resultSet.next()) {
+                    return endOfData();
+                }
+            }
 
-        int bucketNumber = resultSet.getInt("bucket_number");
-        ImmutableSet.Builder<ShardNodes> shards = ImmutableSet.builder();
+            int bucketNumber = resultSet.getInt("bucket_number");
+            ImmutableSet.Builder<ShardNodes> builder = ImmutableSet.builder();
 
-        do {
-            UUID shardUuid = uuidFromBytes(resultSet.getBytes("shard_uuid"));
-            int bucket = resultSet.getInt("bucket_number");
-            Set<String> nodeIdentifiers = ImmutableSet.of(getBucketNode(bucket));
+            do {
+                if (!bloomFilterPredicate.mightMatch(resultSet)) {
+                    continue;
+                }
+                UUID shardUuid = uuidFromBytes(resultSet.getBytes("shard_uuid"));
+                int bucket = resultSet.getInt("bucket_number");
+                Set<String> nodeIdentifiers = ImmutableSet.of(getBucketNode(bucket));
+
+                builder.add(new ShardNodes(shardUuid, nodeIdentifiers, getDeleteBitmap(resultSet)));
+            }
+            while (resultSet.next() && resultSet.getInt("bucket_number") == bucketNumber);
+
+            // skip buckets where every shard was pruned by the bloom filters
+            Set<ShardNodes> shards = builder.build();
+            if (!shards.isEmpty()) {
+                return new BucketShards(OptionalInt.of(bucketNumber), shards);
+            }
+        }
+    }
 
-            shards.add(new ShardNodes(shardUuid, nodeIdentifiers));
+    private static boolean hasMoreShards(Connection connection, long tableId, ShardPredicate predicate, int maxShards)
+            throws SQLException
+    {
+        String sql = format("SELECT count(*) FROM (SELECT 1 FROM %s x WHERE %s LIMIT %s) t", shardIndexTable(tableId), predicate.getPredicate(), maxShards + 1);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            predicate.bind(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getLong(1) > maxShards;
+            }
         }
-        while (resultSet.next() && resultSet.getInt("bucket_number") == bucketNumber);
+    }
 
-        return new BucketShards(OptionalInt.of(bucketNumber), shards.build());
+    private static Optional<DeleteBitmap> getDeleteBitmap(ResultSet resultSet)
+            throws SQLException
+    {
+        byte[] bytes = resultSet.getBytes("delete_bitmap");
+        return Optional.ofNullable(bytes).map(DeleteBitmap::fromByteArray);
     }
 
     private String getBucketNode(int bucket)
@@ -15,6 +15,8 @@ package com.facebook.presto.raptor.metadata;
 
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.skife.jdbi.v2.ResultIterator;
 
 import java.util.Collection;
@@ -50,7 +52,35 @@ public interface ShardManager
     /**
      * Replace oldShardsUuids with newShards.
      */
-    void replaceShardUuids(long transactionId, long tableId, List<ColumnInfo> columns, Set<UUID> oldShardUuids, Collection<ShardInfo> newShards, OptionalLong updateTime);
+    default void replaceShardUuids(long transactionId, long tableId, List<ColumnInfo> columns, Set<UUID> oldShardUuids, Collection<ShardInfo> newShards, OptionalLong updateTime)
+    {
+        replaceShardUuids(transactionId, tableId, columns, oldShardUuids, ImmutableMap.of(), newShards, ImmutableList.of(), updateTime);
+    }
+
+    /**
+     * Replace oldShardsUuids with newShards and record new delete bitmaps for kept shards.
+     * Each old shard must still have the deleted row count given in oldShardDeletedRowCounts
+     * (or none if it is missing), and each kept shard the previous count of its delta.
+     */
+    void replaceShardUuids(
+            long transactionId,
+            long tableId,
+            List<ColumnInfo> columns,
+            Set<UUID> oldShardUuids,
+            Map<UUID, Long> oldShardDeletedRowCounts,
+            Collection<ShardInfo> newShards,
+            Collection<ShardDeleteDelta> deleteDeltas,
+            OptionalLong updateTime);
+
+    /**
+     * Get the delete bitmaps for the shards that have deleted rows.
+     */
+    Map<UUID, DeleteBitmap> getShardDeleteBitmaps(Set<UUID> shardUuids);
+
+    /**
+     * Get the number of deleted rows for the shards of a table that have deleted rows.
+     */
+    Map<UUID, Long> getShardDeletedRowCounts(long tableId);
 
     /**
      * Get shard metadata for a shard.
@@ -134,6 +164,11 @@ public interface ShardManager
      */
     List<BucketNode> getBucketNodes(long distributionId);
 
+    /**
+     * Get the buckets assigned to a given node.
+     */
+    Set<DistributionBucket> getNodeBuckets(String nodeIdentifier);
+
     /**
      * Return the subset of shard uuids that exist
      */
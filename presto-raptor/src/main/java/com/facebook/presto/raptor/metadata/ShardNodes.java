@@ -16,6 +16,7 @@ package com.facebook.presto.raptor.metadata;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -26,11 +27,18 @@ public class ShardNodes
 {
     private final UUID shardUuid;
     private final Set<String> nodeIdentifiers;
+    private final Optional<DeleteBitmap> deleteBitmap;
 
     public ShardNodes(UUID shardUuid, Set<String> nodeIdentifiers)
+    {
+        this(shardUuid, nodeIdentifiers, Optional.empty());
+    }
+
+    public ShardNodes(UUID shardUuid, Set<String> nodeIdentifiers, Optional<DeleteBitmap> deleteBitmap)
     {
         this.shardUuid = requireNonNull(shardUuid, "shardUuid is null");
         this.nodeIdentifiers = ImmutableSet.copyOf(requireNonNull(nodeIdentifiers, "nodeIdentifiers is null"));
+        this.deleteBitmap = requireNonNull(deleteBitmap, "deleteBitmap is null");
     }
 
     public UUID getShardUuid()
@@ -43,6 +51,11 @@ public class ShardNodes
         return nodeIdentifiers;
     }
 
+    public Optional<DeleteBitmap> getDeleteBitmap()
+    {
+        return deleteBitmap;
+    }
+
     @Override
     public boolean equals(Object obj)
     {
@@ -54,13 +67,14 @@ public class ShardNodes
         }
         ShardNodes other = (ShardNodes) obj;
         return Objects.equals(this.shardUuid, other.shardUuid) &&
-                Objects.equals(this.nodeIdentifiers, other.nodeIdentifiers);
+                Objects.equals(this.nodeIdentifiers, other.nodeIdentifiers) &&
+                Objects.equals(this.deleteBitmap, other.deleteBitmap);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(shardUuid, nodeIdentifiers);
+        return Objects.hash(shardUuid, nodeIdentifiers, deleteBitmap);
     }
 
     @Override
@@ -69,6 +83,7 @@ public class ShardNodes
         return toStringHelper(this)
                 .add("shardUuid", shardUuid)
                 .add("nodeIdentifiers", nodeIdentifiers)
+                .add("deleteBitmap", deleteBitmap.orElse(null))
                 .toString();
     }
 }
@@ -14,9 +14,11 @@
 package com.facebook.presto.raptor.metadata;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -26,12 +28,14 @@ public final class TableMetadata
     private final long tableId;
     private final List<ColumnInfo> columns;
     private final List<Long> sortColumnIds;
+    private final Set<Long> bloomFilterColumnIds;
 
-    public TableMetadata(long tableId, List<ColumnInfo> columns, List<Long> sortColumnIds)
+    public TableMetadata(long tableId, List<ColumnInfo> columns, List<Long> sortColumnIds, Set<Long> bloomFilterColumnIds)
     {
         this.tableId = tableId;
         this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
         this.sortColumnIds = ImmutableList.copyOf(requireNonNull(sortColumnIds, "sortColumnIds is null"));
+        this.bloomFilterColumnIds = ImmutableSet.copyOf(requireNonNull(bloomFilterColumnIds, "bloomFilterColumnIds is null"));
     }
 
     public long getTableId()
@@ -49,6 +53,11 @@ public final class TableMetadata
         return sortColumnIds;
     }
 
+    public Set<Long> getBloomFilterColumnIds()
+    {
+        return bloomFilterColumnIds;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -61,13 +70,14 @@ public final class TableMetadata
         TableMetadata that = (TableMetadata) o;
         return Objects.equals(tableId, that.tableId) &&
                 Objects.equals(columns, that.columns) &&
-                Objects.equals(sortColumnIds, that.sortColumnIds);
+                Objects.equals(sortColumnIds, that.sortColumnIds) &&
+                Objects.equals(bloomFilterColumnIds, that.bloomFilterColumnIds);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(tableId, columns, sortColumnIds);
+        return Objects.hash(tableId, columns, sortColumnIds, bloomFilterColumnIds);
     }
 
     @Override
@@ -77,6 +87,7 @@ public final class TableMetadata
                 .add("tableId", tableId)
                 .add("columns", columns)
                 .add("sortColumnIds", sortColumnIds)
+                .add("bloomFilterColumnIds", bloomFilterColumnIds)
                 .toString();
     }
 }
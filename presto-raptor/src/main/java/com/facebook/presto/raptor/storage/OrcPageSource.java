@@ -16,11 +16,13 @@ package com.facebook.presto.raptor.storage;
 import com.facebook.presto.orc.OrcDataSource;
 import com.facebook.presto.orc.OrcRecordReader;
 import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.block.LazyBlockLoader;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
@@ -29,10 +31,12 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -61,6 +65,7 @@ public class OrcPageSource
     private final OrcRecordReader recordReader;
     private final OrcDataSource orcDataSource;
 
+    private final Optional<DeleteBitmap> deleteBitmap;
     private final BitSet rowsToDelete;
 
     private final List<Long> columnIds;
@@ -83,11 +88,13 @@ public class OrcPageSource
             List<Integer> columnIndexes,
             UUID shardUuid,
             OptionalInt bucketNumber,
+            Optional<DeleteBitmap> deleteBitmap,
             AggregatedMemoryContext systemMemoryContext)
     {
         this.shardRewriter = requireNonNull(shardRewriter, "shardRewriter is null");
         this.recordReader = requireNonNull(recordReader, "recordReader is null");
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
+        this.deleteBitmap = requireNonNull(deleteBitmap, "deleteBitmap is null");
 
         this.rowsToDelete = new BitSet(toIntExact(recordReader.getFileRowCount()));
 
@@ -142,6 +149,15 @@ public class OrcPageSource
         return orcDataSource.getReadTimeNanos();
     }
 
+    @Override
+    public OptionalDouble getProgress()
+    {
+        if (closed) {
+            return OptionalDouble.of(1.0);
+        }
+        return OptionalDouble.of(recordReader.getProgress());
+    }
+
     @Override
     public boolean isFinished()
     {
@@ -152,29 +168,38 @@ public class OrcPageSource
     public Page getNextPage()
     {
         try {
-            batchId++;
-            int batchSize = recordReader.nextBatch();
-            if (batchSize <= 0) {
-                close();
-                return null;
-            }
-            long filePosition = recordReader.getFilePosition();
-
-            Block[] blocks = new Block[columnIndexes.length];
-            for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
-                Type type = types.get(fieldId);
-                if (constantBlocks[fieldId] != null) {
-                    blocks[fieldId] = constantBlocks[fieldId].getRegion(0, batchSize);
+            while (true) {
+                batchId++;
+                int batchSize = recordReader.nextBatch();
+                if (batchSize <= 0) {
+                    close();
+                    return null;
                 }
-                else if (columnIndexes[fieldId] == ROWID_COLUMN) {
-                    blocks[fieldId] = buildSequenceBlock(filePosition, batchSize);
+                long filePosition = recordReader.getFilePosition();
+
+                Optional<int[]> retainedPositions = getRetainedPositions(filePosition, batchSize);
+                int positionCount = retainedPositions.map(positions -> positions.length).orElse(batchSize);
+                if (positionCount == 0) {
+                    // every row of the batch is deleted
+                    continue;
                 }
-                else {
-                    blocks[fieldId] = new LazyBlock(batchSize, new OrcBlockLoader(columnIndexes[fieldId], type));
+
+                Block[] blocks = new Block[columnIndexes.length];
+                for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+                    Type type = types.get(fieldId);
+                    if (constantBlocks[fieldId] != null) {
+                        blocks[fieldId] = constantBlocks[fieldId].getRegion(0, positionCount);
+                    }
+                    else if (columnIndexes[fieldId] == ROWID_COLUMN) {
+                        blocks[fieldId] = buildSequenceBlock(filePosition, batchSize, retainedPositions);
+                    }
+                    else {
+                        blocks[fieldId] = new LazyBlock(positionCount, new OrcBlockLoader(columnIndexes[fieldId], type, retainedPositions));
+                    }
                 }
-            }
 
-            return new Page(batchSize, blocks);
+                return new Page(positionCount, blocks);
+            }
         }
         catch (IOException | RuntimeException e) {
             closeWithSuppression(e);
@@ -240,6 +265,44 @@ public class OrcPageSource
         }
     }
 
+    /**
+     * Returns the batch positions that are not in the delete bitmap,
+     * or empty if no row of the batch is deleted.
+     */
+    private Optional<int[]> getRetainedPositions(long filePosition, int batchSize)
+    {
+        if (!deleteBitmap.isPresent()) {
+            return Optional.empty();
+        }
+        DeleteBitmap bitmap = deleteBitmap.get();
+        int start = toIntExact(filePosition);
+        if (bitmap.nextDeleted(start, start + batchSize) < 0) {
+            return Optional.empty();
+        }
+
+        int[] positions = new int[batchSize];
+        int count = 0;
+        for (int i = 0; i < batchSize; i++) {
+            if (!bitmap.isDeleted(start + i)) {
+                positions[count] = i;
+                count++;
+            }
+        }
+        return Optional.of(Arrays.copyOf(positions, count));
+    }
+
+    private static Block buildSequenceBlock(long start, int count, Optional<int[]> positions)
+    {
+        if (!positions.isPresent()) {
+            return buildSequenceBlock(start, count);
+        }
+        BlockBuilder builder = BIGINT.createFixedSizeBlockBuilder(positions.get().length);
+        for (int position : positions.get()) {
+            BIGINT.writeLong(builder, start + position);
+        }
+        return builder.build();
+    }
+
     private static Block buildSequenceBlock(long start, int count)
     {
         BlockBuilder builder = BIGINT.createFixedSizeBlockBuilder(count);
@@ -261,12 +324,14 @@ public class OrcPageSource
         private final int expectedBatchId = batchId;
         private final int columnIndex;
         private final Type type;
+        private final Optional<int[]> retainedPositions;
         private boolean loaded;
 
-        public OrcBlockLoader(int columnIndex, Type type)
+        public OrcBlockLoader(int columnIndex, Type type, Optional<int[]> retainedPositions)
         {
             this.columnIndex = columnIndex;
             this.type = requireNonNull(type, "type is null");
+            this.retainedPositions = requireNonNull(retainedPositions, "retainedPositions is null");
         }
 
         @Override
@@ -280,6 +345,9 @@ public class OrcPageSource
 
             try {
                 Block block = recordReader.readBlock(type, columnIndex);
+                if (retainedPositions.isPresent()) {
+                    block = new DictionaryBlock(retainedPositions.get().length, block, retainedPositions.get());
+                }
                 lazyBlock.setBlock(block);
             }
             catch (IOException e) {
@@ -29,6 +29,8 @@ import com.facebook.presto.raptor.backup.BackupManager;
 import com.facebook.presto.raptor.backup.BackupStore;
 import com.facebook.presto.raptor.metadata.ColumnInfo;
 import com.facebook.presto.raptor.metadata.ColumnStats;
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
+import com.facebook.presto.raptor.metadata.ShardDeleteDelta;
 import com.facebook.presto.raptor.metadata.ShardDelta;
 import com.facebook.presto.raptor.metadata.ShardInfo;
 import com.facebook.presto.raptor.metadata.ShardRecorder;
@@ -139,6 +141,7 @@ public class OrcStorageManager
     private final DataSize maxShardSize;
     private final DataSize minAvailableSpace;
     private final TypeManager typeManager;
+    private final boolean deleteBitmapsEnabled;
     private final ExecutorService deletionExecutor;
     private final ExecutorService commitExecutor;
 
@@ -168,7 +171,8 @@ public class OrcStorageManager
                 config.getShardRecoveryTimeout(),
                 config.getMaxShardRows(),
                 config.getMaxShardSize(),
-                config.getMinAvailableSpace());
+                config.getMinAvailableSpace(),
+                config.isDeleteBitmapsEnabled());
     }
 
     public OrcStorageManager(
@@ -185,7 +189,8 @@ public class OrcStorageManager
             Duration shardRecoveryTimeout,
             long maxShardRows,
             DataSize maxShardSize,
-            DataSize minAvailableSpace)
+            DataSize minAvailableSpace,
+            boolean deleteBitmapsEnabled)
     {
         this.nodeId = requireNonNull(nodeId, "nodeId is null");
         this.storageService = requireNonNull(storageService, "storageService is null");
@@ -202,6 +207,7 @@ public class OrcStorageManager
         this.minAvailableSpace = requireNonNull(minAvailableSpace, "minAvailableSpace is null");
         this.shardRecorder = requireNonNull(shardRecorder, "shardRecorder is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.deleteBitmapsEnabled = deleteBitmapsEnabled;
         this.deletionExecutor = newFixedThreadPool(deletionThreads, daemonThreadsNamed("raptor-delete-" + connectorId + "-%s"));
         this.commitExecutor = newCachedThreadPool(daemonThreadsNamed("raptor-commit-" + connectorId + "-%s"));
     }
@@ -221,6 +227,7 @@ public class OrcStorageManager
             List<Type> columnTypes,
             TupleDomain<RaptorColumnHandle> effectivePredicate,
             ReaderAttributes readerAttributes,
+            Optional<DeleteBitmap> deleteBitmap,
             OptionalLong transactionId)
     {
         OrcDataSource dataSource = openShard(shardUuid, readerAttributes);
@@ -256,10 +263,10 @@ public class OrcStorageManager
 
             Optional<ShardRewriter> shardRewriter = Optional.empty();
             if (transactionId.isPresent()) {
-                shardRewriter = Optional.of(createShardRewriter(transactionId.getAsLong(), bucketNumber, shardUuid));
+                shardRewriter = Optional.of(createShardRewriter(transactionId.getAsLong(), bucketNumber, shardUuid, deleteBitmap));
             }
 
-            return new OrcPageSource(shardRewriter, recordReader, dataSource, columnIds, columnTypes, columnIndexes.build(), shardUuid, bucketNumber, systemMemoryUsage);
+            return new OrcPageSource(shardRewriter, recordReader, dataSource, columnIds, columnTypes, columnIndexes.build(), shardUuid, bucketNumber, deleteBitmap, systemMemoryUsage);
         }
         catch (IOException | RuntimeException e) {
             closeQuietly(dataSource);
@@ -286,20 +293,25 @@ public class OrcStorageManager
     }
 
     @Override
-    public StoragePageSink createStoragePageSink(long transactionId, OptionalInt bucketNumber, List<Long> columnIds, List<Type> columnTypes, boolean checkSpace)
+    public StoragePageSink createStoragePageSink(long transactionId, OptionalInt bucketNumber, List<Long> columnIds, List<Type> columnTypes, Set<Long> bloomFilterColumnIds, boolean checkSpace)
     {
         if (storageService.getAvailableBytes() < minAvailableSpace.toBytes()) {
             throw new PrestoException(RAPTOR_LOCAL_DISK_FULL, "Local disk is full on node " + nodeId);
         }
-        return new OrcStoragePageSink(transactionId, columnIds, columnTypes, bucketNumber);
+        return new OrcStoragePageSink(transactionId, columnIds, columnTypes, bloomFilterColumnIds, bucketNumber);
     }
 
-    private ShardRewriter createShardRewriter(long transactionId, OptionalInt bucketNumber, UUID shardUuid)
+    private ShardRewriter createShardRewriter(long transactionId, OptionalInt bucketNumber, UUID shardUuid, Optional<DeleteBitmap> deleteBitmap)
     {
         return rowsToDelete -> {
             if (rowsToDelete.isEmpty()) {
                 return completedFuture(ImmutableList.of());
             }
+            // the file of a shard with a delete bitmap still contains the deleted rows,
+            // so later deletes must extend the bitmap instead of rewriting the file
+            if (deleteBitmapsEnabled || deleteBitmap.isPresent()) {
+                return completedFuture(deleteDelta(shardUuid, deleteBitmap, rowsToDelete));
+            }
             return supplyAsync(() -> rewriteShard(transactionId, bucketNumber, shardUuid, rowsToDelete), deletionExecutor);
         };
     }
@@ -360,19 +372,19 @@ public class OrcStorageManager
         return new FileOrcDataSource(file, readerAttributes.getMaxMergeDistance(), readerAttributes.getMaxReadSize(), readerAttributes.getStreamBufferSize());
     }
 
-    private ShardInfo createShardInfo(UUID shardUuid, OptionalInt bucketNumber, File file, Set<String> nodes, long rowCount, long uncompressedSize)
+    private ShardInfo createShardInfo(UUID shardUuid, OptionalInt bucketNumber, File file, Set<String> nodes, long rowCount, long uncompressedSize, Set<Long> bloomFilterColumnIds)
     {
-        return new ShardInfo(shardUuid, bucketNumber, nodes, computeShardStats(file), rowCount, file.length(), uncompressedSize, xxhash64(file));
+        return new ShardInfo(shardUuid, bucketNumber, nodes, computeShardStats(file, bloomFilterColumnIds), rowCount, file.length(), uncompressedSize, xxhash64(file));
     }
 
-    private List<ColumnStats> computeShardStats(File file)
+    private List<ColumnStats> computeShardStats(File file, Set<Long> bloomFilterColumnIds)
     {
         try (OrcDataSource dataSource = fileOrcDataSource(defaultReaderAttributes, file)) {
             OrcReader reader = new OrcReader(dataSource, new OrcMetadataReader(), defaultReaderAttributes.getMaxMergeDistance(), defaultReaderAttributes.getMaxReadSize());
 
             ImmutableList.Builder<ColumnStats> list = ImmutableList.builder();
             for (ColumnInfo info : getColumnInfo(reader)) {
-                computeColumnStats(reader, info.getColumnId(), info.getType()).ifPresent(list::add);
+                computeColumnStats(reader, info.getColumnId(), info.getType(), bloomFilterColumnIds.contains(info.getColumnId())).ifPresent(list::add);
             }
             return list.build();
         }
@@ -407,7 +419,8 @@ public class OrcStorageManager
         Set<String> nodes = ImmutableSet.of(nodeId);
         long uncompressedSize = info.getUncompressedSize();
 
-        ShardInfo shard = createShardInfo(newShardUuid, bucketNumber, output, nodes, rowCount, uncompressedSize);
+        // bloom filters are not rebuilt for rewritten shards, which are then only pruned by min/max
+        ShardInfo shard = createShardInfo(newShardUuid, bucketNumber, output, nodes, rowCount, uncompressedSize, ImmutableSet.of());
 
         writeShard(newShardUuid);
 
@@ -417,7 +430,20 @@ public class OrcStorageManager
     private static Collection<Slice> shardDelta(UUID oldShardUuid, Optional<ShardInfo> shardInfo)
     {
         List<ShardInfo> newShards = shardInfo.map(ImmutableList::of).orElse(ImmutableList.of());
-        ShardDelta delta = new ShardDelta(ImmutableList.of(oldShardUuid), newShards);
+        ShardDelta delta = new ShardDelta(ImmutableList.of(oldShardUuid), newShards, ImmutableList.of());
+        return ImmutableList.of(Slices.wrappedBuffer(SHARD_DELTA_CODEC.toJsonBytes(delta)));
+    }
+
+    @VisibleForTesting
+    static Collection<Slice> deleteDelta(UUID shardUuid, Optional<DeleteBitmap> deleteBitmap, BitSet rowsToDelete)
+    {
+        long previousDeletedRowCount = deleteBitmap.map(DeleteBitmap::getDeletedRowCount).orElse(0L);
+        DeleteBitmap newDeleteBitmap = deleteBitmap
+                .map(bitmap -> bitmap.union(rowsToDelete))
+                .orElseGet(() -> new DeleteBitmap(rowsToDelete));
+
+        ShardDeleteDelta deleteDelta = new ShardDeleteDelta(shardUuid, previousDeletedRowCount, newDeleteBitmap);
+        ShardDelta delta = new ShardDelta(ImmutableList.of(), ImmutableList.of(), ImmutableList.of(deleteDelta));
         return ImmutableList.of(Slices.wrappedBuffer(SHARD_DELTA_CODEC.toJsonBytes(delta)));
     }
 
@@ -542,6 +568,7 @@ public class OrcStorageManager
         private final long transactionId;
         private final List<Long> columnIds;
         private final List<Type> columnTypes;
+        private final Set<Long> bloomFilterColumnIds;
         private final OptionalInt bucketNumber;
 
         private final List<File> stagingFiles = new ArrayList<>();
@@ -552,11 +579,12 @@ public class OrcStorageManager
         private OrcFileWriter writer;
         private UUID shardUuid;
 
-        public OrcStoragePageSink(long transactionId, List<Long> columnIds, List<Type> columnTypes, OptionalInt bucketNumber)
+        public OrcStoragePageSink(long transactionId, List<Long> columnIds, List<Type> columnTypes, Set<Long> bloomFilterColumnIds, OptionalInt bucketNumber)
         {
             this.transactionId = transactionId;
             this.columnIds = ImmutableList.copyOf(requireNonNull(columnIds, "columnIds is null"));
             this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+            this.bloomFilterColumnIds = ImmutableSet.copyOf(requireNonNull(bloomFilterColumnIds, "bloomFilterColumnIds is null"));
             this.bucketNumber = requireNonNull(bucketNumber, "bucketNumber is null");
         }
 
@@ -605,7 +633,7 @@ public class OrcStorageManager
                 long rowCount = writer.getRowCount();
                 long uncompressedSize = writer.getUncompressedSize();
 
-                shards.add(createShardInfo(shardUuid, bucketNumber, stagingFile, nodes, rowCount, uncompressedSize));
+                shards.add(createShardInfo(shardUuid, bucketNumber, stagingFile, nodes, rowCount, uncompressedSize, bloomFilterColumnIds));
 
                 writer = null;
                 shardUuid = null;
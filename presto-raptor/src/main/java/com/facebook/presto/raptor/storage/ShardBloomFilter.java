@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.storage;
+
+import com.facebook.presto.orc.OrcPredicate;
+import com.facebook.presto.orc.OrcReader;
+import com.facebook.presto.orc.OrcRecordReader;
+import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+import static com.facebook.presto.raptor.RaptorErrorCode.RAPTOR_ERROR;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static org.joda.time.DateTimeZone.UTC;
+
+/**
+ * Per-shard bloom filter over the hashed values of a single column. Used to
+ * skip shards for equality predicates on high cardinality columns where the
+ * min/max index is not selective.
+ */
+public final class ShardBloomFilter
+{
+    public static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /**
+     * Shards with more distinct values than this do not get a bloom filter,
+     * which bounds the serialized size to roughly 120KB.
+     */
+    public static final int MAX_DISTINCT_VALUES = 100_000;
+
+    private final BloomFilter<Long> filter;
+
+    private ShardBloomFilter(BloomFilter<Long> filter)
+    {
+        this.filter = requireNonNull(filter, "filter is null");
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(DATE) ||
+                type.equals(TIMESTAMP) ||
+                (type instanceof VarcharType);
+    }
+
+    /**
+     * Hash of a value as stored in the filter. The value must be in the
+     * native stack representation of the type (long or Slice).
+     */
+    public static long valueHash(Type type, Object value)
+    {
+        if (type.getJavaType() == long.class) {
+            return (Long) value;
+        }
+        if (type.getJavaType() == Slice.class) {
+            return XxHash64.hash((Slice) value);
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    public static ShardBloomFilter deserialize(byte[] serialized)
+    {
+        try {
+            return new ShardBloomFilter(BloomFilter.readFrom(new ByteArrayInputStream(serialized), Funnels.longFunnel()));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean mightContain(long valueHash)
+    {
+        return filter.mightContain(valueHash);
+    }
+
+    public static Optional<byte[]> computeBloomFilter(OrcReader orcReader, int columnIndex, Type type)
+            throws IOException
+    {
+        if (!isSupportedType(type)) {
+            throw new PrestoException(RAPTOR_ERROR, "Bloom filters are not supported for type: " + type);
+        }
+
+        OrcRecordReader reader = orcReader.createRecordReader(ImmutableMap.of(columnIndex, type), OrcPredicate.TRUE, UTC, new AggregatedMemoryContext());
+
+        LongOpenHashSet hashes = new LongOpenHashSet();
+        while (true) {
+            int batchSize = reader.nextBatch();
+            if (batchSize <= 0) {
+                break;
+            }
+            Block block = reader.readBlock(type, columnIndex);
+
+            for (int i = 0; i < batchSize; i++) {
+                if (block.isNull(i)) {
+                    continue;
+                }
+                if (type.getJavaType() == long.class) {
+                    hashes.add(type.getLong(block, i));
+                }
+                else {
+                    hashes.add(XxHash64.hash(type.getSlice(block, i)));
+                }
+            }
+            if (hashes.size() > MAX_DISTINCT_VALUES) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(createBloomFilter(hashes.toLongArray()));
+    }
+
+    public static byte[] createBloomFilter(long... valueHashes)
+    {
+        BloomFilter<Long> filter = BloomFilter.create(Funnels.longFunnel(), max(valueHashes.length, 1), FALSE_POSITIVE_PROBABILITY);
+        for (long hash : valueHashes) {
+            filter.put(hash);
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            filter.writeTo(output);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.raptor.storage;
 
 import com.facebook.presto.raptor.backup.BackupStore;
+import com.facebook.presto.raptor.metadata.DistributionBucket;
 import com.facebook.presto.raptor.metadata.ShardManager;
 import com.facebook.presto.raptor.metadata.ShardMetadata;
 import com.facebook.presto.raptor.util.PrioritizedFifoExecutor;
@@ -41,6 +42,7 @@ import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
@@ -71,25 +73,39 @@ import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toList;
 
 public class ShardRecoveryManager
 {
     private static final Logger log = Logger.get(ShardRecoveryManager.class);
 
+    // Shards of buckets assigned to this node are restored first, since bucketed splits can only
+    // run on the bucket's node. Newer shards go before older ones, as recent data is read the most.
+    // The recovery queues order their tasks by this as well, so the order also holds across discoveries.
+    @VisibleForTesting
+    static final Comparator<ShardMetadata> MISSING_SHARD_PRIORITY = Comparator
+            .comparing((ShardMetadata shard) -> !shard.getBucketNumber().isPresent())
+            .thenComparing(ShardMetadata::getShardId, Comparator.reverseOrder());
+
     private final StorageService storageService;
     private final Optional<BackupStore> backupStore;
     private final String nodeIdentifier;
     private final ShardManager shardManager;
     private final Duration missingShardDiscoveryInterval;
+    private final Duration bucketAssignmentCheckInterval;
 
     private final AtomicBoolean started = new AtomicBoolean();
     private final MissingShardsQueue shardQueue;
+    private final MissingShardsQueue backgroundShardQueue;
 
     private final ScheduledExecutorService missingShardExecutor = newScheduledThreadPool(1, daemonThreadsNamed("missing-shard-discovery"));
+    private final ScheduledExecutorService bucketAssignmentExecutor = newScheduledThreadPool(1, daemonThreadsNamed("bucket-assignment-check"));
     private final ExecutorService executorService = newCachedThreadPool(daemonThreadsNamed("shard-recovery-%s"));
     private final ShardRecoveryStats stats;
 
+    // only accessed by the bucket assignment check, which runs on a single thread
+    private Set<DistributionBucket> assignedBuckets;
+
     @Inject
     public ShardRecoveryManager(
             StorageService storageService,
@@ -103,7 +119,9 @@ public class ShardRecoveryManager
                 nodeManager,
                 shardManager,
                 config.getMissingShardDiscoveryInterval(),
-                config.getRecoveryThreads());
+                config.getBucketAssignmentCheckInterval(),
+                config.getRecoveryThreads(),
+                config.getBackgroundRecoveryThreads());
     }
 
     public ShardRecoveryManager(
@@ -113,13 +131,29 @@ public class ShardRecoveryManager
             ShardManager shardManager,
             Duration missingShardDiscoveryInterval,
             int recoveryThreads)
+    {
+        this(storageService, backupStore, nodeManager, shardManager, missingShardDiscoveryInterval, missingShardDiscoveryInterval, recoveryThreads, recoveryThreads);
+    }
+
+    public ShardRecoveryManager(
+            StorageService storageService,
+            Optional<BackupStore> backupStore,
+            NodeManager nodeManager,
+            ShardManager shardManager,
+            Duration missingShardDiscoveryInterval,
+            Duration bucketAssignmentCheckInterval,
+            int recoveryThreads,
+            int backgroundRecoveryThreads)
     {
         this.storageService = requireNonNull(storageService, "storageService is null");
         this.backupStore = requireNonNull(backupStore, "backupStore is null");
         this.nodeIdentifier = requireNonNull(nodeManager, "nodeManager is null").getCurrentNode().getNodeIdentifier();
         this.shardManager = requireNonNull(shardManager, "shardManager is null");
         this.missingShardDiscoveryInterval = requireNonNull(missingShardDiscoveryInterval, "missingShardDiscoveryInterval is null");
+        this.bucketAssignmentCheckInterval = requireNonNull(bucketAssignmentCheckInterval, "bucketAssignmentCheckInterval is null");
         this.shardQueue = new MissingShardsQueue(new PrioritizedFifoExecutor<>(executorService, recoveryThreads, new MissingShardComparator()));
+        // background recovery has its own limit so that it never delays shards needed by queries
+        this.backgroundShardQueue = new MissingShardsQueue(new PrioritizedFifoExecutor<>(executorService, backgroundRecoveryThreads, new MissingShardComparator()));
         this.stats = new ShardRecoveryStats();
     }
 
@@ -131,6 +165,7 @@ public class ShardRecoveryManager
         }
         if (started.compareAndSet(false, true)) {
             scheduleRecoverMissingShards();
+            scheduleBucketAssignmentCheck();
         }
     }
 
@@ -139,6 +174,7 @@ public class ShardRecoveryManager
     {
         executorService.shutdownNow();
         missingShardExecutor.shutdownNow();
+        bucketAssignmentExecutor.shutdownNow();
     }
 
     private void scheduleRecoverMissingShards()
@@ -156,6 +192,34 @@ public class ShardRecoveryManager
         }, 0, missingShardDiscoveryInterval.toMillis(), TimeUnit.MILLISECONDS);
     }
 
+    private void scheduleBucketAssignmentCheck()
+    {
+        bucketAssignmentExecutor.scheduleWithFixedDelay(
+                this::checkBucketAssignments,
+                bucketAssignmentCheckInterval.toMillis(),
+                bucketAssignmentCheckInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void checkBucketAssignments()
+    {
+        try {
+            Set<DistributionBucket> buckets = shardManager.getNodeBuckets(nodeIdentifier);
+            Set<DistributionBucket> previous = assignedBuckets;
+            assignedBuckets = buckets;
+
+            // The bucket balancer moved buckets to this node. Restore their shards now, rather than
+            // after the discovery jitter, as bucketed splits for them can only run on this node.
+            // The first check only records the assignments, as the shards are found by the discovery.
+            if (previous != null && !previous.containsAll(buckets)) {
+                enqueueMissingShards();
+            }
+        }
+        catch (Throwable t) {
+            log.error(t, "Error checking bucket assignments");
+        }
+    }
+
     @Managed
     public void recoverMissingShards()
     {
@@ -168,7 +232,7 @@ public class ShardRecoveryManager
             for (ShardMetadata shard : getMissingShards()) {
                 stats.incrementBackgroundShardRecovery();
                 Futures.addCallback(
-                        shardQueue.submit(new MissingShard(shard.getShardUuid(), shard.getCompressedSize(), shard.getXxhash64(), false)),
+                        backgroundShardQueue.submit(new MissingShard(shard, false)),
                         failureCallback(t -> log.warn(t, "Error recovering shard: %s", shard.getShardUuid())));
             }
         }
@@ -177,11 +241,12 @@ public class ShardRecoveryManager
         }
     }
 
-    private Set<ShardMetadata> getMissingShards()
+    private List<ShardMetadata> getMissingShards()
     {
         return shardManager.getNodeShards(nodeIdentifier).stream()
                 .filter(shard -> shardNeedsRecovery(shard.getShardUuid(), shard.getCompressedSize()))
-                .collect(toSet());
+                .sorted(MISSING_SHARD_PRIORITY)
+                .collect(toList());
     }
 
     private boolean shardNeedsRecovery(UUID shardUuid, long shardSize)
@@ -198,7 +263,7 @@ public class ShardRecoveryManager
             throw new PrestoException(RAPTOR_ERROR, "Shard does not exist in database: " + shardUuid);
         }
         stats.incrementActiveShardRecovery();
-        return shardQueue.submit(new MissingShard(shardUuid, shard.getCompressedSize(), shard.getXxhash64(), true));
+        return shardQueue.submit(new MissingShard(shard, true));
     }
 
     @VisibleForTesting
@@ -302,39 +367,43 @@ public class ShardRecoveryManager
         @Override
         public int compare(MissingShardRunnable shard1, MissingShardRunnable shard2)
         {
-            if (shard1.isActive() == shard2.isActive()) {
-                return 0;
+            if (shard1.isActive() != shard2.isActive()) {
+                return shard1.isActive() ? -1 : 1;
             }
-            return shard1.isActive() ? -1 : 1;
+            return MISSING_SHARD_PRIORITY.compare(shard1.getShard(), shard2.getShard());
         }
     }
 
     interface MissingShardRunnable
             extends Runnable
     {
+        ShardMetadata getShard();
+
         boolean isActive();
     }
 
     private class MissingShardRecovery
             implements MissingShardRunnable
     {
-        private final UUID shardUuid;
-        private final long shardSize;
-        private final OptionalLong shardXxhash64;
+        private final ShardMetadata shard;
         private final boolean active;
 
-        public MissingShardRecovery(UUID shardUuid, long shardSize, OptionalLong shardXxhash64, boolean active)
+        public MissingShardRecovery(ShardMetadata shard, boolean active)
         {
-            this.shardUuid = requireNonNull(shardUuid, "shardUuid is null");
-            this.shardSize = shardSize;
-            this.shardXxhash64 = requireNonNull(shardXxhash64, "shardXxhash64 is null");
+            this.shard = requireNonNull(shard, "shard is null");
             this.active = active;
         }
 
         @Override
         public void run()
         {
-            restoreFromBackup(shardUuid, shardSize, shardXxhash64);
+            restoreFromBackup(shard.getShardUuid(), shard.getCompressedSize(), shard.getXxhash64());
+        }
+
+        @Override
+        public ShardMetadata getShard()
+        {
+            return shard;
         }
 
         @Override
@@ -346,32 +415,18 @@ public class ShardRecoveryManager
 
     private static final class MissingShard
     {
-        private final UUID shardUuid;
-        private final long shardSize;
-        private final OptionalLong shardXxhash64;
+        private final ShardMetadata shard;
         private final boolean active;
 
-        public MissingShard(UUID shardUuid, long shardSize, OptionalLong shardXxhash64, boolean active)
+        public MissingShard(ShardMetadata shard, boolean active)
         {
-            this.shardUuid = requireNonNull(shardUuid, "shardUuid is null");
-            this.shardSize = shardSize;
-            this.shardXxhash64 = requireNonNull(shardXxhash64, "shardXxhash64 is null");
+            this.shard = requireNonNull(shard, "shard is null");
             this.active = active;
         }
 
-        public UUID getShardUuid()
-        {
-            return shardUuid;
-        }
-
-        public long getShardSize()
-        {
-            return shardSize;
-        }
-
-        public OptionalLong getShardXxhash64()
+        public ShardMetadata getShard()
         {
-            return shardXxhash64;
+            return shard;
         }
 
         public boolean isActive()
@@ -391,20 +446,20 @@ public class ShardRecoveryManager
 
             MissingShard other = (MissingShard) o;
             return Objects.equals(this.active, other.active) &&
-                    Objects.equals(this.shardUuid, other.shardUuid);
+                    Objects.equals(this.shard.getShardUuid(), other.shard.getShardUuid());
         }
 
         @Override
         public int hashCode()
         {
-            return Objects.hash(shardUuid, active);
+            return Objects.hash(shard.getShardUuid(), active);
         }
 
         @Override
         public String toString()
         {
             return toStringHelper(this)
-                    .add("shardUuid", shardUuid)
+                    .add("shardUuid", shard.getShardUuid())
                     .add("active", active)
                     .toString();
         }
@@ -422,11 +477,7 @@ public class ShardRecoveryManager
                 @Override
                 public ListenableFuture<?> load(MissingShard missingShard)
                 {
-                    MissingShardRecovery task = new MissingShardRecovery(
-                            missingShard.getShardUuid(),
-                            missingShard.getShardSize(),
-                            missingShard.getShardXxhash64(),
-                            missingShard.isActive());
+                    MissingShardRecovery task = new MissingShardRecovery(missingShard.getShard(), missingShard.isActive());
                     ListenableFuture<?> future = shardRecoveryExecutor.submit(task);
                     future.addListener(() -> queuedMissingShards.invalidate(missingShard), directExecutor());
                     return future;
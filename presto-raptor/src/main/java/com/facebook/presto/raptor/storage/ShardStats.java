@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.raptor.RaptorErrorCode.RAPTOR_ERROR;
+import static com.facebook.presto.raptor.storage.ShardBloomFilter.computeBloomFilter;
 import static java.lang.Double.isInfinite;
 import static java.lang.Double.isNaN;
 import static org.joda.time.DateTimeZone.UTC;
@@ -56,10 +57,15 @@ public final class ShardStats
         return slice;
     }
 
-    public static Optional<ColumnStats> computeColumnStats(OrcReader orcReader, long columnId, Type type)
-        throws IOException
+    public static Optional<ColumnStats> computeColumnStats(OrcReader orcReader, long columnId, Type type, boolean bloomFilter)
+            throws IOException
     {
-        return Optional.ofNullable(doComputeColumnStats(orcReader, columnId, type));
+        ColumnStats stats = doComputeColumnStats(orcReader, columnId, type);
+        if ((stats == null) || !bloomFilter || !ShardBloomFilter.isSupportedType(type)) {
+            return Optional.ofNullable(stats);
+        }
+        int columnIndex = columnIndex(orcReader.getColumnNames(), columnId);
+        return Optional.of(stats.withBloomFilter(computeBloomFilter(orcReader, columnIndex, type).orElse(null)));
     }
 
     private static ColumnStats doComputeColumnStats(OrcReader orcReader, long columnId, Type type)
@@ -14,13 +14,17 @@
 package com.facebook.presto.raptor.storage;
 
 import com.facebook.presto.raptor.RaptorColumnHandle;
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 
 public interface StorageManager
@@ -36,6 +40,22 @@ public interface StorageManager
         return getPageSource(shardUuid, bucketNumber, columnIds, columnTypes, effectivePredicate, readerAttributes, OptionalLong.empty());
     }
 
+    default ConnectorPageSource getPageSource(
+            UUID shardUuid,
+            OptionalInt bucketNumber,
+            List<Long> columnIds,
+            List<Type> columnTypes,
+            TupleDomain<RaptorColumnHandle> effectivePredicate,
+            ReaderAttributes readerAttributes,
+            OptionalLong transactionId)
+    {
+        return getPageSource(shardUuid, bucketNumber, columnIds, columnTypes, effectivePredicate, readerAttributes, Optional.empty(), transactionId);
+    }
+
+    /**
+     * Rows in the delete bitmap are skipped, and a delete through a page source with
+     * a transaction ID is based on that bitmap.
+     */
     ConnectorPageSource getPageSource(
             UUID shardUuid,
             OptionalInt bucketNumber,
@@ -43,12 +63,24 @@ public interface StorageManager
             List<Type> columnTypes,
             TupleDomain<RaptorColumnHandle> effectivePredicate,
             ReaderAttributes readerAttributes,
+            Optional<DeleteBitmap> deleteBitmap,
             OptionalLong transactionId);
 
+    default StoragePageSink createStoragePageSink(
+            long transactionId,
+            OptionalInt bucketNumber,
+            List<Long> columnIds,
+            List<Type> columnTypes,
+            boolean checkSpace)
+    {
+        return createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, ImmutableSet.of(), checkSpace);
+    }
+
     StoragePageSink createStoragePageSink(
             long transactionId,
             OptionalInt bucketNumber,
             List<Long> columnIds,
             List<Type> columnTypes,
+            Set<Long> bloomFilterColumnIds,
             boolean checkSpace);
 }
@@ -23,6 +23,8 @@ import io.airlift.units.MaxDataSize;
 import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -42,6 +44,7 @@ public class StorageManagerConfig
     private DataSize minAvailableSpace = new DataSize(0, BYTE);
     private Duration shardRecoveryTimeout = new Duration(30, TimeUnit.SECONDS);
     private Duration missingShardDiscoveryInterval = new Duration(5, TimeUnit.MINUTES);
+    private Duration bucketAssignmentCheckInterval = new Duration(10, TimeUnit.SECONDS);
     private boolean compactionEnabled = true;
     private Duration compactionInterval = new Duration(1, TimeUnit.HOURS);
     private Duration shardEjectorInterval = new Duration(4, TimeUnit.HOURS);
@@ -50,8 +53,11 @@ public class StorageManagerConfig
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private int deletionThreads = max(1, getRuntime().availableProcessors() / 2);
     private int recoveryThreads = 10;
+    private int backgroundRecoveryThreads = 10;
     private int organizationThreads = 5;
     private boolean organizationEnabled = true;
+    private boolean deleteBitmapsEnabled = true;
+    private double compactionDeletedRowsThreshold = 0.1;
     private Duration organizationInterval = new Duration(7, TimeUnit.DAYS);
 
     private long maxShardRows = 1_000_000;
@@ -168,6 +174,20 @@ public class StorageManagerConfig
         return this;
     }
 
+    @MinDuration("1s")
+    public Duration getBucketAssignmentCheckInterval()
+    {
+        return bucketAssignmentCheckInterval;
+    }
+
+    @Config("storage.bucket-assignment-check-interval")
+    @ConfigDescription("How often to check the database for buckets newly assigned to this node, whose shards are then restored right away")
+    public StorageManagerConfig setBucketAssignmentCheckInterval(Duration bucketAssignmentCheckInterval)
+    {
+        this.bucketAssignmentCheckInterval = bucketAssignmentCheckInterval;
+        return this;
+    }
+
     @MinDuration("1s")
     public Duration getCompactionInterval()
     {
@@ -225,6 +245,20 @@ public class StorageManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getBackgroundRecoveryThreads()
+    {
+        return backgroundRecoveryThreads;
+    }
+
+    @Config("storage.max-background-recovery-threads")
+    @ConfigDescription("Maximum number of threads to use for restoring missing shards in the background")
+    public StorageManagerConfig setBackgroundRecoveryThreads(int backgroundRecoveryThreads)
+    {
+        this.backgroundRecoveryThreads = backgroundRecoveryThreads;
+        return this;
+    }
+
     @LegacyConfig("storage.max-compaction-threads")
     @Config("storage.max-organization-threads")
     @ConfigDescription("Maximum number of threads to use for organization")
@@ -308,6 +342,34 @@ public class StorageManagerConfig
         return this;
     }
 
+    public boolean isDeleteBitmapsEnabled()
+    {
+        return deleteBitmapsEnabled;
+    }
+
+    @Config("storage.delete-bitmaps-enabled")
+    @ConfigDescription("Record deleted rows in a per-shard bitmap instead of rewriting the shard")
+    public StorageManagerConfig setDeleteBitmapsEnabled(boolean deleteBitmapsEnabled)
+    {
+        this.deleteBitmapsEnabled = deleteBitmapsEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getCompactionDeletedRowsThreshold()
+    {
+        return compactionDeletedRowsThreshold;
+    }
+
+    @Config("storage.compaction-deleted-rows-threshold")
+    @ConfigDescription("Fraction of deleted rows at which compaction rewrites a shard without them")
+    public StorageManagerConfig setCompactionDeletedRowsThreshold(double compactionDeletedRowsThreshold)
+    {
+        this.compactionDeletedRowsThreshold = compactionDeletedRowsThreshold;
+        return this;
+    }
+
     public int getOneSplitPerBucketThreshold()
     {
         return oneSplitPerBucketThreshold;
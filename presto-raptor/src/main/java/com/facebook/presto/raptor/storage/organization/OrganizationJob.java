@@ -14,16 +14,20 @@
 package com.facebook.presto.raptor.storage.organization;
 
 import com.facebook.presto.raptor.metadata.ColumnInfo;
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
 import com.facebook.presto.raptor.metadata.MetadataDao;
 import com.facebook.presto.raptor.metadata.ShardInfo;
 import com.facebook.presto.raptor.metadata.ShardManager;
 import com.facebook.presto.raptor.metadata.TableColumn;
 import com.facebook.presto.raptor.metadata.TableMetadata;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
@@ -33,6 +37,7 @@ import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_FIRST;
 import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 class OrganizationJob
         implements Runnable
@@ -80,9 +85,14 @@ class OrganizationJob
             throws IOException
     {
         TableMetadata metadata = getTableMetadata(tableId);
-        List<ShardInfo> newShards = performCompaction(transactionId, bucketNumber, shardUuids, metadata);
+        Map<UUID, DeleteBitmap> deleteBitmaps = shardManager.getShardDeleteBitmaps(shardUuids);
+        List<ShardInfo> newShards = performCompaction(transactionId, bucketNumber, shardUuids, deleteBitmaps, metadata);
         log.info("Compacted shards %s into %s", shardUuids, newShards.stream().map(ShardInfo::getShardUuid).collect(toList()));
-        shardManager.replaceShardUuids(transactionId, tableId, metadata.getColumns(), shardUuids, newShards, OptionalLong.empty());
+
+        // fails if any of the shards received deletes during the compaction
+        Map<UUID, Long> deletedRowCounts = deleteBitmaps.entrySet().stream()
+                .collect(toMap(Entry::getKey, entry -> entry.getValue().getDeletedRowCount()));
+        shardManager.replaceShardUuids(transactionId, tableId, metadata.getColumns(), shardUuids, deletedRowCounts, newShards, ImmutableList.of(), OptionalLong.empty());
     }
 
     private TableMetadata getTableMetadata(long tableId)
@@ -96,20 +106,22 @@ class OrganizationJob
         List<ColumnInfo> columns = metadataDao.listTableColumns(tableId).stream()
                 .map(TableColumn::toColumnInfo)
                 .collect(toList());
-        return new TableMetadata(tableId, columns, sortColumnIds);
+        return new TableMetadata(tableId, columns, sortColumnIds, metadataDao.getBloomFilterColumnIds(tableId));
     }
 
-    private List<ShardInfo> performCompaction(long transactionId, OptionalInt bucketNumber, Set<UUID> shardUuids, TableMetadata tableMetadata)
+    private List<ShardInfo> performCompaction(long transactionId, OptionalInt bucketNumber, Set<UUID> shardUuids, Map<UUID, DeleteBitmap> deleteBitmaps, TableMetadata tableMetadata)
             throws IOException
     {
         if (tableMetadata.getSortColumnIds().isEmpty()) {
-            return compactor.compact(transactionId, bucketNumber, shardUuids, tableMetadata.getColumns());
+            return compactor.compact(transactionId, bucketNumber, shardUuids, deleteBitmaps, tableMetadata.getColumns(), tableMetadata.getBloomFilterColumnIds());
         }
         return compactor.compactSorted(
                 transactionId,
                 bucketNumber,
                 shardUuids,
+                deleteBitmaps,
                 tableMetadata.getColumns(),
+                tableMetadata.getBloomFilterColumnIds(),
                 tableMetadata.getSortColumnIds(),
                 nCopies(tableMetadata.getSortColumnIds().size(), ASC_NULLS_FIRST));
     }
@@ -22,6 +22,7 @@ import com.facebook.presto.raptor.metadata.TableColumn;
 import com.facebook.presto.raptor.storage.StorageManagerConfig;
 import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimaps;
@@ -36,9 +37,11 @@ import javax.inject.Inject;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -76,6 +79,7 @@ public class ShardCompactionManager
     private final Duration compactionDiscoveryInterval;
     private final DataSize maxShardSize;
     private final long maxShardRows;
+    private final double compactionDeletedRowsThreshold;
     private final IDBI dbi;
 
     @Inject
@@ -88,6 +92,7 @@ public class ShardCompactionManager
                 config.getCompactionInterval(),
                 config.getMaxShardSize(),
                 config.getMaxShardRows(),
+                config.getCompactionDeletedRowsThreshold(),
                 config.isCompactionEnabled());
     }
 
@@ -99,6 +104,7 @@ public class ShardCompactionManager
             Duration compactionDiscoveryInterval,
             DataSize maxShardSize,
             long maxShardRows,
+            double compactionDeletedRowsThreshold,
             boolean compactionEnabled)
     {
         this.dbi = requireNonNull(dbi, "dbi is null");
@@ -115,6 +121,9 @@ public class ShardCompactionManager
         checkArgument(maxShardRows > 0, "maxShardRows must be > 0");
         this.maxShardRows = maxShardRows;
 
+        checkArgument(compactionDeletedRowsThreshold >= 0.0 && compactionDeletedRowsThreshold <= 1.0, "compactionDeletedRowsThreshold must be between 0 and 1");
+        this.compactionDeletedRowsThreshold = compactionDeletedRowsThreshold;
+
         this.compactionEnabled = compactionEnabled;
         this.compactionSetCreator = new CompactionSetCreator(maxShardSize, maxShardRows);
     }
@@ -171,7 +180,10 @@ public class ShardCompactionManager
                 continue;
             }
             List<ShardMetadata> shards = entry.getValue();
-            Collection<OrganizationSet> organizationSets = filterAndCreateCompactionSets(tableId, shards);
+            Collection<OrganizationSet> organizationSets = ImmutableList.<OrganizationSet>builder()
+                    .addAll(filterAndCreateCompactionSets(tableId, shards))
+                    .addAll(createDeletedRowsRewriteSets(tableId, shards))
+                    .build();
             log.info("Created %s organization set(s) for table ID %s", organizationSets.size(), tableId);
 
             for (OrganizationSet set : organizationSets) {
@@ -207,6 +219,32 @@ public class ShardCompactionManager
         return compactionSetCreator.createCompactionSets(tableInfo, shardIndexInfos);
     }
 
+    private Collection<OrganizationSet> createDeletedRowsRewriteSets(long tableId, Collection<ShardMetadata> tableShards)
+    {
+        // shards with many rows marked deleted in their delete bitmap are rewritten on their own,
+        // which drops the deleted rows and releases the storage they occupy
+        Map<UUID, Long> deletedRowCounts = shardManager.getShardDeletedRowCounts(tableId);
+        if (deletedRowCounts.isEmpty()) {
+            return ImmutableSet.of();
+        }
+
+        return tableShards.stream()
+                .filter(shard -> deletedRowCounts.containsKey(shard.getShardUuid()))
+                .filter(shard -> !needsCompaction(shard))
+                .filter(shard -> !organizer.inProgress(shard.getShardUuid()))
+                .filter(shard -> exceedsDeletedRowsThreshold(shard, deletedRowCounts.get(shard.getShardUuid())))
+                .map(shard -> new OrganizationSet(tableId, ImmutableSet.of(shard.getShardUuid()), shard.getBucketNumber()))
+                .collect(toSet());
+    }
+
+    private boolean exceedsDeletedRowsThreshold(ShardMetadata shard, long deletedRowCount)
+    {
+        if (shard.getRowCount() == 0) {
+            return true;
+        }
+        return ((double) deletedRowCount / shard.getRowCount()) >= compactionDeletedRowsThreshold;
+    }
+
     private static boolean isValidTemporalColumn(long tableId, Type type)
     {
         if (!type.equals(DATE) && !type.equals(TIMESTAMP)) {
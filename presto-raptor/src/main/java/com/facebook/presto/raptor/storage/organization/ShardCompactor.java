@@ -14,6 +14,7 @@
 package com.facebook.presto.raptor.storage.organization;
 
 import com.facebook.presto.raptor.metadata.ColumnInfo;
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
 import com.facebook.presto.raptor.metadata.ShardInfo;
 import com.facebook.presto.raptor.storage.ReaderAttributes;
 import com.facebook.presto.raptor.storage.Row;
@@ -37,8 +38,11 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
@@ -70,18 +74,18 @@ public final class ShardCompactor
         this.readerAttributes = requireNonNull(readerAttributes, "readerAttributes is null");
     }
 
-    public List<ShardInfo> compact(long transactionId, OptionalInt bucketNumber, Set<UUID> uuids, List<ColumnInfo> columns)
+    public List<ShardInfo> compact(long transactionId, OptionalInt bucketNumber, Set<UUID> uuids, Map<UUID, DeleteBitmap> deleteBitmaps, List<ColumnInfo> columns, Set<Long> bloomFilterColumnIds)
             throws IOException
     {
         long start = System.nanoTime();
         List<Long> columnIds = columns.stream().map(ColumnInfo::getColumnId).collect(toList());
         List<Type> columnTypes = columns.stream().map(ColumnInfo::getType).collect(toList());
 
-        StoragePageSink storagePageSink = storageManager.createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, false);
+        StoragePageSink storagePageSink = storageManager.createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, bloomFilterColumnIds, false);
 
         List<ShardInfo> shardInfos;
         try {
-            shardInfos = compact(storagePageSink, bucketNumber, uuids, columnIds, columnTypes);
+            shardInfos = compact(storagePageSink, bucketNumber, uuids, deleteBitmaps, columnIds, columnTypes);
         }
         catch (IOException | RuntimeException e) {
             storagePageSink.rollback();
@@ -92,11 +96,11 @@ public final class ShardCompactor
         return shardInfos;
     }
 
-    private List<ShardInfo> compact(StoragePageSink storagePageSink, OptionalInt bucketNumber, Set<UUID> uuids, List<Long> columnIds, List<Type> columnTypes)
+    private List<ShardInfo> compact(StoragePageSink storagePageSink, OptionalInt bucketNumber, Set<UUID> uuids, Map<UUID, DeleteBitmap> deleteBitmaps, List<Long> columnIds, List<Type> columnTypes)
             throws IOException
     {
         for (UUID uuid : uuids) {
-            try (ConnectorPageSource pageSource = storageManager.getPageSource(uuid, bucketNumber, columnIds, columnTypes, TupleDomain.all(), readerAttributes)) {
+            try (ConnectorPageSource pageSource = getPageSource(uuid, bucketNumber, deleteBitmaps, columnIds, columnTypes)) {
                 while (!pageSource.isFinished()) {
                     Page page = pageSource.getNextPage();
                     if (isNullOrEmptyPage(page)) {
@@ -112,7 +116,15 @@ public final class ShardCompactor
         return getFutureValue(storagePageSink.commit());
     }
 
-    public List<ShardInfo> compactSorted(long transactionId, OptionalInt bucketNumber, Set<UUID> uuids, List<ColumnInfo> columns, List<Long> sortColumnIds, List<SortOrder> sortOrders)
+    public List<ShardInfo> compactSorted(
+            long transactionId,
+            OptionalInt bucketNumber,
+            Set<UUID> uuids,
+            Map<UUID, DeleteBitmap> deleteBitmaps,
+            List<ColumnInfo> columns,
+            Set<Long> bloomFilterColumnIds,
+            List<Long> sortColumnIds,
+            List<SortOrder> sortOrders)
             throws IOException
     {
         checkArgument(sortColumnIds.size() == sortOrders.size(), "sortColumnIds and sortOrders must be of the same size");
@@ -129,10 +141,10 @@ public final class ShardCompactor
                 .collect(toList());
 
         Queue<SortedRowSource> rowSources = new PriorityQueue<>();
-        StoragePageSink outputPageSink = storageManager.createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, false);
+        StoragePageSink outputPageSink = storageManager.createStoragePageSink(transactionId, bucketNumber, columnIds, columnTypes, bloomFilterColumnIds, false);
         try {
             for (UUID uuid : uuids) {
-                ConnectorPageSource pageSource = storageManager.getPageSource(uuid, bucketNumber, columnIds, columnTypes, TupleDomain.all(), readerAttributes);
+                ConnectorPageSource pageSource = getPageSource(uuid, bucketNumber, deleteBitmaps, columnIds, columnTypes);
                 SortedRowSource rowSource = new SortedRowSource(pageSource, columnTypes, sortIndexes, sortOrders);
                 rowSources.add(rowSource);
             }
@@ -168,6 +180,13 @@ public final class ShardCompactor
         }
     }
 
+    private ConnectorPageSource getPageSource(UUID uuid, OptionalInt bucketNumber, Map<UUID, DeleteBitmap> deleteBitmaps, List<Long> columnIds, List<Type> columnTypes)
+    {
+        // deleted rows are dropped from the compacted shards
+        Optional<DeleteBitmap> deleteBitmap = Optional.ofNullable(deleteBitmaps.get(uuid));
+        return storageManager.getPageSource(uuid, bucketNumber, columnIds, columnTypes, TupleDomain.all(), readerAttributes, deleteBitmap, OptionalLong.empty());
+    }
+
     private static class SortedRowSource
             implements Iterator<Row>, Comparable<SortedRowSource>, Closeable
     {
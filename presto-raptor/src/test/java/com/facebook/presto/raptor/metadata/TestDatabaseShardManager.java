@@ -51,6 +51,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -65,6 +66,8 @@ import java.util.UUID;
 import static com.facebook.presto.raptor.RaptorErrorCode.RAPTOR_EXTERNAL_BATCH_ALREADY_EXISTS;
 import static com.facebook.presto.raptor.metadata.DatabaseShardManager.shardIndexTable;
 import static com.facebook.presto.raptor.metadata.SchemaDaoUtil.createTablesWithRetry;
+import static com.facebook.presto.raptor.storage.ShardBloomFilter.createBloomFilter;
+import static com.facebook.presto.raptor.storage.ShardBloomFilter.valueHash;
 import static com.facebook.presto.raptor.storage.ShardStats.MAX_BINARY_INDEX_SIZE;
 import static com.facebook.presto.spi.StandardErrorCode.SERVER_STARTING_UP;
 import static com.facebook.presto.spi.StandardErrorCode.TRANSACTION_CONFLICT;
@@ -347,6 +350,62 @@ public class TestDatabaseShardManager
         }
     }
 
+    @Test
+    public void testDeleteBitmaps()
+    {
+        long tableId = createTable("test");
+        List<ColumnInfo> columns = ImmutableList.of(new ColumnInfo(1, BIGINT));
+        UUID shard1 = UUID.randomUUID();
+        UUID shard2 = UUID.randomUUID();
+        List<ShardInfo> shards = ImmutableList.of(
+                new ShardInfo(shard1, OptionalInt.empty(), ImmutableSet.of("node1"), ImmutableList.of(), 10, 10, 10, 0),
+                new ShardInfo(shard2, OptionalInt.empty(), ImmutableSet.of("node1"), ImmutableList.of(), 10, 10, 10, 0));
+
+        shardManager.createTable(tableId, columns, false, OptionalLong.empty());
+        long transactionId = shardManager.beginTransaction();
+        shardManager.commitShards(transactionId, tableId, columns, shards, Optional.empty(), 0);
+
+        BitSet deletedRows = new BitSet();
+        deletedRows.set(2);
+        deletedRows.set(7);
+        DeleteBitmap bitmap = new DeleteBitmap(deletedRows);
+
+        transactionId = shardManager.beginTransaction();
+        shardManager.replaceShardUuids(transactionId, tableId, columns, ImmutableSet.of(), ImmutableMap.of(), ImmutableList.of(), ImmutableList.of(new ShardDeleteDelta(shard1, 0, bitmap)), OptionalLong.of(0));
+
+        assertEquals(shardManager.getShardDeleteBitmaps(ImmutableSet.of(shard1, shard2)), ImmutableMap.of(shard1, bitmap));
+        assertEquals(shardManager.getShardDeletedRowCounts(tableId), ImmutableMap.of(shard1, 2L));
+        assertEquals(getShardNodes(tableId, TupleDomain.all()), ImmutableSet.of(
+                new ShardNodes(shard1, ImmutableSet.of("node1"), Optional.of(bitmap)),
+                new ShardNodes(shard2, ImmutableSet.of("node1"))));
+
+        // a delete based on a stale bitmap conflicts
+        try {
+            transactionId = shardManager.beginTransaction();
+            shardManager.replaceShardUuids(transactionId, tableId, columns, ImmutableSet.of(), ImmutableMap.of(), ImmutableList.of(), ImmutableList.of(new ShardDeleteDelta(shard1, 0, bitmap)), OptionalLong.of(0));
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), TRANSACTION_CONFLICT.toErrorCode());
+        }
+
+        // compaction of a shard that received deletes after it was read conflicts
+        List<ShardInfo> newShards = ImmutableList.of(shardInfo(UUID.randomUUID(), "node1"));
+        try {
+            transactionId = shardManager.beginTransaction();
+            shardManager.replaceShardUuids(transactionId, tableId, columns, ImmutableSet.of(shard1), ImmutableMap.of(), newShards, ImmutableList.of(), OptionalLong.empty());
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), TRANSACTION_CONFLICT.toErrorCode());
+        }
+
+        transactionId = shardManager.beginTransaction();
+        shardManager.replaceShardUuids(transactionId, tableId, columns, ImmutableSet.of(shard1), ImmutableMap.of(shard1, 2L), newShards, ImmutableList.of(), OptionalLong.empty());
+        assertEquals(shardManager.getShardDeletedRowCounts(tableId), ImmutableMap.of());
+        assertEquals(shardManager.getShardDeleteBitmaps(ImmutableSet.of(shard1)), ImmutableMap.of());
+    }
+
     @Test
     public void testExternalBatches()
             throws Exception
@@ -640,6 +699,56 @@ public class TestDatabaseShardManager
         shardAssertion(tableId).equal(c1, BIGINT, 3L).expected(shards);
     }
 
+    @Test
+    public void testShardPruningBloomFilter()
+            throws Exception
+    {
+        Type varchar = createVarcharType(10);
+        ColumnStats stats1 = new ColumnStats(1, 1L, 9L, createBloomFilter(1L, 5L, 9L));
+        ColumnStats stats2 = new ColumnStats(1, 2L, 8L, createBloomFilter(2L, 8L));
+        ColumnStats stats3 = new ColumnStats(2, "apple", "pear", createBloomFilter(valueHash(varchar, utf8Slice("apple")), valueHash(varchar, utf8Slice("pear"))));
+
+        ShardInfo shard1 = shardInfo(UUID.randomUUID(), "node1", ImmutableList.of(stats1, stats3));
+        ShardInfo shard2 = shardInfo(UUID.randomUUID(), "node2", ImmutableList.of(stats2));
+        ShardInfo shard3 = shardInfo(UUID.randomUUID(), "node3", ImmutableList.of(new ColumnStats(1, 1L, 9L)));
+        List<ShardInfo> shards = ImmutableList.of(shard1, shard2, shard3);
+
+        List<ColumnInfo> columns = ImmutableList.of(new ColumnInfo(1, BIGINT), new ColumnInfo(2, varchar));
+        RaptorColumnHandle c1 = new RaptorColumnHandle("raptor", "c1", 1, BIGINT);
+        RaptorColumnHandle c2 = new RaptorColumnHandle("raptor", "c2", 2, varchar);
+
+        long tableId = createTable("test");
+        MetadataDao metadataDao = dbi.onDemand(MetadataDao.class);
+        metadataDao.insertBloomFilterColumn(tableId, 1);
+        metadataDao.insertBloomFilterColumn(tableId, 2);
+        shardManager.createTable(tableId, columns, false, OptionalLong.empty());
+
+        long transactionId = shardManager.beginTransaction();
+        shardManager.commitShards(transactionId, tableId, columns, shards, Optional.empty(), 0);
+
+        shardAssertion(tableId).expected(shards);
+        shardAssertion(tableId).equal(c1, BIGINT, 5L).expected(shard1, shard3);
+        shardAssertion(tableId).equal(c1, BIGINT, 8L).expected(shard2, shard3);
+        shardAssertion(tableId).between(c1, BIGINT, 3L, 4L).expected(shards);
+        shardAssertion(tableId)
+                .domain(c1, createDomain(Range.equal(BIGINT, 2L), Range.equal(BIGINT, 9L)))
+                .expected(shards);
+        shardAssertion(tableId).equal(c2, varchar, utf8Slice("pear")).expected(shard1, shard2, shard3);
+        shardAssertion(tableId).equal(c2, varchar, utf8Slice("banana")).expected(shard2, shard3);
+
+        // bloom filters are not read when more shards than the limit are candidates
+        TupleDomain<RaptorColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(c1, Domain.singleValue(BIGINT, 5L)));
+        try (ShardIterator iterator = new ShardIterator(tableId, false, Optional.empty(), predicate, dbi, 2)) {
+            Set<UUID> actual = ImmutableSet.copyOf(concat(transform(iterator, i -> i.getShards().iterator()))).stream()
+                    .map(ShardNodes::getShardUuid)
+                    .collect(toSet());
+            assertEquals(actual, ImmutableSet.of(shard1.getShardUuid(), shard2.getShardUuid(), shard3.getShardUuid()));
+        }
+        try (ShardIterator iterator = new ShardIterator(tableId, false, Optional.empty(), predicate, dbi, 3)) {
+            assertEquals(ImmutableSet.copyOf(concat(transform(iterator, i -> i.getShards().iterator()))).size(), 2);
+        }
+    }
+
     @Test
     public void testAddNewColumn()
             throws Exception
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.raptor.metadata;
+
+import org.testng.annotations.Test;
+
+import java.util.BitSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeleteBitmap
+{
+    @Test
+    public void testRoundTrip()
+    {
+        assertRoundTrip(new BitSet());
+        assertRoundTrip(bits(0));
+        assertRoundTrip(bits(3, 4, 5, 1_000, 70_000, 70_001));
+
+        BitSet alternating = new BitSet();
+        for (int i = 0; i < 1_000; i += 2) {
+            alternating.set(i);
+        }
+        assertRoundTrip(alternating);
+    }
+
+    @Test
+    public void testRunsAreCompact()
+    {
+        // a large range of deleted rows takes a few bytes rather than one bit per row
+        BitSet range = new BitSet();
+        range.set(1_000, 5_000_000);
+        assertTrue(assertRoundTrip(range).length < 10);
+
+        // as does a single deleted row at the end of a large shard
+        assertTrue(assertRoundTrip(bits(4_999_999)).length < 10);
+    }
+
+    @Test
+    public void testDenseBitmapIsNotLarger()
+    {
+        BitSet alternating = new BitSet();
+        for (int i = 0; i < 8_000; i += 2) {
+            alternating.set(i);
+        }
+        assertEquals(assertRoundTrip(alternating).length, 1 + alternating.toByteArray().length);
+    }
+
+    private static byte[] assertRoundTrip(BitSet deletedRows)
+    {
+        DeleteBitmap bitmap = new DeleteBitmap(deletedRows);
+        byte[] bytes = bitmap.toByteArray();
+        DeleteBitmap copy = DeleteBitmap.fromByteArray(bytes);
+        assertEquals(copy, bitmap);
+        assertEquals(copy.toBitSet(), deletedRows);
+        return bytes;
+    }
+
+    private static BitSet bits(int... positions)
+    {
+        BitSet bits = new BitSet();
+        for (int position : positions) {
+            bits.set(position);
+        }
+        return bits;
+    }
+}
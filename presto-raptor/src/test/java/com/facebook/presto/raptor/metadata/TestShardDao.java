@@ -225,6 +225,31 @@ public class TestShardDao
         assertEquals(dao.getNodeSizes(), ImmutableSet.of());
     }
 
+    @Test
+    public void testNodeBuckets()
+    {
+        String nodeName1 = UUID.randomUUID().toString();
+        int nodeId1 = dao.insertNode(nodeName1);
+
+        String nodeName2 = UUID.randomUUID().toString();
+        int nodeId2 = dao.insertNode(nodeName2);
+
+        MetadataDao metadataDao = dbi.onDemand(MetadataDao.class);
+        long distributionId = metadataDao.insertDistribution("test", "bigint", 3);
+        dao.insertBuckets(distributionId, ImmutableList.of(0, 1, 2), ImmutableList.of(nodeId1, nodeId2, nodeId1));
+
+        assertEquals(dao.getNodeBuckets(nodeName1), ImmutableSet.of(
+                new DistributionBucket(distributionId, 0),
+                new DistributionBucket(distributionId, 2)));
+        assertEquals(dao.getNodeBuckets(nodeName2), ImmutableSet.of(new DistributionBucket(distributionId, 1)));
+
+        dao.updateBucketNode(distributionId, 0, nodeId2);
+        assertEquals(dao.getNodeBuckets(nodeName1), ImmutableSet.of(new DistributionBucket(distributionId, 2)));
+        assertEquals(dao.getNodeBuckets(nodeName2), ImmutableSet.of(
+                new DistributionBucket(distributionId, 0),
+                new DistributionBucket(distributionId, 1)));
+    }
+
     @Test
     public void testShardSelection()
             throws Exception
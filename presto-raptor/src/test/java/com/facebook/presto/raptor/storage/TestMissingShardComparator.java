@@ -13,10 +13,20 @@
  */
 package com.facebook.presto.raptor.storage;
 
+import com.facebook.presto.raptor.metadata.ShardMetadata;
+import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.raptor.storage.ShardRecoveryManager.MISSING_SHARD_PRIORITY;
 import static com.facebook.presto.raptor.storage.ShardRecoveryManager.MissingShardComparator;
 import static com.facebook.presto.raptor.storage.ShardRecoveryManager.MissingShardRunnable;
+import static java.util.stream.Collectors.toList;
 import static org.testng.Assert.assertEquals;
 
 public class TestMissingShardComparator
@@ -26,22 +36,67 @@ public class TestMissingShardComparator
             throws Exception
     {
         MissingShardComparator comparator = new MissingShardComparator();
-        assertEquals(comparator.compare(new DummyMissingShardRunnable(false), new DummyMissingShardRunnable(false)), 0);
-        assertEquals(comparator.compare(new DummyMissingShardRunnable(false), new DummyMissingShardRunnable(true)), 1);
-        assertEquals(comparator.compare(new DummyMissingShardRunnable(true), new DummyMissingShardRunnable(false)), -1);
-        assertEquals(comparator.compare(new DummyMissingShardRunnable(true), new DummyMissingShardRunnable(true)), 0);
+        ShardMetadata shard = createShard(1, OptionalInt.empty());
+        assertEquals(comparator.compare(new DummyMissingShardRunnable(shard, false), new DummyMissingShardRunnable(shard, false)), 0);
+        assertEquals(comparator.compare(new DummyMissingShardRunnable(shard, false), new DummyMissingShardRunnable(shard, true)), 1);
+        assertEquals(comparator.compare(new DummyMissingShardRunnable(shard, true), new DummyMissingShardRunnable(shard, false)), -1);
+        assertEquals(comparator.compare(new DummyMissingShardRunnable(shard, true), new DummyMissingShardRunnable(shard, true)), 0);
+    }
+
+    @Test
+    public void testBackgroundOrdering()
+            throws Exception
+    {
+        // shards found by different discoveries are queued together, so the queue must order them
+        DummyMissingShardRunnable oldShard = new DummyMissingShardRunnable(createShard(1, OptionalInt.empty()), false);
+        DummyMissingShardRunnable newShard = new DummyMissingShardRunnable(createShard(2, OptionalInt.empty()), false);
+        DummyMissingShardRunnable bucketShard = new DummyMissingShardRunnable(createShard(3, OptionalInt.of(0)), false);
+        DummyMissingShardRunnable activeShard = new DummyMissingShardRunnable(createShard(4, OptionalInt.empty()), true);
+
+        List<MissingShardRunnable> shards = Stream.<MissingShardRunnable>of(oldShard, newShard, bucketShard, activeShard)
+                .sorted(new MissingShardComparator())
+                .collect(toList());
+        assertEquals(shards, ImmutableList.of(activeShard, bucketShard, newShard, oldShard));
+    }
+
+    @Test
+    public void testMissingShardPriority()
+            throws Exception
+    {
+        ShardMetadata oldBucketShard = createShard(1, OptionalInt.of(3));
+        ShardMetadata newBucketShard = createShard(2, OptionalInt.of(0));
+        ShardMetadata oldShard = createShard(3, OptionalInt.empty());
+        ShardMetadata newShard = createShard(4, OptionalInt.empty());
+
+        List<ShardMetadata> shards = Stream.of(oldShard, oldBucketShard, newShard, newBucketShard)
+                .sorted(MISSING_SHARD_PRIORITY)
+                .collect(toList());
+        assertEquals(shards, ImmutableList.of(newBucketShard, oldBucketShard, newShard, oldShard));
+    }
+
+    private static ShardMetadata createShard(long shardId, OptionalInt bucketNumber)
+    {
+        return new ShardMetadata(1, shardId, UUID.randomUUID(), bucketNumber, 10, 100, 200, OptionalLong.empty(), OptionalLong.empty(), OptionalLong.empty());
     }
 
     private static class DummyMissingShardRunnable
         implements MissingShardRunnable
     {
+        private final ShardMetadata shard;
         private final boolean active;
 
-        DummyMissingShardRunnable(boolean active)
+        DummyMissingShardRunnable(ShardMetadata shard, boolean active)
         {
+            this.shard = shard;
             this.active = active;
         }
 
+        @Override
+        public ShardMetadata getShard()
+        {
+            return shard;
+        }
+
         @Override
         public boolean isActive()
         {
@@ -20,6 +20,8 @@ import com.facebook.presto.raptor.backup.BackupManager;
 import com.facebook.presto.raptor.backup.BackupStore;
 import com.facebook.presto.raptor.backup.FileBackupStore;
 import com.facebook.presto.raptor.metadata.ColumnStats;
+import com.facebook.presto.raptor.metadata.DeleteBitmap;
+import com.facebook.presto.raptor.metadata.ShardDeleteDelta;
 import com.facebook.presto.raptor.metadata.ShardDelta;
 import com.facebook.presto.raptor.metadata.ShardInfo;
 import com.facebook.presto.raptor.metadata.ShardManager;
@@ -40,6 +42,7 @@ import com.facebook.presto.testing.TestingNodeManager;
 import com.facebook.presto.type.TypeRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
@@ -72,6 +75,7 @@ import static com.facebook.presto.raptor.metadata.TestDatabaseShardManager.creat
 import static com.facebook.presto.raptor.storage.OrcStorageManager.xxhash64;
 import static com.facebook.presto.raptor.storage.OrcTestingUtil.createReader;
 import static com.facebook.presto.raptor.storage.OrcTestingUtil.octets;
+import static com.facebook.presto.raptor.storage.ShardBloomFilter.valueHash;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DateType.DATE;
@@ -96,10 +100,12 @@ import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.String.format;
+import static java.util.UUID.randomUUID;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 import static org.testng.FileAssert.assertDirectory;
@@ -356,6 +362,72 @@ public class TestOrcStorageManager
         assertEquals(recordedShards.get(1).getShardUuid(), shardInfo.getShardUuid());
     }
 
+    @Test
+    public void testDeleteDelta()
+    {
+        UUID uuid = randomUUID();
+
+        BitSet rowsToDelete = new BitSet();
+        rowsToDelete.set(1);
+        rowsToDelete.set(3);
+        ShardDeleteDelta delta = getDeleteDelta(OrcStorageManager.deleteDelta(uuid, Optional.empty(), rowsToDelete));
+        assertEquals(delta.getShardUuid(), uuid);
+        assertEquals(delta.getPreviousDeletedRowCount(), 0);
+        assertEquals(delta.getDeleteBitmap(), new DeleteBitmap(rowsToDelete));
+
+        // later deletes extend the existing bitmap
+        rowsToDelete = new BitSet();
+        rowsToDelete.set(3);
+        rowsToDelete.set(5);
+        delta = getDeleteDelta(OrcStorageManager.deleteDelta(uuid, Optional.of(delta.getDeleteBitmap()), rowsToDelete));
+        assertEquals(delta.getPreviousDeletedRowCount(), 2);
+        assertEquals(delta.getDeleteBitmap().getDeletedRowCount(), 3);
+        assertTrue(delta.getDeleteBitmap().isDeleted(1));
+        assertTrue(delta.getDeleteBitmap().isDeleted(3));
+        assertTrue(delta.getDeleteBitmap().isDeleted(5));
+    }
+
+    @Test
+    public void testReaderWithDeleteBitmap()
+            throws Exception
+    {
+        OrcStorageManager manager = createOrcStorageManager();
+
+        List<Long> columnIds = ImmutableList.of(3L, 7L);
+        List<Type> columnTypes = ImmutableList.of(BIGINT, createVarcharType(10));
+
+        StoragePageSink sink = createStoragePageSink(manager, columnIds, columnTypes);
+        List<Page> pages = rowPagesBuilder(columnTypes)
+                .row(123L, "hello")
+                .row(456L, "bye")
+                .row(789L, "world")
+                .build();
+        sink.appendPages(pages);
+        UUID uuid = Iterables.getOnlyElement(getFutureValue(sink.commit())).getShardUuid();
+
+        BitSet deletedRows = new BitSet();
+        deletedRows.set(1);
+        Optional<DeleteBitmap> deleteBitmap = Optional.of(new DeleteBitmap(deletedRows));
+
+        MaterializedResult expected = resultBuilder(SESSION, columnTypes)
+                .row(123L, "hello")
+                .row(789L, "world")
+                .build();
+
+        try (ConnectorPageSource pageSource = manager.getPageSource(uuid, OptionalInt.empty(), columnIds, columnTypes, TupleDomain.all(), READER_ATTRIBUTES, deleteBitmap, OptionalLong.empty())) {
+            MaterializedResult result = materializeSourceDataStream(SESSION, pageSource, columnTypes);
+            assertEquals(result, expected);
+        }
+
+        // all rows deleted
+        deletedRows.set(0, 3);
+        deleteBitmap = Optional.of(new DeleteBitmap(deletedRows));
+        try (ConnectorPageSource pageSource = manager.getPageSource(uuid, OptionalInt.empty(), columnIds, columnTypes, TupleDomain.all(), READER_ATTRIBUTES, deleteBitmap, OptionalLong.empty())) {
+            MaterializedResult result = materializeSourceDataStream(SESSION, pageSource, columnTypes);
+            assertEquals(result.getRowCount(), 0);
+        }
+    }
+
     @Test
     public void testWriterRollback()
             throws Exception
@@ -500,6 +572,36 @@ public class TestOrcStorageManager
         assertColumnStats(stats, 2, minTimestamp, maxTimestamp);
     }
 
+    @Test
+    public void testShardStatsBloomFilter()
+    {
+        List<Long> columnIds = ImmutableList.of(1L, 2L, 3L);
+        List<Type> columnTypes = types(BIGINT, createVarcharType(10), BIGINT);
+
+        OrcStorageManager manager = createOrcStorageManager();
+        StoragePageSink sink = manager.createStoragePageSink(TRANSACTION_ID, OptionalInt.empty(), columnIds, columnTypes, ImmutableSet.of(1L, 2L), false);
+        sink.appendPages(rowPagesBuilder(columnTypes)
+                .row(5L, utf8Slice("hello"), 1L)
+                .row(3L, utf8Slice("bye"), 2L)
+                .row(null, null, 3L)
+                .build());
+        List<ColumnStats> stats = Iterables.getOnlyElement(getFutureValue(sink.commit())).getColumnStats();
+
+        assertColumnStats(stats, 1, 3L, 5L);
+        assertColumnStats(stats, 2, "bye", "hello");
+        assertColumnStats(stats, 3, 1L, 3L);
+
+        ShardBloomFilter bigintFilter = ShardBloomFilter.deserialize(bloomFilter(stats, 1));
+        assertTrue(bigintFilter.mightContain(valueHash(BIGINT, 3L)));
+        assertTrue(bigintFilter.mightContain(valueHash(BIGINT, 5L)));
+
+        ShardBloomFilter varcharFilter = ShardBloomFilter.deserialize(bloomFilter(stats, 2));
+        assertTrue(varcharFilter.mightContain(valueHash(createVarcharType(10), utf8Slice("hello"))));
+        assertTrue(varcharFilter.mightContain(valueHash(createVarcharType(10), utf8Slice("bye"))));
+
+        assertNull(bloomFilter(stats, 3));
+    }
+
     @Test
     public void testMaxShardRows()
             throws Exception
@@ -547,6 +649,14 @@ public class TestOrcStorageManager
         return manager.getPageSource(uuid, OptionalInt.empty(), columnIds, columnTypes, tupleDomain, READER_ATTRIBUTES);
     }
 
+    private static ShardDeleteDelta getDeleteDelta(Collection<Slice> fragments)
+    {
+        ShardDelta delta = jsonCodec(ShardDelta.class).fromJson(Iterables.getOnlyElement(fragments).getBytes());
+        assertEquals(delta.getOldShardUuids(), ImmutableList.of());
+        assertEquals(delta.getNewShards(), ImmutableList.of());
+        return Iterables.getOnlyElement(delta.getDeleteDeltas());
+    }
+
     private static StoragePageSink createStoragePageSink(StorageManager manager, List<Long> columnIds, List<Type> columnTypes)
     {
         long transactionId = TRANSACTION_ID;
@@ -620,7 +730,8 @@ public class TestOrcStorageManager
                 SHARD_RECOVERY_TIMEOUT,
                 maxShardRows,
                 maxFileSize,
-                new DataSize(0, BYTE));
+                new DataSize(0, BYTE),
+                true);
     }
 
     private static void assertFileEquals(File actual, File expected)
@@ -641,6 +752,15 @@ public class TestOrcStorageManager
         fail(format("no stats for column: %s: %s", columnId, list));
     }
 
+    private static byte[] bloomFilter(List<ColumnStats> list, long columnId)
+    {
+        return list.stream()
+                .filter(stats -> stats.getColumnId() == columnId)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no stats for column: " + columnId))
+                .getBloomFilter();
+    }
+
     private static void assertNoColumnStats(List<ColumnStats> list, long columnId)
     {
         for (ColumnStats stats : list) {
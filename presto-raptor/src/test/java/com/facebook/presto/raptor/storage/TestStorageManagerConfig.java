@@ -52,12 +52,16 @@ public class TestStorageManagerConfig
                 .setDeletionThreads(max(1, getRuntime().availableProcessors() / 2))
                 .setShardRecoveryTimeout(new Duration(30, SECONDS))
                 .setMissingShardDiscoveryInterval(new Duration(5, MINUTES))
+                .setBucketAssignmentCheckInterval(new Duration(10, SECONDS))
                 .setCompactionInterval(new Duration(1, HOURS))
                 .setShardEjectorInterval(new Duration(4, HOURS))
                 .setRecoveryThreads(10)
+                .setBackgroundRecoveryThreads(10)
                 .setOrganizationThreads(5)
                 .setCompactionEnabled(true)
                 .setOrganizationEnabled(true)
+                .setDeleteBitmapsEnabled(true)
+                .setCompactionDeletedRowsThreshold(0.1)
                 .setOrganizationInterval(new Duration(7, DAYS))
                 .setMaxShardRows(1_000_000)
                 .setMaxShardSize(new DataSize(256, MEGABYTE))
@@ -77,12 +81,16 @@ public class TestStorageManagerConfig
                 .put("storage.max-deletion-threads", "999")
                 .put("storage.shard-recovery-timeout", "1m")
                 .put("storage.missing-shard-discovery-interval", "4m")
+                .put("storage.bucket-assignment-check-interval", "1m")
                 .put("storage.compaction-enabled", "false")
                 .put("storage.compaction-interval", "4h")
                 .put("storage.organization-enabled", "false")
                 .put("storage.organization-interval", "4h")
+                .put("storage.delete-bitmaps-enabled", "false")
+                .put("storage.compaction-deleted-rows-threshold", "0.5")
                 .put("storage.ejector-interval", "9h")
                 .put("storage.max-recovery-threads", "12")
+                .put("storage.max-background-recovery-threads", "3")
                 .put("storage.max-organization-threads", "12")
                 .put("storage.max-shard-rows", "10000")
                 .put("storage.max-shard-size", "10MB")
@@ -99,12 +107,16 @@ public class TestStorageManagerConfig
                 .setDeletionThreads(999)
                 .setShardRecoveryTimeout(new Duration(1, MINUTES))
                 .setMissingShardDiscoveryInterval(new Duration(4, MINUTES))
+                .setBucketAssignmentCheckInterval(new Duration(1, MINUTES))
                 .setCompactionEnabled(false)
                 .setCompactionInterval(new Duration(4, HOURS))
                 .setOrganizationEnabled(false)
                 .setOrganizationInterval(new Duration(4, HOURS))
+                .setDeleteBitmapsEnabled(false)
+                .setCompactionDeletedRowsThreshold(0.5)
                 .setShardEjectorInterval(new Duration(9, HOURS))
                 .setRecoveryThreads(12)
+                .setBackgroundRecoveryThreads(3)
                 .setOrganizationThreads(12)
                 .setMaxShardRows(10_000)
                 .setMaxShardSize(new DataSize(10, MEGABYTE))
@@ -15,6 +15,7 @@ package com.facebook.presto.spi;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.OptionalDouble;
 import java.util.concurrent.CompletableFuture;
 
 public interface ConnectorPageSource
@@ -41,6 +42,20 @@ public interface ConnectorPageSource
      */
     long getReadTimeNanos();
 
+    /**
+     * Gets the fraction of the input of this page source that has been processed,
+     * between 0 and 1. The default implementation is based on the completed and
+     * total bytes, and returns empty if the total size is not available.
+     */
+    default OptionalDouble getProgress()
+    {
+        long totalBytes = getTotalBytes();
+        if (totalBytes <= 0) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(Math.min(1.0, (double) getCompletedBytes() / totalBytes));
+    }
+
     /**
      * Will this page source product more pages?
      */
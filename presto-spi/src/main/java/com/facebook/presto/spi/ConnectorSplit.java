@@ -22,4 +22,14 @@ public interface ConnectorSplit
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * Returns true if reading this split more than once, possibly concurrently on
+     * different nodes, always produces the same rows. Such splits may be executed
+     * speculatively when they run much longer than their peers.
+     */
+    default boolean isIdempotent()
+    {
+        return false;
+    }
 }
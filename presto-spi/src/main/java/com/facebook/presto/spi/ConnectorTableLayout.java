@@ -32,6 +32,7 @@ public class ConnectorTableLayout
     private final Optional<Set<ColumnHandle>> streamPartitioningColumns;
     private final Optional<DiscretePredicates> discretePredicates;
     private final List<LocalProperty<ColumnHandle>> localProperties;
+    private final List<LocalProperty<ColumnHandle>> splitLocalProperties;
 
     public ConnectorTableLayout(ConnectorTableLayoutHandle handle)
     {
@@ -52,6 +53,19 @@ public class ConnectorTableLayout
             Optional<Set<ColumnHandle>> streamPartitioningColumns,
             Optional<DiscretePredicates> discretePredicates,
             List<LocalProperty<ColumnHandle>> localProperties)
+    {
+        this(handle, columns, predicate, nodePartitioning, streamPartitioningColumns, discretePredicates, localProperties, emptyList());
+    }
+
+    public ConnectorTableLayout(
+            ConnectorTableLayoutHandle handle,
+            Optional<List<ColumnHandle>> columns,
+            TupleDomain<ColumnHandle> predicate,
+            Optional<ConnectorNodePartitioning> nodePartitioning,
+            Optional<Set<ColumnHandle>> streamPartitioningColumns,
+            Optional<DiscretePredicates> discretePredicates,
+            List<LocalProperty<ColumnHandle>> localProperties,
+            List<LocalProperty<ColumnHandle>> splitLocalProperties)
     {
         requireNonNull(handle, "handle is null");
         requireNonNull(columns, "columns is null");
@@ -60,6 +74,7 @@ public class ConnectorTableLayout
         requireNonNull(predicate, "predicate is null");
         requireNonNull(discretePredicates, "discretePredicates is null");
         requireNonNull(localProperties, "localProperties is null");
+        requireNonNull(splitLocalProperties, "splitLocalProperties is null");
 
         this.handle = handle;
         this.columns = columns;
@@ -68,6 +83,7 @@ public class ConnectorTableLayout
         this.predicate = predicate;
         this.discretePredicates = discretePredicates;
         this.localProperties = localProperties;
+        this.splitLocalProperties = splitLocalProperties;
     }
 
     public ConnectorTableLayoutHandle getHandle()
@@ -135,10 +151,21 @@ public class ConnectorTableLayout
         return localProperties;
     }
 
+    /**
+     * Properties describing the layout of the data (grouping/sorting) within each split.
+     * Unlike {@link #getLocalProperties()}, these are not guaranteed to hold across the
+     * splits processed by a single driver, so the engine may only use them for operations
+     * that remain correct when a group is split across multiple splits.
+     */
+    public List<LocalProperty<ColumnHandle>> getSplitLocalProperties()
+    {
+        return splitLocalProperties;
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hash(handle, columns, predicate, discretePredicates, streamPartitioningColumns, nodePartitioning, localProperties);
+        return Objects.hash(handle, columns, predicate, discretePredicates, streamPartitioningColumns, nodePartitioning, localProperties, splitLocalProperties);
     }
 
     @Override
@@ -157,6 +184,7 @@ public class ConnectorTableLayout
                 && Objects.equals(this.discretePredicates, other.discretePredicates)
                 && Objects.equals(this.streamPartitioningColumns, other.streamPartitioningColumns)
                 && Objects.equals(this.nodePartitioning, other.nodePartitioning)
-                && Objects.equals(this.localProperties, other.localProperties);
+                && Objects.equals(this.localProperties, other.localProperties)
+                && Objects.equals(this.splitLocalProperties, other.splitLocalProperties);
     }
 }
@@ -218,6 +218,40 @@ public class LongArrayBlock
         return sb.toString();
     }
 
+    /**
+     * Copies the values and null flags of {@code length} positions to the start of {@code values}
+     * and {@code nulls}. The positions are {@code positions[positionsOffset]} and the ones after it,
+     * or the range of positions starting at {@code positionsOffset} when {@code positions} is null.
+     * The value copied for a null position is zero.
+     *
+     * @return whether any of the copied positions is null
+     */
+    public boolean getLongs(int[] positions, int positionsOffset, int length, long[] values, boolean[] nulls)
+    {
+        if (positions == null) {
+            checkValidRegion(getPositionCount(), positionsOffset, length);
+            System.arraycopy(this.values, positionsOffset + arrayOffset, values, 0, length);
+            System.arraycopy(valueIsNull, positionsOffset + arrayOffset, nulls, 0, length);
+        }
+        else {
+            for (int i = 0; i < length; i++) {
+                int position = positions[positionsOffset + i];
+                checkReadablePosition(position);
+                values[i] = this.values[position + arrayOffset];
+                nulls[i] = valueIsNull[position + arrayOffset];
+            }
+        }
+
+        boolean hasNull = false;
+        for (int i = 0; i < length; i++) {
+            if (nulls[i]) {
+                values[i] = 0;
+                hasNull = true;
+            }
+        }
+        return hasNull;
+    }
+
     private void checkReadablePosition(int position)
     {
         if (position < 0 || position >= getPositionCount()) {
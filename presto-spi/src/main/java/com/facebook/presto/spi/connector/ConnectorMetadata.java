@@ -106,6 +106,16 @@ public interface ConnectorMetadata
         return Optional.empty();
     }
 
+    /**
+     * Return an opaque version of the data read through the specified table layout. Two equal versions
+     * guarantee that the layout produces the same rows, which allows the engine to reuse results
+     * computed from it. Connectors that cannot guarantee this return an empty version.
+     */
+    default Optional<String> getDataVersion(ConnectorSession session, ConnectorTableLayoutHandle layoutHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * List table names, possibly filtered by schema. An empty list is returned if none match.
      */